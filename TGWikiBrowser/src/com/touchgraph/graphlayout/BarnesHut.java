@@ -0,0 +1,329 @@
+/*
+ * BarnesHut.java - quadtree approximation of the node repulsion used by TGLayout.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU Public License.
+ */
+
+package com.touchgraph.graphlayout;
+
+/** Barnes-Hut approximation of TGLayout.avoidLabels(): the nodes are put
+  * into a quadtree, a distant cell of the tree repulses the node as one
+  * body placed in the center of mass of the cell. It takes O(n log n)
+  * instead of O(n^2) for all pairs of nodes.
+  *
+  * The force is the same as in the original pairwise loop: the node n2
+  * pushes n1 by (n1-n2)/|n1-n2|^2 * n1.repulsion*n2.repulsion/100, it is
+  * ten times weaker if n2 was just made local and n1 was not, and nodes
+  * farther than 600 are ignored. A distant cell crossed by this cutoff
+  * circle is clipped: its mass is reduced to the part of the cell inside
+  * the circle (the mass is taken as uniform in the cell).
+  *
+  * The tree works with the arrays of the layout snapshot (not with Node
+  * objects), so it doesn't need any lock. Arrays of the tree are reused
+  * between the calls.
+  */
+class BarnesHut {
+
+    /** Ratio (cell size / distance) below which the cell is taken as one body.
+      * 0 gives the exact O(n^2) result. */
+    public static final double THETA = 0.7;
+
+    /** Nodes farther than this don't repulse each other. */
+    private static final double CUTOFF = 600;
+
+    /** Coincident nodes are kept in the bucket of a leaf at this depth. */
+    private static final int MAX_DEPTH = 24;
+
+    private final double theta;
+
+    // cells of the tree, the root is 0; children have greater indices than the parent
+    private int cells;
+    private double[] cellX, cellY;  // top-left corner
+    private double[] cellSize;      // cells are squares
+    private int[] child;            // 4 children per cell, -1 if absent
+    private int[] first;            // leaf: first node in the bucket, -1 if empty; internal cell: -2
+    private int[] depth;
+    private double[] massPlain;     // sum of repulsion of the nodes which are not just made local
+    private double[] massLocal;     // sum of repulsion of the just made local nodes
+    private double[] comX, comY;    // center of mass (weighted by repulsion)
+
+    private int[] next = new int[0];    // next node in the bucket, -1 at the end
+    private int[] order = new int[0];   // nodes in order of the leaves, near nodes are close in it
+    private int[] stack = new int[64];
+    private final double[] force = new double[2];
+
+    BarnesHut() {
+        this(THETA);
+    }
+
+    BarnesHut(double theta) {
+        this.theta = theta;
+        allocateCells(256);
+    }
+
+    /** Adds the repulsion forces to fx, fy.
+      *
+      * @param n number of nodes
+      * @param x,y positions of the nodes
+      * @param repulsion repulsion of the nodes
+      * @param justMadeLocal whether the node was just made local
+      * @param k multiplier of the force, i.e. rigidity
+      * @param fx,fy accumulated forces
+      */
+    void addForces(int n, double[] x, double[] y, int[] repulsion,
+                   boolean[] justMadeLocal, double k, double[] fx, double[] fy) {
+        if (n < 2)
+            return;
+        build(n, x, y, repulsion, justMadeLocal);
+
+        // near nodes visit the same cells, so the cells are in the cache
+        for (int m=0;m<n;m++) {
+            int i = order[m];
+            double[] f = force(i, x, y, repulsion, justMadeLocal);
+            fx[i] += f[0]*k;
+            fy[i] += f[1]*k;
+        }
+    }
+
+    /** Returns the force acting on the node i (the array is reused). */
+    private double[] force(int i, double[] x, double[] y, int[] repulsion, boolean[] justMadeLocal) {
+        double xi = x[i], yi = y[i];
+        double fx = 0, fy = 0;
+        double local_factor = justMadeLocal[i] ? 1 : 0.1;
+
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int c = stack[--top];
+            double size = cellSize[c];
+
+            // skip the cell if all of it lies beyond the cutoff
+            double ox = Math.max(0, Math.max(cellX[c] - xi, xi - (cellX[c] + size)));
+            double oy = Math.max(0, Math.max(cellY[c] - yi, yi - (cellY[c] + size)));
+            if (ox*ox + oy*oy >= CUTOFF*CUTOFF)
+                continue;
+
+            if (first[c] != -2) {                      // leaf: exact forces
+                for (int j = first[c]; j >= 0; j = next[j]) {
+                    if (j == i)
+                        continue;
+                    double w = repulsion[j] * (justMadeLocal[j] ? local_factor : 1);
+                    double vx = xi - x[j];
+                    double vy = yi - y[j];
+                    double len = vx*vx + vy*vy;
+                    if (len == 0) {
+                        // two nodes right on top of each other are separated randomly
+                        double sign = i < j ? 1 : -1;
+                        fx += sign * Math.random() * w;
+                        fy += sign * Math.random() * w;
+                    } else if (len < CUTOFF*CUTOFF) {
+                        fx += vx / len * w;
+                        fy += vy / len * w;
+                    }
+                }
+                continue;
+            }
+
+            double vx = xi - comX[c];
+            double vy = yi - comY[c];
+            double len = vx*vx + vy*vy;
+            if (size*size < theta*theta*len) {     // distant cell: one body
+                double w = massPlain[c] + massLocal[c]*local_factor;
+                double far_x = Math.max(Math.abs(cellX[c] - xi), Math.abs(cellX[c] + size - xi));
+                double far_y = Math.max(Math.abs(cellY[c] - yi), Math.abs(cellY[c] + size - yi));
+                if (far_x*far_x + far_y*far_y >= CUTOFF*CUTOFF) {
+                    // the cell is crossed by the cutoff circle: the part of the cell
+                    // nearer than the cutoff, where the cell spans 2*half along the
+                    // direction to the node
+                    double d = Math.sqrt(len);
+                    double half = (Math.abs(vx) + Math.abs(vy)) / d * size / 2;
+                    double part = (CUTOFF - d) / (2*half) + 0.5;
+                    if (part <= 0)
+                        continue;
+                    if (part < 1)
+                        w *= part;
+                }
+                fx += vx / len * w;
+                fy += vy / len * w;
+                continue;
+            }
+            if (top + 4 > stack.length) {
+                int[] s = new int[stack.length*2];
+                System.arraycopy(stack, 0, s, 0, top);
+                stack = s;
+            }
+            for (int q=0;q<4;q++) {
+                int ch = child[4*c + q];
+                if (ch >= 0)
+                    stack[top++] = ch;
+            }
+        }
+        force[0] = fx * repulsion[i] / 100;
+        force[1] = fy * repulsion[i] / 100;
+        return force;
+    }
+
+    /** Builds the tree and calculates masses of the cells. */
+    private void build(int n, double[] x, double[] y, int[] repulsion, boolean[] justMadeLocal) {
+        if (next.length < n) {
+            next  = new int[n];
+            order = new int[n];
+        }
+
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i=0;i<n;i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+
+        cells = 0;
+        newCell(minX, minY, Math.max(Math.max(maxX - minX, maxY - minY), 1) * 1.001, 0);
+        for (int i=0;i<n;i++)
+            insert(i, x, y);
+
+        // nodes in order of the leaves (depth-first)
+        int k = 0, top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int c = stack[--top];
+            if (first[c] != -2) {
+                for (int j = first[c]; j >= 0; j = next[j])
+                    order[k++] = j;
+                continue;
+            }
+            if (top + 4 > stack.length) {
+                int[] s = new int[stack.length*2];
+                System.arraycopy(stack, 0, s, 0, top);
+                stack = s;
+            }
+            for (int q=0;q<4;q++) {
+                int ch = child[4*c + q];
+                if (ch >= 0)
+                    stack[top++] = ch;
+            }
+        }
+
+        // children are after the parent, so the loop from the end goes bottom-up
+        for (int c = cells-1; c >= 0; c--) {
+            double plain = 0, local = 0, sx = 0, sy = 0;
+            if (first[c] == -2) {
+                for (int q=0;q<4;q++) {
+                    int ch = child[4*c + q];
+                    if (ch < 0)
+                        continue;
+                    double m = massPlain[ch] + massLocal[ch];
+                    plain += massPlain[ch];
+                    local += massLocal[ch];
+                    sx += comX[ch] * m;
+                    sy += comY[ch] * m;
+                }
+            } else {
+                for (int j = first[c]; j >= 0; j = next[j]) {
+                    if (justMadeLocal[j])
+                        local += repulsion[j];
+                    else
+                        plain += repulsion[j];
+                    sx += x[j] * repulsion[j];
+                    sy += y[j] * repulsion[j];
+                }
+            }
+            massPlain[c] = plain;
+            massLocal[c] = local;
+            double m = plain + local;
+            comX[c] = m == 0 ? cellX[c] + cellSize[c]/2 : sx / m;
+            comY[c] = m == 0 ? cellY[c] + cellSize[c]/2 : sy / m;
+        }
+    }
+
+    private void insert(int i, double[] x, double[] y) {
+        next[i] = -1;
+        int c = 0;
+        while (true) {
+            if (first[c] == -2) {                       // internal cell
+                int q = quadrant(c, x[i], y[i]);
+                int ch = child[4*c + q];
+                if (ch < 0) {
+                    ch = newChild(c, q);
+                    first[ch] = i;
+                    return;
+                }
+                c = ch;
+            } else if (first[c] == -1) {                // empty leaf
+                first[c] = i;
+                return;
+            } else if (depth[c] >= MAX_DEPTH) {         // coincident nodes
+                next[i] = first[c];
+                first[c] = i;
+                return;
+            } else {                                    // split the leaf
+                int j = first[c];
+                first[c] = -2;
+                int ch = newChild(c, quadrant(c, x[j], y[j]));
+                first[ch] = j;
+            }
+        }
+    }
+
+    private int quadrant(int c, double px, double py) {
+        double half = cellSize[c] / 2;
+        int q = 0;
+        if (px >= cellX[c] + half) q |= 1;
+        if (py >= cellY[c] + half) q |= 2;
+        return q;
+    }
+
+    private int newChild(int c, int q) {
+        double half = cellSize[c] / 2;
+        int ch = newCell(cellX[c] + ((q & 1) != 0 ? half : 0),
+                         cellY[c] + ((q & 2) != 0 ? half : 0),
+                         half, depth[c] + 1);
+        child[4*c + q] = ch;
+        return ch;
+    }
+
+    private int newCell(double cx, double cy, double size, int d) {
+        if (cells == cellSize.length)
+            allocateCells(cells*2);
+        int c = cells++;
+        cellX[c] = cx;
+        cellY[c] = cy;
+        cellSize[c] = size;
+        depth[c] = d;
+        first[c] = -1;
+        for (int q=0;q<4;q++)
+            child[4*c + q] = -1;
+        return c;
+    }
+
+    private void allocateCells(int capacity) {
+        cellX     = grow(cellX, capacity);
+        cellY     = grow(cellY, capacity);
+        cellSize  = grow(cellSize, capacity);
+        massPlain = grow(massPlain, capacity);
+        massLocal = grow(massLocal, capacity);
+        comX      = grow(comX, capacity);
+        comY      = grow(comY, capacity);
+        first     = grow(first, capacity);
+        depth     = grow(depth, capacity);
+        child     = grow(child, capacity*4);
+    }
+
+    private static double[] grow(double[] a, int capacity) {
+        double[] b = new double[capacity];
+        if (a != null)
+            System.arraycopy(a, 0, b, 0, a.length);
+        return b;
+    }
+
+    private static int[] grow(int[] a, int capacity) {
+        int[] b = new int[capacity];
+        if (a != null)
+            System.arraycopy(a, 0, b, 0, a.length);
+        return b;
+    }
+
+} // end com.touchgraph.graphlayout.BarnesHut
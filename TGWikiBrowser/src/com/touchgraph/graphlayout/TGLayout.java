@@ -51,12 +51,21 @@ package com.touchgraph.graphlayout;
 
 import  com.touchgraph.graphlayout.graphelements.*;
 
+import  java.util.Arrays;
+import  java.util.IdentityHashMap;
+
 /**  TGLayout is the thread responsible for graph layout.  It updates
   *  the real coordinates of the nodes in the graphEltSet object.
   *  TGPanel sends it resetDamper commands whenever the layout needs
   *  to be adjusted.  After every adjustment cycle, TGLayout triggers
   *  a repaint of the TGPanel.
   *
+  *  <p>The relax cycle works with a snapshot of node positions, so the
+  *  graph is locked only while the snapshot is taken and while the new
+  *  positions are published (under the lock of TGPanel, which guards
+  *  painting). The repulsion of nodes is approximated by the
+  *  Barnes-Hut quadtree, see {@link BarnesHut}.</p>
+  *
   * ********************************************************************
   *  This is the heart of the TouchGraph application.  Please provide a
   *  Reference to TouchGraph.com if you are influenced by what you see
@@ -90,6 +99,22 @@ public class TGLayout implements Runnable {
 
     Node dragNode=null;
 
+    // Snapshot of the graph: nodes and edges are replaced by indices into these arrays.
+    private Node[] nodes = new Node[0];
+    private int nodeCount;
+    private double[] x, y;          // positions
+    private double[] x0, y0;        // positions when the snapshot was taken
+    private double[] dx, dy;        // forces, i.e. Node.dx, Node.dy
+    private int[] repulsion;
+    private boolean[] justMadeLocal;
+
+    private int edgeCount;
+    private int[] edgeFrom = new int[0];
+    private int[] edgeTo;
+    private int[] edgeLength;
+
+    private final BarnesHut barnesHut = new BarnesHut();
+
   // ............
 
   /** Constructor with a supplied TGPanel <tt>tgp</tt>.
@@ -109,44 +134,142 @@ public class TGLayout implements Runnable {
     }
 
 
-    //relaxEdges is more like tense edges up.  All edges pull nodes closes together;
-    private synchronized void relaxEdges() {
-        TGForEachEdge fee = new TGForEachEdge() {
+    /** Copies positions of nodes and ends of edges to the arrays of the snapshot. */
+    private void takeSnapshot() {
+        final IdentityHashMap<Node, Integer> index = new IdentityHashMap<Node, Integer>();
+        nodeCount = 0;
+        edgeCount = 0;
+
+        tgPanel.getGES().forAllNodes(new TGForEachNode() {
+            public void forEachNode(Node n) {
+                if (nodeCount == nodes.length)
+                    growNodes(Math.max(16, nodeCount*2));
+                int i = nodeCount++;
+                nodes[i] = n;
+                x[i] = x0[i] = n.x;
+                y[i] = y0[i] = n.y;
+                dx[i] = n.dx;
+                dy[i] = n.dy;
+                repulsion[i] = n.repulsion;
+                justMadeLocal[i] = n.justMadeLocal;
+                index.put(n, new Integer(i));
+            }
+        });
+
+        tgPanel.getGES().forAllEdges(new TGForEachEdge() {
             public void forEachEdge(Edge e) {
+                Integer from = index.get(e.from);
+                Integer to   = index.get(e.to);
+                if (from == null || to == null)
+                    return;
+                if (edgeCount == edgeFrom.length)
+                    growEdges(Math.max(16, edgeCount*2));
+                edgeFrom  [edgeCount] = from.intValue();
+                edgeTo    [edgeCount] = to.intValue();
+                edgeLength[edgeCount] = e.getLength();
+                edgeCount ++;
+            }
+        });
+    }
 
-                   double vx = e.to.x - e.from.x;
-                double vy = e.to.y - e.from.y;
-                double len = Math.sqrt(vx * vx + vy * vy);
+    /** Writes the new positions to the nodes and repaints the panel.
+      * Nodes which are fixed, dragged or moved by somebody else since
+      * the snapshot was taken keep their position.
+      */
+    private void publishSnapshot() {
+        synchronized (tgPanel) {
+            for (int i=0;i<nodeCount;i++) {
+                Node n = nodes[i];
+                n.dx = dx[i];
+                n.dy = dy[i];
+                if (!n.fixed && n != dragNode && n.x == x0[i] && n.y == y0[i]) {
+                    n.x = x[i];
+                    n.y = y[i];
+                }
+            }
+            tgPanel.repaintAfterMove();
+        }
+        Arrays.fill(nodes, 0, nodeCount, null); // don't keep deleted nodes
+    }
 
-                double dx=vx*rigidity;  //rigidity makes edges tighter
-                double dy=vy*rigidity;
+    private void growNodes(int capacity) {
+        Node[] a = new Node[capacity];
+        System.arraycopy(nodes, 0, a, 0, nodes.length);
+        nodes = a;
+        x  = grow(x, capacity);
+        y  = grow(y, capacity);
+        x0 = grow(x0, capacity);
+        y0 = grow(y0, capacity);
+        dx = grow(dx, capacity);
+        dy = grow(dy, capacity);
+
+        int[] r = new int[capacity];
+        boolean[] j = new boolean[capacity];
+        if (repulsion != null) {
+            System.arraycopy(repulsion, 0, r, 0, repulsion.length);
+            System.arraycopy(justMadeLocal, 0, j, 0, justMadeLocal.length);
+        }
+        repulsion = r;
+        justMadeLocal = j;
+    }
 
-                dx /=(e.getLength()*100);
-                dy /=(e.getLength()*100);
+    private void growEdges(int capacity) {
+        int[] f = new int[capacity];
+        int[] t = new int[capacity];
+        int[] l = new int[capacity];
+        System.arraycopy(edgeFrom, 0, f, 0, edgeFrom.length);
+        if (edgeTo != null) {
+            System.arraycopy(edgeTo, 0, t, 0, edgeTo.length);
+            System.arraycopy(edgeLength, 0, l, 0, edgeLength.length);
+        }
+        edgeFrom = f;
+        edgeTo = t;
+        edgeLength = l;
+    }
 
-                // Edges pull directly in proportion to the distance between the nodes. This is good,
-                // because we want the edges to be stretchy.  The edges are ideal rubberbands.  They
-                // They don't become springs when they are too short.  That only causes the graph to
-                // oscillate.
+    private static double[] grow(double[] a, int capacity) {
+        double[] b = new double[capacity];
+        if (a != null)
+            System.arraycopy(a, 0, b, 0, a.length);
+        return b;
+    }
 
-                if (e.to.justMadeLocal || !e.from.justMadeLocal) {
-                    e.to.dx -= dx*len;
-                    e.to.dy -= dy*len;
-                } else {
-                    e.to.dx -= dx*len/10;
-                    e.to.dy -= dy*len/10;
-                }
-                if (e.from.justMadeLocal || !e.to.justMadeLocal) {
-                    e.from.dx += dx*len;
-                    e.from.dy += dy*len;
-                } else {
-                    e.from.dx += dx*len/10;
-                    e.from.dy += dy*len/10;
-                }
+    //relaxEdges is more like tense edges up.  All edges pull nodes closes together;
+    private void relaxEdges() {
+        for (int k=0;k<edgeCount;k++) {
+            int from = edgeFrom[k];
+            int to   = edgeTo[k];
+
+            double vx = x[to] - x[from];
+            double vy = y[to] - y[from];
+            double len = Math.sqrt(vx * vx + vy * vy);
+
+            double ex=vx*rigidity;  //rigidity makes edges tighter
+            double ey=vy*rigidity;
+
+            ex /=(edgeLength[k]*100);
+            ey /=(edgeLength[k]*100);
+
+            // Edges pull directly in proportion to the distance between the nodes. This is good,
+            // because we want the edges to be stretchy.  The edges are ideal rubberbands.  They
+            // They don't become springs when they are too short.  That only causes the graph to
+            // oscillate.
+
+            if (justMadeLocal[to] || !justMadeLocal[from]) {
+                dx[to] -= ex*len;
+                dy[to] -= ey*len;
+            } else {
+                dx[to] -= ex*len/10;
+                dy[to] -= ey*len/10;
             }
-        };
-
-        tgPanel.getGES().forAllEdges(fee);
+            if (justMadeLocal[from] || !justMadeLocal[to]) {
+                dx[from] += ex*len;
+                dy[from] += ey*len;
+            } else {
+                dx[from] += ex*len/10;
+                dy[from] += ey*len/10;
+            }
+        }
     }
 
 /*
@@ -185,47 +308,9 @@ public class TGLayout implements Runnable {
     }
 */
 
-    private synchronized void avoidLabels() {
-        TGForEachNodePair fenp = new TGForEachNodePair() {
-            public void forEachNodePair(Node n1, Node n2) {
-                double dx=0;
-                double dy=0;
-                double vx = n1.x - n2.x;
-                double vy = n1.y - n2.y;
-                double len = vx * vx + vy * vy; //so it's length squared
-                if (len == 0) {
-                    dx = Math.random(); //If two nodes are right on top of each other, randomly separate
-                    dy = Math.random();
-                } else if (len <600*600) { //600, because we don't want deleted nodes to fly too far away
-                    dx = vx / len;  // If it was sqrt(len) then a single node surrounded by many others will
-                    dy = vy / len;  // always look like a circle.  This might look good at first, but I think
-                                    // it makes large graphs look ugly + it contributes to oscillation.  A
-                                    // linear function does not fall off fast enough, so you get rough edges
-                                    // in the 'force field'
-                }
-
-                int repSum = n1.repulsion * n2.repulsion/100;
-
-                if(n1.justMadeLocal || !n2.justMadeLocal) {
-                    n1.dx += dx*repSum*rigidity;
-                    n1.dy += dy*repSum*rigidity;
-                }
-                else {
-                    n1.dx += dx*repSum*rigidity/10;
-                    n1.dy += dy*repSum*rigidity/10;
-                }
-                if (n2.justMadeLocal || !n1.justMadeLocal) {
-                    n2.dx -= dx*repSum*rigidity;
-                    n2.dy -= dy*repSum*rigidity;
-                }
-                else {
-                    n2.dx -= dx*repSum*rigidity/10;
-                    n2.dy -= dy*repSum*rigidity/10;
-                }
-            }
-        };
-
-        tgPanel.getGES().forAllNodePairs(fenp);
+    /** Nodes push each other apart, see BarnesHut for the force. */
+    private void avoidLabels() {
+        barnesHut.addForces(nodeCount, x, y, repulsion, justMadeLocal, rigidity, dx, dy);
     }
 
     public void startDamper() {
@@ -274,51 +359,48 @@ public class TGLayout implements Runnable {
     }
 
 
-    private synchronized void moveNodes() {
+    private void moveNodes() {
         lastMaxMotion = maxMotion;
-        final double[] maxMotionA = new double[1];
-        maxMotionA[0]=0;
+        double maxMotionA = 0;
 
-        TGForEachNode fen = new TGForEachNode() {
-            public void forEachNode(Node n) {
-                double dx = n.dx;
-                double dy = n.dy;
-                dx*=damper;  //The damper slows things down.  It cuts down jiggling at the last moment, and optimizes
-                dy*=damper;  //layout.  As an experiment, get rid of the damper in these lines, and make a
-                             //long straight line of nodes.  It wiggles too much and doesn't straighten out.
-
-                n.dx=dx/2;   //Slow down, but don't stop.  Nodes in motion store momentum.  This helps when the force
-                  n.dy=dy/2;   //on a node is very low, but you still want to get optimal layout.
-
-                double distMoved = Math.sqrt(dx*dx+dy*dy); //how far did the node actually move?
-
-                 if (!n.fixed && !(n==dragNode) ) {
-                      n.x += Math.max(-30, Math.min(30, dx)); //don't move faster then 30 units at a time.
-                    n.y += Math.max(-30, Math.min(30, dy)); //I forget when this is important.  Stopping severed nodes from
-                                                        //flying away?
-                 }
-                 maxMotionA[0]=Math.max(distMoved,maxMotionA[0]);
-            }
-        };
+        for (int i=0;i<nodeCount;i++) {
+            double ddx = dx[i];
+            double ddy = dy[i];
+            ddx*=damper;  //The damper slows things down.  It cuts down jiggling at the last moment, and optimizes
+            ddy*=damper;  //layout.  As an experiment, get rid of the damper in these lines, and make a
+                          //long straight line of nodes.  It wiggles too much and doesn't straighten out.
+
+            dx[i]=ddx/2;  //Slow down, but don't stop.  Nodes in motion store momentum.  This helps when the force
+            dy[i]=ddy/2;  //on a node is very low, but you still want to get optimal layout.
+
+            double distMoved = Math.sqrt(ddx*ddx+ddy*ddy); //how far did the node actually move?
 
-        tgPanel.getGES().forAllNodes(fen);
+            if (!nodes[i].fixed && !(nodes[i]==dragNode) ) {
+                x[i] += Math.max(-30, Math.min(30, ddx)); //don't move faster then 30 units at a time.
+                y[i] += Math.max(-30, Math.min(30, ddy)); //I forget when this is important.  Stopping severed nodes from
+                                                          //flying away?
+            }
+            maxMotionA=Math.max(distMoved,maxMotionA);
+        }
 
-        maxMotion=maxMotionA[0];
-         if (maxMotion>0) motionRatio = lastMaxMotion/maxMotion-1; //subtract 1 to make a positive value mean that
-         else motionRatio = 0;                                     //things are moving faster
+        maxMotion=maxMotionA;
+        if (maxMotion>0) motionRatio = lastMaxMotion/maxMotion-1; //subtract 1 to make a positive value mean that
+        else motionRatio = 0;                                     //things are moving faster
 
         damp();
 
     }
 
+    /** Runs ten steps of the layout on the snapshot, the graph is not locked meanwhile. */
     private synchronized void relax() {
+        takeSnapshot();
         for (int i=0;i<10;i++) {
           relaxEdges();
           avoidLabels();
           moveNodes();
         }
         if(rigidity!=newRigidity) rigidity= newRigidity; //update rigidity
-        tgPanel.repaintAfterMove();
+        publishSnapshot();
     }
 
     private void myWait() { //I think it was Netscape that caused me not to use Wait, or was it java 1.1?
@@ -0,0 +1,138 @@
+package com.touchgraph.graphlayout;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BarnesHutTest {
+
+    int n;
+    double[] x, y;
+    int[] repulsion;
+    boolean[] justMadeLocal;
+
+    public BarnesHutTest() {
+    }
+
+    /** Places n nodes randomly in the square 'side' x 'side'. */
+    private void randomNodes(int _n, double side) {
+        n = _n;
+        x = new double[n];
+        y = new double[n];
+        repulsion = new int[n];
+        justMadeLocal = new boolean[n];
+
+        Random r = new Random(1);
+        for (int i=0;i<n;i++) {
+            x[i] = r.nextDouble() * side;
+            y[i] = r.nextDouble() * side;
+            repulsion[i] = 10 * (5 + r.nextInt(16));   // n1.repulsion*n2.repulsion/100 is integer
+            justMadeLocal[i] = 0 == r.nextInt(10);
+        }
+    }
+
+    /** The pairwise loop of TGLayout.avoidLabels() before BarnesHut. */
+    private void addForcesPairwise(double k, double[] fx, double[] fy) {
+        for (int i=0;i<n;i++) {
+            for (int j=i+1;j<n;j++) {
+                double dx = 0, dy = 0;
+                double vx = x[i] - x[j];
+                double vy = y[i] - y[j];
+                double len = vx * vx + vy * vy;
+                if (len < 600*600) {
+                    dx = vx / len;
+                    dy = vy / len;
+                }
+                int repSum = repulsion[i] * repulsion[j]/100;
+
+                if (justMadeLocal[i] || !justMadeLocal[j]) {
+                    fx[i] += dx*repSum*k;
+                    fy[i] += dy*repSum*k;
+                } else {
+                    fx[i] += dx*repSum*k/10;
+                    fy[i] += dy*repSum*k/10;
+                }
+                if (justMadeLocal[j] || !justMadeLocal[i]) {
+                    fx[j] -= dx*repSum*k;
+                    fy[j] -= dy*repSum*k;
+                } else {
+                    fx[j] -= dx*repSum*k/10;
+                    fy[j] -= dy*repSum*k/10;
+                }
+            }
+        }
+    }
+
+    /** Root mean square error of the forces relative to the exact ones. */
+    private static double relativeError(double[] fx, double[] fy, double[] ex, double[] ey) {
+        double err = 0, norm = 0;
+        for (int i=0;i<fx.length;i++) {
+            err  += (fx[i] - ex[i])*(fx[i] - ex[i]) + (fy[i] - ey[i])*(fy[i] - ey[i]);
+            norm += ex[i]*ex[i] + ey[i]*ey[i];
+        }
+        return Math.sqrt(err / norm);
+    }
+
+    @Test
+    public void testAddForces_theta0() {
+        System.out.println("addForces_theta0");
+        randomNodes(2000, 3000);    // many nodes are farther than the cutoff
+
+        double[] ex = new double[n], ey = new double[n];
+        addForcesPairwise(2, ex, ey);
+
+        double[] fx = new double[n], fy = new double[n];
+        new BarnesHut(0).addForces(n, x, y, repulsion, justMadeLocal, 2, fx, fy);
+
+        for (int i=0;i<n;i++) {
+            double eps = 1e-9 * (1 + Math.abs(ex[i]) + Math.abs(ey[i]));
+            assertEquals(ex[i], fx[i], eps);
+            assertEquals(ey[i], fy[i], eps);
+        }
+    }
+
+    @Test
+    public void testAddForces_theta() {
+        System.out.println("addForces_theta");
+        randomNodes(2000, 3000);
+
+        double[] ex = new double[n], ey = new double[n];
+        addForcesPairwise(1, ex, ey);
+
+        double[] fx = new double[n], fy = new double[n];
+        new BarnesHut().addForces(n, x, y, repulsion, justMadeLocal, 1, fx, fy);
+
+        double err = relativeError(fx, fy, ex, ey);
+        assertTrue("error " + err, err < 0.1);
+    }
+
+    /** 10000 nodes, about a thousand of them are nearer than the cutoff to each node. */
+    @Test
+    public void testAddForces_10000() {
+        System.out.println("addForces_10000");
+        randomNodes(10000, 3000);
+
+        double[] ex = new double[n], ey = new double[n];
+        double[] fx = new double[n], fy = new double[n];
+        BarnesHut bh = new BarnesHut();
+        bh.addForces(n, x, y, repulsion, justMadeLocal, 1, fx, fy);     // warm-up
+
+        long t_start = System.nanoTime();
+        addForcesPairwise(1, ex, ey);
+        long t_pairwise = System.nanoTime() - t_start;
+
+        long t_bh = Long.MAX_VALUE;
+        for (int round=0;round<3;round++) {
+            fx = new double[n];
+            fy = new double[n];
+            t_start = System.nanoTime();
+            bh.addForces(n, x, y, repulsion, justMadeLocal, 1, fx, fy);
+            t_bh = Math.min(t_bh, System.nanoTime() - t_start);
+        }
+
+        double err = relativeError(fx, fy, ex, ey);
+        assertTrue("error " + err, err < 0.1);
+        assertTrue("pairwise " + t_pairwise/1000000 + " ms, Barnes-Hut " + t_bh/1000000 + " ms",
+                   t_bh * 5 < t_pairwise);
+    }
+}
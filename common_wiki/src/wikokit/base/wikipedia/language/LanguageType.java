@@ -13,6 +13,7 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.Collections;
 
 
 /** Languages of wiki: code and name, e.g. ru and Russian. 
@@ -280,9 +281,10 @@ public class LanguageType {
     
     /** The set of unknown language codes, which were found during parsing.
      * There is only one message for one unknown language code (for concise logging).
+     * The sets are synchronized, since language sections are parsed in parallel.
      */
-    private static Set<String> unknown_lang_code = new HashSet<String>();
-    private static Set<String> unknown_lang_name = new HashSet<String>();
+    private static final Set<String> unknown_lang_code = Collections.synchronizedSet(new HashSet<String>());
+    private static final Set<String> unknown_lang_name = Collections.synchronizedSet(new HashSet<String>());
 
     /** Checks weather exists the unknown language code 'code'. */
     public static boolean hasUnknownLangCode(String code) {
@@ -36,12 +36,13 @@ public class ImageParser {
      * 
      * @param wiki_lang     the word "Image" depends on wiki language, 
      *                  e.g.  "Dosiero" (Esperanto), "Изображение" (Russian) etc.
+     * @return the text itself if there are no images
      */
-    public static StringBuffer parseImageDescription(
-            StringBuffer text,LanguageType wiki_lang)
+    public static CharSequence parseImageDescription(
+            CharSequence text,LanguageType wiki_lang)
     {
         if(null == text || 0 == text.length()) {
-            return NULL_STRINGBUFFER;
+            return "";
         }
         
         if( wiki_lang == LanguageType.ru) {
@@ -59,46 +60,49 @@ public class ImageParser {
         return text;
     }
     
-    private static StringBuffer parseImageDescription(
-            StringBuffer text,Pattern p_image_start)
+    /** The text is scanned once: 'pos' is the position of the text which is
+     * not copied yet to the result, 'pos_desc' is the same position within
+     * the current image.
+     */
+    private static CharSequence parseImageDescription(
+            CharSequence text,Pattern p_image_start)
     {
         final String w_closed_too_many = "Warning (wikipedia.text.ImageParser.parseImageDescription()): number of opened brackets '[[' < than closed brackets ']]' in image";
         final String w_opened_too_many = "Warning (wikipedia.text.ImageParser.parseImageDescription()): number of opened brackets '[[' > than closed brackets ']]' in image";
         int n_nested = 0;
         
-        Matcher m_start = p_image_start.matcher(text.toString());
+        CharSequence guarded = ParseBudget.guard(text);
+        Matcher m_start = p_image_start.matcher(guarded);
         boolean b_start = m_start.find();
         if(!b_start)
             return text;
         
-        StringBuffer sb = new StringBuffer();
+        Matcher m = ptrn_image_boundaries.matcher(guarded);
+        StringBuilder sb = new StringBuilder(text.length());
+        int pos = 0;
         while(b_start) {
             
-            m_start.appendReplacement(sb, "");
-            
-            StringBuffer after_image = new StringBuffer();
-            m_start.appendTail(after_image);
+            sb.append(text, pos, m_start.start());
+            int pos_desc = m_start.end();       // text after [[Image:
             
-            Matcher m = ptrn_image_boundaries.matcher(after_image.toString());
-            boolean b_internal = m.find();
+            boolean b_internal = m.find(pos_desc);
             boolean b_desc_exist = false;   // description of the image
             boolean b_desc_started = false; // the text is started after first open brackets
             if(b_internal) {
                 
                 n_nested = 1; // [[Image: - already 1 open bracket
-                StringBuffer s_candidate_desc = new StringBuffer(); // candidate of text after last pipe | in Image
+                StringBuilder s_candidate_desc = new StringBuilder(); // candidate of text after last pipe | in Image
                 while(b_internal) {
-                    String g0 = m.group(0);
-                    if('|' == g0.charAt(0)) {
+                    char c = text.charAt(m.start());
+                    if('|' == c) {
                         b_desc_exist = true;
                         if(b_desc_started) { // pipe within desc, e.g. Image:a.jpg|[[Lemma|Word]]
-                            m.appendReplacement(s_candidate_desc, g0);
+                            s_candidate_desc.append(text, pos_desc, m.end());
                         } else { // vertical line, pipe | then start new candidate of description
                             s_candidate_desc.setLength(0);
-                            m.appendReplacement(new StringBuffer(), ""); // clear regex buffer   
                         }
                     } else {
-                        if('[' == g0.charAt(0)) {   // opened '['
+                        if('[' == c) {              // opened '['
                             n_nested ++;
                             b_desc_started = true;
                         } else {                    // closed ']'
@@ -107,24 +111,21 @@ public class ImageParser {
                         if(n_nested == 0) {         // [[Image:...]] closed
                             b_internal = false;
                             if (b_desc_exist) {
-                                m.appendReplacement(s_candidate_desc, "");
-                            } else {
-                                m.appendReplacement(new StringBuffer(), ""); // clear regex buffer   
+                                s_candidate_desc.append(text, pos_desc, m.start());
                             }
                         } else {
-                            m.appendReplacement(s_candidate_desc, g0);
+                            s_candidate_desc.append(text, pos_desc, m.end());
                         }
                     }
+                    pos_desc = m.end();
                     b_internal = b_internal && m.find();
                 }
                 sb.append(s_candidate_desc);
             }
-            StringBuffer remain = new StringBuffer(); 
-            m.appendTail(remain);
-            m_start = p_image_start.matcher(remain.toString());
-            b_start = m_start.find();
+            pos = pos_desc;
+            b_start = m_start.find(pos);
         }
-        m_start.appendTail(sb);
+        sb.append(text, pos, text.length());
             
         if(n_nested < 0) {
             System.out.println(w_closed_too_many);
@@ -133,7 +134,17 @@ public class ImageParser {
                 System.out.println(w_opened_too_many);
             }
         }
-        return sb;
+        return sb.toString();
     }
     
+    /** @deprecated Use {@link #parseImageDescription(CharSequence, LanguageType)} */
+    @Deprecated
+    public static StringBuffer parseImageDescription(
+            StringBuffer text,LanguageType wiki_lang)
+    {
+        if(null == text || 0 == text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        return new StringBuffer(parseImageDescription(text.toString(), wiki_lang));
+    }
 }
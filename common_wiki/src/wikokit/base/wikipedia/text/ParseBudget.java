@@ -0,0 +1,258 @@
+/* ParseBudget.java - time and memory limits of parsing of one wiki page.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.text;
+
+/** Limits time and memory allocated by the thread which parses one page.
+ *
+ * Some regular expressions (e.g. "\\[(.+?)\\]" or "<!--.+?-->") backtrack
+ * quadratically on malformed pages, and java.util.regex.Matcher can't be
+ * interrupted. Therefore the parsers pass the text to the matcher via
+ * {@link #guard(CharSequence)}: the guarded text checks the budget of the
+ * current thread every few thousand characters read by the matcher and
+ * throws {@link ExceededException} when the budget is spent.<br><br>
+ *
+ * Usage:
+ * <pre>
+ * ParseBudget budget = new ParseBudget(10000, 512L << 20, counter);
+ * budget.enter();
+ * try {
+ *     word = new WordBase(page_title, native_lang, text);
+ * } catch(ParseBudget.ExceededException e) {
+ *     ... quarantine the page
+ * } finally {
+ *     budget.exit();
+ * }</pre>
+ *
+ * Without a budget entered by the current thread, guard() returns the text
+ * as it is, so the parsers work as before.<br><br>
+ *
+ * Helper threads (e.g. the pool threads parsing language sections) share
+ * the budget via {@link #attach()}: they check the time limit and the
+ * cancellation, but the memory is counted for the entering thread only.<br><br>
+ *
+ * Memory is counted by an {@link AllocationCounter} given by the caller
+ * (this package is compiled for Android also, so it doesn't use
+ * java.lang.management), without the counter the memory is unlimited.
+ */
+public class ParseBudget {
+
+    /** Why the parsing was aborted. */
+    public enum Reason { TIME, MEMORY, CANCELLED };
+
+    /** Thrown by the guarded text when the budget is spent. */
+    public static class ExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final Reason reason;
+        private final long elapsed_millis;
+        private final long allocated_bytes;
+
+        ExceededException(Reason reason, long elapsed_millis, long allocated_bytes) {
+            super("Parse budget exceeded (" + reason + "): " + elapsed_millis +
+                  " ms, " + allocated_bytes + " bytes allocated");
+            this.reason = reason;
+            this.elapsed_millis = elapsed_millis;
+            this.allocated_bytes = allocated_bytes;
+        }
+
+        public Reason getReason() {
+            return reason;
+        }
+
+        public long getElapsedMillis() {
+            return elapsed_millis;
+        }
+
+        public long getAllocatedBytes() {
+            return allocated_bytes;
+        }
+    }
+
+    /** Counts memory allocated by a thread. */
+    public interface AllocationCounter {
+
+        /** Gets number of bytes allocated by the thread since its start
+         * (including garbage). */
+        long getAllocatedBytes(Thread t);
+    }
+
+    /** Number of characters read by the matcher between checks of the budget. */
+    private static final int CHECK_INTERVAL = 4096;
+
+    private static final ThreadLocal<ParseBudget> current = new ThreadLocal<ParseBudget>();
+
+    private final long max_millis;
+    private final long max_bytes;
+
+    /** Allocation counter of threads, null - memory is not counted. */
+    private final AllocationCounter counter;
+
+    private Thread thread;
+    private long start_nanos;
+    private long start_bytes;
+
+    private volatile boolean cancelled;
+
+    /** Creates the budget.
+     *
+     * @param max_millis    time limit in milliseconds, 0 - unlimited
+     * @param max_bytes     limit of memory allocated by the thread (including
+     *                      garbage) in bytes, 0 - unlimited
+     * @param counter       counter of memory allocated by the thread,
+     *                      null - memory is not counted (unlimited)
+     */
+    public ParseBudget(long max_millis, long max_bytes, AllocationCounter counter) {
+        this.max_millis = max_millis;
+        this.max_bytes  = max_bytes;
+        this.counter    = counter;
+    }
+
+    /** Creates the budget with the time limit only.
+     *
+     * @param max_millis    time limit in milliseconds, 0 - unlimited
+     */
+    public ParseBudget(long max_millis) {
+        this(max_millis, 0, null);
+    }
+
+    /** Binds the budget to the current thread and starts counting. */
+    public void enter() {
+        thread = Thread.currentThread();
+        start_nanos = System.nanoTime();
+        start_bytes = getThreadAllocatedBytes(thread);
+        cancelled = false;
+        current.set(this);
+    }
+
+    /** Unbinds the budget from the current thread. */
+    public void exit() {
+        if(current.get() == this)
+            current.remove();
+    }
+
+    /** Binds the budget entered by another thread to the current (helper)
+     * thread, the counters are not restarted.
+     *
+     * @return the budget of the current thread before the call (or null),
+     *         it should be passed to {@link #detach(ParseBudget)}
+     */
+    public ParseBudget attach() {
+        ParseBudget prev = current.get();
+        current.set(this);
+        return prev;
+    }
+
+    /** Restores the budget of the current thread after {@link #attach()}. */
+    public static void detach(ParseBudget prev) {
+        if(null == prev)
+            current.remove();
+        else
+            current.set(prev);
+    }
+
+    /** Gets the budget of the current thread, or null if there is no one. */
+    public static ParseBudget current() {
+        return current.get();
+    }
+
+    /** Asks the parsing thread to stop at the next check, it can be called
+     * by any thread, e.g. by a watchdog. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Gets time passed since {@link #enter()}. */
+    public long getElapsedMillis() {
+        return (System.nanoTime() - start_nanos) / 1000000;
+    }
+
+    /** Gets number of bytes allocated by the parsing thread since
+     * {@link #enter()}, or 0 if the JVM doesn't count it. */
+    public long getAllocatedBytes() {
+        if(null == thread)
+            return 0;
+        return Math.max(0, getThreadAllocatedBytes(thread) - start_bytes);
+    }
+
+    private long getThreadAllocatedBytes(Thread t) {
+        if(null == counter)
+            return 0;
+        return counter.getAllocatedBytes(t);
+    }
+
+    /** Throws ExceededException if the budget is spent or cancelled. */
+    public void check() {
+        if(cancelled)
+            throw new ExceededException(Reason.CANCELLED, getElapsedMillis(), getAllocatedBytes());
+
+        long elapsed = getElapsedMillis();
+        if(max_millis > 0 && elapsed > max_millis)
+            throw new ExceededException(Reason.TIME, elapsed, getAllocatedBytes());
+
+        if(max_bytes > 0 && null != counter) {
+            long bytes = getAllocatedBytes();
+            if(bytes > max_bytes)
+                throw new ExceededException(Reason.MEMORY, elapsed, bytes);
+        }
+    }
+
+    /** Checks the budget of the current thread if there is one. It can be
+     * called by long loops of the parser between regular expressions. */
+    public static void checkpoint() {
+        ParseBudget b = current.get();
+        if(null != b)
+            b.check();
+    }
+
+    /** Gets the text for Pattern.matcher(): the text which checks the budget
+     * of the current thread while the matcher reads it, or the text itself
+     * if the thread has no budget. */
+    public static CharSequence guard(CharSequence text) {
+        ParseBudget b = current.get();
+        if(null == b || null == text)
+            return text;
+        return new GuardedText(text, b);
+    }
+
+    /** Text checking the budget every CHECK_INTERVAL calls of charAt(). */
+    private static class GuardedText implements CharSequence {
+        private final CharSequence text;
+        private final ParseBudget budget;
+        private int countdown = CHECK_INTERVAL;
+
+        GuardedText(CharSequence text, ParseBudget budget) {
+            this.text = text;
+            this.budget = budget;
+        }
+
+        public char charAt(int index) {
+            if(--countdown < 0) {
+                countdown = CHECK_INTERVAL;
+                budget.check();
+            }
+            return text.charAt(index);
+        }
+
+        public int length() {
+            return text.length();
+        }
+
+        // the matcher takes groups by subSequence(), they need no guard
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
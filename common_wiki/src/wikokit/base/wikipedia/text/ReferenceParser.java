@@ -28,14 +28,12 @@ public class ReferenceParser {
     /** Removes URL like http://... fro the text.
      */ 
     //expandReferenceToEndOfText() {
-    private static StringBuffer removeHTTPURL(StringBuffer text)
+    private static CharSequence removeHTTPURL(CharSequence text)
     {
         if(null == text || 0 == text.length()) {
-            return NULL_STRINGBUFFER;
+            return "";
         }
-        
-        Matcher m = ptrn_http_url.matcher(text.toString());
-        return new StringBuffer(m.replaceAll(""));
+        return WikiParser.removeAll(ptrn_http_url, text);
     }
     
     /** Expands texts of the refence, and adds it to the end of text.
@@ -43,35 +41,36 @@ public class ReferenceParser {
      * If the reference contains a template, e.g. &lt;ref>{{cite book |..&lt;/ref>
      * then the whole reference will be deleted.
      */ 
-    public static StringBuffer expandMoveToEndOfText(StringBuffer text)
+    public static CharSequence expandMoveToEndOfText(CharSequence text)
     {
         if(null == text || 0 == text.length()) {
-            return NULL_STRINGBUFFER;
+            return "";
         }
         
-        //Matcher m = ptrn_ref_boundaries.matcher(StringUtil.escapeCharDollarAndBackslash(text.toString()));
-        Matcher m = ptrn_ref_boundaries.matcher(text.toString());
+        Matcher m = ptrn_ref_boundaries.matcher(ParseBudget.guard(text));
         
         boolean bfound = m.find();
         if(bfound) {
-            StringBuffer result = new StringBuffer();
-            StringBuffer eo_text = new StringBuffer();  // end of text
+            StringBuilder result = new StringBuilder(text.length());
+            StringBuilder eo_text = new StringBuilder();  // end of text
+            int pos = 0;
             while(bfound) {
                                                                    // group(1) := text within <ref>reference boundaries</ref>
-                StringBuffer sb = WikiParser.parseCurlyBrackets(
-                            StringUtil.escapeCharDollarAndBackslash(m.group(1) ));
-                sb = removeHTTPURL(sb);
+                CharSequence s = WikiParser.parseCurlyBrackets(
+                            StringUtil.escapeCharDollarAndBackslash(m.group(1) ).toString());
+                s = removeHTTPURL(s);
                             
-                eo_text.append( sb );
-                m.appendReplacement(result, "");
+                eo_text.append( s );
+                result.append(text, pos, m.start());
+                pos = m.end();
                 bfound = m.find();
             }
-            m.appendTail(result);
+            result.append(text, pos, text.length());
             if(eo_text.length() > 0) {
                 result.append("\n\n");
                 result.append(eo_text);
             }
-            return result;
+            return result.toString();
         }
         
         return text;
@@ -79,14 +78,34 @@ public class ReferenceParser {
 
     /** Removes refences from the text.
      */
+    public static CharSequence removeReferences(CharSequence text)
+    {
+        if(null == text || 0 == text.length()) {
+            return "";
+        }
+        return WikiParser.removeAll(ptrn_ref_boundaries, text);
+    }
+    
+    
+    // Deprecated StringBuffer versions, they copy the text on each call.
+    
+    /** @deprecated Use {@link #expandMoveToEndOfText(CharSequence)} */
+    @Deprecated
+    public static StringBuffer expandMoveToEndOfText(StringBuffer text)
+    {
+        if(null == text || 0 == text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        return new StringBuffer(expandMoveToEndOfText(text.toString()));
+    }
+    
+    /** @deprecated Use {@link #removeReferences(CharSequence)} */
+    @Deprecated
     public static StringBuffer removeReferences(StringBuffer text)
     {
         if(null == text || 0 == text.length()) {
             return NULL_STRINGBUFFER;
         }
-        
-        //Matcher m = ptrn_ref_boundaries.matcher(StringUtil.escapeCharDollarAndBackslash(text.toString()));
-        Matcher m = ptrn_ref_boundaries.matcher(text.toString());
-        return new StringBuffer(m.replaceAll(""));
+        return new StringBuffer(removeReferences(text.toString()));
     }
 }
@@ -0,0 +1,495 @@
+/* Stemmer.java - stemming of Russian and English words for full-text search.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.text;
+
+import wikokit.base.wikipedia.language.LanguageType;
+
+/** Algorithmic stemmers: Russian (Snowball) and English (Porter, 1980).
+ * Words of the same paradigm get the same stem (вода, воды, водой -> вод;
+ * connect, connected, connection -> connect), so that full-text search
+ * finds texts with any word form.<br><br>
+ *
+ * The input word should be in lower case, Russian 'ё' should be replaced
+ * by 'е' (see TextTokenizer). The stems are stored in index files, so the
+ * algorithms should not be changed without the rebuilding of the indexes.
+ */
+public class Stemmer {
+
+    /** Gets the stem of the word in the language 'lang'. Words of other
+     * languages (and words of other alphabets) are returned as they are.
+     */
+    public static String stem(String word, LanguageType lang) {
+        if(LanguageType.ru == lang && isCyrillic(word))
+            return stemRussian(word);
+        if(LanguageType.en == lang && isLatin(word))
+            return stemEnglish(word);
+        return word;
+    }
+
+    private static boolean isCyrillic(String word) {
+        for(int i=0; i<word.length(); i++) {
+            char c = word.charAt(i);
+            if(c < 'а' || c > 'я')
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isLatin(String word) {
+        for(int i=0; i<word.length(); i++) {
+            char c = word.charAt(i);
+            if(c < 'a' || c > 'z')
+                return false;
+        }
+        return true;
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Russian (Snowball)
+
+    private final static String RU_VOWELS = "аеиоуыэюя";
+
+    private final static String[] PERFECTIVE_GERUND_1 = {"в", "вши", "вшись"};
+    private final static String[] PERFECTIVE_GERUND_2 = {"ив", "ивши", "ившись", "ыв", "ывши", "ывшись"};
+
+    private final static String[] ADJECTIVE = {"ее", "ие", "ые", "ое", "ими", "ыми", "ей", "ий", "ый", "ой",
+        "ем", "им", "ым", "ом", "его", "ого", "ему", "ому", "их", "ых", "ую", "юю", "ая", "яя", "ою", "ею"};
+
+    private final static String[] PARTICIPLE_1 = {"ем", "нн", "вш", "ющ", "щ"};
+    private final static String[] PARTICIPLE_2 = {"ивш", "ывш", "ующ"};
+
+    private final static String[] REFLEXIVE = {"ся", "сь"};
+
+    private final static String[] VERB_1 = {"ла", "на", "ете", "йте", "ли", "й", "л", "ем", "н", "ло", "но",
+        "ет", "ют", "ны", "ть", "ешь", "нно"};
+    private final static String[] VERB_2 = {"ила", "ыла", "ена", "ейте", "уйте", "ите", "или", "ыли", "ей",
+        "уй", "ил", "ыл", "им", "ым", "ен", "ило", "ыло", "ено", "ят", "ует", "уют", "ит", "ыт", "ены",
+        "ить", "ыть", "ишь", "ую", "ю"};
+
+    private final static String[] NOUN = {"а", "ев", "ов", "ие", "ье", "е", "иями", "ями", "ами", "еи", "ии",
+        "и", "ией", "ей", "ой", "ий", "й", "иям", "ям", "ием", "ем", "ам", "ом", "о", "у", "ах", "иях", "ях",
+        "ы", "ь", "ию", "ью", "ю", "ия", "ья", "я"};
+
+    private final static String[] SUPERLATIVE = {"ейш", "ейше"};
+    private final static String[] DERIVATIONAL = {"ост", "ость"};
+
+    private static boolean isRussianVowel(char c) {
+        return RU_VOWELS.indexOf(c) >= 0;
+    }
+
+    /** Gets the stem of the Russian word (lower case, without 'ё'). */
+    public static String stemRussian(String word) {
+
+        // RV - the region after the first vowel,
+        // R2 - the region after the second "vowel, non-vowel" pair
+        int rv = word.length();
+        for(int i=0; i<word.length(); i++) {
+            if(isRussianVowel(word.charAt(i))) {
+                rv = i + 1;
+                break;
+            }
+        }
+        if(rv >= word.length())
+            return word;
+        int r1 = findRegion(word, 0);
+        int r2 = findRegion(word, r1);
+
+        StringBuilder sb = new StringBuilder(word);
+
+        // step 1
+        if(!removeEnding(sb, rv, PERFECTIVE_GERUND_2, false) &&
+           !removeEnding(sb, rv, PERFECTIVE_GERUND_1, true))
+        {
+            removeEnding(sb, rv, REFLEXIVE, false);
+
+            if(removeEnding(sb, rv, ADJECTIVE, false)) {    // adjectival
+                if(!removeEnding(sb, rv, PARTICIPLE_2, false))
+                    removeEnding(sb, rv, PARTICIPLE_1, true);
+            } else if(!removeVerbEnding(sb, rv)) {
+                removeEnding(sb, rv, NOUN, false);
+            }
+        }
+
+        // step 2
+        if(sb.length() > rv && 'и' == sb.charAt(sb.length() - 1))
+            sb.setLength(sb.length() - 1);
+
+        // step 3
+        removeEnding(sb, r2, DERIVATIONAL, false);
+
+        // step 4
+        if(endsWith(sb, "нн", rv)) {
+            sb.setLength(sb.length() - 1);
+        } else if(removeEnding(sb, rv, SUPERLATIVE, false)) {
+            if(endsWith(sb, "нн", rv))
+                sb.setLength(sb.length() - 1);
+        } else if(sb.length() > rv && 'ь' == sb.charAt(sb.length() - 1)) {
+            sb.setLength(sb.length() - 1);
+        }
+        return sb.toString();
+    }
+
+    /** Gets the start of the region after the first non-vowel following
+     * a vowel, searching from 'from'. */
+    private static int findRegion(String word, int from) {
+        for(int i=from + 1; i<word.length(); i++) {
+            if(!isRussianVowel(word.charAt(i)) && isRussianVowel(word.charAt(i - 1)))
+                return i + 1;
+        }
+        return word.length();
+    }
+
+    private static boolean endsWith(StringBuilder sb, String ending, int region) {
+        int start = sb.length() - ending.length();
+        if(start < region)
+            return false;
+        for(int i=0; i<ending.length(); i++) {
+            if(sb.charAt(start + i) != ending.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /** Removes the longest ending (from the list) which is in the region.
+     *
+     * @param b_after_a  the ending should follow 'а' or 'я' (in the region),
+     *                   which is not removed
+     * @return true if the ending was removed
+     */
+    private static boolean removeEnding(StringBuilder sb, int region, String[] endings, boolean b_after_a) {
+        int best = -1;
+        for(String e : endings) {
+            if((best < 0 || e.length() > best) && endsWith(sb, e, region)) {
+                if(b_after_a) {
+                    int i = sb.length() - e.length() - 1;
+                    if(i < region || ('а' != sb.charAt(i) && 'я' != sb.charAt(i)))
+                        continue;
+                }
+                best = e.length();
+            }
+        }
+        if(best < 0)
+            return false;
+        sb.setLength(sb.length() - best);
+        return true;
+    }
+
+    /** Removes the longest verb ending of both groups. */
+    private static boolean removeVerbEnding(StringBuilder sb, int rv) {
+        int len1 = longestEnding(sb, rv, VERB_1, true);
+        int len2 = longestEnding(sb, rv, VERB_2, false);
+        int best = Math.max(len1, len2);
+        if(best <= 0)
+            return false;
+        sb.setLength(sb.length() - best);
+        return true;
+    }
+
+    private static int longestEnding(StringBuilder sb, int region, String[] endings, boolean b_after_a) {
+        StringBuilder copy = new StringBuilder(sb);
+        if(!removeEnding(copy, region, endings, b_after_a))
+            return 0;
+        return sb.length() - copy.length();
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // English (Porter)
+
+    /** Gets the stem of the English word (lower case). */
+    public static String stemEnglish(String word) {
+        if(word.length() <= 2)
+            return word;
+        return new Porter(word).stem();
+    }
+
+    /** Porter stemmer: b[0..k] is the current word, j is the end of the stem
+     * before the tested suffix. */
+    private static class Porter {
+        private final char[] b;
+        private int k, j;
+
+        Porter(String word) {
+            b = new char[word.length() + 1];
+            word.getChars(0, word.length(), b, 0);
+            k = word.length() - 1;
+        }
+
+        String stem() {
+            step1ab();
+            if(k > 0) {
+                step1c();
+                step2();
+                step3();
+                step4();
+                step5();
+            }
+            return new String(b, 0, k + 1);
+        }
+
+        private boolean cons(int i) {
+            switch (b[i]) {
+                case 'a': case 'e': case 'i': case 'o': case 'u':
+                    return false;
+                case 'y':
+                    return 0 == i || !cons(i - 1);
+                default:
+                    return true;
+            }
+        }
+
+        /** Measures the number of consonant sequences between 0 and j. */
+        private int m() {
+            int n = 0;
+            int i = 0;
+            while(true) {
+                if(i > j)
+                    return n;
+                if(!cons(i))
+                    break;
+                i ++;
+            }
+            i ++;
+            while(true) {
+                while(true) {
+                    if(i > j)
+                        return n;
+                    if(cons(i))
+                        break;
+                    i ++;
+                }
+                i ++;
+                n ++;
+                while(true) {
+                    if(i > j)
+                        return n;
+                    if(!cons(i))
+                        break;
+                    i ++;
+                }
+                i ++;
+            }
+        }
+
+        private boolean vowelInStem() {
+            for(int i=0; i<=j; i++) {
+                if(!cons(i))
+                    return true;
+            }
+            return false;
+        }
+
+        private boolean doubleC(int i) {
+            return i >= 1 && b[i] == b[i - 1] && cons(i);
+        }
+
+        /** consonant - vowel - consonant at i, the last is not w, x or y. */
+        private boolean cvc(int i) {
+            if(i < 2 || !cons(i) || cons(i - 1) || !cons(i - 2))
+                return false;
+            char c = b[i];
+            return 'w' != c && 'x' != c && 'y' != c;
+        }
+
+        private boolean ends(String s) {
+            int len = s.length();
+            int o = k - len + 1;
+            if(o < 0)
+                return false;
+            for(int i=0; i<len; i++) {
+                if(b[o + i] != s.charAt(i))
+                    return false;
+            }
+            j = k - len;
+            return true;
+        }
+
+        /** Replaces b[j+1..k] by s. */
+        private void setTo(String s) {
+            int len = s.length();
+            for(int i=0; i<len; i++)
+                b[j + 1 + i] = s.charAt(i);
+            k = j + len;
+        }
+
+        private void r(String s) {
+            if(m() > 0)
+                setTo(s);
+        }
+
+        private void step1ab() {
+            if('s' == b[k]) {
+                if(ends("sses"))
+                    k -= 2;
+                else if(ends("ies"))
+                    setTo("i");
+                else if(k >= 1 && 's' != b[k - 1])
+                    k --;
+            }
+            if(ends("eed")) {
+                if(m() > 0)
+                    k --;
+            } else if((ends("ed") || ends("ing")) && vowelInStem()) {
+                k = j;
+                if(ends("at"))
+                    setTo("ate");
+                else if(ends("bl"))
+                    setTo("ble");
+                else if(ends("iz"))
+                    setTo("ize");
+                else if(doubleC(k)) {
+                    char c = b[k];
+                    if('l' != c && 's' != c && 'z' != c)
+                        k --;
+                } else {
+                    j = k;
+                    if(1 == m() && cvc(k))
+                        setTo("e");
+                }
+            }
+        }
+
+        private void step1c() {
+            if(ends("y") && vowelInStem())
+                b[k] = 'i';
+        }
+
+        private void step2() {
+            if(0 == k)
+                return;
+            switch (b[k - 1]) {
+                case 'a':
+                    if(ends("ational")) { r("ate"); break; }
+                    if(ends("tional"))  { r("tion"); break; }
+                    break;
+                case 'c':
+                    if(ends("enci"))    { r("ence"); break; }
+                    if(ends("anci"))    { r("ance"); break; }
+                    break;
+                case 'e':
+                    if(ends("izer"))    { r("ize"); break; }
+                    break;
+                case 'l':
+                    if(ends("bli"))     { r("ble"); break; }
+                    if(ends("alli"))    { r("al"); break; }
+                    if(ends("entli"))   { r("ent"); break; }
+                    if(ends("eli"))     { r("e"); break; }
+                    if(ends("ousli"))   { r("ous"); break; }
+                    break;
+                case 'o':
+                    if(ends("ization")) { r("ize"); break; }
+                    if(ends("ation"))   { r("ate"); break; }
+                    if(ends("ator"))    { r("ate"); break; }
+                    break;
+                case 's':
+                    if(ends("alism"))   { r("al"); break; }
+                    if(ends("iveness")) { r("ive"); break; }
+                    if(ends("fulness")) { r("ful"); break; }
+                    if(ends("ousness")) { r("ous"); break; }
+                    break;
+                case 't':
+                    if(ends("aliti"))   { r("al"); break; }
+                    if(ends("iviti"))   { r("ive"); break; }
+                    if(ends("biliti"))  { r("ble"); break; }
+                    break;
+                case 'g':
+                    if(ends("logi"))    { r("log"); break; }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void step3() {
+            switch (b[k]) {
+                case 'e':
+                    if(ends("icate"))   { r("ic"); break; }
+                    if(ends("ative"))   { r(""); break; }
+                    if(ends("alize"))   { r("al"); break; }
+                    break;
+                case 'i':
+                    if(ends("iciti"))   { r("ic"); break; }
+                    break;
+                case 'l':
+                    if(ends("ical"))    { r("ic"); break; }
+                    if(ends("ful"))     { r(""); break; }
+                    break;
+                case 's':
+                    if(ends("ness"))    { r(""); break; }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void step4() {
+            if(0 == k)
+                return;
+            switch (b[k - 1]) {
+                case 'a':
+                    if(ends("al")) break;
+                    return;
+                case 'c':
+                    if(ends("ance")) break;
+                    if(ends("ence")) break;
+                    return;
+                case 'e':
+                    if(ends("er")) break;
+                    return;
+                case 'i':
+                    if(ends("ic")) break;
+                    return;
+                case 'l':
+                    if(ends("able")) break;
+                    if(ends("ible")) break;
+                    return;
+                case 'n':
+                    if(ends("ant")) break;
+                    if(ends("ement")) break;
+                    if(ends("ment")) break;
+                    if(ends("ent")) break;
+                    return;
+                case 'o':
+                    if(ends("ion") && j >= 0 && ('s' == b[j] || 't' == b[j])) break;
+                    if(ends("ou")) break;
+                    return;
+                case 's':
+                    if(ends("ism")) break;
+                    return;
+                case 't':
+                    if(ends("ate")) break;
+                    if(ends("iti")) break;
+                    return;
+                case 'u':
+                    if(ends("ous")) break;
+                    return;
+                case 'v':
+                    if(ends("ive")) break;
+                    return;
+                case 'z':
+                    if(ends("ize")) break;
+                    return;
+                default:
+                    return;
+            }
+            if(m() > 1)
+                k = j;
+        }
+
+        private void step5() {
+            j = k;
+            if('e' == b[k]) {
+                int a = m();
+                if(a > 1 || (1 == a && !cvc(k - 1)))
+                    k --;
+            }
+            if('l' == b[k] && doubleC(k) && m() > 1)
+                k --;
+        }
+    }
+}
@@ -28,31 +28,31 @@ public class TableParser {
      * Remark: if this func is before CurlyBrackets () then it generates
      * warnings, since end of infobox (template) {{ |}} looks like end of table.
      */
-    public static StringBuffer removeWikiTables(StringBuffer text)
+    public static CharSequence removeWikiTables(CharSequence text)
     {
         final String w_closed_too_many = "Warning (wikipedia.text.TableParser.removeWikiTables()): number of opened brackets '{|' < than closed brackets '|}'";
         final String w_opened_too_many = "Warning (wikipedia.text.TableParser.removeWikiTables()): number of opened brackets '{|' > than closed brackets '|}'";
         
         if(null == text || 0 == text.length()) {
-            return NULL_STRINGBUFFER;
+            return "";
         }
-        Matcher m = ptrn_table_boundaries.matcher(text.toString());
+        Matcher m = ptrn_table_boundaries.matcher(ParseBudget.guard(text));
         boolean result = m.find();
         if(result) {
-            StringBuffer sb = new StringBuffer();
+            StringBuilder sb = new StringBuilder(text.length());
+            int pos = 0;    // the text before pos is copied or skipped
             int n_nested = 0;
             while(result) {
-                String g0 = m.group(0);
-                if('{' == g0.charAt(0)) {
+                if('{' == text.charAt(m.start())) {
                     if(0 == n_nested) { // first opened bracket
-                        m.appendReplacement(sb, "");
+                        sb.append(text, pos, m.start());
+                        pos = m.end();
                     }
                     n_nested ++;
                 } else {
                     n_nested --;
                     if(n_nested == 0) {
-                        StringBuffer temp = new StringBuffer();
-                        m.appendReplacement(temp, ""); // I don't know why this line is important!
+                        pos = m.end();  // skip the table
                     }
                     if(n_nested < 0) {
                         System.out.println(w_closed_too_many);
@@ -60,7 +60,7 @@ public class TableParser {
                 }
                 result = m.find();
             }
-            m.appendTail(sb);
+            sb.append(text, pos, text.length());
             
             if(n_nested < 0) {
                 System.out.println(w_closed_too_many);
@@ -69,11 +69,19 @@ public class TableParser {
                     System.out.println(w_opened_too_many);
                 }
             }    
-            return sb;
+            return sb.toString();
         }
         
         return text;
     }
     
-    
+    /** @deprecated Use {@link #removeWikiTables(CharSequence)} */
+    @Deprecated
+    public static StringBuffer removeWikiTables(StringBuffer text)
+    {
+        if(null == text || 0 == text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        return new StringBuffer(removeWikiTables(text.toString()));
+    }
 }
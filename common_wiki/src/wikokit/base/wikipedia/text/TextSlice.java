@@ -0,0 +1,136 @@
+/* TextSlice.java - view of a part of the article text without copying.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.text;
+
+/** Immutable view of the range [start, end) of the backing text, e.g. the
+ * language section or the POS section of the article. The article text is
+ * stored once (as String), and its sections refer to it by offsets, so
+ * splitting the article into sections doesn't copy the text.<br><br>
+ *
+ * subSequence() of the slice is the slice of the same backing text.
+ * toString() copies the range once and caches the result.
+ */
+public class TextSlice implements CharSequence {
+
+    /** Backing text, it is not a slice. */
+    private final CharSequence text;
+
+    private final int start;
+    private final int end;
+
+    /** Cached copy of the range, see toString(). */
+    private String str;
+
+    private TextSlice(CharSequence text, int start, int end) {
+        this.text  = text;
+        this.start = start;
+        this.end   = end;
+    }
+
+    /** Gets the view of the range [start, end) of the text.
+     *
+     * If the text is a slice itself, then the new slice refers to its
+     * backing text. If the range is the whole text, then the text itself
+     * is returned.
+     */
+    public static CharSequence of(CharSequence text, int start, int end) {
+        if(start < 0 || end > text.length() || start > end)
+            throw new IndexOutOfBoundsException("start=" + start + ", end=" + end +
+                                                ", length=" + text.length());
+        if(0 == start && text.length() == end)
+            return text;
+        if(start == end)
+            return "";
+
+        if(text instanceof TextSlice) {
+            TextSlice s = (TextSlice)text;
+            return new TextSlice(s.text, s.start + start, s.start + end);
+        }
+        return new TextSlice(text, start, end);
+    }
+
+    /** Gets the view of the text from the position 'start' till the end. */
+    public static CharSequence of(CharSequence text, int start) {
+        return of(text, start, text.length());
+    }
+
+    /** Gets the start of the range in the backing text. */
+    public int getStart() {
+        return start;
+    }
+
+    /** Gets the end of the range in the backing text. */
+    public int getEnd() {
+        return end;
+    }
+
+    /** Gets the backing text. */
+    public CharSequence getBackingText() {
+        return text;
+    }
+
+    public int length() {
+        return end - start;
+    }
+
+    public char charAt(int index) {
+        if(index < 0 || index >= end - start)
+            throw new IndexOutOfBoundsException("index=" + index + ", length=" + (end - start));
+        return text.charAt(start + index);
+    }
+
+    public CharSequence subSequence(int from, int to) {
+        return of(this, from, to);
+    }
+
+    @Override
+    public String toString() {
+        if(null == str)
+            str = text.subSequence(start, end).toString();
+        return str;
+    }
+
+    /** Returns the index within the text of the first occurrence of the
+     * substring 'target', starting at the index 'from', or -1.
+     * It doesn't copy the text as text.toString().indexOf() does.
+     */
+    public static int indexOf(CharSequence text, String target, int from) {
+        if(text instanceof String)
+            return ((String)text).indexOf(target, from);
+
+        int n = text.length();
+        int m = target.length();
+        if(from < 0)
+            from = 0;
+        if(0 == m)
+            return from <= n ? from : -1;
+
+        char first = target.charAt(0);
+    search:
+        for(int i = from; i <= n - m; i++) {
+            if(text.charAt(i) != first)
+                continue;
+            for(int j = 1; j < m; j++) {
+                if(text.charAt(i + j) != target.charAt(j))
+                    continue search;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /** Returns true if the text starts with the 'prefix' at the index 'from'. */
+    public static boolean startsWith(CharSequence text, String prefix, int from) {
+        if(from < 0 || from + prefix.length() > text.length())
+            return false;
+        for(int j = 0; j < prefix.length(); j++) {
+            if(text.charAt(from + j) != prefix.charAt(j))
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+/* TextTokenizer.java - splits a text into terms (normalized stems of words)
+ * for full-text search.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.text;
+
+import wikokit.base.wikipedia.language.LanguageType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Tokenization of definitions and quotations: words are sequences of
+ * letters and digits, they are converted to lower case, stress marks
+ * (U+0301, U+0300) are skipped, 'ё' is replaced by 'е', apostrophes inside
+ * words are removed, the English possessive "'s" is skipped, then the word
+ * is stemmed by the Stemmer of the language of the text.<br><br>
+ *
+ * The same tokenization should be used for indexed texts and for queries.
+ */
+public class TextTokenizer {
+
+    private final static char COMBINING_ACUTE = '\u0301';
+    private final static char COMBINING_GRAVE = '\u0300';
+
+    /** Splits the text into terms, the position of a term is its index
+     * in the list.
+     *
+     * @param lang  language of the text (it selects the stemmer),
+     *              null - words are not stemmed
+     */
+    public static List<String> tokenize(CharSequence text, LanguageType lang) {
+        List<String> terms = new ArrayList<String>();
+        if(null == text)
+            return terms;
+
+        StringBuilder word = new StringBuilder();
+        int len = text.length();
+        for(int i=0; i<=len; i++) {
+            char c = i < len ? text.charAt(i) : ' ';
+
+            if(Character.isLetterOrDigit(c)) {
+                c = Character.toLowerCase(c);
+                word.append('ё' == c ? 'е' : c);
+                continue;
+            }
+            if(word.length() > 0) {
+                if(COMBINING_ACUTE == c || COMBINING_GRAVE == c)
+                    continue;
+                if(isApostrophe(c) && i + 1 < len && Character.isLetter(text.charAt(i + 1))) {
+                    char next = Character.toLowerCase(text.charAt(i + 1));
+                    if('s' == next && (i + 2 == len || !Character.isLetterOrDigit(text.charAt(i + 2))))
+                        i ++;       // possessive 's
+                    else
+                        continue;   // don't, l'eau
+                }
+                String w = word.toString();
+                terms.add(null == lang ? w : Stemmer.stem(w, lang));
+                word.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    private static boolean isApostrophe(char c) {
+        return '\'' == c || '’' == c;
+    }
+}
@@ -66,83 +66,108 @@ public class WikiParser {
     
     private final static StringBuffer   NULL_STRINGBUFFER = new StringBuffer("");
     
+    /* The functions take the text as CharSequence (String or TextSlice) and
+     * return the same object if there is nothing to change, so the text
+     * of the article is copied only when it is really changed.
+     * Old StringBuffer functions are deprecated, see the end of the file.
+     */
+    
     /** Creates a new instance of WikiParser */
     //public WikiParser() {    }
     
+    /** Removes all matches of the pattern.
+     * @return the text itself if there is no match
+     */
+    static CharSequence removeAll(Pattern p, CharSequence text) {
+        Matcher m = p.matcher(ParseBudget.guard(text));
+        if(!m.find())
+            return text;
+        
+        StringBuilder sb = new StringBuilder(text.length());
+        int pos = 0;
+        do {
+            sb.append(text, pos, m.start());
+            pos = m.end();
+        } while(m.find());
+        sb.append(text, pos, text.length());
+        return sb.toString();
+    }
+    
+    /** Replaces all matches of the pattern by the first group.
+     * @return the text itself if there is no match
+     */
+    private static CharSequence replaceByGroup1(Pattern p, CharSequence text) {
+        Matcher m = p.matcher(ParseBudget.guard(text));
+        if(!m.find())
+            return text;
+        
+        StringBuilder sb = new StringBuilder(text.length());
+        int pos = 0;
+        do {
+            sb.append(text, pos, m.start());
+            sb.append(text, m.start(1), m.end(1));
+            pos = m.end();
+        } while(m.find());
+        sb.append(text, pos, text.length());
+        return sb.toString();
+    }
+    
     /** Removes interwiki, e.g. "[[et:Talvepalee]] text" -> " text", 
      * where language code (e.g. 'et') can have two or three letters.
      */
-    public static StringBuffer removeInterwiki(StringBuffer text) {
-        Matcher m = ptrn_remove_interwiki.matcher(text.toString());
-        return new StringBuffer(m.replaceAll(""));
+    public static CharSequence removeInterwiki(CharSequence text) {
+        return removeAll(ptrn_remove_interwiki, text);
     }
     
     /** Expands interwiki by removing interwiki brackets and language code, 
      * e.g. "[[et:Talvepalee]] text" -> "Talvepalee text".
      */
-    public static StringBuffer removeBracketsInInterwiki(StringBuffer text) {
-        Matcher m = ptrn_remove_brackets_in_interwiki.matcher(text.toString());
-        
-        StringBuffer sb = new StringBuffer();
-        boolean result = m.find();
-        while(result) {
-            m.appendReplacement(sb, "$1");
-            result = m.find();
-        }
-        m.appendTail(sb);
-        return sb;
+    public static CharSequence removeBracketsInInterwiki(CharSequence text) {
+        return replaceByGroup1(ptrn_remove_brackets_in_interwiki, text);
     }
     
     /** Removes categories for selected language, 
      * e.g. English: "[[Category:Russia]] text" -> " text", 
      * or Esperanto: "[[Kategorio:Galaksioj]] text" -> " text".
      */
-    public static StringBuffer removeCategory(StringBuffer text, LanguageType lang) {
-        Matcher m = null;
-        
+    public static CharSequence removeCategory(CharSequence text, LanguageType lang) {
         if(lang.equals("en") || lang.equals("simple")) {
-            m = ptrn_remove_category_en.matcher(text.toString());
+            return removeAll(ptrn_remove_category_en, text);
         } else if (lang.equals("ru")) {
-            m = ptrn_remove_category_ru.matcher(text.toString());
+            return removeAll(ptrn_remove_category_ru, text);
         }
-        return new StringBuffer(m.replaceAll(""));
+        return text;
     }
     
     
     /** Removes XML tag <code> with text till the next </code>. */
-    public static StringBuffer removeXMLTag(StringBuffer text,String tag) {
+    public static CharSequence removeXMLTag(CharSequence text,String tag) {
         if(null == tag || tag.length() == 0)
             return text;
         
         Pattern p = Pattern.compile("<"+tag+">.+?</"+tag+">", Pattern.DOTALL);
-        Matcher m = p.matcher(text.toString());
-        
-        return new StringBuffer(m.replaceAll(""));
+        return removeAll(p, text);
     }
     
     /** Removes XML tag <code> with text till the next </code>.
      * e.g. "a <code>x+y</code> b" -> "a  b". */
-    public static StringBuffer removeXMLTagCode(StringBuffer text) {
-        Matcher m = ptrn_tag_code.matcher(text.toString());
-        return new StringBuffer(m.replaceAll(""));
+    public static CharSequence removeXMLTagCode(CharSequence text) {
+        return removeAll(ptrn_tag_code, text);
     }
     
     /** Removes all comments: &lt;!-- ... -->. */
-    public static StringBuffer removeHTMLComments(StringBuffer text) {
-        Matcher m = ptrn_html_comment.matcher(text.toString());
-        return new StringBuffer(m.replaceAll(""));
+    public static CharSequence removeHTMLComments(CharSequence text) {
+        return removeAll(ptrn_html_comment, text);
     }
     
     /** Removes preformatted code (e.g. xml): &lt;pre> ... &lt;/pre>.*/
-    public static StringBuffer removePreCode(StringBuffer text) {
-        Matcher m = ptrn_pre_code.matcher(text.toString());
-        return new StringBuffer(m.replaceAll(""));
+    public static CharSequence removePreCode(CharSequence text) {
+        return removeAll(ptrn_pre_code, text);
     }
     
     /** Removes all source codes: &lt;source ... &lt;/source>.*/
-    public static StringBuffer removeSourceCode(StringBuffer text) {
-        Matcher m = ptrn_source_code.matcher(text.toString());
-        return new StringBuffer(m.replaceAll(""));
+    public static CharSequence removeSourceCode(CharSequence text) {
+        return removeAll(ptrn_source_code, text);
     }
     
     
@@ -154,7 +179,7 @@ public class WikiParser {
      * @deprecated Use parseDoubleBrackets()
      */
     public static StringBuffer removeBracketsInWikiLink(StringBuffer text) {
-        Matcher m = ptrn_remove_brackets_in_wikilinks.matcher(text.toString());
+        Matcher m = ptrn_remove_brackets_in_wikilinks.matcher(ParseBudget.guard(text.toString()));
         
         StringBuffer sb = new StringBuffer();
         boolean result = m.find();
@@ -182,15 +207,17 @@ public class WikiParser {
      * "[http:site name of site]" -> "name of site". 
      * Removes links without text, e.g. [www.site].
      */
-    public static StringBuffer parseSingleBrackets(StringBuffer text)
+    public static CharSequence parseSingleBrackets(CharSequence text)
     {
         if(null == text || 0 == text.length()) {
-            return NULL_STRINGBUFFER;
+            return "";
         }
-        Matcher m = ptrn_single_brackets.matcher(text.toString()); // [(.+?)]
-        StringBuffer sb = new StringBuffer();
-        
+        Matcher m = ptrn_single_brackets.matcher(ParseBudget.guard(text)); // [(.+?)]
         boolean result = m.find();
+        if(!result)
+            return text;
+        
+        StringBuilder sb = new StringBuilder(text.length());
         while(result) {
             // g: text within [single brackets]
             String g = StringUtil.escapeCharDollarAndBackslash(m.group(1)).toString();
@@ -198,7 +225,7 @@ public class WikiParser {
             if(g.contains(" ")) {
                 g = StringUtil.getTextAfterFirstSpace(g);
                 
-                Matcher m_site = ptrn_site_name.matcher(g);
+                Matcher m_site = ptrn_site_name.matcher(ParseBudget.guard(g));
                 g = m_site.replaceAll(" ").trim();  // remove rightmost [  site.names.com] in brackets
                 
                 if(g.length() > 0) {
@@ -214,7 +241,7 @@ public class WikiParser {
         }
         m.appendTail(sb);
         
-        return sb;
+        return sb.toString();
     }
             
     /** Removes and expands interwiki, categories, and wiki links in wiki texts.<br>
@@ -246,21 +273,23 @@ public class WikiParser {
      *
      * See also WikiWord.parseDoubleBrackets
      */
-    public static StringBuffer parseDoubleBrackets(
-            StringBuffer text,
+    public static CharSequence parseDoubleBrackets(
+            CharSequence text,
             LanguageType lang,
             boolean b_remove_not_expand_iwiki)
     {
         if(null == text || 0 == text.length()) {
-            return NULL_STRINGBUFFER;
+            return "";
         }
         
-        Matcher m = ptrn_double_brackets.matcher(text.toString()); // [[(.+?)]]
+        Matcher m = ptrn_double_brackets.matcher(ParseBudget.guard(text)); // [[(.+?)]]
                 //StringUtil.escapeCharDollarAndBackslash(text.toString())); // [[(.+?)]]
+        boolean result = m.find();
+        if(!result)
+            return text;
         
         String before, after;
-        StringBuffer sb = new StringBuffer();
-        boolean result = m.find();
+        StringBuilder sb = new StringBuilder(text.length());
         while(result) {
             // g: text within [[brackets]]
             String g = StringUtil.escapeCharDollarAndBackslash(m.group(1)).toString();
@@ -305,7 +334,7 @@ public class WikiParser {
         }
         m.appendTail(sb);
         
-        return sb;
+        return sb.toString();
     }
 
     
@@ -313,27 +342,12 @@ public class WikiParser {
      * 
      * Todo: expand templates (optionally).
      */
-    public static StringBuffer parseCurlyBrackets(StringBuffer text)
+    public static CharSequence parseCurlyBrackets(CharSequence text)
     {
         if(null == text || 0 == text.length()) {
-            return NULL_STRINGBUFFER;
+            return "";
         }
-        
-        Matcher m = ptrn_double_curly_brackets.matcher(text.toString()); // {{(.+?)}}
-        boolean result = m.find();
-        if(result) {
-            StringBuffer sb = new StringBuffer();
-            while(result) {
-                //String g = m.group(1); // texts within {{curly brackets}}
-                m.appendReplacement(sb, "");
-                result = m.find();
-            }
-            m.appendTail(sb);
-
-            return sb;
-        }
-        
-        return text;
+        return removeAll(ptrn_double_curly_brackets, text); // {{(.+?)}}
     }
     
     
@@ -343,35 +357,32 @@ public class WikiParser {
      * It is recommended to call StringUtil.escapeCharDollarAndBackslash(text) 
      * before this function.
      */
-    private static StringBuffer parseBounds(StringBuffer text, Pattern p)
+    private static CharSequence parseBounds(CharSequence text, Pattern p)
     {
         if(null == text || 0 == text.length()) {
-            return NULL_STRINGBUFFER;
+            return "";
         }
-        //Matcher m = p.matcher(StringUtil.escapeCharDollarAndBackslash(text.toString()));
-        Matcher m = p.matcher(text.toString());
-        
+        Matcher m = p.matcher(ParseBudget.guard(text));
         boolean result = m.find();
-        if(result) {
-            StringBuffer sb = new StringBuffer();
-            while(result) {
-                // g1: text within ''some boundaries''
-                String g1 = StringUtil.escapeCharDollarAndBackslash(m.group(1)).toString();
-                m.appendReplacement(sb, g1);
-                result = m.find();
-            }
-            m.appendTail(sb);
-            return sb;
-        }
+        if(!result)
+            return text;
         
-        return text;
+        StringBuilder sb = new StringBuilder(text.length());
+        while(result) {
+            // g1: text within ''some boundaries''
+            String g1 = StringUtil.escapeCharDollarAndBackslash(m.group(1)).toString();
+            m.appendReplacement(sb, g1);
+            result = m.find();
+        }
+        m.appendTail(sb);
+        return sb.toString();
     }
     
     /** Removes douple apostrophes used in pairs, e.g. ''italics'' -> italics.
      * It is recommended to call StringUtil.escapeCharDollarAndBackslash(text) 
      * before this function.
      */
-    public static StringBuffer parseDoubleApostrophe(StringBuffer text)
+    public static CharSequence parseDoubleApostrophe(CharSequence text)
     {
         return parseBounds(text, ptrn_double_apostrophe);
     }
@@ -380,7 +391,7 @@ public class WikiParser {
      * It is recommended to call StringUtil.escapeCharDollarAndBackslash(text) 
      * before this function.
      */
-    public static StringBuffer parseTripleApostrophe(StringBuffer text)
+    public static CharSequence parseTripleApostrophe(CharSequence text)
     {
         return parseBounds(text, ptrn_triple_apostrophe);
     }
@@ -389,18 +400,16 @@ public class WikiParser {
     /** Removes sign of acute accent "'" for Russian wiki texts, 
      * it is placed in the begin of article often e.g. '''itálics''' -> '''italics'''.
      */
-    public static StringBuffer removeAcuteAccent(
-            StringBuffer text,LanguageType wiki_lang)
+    public static CharSequence removeAcuteAccent(
+            CharSequence text,LanguageType wiki_lang)
     {
         if( wiki_lang != LanguageType.ru) // skip English Wiki
             return text;
         
         if(null == text || 0 == text.length()) {
-            return NULL_STRINGBUFFER;
+            return "";
         }
-        
-        Matcher m = ptrn_accent_sign.matcher(text.toString());
-        return new StringBuffer (m.replaceAll(""));
+        return removeAll(ptrn_accent_sign, text);
     }
     
     
@@ -423,8 +432,8 @@ public class WikiParser {
      * (2) [[run|running]] -> running, or [[Russian language|Russian]] -> Russian, 
      * i.e. the visible (to reader) words will remain.
      */
-    public static StringBuffer convertWikiToText(
-            StringBuffer wiki_text,
+    public static String convertWikiToText(
+            CharSequence wiki_text,
             LanguageType lang, 
             boolean b_remove_not_expand_iwiki)
     {
@@ -437,13 +446,13 @@ public class WikiParser {
         // StringBuffer result = WikiParser.removeCategory(wiki_text, LanguageType.en);
         
         if(null == wiki_text || 0 == wiki_text.length()) {
-            return NULL_STRINGBUFFER;
+            return "";
         }
         //StringBuffer wiki_text_trim = new StringBuffer(wiki_text.toString().trim());
         
         // I. removing
         
-        StringBuffer s = removeHTMLComments(wiki_text);
+        CharSequence s = removeHTMLComments(wiki_text);
         s = removePreCode(s);
         s = removeSourceCode(s);
         
@@ -470,6 +479,132 @@ public class WikiParser {
         //str = XMLTagsParser.escapeCharFromXML(str);      // for GATE XML parsers
         str = XMLTagsParser.replaceCharFromXML(str, ' ');  // for GATE XML parsers
         
-        return new StringBuffer(str);
+        return str;
+    }
+    
+    
+    // Deprecated StringBuffer versions, they copy the text on each call.
+    
+    /** @deprecated Use {@link #removeInterwiki(CharSequence)} */
+    @Deprecated
+    public static StringBuffer removeInterwiki(StringBuffer text) {
+        return new StringBuffer(removeInterwiki(text.toString()));
+    }
+    
+    /** @deprecated Use {@link #removeBracketsInInterwiki(CharSequence)} */
+    @Deprecated
+    public static StringBuffer removeBracketsInInterwiki(StringBuffer text) {
+        return new StringBuffer(removeBracketsInInterwiki(text.toString()));
+    }
+    
+    /** @deprecated Use {@link #removeCategory(CharSequence, LanguageType)} */
+    @Deprecated
+    public static StringBuffer removeCategory(StringBuffer text, LanguageType lang) {
+        return new StringBuffer(removeCategory(text.toString(), lang));
+    }
+    
+    /** @deprecated Use {@link #removeXMLTag(CharSequence, String)} */
+    @Deprecated
+    public static StringBuffer removeXMLTag(StringBuffer text,String tag) {
+        if(null == tag || tag.length() == 0)
+            return text;
+        return new StringBuffer(removeXMLTag(text.toString(), tag));
+    }
+    
+    /** @deprecated Use {@link #removeXMLTagCode(CharSequence)} */
+    @Deprecated
+    public static StringBuffer removeXMLTagCode(StringBuffer text) {
+        return new StringBuffer(removeXMLTagCode(text.toString()));
+    }
+    
+    /** @deprecated Use {@link #removeHTMLComments(CharSequence)} */
+    @Deprecated
+    public static StringBuffer removeHTMLComments(StringBuffer text) {
+        return new StringBuffer(removeHTMLComments(text.toString()));
+    }
+    
+    /** @deprecated Use {@link #removePreCode(CharSequence)} */
+    @Deprecated
+    public static StringBuffer removePreCode(StringBuffer text) {
+        return new StringBuffer(removePreCode(text.toString()));
+    }
+    
+    /** @deprecated Use {@link #removeSourceCode(CharSequence)} */
+    @Deprecated
+    public static StringBuffer removeSourceCode(StringBuffer text) {
+        return new StringBuffer(removeSourceCode(text.toString()));
+    }
+    
+    /** @deprecated Use {@link #parseSingleBrackets(CharSequence)} */
+    @Deprecated
+    public static StringBuffer parseSingleBrackets(StringBuffer text) {
+        if(null == text || 0 == text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        return new StringBuffer(parseSingleBrackets(text.toString()));
+    }
+    
+    /** @deprecated Use {@link #parseDoubleBrackets(CharSequence, LanguageType, boolean)} */
+    @Deprecated
+    public static StringBuffer parseDoubleBrackets(
+            StringBuffer text,
+            LanguageType lang,
+            boolean b_remove_not_expand_iwiki)
+    {
+        if(null == text || 0 == text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        return new StringBuffer(parseDoubleBrackets(text.toString(), lang, b_remove_not_expand_iwiki));
+    }
+    
+    /** @deprecated Use {@link #parseCurlyBrackets(CharSequence)} */
+    @Deprecated
+    public static StringBuffer parseCurlyBrackets(StringBuffer text) {
+        if(null == text || 0 == text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        return new StringBuffer(parseCurlyBrackets(text.toString()));
+    }
+    
+    /** @deprecated Use {@link #parseDoubleApostrophe(CharSequence)} */
+    @Deprecated
+    public static StringBuffer parseDoubleApostrophe(StringBuffer text) {
+        if(null == text || 0 == text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        return new StringBuffer(parseDoubleApostrophe(text.toString()));
+    }
+    
+    /** @deprecated Use {@link #parseTripleApostrophe(CharSequence)} */
+    @Deprecated
+    public static StringBuffer parseTripleApostrophe(StringBuffer text) {
+        if(null == text || 0 == text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        return new StringBuffer(parseTripleApostrophe(text.toString()));
+    }
+    
+    /** @deprecated Use {@link #removeAcuteAccent(CharSequence, LanguageType)} */
+    @Deprecated
+    public static StringBuffer removeAcuteAccent(StringBuffer text,LanguageType wiki_lang) {
+        if( wiki_lang != LanguageType.ru) // skip English Wiki
+            return text;
+        if(null == text || 0 == text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        return new StringBuffer(removeAcuteAccent(text.toString(), wiki_lang));
+    }
+    
+    /** @deprecated Use {@link #convertWikiToText(CharSequence, LanguageType, boolean)} */
+    @Deprecated
+    public static StringBuffer convertWikiToText(
+            StringBuffer wiki_text,
+            LanguageType lang, 
+            boolean b_remove_not_expand_iwiki)
+    {
+        if(null == wiki_text || 0 == wiki_text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        return new StringBuffer(convertWikiToText(wiki_text.toString(), lang, b_remove_not_expand_iwiki));
     }
 }
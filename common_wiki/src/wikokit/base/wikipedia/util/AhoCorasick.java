@@ -0,0 +1,364 @@
+/* AhoCorasick.java - multi-pattern string matcher (Aho-Corasick automaton).
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Multi-pattern matcher: finds all occurrences of all keys in a text
+ * in one linear scan (Aho-Corasick automaton).
+ *
+ * Usage: add() keys with values, then build(), then findAll() or containsAny().
+ * The automaton is only read after build(), so it can be shared between threads.
+ *
+ * @param <V> value associated with a key (e.g. context label)
+ */
+public class AhoCorasick<V> {
+
+    /** Keys and values in order of addition, index = pattern id. */
+    private final List<String> keys   = new ArrayList<String>();
+    private final List<V>      values = new ArrayList<V>();
+
+    /** Sorted transition labels of each state. */
+    private char[][] edge_chars;
+
+    /** Target states of transitions, edge_next[s][i] is the target of edge_chars[s][i]. */
+    private int[][]  edge_next;
+
+    /** Direct transition tables of states with many transitions (e.g. the state
+     * after "{{" of templates), edge_table[s][c - edge_table_min[s]] is the target
+     * of 'c' or -1; null for other states. */
+    private int[][]  edge_table;
+    private char[]   edge_table_min;
+
+    /** Maximum size of a direct transition table. */
+    private final static int MAX_EDGE_TABLE = 4096;
+
+    /** Failure function: the longest proper suffix state. */
+    private int[]    fail;
+
+    /** Pattern ids which end in the state (including the ones reachable by fail links). */
+    private int[][]  output;
+
+    /** The first symbol of all keys if it is the same (e.g. "{{" of templates),
+     * then the scan jumps to the next such symbol from the root state, otherwise -1. */
+    private int      root_char;
+
+    private final static int[] NULL_INT_ARRAY = new int[0];
+
+    public AhoCorasick() {
+    }
+
+    /** Adds the key (pattern) with the value. Empty keys are skipped.
+     * The automaton should be (re)built after adding keys.
+     */
+    public void add(String key, V value) {
+        if(null == key || key.length() == 0)
+            return;
+
+        keys.add(key);
+        values.add(value);
+        edge_chars = null;  // not built
+    }
+
+    /** Counts number of keys. */
+    public int size() {
+        return keys.size();
+    }
+
+    /** Returns true if the automaton was built after the last add(). */
+    public boolean isBuilt() {
+        return null != edge_chars;
+    }
+
+    /** Builds goto, failure and output functions. */
+    public void build() {
+
+        List<Map<Character, Integer>> trie = new ArrayList<Map<Character, Integer>>();
+        trie.add(new TreeMap<Character, Integer>());
+        List<List<Integer>> own_output = new ArrayList<List<Integer>>();
+        own_output.add(new ArrayList<Integer>(0));
+
+        for(int id=0; id<keys.size(); id++) {
+            String key = keys.get(id);
+            int s = 0;
+            for(int i=0; i<key.length(); i++) {
+                Character c = key.charAt(i);
+                Integer next = trie.get(s).get(c);
+                if(null == next) {
+                    next = trie.size();
+                    trie.add(new TreeMap<Character, Integer>());
+                    own_output.add(new ArrayList<Integer>(0));
+                    trie.get(s).put(c, next);
+                }
+                s = next;
+            }
+            own_output.get(s).add(id);
+        }
+
+        int n = trie.size();
+        edge_chars = new char[n][];
+        edge_next  = new int [n][];
+        for(int s=0; s<n; s++) {
+            Map<Character, Integer> m = trie.get(s);
+            edge_chars[s] = new char[m.size()];
+            edge_next [s] = new int [m.size()];
+            int i = 0;
+            for(Map.Entry<Character, Integer> e : m.entrySet()) {   // TreeMap: sorted by char
+                edge_chars[s][i] = e.getKey();
+                edge_next [s][i] = e.getValue();
+                i ++;
+            }
+        }
+
+        edge_table     = new int [n][];
+        edge_table_min = new char[n];
+        for(int s=0; s<n; s++) {
+            char[] chars = edge_chars[s];
+            if(chars.length <= 8 || chars[chars.length - 1] - chars[0] >= MAX_EDGE_TABLE)
+                continue;
+            int[] table = new int[chars[chars.length - 1] - chars[0] + 1];
+            Arrays.fill(table, -1);
+            for(int i=0; i<chars.length; i++)
+                table[chars[i] - chars[0]] = edge_next[s][i];
+            edge_table    [s] = table;
+            edge_table_min[s] = chars[0];
+        }
+
+        root_char = 1 == edge_chars[0].length ? edge_chars[0][0] : -1;
+
+        // breadth-first traversal: fail links and merged outputs
+        fail   = new int[n];
+        output = new int[n][];
+        output[0] = NULL_INT_ARRAY;
+
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for(int child : edge_next[0]) {
+            fail[child] = 0;
+            queue[tail++] = child;
+        }
+
+        while(head < tail) {
+            int s = queue[head++];
+            output[s] = merge(own_output.get(s), output[fail[s]]);
+
+            for(int i=0; i<edge_chars[s].length; i++) {
+                char c     = edge_chars[s][i];
+                int  child = edge_next [s][i];
+
+                int f = fail[s];
+                int t;
+                while((t = go(f, c)) < 0 && f != 0)
+                    f = fail[f];
+                fail[child] = t < 0 ? 0 : t;
+
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    private static int[] merge(List<Integer> own, int[] inherited) {
+        if(own.isEmpty())
+            return inherited;
+
+        int[] result = new int[own.size() + inherited.length];
+        for(int i=0; i<own.size(); i++)
+            result[i] = own.get(i);
+        System.arraycopy(inherited, 0, result, own.size(), inherited.length);
+        return result;
+    }
+
+    /** Gets the next state by the transition 'c' from the state 's',
+     * @return -1 if there is no such transition.
+     */
+    private int go(int s, char c) {
+        int[] table = edge_table[s];
+        if(null != table) {
+            int k = c - edge_table_min[s];
+            return k < 0 || k >= table.length ? -1 : table[k];
+        }
+        char[] chars = edge_chars[s];
+        if(chars.length <= 8) {     // most states have few transitions
+            for(int i=0; i<chars.length; i++) {
+                if(c == chars[i])
+                    return edge_next[s][i];
+            }
+            return -1;
+        }
+        int i = Arrays.binarySearch(chars, c);
+        return i < 0 ? -1 : edge_next[s][i];
+    }
+
+    /** Moves the automaton from the state 's' by the symbol 'c'. */
+    private int step(int s, char c) {
+        int t;
+        while((t = go(s, c)) < 0 && s != 0)
+            s = fail[s];
+        return t < 0 ? 0 : t;
+    }
+
+    /** Gets position (from i) of the symbol which can start a key,
+     * i.e. the automaton leaves the root state there.
+     * @return -1 if there is no such symbol
+     */
+    private int nextRootChar(CharSequence text, int i) {
+        if(-1 == root_char)
+            return i;
+        if(text instanceof String)
+            return ((String)text).indexOf(root_char, i);
+
+        for(; i<text.length(); i++) {
+            if(root_char == text.charAt(i))
+                return i;
+        }
+        return -1;
+    }
+
+    /** Finds all (possibly overlapping) occurrences of keys in the text.
+     *
+     * @return list of matches ordered by end position, empty list if there are no keys in the text
+     */
+    public List<Match<V>> findAll(CharSequence text) {
+        if(!isBuilt())
+            throw new IllegalStateException("AhoCorasick.findAll(): the automaton is not built, call build() after add().");
+
+        List<Match<V>> result = new ArrayList<Match<V>>();
+        Scanner scanner = new Scanner(text);
+        Match<V> m;
+        while(null != (m = scanner.next()))
+            result.add(m);
+        return result;
+    }
+
+    /** Creates the scanner which finds occurrences of keys one by one in the
+     * same order as findAll(), so the caller can stop the scan, e.g. at the
+     * first template which is not a context label.
+     */
+    public Scanner scan(CharSequence text) {
+        if(!isBuilt())
+            throw new IllegalStateException("AhoCorasick.scan(): the automaton is not built, call build() after add().");
+
+        return new Scanner(text);
+    }
+
+    /** Scans the text, see {@link AhoCorasick#scan(CharSequence)}. */
+    public class Scanner {
+
+        private final CharSequence text;
+
+        /** Position of the next symbol of the text. */
+        private int i = 0;
+
+        /** State of the automaton before the symbol i. */
+        private int s = 0;
+
+        /** Pattern ids of the state s, which are not returned yet. */
+        private int[] out = NULL_INT_ARRAY;
+        private int   out_i = 0;
+
+        private Scanner(CharSequence _text) {
+            text = _text;
+        }
+
+        /** Gets the next occurrence of a key (ordered by end position),
+         * null if there are no more keys in the text. */
+        public Match<V> next() {
+            if(out_i == out.length) {
+                int n = text.length();
+                int _i = i, _s = s;     // the scan is in local variables
+                int[] _out;
+                do {
+                    if(_i >= n || 0 == _s && -1 == (_i = nextRootChar(text, _i))) {
+                        i = n;
+                        s = 0;
+                        out = NULL_INT_ARRAY;
+                        out_i = 0;
+                        return null;
+                    }
+                    _s = step(_s, text.charAt(_i ++));
+                    _out = output[_s];
+                } while(0 == _out.length);
+                i = _i;
+                s = _s;
+                out = _out;
+                out_i = 0;
+            }
+            int id = out[out_i ++];
+            String key = keys.get(id);
+            return new Match<V>(i - key.length(), i, key, values.get(id));
+        }
+
+        /** Skips the text till the position 'pos', i.e. keys which end
+         * before or at 'pos' and are not returned yet will not be found,
+         * keys which start before 'pos' will not be found too.
+         */
+        public void skipTo(int pos) {
+            if(pos <= i)
+                return;
+            i = pos;
+            s = 0;
+            out = NULL_INT_ARRAY;
+            out_i = 0;
+        }
+    }
+
+    /** Returns true if at least one key occurs in the text. */
+    public boolean containsAny(CharSequence text) {
+        if(!isBuilt())
+            throw new IllegalStateException("AhoCorasick.containsAny(): the automaton is not built, call build() after add().");
+
+        int s = 0;
+        for(int i=0; i<text.length(); i++) {
+            if(0 == s && -1 == (i = nextRootChar(text, i)))
+                break;
+            s = step(s, text.charAt(i));
+            if(output[s].length > 0)
+                return true;
+        }
+        return false;
+    }
+
+    /** Occurrence of a key in the text: [start, end) and the value of the key. */
+    public static class Match<V> {
+
+        private final int start;
+        private final int end;
+        private final String key;
+        private final V value;
+
+        protected Match(int _start, int _end, String _key, V _value) {
+            start = _start;
+            end   = _end;
+            key   = _key;
+            value = _value;
+        }
+
+        /** Gets position of the first symbol of the key in the text. */
+        public int getStart() {
+            return start;
+        }
+
+        /** Gets position after the last symbol of the key in the text. */
+        public int getEnd() {
+            return end;
+        }
+
+        /** Gets the found key. */
+        public String getKey() {
+            return key;
+        }
+
+        /** Gets the value of the found key. */
+        public V getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/* ExternalSorter.java - sorts more records than fit in memory (external merge sort).
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/** External merge sort: records are collected in memory, each full buffer
+ * is sorted and written to a temporary file (run), then the runs are merged
+ * by one sequential pass over all of them.<br><br>
+ *
+ * Usage:
+ * <pre>
+ * ExternalSorter&lt;Link&gt; sorter = new ExternalSorter&lt;Link&gt;(codec, comparator, 1000000, null);
+ * sorter.add(link);   ...
+ * ExternalSorter.Cursor&lt;Link&gt; c = sorter.sort();
+ * try {
+ *     for(Link l = c.next(); null != l; l = c.next())
+ *         ...
+ * } finally {
+ *     c.close();    // deletes the temporary files
+ * }</pre>
+ *
+ * The sort is stable: equal records are returned in order of addition.
+ *
+ * @param <T> record
+ */
+public class ExternalSorter<T> {
+
+    /** Writes and reads one record in a binary form. */
+    public interface Codec<T> {
+        void write(DataOutput out, T record) throws IOException;
+        T read(DataInput in) throws IOException;
+    }
+
+    /** Sequential reader of the sorted records. */
+    public interface Cursor<T> extends Closeable {
+        /** Gets the next record, or null after the last one. */
+        T next() throws IOException;
+    }
+
+    private final Codec<T> codec;
+    private final Comparator<? super T> comparator;
+    private final int max_records_in_memory;
+    private final File tmp_dir;
+
+    private List<T> buffer = new ArrayList<T>();
+    private final List<Run> runs = new ArrayList<Run>();
+    private long size = 0;
+
+    /** Creates the sorter.
+     *
+     * @param max_records_in_memory number of records sorted in memory,
+     *                              i.e. the size of one run
+     * @param tmp_dir   directory for temporary files, null - default
+     *                  temporary-file directory
+     */
+    public ExternalSorter(Codec<T> codec, Comparator<? super T> comparator,
+                          int max_records_in_memory, File tmp_dir) {
+        if(max_records_in_memory < 1)
+            throw new IllegalArgumentException("max_records_in_memory < 1");
+        this.codec = codec;
+        this.comparator = comparator;
+        this.max_records_in_memory = max_records_in_memory;
+        this.tmp_dir = tmp_dir;
+    }
+
+    /** Adds the record, writes sorted records to a new run if the buffer is full. */
+    public void add(T record) throws IOException {
+        buffer.add(record);
+        size ++;
+        if(buffer.size() >= max_records_in_memory)
+            spillBuffer();
+    }
+
+    /** Gets number of added records. */
+    public long size() {
+        return size;
+    }
+
+    /** Gets number of runs written to disk. */
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    private void spillBuffer() throws IOException {
+        Collections.sort(buffer, comparator);   // stable
+
+        File f = File.createTempFile("sort", ".run", tmp_dir);
+        f.deleteOnExit();
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(f), 1 << 16));
+        try {
+            for(T r : buffer)
+                codec.write(out, r);
+        } finally {
+            out.close();
+        }
+        runs.add(new Run(f, buffer.size()));
+        buffer = new ArrayList<T>();
+    }
+
+    /** Sorts the added records. The sorter should not be used after that.
+     * If all records fit in memory, then no file is written.
+     */
+    public Cursor<T> sort() throws IOException {
+        if(runs.isEmpty()) {
+            Collections.sort(buffer, comparator);
+            final List<T> sorted = buffer;
+            buffer = null;
+            return new Cursor<T>() {
+                private int i = 0;
+                public T next() {
+                    return i < sorted.size() ? sorted.get(i ++) : null;
+                }
+                public void close() {}
+            };
+        }
+        if(!buffer.isEmpty())
+            spillBuffer();
+        buffer = null;
+        return new MergeCursor();
+    }
+
+    /** Sorted records in a temporary file. */
+    private class Run {
+        final File file;
+        final long count;
+        final int index;
+
+        DataInputStream in;
+        long remain;
+        T head;
+
+        Run(File file, long count) {
+            this.file = file;
+            this.count = count;
+            this.index = runs.size();
+        }
+
+        void open() throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+            remain = count;
+        }
+
+        /** Reads the next record to head, returns false at the end of the run. */
+        boolean advance() throws IOException {
+            if(0 == remain) {
+                head = null;
+                return false;
+            }
+            remain --;
+            head = codec.read(in);
+            return true;
+        }
+
+        void close() {
+            if(null != in) {
+                try { in.close(); } catch(IOException e) {}
+                in = null;
+            }
+            file.delete();
+        }
+    }
+
+    /** k-way merge of runs by the priority queue of their heads. */
+    private class MergeCursor implements Cursor<T> {
+        private final PriorityQueue<Run> queue;
+
+        MergeCursor() throws IOException {
+            queue = new PriorityQueue<Run>(Math.max(1, runs.size()), new Comparator<Run>() {
+                public int compare(Run a, Run b) {
+                    int c = comparator.compare(a.head, b.head);
+                    if(0 != c)
+                        return c;
+                    return a.index < b.index ? -1 : (a.index == b.index ? 0 : 1);  // stable
+                }
+            });
+            try {
+                for(Run r : runs) {
+                    r.open();
+                    if(r.advance())
+                        queue.add(r);
+                    else
+                        r.close();
+                }
+            } catch(IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        public T next() throws IOException {
+            Run r = queue.poll();
+            if(null == r)
+                return null;
+            T result = r.head;
+            if(r.advance())
+                queue.add(r);
+            else
+                r.close();
+            return result;
+        }
+
+        public void close() {
+            queue.clear();
+            for(Run r : runs)
+                r.close();
+        }
+    }
+
+    /** Writes the string as length and UTF-8 bytes (null is written as -1),
+     * there is no 64K limit of DataOutput.writeUTF(). */
+    public static void writeString(DataOutput out, String s) throws IOException {
+        if(null == s) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes("UTF-8");
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    /** Reads the string written by {@link #writeString(DataOutput, String)}. */
+    public static String readString(DataInput in) throws IOException {
+        int len = in.readInt();
+        if(len < 0)
+            return null;
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, "UTF-8");
+    }
+}
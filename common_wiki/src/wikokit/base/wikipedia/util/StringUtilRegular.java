@@ -134,18 +134,19 @@ public class StringUtilRegular {
 
     /** Gets first letters till space " ", ... or pipe "|" (shortest string).
      * E.g. "word1 " -> "word1", "\t word-long2\r\n" -> "word-long2"
-     * This functions is used by WPOSRu.guessPOS().
+     * This functions is used by WPOSRu.guessPOS(), the text is a view of
+     * the article text usually (it is not copied).
      */
-    public static String getLettersTillSpaceHyphenOrPipe(String text) {
+    public static String getLettersTillSpaceHyphenOrPipe(CharSequence text) {
         Matcher m;
 
-        String  s_space = text; // because max(length) = text.length()
+        CharSequence s_space = text; // because max(length) = text.length()
         boolean b_space = false;
 
-        String  s_hyphen = text;
+        CharSequence s_hyphen = text;
         boolean b_hyphen = false;
 
-        String  s_pipe = text;
+        CharSequence s_pipe = text;
         boolean b_pipe = false;
 
         m = ptrn_letters_till_space.matcher(text);
@@ -168,15 +169,15 @@ public class StringUtilRegular {
 
         if(b_space && s_space.length() <= s_hyphen.length()
                    && s_space.length() <= s_pipe.length())
-            return s_space;
+            return s_space.toString();
 
         if(b_hyphen && s_hyphen.length() <= s_space.length()
                     && s_hyphen.length() <= s_pipe.length())
-            return s_hyphen;
+            return s_hyphen.toString();
 
         if(b_pipe && s_pipe.length() <= s_hyphen.length()
                   && s_pipe.length() <= s_space.length())
-            return s_pipe;
+            return s_pipe.toString();
         
         return NULL_STRING;
     }
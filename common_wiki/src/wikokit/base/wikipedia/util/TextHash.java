@@ -0,0 +1,38 @@
+/* TextHash.java - 64-bit hash of a text, key of long texts in the database.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.util;
+
+/** 64-bit FNV-1a hash of the characters of a text.<br><br>
+ *
+ * Long texts (e.g. the tables 'wiki_text' and 'quote') are searched in
+ * the database by the column 'text_hash' (BIGINT with a small index)
+ * instead of the index by a prefix of the text. Different texts could have
+ * the same hash (very seldom), so the text of each found row should be
+ * compared with the searched one.<br><br>
+ *
+ * The value is stored in the database, so the function should never be
+ * changed (or the column should be recalculated, see TextHashMigration).
+ */
+public class TextHash {
+
+    private final static long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private final static long FNV_PRIME        = 0x100000001b3L;
+
+    /** Gets the hash of the text, each char (UTF-16 code unit) is hashed
+     * as two bytes, high byte first. */
+    public static long hash64(CharSequence text) {
+        long h = FNV_OFFSET_BASIS;
+        for(int i=0; i<text.length(); i++) {
+            char c = text.charAt(i);
+            h ^= (c >>> 8);
+            h *= FNV_PRIME;
+            h ^= (c & 0xff);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+}
@@ -47,6 +47,16 @@ public class TemplateExtractor {
         return params.length;
     }
     
+    /** Gets position of the first symbol "{" of the template in the source string. */
+    public int getStartPos() {
+        return start_pos;
+    }
+    
+    /** Gets position of the last symbol "}" of the template in the source string. */
+    public int getEndPos() {
+        return end_pos;
+    }
+    
     protected TemplateExtractor(String _name, String[] _params,int _start_pos, int _end_pos) {
     
         this.name       = _name;
@@ -101,6 +111,18 @@ public class TemplateExtractor {
         if(-1 == start_pos)        // ^ start_pos
             return null;
         
+        return getTemplateAt(text, start_pos);
+    }
+    
+    /** Gets the template which starts at the position 'start_pos' 
+     * of the source string 'text', i.e. there is "{{" at start_pos.
+     * 
+     * @param text source text
+     * @param start_pos position of "{{" in the text
+     * @return NULL if the template is not closed by "}}" or it is empty
+     */
+    public static TemplateExtractor getTemplateAt(String text, int start_pos) {
+        
         int end_pos = text.indexOf("}}", start_pos);
         if(-1 == end_pos)        // ^ end_pos
             return null;
@@ -111,38 +133,47 @@ public class TemplateExtractor {
         // "text before {{template name|parameter one}} text after"
         //              ^ start_pos                   ^ end_pos
         
-        String template_text = text.substring(start_pos + 2, end_pos - 1);
-        if(template_text.length() == 0)
+        // the template text is text[begin, end), it is not copied
+        int begin = start_pos + 2;
+        int end   = end_pos - 1;
+        if(end <= begin)
             return null;                // {{}} - empty template
         
         String template_name = "";
         String[] params = NULL_STRING_ARRAY;
         
-        int pipe_pos = template_text.indexOf("|");
-        if(-1 == pipe_pos) {
+        int pipe_pos = text.indexOf('|', begin);
+        if(-1 == pipe_pos || pipe_pos >= end) {
             // there are no any parameters
-            template_name = template_text;
+            template_name = text.substring(begin, end);
             
         } else {
             // there are parameters after first pipe |
-                   template_name   = template_text.substring(0, pipe_pos);
-            String template_params = template_text.substring(   pipe_pos + 1);
-            
-            if(template_name.length() == 0)
+            if(pipe_pos == begin)
                 return null;    // template {{|without name|only parameters}}
             
-            if(template_params.length() > 0) {
-                params = StringUtil.split("|", template_params);
-            }
+            template_name = text.substring(begin, pipe_pos);
+            if(pipe_pos + 1 < end)
+                params = splitParams(text, pipe_pos + 1, end);
         }
         
-        // remove leading and trailing spaces in params
-        for(int i=0; i<params.length; i++)
-            params[i] = params[i].trim();
-        
         return new TemplateExtractor(template_name, params, start_pos, end_pos);
     }
     
+    /** Splits text[begin, end) by pipes as StringUtil.split("|", ...) does
+     * and removes leading and trailing spaces in params.
+     */
+    private static String[] splitParams(String text, int begin, int end) {
+        List<String> params = new ArrayList<String>();
+        int pipe_pos;
+        while(-1 != (pipe_pos = text.indexOf('|', begin)) && pipe_pos < end) {
+            params.add(StringUtil.substringTrim(text, begin, pipe_pos));
+            begin = pipe_pos + 1;
+        }
+        params.add(StringUtil.substringTrim(text, begin, end));
+        return params.toArray(NULL_STRING_ARRAY);
+    }
+    
     
     /** Gets parameters of the first encountered template {{template_name|parameters...}} 
      * from the source string 'text'.
@@ -69,7 +69,7 @@ public class WEtymologyEn {
             return NULL_LANG_TEXT_ARRAY;
         }
         
-        Matcher m = ptrn_3d_level_etymology.matcher(lt_source.text.toString());
+        Matcher m = ptrn_3d_level_etymology.matcher(lt_source.text);
         boolean b_next = m.find();
 
                         // Position of Etymology block in the lt_source.text:
@@ -102,10 +102,10 @@ public class WEtymologyEn {
             LangText lt = new LangText(lang);
             if(bfirst) {
                 bfirst = false;
-                lt.text.append(lt_source.text.substring(0, start1));
-                lt.text.append(lt_source.text.substring(end1, start));
+                lt.append(lt_source.text, 0, start1);
+                lt.append(lt_source.text, end1, start);
             } else
-                lt.text.append(lt_source.text.substring(start, end));
+                lt.append(lt_source.text, start, end);
             etymology_sections.add(lt);
             
             b_next = m.find();
@@ -116,7 +116,7 @@ public class WEtymologyEn {
         }
 
         LangText lt = new LangText(lang);
-        lt.text.append(lt_source.text.substring(end));
+        lt.append(lt_source.text, end, lt_source.text.length());
         etymology_sections.add(lt); // last Etymology section
 
         return (LangText[])etymology_sections.toArray(NULL_LANG_TEXT_ARRAY);
@@ -68,7 +68,7 @@ public class WMeaningEn {
         if(null == pt.getText())
             return NULL_WMEANING_ARRAY;
 
-        StringBuffer text = pt.getText();
+        String text = pt.getText().toString();
         if(0 == text.length())
             return NULL_WMEANING_ARRAY;
 
@@ -9,6 +9,7 @@ package wikokit.base.wikt.multi.en;
 import wikokit.base.wikt.util.POSText;
 import wikokit.base.wikt.util.LangText;
 import wikokit.base.wikt.constant.POS;
+import wikokit.base.wikipedia.text.TextSlice;
 
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
@@ -98,8 +99,7 @@ public class WPOSEn {
 
                 pos_section_alone.add( new POSText(
                         POSTemplateEn.get(pos_header),
-                        new StringBuffer(          // text after === POS ===
-                                lt.text.toString().substring(m.end()))) );
+                        TextSlice.of(lt.text, m.end())) );  // text after === POS ===
 
                 return pos_section_alone;
             }
@@ -124,7 +124,7 @@ public class WPOSEn {
             return NULL_POS_TEXT_LIST;
         }
 
-        Matcher m = ptrn_3_or_4_level.matcher(lt.text.toString());
+        Matcher m = ptrn_3_or_4_level.matcher(lt.text);
         
         int n_pos = countPOSSections(m);
         
@@ -168,7 +168,7 @@ public class WPOSEn {
                 b_next = m.find();
                 if (!b_next) {
                     POS p = POSTemplateEn.get(pos_header_old);
-                    POSText pt = new POSText(p, lt.text.substring(end_old));
+                    POSText pt = new POSText(p, TextSlice.of(lt.text, end_old));
                     pos_sections.add(pt);
                     
                     break search_POS;
@@ -179,7 +179,7 @@ public class WPOSEn {
             POS p = POSTemplateEn.get(pos_header_old);
             pos_header_old = pos_header;
 
-            POSText pt = new POSText(p, lt.text.substring(end_old, m.start()));
+            POSText pt = new POSText(p, TextSlice.of(lt.text, end_old, m.start()));
             pos_sections.add(pt);
 
             end_old = m.end();
@@ -125,7 +125,7 @@ public class WRelationEn {
         if(null == pt.getText()) {
             return NULL_MAP_RELATION_WRELATION_ARRAY;
         }
-        StringBuffer text_source_sb = pt.getText();
+        CharSequence text_source_sb = pt.getText();
         if(0 == text_source_sb.length()) {
             return NULL_MAP_RELATION_WRELATION_ARRAY;
         }
@@ -136,7 +136,7 @@ public class WRelationEn {
         if(!m.find())              // the section Translations is absent!
             text = text_source_sb.toString();
         else
-            text = text_source_sb.substring(0, m.start());
+            text = text_source_sb.toString().substring(0, m.start());
 
         Map<Relation, WRelation[]> m_rel = new HashMap<Relation, WRelation[]>();        
         WRelation[] r;
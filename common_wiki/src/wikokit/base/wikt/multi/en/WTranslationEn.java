@@ -61,7 +61,7 @@ public class WTranslationEn {
         if(null == pt.getText()) {
             return NULL_WTRANSLATION_ARRAY;
         }
-        StringBuffer text_source_sb = pt.getText();
+        CharSequence text_source_sb = pt.getText();
         if(0 == text_source_sb.length()) {
             return NULL_WTRANSLATION_ARRAY;
         }
@@ -11,6 +11,8 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import wikokit.base.wikipedia.text.ParseBudget;
 import wikokit.base.wikt.constant.Label;
 import wikokit.base.wikt.constant.LabelCategory;
 
@@ -32,8 +34,10 @@ import wikokit.base.wikt.constant.LabelCategory;
  */
 public final class LabelEn extends Label {       
     
-    protected final static Map<String, Label> short_name2label = new HashMap<String, Label>();
-    protected final static Map<Label, String> label2short_name = new HashMap<Label, String>();
+    /** Labels found by the parser are added to these maps, while language 
+     * sections are parsed in parallel, so the maps are concurrent. */
+    protected final static Map<String, Label> short_name2label = new ConcurrentHashMap<String, Label>();
+    protected final static Map<Label, String> label2short_name = new ConcurrentHashMap<Label, String>();
     
     protected final static Map<String, Label> name2label = new HashMap<String, Label>();
     protected final static Map<Label, String> label2name = new HashMap<Label, String>();
@@ -45,7 +49,7 @@ public final class LabelEn extends Label {
     /** Category associated with this label. */
     private final LabelCategory category;
     //                                                                    LabelEn in fact
-    private static Map<Label, LabelCategory> label2category = new HashMap<Label, LabelCategory>();
+    private static Map<Label, LabelCategory> label2category = new ConcurrentHashMap<Label, LabelCategory>();
     
     /** Constructor for static context labels listed in this file below.
      */
@@ -122,6 +126,9 @@ public final class LabelEn extends Label {
         
         checksPrefixSuffixSpace(page_title, short_name);
         
+        // the parser thread abandoned by the watchdog doesn't add labels
+        ParseBudget.checkpoint();
+        
         // check the uniqueness of the label short name
         Label label_prev_by_short_name = short_name2label.get(short_name);
         
@@ -150,6 +157,8 @@ public final class LabelEn extends Label {
     
     /** Checks weather exists the Label (short name) by its name, checks synonyms also. */
     public static boolean hasShortName(String short_name) {
+        if(null == short_name)
+            return false;
         return short_name2label.containsKey(short_name) || 
          multiple_synonym2label.containsKey(short_name);
     }
@@ -163,7 +172,7 @@ public final class LabelEn extends Label {
     {
         Label label;
 
-        if(null != (label = short_name2label.get(short_name)))
+        if(null != short_name && null != (label = short_name2label.get(short_name)))
             return  label;
 
         if(null != (label = multiple_synonym2label.get(short_name)))
@@ -220,6 +229,8 @@ public final class LabelEn extends Label {
     
     /** Gets label's category by label's name. */
     public static LabelCategory getCategoryByLabel(Label label_en) {        
+        if(null == label_en)
+            return null;
         return label2category.get(label_en);
     }
     
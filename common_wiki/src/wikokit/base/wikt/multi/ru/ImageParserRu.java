@@ -31,32 +31,40 @@ public final class ImageParserRu {
     private final static Image[] NULL_IMAGE_ARRAY = new Image[0];
     
     
+    /** Meaning number and the caption without this number, they are
+     * extracted from the caption "object's caption [3]".
+     */
     static class MeaningNumberInCaption {
         
-        static public String caption_without_number;
+        public final String caption_without_number;
         
-        static public int meaning_number;
+        public final int meaning_number;
                                                           //       \[\d+\]
         private final static Pattern ptrn_digit = Pattern.compile("\\[(\\d+)\\]");
         
+        private MeaningNumberInCaption(String caption_without_number, int meaning_number) {
+            this.caption_without_number = caption_without_number;
+            this.meaning_number         = meaning_number;
+        }
 
-        /** Parse caption, extract [meaning number], write it to -> meaning_number; 
-         * removes number with brackets from caption and write to -> caption_without_number.
+        /** Parse caption, extract [meaning number] and removes number with 
+         * brackets from caption.
          * 
-         * @return true if [meaning number] was found in the caption
+         * @return meaning number and caption without number, or null if 
+         * [meaning number] was not found in the caption
          */
-        static public boolean parse(String caption) {
+        static public MeaningNumberInCaption parse(String caption) {
             
             // "3rd object's caption [3]" -> "3rd object's caption"
             
             Matcher m = ptrn_digit.matcher(caption);
             if(!m.find())
-                return false;
+                return null;
             
-            meaning_number = Integer.parseInt(m.group(1));
-            caption_without_number = m.replaceAll("").trim().replaceAll(" +", " ");
+            int meaning_number = Integer.parseInt(m.group(1));
+            String caption_without_number = m.replaceAll("").trim().replaceAll(" +", " ");
                                                              // replace 2 or more spaces with single space
-            return true;
+            return new MeaningNumberInCaption(caption_without_number, meaning_number);
         }
     }
     
@@ -166,9 +174,10 @@ public final class ImageParserRu {
                 if(_caption.length() > 4 &&     // at least len("word [N]") > 4 &&
                        -1 == _meaning_number)   // there is no parameter 'meaning number'
                 {
-                    if(ImageParserRu.MeaningNumberInCaption.parse(_caption)) {
-                        _meaning_number = ImageParserRu.MeaningNumberInCaption.meaning_number;
-                        _caption        = ImageParserRu.MeaningNumberInCaption.caption_without_number;
+                    MeaningNumberInCaption n = MeaningNumberInCaption.parse(_caption);
+                    if(null != n) {
+                        _meaning_number = n.meaning_number;
+                        _caption        = n.caption_without_number;
                     }
                 }
             }
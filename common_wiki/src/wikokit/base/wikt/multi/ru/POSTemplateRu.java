@@ -14,6 +14,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
 import wikokit.base.wikipedia.util.StringUtil;
+import wikokit.base.wikipedia.util.AhoCorasick;
 
 /** Names of POS templates in Russian Wiktionary.
  * 
@@ -43,6 +44,13 @@ public class POSTemplateRu extends POSType {
 
     private final static String[] NULL_STRING_ARRAY = new String[0];
 
+    /** Matcher of all POS names in text, it is built after all POS templates
+     * are created (see the end of the class). The value of a key is the number
+     * of the key in name_in_text2type, since isPOSIn() returns the first one.
+     */
+    private static AhoCorasick<Integer> name_in_text_matcher;
+    private static POS[] name_in_text_order;
+
     /** Initialization for POSTypeEn, POSTypeRu, etc. */
     private POSTemplateRu(String name_in_text, POS type) {
         this.name_in_text   = name_in_text;
@@ -69,11 +77,13 @@ public class POSTemplateRu extends POSType {
     /** Check whether the given abbreviation 'code' contains a known
      *  part of speech tag. Return unknown if not. */
     public static POS isPOSIn(String code){
-    	for (Map.Entry<String, POS> entry : name_in_text2type.entrySet()) {
-    		if (code.contains(entry.getKey()))
-    			return entry.getValue();
-    	}
-    	return POS.unknown;
+        int first = -1;
+        for(AhoCorasick.Match<Integer> m : name_in_text_matcher.findAll(code)) {
+            int n = m.getValue();
+            if(-1 == first || n < first)
+                first = n;
+        }
+        return -1 == first ? POS.unknown : name_in_text_order[first];
     }
     
     /** Gets part of speech by its abbreviation or template */
@@ -175,4 +185,15 @@ public class POSTemplateRu extends POSType {
     public static final POSType parenthesis = new POSTemplateRu("intro", POS.parenthesis);// Вводное слово
     public static final POSType prefix_of_compound = new POSTemplateRu("init", POS.prefix_of_compound);// первая часть сложных слов
     // ! "init" in ruwikt (Первая часть сложных слов) <> "initialism" in enwikt
+
+    static {    // all POS names are known, so they are found in text by one scan
+        name_in_text_matcher = new AhoCorasick<Integer>();
+        name_in_text_order = new POS[name_in_text2type.size()];
+        int n = 0;
+        for (Map.Entry<String, POS> entry : name_in_text2type.entrySet()) {
+            name_in_text_matcher.add(entry.getKey(), n);
+            name_in_text_order[n ++] = entry.getValue();
+        }
+        name_in_text_matcher.build();
+    }
 }
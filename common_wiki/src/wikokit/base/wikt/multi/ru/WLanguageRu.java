@@ -136,7 +136,7 @@ public class WLanguageRu {
      * @param  page_title word which are described in this article 'text'*/
     public static LangText[] splitToLanguageSections (
             String page_title,
-            StringBuffer text)
+            CharSequence text)
     {
         if(null == text || 0 == text.length()) {
             return NULL_LANG_TEXT_ARRAY;
@@ -144,8 +144,9 @@ public class WLanguageRu {
         
         List<LangText> lang_sections = new ArrayList<LangText>(); // result will be stored to
         
-        Matcher m = ptrn_lang.matcher(text.toString());
+        Matcher m = ptrn_lang.matcher(text);
         
+        int pos = 0;    // the text before pos is added to the sections or skipped
         int i = 0;
         boolean b_next = m.find();
         boolean b_at_least_one_lang = b_next; // at least one language section was recognized
@@ -158,7 +159,8 @@ public class WLanguageRu {
             if(b_known_lang) {
                 LangText lt = new LangText(lang_type);
 
-                m.appendReplacement(lt.text, "");   // "First {{-ru-}}" (add the text before the first lang code)
+                lt.append(text, 0, m.start());      // "First {{-ru-}}" (add the text before the first lang code)
+                pos = m.end();
                 lang_sections.add(lt);
                 
                 b_next = m.find();
@@ -166,10 +168,9 @@ public class WLanguageRu {
                     
                     if(b_known_lang) {
                         i++;                                                    // text belongs to previous lang code:
-                        m.appendReplacement(lang_sections.get(i-1).text, "");   // i.e. {{-prev lang code-}} current text {{-current lang code
-                    } else {                                                    
-                        m.appendReplacement(new StringBuffer(), "");   // {{-unknown-}} just reset the text within the unknown lang {{-known-}}
+                        lang_sections.get(i-1).append(text, pos, m.start());   // i.e. {{-prev lang code-}} current text {{-current lang code
                     }
+                    pos = m.end();  // {{-unknown-}} just skip the text within the unknown lang {{-known-}}
 
                     lang_type = getLanguageType(m, page_title);
                     b_known_lang = null != lang_type;
@@ -181,14 +182,14 @@ public class WLanguageRu {
                         //m.appendReplacement(lang_sections.get(i-1).text, "");   // text belongs to previous lang code:
                         lang_sections.add(lt);                                  // i.e. {{-prev lang code-}} current text {{-current lang code-}}
                         if(!b_next) {
-                            m.appendTail(lang_sections.get(i).text);
+                            lang_sections.get(i).append(text, pos, text.length());
                         }
                     }
                 }
             }
         }
         if(0==i && b_known_lang && b_at_least_one_lang) {
-            m.appendTail(lang_sections.get(i).text);
+            lang_sections.get(i).append(text, pos, text.length());
         }
 
         if(b_known_lang && 0 == lang_sections.size()) {
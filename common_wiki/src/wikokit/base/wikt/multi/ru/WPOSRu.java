@@ -16,6 +16,7 @@ import wikokit.base.wikipedia.util.StringUtilRegular;
 
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.text.WikiParser;
+import wikokit.base.wikipedia.text.TextSlice;
 
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
@@ -123,7 +124,7 @@ public class WPOSRu {
             return NULL_POS_TEXT_ARRAY;
         }
         
-        Matcher m = ptrn_2nd_level.matcher(lt.text.toString());
+        Matcher m = ptrn_2nd_level.matcher(lt.text);
         boolean b_next = m.find();
 
         if(b_next && m.groupCount() > 0 && isSecondLevelHeaderWordNotPOS(m.group(1)))
@@ -141,12 +142,12 @@ public class WPOSRu {
         }
                                                                 // there are more than one POS in this language in this word
         List<POSText> pos_sections = new ArrayList<POSText>();  // result will be stored to
-        StringBuffer current_pos_section = new StringBuffer();
+        CharSequence current_pos_section;
         
-        int start, end; // "<start> == Verb I == ... <end> == Verb II ==" position of POS block in the lt.text
+        int end;        // "<start> == Verb I == ... <end> == Verb II ==" position of POS block in the lt.text
+        int section_start = 0;  // current POS section is [section_start, end) in the lt.text
         
-        start = 0;
-        pos_title = WikiParser.removeAcuteAccent(new StringBuffer(m.group(1)), LanguageType.ru).toString();
+        pos_title = WikiParser.removeAcuteAccent(m.group(1), LanguageType.ru).toString();
         b_next = m.find();
         if(b_next)
             end = m.start();
@@ -156,37 +157,35 @@ public class WPOSRu {
         }
         
         while(b_next) {
-            current_pos_section.append(lt.text.substring(start, end));
+            current_pos_section = TextSlice.of(lt.text, section_start, end);
             
             POS p = guessPOSWith2ndLevelHeader(page_title, pos_title, current_pos_section);
             if(null != p) { // OK. It's POS header, though it's possible that p=unknown :(
-                POSText pt = new POSText(p, current_pos_section.toString());
-                current_pos_section.setLength(0);
+                POSText pt = new POSText(p, current_pos_section);
+                section_start = end;
                 pos_sections.add(pt);
             
             } else {
                 // null, if this is another 2nd level header, e.g. Bibliography or References
-                current_pos_section.append(""); // +??? this Bibliography text
+                // +??? this Bibliography text remains in the current section
                 // todo ...
             }
             
             // variant I:  \1==page_title+"I", "II", ... "VIII"
             // variant II: \1==Verb|Noun|... (In Russian)
-            pos_title = WikiParser.removeAcuteAccent(new StringBuffer(m.group(1)), LanguageType.ru).toString();
+            pos_title = WikiParser.removeAcuteAccent(m.group(1), LanguageType.ru).toString();
             
             b_next = m.find();
             if(b_next) {
-                start = end;
                 end = m.start();
             }
         }
         
-        current_pos_section.append(lt.text.substring(end)); // last POS section
+        current_pos_section = TextSlice.of(lt.text, section_start); // last POS section
         
         POS p = guessPOSWith2ndLevelHeader(page_title, pos_title, current_pos_section);
         if(null != p) { // OK. It's last POS header, though it's possible that p=unknown :(
-            POSText pt = new POSText(p, current_pos_section.toString());
-            current_pos_section.setLength(0);
+            POSText pt = new POSText(p, current_pos_section);
             pos_sections.add(pt);
         }
         
@@ -254,10 +253,10 @@ public class WPOSRu {
             LangText    lt)
     {
         Matcher m;
-        String lt_text = lt.text.toString();
+        CharSequence lt_text = lt.text;
         boolean lang_code_presented;
 
-        if(lt_text.contains("{{заголовок|add=")) {
+        if(-1 != TextSlice.indexOf(lt_text, "{{заголовок|add=", 0)) {
             m = ptrn_title_add_template_without_lang.matcher( lt_text );
             lang_code_presented = false;
         } else {
@@ -271,15 +270,15 @@ public class WPOSRu {
             return NULL_POS_TEXT_ARRAY;
 
         List<POSText> pos_sections = new ArrayList<POSText>();  // result will be stored to
-        StringBuffer current_pos_section = new StringBuffer();
+        CharSequence current_pos_section;
 
-        int start, end; // "<start> {{заголовок|...|add=I}} ...
+        int end;        // "<start> {{заголовок|...|add=I}} ...
                         //    <end> {{заголовок|...|add=II}}" position of POS block in the lt.text
+        int section_start = 0;  // current POS section is [section_start, end) in the lt.text
 
         if(lang_code_presented && !isValidLanguageCode(page_title, lt, m.group(1)))
             return NULL_POS_TEXT_ARRAY;
 
-        start = 0;
         b_next = m.find();
         if(b_next)
             end = m.start();
@@ -289,17 +288,17 @@ public class WPOSRu {
         }
 
         while(b_next) {
-            current_pos_section.append(lt.text.substring(start, end));
+            current_pos_section = TextSlice.of(lt.text, section_start, end);
 
             POSText pt = guessPOS (current_pos_section);
 
             if(null != pt.getPOSType()) { // OK. It's POS header, though it's possible that p=unknown :(
                 pos_sections.add(pt);
-                current_pos_section.setLength(0);                
+                section_start = end;
                 
             } else {
                 // null, if this is another 2nd level header, e.g. Bibliography or References
-                current_pos_section.append(""); // +??? this Bibliography text
+                // +??? this Bibliography text remains in the current section
                 // todo ...
             }
 
@@ -309,16 +308,14 @@ public class WPOSRu {
 
             b_next = m.find();
             if(b_next) {
-                start = end;
                 end = m.start();
             }
         }
 
-        current_pos_section.append(lt.text.substring(end)); // last POS section
+        current_pos_section = TextSlice.of(lt.text, section_start); // last POS section
 
         POSText pt = guessPOS (current_pos_section);
         if(null != pt.getPOSType()) { // OK. It's last POS header, though it's possible that p=unknown :(
-            current_pos_section.setLength(0);
             pos_sections.add(pt);
         }
 
@@ -361,7 +358,7 @@ public class WPOSRu {
      * |шаблон=Гл11b/c
      * {{Гл1a</PRE>
      */
-    public static POSText guessPOS (StringBuffer text)
+    public static POSText guessPOS (CharSequence text)
     {
         POS p_type = POS.unknown;
         
@@ -369,7 +366,7 @@ public class WPOSRu {
             return new POSText(p_type, "");
         }
         
-        Matcher m = ptrn_morpho_then_2letters.matcher(text.toString());
+        Matcher m = ptrn_morpho_then_2letters.matcher(text);
         boolean b = m.find();
         if(b) {
             String two_letters = m.group(1);
@@ -378,7 +375,7 @@ public class WPOSRu {
                 // if \1=="{{" then get first letters till space
                 // substring started after the symbol "{{"
                 //String pos_name = StringUtilRegular.getLettersTillSpace(text.substring(m.end())).toLowerCase();
-                String pos_name = StringUtilRegular.getLettersTillSpaceHyphenOrPipe(text.substring(m.end())).toLowerCase();
+                String pos_name = StringUtilRegular.getLettersTillSpaceHyphenOrPipe(TextSlice.of(text, m.end())).toLowerCase();
                 if(POSTemplateRu.has(pos_name)) {
                     p_type = checkIfSuchPOSExist(pos_name);
                 } /*else {
@@ -390,9 +387,9 @@ public class WPOSRu {
                 }*/
             } else {
                 // if first line after "===Морфологические и синтаксические свойства===" do not start from "{{" then search first "{{"
-                int double_braces_pos = text.indexOf("{{", m.end());
+                int double_braces_pos = TextSlice.indexOf(text, "{{", m.end());
                 if(-1 != double_braces_pos && double_braces_pos+5 < text.length()) {
-                    String pos_name = StringUtilRegular.getLettersTillSpaceHyphenOrPipe(text.substring(double_braces_pos+2)).toLowerCase();
+                    String pos_name = StringUtilRegular.getLettersTillSpaceHyphenOrPipe(TextSlice.of(text, double_braces_pos+2)).toLowerCase();
                     if(POSTemplateRu.has(pos_name)) {
                         p_type = checkIfSuchPOSExist(pos_name);
                     }
@@ -403,7 +400,7 @@ public class WPOSRu {
                 p_type = POS.phrase;
         }
         
-        return new POSText(p_type, new StringBuffer(text));
+        return new POSText(p_type, text);
     }
 
     /** Checks whether the text describes a phrase. It is true if the text 
@@ -417,9 +414,9 @@ public class WPOSRu {
      * @param text
      * @return
      */
-    private static boolean isPhrasePOS (StringBuffer text)
+    private static boolean isPhrasePOS (CharSequence text)
     {
-        return text.toString().contains("{{phrase");
+        return -1 != TextSlice.indexOf(text, "{{phrase", 0);
     }
     
     public static POS checkIfSuchPOSExist(String pos_name) {
@@ -469,7 +466,7 @@ public class WPOSRu {
      * @param page_title    word, name of the article, e.g. "lead"
      * @param pos_title     extracted 2nd level title, e.g. "lead I", "lead II", or "Adverb" (old style)
      */
-    public static POS guessPOSWith2ndLevelHeader (String page_title,String pos_title, StringBuffer text)
+    public static POS guessPOSWith2ndLevelHeader (String page_title,String pos_title, CharSequence text)
     {
         POSText pt = guessPOS (text);
         
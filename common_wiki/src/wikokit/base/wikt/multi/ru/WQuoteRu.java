@@ -13,9 +13,6 @@ import wikokit.base.wikt.word.WQuote;
 import wikokit.base.wikt.multi.ru.quote.*;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -48,7 +45,7 @@ public class WQuoteRu {
             }
         }
 
-        return text.substring(0, pos_quote).trim();
+        return StringUtil.substringTrim(text, 0, pos_quote);
     }
 
     /** Checks wheather the text has closing brackets without open brackets, 
@@ -61,7 +58,18 @@ public class WQuoteRu {
         if(-1 == pos)
             return false;
 
-        return -1 == text.substring(0, pos).indexOf("[[");
+        return -1 == text.lastIndexOf("[[", pos - 2);
+    }
+
+    /** Returns true if the text contains the template "{{name" in any case,
+     * as text.toLowerCase().contains("{{" + name) for the lower case name, but without the copy of the text.
+     */
+    private static boolean containsTemplateIgnoreCase(String text, String name) {
+        for(int pos = text.indexOf("{{"); -1 != pos; pos = text.indexOf("{{", pos + 1)) {
+            if(text.regionMatches(true, pos + 2, name, 0, name.length()))
+                return true;
+        }
+        return false;
     }
 
     /** Intellectual splitting of parameters of the template {{пример|}}.
@@ -77,18 +85,12 @@ public class WQuoteRu {
 
         String[] pipe_chunks = text.split("\\|");
 
-        List<String> source_list  = new LinkedList(Arrays.asList(pipe_chunks));
-        List<String> result_list  = new ArrayList();
+        List<String> result_list  = new ArrayList<String>(pipe_chunks.length);
 
         // merge adjacent chunks if chunk.prev.contains("[[") and chunk.next.has("]]")
 
-        Iterator it_source = source_list.iterator();
-        while(it_source.hasNext())
+        for(String value : pipe_chunks)
         {
-                                                // for (Iterator it = chunk_list.iterator(); it.hasNext();) {
-            //prev_value = next_value;
-            String value = (String)it_source.next();
-
             // if value looks like "|The title]]" (open "[[" is absent)
             // then it should be merged with previous chunk
             if(!isAbsentOpenDoubleSquareBrackets(value)) {
@@ -289,11 +291,11 @@ public class WQuoteRu {
      * {{пример|текст=|перевод=|автор=|титул=|издание=|перев=|дата=|источник=}} - with names
      *
      * @param page_title    word which is described in this article
-     * @param sb_line template without start "{{пример|" and "}}"
+     * @param str template without start "{{пример|" and "}}"
      *
      * @return filled WQuote, null if there are no text in the example sentence
      */
-    private static WQuote parseQuoteParameters(String page_title, StringBuilder sb) {
+    private static WQuote parseQuoteParameters(String page_title, String str) {
         
         String  text = "";
         String  translation = "";
@@ -305,15 +307,13 @@ public class WQuoteRu {
         TitleAndWikilink title_and_wikilink = new TitleAndWikilink();
         YearsRange years_range = new YearsRange();
 
-        String str = sb.toString();
-
         // 0a. before splitting by "|", replace {{выдел| by {{выдел!
         if(str.contains("{{выдел|"))
             str = str.replace("{{выдел|", "{{выдел!");
 
         // 0b. before splitting by "|"
         // expand parameters in the template "{{библия|", replace pipes "|" by dots "."
-        if(str.toLowerCase().contains("{{библия")) {
+        if(containsTemplateIgnoreCase(str, "библия")) {
             str = TemplateParser.expandTemplateParams(str, "библия2", "|", ".");
             str = TemplateParser.expandTemplateParams(str, "библия", "|", ".");
         }
@@ -416,27 +416,31 @@ for_label:
         if(-1 == pos_quote)   // there is no quote section!
             return NULL_WQUOTE_ARRAY;
 
-        StringBuilder sb = new StringBuilder(
-                text.substring(pos_quote + 9).trim() // 9 == "{{пример|".length()
-        );
+        // the text after the first "{{пример|" is text[start, end) without leading and trailing spaces,
+        // it is split by "{{пример|" into the quotations without copying
+        int start = pos_quote + 9;  // 9 == "{{пример|".length()
+        int end = text.length();
+        while(start < end && text.charAt(start) <= ' ')
+            start ++;
+        while(start < end && text.charAt(end - 1) <= ' ')
+            end --;
 
-        if(sb.length() < 3) // sb == "some text }}", length >=3
+        if(end - start < 3) // "some text }}", length >=3
             return NULL_WQUOTE_ARRAY;
 
-        String[] lines = sb.toString().split("\\{\\{пример\\|");
-        for(String line : lines) {
+        while(start < end) {
+            int next = text.indexOf("{{пример|", start);
+            if(-1 == next || next >= end)
+                next = end;
 
-            StringBuilder sb_line = new StringBuilder(line);
-
-            pos_quote = sb_line.lastIndexOf("}}");
-            if(-1 == pos_quote)   // there is no close brackets, skip
-                continue;
+            pos_quote = text.lastIndexOf("}}", next - 2);
+            int line_start = start;
+            start = next + 9;
 
-            if(pos_quote < 2) // too short, skip
+            if(pos_quote < line_start + 2) // there is no close brackets, or too short, skip
                 continue;
-            sb_line.setLength(pos_quote);
 
-            WQuote wq = parseQuoteParameters(page_title, sb_line);
+            WQuote wq = parseQuoteParameters(page_title, text.substring(line_start, pos_quote));
             if(null != wq) {
                 if(null == quote_list)
                     quote_list = new ArrayList<WQuote>();
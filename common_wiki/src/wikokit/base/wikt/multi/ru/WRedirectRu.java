@@ -29,7 +29,7 @@ public class WRedirectRu {
      * @return if this is not a redirect then return null
      */
     public static String getRedirect(String page_title,
-                                      StringBuffer text) {
+                                      CharSequence text) {
 
         // #REDIRECT [[pagename]] (or #redirect [[pagename]]
         // or #ПЕРЕНАПРАВЛЕНИЕ [[pagename]]
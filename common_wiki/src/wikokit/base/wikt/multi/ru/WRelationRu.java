@@ -86,7 +86,7 @@ public class WRelationRu {
         if(null == pt.getText()) {
             return NULL_MAP_RELATION_WRELATION_ARRAY;
         }
-        StringBuffer text_source_sb = pt.getText();
+        CharSequence text_source_sb = pt.getText();
         if(0 == text_source_sb.length()) {
             return NULL_MAP_RELATION_WRELATION_ARRAY;
         }
@@ -62,7 +62,7 @@ public class WTranslationRu {
         if(null == pt.getText()) {
             return NULL_WTRANSLATION_ARRAY;
         }
-        StringBuffer text_source_sb = pt.getText();
+        CharSequence text_source_sb = pt.getText();
         if(0 == text_source_sb.length()) {
             return NULL_WTRANSLATION_ARRAY;
         }
@@ -14,10 +14,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import wikokit.base.wikt.multi.en.name.LabelEn;
 
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
+import wikokit.base.wikipedia.text.ParseBudget;
+import wikokit.base.wikipedia.util.AhoCorasick;
+import wikokit.base.wikipedia.util.StringUtil;
 import wikokit.base.wikipedia.util.template.TemplateExtractor;
 import wikokit.base.wikt.constant.Label;
 import wikokit.base.wikt.constant.LabelLocal;
@@ -31,8 +35,10 @@ import wikokit.base.wikt.util.LabelsText;
  */
 public final class LabelRu extends LabelLocal  {
     
-    protected final static Map<String, Label> short_name2label = new HashMap<String, Label>();
-    protected final static Map<Label, String> label2short_name = new HashMap<Label, String>();
+    /** Labels found by the parser are added to these maps, while language 
+     * sections are parsed in parallel, so the maps are concurrent. */
+    protected final static ConcurrentHashMap<String, Label> short_name2label = new ConcurrentHashMap<String, Label>();
+    protected final static Map<Label, String> label2short_name = new ConcurrentHashMap<Label, String>();
     
     protected final static Map<String, Label> name2label = new HashMap<String, Label>();
     protected final static Map<Label, String> label2name = new HashMap<Label, String>();
@@ -46,6 +52,20 @@ public final class LabelRu extends LabelLocal  {
     private final static Label[] NULL_LABEL_ARRAY = new Label[0];
     private final static List<Label> NULL_LABEL_LIST = new ArrayList(0);
     
+    /** Matcher of context label templates "{{short name}}" and "{{short name|"
+     * and of the start of any template "{{" (the value is null). It is built 
+     * once by the labels known at the first use (i.e. the labels added by hand), 
+     * the labels added later (automatically) are searched in the map 
+     * short_name2label by the name of the template. */
+    private static volatile AhoCorasick<Label> label_template_matcher = null;
+    private final static Object label_template_matcher_lock = new Object();
+    
+    /** Start of any template, it is a key of label_template_matcher. */
+    private final static String TEMPLATE_START = "{{";
+    
+    /** Text between (or before) context labels, which consists of spaces and punctuation marks only. */
+    private final static Pattern ptrn_space_punct = Pattern.compile("[\\s\\pP]*");
+    
     
     /** Constructor for static context labels listed in this file below.
      */
@@ -130,6 +150,9 @@ public final class LabelRu extends LabelLocal  {
         
         checksPrefixSuffixSpace( page_title, short_name);
         
+        // the parser thread abandoned by the watchdog doesn't add labels
+        ParseBudget.checkpoint();
+        
         // check the uniqueness of the label short name
         Label label_prev_by_short_name = short_name2label.get(short_name);
         
@@ -138,14 +161,16 @@ public final class LabelRu extends LabelLocal  {
         //    System.out.println("Error"+ str_entry +"in LabelRu.initLabelAddedAutomatically(): duplication of label (short name)! short name='"+short_name+
         //            "'. Check the maps short_name2label.");
   
-        if(null == label_prev_by_short_name) {
-            short_name2label.put(short_name, label);
+        if(null == label_prev_by_short_name &&
+           null == short_name2label.putIfAbsent(short_name, label)) {
             label2short_name.put(label, short_name);
         }
     };
     
     /** Checks weather exists the Label (short name) by its name, checks synonyms also. */
     public static boolean hasShortName(String short_name) {
+        if(null == short_name)
+            return false;
         return short_name2label.containsKey(short_name) || 
          multiple_synonym2label.containsKey(short_name);
     }
@@ -155,7 +180,7 @@ public final class LabelRu extends LabelLocal  {
     {
         Label label;
 
-        if(null != (label = short_name2label.get(short_name)))
+        if(null != short_name && null != (label = short_name2label.get(short_name)))
             return  label;
 
         if(null != (label = multiple_synonym2label.get(short_name)))
@@ -164,6 +189,28 @@ public final class LabelRu extends LabelLocal  {
         throw new NullPointerException("Null LabelRu.getByShortName(), label short_name="+ short_name);
     }
     
+    /** Gets label by short name of the label (checks synonyms also), 
+     * or creates new context label (added automatically) if it is absent.
+     * 
+     * Language sections are parsed in parallel, so two threads can create 
+     * the same new label, then only the first one is stored to the map 
+     * short_name2label (putIfAbsent) and it is returned to both threads.
+     */
+    public static Label getOrCreateByShortName(String page_title, String short_name)
+    {
+        Label label = short_name2label.get(short_name);
+        if(null != label)
+            return label;
+        
+        label = multiple_synonym2label.get(short_name);
+        if(null != label)
+            return label;
+        
+        Label created = new LabelRu(page_title, short_name);
+        label = short_name2label.get(short_name);   // the winner of the race
+        return null != label ? label : created;
+    }
+    
     /** Adds synonymic context label for the main (source) label.
      * @param label source main unique label
      * @param synonymic_label synonym of label (short name)
@@ -196,7 +243,7 @@ public final class LabelRu extends LabelLocal  {
     
     /** Checks weather exists the translation for this Label. */
     public static boolean has(Label t) {
-        return label2short_name.containsKey(t);
+        return null != t && label2short_name.containsKey(t);
     }
     
     /** Gets short name of label in local language.
@@ -244,6 +291,35 @@ public final class LabelRu extends LabelLocal  {
     }
     
     
+    /** Gets matcher of the context label templates known at the first call:
+     * "{{short name}}" and "{{short name|" (short names of synonymic labels 
+     * are included also), and of the start of any template "{{".
+     */
+    private static AhoCorasick<Label> getLabelTemplateMatcher() {
+        AhoCorasick<Label> matcher = label_template_matcher;
+        if(null != matcher)
+            return matcher;
+        
+        synchronized(label_template_matcher_lock) {
+            matcher = label_template_matcher;
+            if(null != matcher)     // it was built by other thread
+                return matcher;
+            
+            matcher = new AhoCorasick<Label>();
+            matcher.add(TEMPLATE_START, null);
+            for(Map<String, Label> m : Arrays.asList(short_name2label, multiple_synonym2label)) {
+                for(Map.Entry<String, Label> e : m.entrySet()) {
+                    matcher.add("{{" + e.getKey() + "}}", e.getValue());
+                    matcher.add("{{" + e.getKey() + "|",  e.getValue());
+                }
+            }
+            matcher.build();
+            
+            label_template_matcher = matcher;
+        }
+        return matcher;
+    }
+    
     /** Temporary empty label {{помета?|XX}}, where XX - language code
      *  e.g. {{помета?|uk}} or {{помета?|sq}}.
      */
@@ -298,11 +374,8 @@ public final class LabelRu extends LabelLocal  {
         if(null == str || str.length() == 0)
             return null;
                 
-        if(LabelRu.hasShortName( str ))
-            return LabelRu.getByShortName( str );
-        
       //return new LabelEn(page_title, str, LabelCategory.unknown); // let's create new context label
-        return new LabelRu(page_title, str);                        // let's create new context label
+        return LabelRu.getOrCreateByShortName(page_title, str);     // known label or new context label
     }
     
     
@@ -328,38 +401,10 @@ public final class LabelRu extends LabelLocal  {
             return new LabelsText(NULL_LABEL_ARRAY, line); // there are no any templates
         
         String template_name = te.getName();
-        String text_from_label = "";
         if(LabelRu.hasShortName( template_name )) {
             
-            int number_of_params = te.countTemplateParameters();
-            String[] template_params = te.getTemplateParameters();
-            
             Label l = LabelRu.getByShortName(template_name);
-            if(Label.equals( l, LabelEn.context )) { // {{помета|}}
-                Label pometa_label = getPometaLabel(page_title, template_params );
-                if(null != pometa_label)
-                    labels.add( pometa_label );
-                
-            } else if (LabelParamsRu.isLabelWithParams(l, number_of_params)) { // 
-                
-                Label result_label = LabelParamsRu.getNewLabelByParams (l, template_params);
-                if(null != result_label)
-                    labels.add(result_label);
-                
-            } else if (FormOfRu.isDefinitionTransformingLabel(l, number_of_params)) {
-        
-                // 2. special templates, which require special treatment, they will be stripped right now
-                // {{=|
-                // {{as ru|
-                // {{аббр.|en|abbreviation|description}} -> context label "аббр." and text "[[description]]"
-                // {{сокр.|en|identification|[[идентификация]]}} or {{сокр.|en|identification}}; [[идентификация]]
-
-                text_from_label = FormOfRu.transformTemplateToText(l, template_params);
-                labels.add( l );
-            } else {
-                labels.add(l);
-            }
-            
+            String text_from_label = addContextLabel(page_title, l, te, labels);
             
             String text_before = TemplateExtractor.extractTextBeforeTemplate(line, te);
             if (text_before.length() < 10 ||       // or very short text, e.g. {{label1}} ``and`` {{label2}}
@@ -383,6 +428,47 @@ public final class LabelRu extends LabelLocal  {
         return result;
     }
     
+    /** Adds the context label of the template to the list of labels: 
+     * the label itself or the label given by parameters of the template.
+     *
+     * @param l             label with the short name te.getName()
+     * @return text which replaces the template in the definition, 
+     *         e.g. "[[description]]" for {{аббр.|en|abbreviation|description}}, 
+     *         or empty string
+     */
+    private static String addContextLabel(String page_title, Label l, TemplateExtractor te, List<Label> labels)
+    {
+        String text_from_label = "";
+        int number_of_params = te.countTemplateParameters();
+        String[] template_params = te.getTemplateParameters();
+        
+        if(Label.equals( l, LabelEn.context )) { // {{помета|}}
+            Label pometa_label = getPometaLabel(page_title, template_params );
+            if(null != pometa_label)
+                labels.add( pometa_label );
+            
+        } else if (LabelParamsRu.isLabelWithParams(l, number_of_params)) { // 
+            
+            Label result_label = LabelParamsRu.getNewLabelByParams (l, template_params);
+            if(null != result_label)
+                labels.add(result_label);
+            
+        } else if (FormOfRu.isDefinitionTransformingLabel(l, number_of_params)) {
+    
+            // 2. special templates, which require special treatment, they will be stripped right now
+            // {{=|
+            // {{as ru|
+            // {{аббр.|en|abbreviation|description}} -> context label "аббр." and text "[[description]]"
+            // {{сокр.|en|identification|[[идентификация]]}} or {{сокр.|en|identification}}; [[идентификация]]
+
+            text_from_label = FormOfRu.transformTemplateToText(l, template_params);
+            labels.add( l );
+        } else {
+            labels.add(l);
+        }
+        return text_from_label;
+    }
+    
     /** Extracts labels from the beginning of the text string, remove these labels from the text line,
      * store the result to the object LabelText.
      *
@@ -399,9 +485,86 @@ public final class LabelRu extends LabelLocal  {
         if(!line.contains("{{"))    // every context label should be a template "{{"
             return new LabelsText(NULL_LABEL_ARRAY, line);
         
+        // one scan finds the starts of templates and the templates of known labels,
+        // labels are extracted template by template till the first template which is not a label
+        AhoCorasick<Label>.Scanner scanner = getLabelTemplateMatcher().scan(line);
         List<Label> labels = new ArrayList<Label>();
         
-        LabelsText lt = extractFirstContextLabel(page_title, line);
+        StringBuilder text = null;  // the line before pos without the extracted labels
+        int pos = 0;
+        String rest = null;
+        AhoCorasick.Match<Label> m = scanner.next();
+        while(null != m) {
+            if(null != m.getValue() || m.getStart() < pos) {
+                m = scanner.next();
+                continue;       // not a start of the next template
+            }
+            
+            TemplateExtractor te = TemplateExtractor.getTemplateAt(line, m.getStart());
+            if(null == te)
+                break;
+            
+            // the template of known label "{{name}}" or "{{name|" ends before name_end,
+            // parameters of the template are skipped
+            String name = te.getName();
+            int name_end = te.getStartPos() + name.length() + 4;
+            Label l = null;
+            while(null != (m = scanner.next()) && m.getEnd() <= name_end) {
+                if(null == l && null != m.getValue() && m.getStart() == te.getStartPos() &&
+                   isTemplateKey(m.getKey(), name))
+                    l = m.getValue();
+            }
+            if(null != m && m.getStart() <= te.getEndPos()) {
+                scanner.skipTo(te.getEndPos() + 1);
+                m = scanner.next();
+            }
+            if(null == l && LabelRu.hasShortName(name))     // the label added after the matcher was built
+                l = LabelRu.getByShortName(name);
+            if(null == l)
+                break;          // this template is not context label
+            
+            if(pos < te.getStartPos()) {    // text before the template
+                if(null == text)
+                    text = new StringBuilder(line.length());
+                text.append(line, pos, te.getStartPos());
+            }
+            int n_labels = labels.size();
+            String text_from_label = addContextLabel(page_title, l, te, labels);
+            
+            if(null != text) {
+                if (text.length() < 10 ||       // or very short text, e.g. {{label1}} ``and`` {{label2}}
+                    ptrn_space_punct.matcher(text).matches()) // between (or before) context labels only space and punctuation marks could be
+                    text.setLength(0);
+                else                            // "# some definition and {{the label at the end of definition}}"
+                    trimStart(text);
+            }
+            if(text_from_label.length() > 0) {
+                if(null == text)
+                    text = new StringBuilder(line.length());
+                text.append(text_from_label);
+            }
+            pos = te.getEndPos() + 1;
+            
+            if(n_labels == labels.size())
+                break;          // e.g. {{помета|nocolor=1}}: the template is removed, but the label is absent
+            
+            if(-1 != text_from_label.indexOf('{')) {
+                // the text taken from the label can start a template, 
+                // so the rest of the line is parsed template by template
+                rest = text.append(line, pos, line.length()).toString();
+                break;
+            }
+        }
+        if(null == rest) {
+            if(0 == pos)        // there are no labels, the line is not changed
+                return new LabelsText(labels, line.trim());
+            if(null == text || 0 == text.length())
+                return new LabelsText(labels, StringUtil.substringTrim(line, pos, line.length()));
+            text.append(line, pos, line.length());
+            return new LabelsText(labels, StringUtil.substringTrim(text, 0, text.length()));
+        }
+        
+        LabelsText lt = extractFirstContextLabel(page_title, rest);
         while(lt != null && lt.getLabels().length > 0) {
             
             labels.addAll(Arrays.asList(lt.getLabels()));
@@ -415,6 +578,22 @@ public final class LabelRu extends LabelLocal  {
         return new LabelsText(labels, result_line);
     }
     
+    /** Returns true if the key of label_template_matcher is "{{name}}" or "{{name|". */
+    private static boolean isTemplateKey(String key, String name) {
+        int n = name.length();
+        return key.startsWith(name, 2) &&
+               (key.length() == n + 3 && '|' == key.charAt(n + 2) ||
+                key.length() == n + 4 && '}' == key.charAt(n + 2));
+    }
+    
+    /** Removes leading spaces as String.trim() does. */
+    private static void trimStart(StringBuilder sb) {
+        int i = 0;
+        while(i < sb.length() && sb.charAt(i) <= ' ')
+            i ++;
+        sb.delete(0, i);
+    }
+    
     /** Parses text with use of some pattern, creates list of labels,
      * e.g. text is "устар., высок." or "{{груб.|-}}".
      * This function should be used to split list of labels taken from wikified list of synonyms.
@@ -436,12 +615,8 @@ public final class LabelRu extends LabelLocal  {
             if (result_labels.length>0) {
                 _labels.add(result_labels[0]);
             } else {
-                if(LabelRu.hasShortName( l )) {
-                    _labels.add(LabelRu.getByShortName( l ));
-                } else {
-                    // if this is an unusual label, then add it to the table of labels
-                    _labels.add( new LabelRu( page_title, l ) );    // let's create new context label
-                }
+                // if this is an unusual label, then add it to the table of labels
+                _labels.add( LabelRu.getOrCreateByShortName( page_title, l ) );
             }
         }
         
@@ -6,6 +6,8 @@
 
 package wikokit.base.wikt.util;
 
+import wikokit.base.wikipedia.util.StringUtil;
+
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
@@ -37,7 +39,7 @@ public class Definition {
             return text;
         }
 
-        return text.substring(m.end()).trim();
+        return StringUtil.substringTrim(text, m.end(), text.length());
     }
     
     /* Gets first line from the text. */
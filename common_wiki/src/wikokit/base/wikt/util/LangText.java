@@ -7,6 +7,7 @@
 package wikokit.base.wikt.util;
 
 import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.text.TextSlice;
 
 /** Data structure consists of a language code and the corresponding text.
  */
@@ -15,16 +16,32 @@ public class LangText {
     /** Language of the text, e.g. the article about one word can contain "en" block for English word, "de", "fr", etc. */
     private LanguageType lang;
     
-    /** Text */
-    public StringBuffer text;
+    /** Text, it is the view of the article text (TextSlice) usually. */
+    public CharSequence text;
     
     public LangText() {}
     
     public LangText(LanguageType _lang) { //, StringBuffer _text) {
         lang = _lang;
-        text = new StringBuffer();
+        text = "";
         //text = _text;
     }
+    
+    /** Appends the range [start, end) of the source text. The first range
+     * is stored as the view of the source without copying, the next ranges
+     * (e.g. the text before the first language header) are concatenated.
+     */
+    public void append(CharSequence source, int start, int end) {
+        if(start == end)
+            return;
+        
+        if(null == text || 0 == text.length()) {
+            text = TextSlice.of(source, start, end);
+        } else {
+            text = new StringBuilder(text.length() + end - start).
+                        append(text).append(source, start, end).toString();
+        }
+    }
 
     /** Gets language of the text, e.g. "en" for English word, "de", "fr", etc. */
     public LanguageType getLanguage() {
@@ -18,8 +18,8 @@ public class POSText {
     /** POS name found in text, e.g. explicitly: "Verb", or implicitly "stitch I". */
     //private String pos_name;
     
-    /** Text */
-    private StringBuffer text;
+    /** Text, it is the view of the article text (TextSlice) usually. */
+    private CharSequence text;
     
     public POSText() {}
     
@@ -30,12 +30,7 @@ public class POSText {
     }*/
     
     //public POSText(POSType _pos, StringBuffer _text) {
-    public POSText(POS _pos, String _text) {
-        pos = _pos;
-        text = new StringBuffer(_text);
-    }
-
-    public POSText(POS _pos, StringBuffer _text) {
+    public POSText(POS _pos, CharSequence _text) {
         pos = _pos;
         text = _text;
     }
@@ -44,7 +39,7 @@ public class POSText {
         return pos;
     }
 
-    public StringBuffer getText() {
+    public CharSequence getText() {
         return text;
     }
 
@@ -81,10 +81,8 @@ public class WikiText {
         if(0 == _wikified_text.length()) {
             return null;
         }
-        StringBuffer sb = new StringBuffer(_wikified_text);
-        
-        String      s = WikiWord.parseDoubleBrackets(page_title, sb).toString();
-        WikiWord[] ww = WikiWord.getWikiWords(page_title, sb);
+        String      s = WikiWord.parseDoubleBrackets(page_title, _wikified_text).toString();
+        WikiWord[] ww = WikiWord.getWikiWords(page_title, _wikified_text);
         
         if(s.length() == _wikified_text.length())
             _wikified_text = null; // wikified text is NULL if "text" hasn't any wikification
@@ -92,21 +92,39 @@ public class WikiWord {
      *
      * See also WikiParser.parseDoubleBrackets.
      */
-    public static StringBuffer parseDoubleBrackets (
+    public static CharSequence parseDoubleBrackets (
             String page_title,
-            StringBuffer text) //,
+            CharSequence text) //,
             //LanguageType lang)
     {
         if(null == text || 0 == text.length()) {
-            return NULL_STRINGBUFFER;
+            return "";
         }
 
-        Matcher m = ptrn_double_brackets.matcher(text.toString()); // [[(.+?)]]
+        Matcher m = ptrn_double_brackets.matcher(text); // [[(.+?)]]
                 //StringUtil.escapeCharDollarAndBackslash(text.toString())); // [[(.+?)]]
+        boolean result = m.find();
+        if(!result)
+            return text;
+
+        StringBuilder sb = new StringBuilder(text.length());
+        if(!hasDollarOrBackslash(text)) {
+            // the replacement is the visible text itself, it is appended without
+            // the escaped copy of the link which is needed by appendReplacement()
+            int pos = 0;
+            while(result) {
+                int start = m.start(1), end = m.end(1);
+                int pipe = indexOf(text, '|', start, end);
+                sb.append(text, pos, m.start());
+                sb.append(text, -1 == pipe ? start : pipe + 1, end);
+                pos = m.end();
+                result = m.find();
+            }
+            sb.append(text, pos, text.length());
+            return sb.toString();
+        }
 
         String after;   // before, 
-        StringBuffer sb = new StringBuffer();
-        boolean result = m.find();
         while(result) {
             // g: text within [[brackets]]
             String g = StringUtil.escapeCharDollarAndBackslash(m.group(1)).toString();
@@ -122,7 +140,19 @@ public class WikiWord {
             result = m.find();  // m.appendReplacement(sb, "$1");
         }
         m.appendTail(sb);
-        return sb;
+        return sb.toString();
+    }
+    
+    /** @deprecated Use {@link #parseDoubleBrackets(String, CharSequence)} */
+    @Deprecated
+    public static StringBuffer parseDoubleBrackets (
+            String page_title,
+            StringBuffer text)
+    {
+        if(null == text || 0 == text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        return new StringBuffer(parseDoubleBrackets(page_title, text.toString()));
     }
     
     /** Extract wiki links (word_link and word_visible) from wiki texts.
@@ -141,7 +171,7 @@ public class WikiWord {
      */
     public static WikiWord[] getWikiWords (
             String page_title,
-            StringBuffer text)
+            CharSequence text)
     {
         if(null == text || 0 == text.length()) {
             return NULL_WIKIWORD_ARRAY;
@@ -150,29 +180,72 @@ public class WikiWord {
         List<WikiWord> ww_list = new ArrayList<WikiWord>();
 
         WikiWord w;
-        Matcher m = ptrn_double_brackets.matcher(text.toString()); // [[(.+?)]]
+        String s = text.toString();
+        Matcher m = ptrn_double_brackets.matcher(s); // [[(.+?)]]
                 //StringUtil.escapeCharDollarAndBackslash(text.toString())); // [[(.+?)]]
 
         String before, after;
         boolean result = m.find();
         while(result) {
-            // g: text within [[brackets]]
-            String g = StringUtil.escapeCharDollarAndBackslash(m.group(1)).toString();
-            if(-1 != g.indexOf('|')) {
-                before = StringUtil.getTextBeforeFirstVerticalPipe(g);
-                after  = StringUtil.getTextAfterFirstVerticalPipe(g);
-                //System.out.println("sb="+sb+ "; after="+after);
-                w = new WikiWord(before, after, null);
+            int start = m.start(1), end = m.end(1);
+            int pipe = indexOf(s, '|', start, end);
+            if(-1 != pipe && !hasDollarOrBackslash(s, start, end)) {
+                // [[before|after]] is split without the copy of the text within brackets
+                w = new WikiWord(s.substring(start, pipe), s.substring(pipe + 1, end), null);
             } else {
-                // get text till space or punctuation mark or [ ???????????????????
-                String suffix = StringUtil.getTextTillSpaceOrPuctuationMark(m.end(), text.toString());
-                w = new WikiWord(g, g.concat(suffix), null);
+                // g: text within [[brackets]]
+                String g = escapeCharDollarAndBackslash(m.group(1));
+                if(-1 != g.indexOf('|')) {
+                    before = StringUtil.getTextBeforeFirstVerticalPipe(g);
+                    after  = StringUtil.getTextAfterFirstVerticalPipe(g);
+                    //System.out.println("sb="+sb+ "; after="+after);
+                    w = new WikiWord(before, after, null);
+                } else {
+                    // get text till space or punctuation mark or [ ???????????????????
+                    String suffix = StringUtil.getTextTillSpaceOrPuctuationMark(m.end(), s);
+                    w = new WikiWord(g, g.concat(suffix), null);
+                }
             }
             result = m.find();
             ww_list.add(w);   
         }
         return( (WikiWord[])ww_list.toArray(NULL_WIKIWORD_ARRAY) );
     }
+    
+    /** Returns true if there is a dollar sign or a backslash in the text, i.e. 
+     * StringUtil.escapeCharDollarAndBackslash() changes it.
+     */
+    private static boolean hasDollarOrBackslash(CharSequence text) {
+        return hasDollarOrBackslash(text, 0, text.length());
+    }
+    
+    /** Returns true if there is a dollar sign or a backslash in text[from, to). */
+    private static boolean hasDollarOrBackslash(CharSequence text, int from, int to) {
+        for(int i=from; i<to; i++) {
+            char c = text.charAt(i);
+            if('$' == c || '\\' == c)
+                return true;
+        }
+        return false;
+    }
+    
+    /** Gets StringUtil.escapeCharDollarAndBackslash(s) as a String,
+     * it is the string s itself if there is nothing to escape.
+     */
+    private static String escapeCharDollarAndBackslash(String s) {
+        if(!hasDollarOrBackslash(s))
+            return s;
+        return StringUtil.escapeCharDollarAndBackslash(s).toString();
+    }
+    
+    /** Gets the index of the character ch in text[from, to), or -1. */
+    private static int indexOf(CharSequence text, char ch, int from, int to) {
+        for(int i=from; i<to; i++) {
+            if(ch == text.charAt(i))
+                return i;
+        }
+        return -1;
+    }
 
 
 }
@@ -10,10 +10,17 @@ package wikokit.base.wikt.word;
 import wikokit.base.wikt.util.LangText;
 //import wikt.util.POSText;
 import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.text.ParseBudget;
 
 import wikokit.base.wikt.multi.ru.WLanguageRu;
 import wikokit.base.wikt.multi.en.WLanguageEn;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
 /** Language lets you know the language of the word in question. It is almost 
  * always in a level two heading. E.g. ==English== or {{-ru-}}
  *
@@ -42,6 +49,18 @@ public class WLanguage {
 
     private final static WLanguage[] NULL_WLANGUAGE_ARRAY = new WLanguage[0];
 
+    /** Entries with at least this number of language sections 
+     * (e.g. "a", "an", "on") are parsed in parallel. */
+    private final static int PARALLEL_MIN_SECTIONS = 16;
+
+    /** Entries with at least this number of characters (and at least two
+     * language sections) are parsed in parallel. */
+    private final static int PARALLEL_MIN_LENGTH = 128 * 1024;
+
+    /** Daemon threads which parse language sections of long entries,
+     * it is created by the first long entry. */
+    private static ExecutorService sections_pool;
+
     /** Frees memory recursively. */
     public void free ()
     {
@@ -61,7 +80,7 @@ public class WLanguage {
     public static WLanguage[] parse (
                     LanguageType wikt_lang,
                     String page_title,
-                    StringBuffer text)
+                    CharSequence text)
     {
         // = Level I. Language =
         LangText[] lang_sections = splitToLanguageSections(wikt_lang, page_title, text);
@@ -70,16 +89,137 @@ public class WLanguage {
             return NULL_WLANGUAGE_ARRAY;
         }
         
-        WLanguage[] wl = new WLanguage[lang_sections.length];
-        for(int i=0; i<lang_sections.length; i++) {
-            wl[i] = new WLanguage();
-            wl[i].lang = lang_sections[i].getLanguage();
-            wl[i].wpos = WPOS.parse(wikt_lang, page_title, lang_sections[i]);
-        }
+        boolean parallel = lang_sections.length >= PARALLEL_MIN_SECTIONS ||
+                           lang_sections.length > 1 && text.length() >= PARALLEL_MIN_LENGTH;
+        
+        WLanguage[] wl = parseLanguageSections(wikt_lang, page_title, lang_sections, parallel);
         
         return reduceNonUniqueLanguages (page_title, wl);
     }
 
+    /** Parses language sections one by one or in parallel (in the pool of
+     * daemon threads, one task per section, the first section is parsed by the
+     * calling thread). The language sections are independent, the result of
+     * each section is stored to its own element of the array, so the order
+     * of languages is the same in both cases. With one processor the sections
+     * are parsed one by one anyway.
+     *
+     * @param parallel  true to parse the sections in parallel
+     */
+    static WLanguage[] parseLanguageSections (
+                    LanguageType wikt_lang,
+                    String page_title,
+                    LangText[] lang_sections,
+                    boolean parallel)
+    {
+        WLanguage[] wl = new WLanguage[lang_sections.length];
+        ExecutorService pool = parallel && lang_sections.length > 1 ? getSectionsPool() : null;
+        if(null == pool) {
+            for(int i=0; i<lang_sections.length; i++)
+                wl[i] = parseLanguageSection(wikt_lang, page_title, lang_sections[i]);
+            return wl;
+        }
+
+        ParseBudget budget = ParseBudget.current();
+        Future<?>[] futures = new Future<?>[lang_sections.length];
+        boolean done = false;
+        try {
+            for(int i=1; i<lang_sections.length; i++)
+                futures[i] = pool.submit(new ParseSectionTask(wikt_lang, page_title,
+                                                              lang_sections, wl, i, budget));
+            wl[0] = parseLanguageSection(wikt_lang, page_title, lang_sections[0]);
+
+            for(int i=1; i<lang_sections.length; i++)
+                futures[i].get();
+            done = true;
+        } catch(ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            if(cause instanceof Error)
+                throw (Error)cause;
+            throw new RuntimeException(cause);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ParseBudget.checkpoint();   // the watchdog cancels the budget and interrupts the thread
+            throw new RuntimeException("WLanguage.parseLanguageSections(): interrupted, page_title=" + page_title, e);
+        } finally {
+            if(!done) {
+                for(Future<?> f : futures) {
+                    if(null != f)
+                        f.cancel(false);
+                }
+            }
+        }
+        return wl;
+    }
+
+    /** Gets the pool of threads parsing language sections,
+     * null if there is only one processor. */
+    private static synchronized ExecutorService getSectionsPool() {
+        if(null == sections_pool) {
+            int n_threads = Runtime.getRuntime().availableProcessors();
+            if(n_threads < 2)
+                return null;
+            sections_pool = Executors.newFixedThreadPool(n_threads, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "WLanguage sections");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return sections_pool;
+    }
+
+    private static WLanguage parseLanguageSection (
+                    LanguageType wikt_lang,
+                    String page_title,
+                    LangText lang_section)
+    {
+        ParseBudget.checkpoint();   // long entries: stop between sections
+
+        WLanguage w = new WLanguage();
+        w.lang = lang_section.getLanguage();
+        w.wpos = WPOS.parse(wikt_lang, page_title, lang_section);
+        return w;
+    }
+
+    /** Parses one language section in the pool thread. The budget of the
+     * parsing thread (if any) is attached to the pool thread, so it stops
+     * when the budget is spent.
+     */
+    private static class ParseSectionTask implements Runnable {
+        private final LanguageType wikt_lang;
+        private final String page_title;
+        private final LangText[] lang_sections;
+        private final WLanguage[] wl;
+        private final int i;
+        private final ParseBudget budget;
+
+        ParseSectionTask(LanguageType wikt_lang, String page_title,
+                         LangText[] lang_sections, WLanguage[] wl,
+                         int i, ParseBudget budget) {
+            this.wikt_lang = wikt_lang;
+            this.page_title = page_title;
+            this.lang_sections = lang_sections;
+            this.wl = wl;
+            this.i = i;
+            this.budget = budget;
+        }
+
+        @Override
+        public void run() {
+            ParseBudget prev = null != budget ? budget.attach() : null;
+            try {
+                wl[i] = parseLanguageSection(wikt_lang, page_title, lang_sections[i]);
+            } finally {
+                if(null != budget)
+                    ParseBudget.detach(prev);
+            }
+        }
+    }
+
     /** Reduces number of languages, removes any non unique languages.
      * E.g. "kom" and "koi" refer to "kv" language code, see LanguageType.java
      * So if the entry contains the description of two words: "kom" and "koi",
@@ -131,7 +271,7 @@ public class WLanguage {
     public static LangText[] splitToLanguageSections (
                     LanguageType wikt_lang,
                     String page_title,
-                    StringBuffer text)
+                    CharSequence text)
     {
         LangText[] lang_sections; // result will be stored to
         
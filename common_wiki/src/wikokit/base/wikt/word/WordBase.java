@@ -48,17 +48,20 @@ public class WordBase {
     /** Parses the article text.
      * Creates and stores parsed data to the word (WordBase)
      * for the given Wiktionary (defined by wikt_lang language).
+     *
+     * The text is copied to String once, the language and POS sections
+     * are views (TextSlice) of this String.
      */
     public WordBase(
             String _page_title,
             LanguageType wikt_lang, // constant for the Wiktionary dump
-            StringBuffer text) {
+            CharSequence text) {
         
         page_title = _page_title;
 
         // remove <!-- comments --> and <ref> ... </ref>
-        StringBuffer s = WikiParser.removeHTMLComments(
-                            ReferenceParser.removeReferences (text));
+        CharSequence s = WikiParser.removeHTMLComments(
+                            ReferenceParser.removeReferences (text.toString()));
 
         redirect_target = WRedirect.getRedirect(wikt_lang, page_title, s);
 
@@ -69,6 +72,15 @@ public class WordBase {
         template_not_def = WLanguage.hasOnlyTemplatesWithoutDefinitions(wikt_lang, lang);
     }
     
+    /** @deprecated Use {@link #WordBase(String, LanguageType, CharSequence)} */
+    @Deprecated
+    public WordBase(
+            String _page_title,
+            LanguageType wikt_lang,
+            StringBuffer text) {
+        this(_page_title, wikt_lang, (CharSequence)text);
+    }
+    
     /** Gets an article title in Wiktionary. */
     public String getPageTitle() {
         return page_title;
@@ -0,0 +1,186 @@
+package wikokit.base.wikipedia.text;
+
+import wikokit.base.wikipedia.language.LanguageType;
+
+import junit.framework.TestCase;
+
+/** Benchmark of the regular expressions of the wiki parser on adversarial
+ * (malformed) texts: unclosed brackets, comments, references and so on.
+ * Without a budget some of them backtrack quadratically (tens of seconds
+ * for 100 KB), with the budget each parser should stop in bounded time.
+ */
+public class ParseBudgetTest extends TestCase {
+
+    /** Budget of one parser call. */
+    private static final long BUDGET_MILLIS = 200;
+
+    /** Maximum time of one parser call (budget + time between checks). */
+    private static final long BOUND_MILLIS = 2000;
+
+    /** Size of adversarial texts, it takes seconds without the budget. */
+    private static final int N = 100000;
+
+    public ParseBudgetTest(String testName) {
+        super(testName);
+    }
+
+    private static StringBuffer repeat(String s, int len) {
+        StringBuffer sb = new StringBuffer(len + s.length());
+        while(sb.length() < len)
+            sb.append(s);
+        return sb;
+    }
+
+    /** Parser call to be benchmarked. */
+    private interface Call {
+        StringBuffer run(StringBuffer text);
+    }
+
+    /** Runs the parser with the budget, checks that it finishes (or aborts)
+     * in bounded time.
+     *
+     * @return true if the parser was aborted
+     */
+    private static boolean bench(String name, StringBuffer text, Call call) {
+        ParseBudget budget = new ParseBudget(BUDGET_MILLIS);
+        boolean aborted = false;
+        long t_start = System.currentTimeMillis();
+        budget.enter();
+        try {
+            call.run(text);
+        } catch(ParseBudget.ExceededException e) {
+            aborted = true;
+            assertEquals(ParseBudget.Reason.TIME, e.getReason());
+        } finally {
+            budget.exit();
+        }
+        long t = System.currentTimeMillis() - t_start;
+        assertTrue(name + " took " + t + " ms", t < BOUND_MILLIS);
+        return aborted;
+    }
+
+    public void testAdversarialInputs() {
+        System.out.println("adversarialInputs");
+
+        bench("removeHTMLComments <!--", repeat("<!--", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.removeHTMLComments(s); }});
+        bench("removeXMLTagCode <code>", repeat("<code>", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.removeXMLTagCode(s); }});
+        bench("removePreCode <pre>", repeat("<pre>", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.removePreCode(s); }});
+        bench("removeSourceCode <source", repeat("<source", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.removeSourceCode(s); }});
+        bench("removeInterwiki [[en:", repeat("[[en:", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.removeInterwiki(s); }});
+        bench("removeBracketsInInterwiki [[en:", repeat("[[en:", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.removeBracketsInInterwiki(s); }});
+        bench("removeCategory [[Category:", repeat("[[Category:", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.removeCategory(s, LanguageType.en); }});
+        bench("parseSingleBrackets [", repeat("[", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.parseSingleBrackets(s); }});
+        bench("parseSingleBrackets site name", new StringBuffer("[http ").append(repeat("a.", N)).append(".]"), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.parseSingleBrackets(s); }});
+        bench("parseDoubleBrackets [[", repeat("[[", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.parseDoubleBrackets(s, LanguageType.en, true); }});
+        bench("parseCurlyBrackets {{", repeat("{{a}", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.parseCurlyBrackets(s); }});
+        bench("parseDoubleApostrophe ''", new StringBuffer("''").append(repeat("a'", N)), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.parseDoubleApostrophe(s); }});
+        bench("parseTripleApostrophe '''", new StringBuffer("'''").append(repeat("a''", N)), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.parseTripleApostrophe(s); }});
+        bench("removeAcuteAccent", repeat("а́", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.removeAcuteAccent(s, LanguageType.ru); }});
+        bench("removeReferences <ref>", repeat("<ref>", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return ReferenceParser.removeReferences(s); }});
+        bench("expandMoveToEndOfText <ref>http://", repeat("<ref>http://a", N).append("</ref>"), new Call() {
+            public StringBuffer run(StringBuffer s) { return ReferenceParser.expandMoveToEndOfText(s); }});
+        bench("removeWikiTables {|", repeat("{|", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return TableParser.removeWikiTables(s); }});
+        bench("parseImageDescription [[Image:", repeat("[[Image:a|", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return ImageParser.parseImageDescription(s, LanguageType.ru); }});
+
+        // the known quadratic expression is really aborted
+        assertTrue(bench("parseDoubleBrackets [[ (must abort)", repeat("[[", N), new Call() {
+            public StringBuffer run(StringBuffer s) { return WikiParser.parseDoubleBrackets(s, LanguageType.en, true); }}));
+    }
+
+    /** The guarded text gives the same result as the usual one. */
+    public void testSameResultWithBudget() {
+        System.out.println("sameResultWithBudget");
+        String s = "a [[et:Talvepalee]] b [[run|running]] c {{t}} ''it'' <!-- x --> [http://site.com name]";
+
+        String expResult = WikiParser.parseSingleBrackets(WikiParser.removeHTMLComments(
+                           WikiParser.parseDoubleApostrophe(WikiParser.parseCurlyBrackets(
+                           WikiParser.parseDoubleBrackets(new StringBuffer(s), LanguageType.en, true))))).toString();
+
+        ParseBudget budget = new ParseBudget(10000);
+        budget.enter();
+        try {
+            assertNotSame(s, ParseBudget.guard(s));
+            String result = WikiParser.parseSingleBrackets(WikiParser.removeHTMLComments(
+                            WikiParser.parseDoubleApostrophe(WikiParser.parseCurlyBrackets(
+                            WikiParser.parseDoubleBrackets(new StringBuffer(s), LanguageType.en, true))))).toString();
+            assertEquals(expResult, result);
+        } finally {
+            budget.exit();
+        }
+        assertSame(s, ParseBudget.guard(s));
+        assertEquals("a  b running c  it   name", expResult);
+    }
+
+    public void testCancel() {
+        System.out.println("cancel");
+        ParseBudget budget = new ParseBudget(0);
+        budget.enter();
+        try {
+            budget.check();
+            ParseBudget.checkpoint();
+
+            budget.cancel();
+            try {
+                ParseBudget.checkpoint();
+                fail("ExceededException expected");
+            } catch(ParseBudget.ExceededException e) {
+                assertEquals(ParseBudget.Reason.CANCELLED, e.getReason());
+            }
+        } finally {
+            budget.exit();
+        }
+        ParseBudget.checkpoint();   // no budget - nothing to check
+    }
+
+    public void testAttach() throws InterruptedException {
+        System.out.println("attach");
+        final ParseBudget budget = new ParseBudget(0);
+        budget.enter();
+        try {
+            assertSame(budget, ParseBudget.current());
+
+            // the helper thread checks the budget of the parsing thread
+            final ParseBudget.Reason[] reason = new ParseBudget.Reason[1];
+            final ParseBudget[] after_detach = { budget };
+            Thread helper = new Thread() {
+                @Override
+                public void run() {
+                    ParseBudget prev = budget.attach();
+                    try {
+                        ParseBudget.checkpoint();
+                    } catch(ParseBudget.ExceededException e) {
+                        reason[0] = e.getReason();
+                    } finally {
+                        ParseBudget.detach(prev);
+                    }
+                    after_detach[0] = ParseBudget.current();
+                }
+            };
+            budget.cancel();
+            helper.start();
+            helper.join();
+            assertEquals(ParseBudget.Reason.CANCELLED, reason[0]);
+            assertNull(after_detach[0]);
+        } finally {
+            budget.exit();
+        }
+        assertNull(ParseBudget.current());
+    }
+}
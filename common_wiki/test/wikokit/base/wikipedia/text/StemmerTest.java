@@ -0,0 +1,63 @@
+package wikokit.base.wikipedia.text;
+
+import wikokit.base.wikipedia.language.LanguageType;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StemmerTest {
+
+    public StemmerTest() {
+    }
+
+    @Test
+    public void testStemRussian() {
+        System.out.println("stemRussian");
+
+        assertEquals("вод", Stemmer.stemRussian("вода"));
+        assertEquals("вод", Stemmer.stemRussian("воды"));
+        assertEquals("вод", Stemmer.stemRussian("водой"));
+
+        assertEquals("важн", Stemmer.stemRussian("важнейшими"));
+        assertEquals("важн", Stemmer.stemRussian("важной"));
+        assertEquals("ваш",  Stemmer.stemRussian("вашего"));
+
+        assertEquals("красив", Stemmer.stemRussian("красивая"));
+        assertEquals("красив", Stemmer.stemRussian("красивые"));
+
+        // words without vowels are not changed
+        assertEquals("вк", Stemmer.stemRussian("вк"));
+    }
+
+    @Test
+    public void testStemEnglish() {
+        System.out.println("stemEnglish");
+
+        assertEquals("caress", Stemmer.stemEnglish("caresses"));
+        assertEquals("poni",   Stemmer.stemEnglish("ponies"));
+        assertEquals("cat",    Stemmer.stemEnglish("cats"));
+
+        assertEquals("connect", Stemmer.stemEnglish("connect"));
+        assertEquals("connect", Stemmer.stemEnglish("connected"));
+        assertEquals("connect", Stemmer.stemEnglish("connecting"));
+        assertEquals("connect", Stemmer.stemEnglish("connection"));
+
+        assertEquals("hop",    Stemmer.stemEnglish("hopping"));
+        assertEquals("hope",   Stemmer.stemEnglish("hoped"));
+        assertEquals("relat",  Stemmer.stemEnglish("relational"));
+        assertEquals("gener",  Stemmer.stemEnglish("generalization"));
+
+        assertEquals("is", Stemmer.stemEnglish("is"));
+    }
+
+    @Test
+    public void testStem() {
+        System.out.println("stem");
+
+        // the stemmer of other language and other alphabet is not used
+        assertEquals("вод",   Stemmer.stem("воды", LanguageType.ru));
+        assertEquals("cats",  Stemmer.stem("cats", LanguageType.ru));
+        assertEquals("воды",  Stemmer.stem("воды", LanguageType.en));
+        assertEquals("katzen",Stemmer.stem("katzen", LanguageType.de));
+    }
+}
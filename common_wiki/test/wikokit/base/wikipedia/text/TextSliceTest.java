@@ -0,0 +1,85 @@
+package wikokit.base.wikipedia.text;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.util.LangText;
+
+import junit.framework.TestCase;
+
+public class TextSliceTest extends TestCase {
+
+    public TextSliceTest(String testName) {
+        super(testName);
+    }
+
+    public void testOf() {
+        System.out.println("of");
+        String text = "0123456789";
+
+        CharSequence s = TextSlice.of(text, 2, 8);
+        assertEquals("234567", s.toString());
+        assertEquals(6, s.length());
+        assertEquals('2', s.charAt(0));
+        assertSame(s.toString(), s.toString());   // the copy is cached
+
+        // slice of the slice refers to the backing text
+        TextSlice s2 = (TextSlice)s.subSequence(1, 3);
+        assertEquals("34", s2.toString());
+        assertSame(text, s2.getBackingText());
+        assertEquals(3, s2.getStart());
+        assertEquals(5, s2.getEnd());
+
+        // the whole text and empty range are not wrapped
+        assertSame(text, TextSlice.of(text, 0, text.length()));
+        assertEquals("", TextSlice.of(text, 5, 5));
+        assertEquals("89", TextSlice.of(text, 8).toString());
+
+        try {
+            s.charAt(6);
+            fail("IndexOutOfBoundsException expected");
+        } catch(IndexOutOfBoundsException e) {}
+    }
+
+    public void testIndexOf() {
+        System.out.println("indexOf");
+        CharSequence s = TextSlice.of("xx{{phrase|a}} {{b", 2, 18);
+
+        assertEquals(0,  TextSlice.indexOf(s, "{{phrase", 0));
+        assertEquals(13, TextSlice.indexOf(s, "{{", 1));
+        assertEquals(-1, TextSlice.indexOf(s, "{{c", 0));
+        assertEquals(-1, TextSlice.indexOf(s, "{{b}", 0));
+
+        assertTrue (TextSlice.startsWith(s, "phrase", 2));
+        assertFalse(TextSlice.startsWith(s, "{{b}", 13));
+    }
+
+    /** Parsers return the same text if there is nothing to change. */
+    public void testParsersDontCopyUnchangedText() {
+        System.out.println("parsersDontCopyUnchangedText");
+        CharSequence s = TextSlice.of("== a ==\n# plain text, nothing to remove\n", 3, 35);
+
+        assertSame(s, WikiParser.removeHTMLComments(s));
+        assertSame(s, ReferenceParser.removeReferences(s));
+        assertSame(s, WikiParser.parseDoubleBrackets(s, LanguageType.ru, true));
+        assertSame(s, TableParser.removeWikiTables(s));
+        assertSame(s, ImageParser.parseImageDescription(s, LanguageType.ru));
+
+        assertEquals("a  text", WikiParser.removeHTMLComments(
+                                TextSlice.of("[a <!-- x --> text]", 1, 18)).toString());
+    }
+
+    public void testLangTextAppend() {
+        System.out.println("langTextAppend");
+        String text = "prefix\n= {{-ru-}} =\nru text";
+        LangText lt = new LangText(LanguageType.ru);
+
+        lt.append(text, 20, text.length());
+        assertTrue(lt.text instanceof TextSlice);  // view without copy
+        assertEquals("ru text", lt.text.toString());
+
+        lt.append(text, 0, 0);                     // empty range is skipped
+        assertTrue(lt.text instanceof TextSlice);
+
+        lt.append(text, 0, 7);
+        assertEquals("ru textprefix\n", lt.text.toString());
+    }
+}
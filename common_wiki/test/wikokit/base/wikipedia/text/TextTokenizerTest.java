@@ -0,0 +1,42 @@
+package wikokit.base.wikipedia.text;
+
+import java.util.Arrays;
+import wikokit.base.wikipedia.language.LanguageType;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TextTokenizerTest {
+
+    public TextTokenizerTest() {
+    }
+
+    @Test
+    public void testTokenize() {
+        System.out.println("tokenize");
+
+        assertEquals(Arrays.asList("the", "cat", "sat", "on", "the", "mat"),
+                     TextTokenizer.tokenize("The cat, sat on (the) mat.", null));
+
+        // possessive, apostrophe inside a word
+        assertEquals(Arrays.asList("dog", "tail", "dont"),
+                     TextTokenizer.tokenize("dog's tail: don't", null));
+
+        // stress mark and 'ё'
+        assertEquals(Arrays.asList("ещё".replace('ё', 'е'), "вода"),
+                     TextTokenizer.tokenize("ЕЩЁ вода́", null));
+
+        assertTrue(TextTokenizer.tokenize(" , .", null).isEmpty());
+        assertTrue(TextTokenizer.tokenize(null, null).isEmpty());
+    }
+
+    @Test
+    public void testTokenize_stemmed() {
+        System.out.println("tokenize_stemmed");
+
+        assertEquals(Arrays.asList("чист", "вод"),
+                     TextTokenizer.tokenize("Чистой воды", LanguageType.ru));
+        assertEquals(Arrays.asList("connect", "cat"),
+                     TextTokenizer.tokenize("Connected cats", LanguageType.en));
+    }
+}
@@ -0,0 +1,113 @@
+package wikokit.base.wikipedia.util;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class AhoCorasickTest {
+    
+    public AhoCorasickTest() {
+    }
+
+    @Test
+    public void testFindAll_overlapping_keys() {
+        System.out.println("findAll_overlapping_keys");
+        
+        AhoCorasick<Integer> matcher = new AhoCorasick<Integer>();
+        matcher.add("he",   1);
+        matcher.add("she",  2);
+        matcher.add("his",  3);
+        matcher.add("hers", 4);
+        matcher.build();
+        
+        List<AhoCorasick.Match<Integer>> result = matcher.findAll("ushers");
+        assertEquals(3, result.size());
+        
+        assertEquals("she", result.get(0).getKey());
+        assertEquals(1,     result.get(0).getStart());
+        assertEquals(4,     result.get(0).getEnd());
+        
+        assertEquals("he",  result.get(1).getKey());
+        assertEquals(2,     result.get(1).getStart());
+        
+        assertEquals("hers", result.get(2).getKey());
+        assertEquals(4,     (int)result.get(2).getValue());
+    }
+    
+    @Test
+    public void testFindAll_cyrillic_templates() {
+        System.out.println("findAll_cyrillic_templates");
+        
+        AhoCorasick<String> matcher = new AhoCorasick<String>();
+        matcher.add("{{устар.}}", "устар.");
+        matcher.add("{{устар.|", "устар.");
+        matcher.add("{{хим.}}", "хим.");
+        matcher.build();
+        
+        List<AhoCorasick.Match<String>> result = matcher.findAll("# {{хим.}} {{устар.|ru}} [[спирт]]");
+        assertEquals(2, result.size());
+        assertEquals("хим.",   result.get(0).getValue());
+        assertEquals(2,        result.get(0).getStart());
+        assertEquals("устар.", result.get(1).getValue());
+        
+        assertFalse(matcher.containsAny("{{устар}} без точки"));
+        assertTrue (matcher.containsAny("текст {{устар.}}"));
+    }
+    
+    @Test
+    public void testFindAll_empty() {
+        System.out.println("findAll_empty");
+        
+        AhoCorasick<String> matcher = new AhoCorasick<String>();
+        matcher.build();
+        
+        assertEquals(0, matcher.findAll("any text").size());
+        assertFalse(matcher.containsAny("any text"));
+    }
+    
+    @Test
+    public void testScan_skipTo() {
+        System.out.println("scan_skipTo");
+        
+        AhoCorasick<String> matcher = new AhoCorasick<String>();
+        matcher.add("{{", null);
+        matcher.add("{{хим.|", "хим.");
+        matcher.build();
+        
+        String text = "{{хим.|{{хим.|ru}}}} текст {{пример}}";
+        AhoCorasick<String>.Scanner scanner = matcher.scan(text);
+        
+        AhoCorasick.Match<String> m = scanner.next();
+        assertEquals("{{",      m.getKey());
+        assertEquals(0,         m.getStart());
+        m = scanner.next();
+        assertEquals("хим.",    m.getValue());
+        assertEquals(7,         m.getEnd());
+        
+        scanner.skipTo(text.indexOf("}}}}") + 4);   // the nested template is skipped
+        m = scanner.next();
+        assertEquals("{{",      m.getKey());
+        assertEquals(text.indexOf("{{пример"), m.getStart());
+        assertNull(scanner.next());
+        assertNull(scanner.next());
+    }
+    
+    @Test
+    public void testFindAll_many_transitions() {
+        System.out.println("findAll_many_transitions");
+        
+        // the state after "{{" has a direct transition table
+        AhoCorasick<String> matcher = new AhoCorasick<String>();
+        String[] names = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "ж", "я"};
+        for(String name : names)
+            matcher.add("{{" + name + "}}", name);
+        matcher.build();
+        
+        List<AhoCorasick.Match<String>> result = matcher.findAll("{{я}} {{k}} {{a}}{{ж}}");
+        assertEquals(3,     result.size());
+        assertEquals("я",   result.get(0).getValue());
+        assertEquals("a",   result.get(1).getValue());
+        assertEquals("ж",   result.get(2).getValue());
+        assertEquals(17,    result.get(2).getStart());
+    }
+}
@@ -0,0 +1,102 @@
+package wikokit.base.wikipedia.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ExternalSorterTest {
+
+    public ExternalSorterTest() {
+    }
+
+    /** Pair (key, number of addition), the number checks the stability. */
+    private static class Rec {
+        final String key;
+        final int n;
+
+        Rec(String key, int n) {
+            this.key = key;
+            this.n = n;
+        }
+    }
+
+    private static final ExternalSorter.Codec<Rec> CODEC = new ExternalSorter.Codec<Rec>() {
+        public void write(DataOutput out, Rec r) throws IOException {
+            ExternalSorter.writeString(out, r.key);
+            out.writeInt(r.n);
+        }
+        public Rec read(DataInput in) throws IOException {
+            String key = ExternalSorter.readString(in);
+            return new Rec(key, in.readInt());
+        }
+    };
+
+    private static final Comparator<Rec> BY_KEY = new Comparator<Rec>() {
+        public int compare(Rec a, Rec b) {
+            return a.key.compareTo(b.key);
+        }
+    };
+
+    private static List<Rec> sortAll(List<Rec> source, int max_records_in_memory,
+                                     int expected_runs) throws IOException {
+        ExternalSorter<Rec> sorter = new ExternalSorter<Rec>(CODEC, BY_KEY, max_records_in_memory, null);
+        for(Rec r : source)
+            sorter.add(r);
+        assertEquals(source.size(), sorter.size());
+        assertEquals(expected_runs, sorter.getRunCount());
+
+        List<Rec> result = new ArrayList<Rec>();
+        ExternalSorter.Cursor<Rec> c = sorter.sort();
+        try {
+            for(Rec r = c.next(); null != r; r = c.next())
+                result.add(r);
+            assertNull(c.next());
+        } finally {
+            c.close();
+        }
+        return result;
+    }
+
+    @Test
+    public void testSort_runs_on_disk_stable() throws IOException {
+        System.out.println("sort_runs_on_disk_stable");
+        Random random = new Random(7);
+        List<Rec> source = new ArrayList<Rec>();
+        for(int i=0; i<10000; i++)
+            source.add(new Rec("слово" + random.nextInt(300), i));
+
+        List<Rec> result = sortAll(source, 1000, 10);
+
+        List<Rec> expected = new ArrayList<Rec>(source);
+        Collections.sort(expected, BY_KEY);     // stable sort in memory
+        assertEquals(expected.size(), result.size());
+        for(int i=0; i<expected.size(); i++) {
+            assertEquals(expected.get(i).key, result.get(i).key);
+            assertEquals(expected.get(i).n,   result.get(i).n);
+        }
+    }
+
+    @Test
+    public void testSort_in_memory() throws IOException {
+        System.out.println("sort_in_memory");
+        List<Rec> source = new ArrayList<Rec>();
+        source.add(new Rec("b", 0));
+        source.add(new Rec("a", 1));
+        source.add(new Rec("b", 2));
+
+        List<Rec> result = sortAll(source, 100, 0);
+        assertEquals(3, result.size());
+        assertEquals("a", result.get(0).key);
+        assertEquals(0,   result.get(1).n);
+        assertEquals(2,   result.get(2).n);
+
+        assertEquals(0, sortAll(new ArrayList<Rec>(), 100, 0).size());
+    }
+}
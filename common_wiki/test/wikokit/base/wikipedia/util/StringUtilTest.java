@@ -57,6 +57,21 @@ public class StringUtilTest extends TestCase {
         assertEquals(0, word0.length);
     }
 
+    public void testSubstringTrim() {
+        System.out.println("substringTrim");
+        String s = "# \t one two  \n";
+        assertEquals(s.substring(1).trim(), StringUtil.substringTrim(s, 1, s.length()));
+        assertEquals("one", StringUtil.substringTrim(s, 1, 7));
+        assertEquals("", StringUtil.substringTrim(s, 1, 3));
+        assertEquals("", StringUtil.substringTrim(s, 2, 2));
+        
+        StringBuilder sb = new StringBuilder(" one ");
+        assertEquals("one", StringUtil.substringTrim(sb, 0, sb.length()));
+        
+        String text = "text";   // the string itself if there is nothing to trim
+        assertSame(text, StringUtil.substringTrim(text, 0, text.length()));
+    }
+    
     public void testEscapeChars(){
         System.out.println("EscapeChars");
         String escaped, unescaped, empty;
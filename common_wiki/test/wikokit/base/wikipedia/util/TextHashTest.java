@@ -0,0 +1,28 @@
+package wikokit.base.wikipedia.util;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TextHashTest {
+
+    public TextHashTest() {
+    }
+
+    @Test
+    public void testHash64() {
+        System.out.println("hash64");
+
+        // the values are stored in databases, they should never be changed
+        assertEquals(0xcbf29ce484222325L,   TextHash.hash64(""));
+        assertEquals(5542024418478591605L,  TextHash.hash64("apple"));
+
+        assertEquals(TextHash.hash64("вода"), TextHash.hash64(new StringBuilder("вода")));
+        assertTrue(TextHash.hash64("вода") != TextHash.hash64("вода "));
+
+        // texts with the same long prefix have different hashes
+        StringBuilder sb = new StringBuilder();
+        while(sb.length() < 300)
+            sb.append("long text ");
+        assertTrue(TextHash.hash64(sb + "1") != TextHash.hash64(sb + "2"));
+    }
+}
@@ -1,11 +1,18 @@
 package wikokit.base.wikt.multi.ru.name;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import wikokit.base.wikipedia.text.ParseBudget;
 import wikokit.base.wikt.constant.Label;
 import wikokit.base.wikt.constant.LabelCategory;
 import wikokit.base.wikt.multi.en.name.LabelEn;
@@ -432,4 +439,51 @@ public class LabelRuTest {
     
     // eo extractLabelsTrimText
     // ///////////////////////////////////////////////////////////
+    
+    @Test
+    public void testGetOrCreateByShortName() throws Exception {
+        System.out.println("getOrCreateByShortName");
+        final String page_title = "test_page";
+        
+        assertTrue( Label.equals( LabelEn.chemistry, LabelRu.getOrCreateByShortName(page_title, "хим.")) );
+        
+        // new label is created only once, also by concurrent threads
+        final String short_name = "тестовая помета getOrCreate";
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Label>> futures = new ArrayList<Future<Label>>();
+        for(int i=0; i<32; i++) {
+            futures.add(pool.submit(new Callable<Label>() {
+                @Override
+                public Label call() {
+                    return LabelRu.getOrCreateByShortName(page_title, short_name);
+                }
+            }));
+        }
+        pool.shutdown();
+        
+        Label label = LabelRu.getByShortName(short_name);
+        assertNotNull(label);
+        for(Future<Label> f : futures)
+            assertSame(label, f.get());
+    }
+    
+    /** The parser thread with cancelled budget (e.g. abandoned by the watchdog) doesn't add labels. */
+    @Test
+    public void testGetOrCreateByShortName_cancelled() {
+        System.out.println("getOrCreateByShortName_cancelled");
+        String short_name = "тестовая помета cancelled";
+        
+        ParseBudget budget = new ParseBudget(0);
+        budget.enter();
+        budget.cancel();
+        try {
+            LabelRu.getOrCreateByShortName("test_page", short_name);
+            fail("the label is added by the cancelled parser");
+        } catch(ParseBudget.ExceededException e) {
+            assertEquals(ParseBudget.Reason.CANCELLED, e.getReason());
+        } finally {
+            budget.exit();
+        }
+        assertFalse(LabelRu.hasShortName(short_name));
+    }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.text.ParseBudget;
+import wikokit.base.wikt.util.LangText;
 
 public class WLanguageTest {
 
@@ -37,6 +39,85 @@ public class WLanguageTest {
         System.out.println("todo or not todo");
     }
 
+    /** Entry with many language sections, e.g. "a", "on". */
+    private static String createEntryWithManySections() {
+        String[] codes = {"ru", "en", "de", "fr", "uk", "be", "bg", "pl", "cs", "sk",
+                          "it", "es", "pt", "nl", "sv", "da", "fi", "hu", "tr", "lv"};
+        StringBuilder sb = new StringBuilder();
+        for(int i=0; i<codes.length; i++) {
+            sb.append("= {{-").append(codes[i]).append("-}} =\n\n");
+            sb.append("=== Морфологические и синтаксические свойства ===\n");
+            sb.append("{{сущ ").append(codes[i]).append(" m}}\n\n");
+            sb.append("=== Семантические свойства ===\n");
+            sb.append("==== Значение ====\n");
+            sb.append("# [[буква]] номер ").append(i).append(" {{пример|пример ").append(i).append("}}\n");
+            sb.append("# [[слово]] {{пример|}}\n\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testParseLanguageSections_parallel_same_order() {
+        System.out.println("parseLanguageSections_parallel_same_order");
+        LanguageType wikt_lang = LanguageType.ru;
+        String page_title = "a";
+        String text = createEntryWithManySections();
+
+        LangText[] lang_sections = WLanguage.splitToLanguageSections(wikt_lang, page_title, text);
+        assertEquals(20, lang_sections.length);
+
+        WLanguage[] seq = WLanguage.parseLanguageSections(wikt_lang, page_title, lang_sections, false);
+        WLanguage[] par = WLanguage.parseLanguageSections(wikt_lang, page_title, lang_sections, true);
+        assertEquals(seq.length, par.length);
+
+        for(int i=0; i<seq.length; i++) {
+            assertEquals(lang_sections[i].getLanguage(), par[i].getLanguage());
+            assertEquals(seq[i].getLanguage(), par[i].getLanguage());
+
+            WPOS[] pos_seq = seq[i].getAllPOS();
+            WPOS[] pos_par = par[i].getAllPOS();
+            assertEquals(pos_seq.length, pos_par.length);
+            for(int j=0; j<pos_seq.length; j++) {
+                assertEquals(pos_seq[j].getPOS(), pos_par[j].getPOS());
+
+                WMeaning[] m_seq = pos_seq[j].getAllMeanings();
+                WMeaning[] m_par = pos_par[j].getAllMeanings();
+                assertEquals(m_seq.length, m_par.length);
+                for(int k=0; k<m_seq.length; k++)
+                    assertEquals(m_seq[k].getDefinition(), m_par[k].getDefinition());
+            }
+        }
+        assertEquals("буква номер 7", par[7].getAllPOS()[0].getAllMeanings()[0].getDefinition());
+
+        // parse() takes the parallel way for 20 sections
+        WLanguage[] wl = WLanguage.parse(wikt_lang, page_title, text);
+        assertEquals(20, wl.length);
+        assertEquals(LanguageType.ru, wl[0].getLanguage());
+        assertEquals(LanguageType.lv, wl[19].getLanguage());
+    }
+
+    @Test
+    public void testParseLanguageSections_parallel_cancelled() {
+        System.out.println("parseLanguageSections_parallel_cancelled");
+        LanguageType wikt_lang = LanguageType.ru;
+        String page_title = "a";
+        LangText[] lang_sections = WLanguage.splitToLanguageSections(wikt_lang, page_title,
+                                                        createEntryWithManySections());
+
+        // the budget of the calling thread stops the worker threads also
+        ParseBudget budget = new ParseBudget(0);
+        budget.enter();
+        try {
+            budget.cancel();
+            WLanguage.parseLanguageSections(wikt_lang, page_title, lang_sections, true);
+            fail("ExceededException expected");
+        } catch(ParseBudget.ExceededException e) {
+            assertEquals(ParseBudget.Reason.CANCELLED, e.getReason());
+        } finally {
+            budget.exit();
+        }
+    }
+
 
 
 }
\ No newline at end of file
@@ -14,6 +14,9 @@ import wikokit.base.wikipedia.util.StringUtil;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.HashSet;
 
 
 /** Routines to get subcategories and articles which belongs to categories.
@@ -84,20 +87,23 @@ public class CategoryHyponyms {
      * subcategories.
      * Skip redirect articles. Disambig?
      * Number of articles is limited by max_articles.     
+     * 
+     * It takes one SQL query per category and per article, 
+     * see CategoryIndex for big categories.
      */
     public static List<String> getArticlesOfSubCategories (Connect connect, String category_title) {
         List<String> pt = // result list of page titles
             new ArrayList<String> ();
         
         // list of parsed subcategories, it helps to skip repetition (evil of category cycles)
-        List<String> done = new ArrayList<String>();
+        Set<String> done = new HashSet<String>();
         
         // stack of subcategories
-        List<String> stack = new ArrayList<String>();
+        LinkedList<String> stack = new LinkedList<String>();
         stack.add(category_title);
         
         while (stack.size() > 0) {
-            String category = stack.remove(0);
+            String category = stack.removeFirst();
             if (!done.contains(category)) {
                 done.add(category);
                                 
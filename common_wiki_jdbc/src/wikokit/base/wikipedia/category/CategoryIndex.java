@@ -0,0 +1,450 @@
+/*
+ * CategoryIndex.java - in-memory index of the category tree.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU Public License.
+ */
+
+package wikokit.base.wikipedia.category;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikipedia.util.StringUtil;
+
+import java.sql.*;
+import java.util.*;
+
+/** The category tree (categories, subcategories and articles of categories)
+ * loaded once from the tables 'page' and 'categorylinks' into int arrays.
+ *
+ * Category is identified by its index (0..countCategories()-1), categories
+ * are sorted by title. Children, parents and members (articles, not
+ * redirects) of the category are stored as CSR arrays:
+ * children of the category c are child[child_start[c] .. child_start[c+1]-1].
+ *
+ * Traversal of subcategories is cycle-safe (visited categories are marked
+ * in a bitset) and can be limited by depth, titles of articles are fetched
+ * from the table 'page' in batches while they are iterated.
+ *
+ * @see CategoryHyponyms#getArticlesOfSubCategories SQL version
+ */
+public class CategoryIndex {
+
+    private final static int[] NULL_INT_ARRAY = new int[0];
+
+    /** Number of titles fetched by one SQL query. */
+    private final static int TITLE_BATCH_SIZE = 500;
+
+    /** Titles of categories (sorted) and their page_id. */
+    private final String[] title;
+    private final int[]    page_id;
+
+    /** page_id of categories (sorted) and indices of categories. */
+    private final int[]    sorted_page_id;
+    private final int[]    sorted_page_id_category;
+
+    /** Subcategories: category indices. */
+    private int[] child_start;
+    private int[] child;
+
+    /** Parent categories: category indices. */
+    private int[] parent_start;
+    private int[] parent;
+
+    /** Articles of category: page_id of articles. */
+    private int[] member_start;
+    private int[] member;
+
+    /** Creates the index without links, categories are sorted by title. */
+    private CategoryIndex(String[] _title, int[] _page_id) {
+        int n = _title.length;
+        Integer[] order = new Integer[n];
+        for(int i=0; i<n; i++)
+            order[i] = i;
+        final String[] t = _title;
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return t[a].compareTo(t[b]);
+            }
+        });
+
+        title   = new String[n];
+        page_id = new int[n];
+        long[] id_category = new long[n];
+        for(int i=0; i<n; i++) {
+            title  [i] = _title  [order[i]];
+            page_id[i] = _page_id[order[i]];
+            id_category[i] = ((long)page_id[i] << 32) | i;
+        }
+        Arrays.sort(id_category);
+        sorted_page_id          = new int[n];
+        sorted_page_id_category = new int[n];
+        for(int i=0; i<n; i++) {
+            sorted_page_id         [i] = (int)(id_category[i] >>> 32);
+            sorted_page_id_category[i] = (int)id_category[i];
+        }
+
+        child_start  = new int[n + 1];
+        member_start = new int[n + 1];
+    }
+
+    /** Counts the link (cl_from, cl_to) from the table 'categorylinks'.
+     * @param articles page_id of articles (not redirects) */
+    private void countLink(int cl_from, String cl_to, BitSet articles) {
+        int c = getCategory(cl_to);
+        if(-1 == c)
+            return;
+        if(-1 != getCategoryByID(cl_from))
+            child_start[c + 1] ++;
+        else if(cl_from >= 0 && articles.get(cl_from))
+            member_start[c + 1] ++;
+    }
+
+    /** Allocates arrays for links after they were counted. */
+    private void allocateLinks() {
+        int n = title.length;
+        for(int i=0; i<n; i++) {
+            child_start [i + 1] += child_start [i];
+            member_start[i + 1] += member_start[i];
+        }
+        child  = new int[child_start [n]];
+        member = new int[member_start[n]];
+    }
+
+    /** Stores the link (cl_from, cl_to), fill[] are current positions in child[] and member[]. */
+    private void fillLink(int cl_from, String cl_to, BitSet articles,
+                          int[] child_fill, int[] member_fill) {
+        int c = getCategory(cl_to);
+        if(-1 == c)
+            return;
+        int sub = getCategoryByID(cl_from);
+        if(-1 != sub) {
+            if(child_fill[c] < child_start[c + 1])
+                child[child_fill[c] ++] = sub;
+        } else if(cl_from >= 0 && articles.get(cl_from)) {
+            if(member_fill[c] < member_start[c + 1])
+                member[member_fill[c] ++] = cl_from;
+        }
+    }
+
+    /** Builds parents of categories by children. */
+    private void createParents() {
+        int n = title.length;
+        parent_start = new int[n + 1];
+        for(int i=0; i<child_start[n]; i++)
+            parent_start[child[i] + 1] ++;
+        for(int i=0; i<n; i++)
+            parent_start[i + 1] += parent_start[i];
+
+        parent = new int[parent_start[n]];
+        int[] fill = Arrays.copyOf(parent_start, n);
+        for(int c=0; c<n; c++)
+            for(int i=child_start[c]; i<child_start[c + 1]; i++)
+                parent[fill[child[i]] ++] = c;
+    }
+
+    /** Creates the index from arrays (it is used in tests).
+     *
+     * @param cat_title   titles of categories (without prefix "Category:")
+     * @param cat_page_id page_id of categories
+     * @param articles    page_id of articles which are not redirects
+     * @param cl_from     categorylinks.cl_from
+     * @param cl_to       categorylinks.cl_to
+     */
+    static CategoryIndex create(String[] cat_title, int[] cat_page_id, BitSet articles,
+                                int[] cl_from, String[] cl_to) {
+        CategoryIndex index = new CategoryIndex(cat_title, cat_page_id);
+        for(int i=0; i<cl_from.length; i++)
+            index.countLink(cl_from[i], cl_to[i], articles);
+        index.allocateLinks();
+
+        int n = cat_title.length;
+        int[] child_fill  = Arrays.copyOf(index.child_start,  n);
+        int[] member_fill = Arrays.copyOf(index.member_start, n);
+        for(int i=0; i<cl_from.length; i++)
+            index.fillLink(cl_from[i], cl_to[i], articles, child_fill, member_fill);
+        index.createParents();
+        return index;
+    }
+
+    /** Loads the category tree from the tables 'page' and 'categorylinks'.
+     * The table 'categorylinks' is read twice: to count links and to store them.
+     * SQL:
+     *  SELECT page_id,page_title FROM page WHERE page_namespace=14;
+     *  SELECT page_id FROM page WHERE page_namespace=0 AND page_is_redirect=0;
+     *  SELECT cl_from,cl_to FROM categorylinks;
+     *
+     * @return null if there were errors
+     */
+    public static CategoryIndex load(Connect connect) {
+        if(null==connect || null==connect.conn)
+            return null;
+
+        Statement   s = null;
+        ResultSet   rs= null;
+        String      str_sql = "";
+        Encodings   e = connect.enc;
+        try {
+            s = connect.conn.createStatement ();
+
+            // 1. categories
+            List<String>  titles = new ArrayList<String>();
+            List<Integer> ids    = new ArrayList<Integer>();
+            str_sql = "SELECT page_id,page_title FROM page WHERE page_namespace=14";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ()) {
+                String db_str = Encodings.bytesTo(rs.getBytes("page_title"), e.GetDBEnc());
+                titles.add(e.EncodeFromDB(db_str));
+                ids.add(rs.getInt("page_id"));
+            }
+            rs.close();
+
+            int n = titles.size();
+            int[] cat_page_id = new int[n];
+            for(int i=0; i<n; i++)
+                cat_page_id[i] = ids.get(i);
+            ids = null;
+            CategoryIndex index = new CategoryIndex(titles.toArray(new String[n]), cat_page_id);
+            titles = null;
+
+            // 2. articles which are not redirects
+            BitSet articles = new BitSet();
+            str_sql = "SELECT page_id FROM page WHERE page_namespace=0 AND page_is_redirect=0";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ())
+                articles.set(rs.getInt("page_id"));
+            rs.close();
+
+            // 3. count links
+            str_sql = "SELECT cl_from,cl_to FROM categorylinks";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ()) {
+                String db_str = Encodings.bytesTo(rs.getBytes("cl_to"), e.GetDBEnc());
+                index.countLink(rs.getInt("cl_from"), e.EncodeFromDB(db_str), articles);
+            }
+            rs.close();
+            index.allocateLinks();
+
+            // 4. store links
+            int[] child_fill  = Arrays.copyOf(index.child_start,  n);
+            int[] member_fill = Arrays.copyOf(index.member_start, n);
+            rs = s.executeQuery (str_sql);
+            while (rs.next ()) {
+                String db_str = Encodings.bytesTo(rs.getBytes("cl_to"), e.GetDBEnc());
+                index.fillLink(rs.getInt("cl_from"), e.EncodeFromDB(db_str), articles,
+                               child_fill, member_fill);
+            }
+            index.createParents();
+            return index;
+
+        } catch(SQLException ex) {
+            System.out.println("SQLException (CategoryIndex.java load()):: sql='" + str_sql + "' " + ex.getMessage());
+        } finally {
+            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
+            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+        }
+        return null;
+    }
+
+    /** Gets number of categories. */
+    public int countCategories() {
+        return title.length;
+    }
+
+    /** Gets index of the category by title, spaces are treated as underscores.
+     * @return -1 if the category is absent */
+    public int getCategory(String category_title) {
+        if(null == category_title)
+            return -1;
+        int c = Arrays.binarySearch(title, StringUtil.spaceToUnderscore(category_title));
+        return c < 0 ? -1 : c;
+    }
+
+    /** Gets index of the category by page_id.
+     * @return -1 if the category is absent */
+    public int getCategoryByID(int id) {
+        int i = Arrays.binarySearch(sorted_page_id, id);
+        return i < 0 ? -1 : sorted_page_id_category[i];
+    }
+
+    /** Gets title of the category. */
+    public String getTitle(int category) {
+        return title[category];
+    }
+
+    /** Gets page_id of the category. */
+    public int getPageID(int category) {
+        return page_id[category];
+    }
+
+    /** Gets indices of subcategories of the first level. */
+    public int[] getChildren(int category) {
+        return Arrays.copyOfRange(child, child_start[category], child_start[category + 1]);
+    }
+
+    /** Gets indices of parent categories of the first level. */
+    public int[] getParents(int category) {
+        return Arrays.copyOfRange(parent, parent_start[category], parent_start[category + 1]);
+    }
+
+    /** Gets page_id of articles of the category (without subcategories). */
+    public int[] getMembers(int category) {
+        return Arrays.copyOfRange(member, member_start[category], member_start[category + 1]);
+    }
+
+    /** Gets the category and all its subcategories in breadth-first order,
+     * each category is visited once (category cycles are skipped).
+     *
+     * @param max_depth maximum depth of subcategories: 0 - only the category,
+     *                  1 - the category and its children, etc.,
+     *                  negative value - without limit
+     * @return indices of categories, empty array if the category is -1
+     */
+    public int[] getSubCategories(int category, int max_depth) {
+        if(-1 == category)
+            return NULL_INT_ARRAY;
+
+        BitSet visited = new BitSet(title.length);
+        int[] queue = new int[16];
+        int size = 0;
+        queue[size ++] = category;
+        visited.set(category);
+
+        int level_end = size;   // end of the current level in the queue
+        int depth = 0;
+        for(int head=0; head<size; head++) {
+            if(head == level_end) {
+                depth ++;
+                level_end = size;
+            }
+            if(max_depth >= 0 && depth >= max_depth)
+                continue;
+
+            int c = queue[head];
+            for(int i=child_start[c]; i<child_start[c + 1]; i++) {
+                int sub = child[i];
+                if(visited.get(sub))
+                    continue;
+                visited.set(sub);
+                if(size == queue.length)
+                    queue = Arrays.copyOf(queue, size * 2);
+                queue[size ++] = sub;
+            }
+        }
+        return Arrays.copyOf(queue, size);
+    }
+
+    /** Gets page_id of articles (not redirects) which belong to the category
+     * or its subcategories, each article is taken once.
+     *
+     * @param max_depth see getSubCategories()
+     * @return page_id of articles in breadth-first order of categories
+     */
+    public int[] getArticleIDs(int category, int max_depth) {
+        int[] categories = getSubCategories(category, max_depth);
+
+        BitSet done = new BitSet();
+        int[] result = new int[16];
+        int size = 0;
+        for(int c : categories) {
+            for(int i=member_start[c]; i<member_start[c + 1]; i++) {
+                int id = member[i];
+                if(done.get(id))
+                    continue;
+                done.set(id);
+                if(size == result.length)
+                    result = Arrays.copyOf(result, size * 2);
+                result[size ++] = id;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /** Gets page_id of articles of the category (by title) or its subcategories.
+     * @return empty array if the category is absent */
+    public int[] getArticleIDs(String category_title, int max_depth) {
+        return getArticleIDs(getCategory(category_title), max_depth);
+    }
+
+    /** Iterates over titles of pages, titles are selected from the table
+     * 'page' by TITLE_BATCH_SIZE page_id in one query. Absent pages are skipped.
+     * SQL:
+     *  SELECT page_id,page_title FROM page WHERE page_id IN (1,2,3);
+     */
+    public static Iterator<String> iterateTitles(Connect connect, int[] page_ids) {
+        return new TitleIterator(connect, page_ids);
+    }
+
+    private static class TitleIterator implements Iterator<String> {
+        private final Connect connect;
+        private final int[]   page_ids;
+
+        /** Position in page_ids[] of the next batch. */
+        private int pos;
+
+        private final List<String> batch = new ArrayList<String>(TITLE_BATCH_SIZE);
+        private int batch_pos;
+
+        TitleIterator(Connect _connect, int[] _page_ids) {
+            connect  = _connect;
+            page_ids = _page_ids;
+        }
+
+        public boolean hasNext() {
+            while(batch_pos == batch.size() && pos < page_ids.length)
+                fetchBatch();
+            return batch_pos < batch.size();
+        }
+
+        public String next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+            return batch.get(batch_pos ++);
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /** Selects titles of the next TITLE_BATCH_SIZE pages, keeps the order of page_ids. */
+        private void fetchBatch() {
+            batch.clear();
+            batch_pos = 0;
+            int end = Math.min(page_ids.length, pos + TITLE_BATCH_SIZE);
+
+            Map<Integer, String> id_to_title = new HashMap<Integer, String>();
+            Statement   s = null;
+            ResultSet   rs= null;
+            StringBuffer sb = new StringBuffer();
+            try {
+                s = connect.conn.createStatement ();
+                sb.append("SELECT page_id,page_title FROM page WHERE page_id IN (");
+                for(int i=pos; i<end; i++) {
+                    if(i > pos)
+                        sb.append(",");
+                    sb.append(page_ids[i]);
+                }
+                sb.append(")");
+                rs = s.executeQuery (sb.toString());
+
+                Encodings e = connect.enc;
+                while (rs.next ()) {
+                    String db_str = Encodings.bytesTo(rs.getBytes("page_title"), e.GetDBEnc());
+                    id_to_title.put(rs.getInt("page_id"), e.EncodeFromDB(db_str));
+                }
+            } catch(SQLException ex) {
+                System.out.println("SQLException (CategoryIndex.java fetchBatch()):: sql='" + sb.toString() + "' " + ex.getMessage());
+            } finally {
+                if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
+                if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+            }
+
+            for(int i=pos; i<end; i++) {
+                String t = id_to_title.get(page_ids[i]);
+                if(null != t)
+                    batch.add(t);
+            }
+            pos = end;
+        }
+    }
+}
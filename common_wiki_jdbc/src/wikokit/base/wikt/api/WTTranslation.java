@@ -9,6 +9,7 @@ package wikokit.base.wikt.api;
 import wikokit.base.wikt.sql.TTranslation;
 import wikokit.base.wikt.sql.TPage;
 import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikt.sql.index.TranslationIndex;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.util.StringUtil;
@@ -184,4 +185,32 @@ public class WTTranslation {
                                     LanguageType.get(target_lang), word);
     }
 
+    /** Translates the word from source to target language with the help of
+     * the compiled translation index (TranslationIndex.create()), i.e.
+     * translations are found without SQL queries. Definitions are added
+     * (from the database) in the case of translation from foreign into native
+     * language, as in translate(Connect, ...).
+     */
+    public static String [] translate (Connect connect, TranslationIndex trans_index,
+                LanguageType source_lang,LanguageType target_lang,String word) {
+
+        LanguageType native_lang = connect.getNativeLanguage();
+        boolean from_native = source_lang == native_lang;
+        boolean into_native = target_lang == native_lang;
+
+        if(from_native && !into_native)         // 1. from native language into foreign
+            return trans_index.getDirectTranslation(native_lang, target_lang, word);
+
+        if(!from_native && into_native) {       // 2. from foreign into native
+            String[] backward = trans_index.getBackwardTranslation(native_lang, source_lang, word);
+            String[] meanings = WTMeaning.getDefinitionsByPageLang(connect, word, source_lang);
+            return StringUtil.addORCaseSensitive(backward, meanings);
+        }
+
+        if(!from_native && !into_native)        // 3. from foreign into another foreign via native
+            return trans_index.translatePivot(source_lang, native_lang, target_lang, word);
+
+        return NULL_STRING_ARRAY;
+    }
+
 }
@@ -0,0 +1,429 @@
+/* BulkLoad.java - drops secondary indexes of the Wiktionary parsed database
+ * before a full parse and rebuilds them after it.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.sql.index.IndexForeign;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/** Bulk-load mode: secondary indexes of the tables, which are only written
+ * (and never read) during the parsing, are dropped at the start of a full
+ * parse and are rebuilt by one pass per table at the end.<br><br>
+ *
+ * Indexes used by lookups of the parser (page.page_title, wiki_text.text,
+ * lang_pos, quot_*) stay live. The unique keys of the dropped indexes are
+ * checked in memory instead: index_XX (foreign_word,native_page_title) by
+ * IndexForeign.setInMemoryDedup(), label_meaning (label_id,meaning_id)
+ * by TLabel.storeToDB(). Wiki words should be deferred (WikiTextWordsSpill),
+ * since TWikiTextWords.getOrInsert() reads 'inflection' and 'page_inflection'.<br><br>
+ *
+ * Usage:
+ * <pre>
+ * BulkLoad bulk = BulkLoad.begin(wikt_parsed_conn);
+ * ... parse and store all pages
+ * bulk.end();      // rebuilds indexes, prints time and size of indexes
+ * </pre>
+ *
+ * If the unique key is violated by duplicates (i.e. the in-memory check
+ * has missed them), then the index is created as not unique, so that the
+ * table has the index for lookups, and end() returns false.<br><br>
+ *
+ * Index definitions are taken from information_schema.STATISTICS (MySQL)
+ * or from sqlite_master (SQLite), so the mode doesn't depend on the
+ * version of wikt_parsed_empty.sql.
+ */
+public class BulkLoad {
+
+    /** Tables with deferred indexes, also all tables 'index_XX'. */
+    private final static Set<String> DEFERRED_TABLES = new HashSet<String>(Arrays.asList(
+            "meaning", "relation", "wiki_text_words",
+            "translation", "translation_entry",
+            "inflection", "page_inflection",
+            "label_meaning", "label_relation",
+            "quote", "index_native"));
+
+    /** UNIQUE keyword in "UNIQUE INDEX ..." (MySQL) or "CREATE UNIQUE INDEX ..." (SQLite). */
+    private final static Pattern UNIQUE = Pattern.compile("^\\s*(CREATE\\s+)?(UNIQUE\\s+)", Pattern.CASE_INSENSITIVE);
+
+    /** Definition of one dropped index. */
+    private static class IndexDef {
+        final String table;
+        final String name;
+
+        /** MySQL: "UNIQUE INDEX `name` (`col`(7),`col2`)",
+         *  SQLite: "CREATE INDEX ..." statement from sqlite_master. */
+        final String sql;
+
+        IndexDef(String table, String name, String sql) {
+            this.table = table;
+            this.name = name;
+            this.sql = sql;
+        }
+
+        /** Gets the definition without UNIQUE: "INDEX `name` (...)" or
+         * "CREATE INDEX ...", or null if the index is not unique. */
+        String getNotUniqueSQL() {
+            Matcher m = UNIQUE.matcher(sql);
+            if(!m.find())
+                return null;
+            return sql.substring(0, m.start(2)) + sql.substring(m.end(2));
+        }
+    }
+
+    private final Connect connect;
+
+    /** Dropped indexes grouped by table. */
+    private final Map<String, List<IndexDef>> table2indexes;
+
+    /** Indexes which are not rebuilt as they were, e.g. "`index_en`.`foreign_native`". */
+    private final List<String> failed = new ArrayList<String>();
+
+    private BulkLoad(Connect connect, Map<String, List<IndexDef>> table2indexes) {
+        this.connect = connect;
+        this.table2indexes = table2indexes;
+    }
+
+    /** Returns true if indexes of the table are dropped in bulk-load mode. */
+    public static boolean isDeferredTable(String table_name) {
+        return DEFERRED_TABLES.contains(table_name) ||
+               table_name.startsWith("index_");
+    }
+
+    /** Drops secondary indexes of the deferred tables, turns on in-memory
+     * checks of unique keys. The tables should be empty, i.e. it should be
+     * called after WiktParser.clearDatabase().
+     *
+     * @return object which rebuilds the indexes by end()
+     */
+    public static BulkLoad begin(Connect connect) {
+        long t_start = System.currentTimeMillis();
+
+        Map<String, List<IndexDef>> table2indexes = connect.isMySQL() ?
+                                        getIndexesMySQL(connect) :
+                                        getIndexesSQLite(connect);
+        int n_indexes = 0;
+        StringBuilder str_sql = new StringBuilder();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                for(List<IndexDef> indexes : table2indexes.values()) {
+                    str_sql.setLength(0);
+                    if(connect.isMySQL()) {
+                        // ALTER TABLE `meaning` DROP INDEX `lang_pos_id`, DROP INDEX ...
+                        str_sql.append("ALTER TABLE `").append(indexes.get(0).table).append("` ");
+                        for(int i=0; i<indexes.size(); i++) {
+                            if(i > 0)
+                                str_sql.append(", ");
+                            str_sql.append("DROP INDEX `").append(indexes.get(i).name).append("`");
+                        }
+                        s.executeUpdate(str_sql.toString());
+                    } else {
+                        for(IndexDef d : indexes) {
+                            str_sql.setLength(0);
+                            str_sql.append("DROP INDEX `").append(d.name).append("`");
+                            s.executeUpdate(str_sql.toString());
+                        }
+                    }
+                    n_indexes += indexes.size();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (BulkLoad.begin()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+
+        IndexForeign.setInMemoryDedup(true);
+
+        float t_work = (System.currentTimeMillis() - t_start)/1000f;
+        System.out.println("Bulk load: " + n_indexes + " indexes of " + table2indexes.size() +
+                " tables are dropped till the end of parsing, time sec:" + t_work);
+        return new BulkLoad(connect, table2indexes);
+    }
+
+    /** Rebuilds the dropped indexes (one pass per table), turns off the
+     * in-memory checks, prints build time and size of the indexes.
+     *
+     * @return false if any index is absent or it is created as not unique
+     * (see the error messages)
+     */
+    public boolean end() {
+        IndexForeign.setInMemoryDedup(false);
+
+        long t_start = System.currentTimeMillis();
+        int n_indexes = 0;
+        long size_total = 0;
+
+        // sizes of many small tables 'index_XX' are reported together
+        long t_index_xx = 0, size_index_xx = 0;
+        int n_index_xx = 0;
+
+        Statement s = null;
+        try {
+            s = connect.conn.createStatement ();
+            Map<String, Long> table2size = connect.isMySQL() ? null : new LinkedHashMap<String, Long>();
+
+            for(List<IndexDef> indexes : table2indexes.values()) {
+                String table = indexes.get(0).table;
+                long t_table = System.currentTimeMillis();
+                long pages_before = connect.isMySQL() ? 0 : countUsedPagesSQLite(s);
+
+                n_indexes += createIndexes(s, indexes);
+
+                t_table = System.currentTimeMillis() - t_table;
+                if(!connect.isMySQL())
+                    table2size.put(table, (countUsedPagesSQLite(s) - pages_before) * getPageSizeSQLite(s));
+
+                if(DEFERRED_TABLES.contains(table)) {
+                    System.out.println("Bulk load: indexes of `" + table + "` are built, time sec:" + t_table/1000f);
+                } else {
+                    t_index_xx += t_table;
+                    n_index_xx ++;
+                }
+            }
+            if(n_index_xx > 0)
+                System.out.println("Bulk load: indexes of " + n_index_xx + " tables `index_XX` are built, time sec:" + t_index_xx/1000f);
+
+            if(connect.isMySQL())
+                table2size = getIndexSizesMySQL(s);
+
+            for(String table : table2indexes.keySet()) {
+                Long size = table2size.get(table);
+                if(null == size)
+                    continue;
+                size_total += size;
+                if(DEFERRED_TABLES.contains(table))
+                    System.out.println("Bulk load: size of indexes of `" + table + "`: " + toMB(size) + " MB");
+                else
+                    size_index_xx += size;
+            }
+            if(n_index_xx > 0)
+                System.out.println("Bulk load: size of indexes of tables `index_XX`: " + toMB(size_index_xx) + " MB");
+        } catch(SQLException ex) {
+            System.out.println("SQLException (BulkLoad.end()):: " + ex.getMessage());
+            failed.add("(the rest of indexes)");
+        } finally {
+            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+        }
+
+        float t_work = (System.currentTimeMillis() - t_start)/1000f;
+        System.out.println("Bulk load: " + n_indexes + " indexes of " + table2indexes.size() +
+                " tables are rebuilt, time sec:" + t_work + ", size of indexes: " + toMB(size_total) + " MB");
+        if(!failed.isEmpty())
+            System.out.println("Error (BulkLoad.end()):: " + failed.size() + " indexes are not rebuilt as they were: " + failed);
+        return failed.isEmpty();
+    }
+
+    /** Creates the indexes of one table. If the statement fails (e.g. the
+     * unique key is violated), then the indexes are created one by one,
+     * the unique index which fails is created as not unique. Failed indexes
+     * are added to the list 'failed'.
+     *
+     * @return number of created indexes
+     */
+    private int createIndexes(Statement s, List<IndexDef> indexes) {
+        if(connect.isMySQL() && indexes.size() > 1) {
+            // ALTER TABLE `meaning` ADD INDEX `lang_pos_id` (`lang_pos_id`), ADD ...
+            StringBuilder str_sql = new StringBuilder();
+            str_sql.append("ALTER TABLE `").append(indexes.get(0).table).append("` ");
+            for(int i=0; i<indexes.size(); i++) {
+                if(i > 0)
+                    str_sql.append(", ");
+                str_sql.append("ADD ").append(indexes.get(i).sql);
+            }
+            try {
+                s.executeUpdate(str_sql.toString());
+                return indexes.size();
+            } catch(SQLException ex) {
+                System.out.println("SQLException (BulkLoad.createIndexes()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            }
+        }
+
+        int n = 0;
+        for(IndexDef d : indexes) {
+            if(createIndex(s, d.table, d.sql)) {
+                n ++;
+                continue;
+            }
+            failed.add("`" + d.table + "`.`" + d.name + "`");
+
+            String not_unique_sql = d.getNotUniqueSQL();
+            if(null != not_unique_sql && createIndex(s, d.table, not_unique_sql)) {
+                System.out.println("Error (BulkLoad.createIndexes()):: the unique key `" + d.name + "` of `" + d.table +
+                        "` is violated, the index is created as not unique, duplicates should be removed.");
+                n ++;
+            }
+        }
+        return n;
+    }
+
+    /** Creates one index by the definition (see IndexDef.sql).
+     * @return false if the statement fails
+     */
+    private boolean createIndex(Statement s, String table, String sql) {
+        String str_sql = connect.isMySQL() ?
+                "ALTER TABLE `" + table + "` ADD " + sql : sql;
+        try {
+            s.executeUpdate(str_sql);
+            return true;
+        } catch(SQLException ex) {
+            System.out.println("SQLException (BulkLoad.createIndex()):: sql='" + str_sql + "' " + ex.getMessage());
+        }
+        return false;
+    }
+
+    /** Gets secondary indexes of the deferred tables from information_schema.<br><br>
+     * SELECT TABLE_NAME,INDEX_NAME,NON_UNIQUE,COLUMN_NAME,SUB_PART FROM information_schema.STATISTICS
+     * WHERE TABLE_SCHEMA=DATABASE() AND INDEX_NAME<>'PRIMARY' ORDER BY TABLE_NAME,INDEX_NAME,SEQ_IN_INDEX;
+     */
+    private static Map<String, List<IndexDef>> getIndexesMySQL(Connect connect) {
+        Map<String, List<IndexDef>> table2indexes = new LinkedHashMap<String, List<IndexDef>>();
+
+        String str_sql = "SELECT TABLE_NAME,INDEX_NAME,NON_UNIQUE,COLUMN_NAME,SUB_PART FROM information_schema.STATISTICS " +
+                         "WHERE TABLE_SCHEMA=DATABASE() AND INDEX_NAME<>'PRIMARY' " +
+                         "ORDER BY TABLE_NAME,INDEX_NAME,SEQ_IN_INDEX";
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql);
+                try {
+                    String table = null, name = null;
+                    boolean unique = false;
+                    StringBuilder columns = new StringBuilder();
+                    while (rs.next ()) {
+                        String t = rs.getString("TABLE_NAME");
+                        String n = rs.getString("INDEX_NAME");
+                        if(!t.equals(table) || !n.equals(name)) {
+                            addIndexMySQL(table2indexes, table, name, unique, columns);
+                            table = t;
+                            name = n;
+                            unique = 0 == rs.getInt("NON_UNIQUE");
+                            columns.setLength(0);
+                        } else
+                            columns.append(",");
+
+                        columns.append("`").append(rs.getString("COLUMN_NAME")).append("`");
+                        int sub_part = rs.getInt("SUB_PART");
+                        if(!rs.wasNull())
+                            columns.append("(").append(sub_part).append(")");
+                    }
+                    addIndexMySQL(table2indexes, table, name, unique, columns);
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (BulkLoad.getIndexesMySQL()):: sql='" + str_sql + "' " + ex.getMessage());
+        }
+        return table2indexes;
+    }
+
+    private static void addIndexMySQL(Map<String, List<IndexDef>> table2indexes,
+                                      String table, String name, boolean unique,
+                                      StringBuilder columns) {
+        if(null == table || !isDeferredTable(table))
+            return;
+        String sql = (unique ? "UNIQUE INDEX `" : "INDEX `") + name + "` (" + columns + ")";
+        addIndex(table2indexes, new IndexDef(table, name, sql));
+    }
+
+    /** Gets secondary indexes of the deferred tables from sqlite_master.
+     * Indexes created by UNIQUE constraints of CREATE TABLE (sql is NULL)
+     * can't be dropped and are skipped.<br><br>
+     * SELECT tbl_name,name,sql FROM sqlite_master WHERE type='index' AND sql IS NOT NULL;
+     */
+    private static Map<String, List<IndexDef>> getIndexesSQLite(Connect connect) {
+        Map<String, List<IndexDef>> table2indexes = new LinkedHashMap<String, List<IndexDef>>();
+
+        String str_sql = "SELECT tbl_name,name,sql FROM sqlite_master WHERE type='index' AND sql IS NOT NULL ORDER BY tbl_name,name";
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql);
+                try {
+                    while (rs.next ()) {
+                        String table = rs.getString("tbl_name");
+                        if(isDeferredTable(table))
+                            addIndex(table2indexes, new IndexDef(table, rs.getString("name"), rs.getString("sql")));
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (BulkLoad.getIndexesSQLite()):: sql='" + str_sql + "' " + ex.getMessage());
+        }
+        return table2indexes;
+    }
+
+    private static void addIndex(Map<String, List<IndexDef>> table2indexes, IndexDef d) {
+        List<IndexDef> indexes = table2indexes.get(d.table);
+        if(null == indexes) {
+            indexes = new ArrayList<IndexDef>();
+            table2indexes.put(d.table, indexes);
+        }
+        indexes.add(d);
+    }
+
+    /** Gets size of indexes of each table in bytes.<br><br>
+     * SELECT TABLE_NAME,INDEX_LENGTH FROM information_schema.TABLES WHERE TABLE_SCHEMA=DATABASE();
+     */
+    private static Map<String, Long> getIndexSizesMySQL(Statement s) throws SQLException {
+        try {   // MySQL 8 caches the statistics in information_schema for a day
+            s.execute("SET SESSION information_schema_stats_expiry=0");
+        } catch(SQLException ex) {}
+
+        Map<String, Long> table2size = new LinkedHashMap<String, Long>();
+        ResultSet rs = s.executeQuery ("SELECT TABLE_NAME,INDEX_LENGTH FROM information_schema.TABLES WHERE TABLE_SCHEMA=DATABASE()");
+        try {
+            while (rs.next ())
+                table2size.put(rs.getString("TABLE_NAME"), rs.getLong("INDEX_LENGTH"));
+        } finally {
+            rs.close();
+        }
+        return table2size;
+    }
+
+    /** Gets number of used (not free) pages of the SQLite database file. */
+    private static long countUsedPagesSQLite(Statement s) throws SQLException {
+        return getPragmaSQLite(s, "page_count") - getPragmaSQLite(s, "freelist_count");
+    }
+
+    private static long getPageSizeSQLite(Statement s) throws SQLException {
+        return getPragmaSQLite(s, "page_size");
+    }
+
+    private static long getPragmaSQLite(Statement s, String pragma) throws SQLException {
+        ResultSet rs = s.executeQuery ("PRAGMA " + pragma);
+        try {
+            return rs.next() ? rs.getLong(1) : 0;
+        } finally {
+            rs.close();
+        }
+    }
+
+    private static String toMB(long bytes) {
+        return String.format("%.1f", bytes/(1024f*1024f));
+    }
+}
@@ -0,0 +1,223 @@
+/* InternTable.java - in-memory map from values to ID of a small table
+ * (labels, quotation authors, sources, etc.) in Wiktionary parsed database.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql;
+
+import wikokit.base.wikipedia.sql.Connect;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Interning cache of a small (dimension) table for one run of the parser:
+ * the map from the value (key) to the ID of the row, instead of
+ * SELECT + INSERT for each value.<br><br>
+ *
+ * The table is read to the map by load() at start. New rows get the next
+ * ID at once, they are written to the table by multi-row INSERT statements
+ * (with explicit ID) every ROWS_PER_INSERT rows and by flush() at the end,
+ * so the table should not be read by other code till the flush().<br><br>
+ *
+ * The key should be equal for values, which are equal for the SELECT
+ * (and for the unique index) of the table, see key(). If a multi-row INSERT
+ * fails (e.g. the unique index is violated), then its rows are inserted
+ * one by one. The ID of a failed row is already written to other tables,
+ * so flush() throws InsertException, and the parsing should be stopped
+ * (the cache doesn't give IDs after that).
+ */
+public class InternTable {
+
+    /** Number of rows in one INSERT statement. */
+    private final static int ROWS_PER_INSERT = 1000;
+
+    /** Rows with given IDs are not stored to the table. */
+    public static class InsertException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public InsertException(String message) {
+            super(message);
+        }
+    }
+
+    /** Reads the key of the row selected by load(). */
+    public interface KeyReader {
+        String read(ResultSet rs) throws SQLException;
+    }
+
+    private final String table;
+
+    /** "INSERT INTO `quot_source` (id,text) VALUES " */
+    private final String insert_prefix;
+
+    private final ConcurrentHashMap<String, Integer> key2id = new ConcurrentHashMap<String, Integer>();
+
+    /** The last given ID (guarded by this). */
+    private int last_id = 0;
+
+    /** Rows "(id,values)" waiting for INSERT (guarded by this). */
+    private final List<String> pending = new ArrayList<String>();
+
+    private int n_inserted = 0;
+
+    /** Number of rows which are not stored (guarded by this). */
+    private int n_failed = 0;
+
+    /** Creates empty cache of the table.
+     *
+     * @param columns   columns (except 'id') of inserted rows, e.g. "name,wikilink"
+     */
+    public InternTable(String table, String columns) {
+        this.table = table;
+        insert_prefix = "INSERT INTO `" + table + "` (id," + columns + ") VALUES ";
+    }
+
+    /** Gets the key of the string value: the first prefix_length chars
+     * (as the index by a prefix of the column) without trailing spaces
+     * (MySQL ignores them in comparison of VARCHAR).
+     *
+     * @param prefix_length length of index prefix, 0 - the whole string
+     */
+    public static String key(String s, int prefix_length) {
+        if(null == s)
+            return "";
+        int end = prefix_length > 0 ? Math.min(prefix_length, s.length()) : s.length();
+        while(end > 0 && ' ' == s.charAt(end - 1))
+            end --;
+        return s.substring(0, end);
+    }
+
+    /** Reads all rows of the table to the map. If several rows have equal
+     * keys, then the row with the least ID is taken.<br><br>
+     * SELECT id,short_name FROM label ORDER BY id
+     *
+     * @param select    "SELECT id,... FROM table", id is the first column
+     */
+    public synchronized void load(Connect connect, String select, KeyReader reader) {
+        String str_sql = select + " ORDER BY id";
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql);
+                try {
+                    while (rs.next ()) {
+                        int id = rs.getInt(1);
+                        key2id.putIfAbsent(reader.read(rs), id);
+                        last_id = Math.max(last_id, id);
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (InternTable.load()):: sql='" + str_sql + "' " + ex.getMessage());
+        }
+    }
+
+    /** Gets ID of the key.
+     * @return 0 if the key is absent
+     */
+    public int getID(String key) {
+        Integer id = key2id.get(key);
+        return null == id ? 0 : id;
+    }
+
+    /** Gives the next ID to the key and adds the row to the pending INSERT
+     * (if the key is absent, else returns the ID of the key).
+     *
+     * @param values    SQL values of columns (except 'id'), e.g. "\"Lib\""
+     * @return ID of the key
+     * @throws InsertException if rows of the table are not stored
+     */
+    public synchronized int insert(Connect connect, String key, String values) {
+        Integer id = key2id.get(key);
+        if(null != id)
+            return id;
+        if(n_failed > 0)
+            throw newInsertException();
+
+        last_id ++;
+        key2id.put(key, last_id);
+        pending.add("(" + last_id + "," + values + ")");
+        if(pending.size() >= ROWS_PER_INSERT)
+            flush(connect);
+        return last_id;
+    }
+
+    /** Gets name of the table. */
+    public String getTableName() {
+        return table;
+    }
+
+    /** Gets number of keys. */
+    public int size() {
+        return key2id.size();
+    }
+
+    /** Gets number of rows inserted into the table by this cache. */
+    public synchronized int getInsertedCount() {
+        return n_inserted;
+    }
+
+    /** Writes pending rows to the table.
+     * @throws InsertException if any row is not stored
+     */
+    public synchronized void flush(Connect connect) {
+        if(pending.isEmpty())
+            return;
+
+        if(connect.isMySQL()) {
+            StringBuilder sb = new StringBuilder(insert_prefix);
+            for(int i=0; i<pending.size(); i++) {
+                if(i > 0)
+                    sb.append(",");
+                sb.append(pending.get(i));
+            }
+            try {
+                executeUpdate(connect, sb.toString());
+                n_inserted += pending.size();
+                pending.clear();
+                return;
+            } catch(SQLException ex) {
+                System.out.println("SQLException (InternTable.flush()):: table=" + table +
+                        "; multi-row insert failed, rows are inserted one by one. " + ex.getMessage());
+            }
+        }
+
+        for(String row : pending) {     // SQLite (3.7) has no multi-row INSERT
+            String str_sql = insert_prefix + row;
+            try {
+                executeUpdate(connect, str_sql);
+                n_inserted ++;
+            } catch(SQLException ex) {
+                System.out.println("SQLException (InternTable.flush()):: sql='" + str_sql + "' " + ex.getMessage());
+                n_failed ++;
+            }
+        }
+        pending.clear();
+        if(n_failed > 0)
+            throw newInsertException();
+    }
+
+    private InsertException newInsertException() {
+        return new InsertException(n_failed + " rows of the table `" + table +
+                "` are not stored, but their IDs are written to other tables.");
+    }
+
+    private static void executeUpdate(Connect connect, String str_sql) throws SQLException {
+        Statement s = connect.conn.createStatement ();
+        try {
+            s.executeUpdate (str_sql);
+        } finally {
+            s.close();
+        }
+    }
+}
@@ -0,0 +1,569 @@
+/* SQLiteBuilder.java - builds read-only SQLite database (for wiwordik,
+ * kiwidict) from the Wiktionary parsed database (MySQL).
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql;
+
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikipedia.sql.Connect;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Converter of the parsed Wiktionary database to the SQLite file for
+ * dictionary applications, instead of the dump + mysql2sqlite.pl +
+ * add_transactions.pl.<br><br>
+ *
+ * (1) Tables are read by JDBC metadata, each table is streamed to SQLite
+ * by one SELECT in transactions of ROWS_PER_TRANSACTION rows; the SQLite
+ * file has page size PAGE_SIZE, journal and sync are off (the file is
+ * rebuilt from scratch after a failure).<br>
+ * (2) Secondary indexes of the source are created after the data, plus
+ * indexes for queries of the applications (see APP_INDEXES): the prefix
+ * search (page_title LIKE 'abc%' uses only an index with NOCASE
+ * collation), the word card and translations (covering indexes by the
+ * parent ID). An index is skipped if its columns are the leading columns
+ * of another index of the table.<br>
+ * (3) ANALYZE and VACUUM.<br>
+ * (4) Optionally the file is split into parts for download, see split().<br><br>
+ *
+ * benchmark() measures the time of these queries in existing and new files.
+ */
+public class SQLiteBuilder {
+
+    /** Number of rows in one transaction. */
+    private final static int ROWS_PER_TRANSACTION = 100000;
+
+    /** Number of rows in one batch of INSERT statements. */
+    private final static int ROWS_PER_BATCH = 1000;
+
+    /** Size of SQLite page in bytes (default is 1024 in SQLite 3.7). */
+    public final static int PAGE_SIZE = 4096;
+
+    /** Indexes for queries of the applications: table, name, columns.
+     * The ID is not included, since 'id INTEGER PRIMARY KEY' is the rowid,
+     * which is a part of each SQLite index.
+     */
+    private final static String[][] APP_INDEXES = {
+        // SELECT ... FROM page WHERE page_title LIKE 'abc%' AND is_redirect is NULL
+        {"page",              "app_page_title_nocase", "page_title COLLATE NOCASE", "is_redirect"},
+        // word card: page -> lang_pos -> meaning -> relation, translation -> translation_entry
+        {"lang_pos",          "app_page_id",        "page_id", "lang_id", "pos_id", "etymology_n", "lemma"},
+        {"meaning",           "app_lang_pos_id",    "lang_pos_id", "meaning_n", "wiki_text_id"},
+        {"relation",          "app_meaning_id",     "meaning_id", "wiki_text_id", "relation_type_id", "meaning_summary"},
+        {"translation",       "app_lang_pos_id",    "lang_pos_id", "meaning_id", "meaning_summary"},
+        {"translation_entry", "app_translation_id", "translation_id", "lang_id", "wiki_text_id"},
+        {"label_meaning",     "app_meaning_id",     "meaning_id", "label_id"},
+        // SELECT ... FROM index_foreign WHERE lang_id=5 AND foreign_word LIKE 'water%'
+        {"index_foreign",     "app_lang_foreign_word_nocase", "lang_id", "foreign_word COLLATE NOCASE",
+                                                "foreign_has_definition", "native_page_title"},
+    };
+
+    /** Index for the prefix search in each table 'index_XX' (and in all
+     * languages of the table 'index_foreign'):
+     * SELECT foreign_word,foreign_has_definition,native_page_title FROM index_en WHERE foreign_word LIKE 'water%' */
+    private final static String[] APP_INDEX_FOREIGN = {"app_foreign_word_nocase",
+                "foreign_word COLLATE NOCASE", "foreign_has_definition", "native_page_title"};
+
+    /** Definition of one index of the SQLite database. */
+    static class IndexDef {
+        final String table;
+        final String name;
+        final List<String> columns;
+
+        IndexDef(String table, String name, List<String> columns) {
+            this.table = table;
+            this.name = name;
+            this.columns = columns;
+        }
+
+        /** CREATE INDEX `page_app_page_title_nocase` ON `page` (page_title COLLATE NOCASE,is_redirect) */
+        String getCreateSQL() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("CREATE INDEX `").append(table).append("_").append(name).append("` ON `").append(table).append("` (");
+            for(int i=0; i<columns.size(); i++) {
+                if(i > 0)
+                    sb.append(",");
+                sb.append(columns.get(i));
+            }
+            return sb.append(")").toString();
+        }
+
+        /** Returns true if the columns of this index are the leading columns of the other index. */
+        boolean isPrefixOf(IndexDef other) {
+            return table.equals(other.table) && columns.size() <= other.columns.size() &&
+                   columns.equals(other.columns.subList(0, columns.size()));
+        }
+    }
+
+    /** Creates the SQLite file from the parsed Wiktionary database
+     * (the file is replaced, if it exists). If any table or index is not
+     * created, then the incomplete file is deleted.
+     *
+     * @param source    Wiktionary parsed database (MySQL)
+     * @param sqlite_filepath path to the result file, e.g. "ruwikt20110521_android.sqlite"
+     * @return true if the file is created
+     */
+    public static boolean build(Connect source, String sqlite_filepath) {
+        long t_start = System.currentTimeMillis();
+
+        File file = new File(sqlite_filepath);
+        if(file.exists() && !file.delete()) {
+            System.out.println("Error (SQLiteBuilder.build()): the file " + sqlite_filepath + " can't be deleted.");
+            return false;
+        }
+
+        Connection target = null;
+        String str_sql = "";
+        boolean b_built = false;
+        try {
+            Class.forName("org.sqlite.JDBC");
+            target = DriverManager.getConnection("jdbc:sqlite:" + sqlite_filepath);
+            Statement s = target.createStatement();
+            try {
+                // page_size should be set before the first table is created
+                for(String pragma : new String[] {"PRAGMA page_size=" + PAGE_SIZE,
+                            "PRAGMA journal_mode=OFF", "PRAGMA synchronous=OFF",
+                            "PRAGMA locking_mode=EXCLUSIVE", "PRAGMA temp_store=MEMORY",
+                            "PRAGMA cache_size=20000"}) {
+                    str_sql = pragma;
+                    s.execute(str_sql);
+                }
+
+                List<IndexDef> indexes = new ArrayList<IndexDef>();
+                for(String table : getTables(source)) {
+                    Map<String, Integer> columns = copyTable(source, target, table);
+                    if(null == columns) {
+                        System.out.println("Error (SQLiteBuilder.build()): the table `" + table + "` is not copied.");
+                        return false;   // the file is deleted below
+                    }
+                    indexes.addAll(getSourceIndexes(source, table));
+                    indexes.addAll(getAppIndexes(table, columns.keySet()));
+                }
+
+                long t_index = System.currentTimeMillis();
+                indexes = removeRedundant(indexes);
+                for(IndexDef index : indexes) {
+                    str_sql = index.getCreateSQL();
+                    s.execute(str_sql);
+                }
+                System.out.println("SQLiteBuilder: indexes: " + indexes.size() + ", time sec:" +
+                                   (System.currentTimeMillis() - t_index)/1000f);
+
+                long t_vacuum = System.currentTimeMillis();
+                str_sql = "ANALYZE";
+                s.execute(str_sql);
+                str_sql = "VACUUM";
+                s.execute(str_sql);
+                System.out.println("SQLiteBuilder: ANALYZE and VACUUM, time sec:" +
+                                   (System.currentTimeMillis() - t_vacuum)/1000f);
+                b_built = true;
+            } finally {
+                s.close();
+            }
+        } catch(ClassNotFoundException ex) {
+            System.out.println("Error (SQLiteBuilder.build()): SQLite JDBC driver is absent. " + ex.getMessage());
+            return false;
+        } catch(SQLException ex) {
+            System.out.println("SQLException (SQLiteBuilder.build()):: sql='" + str_sql + "' " + ex.getMessage());
+            return false;
+        } finally {
+            if (target != null) {   try { target.close(); } catch (SQLException sqlEx) { } }
+            if(!b_built && file.exists() && !file.delete())
+                System.out.println("Error (SQLiteBuilder.build()): the incomplete file " + sqlite_filepath + " can't be deleted.");
+        }
+
+        System.out.println("SQLiteBuilder: " + sqlite_filepath + ", size MB: " + file.length()/(1024*1024) +
+                           ", time sec:" + (System.currentTimeMillis() - t_start)/1000f);
+        return true;
+    }
+
+    /** Gets names of all tables of the database. */
+    private static List<String> getTables(Connect source) throws SQLException {
+        List<String> tables = new ArrayList<String>();
+        DatabaseMetaData meta = source.conn.getMetaData();
+        ResultSet rs = meta.getTables(source.conn.getCatalog(), null, "%", new String[] {"TABLE"});
+        try {
+            while (rs.next ())
+                tables.add(rs.getString("TABLE_NAME"));
+        } finally {
+            rs.close();
+        }
+        return tables;
+    }
+
+    /** Gets SQLite type of the column by JDBC type. Texts are stored in
+     * binary columns (VARCHAR BINARY) of the parsed database, so they are TEXT.
+     */
+    static String getSQLiteType(int sql_type) {
+        switch(sql_type) {
+            case Types.BIT:     case Types.BOOLEAN:
+            case Types.TINYINT: case Types.SMALLINT:
+            case Types.INTEGER: case Types.BIGINT:
+                return "INTEGER";
+            case Types.REAL:    case Types.FLOAT:   case Types.DOUBLE:
+            case Types.DECIMAL: case Types.NUMERIC:
+                return "REAL";
+            case Types.BLOB:
+                return "BLOB";
+            default:
+                return "TEXT";
+        }
+    }
+
+    /** Creates the table in SQLite and copies all rows.
+     * The integer primary key of one column becomes 'INTEGER PRIMARY KEY' (rowid).
+     *
+     * @return map from columns to JDBC types, null in case of error
+     */
+    private static Map<String, Integer> copyTable(Connect source, Connection target, String table) {
+        long t_start = System.currentTimeMillis();
+        Map<String, Integer> columns = new LinkedHashMap<String, Integer>();
+        String str_sql = "";
+        int n_rows = 0;
+        try {
+            DatabaseMetaData meta = source.conn.getMetaData();
+            ResultSet rs = meta.getColumns(source.conn.getCatalog(), null, table, "%");
+            try {
+                while (rs.next ())
+                    columns.put(rs.getString("COLUMN_NAME"), rs.getInt("DATA_TYPE"));
+            } finally {
+                rs.close();
+            }
+
+            List<String> primary_key = new ArrayList<String>();
+            rs = meta.getPrimaryKeys(source.conn.getCatalog(), null, table);
+            try {
+                while (rs.next ())
+                    primary_key.add(rs.getString("COLUMN_NAME"));
+            } finally {
+                rs.close();
+            }
+
+            StringBuilder create = new StringBuilder("CREATE TABLE `").append(table).append("` (");
+            StringBuilder insert = new StringBuilder("INSERT INTO `").append(table).append("` VALUES (");
+            boolean rowid_key = 1 == primary_key.size() &&
+                                "INTEGER".equals(getSQLiteType(columns.get(primary_key.get(0))));
+            int i = 0;
+            for(Map.Entry<String, Integer> c : columns.entrySet()) {
+                if(i++ > 0) {
+                    create.append(",");
+                    insert.append(",");
+                }
+                create.append("`").append(c.getKey()).append("` ").append(getSQLiteType(c.getValue()));
+                if(rowid_key && c.getKey().equals(primary_key.get(0)))
+                    create.append(" PRIMARY KEY");
+                insert.append("?");
+            }
+            if(!rowid_key && !primary_key.isEmpty()) {
+                create.append(",PRIMARY KEY (`");
+                for(int j=0; j<primary_key.size(); j++)
+                    create.append(j > 0 ? "`,`" : "").append(primary_key.get(j));
+                create.append("`)");
+            }
+            create.append(")");
+            insert.append(")");
+
+            str_sql = create.toString();
+            Statement s_target = target.createStatement();
+            try {
+                s_target.execute(str_sql);
+            } finally {
+                s_target.close();
+            }
+
+            int[] types = new int[columns.size()];
+            i = 0;
+            for(int type : columns.values())
+                types[i++] = type;
+
+            str_sql = "SELECT * FROM `" + table + "`";
+            Statement s = source.conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            if(source.isMySQL())
+                s.setFetchSize(Integer.MIN_VALUE);  // streaming of rows by MySQL Connector/J
+            PreparedStatement ps = target.prepareStatement(insert.toString());
+            target.setAutoCommit(false);
+            try {
+                rs = s.executeQuery(str_sql);
+                try {
+                    while (rs.next ()) {
+                        for(int j=0; j<types.length; j++)
+                            setValue(rs, ps, j + 1, types[j]);
+                        ps.addBatch();
+                        n_rows ++;
+                        if(0 == n_rows % ROWS_PER_BATCH)
+                            ps.executeBatch();
+                        if(0 == n_rows % ROWS_PER_TRANSACTION)
+                            target.commit();
+                    }
+                } finally {
+                    rs.close();
+                }
+                ps.executeBatch();
+                target.commit();
+            } finally {
+                target.setAutoCommit(true);
+                ps.close();
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (SQLiteBuilder.copyTable()):: table=" + table + "; rows=" + n_rows +
+                               "; sql='" + str_sql + "' " + ex.getMessage());
+            return null;
+        }
+        System.out.println("SQLiteBuilder: table `" + table + "`, rows: " + n_rows + ", time sec:" +
+                           (System.currentTimeMillis() - t_start)/1000f);
+        return columns;
+    }
+
+    /** Copies the value of the column from the source row to the INSERT. */
+    private static void setValue(ResultSet rs, PreparedStatement ps, int i, int sql_type) throws SQLException {
+        String type = getSQLiteType(sql_type);
+        if("INTEGER".equals(type)) {
+            long value = rs.getLong(i);
+            if(rs.wasNull())
+                ps.setNull(i, Types.INTEGER);
+            else
+                ps.setLong(i, value);
+        } else if("REAL".equals(type)) {
+            double value = rs.getDouble(i);
+            if(rs.wasNull())
+                ps.setNull(i, Types.REAL);
+            else
+                ps.setDouble(i, value);
+        } else {
+            byte[] value = rs.getBytes(i);
+            if(null == value)
+                ps.setNull(i, Types.VARCHAR);
+            else if("BLOB".equals(type))
+                ps.setBytes(i, value);
+            else
+                ps.setString(i, Encodings.bytesToUTF8(value));
+        }
+    }
+
+    /** Gets secondary indexes of the source table (without prefix lengths,
+     * unique indexes become ordinary ones, since the database is read-only). */
+    private static List<IndexDef> getSourceIndexes(Connect source, String table) throws SQLException {
+        Map<String, List<String>> name2columns = new LinkedHashMap<String, List<String>>();
+        DatabaseMetaData meta = source.conn.getMetaData();
+        ResultSet rs = meta.getIndexInfo(source.conn.getCatalog(), null, table, false, false);
+        try {
+            while (rs.next ()) {
+                String name = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if(null == name || null == column || name.equals("PRIMARY") ||
+                   name.startsWith("sqlite_autoindex_"))
+                    continue;
+                if(!name2columns.containsKey(name))
+                    name2columns.put(name, new ArrayList<String>());
+                name2columns.get(name).add(column);     // rows are ordered by ORDINAL_POSITION
+            }
+        } finally {
+            rs.close();
+        }
+
+        List<IndexDef> result = new ArrayList<IndexDef>();
+        for(Map.Entry<String, List<String>> e : name2columns.entrySet()) {
+            String name = e.getKey();
+            if(name.startsWith(table + "_"))    // source is SQLite built by mysql2sqlite
+                name = name.substring(table.length() + 1);
+            result.add(new IndexDef(table, name, e.getValue()));
+        }
+        return result;
+    }
+
+    /** Gets indexes for queries of the applications, which could be created
+     * in the table with these columns. */
+    static List<IndexDef> getAppIndexes(String table, java.util.Collection<String> columns) {
+        List<String[]> defs = new ArrayList<String[]>();
+        for(String[] def : APP_INDEXES) {
+            if(def[0].equals(table))
+                defs.add(Arrays.copyOfRange(def, 1, def.length));
+        }
+        if(table.startsWith("index_") && !table.equals("index_native"))
+            defs.add(APP_INDEX_FOREIGN);
+
+        List<IndexDef> result = new ArrayList<IndexDef>();
+        for(String[] def : defs) {
+            List<String> index_columns = Arrays.asList(Arrays.copyOfRange(def, 1, def.length));
+            boolean has_columns = true;
+            for(String c : index_columns)
+                has_columns &= columns.contains(c.split(" ")[0]);
+            if(has_columns)
+                result.add(new IndexDef(table, def[0], index_columns));
+        }
+        return result;
+    }
+
+    /** Removes indexes, which columns are the leading columns of other
+     * indexes of the table (the first of equal indexes is kept). */
+    static List<IndexDef> removeRedundant(List<IndexDef> indexes) {
+        List<IndexDef> result = new ArrayList<IndexDef>();
+        for(int i=0; i<indexes.size(); i++) {
+            IndexDef a = indexes.get(i);
+            boolean redundant = false;
+            for(int j=0; j<indexes.size() && !redundant; j++) {
+                IndexDef b = indexes.get(j);
+                if(i != j && a.isPrefixOf(b))
+                    redundant = a.columns.size() < b.columns.size() || j < i;
+            }
+            if(!redundant)
+                result.add(a);
+        }
+        return result;
+    }
+
+    /** Gets name of the part of the database file, the number is inserted
+     * as in kiwidict: "enwikt20111008_android.sqlite" ->
+     * "enwikt20111008_part1_android.sqlite", "a.sqlite" -> "a_part1.sqlite".
+     *
+     * @param n number of the part, from 1
+     */
+    public static String getPartFilename(String filename, int n) {
+        String part = "_part" + n;
+        for(String suffix : new String[] {"_android.sqlite", ".sqlite"}) {
+            if(filename.endsWith(suffix))
+                return filename.substring(0, filename.length() - suffix.length()) + part + suffix;
+        }
+        return filename + part;
+    }
+
+    /** Splits the file into parts of part_size bytes (the last part is
+     * smaller), the parts are concatenated after download.
+     *
+     * @return files of the parts
+     */
+    public static List<File> split(File file, long part_size) throws IOException {
+        List<File> parts = new ArrayList<File>();
+        byte[] buffer = new byte[1 << 20];
+        InputStream in = new FileInputStream(file);
+        try {
+            int n_read = in.read(buffer);
+            while(n_read > 0) {
+                File part = new File(file.getParentFile(), getPartFilename(file.getName(), parts.size() + 1));
+                parts.add(part);
+                OutputStream out = new FileOutputStream(part);
+                try {
+                    long written = 0;
+                    while(n_read > 0 && written < part_size) {
+                        int n = (int)Math.min(n_read, part_size - written);
+                        out.write(buffer, 0, n);
+                        written += n;
+                        if(n < n_read) {    // the rest of the buffer goes to the next part
+                            System.arraycopy(buffer, n, buffer, 0, n_read - n);
+                            n_read -= n;
+                        } else
+                            n_read = in.read(buffer);
+                    }
+                } finally {
+                    out.close();
+                }
+            }
+        } finally {
+            in.close();
+        }
+        return parts;
+    }
+
+    /** Measures the time of typical queries of the applications in the
+     * SQLite file and prints it: prefix search of words, word card
+     * (page, lang_pos, meaning, wiki_text, relation), translations.
+     *
+     * @param words     words for the search, e.g. {"water", "дом"}
+     * @param n_repeat  number of repetitions of each query
+     */
+    public static void benchmark(String sqlite_filepath, String[] words, int n_repeat) {
+        String str_sql = "";
+        try {
+            Class.forName("org.sqlite.JDBC");
+            Connection conn = DriverManager.getConnection("jdbc:sqlite:" + sqlite_filepath);
+            try {
+                Statement s = conn.createStatement();
+                try {
+                    long t_prefix = 0, t_card = 0, t_translation = 0;
+                    int n_rows = 0;
+                    for(int r=0; r<n_repeat; r++) {
+                        for(String word : words) {
+                            String w = word.replace("'", "''");
+
+                            long t = System.nanoTime();
+                            str_sql = "SELECT id,page_title,word_count,wiki_link_count,is_in_wiktionary,is_redirect,redirect_target " +
+                                      "FROM page WHERE page_title LIKE '" + w + "%' AND is_redirect is NULL LIMIT 50";
+                            n_rows += count(s, str_sql);
+                            t_prefix += System.nanoTime() - t;
+
+                            t = System.nanoTime();
+                            str_sql = "SELECT meaning.id,wiki_text.text FROM page,lang_pos,meaning " +
+                                      "LEFT JOIN wiki_text ON wiki_text.id=meaning.wiki_text_id " +
+                                      "WHERE page.page_title='" + w + "' AND lang_pos.page_id=page.id AND meaning.lang_pos_id=lang_pos.id";
+                            n_rows += count(s, str_sql);
+                            str_sql = "SELECT relation.relation_type_id,wiki_text.text FROM page,lang_pos,meaning,relation,wiki_text " +
+                                      "WHERE page.page_title='" + w + "' AND lang_pos.page_id=page.id AND meaning.lang_pos_id=lang_pos.id " +
+                                      "AND relation.meaning_id=meaning.id AND wiki_text.id=relation.wiki_text_id";
+                            n_rows += count(s, str_sql);
+                            t_card += System.nanoTime() - t;
+
+                            t = System.nanoTime();
+                            str_sql = "SELECT translation_entry.lang_id,wiki_text.text FROM page,lang_pos,translation,translation_entry,wiki_text " +
+                                      "WHERE page.page_title='" + w + "' AND lang_pos.page_id=page.id AND translation.lang_pos_id=lang_pos.id " +
+                                      "AND translation_entry.translation_id=translation.id AND wiki_text.id=translation_entry.wiki_text_id";
+                            n_rows += count(s, str_sql);
+                            t_translation += System.nanoTime() - t;
+                        }
+                    }
+                    float n = (float)n_repeat * words.length * 1000000f;   // ms per word
+                    System.out.println("SQLiteBuilder.benchmark(): " + sqlite_filepath +
+                            ", size MB: " + new File(sqlite_filepath).length()/(1024*1024) +
+                            "\n  prefix search, ms: " + t_prefix/n +
+                            "\n  word card, ms: " + t_card/n +
+                            "\n  translations, ms: " + t_translation/n +
+                            "\n  rows: " + n_rows);
+                } finally {
+                    s.close();
+                }
+            } finally {
+                conn.close();
+            }
+        } catch(ClassNotFoundException ex) {
+            System.out.println("Error (SQLiteBuilder.benchmark()): SQLite JDBC driver is absent. " + ex.getMessage());
+        } catch(SQLException ex) {
+            System.out.println("SQLException (SQLiteBuilder.benchmark()):: sql='" + str_sql + "' " + ex.getMessage());
+        }
+    }
+
+    /** Reads all rows of the query, returns the number of rows. */
+    private static int count(Statement s, String str_sql) throws SQLException {
+        int n = 0;
+        ResultSet rs = s.executeQuery(str_sql);
+        try {
+            while (rs.next ()) {
+                rs.getString(2);
+                n ++;
+            }
+        } finally {
+            rs.close();
+        }
+        return n;
+    }
+}
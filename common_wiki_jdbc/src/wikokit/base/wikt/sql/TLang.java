@@ -323,6 +323,8 @@ public class TLang {
      * For native language calculates only  (1) n_foreign_POS by data from
      * the table 'index_native'. (In really it's a number of native POS.)
      *
+     * The table 'index_foreign' (instead of index_XX) is read by one grouped query.
+     *
      * REM: this func should be called after the a creation of Wiktionary
      * parsed database, and the tables should be filled with data.
      *
@@ -335,11 +337,19 @@ public class TLang {
         System.out.println("Fill table `lang` by statistics from index_XX tables...");
 
         // foreign languages statistics
+        Map<LanguageType, int[]> lang2counts = IndexForeign.countByLanguages(connect);
         for(LanguageType lt : lang2id.keySet()) {
             if(native_lang != lt) {
 
-                int n_foreign_POS = IndexForeign.countNumberOfForeignPOS(connect, lt);
-                int n_translations = IndexForeign.countTranslations(connect, lt);
+                int n_foreign_POS, n_translations;
+                if(null != lang2counts) {
+                    int[] counts = lang2counts.get(lt);
+                    n_foreign_POS  = null == counts ? 0 : counts[0];
+                    n_translations = null == counts ? 0 : counts[1];
+                } else {
+                    n_foreign_POS = IndexForeign.countNumberOfForeignPOS(connect, lt);
+                    n_translations = IndexForeign.countTranslations(connect, lt);
+                }
 
                 update(connect, lt, n_foreign_POS, n_translations);
             }
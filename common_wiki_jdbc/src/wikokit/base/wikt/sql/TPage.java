@@ -16,6 +16,9 @@ import wikokit.base.wikipedia.language.Encodings;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Iterator;
+import wikokit.base.wikt.sql.index.PageFacets;
+import wikokit.base.wikt.sql.index.TitleIndex;
 
 import java.sql.*;
 
@@ -522,6 +525,103 @@ public class TPage {
         return ((TPage[])tp_list.toArray(NULL_TPAGE_ARRAY));
     }
 
+    /** Selects pages WHERE page_title starts from 'prefix' (or matches
+     * the wildcard pattern) with the help of the title index, i.e. 
+     * the search itself is performed without SQL, only found pages are read 
+     * from the table 'page'. Filtering by definitions, semantic relations 
+     * and languages is the same as in getByPrefix(), but the result list 
+     * contains exactly 'limit' pages (if there are enough such pages), 
+     * since the index is read while the filtered list is not full.
+     *
+     * @param  title_index  index of the table 'page' (TitleIndex.createNative())
+     * @param  limit    constraint of the number of rows returned,
+     *                  if it has a negative value then the constraint is omitted
+     * @param  prefix   the begining of the page_titles, or the pattern with 
+     *                  wildcards '*' and '?'
+     * @return empty array if there are no such pages
+     */
+    public static TPage[] getByPrefix (
+                                        Connect connect, TitleIndex title_index,
+                                        String prefix,
+                                        int limit, boolean b_skip_redirects,
+                                        TLang source_lang[],
+                                                                boolean b_meaning,
+                                                                boolean b_sem_rel
+                                       )
+    {
+        return getByPrefix(connect, title_index, null, prefix, limit, b_skip_redirects,
+                           source_lang, new TLang[0], b_meaning, b_sem_rel);
+    }
+
+    /** Selects pages WHERE page_title starts from 'prefix' (or matches
+     * the wildcard pattern) with the help of the title index and 
+     * precomputed facets. Pages are filtered by facets before they are 
+     * read from the database, so only resulting pages are read.
+     *
+     * @param  title_index  index of the table 'page' (TitleIndex.createNative())
+     * @param  facets   precomputed filters (PageFacets.create()), if null
+     *                  then pages are read and filtered one by one
+     * @param  limit    constraint of the number of rows returned,
+     *                  if it has a negative value then the constraint is omitted
+     * @param  prefix   the begining of the page_titles, or the pattern with 
+     *                  wildcards '*' and '?'
+     * @param  source_lang pages filtering for words with these languages
+     * @param  trans_lang  pages filtering for words with translations into 
+     *                  these languages
+     * @return empty array if there are no such pages
+     */
+    public static TPage[] getByPrefix (
+                                        Connect connect, TitleIndex title_index,
+                                        PageFacets facets,
+                                        String prefix,
+                                        int limit, boolean b_skip_redirects,
+                                        TLang source_lang[],
+                                        TLang trans_lang[],
+                                                                boolean b_meaning,
+                                                                boolean b_sem_rel
+                                       )
+    {
+        if(0==limit)
+            return NULL_TPAGE_ARRAY;
+
+        List<TPage> tp_list = new ArrayList<TPage>();
+        Iterator<TitleIndex.Entry> it = title_index.search(prefix);
+        while(it.hasNext() && (limit < 0 || tp_list.size() < limit)) {
+            TitleIndex.Entry e = it.next();
+            if(b_skip_redirects && e.isRedirect())
+                continue;
+
+            if(null != facets && 
+               !facets.accept(e.getID(), b_meaning, b_sem_rel, source_lang, trans_lang))
+                continue;
+
+            TPage tp = getByID(connect, e.getID());
+            if(null == tp)
+                continue;
+
+            tp.lang_pos = TLangPOS.getRecursive(connect, tp);
+
+            boolean b_add = true;
+            if(null == facets) {
+                if(b_meaning)
+                    b_add = b_add && tp.hasDefinition();
+
+                if(b_sem_rel)
+                    b_add = b_add && tp.hasSemanticRelation();
+
+                if(source_lang.length > 0)
+                    b_add = b_add && tp.hasLanguage(source_lang);
+
+                if(trans_lang.length > 0)
+                    b_add = b_add && tp.hasTranslation(trans_lang);
+            }
+
+            if(b_add)
+                tp_list.add(tp);
+        }
+        return ((TPage[])tp_list.toArray(NULL_TPAGE_ARRAY));
+    }
+
     /** Deletes row from the table 'page' by the page_title.
      *
      *  DELETE FROM page WHERE page_title="apple";
@@ -0,0 +1,125 @@
+/* TParseQuarantine.java - SQL operations with the table 'parse_quarantine'
+ * in Wiktionary parsed database.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql;
+
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikipedia.sql.Connect;
+import java.sql.*;
+import java.util.List;
+import java.util.ArrayList;
+
+/** An operations with the table 'parse_quarantine' in MySQL
+ * wiktionary_parsed database.
+ *
+ * The table contains Wiktionary entries which were not parsed, since
+ * the parser exceeded the time or memory budget (or failed) on them.
+ * These pages were listed by hand in PageTableAll.debug_pages before.
+ */
+public class TParseQuarantine {
+
+    /** Creates the table if it is absent (old databases have no this table).
+     * The table is described in wikt_parser/doc/wikt_parsed_empty.sql.
+     */
+    public static void createTable(Connect connect) {
+
+        StringBuilder str_sql = new StringBuilder();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                str_sql.append("CREATE TABLE IF NOT EXISTS parse_quarantine (" +
+                    "`id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT," +
+                    "`page_title` VARCHAR(255) BINARY NOT NULL," +
+                    "`reason` VARCHAR(15) NOT NULL," +
+                    "`elapsed_ms` INT(10) UNSIGNED NOT NULL," +
+                    "`allocated_bytes` BIGINT UNSIGNED NOT NULL," +
+                    "`message` VARCHAR(1023) NULL," +
+                    "PRIMARY KEY (`id`)," +
+                    "INDEX `page_title` (`page_title` (7) ASC) )" +
+                    "ENGINE = InnoDB"
+                );
+                s.execute (str_sql.toString());
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TParseQuarantine.createTable()): sql='" + str_sql + "' " + ex.getMessage());
+        }
+    }
+
+    /** Inserts record into the table 'parse_quarantine'.<br><br>
+     * INSERT INTO parse_quarantine (page_title,reason,elapsed_ms,allocated_bytes,message) VALUES ("apple","TIME",10020,52428800,"...");
+     *
+     * @param page_title    title of the entry which was not parsed
+     * @param reason        TIME, MEMORY, CANCELLED or ERROR
+     * @param elapsed_ms    time spent by the parser
+     * @param allocated_bytes memory allocated by the parser, 0 if unknown
+     * @param message       message of the exception, it could be null
+     */
+    public static void insert (Connect connect,String page_title,String reason,
+                            long elapsed_ms,long allocated_bytes,String message) {
+
+        StringBuilder str_sql = new StringBuilder();
+        try
+        {
+            Statement s = connect.conn.createStatement ();
+            try {
+                str_sql.append("INSERT INTO parse_quarantine (page_title,reason,elapsed_ms,allocated_bytes,message) VALUES (\"");
+                str_sql.append(PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, page_title));
+                str_sql.append("\",\"");
+                str_sql.append(reason);
+                str_sql.append("\",");
+                str_sql.append(elapsed_ms);
+                str_sql.append(",");
+                str_sql.append(allocated_bytes);
+                str_sql.append(",");
+                if(null == message) {
+                    str_sql.append("NULL");
+                } else {
+                    if(message.length() > 1023)
+                        message = message.substring(0, 1023);
+                    str_sql.append("\"");
+                    str_sql.append(PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, message));
+                    str_sql.append("\"");
+                }
+                str_sql.append(")");
+                s.executeUpdate (str_sql.toString());
+            } finally {
+                s.close();
+            }
+        }catch(SQLException ex) {
+            System.out.println("SQLException (TParseQuarantine.insert()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+    }
+
+    /** Gets titles of the quarantined entries, e.g. in order to parse them
+     * again with a bigger budget.<br><br>
+     * SELECT page_title FROM parse_quarantine ORDER BY id;
+     */
+    public static String[] getPageTitles (Connect connect) {
+
+        List<String> titles = new ArrayList<String>();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery ("SELECT page_title FROM parse_quarantine ORDER BY id");
+                try {
+                    while (rs.next ())
+                        titles.add(Encodings.bytesToUTF8(rs.getBytes("page_title")));
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TParseQuarantine.getPageTitles()): " + ex.getMessage());
+        }
+        return titles.toArray(new String[0]);
+    }
+}
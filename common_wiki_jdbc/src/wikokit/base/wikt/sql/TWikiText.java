@@ -13,6 +13,7 @@ import wikokit.base.wikt.util.WikiWord;
 
 import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.util.TextHash;
 import java.sql.*;
 
 /** An operations with the table 'wiki_text' in MySQL wiktionary_parsed database.
@@ -24,6 +25,9 @@ import java.sql.*;
  * text3 = [[ум]], [[интеллект]]
  * Decision: add only text3 to the table, becaus it has max wiki_words=2.
  * ?Automatic recommendations to wikify text1 & text2 in Wiktionary?
+ *
+ * Rows are searched by the 64-bit hash of the text (wiki_text.text_hash,
+ * see TextHash), the text itself is compared only for rows with this hash.
  */
 public class TWikiText {
 
@@ -91,8 +95,8 @@ public class TWikiText {
         if(null == twiki_text)
             twiki_text = TWikiText.insert(connect, visible_text, wikified_text);
         
-        if(null == twiki_text) { // if two very long wiki_text has the same 100 first symbols
-            System.out.println("Error: (wikt_parsed TWikiText.storeToDB()):: two very long wiki_text has the same 100 first symbols. Insertion failed. wiki_text='" + wiki_text.getVisibleText());
+        if(null == twiki_text) {
+            System.out.println("Error: (wikt_parsed TWikiText.storeToDB()):: insertion failed. wiki_text='" + wiki_text.getVisibleText());
             return null;
         }
 
@@ -104,7 +108,7 @@ public class TWikiText {
     }
 
     /** Inserts record into the table 'wiki_text'.<br><br>
-     * INSERT INTO wiki_text (text, wikified_text) VALUES ("apple", "[[apple]]");
+     * INSERT INTO wiki_text (text,text_hash,wikified_text) VALUES ("apple",5542024418478591605,"[[apple]]");
      * @param text      text (without wikification)
      * @param text      wikified_text (with wikification)
      * 
@@ -122,15 +126,20 @@ public class TWikiText {
             Statement s = connect.conn.createStatement ();
             try {
                 String safe_text = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, text);
+                long text_hash = TextHash.hash64(text);
                 
                 if(null == wikified_text) {
-                    str_sql.append("INSERT INTO wiki_text (text) VALUES (\"");
+                    str_sql.append("INSERT INTO wiki_text (text,text_hash) VALUES (\"");
                     str_sql.append(safe_text);
-                    str_sql.append("\")");
+                    str_sql.append("\",");
+                    str_sql.append(text_hash);
+                    str_sql.append(")");
                 } else {
-                    str_sql.append("INSERT INTO wiki_text (text,wikified_text) VALUES (\"");
+                    str_sql.append("INSERT INTO wiki_text (text,text_hash,wikified_text) VALUES (\"");
                     str_sql.append(safe_text);
-                    str_sql.append("\",\"");
+                    str_sql.append("\",");
+                    str_sql.append(text_hash);
+                    str_sql.append(",\"");
 
                     String wikified_safe_text = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, wikified_text);
                     str_sql.append(wikified_safe_text);
@@ -156,8 +165,10 @@ public class TWikiText {
         return wiki_text;
     }
 
-    /** Selects row from the table 'wiki_text' by a text.<br><br>
-     *  SELECT id,wikified_text FROM wiki_text WHERE text="apple";
+    /** Selects row from the table 'wiki_text' by a text.
+     * Rows are found by the hash of the text, then the texts are compared,
+     * since different texts could have the same hash.<br><br>
+     *  SELECT id,text,wikified_text FROM wiki_text WHERE text_hash=5542024418478591605;
      * @param  text  text (without wikification).
      * @return null if text is absent
      */
@@ -169,18 +180,15 @@ public class TWikiText {
         try {
             Statement s = connect.conn.createStatement ();
             try {
-                String safe_title = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, text);
-// new          
-                str_sql.append("SELECT id,wikified_text FROM wiki_text WHERE text=\"");
-// old temp:
-                //str_sql.append("SELECT id,text FROM wiki_text WHERE text=\"");
-                
-                str_sql.append(safe_title);
-                str_sql.append("\"");
+                str_sql.append("SELECT id,text,wikified_text FROM wiki_text WHERE text_hash=");
+                str_sql.append(TextHash.hash64(text));
                 ResultSet rs = s.executeQuery (str_sql.toString());
                 try {
-                    if (rs.next ())
+                    while (null == wiki_text && rs.next ())
                     {
+                        if(!text.equals(Encodings.bytesToUTF8(rs.getBytes("text"))))
+                            continue;   // collision of hashes
+
                         int id = rs.getInt("id");
 // new                  
                         byte[] bb = rs.getBytes("wikified_text");
@@ -285,7 +293,7 @@ public class TWikiText {
     }
 
     /** Deletes row from the table 'wiki_text' by a value of a text string (without wikification).<br><br>
-     * DELETE FROM wiki_text WHERE wiki_text="wiki_text";
+     * DELETE FROM wiki_text WHERE text_hash=-5031463299363440413 AND text="wiki_text";
      * @param  wiki_text  wiki text (without wikification)
      */
     public static void delete (Connect connect,String text) {
@@ -299,7 +307,9 @@ public class TWikiText {
         try {
             Statement s = connect.conn.createStatement ();
             try {
-                str_sql.append("DELETE FROM wiki_text WHERE text=\"");
+                str_sql.append("DELETE FROM wiki_text WHERE text_hash=");
+                str_sql.append(TextHash.hash64(text));
+                str_sql.append(" AND text=\"");
                 str_sql.append( PageTableBase.convertToSafeStringEncodeToDBWunderscore(
                                 connect, text));
                 str_sql.append('"');
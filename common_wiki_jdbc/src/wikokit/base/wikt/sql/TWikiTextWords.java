@@ -37,6 +37,11 @@ public class TWikiTextWords {
     private final static TWikiText[]      NULL_TWIKITEXT_ARRAY      = new TWikiText[0];
     private final static TWikiTextWords[] NULL_TWIKITEXTWORDS_ARRAY = new TWikiTextWords[0];
 
+    /** Spill file of the deferred mode: wiki words are written there by
+     * storeToDB() and they are stored to the tables after parsing,
+     * see WikiTextWordsSpill.resolve(). If null, then wiki words are stored at once. */
+    private static WikiTextWordsSpill spill = null;
+
     public TWikiTextWords(int _id,TWikiText _wiki_text,TPage _page,TPageInflection _page_inflection) {
         id              = _id;
         wiki_text       = _wiki_text;
@@ -84,6 +89,17 @@ public class TWikiTextWords {
     }
 
     
+    /** Sets the spill file of the deferred mode, null - stores the wiki words
+     * to the tables at once (default). */
+    public static void setSpill(WikiTextWordsSpill _spill) {
+        spill = _spill;
+    }
+
+    /** Gets the spill file of the deferred mode, or null. */
+    public static WikiTextWordsSpill getSpill() {
+        return spill;
+    }
+
     /** If this word is absent in the table 'wiki_text_words' then
      * inserts records into tables:
      * 'wiki_text_words',
@@ -106,6 +122,12 @@ public class TWikiTextWords {
         
         if(word_link.length() == 0) return;
 
+        WikiTextWordsSpill s = spill;
+        if(null != s) {     // deferred mode: the word will be stored after parsing
+            s.add(twiki_text.getID(), word_link, word_visible);
+            return;
+        }
+
         // fill table 'page'
         int word_count = 0;
         int wiki_link_count = 0;
@@ -0,0 +1,149 @@
+/* TextHashMigration.java - adds and fills the column 'text_hash' of the tables
+ * 'wiki_text' and 'quote' in Wiktionary parsed database created before it.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql;
+
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.util.TextHash;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/** Migration of the database to the search of long texts by hash.<br><br>
+ *
+ * For each table ('wiki_text', 'quote'):
+ * (1) adds the column text_hash BIGINT (if it is absent),
+ * (2) calculates TextHash.hash64(text) of each row (rows are read by
+ * ranges of id),
+ * (3) creates the index idx_text_hash, the index by a prefix of the text
+ * wiki_text.idx_text is dropped, since it isn't used anymore.<br><br>
+ *
+ * The migration could be repeated, e.g. after the failure (then MySQL errors
+ * about the absent index idx_text and the existing idx_text_hash are expected).
+ */
+public class TextHashMigration {
+
+    /** Tables with the columns 'text' and 'text_hash'. */
+    public final static String[] TABLES = {"wiki_text", "quote"};
+
+    /** Number of rows in one SELECT and in one batch of UPDATE statements. */
+    private final static int ROWS_PER_SELECT = 10000;
+
+    /** Migrates all tables with the column 'text_hash'. */
+    public static void migrateAll(Connect connect) {
+        for(String table : TABLES)
+            migrate(connect, table);
+    }
+
+    /** Adds and fills the column 'text_hash' of the table, creates the index.
+     *
+     * @param table 'wiki_text' or 'quote'
+     * @return number of updated rows
+     */
+    public static int migrate(Connect connect, String table) {
+        long t_start = System.currentTimeMillis();
+
+        if(!hasColumnTextHash(connect, table))
+            execute(connect, "ALTER TABLE `" + table + "` ADD COLUMN text_hash BIGINT NOT NULL DEFAULT 0");
+
+        int n_rows = fillTextHash(connect, table);
+
+        if(connect.isMySQL()) {
+            if(table.equals("wiki_text"))
+                execute(connect, "ALTER TABLE `wiki_text` DROP INDEX `idx_text`");
+            execute(connect, "ALTER TABLE `" + table + "` ADD INDEX `idx_text_hash` (`text_hash`)");
+        } else {    // names of indexes as in mysql2sqlite: table_index
+            if(table.equals("wiki_text"))
+                execute(connect, "DROP INDEX IF EXISTS `wiki_text_idx_text`");
+            execute(connect, "CREATE INDEX IF NOT EXISTS `" + table + "_idx_text_hash` ON `" + table + "` (`text_hash`)");
+        }
+
+        float t_work = (System.currentTimeMillis() - t_start)/1000f;
+        System.out.println("TextHashMigration: table `" + table + "`, rows: " + n_rows + ", time sec:" + t_work);
+        return n_rows;
+    }
+
+    /** Checks whether the table has the column 'text_hash'.<br><br>
+     * SELECT text_hash FROM wiki_text LIMIT 1;
+     */
+    private static boolean hasColumnTextHash(Connect connect, String table) {
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                s.executeQuery ("SELECT text_hash FROM `" + table + "` LIMIT 1").close();
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            return false;
+        }
+        return true;
+    }
+
+    /** Calculates text_hash of all rows, the table is read by ranges of id.<br><br>
+     * SELECT id,text FROM wiki_text WHERE id>10000 ORDER BY id LIMIT 10000;
+     * UPDATE wiki_text SET text_hash=5542024418478591605 WHERE id=10001;
+     */
+    private static int fillTextHash(Connect connect, String table) {
+        int n_total = 0;
+        int last_id = 0;
+        StringBuilder str_sql = new StringBuilder();
+        try {
+            boolean auto_commit = connect.conn.getAutoCommit();
+            Statement s = connect.conn.createStatement ();
+            Statement s_update = connect.conn.createStatement ();
+            try {
+                connect.conn.setAutoCommit(false);
+                int n_rows;
+                do {
+                    n_rows = 0;
+                    str_sql.setLength(0);
+                    str_sql.append("SELECT id,text FROM `").append(table).append("` WHERE id>").append(last_id);
+                    str_sql.append(" ORDER BY id LIMIT ").append(ROWS_PER_SELECT);
+                    ResultSet rs = s.executeQuery (str_sql.toString());
+                    try {
+                        while (rs.next ()) {
+                            last_id = rs.getInt("id");
+                            String text = Encodings.bytesToUTF8(rs.getBytes("text"));
+                            s_update.addBatch("UPDATE `" + table + "` SET text_hash=" + TextHash.hash64(text) +
+                                              " WHERE id=" + last_id);
+                            n_rows ++;
+                        }
+                    } finally {
+                        rs.close();
+                    }
+                    s_update.executeBatch();
+                    connect.conn.commit();
+                    n_total += n_rows;
+                } while(ROWS_PER_SELECT == n_rows);
+            } finally {
+                s.close();
+                s_update.close();
+                connect.conn.setAutoCommit(auto_commit);
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TextHashMigration.fillTextHash()):: table=" + table + "; last id=" + last_id +
+                               "; sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+        return n_total;
+    }
+
+    private static void execute(Connect connect, String str_sql) {
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                s.execute (str_sql);
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TextHashMigration.execute()):: sql='" + str_sql + "' " + ex.getMessage());
+        }
+    }
+}
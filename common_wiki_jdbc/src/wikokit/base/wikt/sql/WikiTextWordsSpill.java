@@ -0,0 +1,662 @@
+/* WikiTextWordsSpill.java - deferred resolution of wiki words of the table
+ * 'wiki_text_words' in Wiktionary parsed database.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql;
+
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikipedia.util.ExternalSorter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.*;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/** Two-phase filling of the table 'wiki_text_words' (and 'page',
+ * 'inflection', 'page_inflection' for the wikified words).<br><br>
+ *
+ * Phase one (parsing): TWikiTextWords.storeToDB() writes the record
+ * (wiki_text_id, page title, inflection) to the spill file instead of
+ * lookups in the growing tables 'page' and 'page_inflection'.<br>
+ *
+ * Phase two ({@link #resolve(Connect)}, after parsing): the records are
+ * sorted by page title (external sort), and they are merged with the sorted
+ * titles of the table 'page'; absent pages are created. The same is done
+ * for inflections and pairs (page, inflection). At last the records are
+ * inserted into 'wiki_text_words' by multi-row INSERT statements.
+ * So the random lookups are replaced by the sequential reading of the tables
+ * and the sorted files.<br><br>
+ *
+ * The IDs of new rows are assigned here. If a multi-row INSERT fails, then
+ * its rows are inserted one by one, and the records which refer to the
+ * rows failed anyway are skipped in the next phases.<br><br>
+ *
+ * Differences from TWikiTextWords.storeToDB():
+ * (1) the pages created for wikified words have is_in_wiktionary=FALSE,
+ * the existing pages are not changed;
+ * (2) duplicated records are removed in the spill only, the records stored
+ * in the table 'wiki_text_words' before are not checked, so the deferred
+ * mode is intended for the parsing into a cleared database.
+ *
+ * @see TWikiTextWords#setSpill(WikiTextWordsSpill)
+ */
+public class WikiTextWordsSpill {
+
+    /** Number of records sorted in memory. */
+    private final static int MAX_RECORDS_IN_MEMORY = 1000000;
+
+    /** Number of rows in one INSERT statement. */
+    private final static int ROWS_PER_INSERT = 1000;
+
+    /** Number of rows in one SELECT of a table, the table is read by ranges of id. */
+    private final static int ROWS_PER_SELECT = 10000;
+
+    /** Max length of page title and inflected form, VARCHAR(255). */
+    private final static int MAX_TITLE_LENGTH = 255;
+
+    /** Spill file and temporary files of the sorter are stored there. */
+    private final File tmp_dir;
+
+    private final File file;
+    private DataOutputStream out;
+
+    /** Number of records in the spill file. */
+    private long count = 0;
+
+    /** Number of skipped words with too long title or inflection. */
+    private long skipped = 0;
+
+    /** Wikified word: link from wiki_text to page (and inflection).
+     * The fields are filled in step by step in phase two.
+     */
+    private static class Link {
+        int    wiki_text_id;
+        String page_title;
+        String inflection;  // null if the visible word is the page title
+        int    page_id;
+        int    inflection_id;
+        int    page_inflection_id;
+    }
+
+    /** Creates the spill file in the directory tmp_dir (null - default
+     * temporary-file directory). */
+    public WikiTextWordsSpill(File tmp_dir) throws IOException {
+        this.tmp_dir = tmp_dir;
+        file = File.createTempFile("wiki_text_words", ".spill", tmp_dir);
+        file.deleteOnExit();
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+    }
+
+    /** Gets number of records in the spill file. */
+    public long size() {
+        return count;
+    }
+
+    /** Writes the wiki word to the spill file (phase one).
+     *
+     * @param wiki_text_id  ID of the record in the table 'wiki_text'
+     * @param page_title    link of the wiki word, page title (lemma)
+     * @param word_visible  visible text of the wiki word, inflection
+     */
+    public synchronized void add(int wiki_text_id, String page_title, String word_visible) {
+        if(null == out)
+            throw new IllegalStateException("WikiTextWordsSpill.add(): the spill file is closed.");
+
+        String inflection = 0 == page_title.compareTo(word_visible) || 0 == word_visible.length()
+                          ? null : word_visible;
+        if(page_title.length() > MAX_TITLE_LENGTH ||
+           null != inflection && inflection.length() > MAX_TITLE_LENGTH) {
+            skipped ++;
+            return;
+        }
+        try {
+            out.writeInt(wiki_text_id);
+            ExternalSorter.writeString(out, page_title);
+            ExternalSorter.writeString(out, inflection);
+        } catch(IOException e) {
+            throw new UncheckedIOException("WikiTextWordsSpill.add(): " + e.getMessage(), e);
+        }
+        count ++;
+    }
+
+    /** Resolves the spilled wiki words and fills the tables (phase two),
+     * deletes the spill file.
+     */
+    public synchronized void resolve(Connect connect) throws IOException {
+        long t_start = System.currentTimeMillis();
+        out.close();
+        out = null;
+        try {
+            ExternalSorter.Cursor<Link> links = sortSpill();
+            int[] n_new_pages = new int[1], n_new_infl = new int[1], n_new_page_infl = new int[1];
+            long[] n_words = new long[2];   // [0] inserted, [1] skipped or failed
+            ExternalSorter<Link> by_wiki_text = newSorter(BY_WIKI_TEXT);
+            ExternalSorter<Link> by_inflection = newSorter(BY_INFLECTION);
+            Set<Integer> failed_pages, failed_infl, failed_page_infl;
+            try {
+                failed_pages = resolvePages(connect, links, by_inflection, by_wiki_text, n_new_pages);
+            } finally {
+                links.close();
+            }
+
+            ExternalSorter<Link> by_page_inflection = newSorter(BY_PAGE_INFLECTION);
+            links = by_inflection.sort();
+            try {
+                failed_infl = resolveInflections(connect, links, by_page_inflection, n_new_infl,
+                                                 failed_pages, n_words);
+            } finally {
+                links.close();
+            }
+
+            links = by_page_inflection.sort();
+            try {
+                failed_page_infl = resolvePageInflections(connect, links, by_wiki_text, n_new_page_infl,
+                                                          failed_infl, n_words);
+            } finally {
+                links.close();
+            }
+
+            links = by_wiki_text.sort();
+            try {
+                insertWikiTextWords(connect, links, failed_pages, failed_page_infl, n_words);
+            } finally {
+                links.close();
+            }
+
+            int n_failed = failed_pages.size() + failed_infl.size() + failed_page_infl.size();
+            if(n_failed > 0 || n_words[1] > 0)
+                System.out.println("Error (WikiTextWordsSpill.resolve()): " + n_failed +
+                        " rows of the tables page, inflection, page_inflection are not stored, " +
+                        n_words[1] + " wiki words are not stored or refer to the failed rows.");
+
+            float t_work = (System.currentTimeMillis() - t_start)/1000f;
+            System.out.println("WikiTextWordsSpill.resolve(): spilled words: " + count +
+                    ", skipped (too long): " + skipped +
+                    ", wiki_text_words: " + n_words[0] +
+                    ", new pages: " + n_new_pages[0] +
+                    ", new inflections: " + n_new_infl[0] +
+                    ", new page_inflections: " + n_new_page_infl[0] +
+                    ", time sec: " + t_work);
+        } finally {
+            file.delete();
+        }
+    }
+
+    /** Reads the spill file into the sorter by page title. */
+    private ExternalSorter.Cursor<Link> sortSpill() throws IOException {
+        ExternalSorter<Link> sorter = newSorter(BY_TITLE);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        try {
+            for(long i=0; i<count; i++) {
+                Link l = new Link();
+                l.wiki_text_id = in.readInt();
+                l.page_title   = ExternalSorter.readString(in);
+                l.inflection   = ExternalSorter.readString(in);
+                sorter.add(l);
+            }
+        } catch(EOFException e) {
+            throw new IOException("WikiTextWordsSpill: the spill file is truncated, " + file, e);
+        } finally {
+            in.close();
+        }
+        return sorter.sort();
+    }
+
+    /** Merges links sorted by title with the sorted table 'page', creates
+     * absent pages. The links with inflection are passed to the sorter
+     * by_inflection, others are ready for the table 'wiki_text_words'.
+     *
+     * @return IDs of the new pages which are not stored
+     */
+    private Set<Integer> resolvePages(Connect connect, ExternalSorter.Cursor<Link> links,
+                              ExternalSorter<Link> by_inflection,
+                              ExternalSorter<Link> by_wiki_text,
+                              int[] n_new) throws IOException
+    {
+        int[] max_id = new int[1];
+        ExternalSorter.Cursor<Link> pages = sortTable(connect,
+                "SELECT id,page_title FROM page", PAGE_ROW, BY_TITLE, max_id);
+        MultiRowInsert insert = new MultiRowInsert(connect,
+                "INSERT INTO page (id,page_title,word_count,wiki_link_count,is_in_wiktionary) VALUES ");
+        try {
+            Link page = pages.next();
+            Link prev = null;
+            for(Link l = links.next(); null != l; l = links.next()) {
+                if(null != prev && 0 == BY_TITLE.compare(prev, l))
+                    continue;       // the same word in the same wiki text
+
+                if(null != prev && prev.page_title.equals(l.page_title)) {
+                    l.page_id = prev.page_id;
+                } else {
+                    while(null != page && page.page_title.compareTo(l.page_title) < 0)
+                        page = pages.next();
+
+                    if(null != page && page.page_title.equals(l.page_title)) {
+                        l.page_id = page.page_id;
+                    } else {
+                        l.page_id = ++ max_id[0];
+                        n_new[0] ++;
+                        insert.row(l.page_id).append(l.page_id).append(",\"").
+                            append(PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, l.page_title)).
+                            append("\",0,0,0");
+                    }
+                }
+                prev = l;
+
+                if(null == l.inflection)
+                    by_wiki_text.add(l);
+                else
+                    by_inflection.add(l);
+            }
+        } finally {
+            pages.close();
+            insert.flush();
+        }
+        return insert.getFailedIDs();
+    }
+
+    /** Merges links sorted by inflection with the sorted table 'inflection',
+     * creates absent inflections (freq=1). The links to the failed pages
+     * are skipped.
+     *
+     * @param n_words   [1] is increased by the number of skipped links
+     * @return IDs of the new inflections which are not stored
+     */
+    private Set<Integer> resolveInflections(Connect connect, ExternalSorter.Cursor<Link> links,
+                                    ExternalSorter<Link> by_page_inflection,
+                                    int[] n_new, Set<Integer> failed_pages,
+                                    long[] n_words) throws IOException
+    {
+        int[] max_id = new int[1];
+        ExternalSorter.Cursor<Link> inflections = sortTable(connect,
+                "SELECT id,inflected_form FROM inflection", INFLECTION_ROW, BY_INFLECTION, max_id);
+        MultiRowInsert insert = new MultiRowInsert(connect,
+                "INSERT INTO inflection (id,freq,inflected_form) VALUES ");
+        try {
+            Link infl = inflections.next();
+            Link prev = null;
+            for(Link l = links.next(); null != l; l = links.next()) {
+                if(isFailed(failed_pages, l.page_id)) {
+                    n_words[1] ++;
+                    continue;
+                }
+                if(null != prev && prev.inflection.equals(l.inflection)) {
+                    l.inflection_id = prev.inflection_id;
+                } else {
+                    while(null != infl && infl.inflection.compareTo(l.inflection) < 0)
+                        infl = inflections.next();
+
+                    if(null != infl && infl.inflection.equals(l.inflection)) {
+                        l.inflection_id = infl.inflection_id;
+                    } else {
+                        l.inflection_id = ++ max_id[0];
+                        n_new[0] ++;
+                        insert.row(l.inflection_id).append(l.inflection_id).append(",1,\"").
+                            append(PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, l.inflection)).
+                            append("\"");
+                    }
+                }
+                prev = l;
+                by_page_inflection.add(l);
+            }
+        } finally {
+            inflections.close();
+            insert.flush();
+        }
+        return insert.getFailedIDs();
+    }
+
+    /** Merges links sorted by (page, inflection) with the sorted table
+     * 'page_inflection', creates absent pairs (term_freq=1). The links to the
+     * failed inflections are skipped.
+     *
+     * @param n_words   [1] is increased by the number of skipped links
+     * @return IDs of the new pairs which are not stored
+     */
+    private Set<Integer> resolvePageInflections(Connect connect, ExternalSorter.Cursor<Link> links,
+                                        ExternalSorter<Link> by_wiki_text,
+                                        int[] n_new, Set<Integer> failed_infl,
+                                        long[] n_words) throws IOException
+    {
+        int[] max_id = new int[1];
+        ExternalSorter.Cursor<Link> page_inflections = sortTable(connect,
+                "SELECT id,page_id,inflection_id FROM page_inflection", PAGE_INFLECTION_ROW,
+                BY_PAGE_INFLECTION, max_id);
+        MultiRowInsert insert = new MultiRowInsert(connect,
+                "INSERT INTO page_inflection (id,page_id,inflection_id,term_freq) VALUES ");
+        try {
+            Link pi = page_inflections.next();
+            Link prev = null;
+            for(Link l = links.next(); null != l; l = links.next()) {
+                if(isFailed(failed_infl, l.inflection_id)) {
+                    n_words[1] ++;
+                    continue;
+                }
+                if(null != prev && prev.page_id == l.page_id && prev.inflection_id == l.inflection_id) {
+                    l.page_inflection_id = prev.page_inflection_id;
+                } else {
+                    while(null != pi && comparePageInflection(pi, l) < 0)
+                        pi = page_inflections.next();
+
+                    if(null != pi && 0 == comparePageInflection(pi, l)) {
+                        l.page_inflection_id = pi.page_inflection_id;
+                    } else {
+                        l.page_inflection_id = ++ max_id[0];
+                        n_new[0] ++;
+                        insert.row(l.page_inflection_id).append(l.page_inflection_id).
+                            append(",").append(l.page_id).
+                            append(",").append(l.inflection_id).append(",1");
+                    }
+                }
+                prev = l;
+                by_wiki_text.add(l);
+            }
+        } finally {
+            page_inflections.close();
+            insert.flush();
+        }
+        return insert.getFailedIDs();
+    }
+
+    /** Inserts the resolved links sorted by wiki_text_id into the table
+     * 'wiki_text_words'. The links to the failed pages and pairs
+     * (page, inflection) are skipped.
+     *
+     * @param n_words   [0] is set to the number of inserted rows,
+     *                  [1] is increased by the number of skipped and failed rows
+     */
+    private void insertWikiTextWords(Connect connect, ExternalSorter.Cursor<Link> links,
+                                     Set<Integer> failed_pages, Set<Integer> failed_page_infl,
+                                     long[] n_words) throws IOException {
+        long n = 0;
+        MultiRowInsert insert = new MultiRowInsert(connect,
+                "INSERT INTO wiki_text_words (wiki_text_id,page_id,page_inflection_id) VALUES ");
+        try {
+            for(Link l = links.next(); null != l; l = links.next()) {
+                if(isFailed(failed_pages, l.page_id) ||
+                   null != l.inflection && isFailed(failed_page_infl, l.page_inflection_id)) {
+                    n_words[1] ++;
+                    continue;
+                }
+                StringBuilder sb = insert.row(0).append(l.wiki_text_id).append(",").append(l.page_id).append(",");
+                if(null == l.inflection)
+                    sb.append("NULL");
+                else
+                    sb.append(l.page_inflection_id);
+                n ++;
+            }
+        } finally {
+            insert.flush();
+        }
+        n_words[0] = n - insert.getFailedCount();
+        n_words[1] += insert.getFailedCount();
+    }
+
+    private static boolean isFailed(Set<Integer> failed_ids, int id) {
+        return !failed_ids.isEmpty() && failed_ids.contains(id);
+    }
+
+    private ExternalSorter<Link> newSorter(Comparator<Link> comparator) {
+        return new ExternalSorter<Link>(LINK_CODEC, comparator, MAX_RECORDS_IN_MEMORY, tmp_dir);
+    }
+
+    /** Reads rows of the table into Link objects. */
+    private interface RowReader {
+        Link read(ResultSet rs) throws SQLException;
+    }
+
+    private final static RowReader PAGE_ROW = new RowReader() {
+        public Link read(ResultSet rs) throws SQLException {
+            Link l = new Link();
+            l.page_id    = rs.getInt("id");
+            l.page_title = Encodings.bytesToUTF8(rs.getBytes("page_title"));
+            return l;
+        }
+    };
+
+    private final static RowReader INFLECTION_ROW = new RowReader() {
+        public Link read(ResultSet rs) throws SQLException {
+            Link l = new Link();
+            l.inflection_id = rs.getInt("id");
+            l.inflection    = Encodings.bytesToUTF8(rs.getBytes("inflected_form"));
+            return l;
+        }
+    };
+
+    private final static RowReader PAGE_INFLECTION_ROW = new RowReader() {
+        public Link read(ResultSet rs) throws SQLException {
+            Link l = new Link();
+            l.page_inflection_id = rs.getInt("id");
+            l.page_id            = rs.getInt("page_id");
+            l.inflection_id      = rs.getInt("inflection_id");
+            return l;
+        }
+    };
+
+    /** Reads the whole table by ranges of id and sorts the rows.<br><br>
+     *
+     * SELECT id,page_title FROM page WHERE id>10000 ORDER BY id LIMIT 10000;
+     *
+     * @param select    "SELECT id,... FROM table"
+     * @param max_id    [0] is set to the maximum id in the table
+     */
+    private ExternalSorter.Cursor<Link> sortTable(Connect connect, String select, RowReader reader,
+                                                 Comparator<Link> comparator, int[] max_id) throws IOException
+    {
+        ExternalSorter<Link> sorter = newSorter(comparator);
+        max_id[0] = 0;
+        StringBuilder str_sql = new StringBuilder();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                int n_rows;
+                do {
+                    str_sql.setLength(0);
+                    str_sql.append(select).append(" WHERE id>").append(max_id[0]);
+                    str_sql.append(" ORDER BY id LIMIT ").append(ROWS_PER_SELECT);
+
+                    n_rows = 0;
+                    ResultSet rs = s.executeQuery (str_sql.toString());
+                    try {
+                        while (rs.next ()) {
+                            max_id[0] = rs.getInt("id");
+                            sorter.add(reader.read(rs));
+                            n_rows ++;
+                        }
+                    } finally {
+                        rs.close();
+                    }
+                } while(ROWS_PER_SELECT == n_rows);
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            throw new IOException("SQLException (WikiTextWordsSpill.sortTable()):: sql='" + str_sql.toString() + "' " + ex.getMessage(), ex);
+        }
+        return sorter.sort();
+    }
+
+    /** Accumulates rows of INSERT statement, executes it every ROWS_PER_INSERT rows.
+     * If the statement fails (or SQLite, which has no multi-row INSERT), then
+     * the rows are inserted one by one, IDs of the failed rows are collected.
+     */
+    private static class MultiRowInsert {
+        private final Connect connect;
+        private final String prefix;
+        private final StringBuilder sb = new StringBuilder();
+        private int n = 0;
+
+        /** Start of the row in sb and ID of the row. */
+        private final int[] row_start = new int[ROWS_PER_INSERT + 1];
+        private final int[] row_id    = new int[ROWS_PER_INSERT];
+
+        private final Set<Integer> failed_ids = new HashSet<Integer>();
+        private long n_failed = 0;
+
+        MultiRowInsert(Connect connect, String prefix) {
+            this.connect = connect;
+            this.prefix = prefix;
+        }
+
+        /** Starts new row "(", the values should be appended to the result,
+         * the row is closed by the next call of row() or flush().
+         *
+         * @param id    ID of the row, it is remembered if the row fails
+         */
+        StringBuilder row(int id) {
+            if(ROWS_PER_INSERT == n)
+                flush();
+            sb.append(0 == n ? prefix + "(" : "),(");
+            row_start[n] = sb.length();
+            row_id[n] = id;
+            n ++;
+            return sb;
+        }
+
+        void flush() {
+            if(0 == n)
+                return;
+            row_start[n] = sb.length() + 3;     // as if "),(" follows
+            sb.append(")");
+
+            boolean b_inserted = false;
+            if(connect.isMySQL()) {
+                try {
+                    executeUpdate(sb.toString());
+                    b_inserted = true;
+                } catch(SQLException ex) {
+                    String sql = sb.length() > 200 ? sb.substring(0, 200) + "..." : sb.toString();
+                    System.out.println("SQLException (WikiTextWordsSpill.MultiRowInsert.flush()):: sql='" + sql +
+                            "'; multi-row insert failed, rows are inserted one by one. " + ex.getMessage());
+                }
+            }
+
+            if(!b_inserted) {
+                StringBuilder s_row = new StringBuilder();
+                for(int i=0; i<n; i++) {
+                    s_row.setLength(0);
+                    s_row.append(prefix).append("(").append(sb, row_start[i], row_start[i+1] - 3).append(")");
+                    try {
+                        executeUpdate(s_row.toString());
+                    } catch(SQLException ex) {
+                        System.out.println("SQLException (WikiTextWordsSpill.MultiRowInsert.flush()):: sql='" + s_row.toString() + "' " + ex.getMessage());
+                        n_failed ++;
+                        if(0 != row_id[i])
+                            failed_ids.add(row_id[i]);
+                    }
+                }
+            }
+            sb.setLength(0);
+            n = 0;
+        }
+
+        private void executeUpdate(String str_sql) throws SQLException {
+            Statement s = connect.conn.createStatement ();
+            try {
+                s.executeUpdate (str_sql);
+            } finally {
+                s.close();
+            }
+        }
+
+        /** Gets IDs of the rows which are not inserted (after the last flush()). */
+        Set<Integer> getFailedIDs() {
+            return failed_ids;
+        }
+
+        /** Gets number of rows which are not inserted. */
+        long getFailedCount() {
+            return n_failed;
+        }
+    }
+
+    private final static ExternalSorter.Codec<Link> LINK_CODEC = new ExternalSorter.Codec<Link>() {
+        public void write(DataOutput out, Link l) throws IOException {
+            out.writeInt(l.wiki_text_id);
+            ExternalSorter.writeString(out, l.page_title);
+            ExternalSorter.writeString(out, l.inflection);
+            out.writeInt(l.page_id);
+            out.writeInt(l.inflection_id);
+            out.writeInt(l.page_inflection_id);
+        }
+        public Link read(DataInput in) throws IOException {
+            Link l = new Link();
+            l.wiki_text_id       = in.readInt();
+            l.page_title         = ExternalSorter.readString(in);
+            l.inflection         = ExternalSorter.readString(in);
+            l.page_id            = in.readInt();
+            l.inflection_id      = in.readInt();
+            l.page_inflection_id = in.readInt();
+            return l;
+        }
+    };
+
+    /** Compares strings, null is less than any string. */
+    private static int compareNullFirst(String a, String b) {
+        if(null == a)
+            return null == b ? 0 : -1;
+        if(null == b)
+            return 1;
+        return a.compareTo(b);
+    }
+
+    private static int comparePageInflection(Link a, Link b) {
+        int c = Integer.compare(a.page_id, b.page_id);
+        return 0 != c ? c : Integer.compare(a.inflection_id, b.inflection_id);
+    }
+
+    /** By page title, inflection, wiki_text_id. */
+    private final static Comparator<Link> BY_TITLE = new Comparator<Link>() {
+        public int compare(Link a, Link b) {
+            int c = compareNullFirst(a.page_title, b.page_title);
+            if(0 == c)
+                c = compareNullFirst(a.inflection, b.inflection);
+            return 0 != c ? c : Integer.compare(a.wiki_text_id, b.wiki_text_id);
+        }
+    };
+
+    /** By inflection, page_id, wiki_text_id. */
+    private final static Comparator<Link> BY_INFLECTION = new Comparator<Link>() {
+        public int compare(Link a, Link b) {
+            int c = compareNullFirst(a.inflection, b.inflection);
+            if(0 == c)
+                c = Integer.compare(a.page_id, b.page_id);
+            return 0 != c ? c : Integer.compare(a.wiki_text_id, b.wiki_text_id);
+        }
+    };
+
+    /** By page_id, inflection_id, wiki_text_id. */
+    private final static Comparator<Link> BY_PAGE_INFLECTION = new Comparator<Link>() {
+        public int compare(Link a, Link b) {
+            int c = comparePageInflection(a, b);
+            return 0 != c ? c : Integer.compare(a.wiki_text_id, b.wiki_text_id);
+        }
+    };
+
+    /** By wiki_text_id, page_id, page_inflection_id. */
+    private final static Comparator<Link> BY_WIKI_TEXT = new Comparator<Link>() {
+        public int compare(Link a, Link b) {
+            int c = Integer.compare(a.wiki_text_id, b.wiki_text_id);
+            if(0 == c)
+                c = Integer.compare(a.page_id, b.page_id);
+            return 0 != c ? c : Integer.compare(a.page_inflection_id, b.page_inflection_id);
+        }
+    };
+}
@@ -0,0 +1,1129 @@
+/* FullTextIndex.java - memory-mapped full-text index of definitions and
+ *                      quotations with BM25 ranking.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql.index;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikipedia.text.TextTokenizer;
+import wikokit.base.wikt.constant.POS;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/** Inverted index of the texts of definitions (table 'wiki_text' via
+ * 'meaning') and quotations (table 'quote'). It answers ranked (BM25)
+ * and phrase queries filtered by the language of the entry and by the part
+ * of speech, and reverse dictionary queries: words whose definitions match
+ * the description.<br><br>
+ *
+ * Texts are split into terms by TextTokenizer: definitions are stemmed by
+ * the native language of the Wiktionary, quotations by the language of the
+ * quotation. A query should be in the language of searched texts.<br><br>
+ *
+ * The index is built after parsing (create()), it is stored in a file and
+ * read via memory mapping (open()).
+ *
+ * <PRE>
+ * File format (big-endian):
+ * header:  magic, version, n_docs, n_terms, n_pages, n_definitions, n_quotes (int),
+ *          sum of lengths of definitions and of quotes (long), offsets (int) of:
+ *          strings, documents, page ids, title offsets, titles,
+ *          term offsets, terms, term records, postings, positions
+ * strings: native language code, n langs, lang codes, n POS, POS names
+ *          (varint count, varint length + UTF-8 bytes)
+ * documents: id, meaning_id, page ordinal, length (int), lang ordinal (short),
+ *          POS ordinal, kind (byte)
+ * page ids: int[n_pages] sorted; title offsets: int[n_pages + 1]; titles: UTF-8
+ * term offsets: int[n_terms + 1]; terms: UTF-8 sorted by bytes
+ * term records: doc_freq, offset of postings, offset of positions (int)
+ * postings: per document: varint delta of document ordinal, varint tf
+ * positions: per posting: tf varint deltas of positions of the term in the text
+ * </PRE>
+ * Ordinal is the position in the table (documents, pages, langs, POS).
+ */
+public class FullTextIndex {
+
+    private final static int MAGIC      = 0x57465453; // "WFTS"
+    private final static int VERSION    = 1;
+    private final static int HEADER_SIZE = 7*4 + 2*8 + 10*4;
+
+    private final static int DOC_RECORD_SIZE  = 4*4 + 2 + 1 + 1;
+    private final static int TERM_RECORD_SIZE = 3*4;
+
+    /** Kind of document: definition, quotation, bit mask of both. */
+    public final static int KIND_DEFINITION = 1;
+    public final static int KIND_QUOTE      = 2;
+    public final static int KIND_ALL        = KIND_DEFINITION | KIND_QUOTE;
+
+    /** Parameters of BM25. */
+    private final static double K1 = 1.2;
+    private final static double B  = 0.75;
+
+    private final static List<Hit> NULL_HIT_LIST = new ArrayList<Hit>(0);
+
+    private final MappedByteBuffer buf;
+    private final int n_docs, n_terms, n_pages;
+
+    /** Average length of a definition and of a quotation (number of terms). */
+    private final double avg_len_definition, avg_len_quote;
+
+    private final int offset_docs, offset_page_ids, offset_title_offsets, offset_titles,
+                      offset_term_offsets, offset_terms, offset_term_records,
+                      offset_postings, offset_positions;
+
+    private final LanguageType native_lang;
+
+    /** Languages and parts of speech by ordinal, null if unknown. */
+    private final LanguageType[] langs;
+    private final POS[] pos_list;
+
+    private FullTextIndex(MappedByteBuffer _buf) {
+        buf     = _buf;
+        n_docs  = buf.getInt(8);
+        n_terms = buf.getInt(12);
+        n_pages = buf.getInt(16);
+        int n_definitions   = buf.getInt(20);
+        int n_quotes        = buf.getInt(24);
+        avg_len_definition  = 0 == n_definitions ? 1 : (double)buf.getLong(28) / n_definitions;
+        avg_len_quote       = 0 == n_quotes      ? 1 : (double)buf.getLong(36) / n_quotes;
+
+        int pos = 44;
+        int offset_strings  = buf.getInt(pos);  pos += 4;
+        offset_docs         = buf.getInt(pos);  pos += 4;
+        offset_page_ids     = buf.getInt(pos);  pos += 4;
+        offset_title_offsets= buf.getInt(pos);  pos += 4;
+        offset_titles       = buf.getInt(pos);  pos += 4;
+        offset_term_offsets = buf.getInt(pos);  pos += 4;
+        offset_terms        = buf.getInt(pos);  pos += 4;
+        offset_term_records = buf.getInt(pos);  pos += 4;
+        offset_postings     = buf.getInt(pos);  pos += 4;
+        offset_positions    = buf.getInt(pos);
+
+        int[] p = { offset_strings };
+        String code = readString(p);
+        native_lang = LanguageType.has(code) ? LanguageType.get(code) : null;
+
+        langs = new LanguageType[readVarInt(p)];
+        for(int i=0; i<langs.length; i++) {
+            code = readString(p);
+            langs[i] = LanguageType.has(code) ? LanguageType.get(code) : null;
+        }
+        pos_list = new POS[readVarInt(p)];
+        for(int i=0; i<pos_list.length; i++)
+            pos_list[i] = POS.get(readString(p));
+    }
+
+    /** Counts number of documents (definitions and quotations) in the index. */
+    public int countDocuments() {
+        return n_docs;
+    }
+
+    /** Counts number of distinct terms in the index. */
+    public int countTerms() {
+        return n_terms;
+    }
+
+    /** Gets the native language of the indexed Wiktionary (language of definitions). */
+    public LanguageType getNativeLanguage() {
+        return native_lang;
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Results
+
+    /** Found definition or quotation. */
+    public static class Hit {
+        private final int           kind;
+        private final int           id;
+        private final int           meaning_id;
+        private final int           page_id;
+        private final String        page_title;
+        private final LanguageType  lang;
+        private final POS           pos;
+        private final double        score;
+
+        Hit(int _kind, int _id, int _meaning_id, int _page_id, String _page_title,
+            LanguageType _lang, POS _pos, double _score) {
+            kind        = _kind;
+            id          = _id;
+            meaning_id  = _meaning_id;
+            page_id     = _page_id;
+            page_title  = _page_title;
+            lang        = _lang;
+            pos         = _pos;
+            score       = _score;
+        }
+
+        /** Returns true if it is a quotation, false if it is a definition. */
+        public boolean isQuote() {
+            return KIND_QUOTE == kind;
+        }
+
+        /** Gets quote.id (quotation) or meaning.id (definition). */
+        public int getID() {
+            return id;
+        }
+
+        /** Gets meaning.id of the definition (of the quotation). */
+        public int getMeaningID() {
+            return meaning_id;
+        }
+
+        /** Gets page.id of the entry. */
+        public int getPageID() {
+            return page_id;
+        }
+
+        /** Gets title of the entry (the word). */
+        public String getPageTitle() {
+            return page_title;
+        }
+
+        /** Gets language of the entry (lang_pos.lang_id), null if it is unknown. */
+        public LanguageType getLanguage() {
+            return lang;
+        }
+
+        /** Gets part of speech of the entry (lang_pos.pos_id), null if it is unknown. */
+        public POS getPOS() {
+            return pos;
+        }
+
+        /** Gets BM25 score of the text. */
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return (isQuote() ? "quote" : "meaning") + " id=" + id + "; page=" + page_title + "; score=" + score;
+        }
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Queries
+
+    /** Finds definitions and (or) quotations by words and phrases,
+     * the result is sorted by BM25 score (descending).<br><br>
+     *
+     * Query: words and phrases in double quotes, e.g. <i>"pure water" drink</i>.
+     * Texts should contain all phrases (words in the same order one by one)
+     * and they are ranked by all words of the query.
+     *
+     * @param query_lang  language of the query and of searched texts
+     *                    (it selects the stemmer), e.g. getNativeLanguage()
+     *                    for definitions
+     * @param kinds       KIND_DEFINITION, KIND_QUOTE or KIND_ALL
+     * @param entry_lang  language of entries, null - all languages
+     * @param pos         part of speech of entries, null - all
+     * @return empty list if nothing was found
+     */
+    public List<Hit> search(String query, LanguageType query_lang, int kinds,
+                            LanguageType entry_lang, POS pos, int limit)
+    {
+        if(limit <= 0)
+            return NULL_HIT_LIST;
+
+        final PriorityQueue<ScoredDoc> heap = new PriorityQueue<ScoredDoc>(limit + 1, ScoredDoc.WORST_FIRST);
+        final int k = limit;
+        boolean b_ok = scoreDocuments(query, query_lang, kinds, entry_lang, pos, new ScoreSink() {
+            public void add(int doc_ord, double score) {
+                offerTop(heap, new ScoredDoc(doc_ord, score), k);
+            }});
+        if(!b_ok)
+            return NULL_HIT_LIST;
+
+        List<ScoredDoc> top = new ArrayList<ScoredDoc>(heap);
+        Collections.sort(top, Collections.reverseOrder(ScoredDoc.WORST_FIRST));
+
+        List<Hit> result = new ArrayList<Hit>(top.size());
+        for(ScoredDoc sd : top)
+            result.add(createHit(sd.doc_ord, sd.score));
+        return result;
+    }
+
+    /** Reverse dictionary: finds entries whose definitions match the description
+     * (in the native language), e.g. "small domestic animal that purrs".
+     * Each entry is given once with its best definition, the result is sorted
+     * by BM25 score of the definition (descending).
+     *
+     * @param entry_lang  language of entries, null - all languages
+     * @param pos         part of speech of entries, null - all
+     * @return empty list if nothing was found
+     */
+    public List<Hit> searchWordsByDescription(String description,
+                                              LanguageType entry_lang, POS pos, int limit)
+    {
+        if(limit <= 0)
+            return NULL_HIT_LIST;
+
+        // the best definition of each page
+        final Map<Integer, ScoredDoc> page2best = new HashMap<Integer, ScoredDoc>();
+        boolean b_ok = scoreDocuments(description, native_lang, KIND_DEFINITION, entry_lang, pos, new ScoreSink() {
+            public void add(int doc_ord, double score) {
+                int page_ord = buf.getInt(docRecord(doc_ord) + 8);
+                ScoredDoc best = page2best.get(page_ord);
+                if(null == best || score > best.score)
+                    page2best.put(page_ord, new ScoredDoc(doc_ord, score));
+            }});
+        if(!b_ok)
+            return NULL_HIT_LIST;
+
+        PriorityQueue<ScoredDoc> heap = new PriorityQueue<ScoredDoc>(limit + 1, ScoredDoc.WORST_FIRST);
+        for(ScoredDoc sd : page2best.values())
+            offerTop(heap, sd, limit);
+
+        List<ScoredDoc> top = new ArrayList<ScoredDoc>(heap);
+        Collections.sort(top, Collections.reverseOrder(ScoredDoc.WORST_FIRST));
+
+        List<Hit> result = new ArrayList<Hit>(top.size());
+        for(ScoredDoc sd : top)
+            result.add(createHit(sd.doc_ord, sd.score));
+        return result;
+    }
+
+    /** Receiver of scores of matched documents. */
+    private interface ScoreSink {
+        void add(int doc_ord, double score);
+    }
+
+    /** Document with the score of query. */
+    private static class ScoredDoc {
+        final int    doc_ord;
+        final double score;
+
+        ScoredDoc(int _doc_ord, double _score) {
+            doc_ord = _doc_ord;
+            score   = _score;
+        }
+
+        /** Ordering: lower score first, for equal scores the higher ordinal first. */
+        static final Comparator<ScoredDoc> WORST_FIRST = new Comparator<ScoredDoc>() {
+            public int compare(ScoredDoc a, ScoredDoc b) {
+                if(a.score != b.score)
+                    return a.score < b.score ? -1 : 1;
+                return Integer.compare(b.doc_ord, a.doc_ord);
+            }
+        };
+    }
+
+    private static void offerTop(PriorityQueue<ScoredDoc> heap, ScoredDoc sd, int k) {
+        if(heap.size() < k) {
+            heap.add(sd);
+        } else if(ScoredDoc.WORST_FIRST.compare(sd, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(sd);
+        }
+    }
+
+    /** Query: distinct terms with their frequency in the query and phrases
+     * (indexes of terms), which should be found in the text. */
+    static class Query {
+        final List<String> terms  = new ArrayList<String>();
+        final List<Integer> freq  = new ArrayList<Integer>();
+        final List<int[]> phrases = new ArrayList<int[]>();
+
+        /** Parses words and phrases in double quotes. */
+        Query(String query, LanguageType lang) {
+            String[] parts = query.split("\"", -1);
+            for(int i=0; i<parts.length; i++) {
+                List<String> tokens = TextTokenizer.tokenize(parts[i], lang);
+                boolean b_phrase = 1 == i % 2;
+                int[] phrase = new int[tokens.size()];
+                for(int j=0; j<tokens.size(); j++)
+                    phrase[j] = addTerm(tokens.get(j));
+                if(b_phrase && phrase.length > 0)
+                    phrases.add(phrase);
+            }
+        }
+
+        private int addTerm(String term) {
+            int t = terms.indexOf(term);
+            if(t < 0) {
+                terms.add(term);
+                freq.add(1);
+                return terms.size() - 1;
+            }
+            freq.set(t, freq.get(t) + 1);
+            return t;
+        }
+    }
+
+    /** Finds documents which match the query and passes them with BM25 scores
+     * to the sink. Documents are read in parallel from posting lists of the
+     * query terms (in the order of document ordinals); if the query has phrases,
+     * then only documents with all terms of phrases are considered.
+     *
+     * @return false if there can be no results
+     */
+    private boolean scoreDocuments(String query, LanguageType query_lang, int kinds,
+                                   LanguageType entry_lang, POS pos, ScoreSink sink)
+    {
+        if(null == query || 0 == (kinds & KIND_ALL))
+            return false;
+
+        int lang_ord = -1, pos_ord = -1;
+        if(null != entry_lang) {
+            lang_ord = Arrays.asList(langs).indexOf(entry_lang);
+            if(lang_ord < 0)
+                return false;
+        }
+        if(null != pos) {
+            pos_ord = Arrays.asList(pos_list).indexOf(pos);
+            if(pos_ord < 0)
+                return false;
+        }
+
+        Query q = new Query(query, query_lang);
+        int nq = q.terms.size();
+        PostingCursor[] cursors = new PostingCursor[nq];
+        double[] weight = new double[nq];
+        boolean[] required = new boolean[nq];
+        for(int[] phrase : q.phrases)
+            for(int t : phrase)
+                required[t] = true;
+
+        int n_cursors = 0;
+        for(int t=0; t<nq; t++) {
+            int term_ord = findTerm(q.terms.get(t));
+            if(term_ord < 0) {
+                if(required[t])
+                    return false;   // the phrase can't be found
+                continue;
+            }
+            cursors[t] = new PostingCursor(term_ord);
+            weight [t] = q.freq.get(t) * getIDF(cursors[t].doc_freq);
+            cursors[t].next();
+            n_cursors ++;
+        }
+        if(0 == n_cursors)
+            return false;
+
+        boolean b_required = !q.phrases.isEmpty();
+        while(true) {
+            int doc;
+            if(b_required) {
+                doc = alignRequired(cursors, required);
+                if(Integer.MAX_VALUE == doc)
+                    break;
+                for(PostingCursor c : cursors) {
+                    if(null != c)
+                        c.advanceTo(doc);
+                }
+            } else {
+                doc = Integer.MAX_VALUE;
+                for(PostingCursor c : cursors) {
+                    if(null != c && c.doc < doc)
+                        doc = c.doc;
+                }
+                if(Integer.MAX_VALUE == doc)
+                    break;
+            }
+
+            int r = docRecord(doc);
+            int kind = buf.get(r + 19);
+            if(0 != (kinds & kind) &&
+               (lang_ord < 0 || lang_ord == buf.getShort(r + 16)) &&
+               (pos_ord  < 0 || pos_ord  == (buf.get(r + 18) & 0xFF)) &&
+               matchPhrases(cursors, q.phrases))
+            {
+                double avg_len = KIND_QUOTE == kind ? avg_len_quote : avg_len_definition;
+                double norm = K1 * (1 - B + B * buf.getInt(r + 12) / avg_len);
+                double score = 0;
+                for(int t=0; t<nq; t++) {
+                    PostingCursor c = cursors[t];
+                    if(null != c && c.doc == doc)
+                        score += weight[t] * c.tf * (K1 + 1) / (c.tf + norm);
+                }
+                sink.add(doc, score);
+            }
+
+            for(PostingCursor c : cursors) {
+                if(null != c && c.doc == doc)
+                    c.next();
+            }
+        }
+        return true;
+    }
+
+    /** Moves cursors of required terms to the first document which contains
+     * all of them.
+     * @return ordinal of the document, Integer.MAX_VALUE if there are no more
+     */
+    private static int alignRequired(PostingCursor[] cursors, boolean[] required) {
+        int doc = 0;
+        while(true) {
+            boolean b_aligned = true;
+            for(int t=0; t<cursors.length; t++) {
+                if(!required[t])
+                    continue;
+                PostingCursor c = cursors[t];
+                c.advanceTo(doc);
+                if(Integer.MAX_VALUE == c.doc)
+                    return Integer.MAX_VALUE;
+                if(c.doc > doc) {
+                    doc = c.doc;
+                    b_aligned = false;
+                }
+            }
+            if(b_aligned)
+                return doc;
+        }
+    }
+
+    /** Checks that the current document contains each phrase: the term i of
+     * the phrase is at the position p + i. */
+    private static boolean matchPhrases(PostingCursor[] cursors, List<int[]> phrases) {
+        for(int[] phrase : phrases) {
+            int[] first = cursors[phrase[0]].positions();
+            boolean b_found = false;
+            for(int p : first) {
+                b_found = true;
+                for(int i=1; i<phrase.length && b_found; i++)
+                    b_found = Arrays.binarySearch(cursors[phrase[i]].positions(), p + i) >= 0;
+                if(b_found)
+                    break;
+            }
+            if(!b_found)
+                return false;
+        }
+        return true;
+    }
+
+    /** Gets inverse document frequency of the term (BM25 variant, it is always positive). */
+    private double getIDF(int doc_freq) {
+        return Math.log(1 + (n_docs - doc_freq + 0.5) / (doc_freq + 0.5));
+    }
+
+    /** Sequential reader of postings (and positions) of one term. */
+    private class PostingCursor {
+        final int doc_freq;
+        private int left;
+        private final int[] pos = new int[1];
+        private final int[] pos_positions = new int[1];
+
+        /** Current document ordinal (Integer.MAX_VALUE at the end) and term frequency in it. */
+        int doc = -1;
+        int tf  = 0;
+
+        /** Positions of the term in the current document, null if they are not read. */
+        private int[] positions = null;
+
+        PostingCursor(int term_ord) {
+            int r = offset_term_records + term_ord * TERM_RECORD_SIZE;
+            doc_freq = buf.getInt(r);
+            left     = doc_freq;
+            pos[0]           = offset_postings  + buf.getInt(r + 4);
+            pos_positions[0] = offset_positions + buf.getInt(r + 8);
+        }
+
+        /** Moves to the next document, returns false at the end. */
+        boolean next() {
+            if(doc >= 0 && null == positions) {     // skips positions of the current document
+                for(int i=0; i<tf; i++)
+                    readVarInt(pos_positions);
+            }
+            positions = null;
+            if(0 == left) {
+                doc = Integer.MAX_VALUE;
+                tf  = 0;
+                return false;
+            }
+            doc = (doc < 0 ? 0 : doc) + readVarInt(pos);
+            tf  = readVarInt(pos);
+            left --;
+            return true;
+        }
+
+        /** Moves to the first document with ordinal >= target. */
+        void advanceTo(int target) {
+            while(doc < target && next());
+        }
+
+        /** Gets positions of the term in the current document (sorted). */
+        int[] positions() {
+            if(null == positions) {
+                positions = new int[tf];
+                int p = 0;
+                for(int i=0; i<tf; i++) {
+                    p += readVarInt(pos_positions);
+                    positions[i] = p;
+                }
+            }
+            return positions;
+        }
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Documents, pages, terms
+
+    private int docRecord(int doc_ord) {
+        return offset_docs + doc_ord * DOC_RECORD_SIZE;
+    }
+
+    private Hit createHit(int doc_ord, double score) {
+        int r = docRecord(doc_ord);
+        int page_ord = buf.getInt(r + 8);
+        int lang_ord = buf.getShort(r + 16);
+        int pos_ord  = buf.get(r + 18) & 0xFF;
+        return new Hit(buf.get(r + 19), buf.getInt(r), buf.getInt(r + 4),
+                       buf.getInt(offset_page_ids + 4 * page_ord), getTitle(page_ord),
+                       lang_ord < langs.length ? langs[lang_ord] : null,
+                       pos_ord < pos_list.length ? pos_list[pos_ord] : null, score);
+    }
+
+    private String getTitle(int page_ord) {
+        int from = buf.getInt(offset_title_offsets + 4 * page_ord);
+        int to   = buf.getInt(offset_title_offsets + 4 * (page_ord + 1));
+        byte[] b = new byte[to - from];
+        for(int j=0; j<b.length; j++)
+            b[j] = buf.get(offset_titles + from + j);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** Gets ordinal of the term by binary search, -1 if it is absent. */
+    private int findTerm(String term) {
+        byte[] key = term.getBytes(StandardCharsets.UTF_8);
+        int lo = 0, hi = n_terms - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int from = buf.getInt(offset_term_offsets + 4 * mid);
+            int len  = buf.getInt(offset_term_offsets + 4 * (mid + 1)) - from;
+            int c = 0;
+            int n = Math.min(len, key.length);
+            for(int j=0; j<n && 0 == c; j++)
+                c = (buf.get(offset_terms + from + j) & 0xFF) - (key[j] & 0xFF);
+            if(0 == c)
+                c = len - key.length;
+
+            if(c < 0)
+                lo = mid + 1;
+            else if(c > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Creation
+
+    /** Collects texts of definitions and quotations in memory
+     * (postings are compressed at once), then writes the index file. */
+    public static class Builder {
+
+        private final LanguageType native_lang;
+
+        private final List<String> lang_codes = new ArrayList<String>();
+        private final Map<String, Integer> lang2ord = new HashMap<String, Integer>();
+        private final List<String> pos_names = new ArrayList<String>();
+        private final Map<String, Integer> pos2ord = new HashMap<String, Integer>();
+
+        /** page.id -> page title, the title is null till addPage(). */
+        private final Map<Integer, String> page_titles = new HashMap<Integer, String>();
+
+        private final IntList doc_id          = new IntList();
+        private final IntList doc_meaning_id  = new IntList();
+        private final IntList doc_page_id     = new IntList();
+        private final IntList doc_length      = new IntList();
+        private final IntList doc_lang        = new IntList();
+        private final IntList doc_pos         = new IntList();
+        private final IntList doc_kind        = new IntList();
+
+        private final Map<String, TermPostings> terms = new HashMap<String, TermPostings>();
+
+        private int n_definitions = 0, n_quotes = 0;
+        private long len_definitions = 0, len_quotes = 0;
+
+        /** @param _native_lang  language of Wiktionary (of definitions) */
+        public Builder(LanguageType _native_lang) {
+            native_lang = _native_lang;
+        }
+
+        /** Adds the definition of the entry.
+         *
+         * @param lang_code  language of the entry (lang.code)
+         * @param pos_name   part of speech (part_of_speech.name)
+         * @return false if the text has no words
+         */
+        public boolean addDefinition(int meaning_id, int page_id, String lang_code, String pos_name, String text) {
+            return addDocument(KIND_DEFINITION, meaning_id, meaning_id, page_id, lang_code, pos_name,
+                               text, native_lang);
+        }
+
+        /** Adds the quotation of the meaning of the entry, the text is in the
+         * language of the quotation 'quote_lang'. */
+        public boolean addQuote(int quote_id, int meaning_id, int page_id, String lang_code, String pos_name,
+                                String text, LanguageType quote_lang) {
+            return addDocument(KIND_QUOTE, quote_id, meaning_id, page_id, lang_code, pos_name,
+                               text, quote_lang);
+        }
+
+        /** Sets the title of the page, pages without texts are skipped. */
+        public void addPage(int page_id, String page_title) {
+            if(page_titles.containsKey(page_id))
+                page_titles.put(page_id, page_title);
+        }
+
+        /** Returns true if the page has texts and it has no title yet. */
+        boolean needsPage(int page_id) {
+            return page_titles.containsKey(page_id) && null == page_titles.get(page_id);
+        }
+
+        /** Counts number of added documents. */
+        public int countDocuments() {
+            return doc_id.size;
+        }
+
+        private boolean addDocument(int kind, int id, int meaning_id, int page_id,
+                                    String lang_code, String pos_name,
+                                    String text, LanguageType text_lang)
+        {
+            List<String> tokens = TextTokenizer.tokenize(text, text_lang);
+            if(tokens.isEmpty())
+                return false;
+
+            int doc = doc_id.size;
+            doc_id.add(id);
+            doc_meaning_id.add(meaning_id);
+            doc_page_id.add(page_id);
+            doc_length.add(tokens.size());
+            doc_lang.add(getOrdinal(lang_codes, lang2ord, null == lang_code ? "" : lang_code));
+            doc_pos .add(getOrdinal(pos_names,  pos2ord,  null == pos_name  ? "" : pos_name));
+            doc_kind.add(kind);
+            if(!page_titles.containsKey(page_id))
+                page_titles.put(page_id, null);
+
+            if(KIND_QUOTE == kind) {
+                n_quotes ++;
+                len_quotes += tokens.size();
+            } else {
+                n_definitions ++;
+                len_definitions += tokens.size();
+            }
+
+            // positions of each term of the text
+            Map<String, IntList> term2positions = new LinkedHashMap<String, IntList>();
+            for(int p=0; p<tokens.size(); p++) {
+                IntList positions = term2positions.get(tokens.get(p));
+                if(null == positions) {
+                    positions = new IntList();
+                    term2positions.put(tokens.get(p), positions);
+                }
+                positions.add(p);
+            }
+            for(Map.Entry<String, IntList> e : term2positions.entrySet()) {
+                TermPostings tp = terms.get(e.getKey());
+                if(null == tp) {
+                    tp = new TermPostings();
+                    terms.put(e.getKey(), tp);
+                }
+                tp.add(doc, e.getValue());
+            }
+            return true;
+        }
+
+        private static int getOrdinal(List<String> list, Map<String, Integer> map, String value) {
+            Integer ord = map.get(value);
+            if(null == ord) {
+                ord = list.size();
+                list.add(value);
+                map.put(value, ord);
+            }
+            return ord;
+        }
+
+        /** Writes the index file. */
+        public void write(File file) throws IOException {
+
+            // pages sorted by ID
+            int[] page_ids = new int[page_titles.size()];
+            int k = 0;
+            for(int id : page_titles.keySet())
+                page_ids[k++] = id;
+            Arrays.sort(page_ids);
+
+            // terms sorted by UTF-8 bytes
+            String[] keys = terms.keySet().toArray(new String[terms.size()]);
+            final byte[][] term_bytes = new byte[keys.length][];
+            for(int i=0; i<keys.length; i++)
+                term_bytes[i] = keys[i].getBytes(StandardCharsets.UTF_8);
+            Integer[] order = new Integer[term_bytes.length];
+            for(int i=0; i<order.length; i++)
+                order[i] = i;
+            Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return compareBytes(term_bytes[a], term_bytes[b]);
+                }});
+            byte[][] sorted_terms = new byte[order.length][];
+            TermPostings[] postings = new TermPostings[order.length];
+            for(int i=0; i<order.length; i++) {
+                sorted_terms[i] = term_bytes[order[i]];
+                postings[i] = terms.get(keys[order[i]]);
+            }
+
+            int[] header = new int[10];
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            try {
+                out.write(new byte[HEADER_SIZE]);   // header is written at the end
+
+                // strings
+                header[0] = out.size();
+                writeString(out, null == native_lang ? "" : native_lang.getCode());
+                writeVarInt(out, lang_codes.size());
+                for(String s : lang_codes)
+                    writeString(out, s);
+                writeVarInt(out, pos_names.size());
+                for(String s : pos_names)
+                    writeString(out, s);
+
+                // documents
+                header[1] = out.size();
+                for(int d=0; d<doc_id.size; d++) {
+                    out.writeInt(doc_id.data[d]);
+                    out.writeInt(doc_meaning_id.data[d]);
+                    out.writeInt(Arrays.binarySearch(page_ids, doc_page_id.data[d]));
+                    out.writeInt(doc_length.data[d]);
+                    out.writeShort(doc_lang.data[d]);
+                    out.writeByte(doc_pos.data[d]);
+                    out.writeByte(doc_kind.data[d]);
+                }
+
+                // pages
+                header[2] = out.size();
+                byte[][] titles = new byte[page_ids.length][];
+                for(int i=0; i<page_ids.length; i++) {
+                    out.writeInt(page_ids[i]);
+                    String t = page_titles.get(page_ids[i]);
+                    titles[i] = (null == t ? "" : t).getBytes(StandardCharsets.UTF_8);
+                }
+                header[3] = out.size();
+                writeOffsets(out, titles);
+                header[4] = out.size();
+                for(byte[] t : titles)
+                    out.write(t);
+
+                // terms
+                header[5] = out.size();
+                writeOffsets(out, sorted_terms);
+                header[6] = out.size();
+                for(byte[] t : sorted_terms)
+                    out.write(t);
+
+                header[7] = out.size();
+                int offset = 0, offset_positions = 0;
+                for(TermPostings tp : postings) {
+                    out.writeInt(tp.doc_freq);
+                    out.writeInt(offset);
+                    out.writeInt(offset_positions);
+                    offset           += tp.docs.size;
+                    offset_positions += tp.positions.size;
+                }
+                header[8] = out.size();
+                for(TermPostings tp : postings)
+                    out.write(tp.docs.data, 0, tp.docs.size);
+                header[9] = out.size();
+                for(TermPostings tp : postings)
+                    out.write(tp.positions.data, 0, tp.positions.size);
+
+                if(out.size() < 0)
+                    throw new IOException("the index is too large (> 2 GB)");
+                out.close();
+                out = null;
+
+                RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                try {
+                    raf.writeInt(MAGIC);
+                    raf.writeInt(VERSION);
+                    raf.writeInt(doc_id.size);
+                    raf.writeInt(sorted_terms.length);
+                    raf.writeInt(page_ids.length);
+                    raf.writeInt(n_definitions);
+                    raf.writeInt(n_quotes);
+                    raf.writeLong(len_definitions);
+                    raf.writeLong(len_quotes);
+                    for(int h : header)
+                        raf.writeInt(h);
+                } finally {
+                    raf.close();
+                }
+            } finally {
+                if(null != out)
+                    out.close();
+            }
+        }
+    }
+
+    /** Compressed postings of one term which is being built. */
+    private static class TermPostings {
+        final ByteList docs      = new ByteList();
+        final ByteList positions = new ByteList();
+        int doc_freq = 0;
+        int last_doc = 0;
+
+        void add(int doc, IntList term_positions) {
+            docs.addVarInt(doc - last_doc);
+            docs.addVarInt(term_positions.size);
+            int prev = 0;
+            for(int i=0; i<term_positions.size; i++) {
+                positions.addVarInt(term_positions.data[i] - prev);
+                prev = term_positions.data[i];
+            }
+            last_doc = doc;
+            doc_freq ++;
+        }
+    }
+
+    /** Creates the index file from the parsed database: definitions
+     * (meaning -> wiki_text) and quotations (quote) with the language and
+     * the part of speech of the entry (lang_pos).<br><br>
+     *
+     * SELECT meaning.id,lang_pos.page_id,lang_pos.lang_id,lang_pos.pos_id,wiki_text.text FROM meaning
+     * JOIN lang_pos ON lang_pos.id=meaning.lang_pos_id JOIN wiki_text ON wiki_text.id=meaning.wiki_text_id
+     *
+     * @return true if the index file was written
+     */
+    public static boolean create(Connect connect, File file) {
+        Builder b = new Builder(connect.getNativeLanguage());
+
+        Map<Integer, String> lang_codes = new HashMap<Integer, String>();
+        Map<Integer, String> pos_names  = new HashMap<Integer, String>();
+        String str_sql = "";
+        try {
+            str_sql = "SELECT id,code FROM lang";
+            ResultSet rs = executeStreaming(connect, str_sql);
+            try {
+                while (rs.next ())
+                    lang_codes.put(rs.getInt(1), Encodings.bytesToUTF8(rs.getBytes(2)));
+            } finally {
+                close(rs);
+            }
+
+            str_sql = "SELECT id,name FROM part_of_speech";
+            rs = executeStreaming(connect, str_sql);
+            try {
+                while (rs.next ())
+                    pos_names.put(rs.getInt(1), Encodings.bytesToUTF8(rs.getBytes(2)));
+            } finally {
+                close(rs);
+            }
+
+            str_sql = "SELECT meaning.id,lang_pos.page_id,lang_pos.lang_id,lang_pos.pos_id,wiki_text.text " +
+                      "FROM meaning JOIN lang_pos ON lang_pos.id=meaning.lang_pos_id " +
+                      "JOIN wiki_text ON wiki_text.id=meaning.wiki_text_id";
+            rs = executeStreaming(connect, str_sql);
+            try {
+                while (rs.next ())
+                    b.addDefinition(rs.getInt(1), rs.getInt(2), lang_codes.get(rs.getInt(3)),
+                                    pos_names.get(rs.getInt(4)), Encodings.bytesToUTF8(rs.getBytes(5)));
+            } finally {
+                close(rs);
+            }
+            int n_definitions = b.countDocuments();
+
+            str_sql = "SELECT quote.id,quote.meaning_id,lang_pos.page_id,lang_pos.lang_id,lang_pos.pos_id," +
+                      "quote.lang_id,quote.text FROM quote JOIN meaning ON meaning.id=quote.meaning_id " +
+                      "JOIN lang_pos ON lang_pos.id=meaning.lang_pos_id";
+            rs = executeStreaming(connect, str_sql);
+            try {
+                while (rs.next ()) {
+                    String quote_code = lang_codes.get(rs.getInt(6));
+                    LanguageType quote_lang = null != quote_code && LanguageType.has(quote_code) ?
+                                              LanguageType.get(quote_code) : null;
+                    b.addQuote(rs.getInt(1), rs.getInt(2), rs.getInt(3), lang_codes.get(rs.getInt(4)),
+                               pos_names.get(rs.getInt(5)), Encodings.bytesToUTF8(rs.getBytes(7)), quote_lang);
+                }
+            } finally {
+                close(rs);
+            }
+
+            str_sql = "SELECT id,page_title FROM page";
+            rs = executeStreaming(connect, str_sql);
+            try {
+                while (rs.next ()) {
+                    int id = rs.getInt(1);
+                    if(b.needsPage(id))
+                        b.addPage(id, Encodings.bytesToUTF8(rs.getBytes(2)));
+                }
+            } finally {
+                close(rs);
+            }
+
+            b.write(file);
+            System.out.println("FullTextIndex: definitions=" + n_definitions +
+                               ", quotations=" + (b.countDocuments() - n_definitions) + ", file '" + file + "'");
+
+        } catch(SQLException ex) {
+            System.out.println("SQLException (FullTextIndex.create()):: sql='" + str_sql + "' " + ex.getMessage());
+            return false;
+        } catch(IOException ex) {
+            System.out.println("Error in FullTextIndex.create(): file='" + file + "' " + ex.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /** Executes the query, rows are streamed (not read into memory at once by MySQL Connector/J). */
+    private static ResultSet executeStreaming(Connect connect, String str_sql) throws SQLException {
+        Statement s = connect.conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        if(connect.isMySQL())
+            s.setFetchSize(Integer.MIN_VALUE);
+        try {
+            return s.executeQuery (str_sql);
+        } catch(SQLException ex) {
+            s.close();
+            throw ex;
+        }
+    }
+
+    /** Closes the result set and its statement. */
+    private static void close(ResultSet rs) throws SQLException {
+        Statement s = rs.getStatement();
+        rs.close();
+        if(null != s)
+            s.close();
+    }
+
+    /** Opens (maps into memory) the index file.
+     * @return null if the file is absent or it is not a full-text index
+     */
+    public static FullTextIndex open(File file) {
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel ch = raf.getChannel();
+                if(ch.size() > Integer.MAX_VALUE) {
+                    System.out.println("Error in FullTextIndex.open(): file '" + file + "' is too large (> 2 GB).");
+                    return null;
+                }
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                if(ch.size() < HEADER_SIZE || MAGIC != buf.getInt(0) || VERSION != buf.getInt(4)) {
+                    System.out.println("Error in FullTextIndex.open(): file '" + file + "' is not a full-text index.");
+                    return null;
+                }
+                return new FullTextIndex(buf);
+            } finally {
+                raf.close();    // the mapping remains valid after the channel is closed
+            }
+        } catch(IOException ex) {
+            System.out.println("Error in FullTextIndex.open(): file='" + file + "' " + ex.getMessage());
+        }
+        return null;
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Utilities
+
+    private static int compareBytes(byte[] x, byte[] y) {
+        int n = Math.min(x.length, y.length);
+        for(int j=0; j<n; j++) {
+            int c = (x[j] & 0xFF) - (y[j] & 0xFF);
+            if(0 != c)
+                return c;
+        }
+        return x.length - y.length;
+    }
+
+    /** Writes offsets of byte arrays in their concatenation: int[n + 1]. */
+    private static void writeOffsets(DataOutputStream out, byte[][] arrays) throws IOException {
+        int offset = 0;
+        for(byte[] a : arrays) {
+            out.writeInt(offset);
+            offset += a.length;
+        }
+        out.writeInt(offset);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, b.length);
+        out.write(b);
+    }
+
+    /** Reads varint at pos[0], moves pos[0]. */
+    private int readVarInt(int[] pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.get(pos[0] ++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+        return value;
+    }
+
+    private String readString(int[] pos) {
+        int len = readVarInt(pos);
+        byte[] b = new byte[len];
+        for(int i=0; i<len; i++)
+            b[i] = buf.get(pos[0] + i);
+        pos[0] += len;
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** Growable array of int. */
+    private static class IntList {
+        int[] data = new int[4];
+        int   size = 0;
+
+        void add(int value) {
+            if(size == data.length)
+                data = Arrays.copyOf(data, size * 2);
+            data[size ++] = value;
+        }
+    }
+
+    /** Growable array of bytes with varint encoding. */
+    private static class ByteList {
+        byte[] data = new byte[8];
+        int    size = 0;
+
+        void addVarInt(int value) {
+            if(size + 5 > data.length)
+                data = Arrays.copyOf(data, Math.max(size + 5, data.length * 2));
+            while((value & ~0x7F) != 0) {
+                data[size ++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size ++] = (byte)value;
+        }
+    }
+}
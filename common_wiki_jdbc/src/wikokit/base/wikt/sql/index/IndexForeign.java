@@ -7,6 +7,7 @@
 
 package wikokit.base.wikt.sql.index;
 
+import wikokit.base.wikt.sql.TLang;
 import wikokit.base.wikt.sql.TPage;
 import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.sql.Connect;
@@ -15,13 +16,27 @@ import wikokit.base.wikipedia.language.Encodings;
 
 import java.sql.*;
 import java.util.Map;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Collections;
+import java.util.WeakHashMap;
 import wikokit.base.wikt.sql.TLangPOS;
 
 
 /** The table 'index_XX' - wordlist of words in language with code XX
- * (table in Wiktionary parsed database).
+ * (table in Wiktionary parsed database).<br><br>
+ *
+ * Alternative layout: one table 'index_foreign' with words of all
+ * languages, keyed by (lang_id, foreign_word, native_page_title), where
+ * native_page_title is empty string instead of NULL. The layout is detected
+ * by the presence of the table 'index_foreign' (see isConsolidated()), and
+ * the methods of this class work with both layouts. Rows are written by
+ * batched upserts during the parsing (see beginBatch()), per-language
+ * statistics are calculated by one grouped query (see countByLanguages()).
  */
 public class IndexForeign {
 
@@ -45,8 +60,31 @@ public class IndexForeign {
     private TPage native_page;
     //private String native_page_title;
 
+    /** Language of the foreign word, it could be null. */
+    private LanguageType foreign_lang;
+
     private final static IndexForeign[] NULL_INDEXFOREIGN_ARRAY = new IndexForeign[0];
 
+    /** Inserted triples (foreign_lang, foreign_word, native_page_title),
+     * if not null, then insertIfAbsent() checks this set instead of the
+     * table 'index_XX', see BulkLoad. */
+    private static Set<String> inserted = null;
+
+    /** Name of the table with foreign words of all languages. */
+    public final static String CONSOLIDATED_TABLE = "index_foreign";
+
+    /** Layout of the databases: true if words are stored in the table 'index_foreign'. */
+    private final static Map<Connect, Boolean> consolidated =
+            Collections.synchronizedMap(new WeakHashMap<Connect, Boolean>());
+
+    /** Rows "(lang_id,"foreign_word",has_definition,"native_page_title")"
+     * waiting for the INSERT into 'index_foreign' (guarded by the list),
+     * null if rows are inserted at once. */
+    private static List<String> pending = null;
+
+    /** Number of rows in one INSERT statement. */
+    private final static int ROWS_PER_INSERT = 1000;
+
     public IndexForeign(TPage _foreign_page,String _foreign_word,
                          TPage _native_page)
     {
@@ -55,6 +93,13 @@ public class IndexForeign {
         native_page     = _native_page;
     }
 
+    public IndexForeign(TPage _foreign_page,String _foreign_word,
+                         TPage _native_page, LanguageType _foreign_lang)
+    {
+        this(_foreign_page, _foreign_word, _native_page);
+        foreign_lang    = _foreign_lang;
+    }
+
     /** Gets page in native language. */
     public TPage getNativePage() {
         return native_page;
@@ -70,6 +115,145 @@ public class IndexForeign {
         return foreign_word;
     }
 
+    /** Gets language of the foreign word, it could be null. */
+    public LanguageType getForeignLanguage() {
+        return foreign_lang;
+    }
+
+    /** Sets the layout of the database: true - one table 'index_foreign'
+     * (it should be set before generateTables()), false - tables 'index_XX'.
+     */
+    public static void setConsolidated(Connect connect, boolean on) {
+        consolidated.put(connect, on);
+    }
+
+    /** Returns true if foreign words are stored in the table 'index_foreign'.
+     * The layout is detected at the first call for the connection. */
+    public static boolean isConsolidated(Connect connect) {
+        Boolean on = consolidated.get(connect);
+        if(null == on) {
+            on = false;
+            try {
+                ResultSet rs = connect.conn.getMetaData().getTables(connect.conn.getCatalog(), null, CONSOLIDATED_TABLE, null);
+                try {
+                    on = rs.next();
+                } finally {
+                    rs.close();
+                }
+            } catch(SQLException ex) {
+                System.out.println("SQLException (IndexForeign.isConsolidated()):: " + ex.getMessage());
+            }
+            consolidated.put(connect, on);
+        }
+        return on;
+    }
+
+    /** Gets the table with words of the language: "`index_en`" or "`index_foreign`". */
+    static String getTableName(Connect connect, LanguageType foreign_lang) {
+        if(isConsolidated(connect))
+            return "`" + CONSOLIDATED_TABLE + "`";
+        return "`index_" + foreign_lang.toTablePrefix() + "`";
+    }
+
+    /** Gets the condition by the language for WHERE: "lang_id=5 AND " in
+     * the table 'index_foreign', empty string in the table 'index_XX'. */
+    static String getLangCondition(Connect connect, LanguageType foreign_lang) {
+        if(isConsolidated(connect))
+            return "lang_id=" + TLang.getIDFast(foreign_lang) + " AND ";
+        return "";
+    }
+
+    /** Gets the values of the row in the table 'index_foreign':
+     * (5,"water13",0,"вода13") or (5,"water13",1,"")
+     */
+    private static String getConsolidatedRow(Connect connect, String foreign_word,
+                    boolean foreign_has_definition, String native_page_title,
+                    LanguageType foreign_lang)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("(").append(TLang.getIDFast(foreign_lang)).append(",\"");
+        sb.append(PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, foreign_word));
+        sb.append("\",").append(foreign_has_definition ? 1 : 0).append(",\"");
+        if(null != native_page_title)
+            sb.append(PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, native_page_title));
+        return sb.append("\")").toString();
+    }
+
+    /** Inserts rows into the table 'index_foreign', existing pairs
+     * (foreign_word,native_page_title) are kept as they are. If the multi-row
+     * statement (or the batch) fails, then rows are inserted one by one,
+     * so that only bad rows are lost.<br><br>
+     * INSERT INTO index_foreign (lang_id,foreign_word,foreign_has_definition,native_page_title)
+     * VALUES (5,"water13",0,"вода13"),(5,"water",1,"") ON DUPLICATE KEY UPDATE id=id
+     */
+    private static void upsert (Connect connect, List<String> rows) {
+        if(rows.isEmpty())
+            return;
+
+        String prefix = (connect.isMySQL() ? "INSERT" : "INSERT OR IGNORE") + " INTO `" + CONSOLIDATED_TABLE +
+                        "` (lang_id,foreign_word,foreign_has_definition,native_page_title) VALUES ";
+        String suffix = connect.isMySQL() ? " ON DUPLICATE KEY UPDATE id=id" : "";
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                if(connect.isMySQL()) {
+                    StringBuilder str_sql = new StringBuilder(prefix);
+                    for(int i=0; i<rows.size(); i++) {
+                        if(i > 0)
+                            str_sql.append(",");
+                        str_sql.append(rows.get(i));
+                    }
+                    str_sql.append(suffix);
+                    s.executeUpdate (str_sql.toString());
+                } else {                // SQLite (3.7) has no multi-row INSERT
+                    for(String row : rows)
+                        s.addBatch(prefix + row);
+                    s.executeBatch();
+                }
+                return;
+            } finally {
+                s.close();
+            }
+        }catch(SQLException ex) {
+            System.out.println("SQLException (IndexForeign.upsert()):: rows=" + rows.size() +
+                    "; multi-row insert failed, rows are inserted one by one. " + ex.getMessage());
+        }
+
+        for(String row : rows) {
+            String str_sql = prefix + row + suffix;
+            try {
+                Statement s = connect.conn.createStatement ();
+                try {
+                    s.executeUpdate (str_sql);
+                } finally {
+                    s.close();
+                }
+            }catch(SQLException ex) {
+                System.out.println("SQLException (IndexForeign.upsert()):: sql='" + str_sql + "' " + ex.getMessage());
+            }
+        }
+    }
+
+    /** Turns on the batch insertion into the table 'index_foreign':
+     * insertIfAbsent() collects rows and writes them by ROWS_PER_INSERT,
+     * the rest is written by endBatch(). It is used during the parsing.
+     */
+    public static void beginBatch() {
+        pending = new ArrayList<String>();
+    }
+
+    /** Writes the rest of rows collected by insertIfAbsent(), turns off the batch insertion. */
+    public static void endBatch(Connect connect) {
+        List<String> rows = pending;
+        pending = null;
+        if(null != rows) {
+            synchronized(rows) {
+                upsert(connect, rows);
+                rows.clear();
+            }
+        }
+    }
+
     /** Gets concatenation of foreign word, delimiter, and a word in native language. */
     public String getConcatForeignAndNativeWords(String delimiter) {
         if(null == native_page)
@@ -99,6 +283,12 @@ public class IndexForeign {
         if(foreign_lang == native_lang)
             return;
         
+        if(isConsolidated(connect)) {
+            upsert(connect, Collections.singletonList(getConsolidatedRow(connect,
+                    foreign_word, foreign_has_definition, native_page_title, foreign_lang)));
+            return;
+        }
+
         StringBuilder str_sql = new StringBuilder();
         boolean b_native_word = null != native_page_title && native_page_title.length() > 0;
 
@@ -113,7 +303,7 @@ public class IndexForeign {
                                 connect, foreign_word);
         str_sql.append(safe_title);
         str_sql.append("\",");
-        str_sql.append(foreign_has_definition);
+        str_sql.append(foreign_has_definition ? 1 : 0);
 
         if(b_native_word) {
             str_sql.append(",\"");
@@ -170,6 +360,39 @@ public class IndexForeign {
             return;
         }
 
+        if(null != inserted) {
+            String key = foreign_lang.toTablePrefix() + "\t" + foreign_word + "\t" +
+                         (null == native_page_title ? "" : native_page_title);
+            if(!inserted.add(key))
+                return;
+            if(!isConsolidated(conn)) {
+                insert (conn,foreign_word, foreign_has_definition,
+                    native_page_title,
+                    native_lang, foreign_lang);
+                return;
+            }
+        }
+
+        if(isConsolidated(conn)) {      // the unique key is checked by upsert
+            List<String> rows = pending;
+            if(null == rows) {
+                insert (conn,foreign_word, foreign_has_definition,
+                    native_page_title,
+                    native_lang, foreign_lang);
+                return;
+            }
+            String row = getConsolidatedRow(conn, foreign_word, foreign_has_definition,
+                                            native_page_title, foreign_lang);
+            synchronized(rows) {
+                rows.add(row);
+                if(rows.size() >= ROWS_PER_INSERT) {
+                    upsert(conn, rows);
+                    rows.clear();
+                }
+            }
+            return;
+        }
+
         if(!IndexForeign.has( conn, foreign_word,
                               native_page_title, foreign_lang))
         {
@@ -179,6 +402,15 @@ public class IndexForeign {
         }
     }
 
+    /** Turns on (off) the check of absent pairs (foreign_word,native_page_title)
+     * in memory, so that the tables 'index_XX' could be filled without indexes
+     * during the bulk load. The set should be turned on before the first
+     * insertion into empty tables.
+     */
+    public static void setInMemoryDedup(boolean on) {
+        inserted = on ? Collections.synchronizedSet(new HashSet<String>()) : null;
+    }
+
     /** Checks whether exists any row in the table 'index_foreign' (index_XX)
      * with a pair (foreign_word, native_page_title).<br><br>
      *
@@ -204,15 +436,18 @@ public class IndexForeign {
     public static int count (Connect conn, String foreign_word,
                      String native_page_title, LanguageType foreign_lang)
     {
-        String table_name = "`index_" + foreign_lang.toTablePrefix() + "`";
+        String table_name = getTableName(conn, foreign_lang);
         String safe_title = PageTableBase.convertToSafeStringEncodeToDBWunderscore(conn, foreign_word);
 
         StringBuilder str_sql = new StringBuilder();
-        str_sql.append("select COUNT(*) AS size from ").append(table_name).append(" WHERE foreign_word=\"");
+        str_sql.append("select COUNT(*) AS size from ").append(table_name).append(" WHERE ");
+        str_sql.append(getLangCondition(conn, foreign_lang)).append("foreign_word=\"");
         str_sql.append(safe_title);
         str_sql.append("\"");
 
-        if(null == native_page_title) {
+        if(isConsolidated(conn) && null == native_page_title) {
+            str_sql.append(" AND native_page_title=\"\"");
+        } else if(null == native_page_title) {
             // select COUNT(*) AS size from index_uk WHERE foreign_word="water13" AND native_page_title is NULL;
             str_sql.append(" AND native_page_title is NULL");
         } else {
@@ -279,15 +514,20 @@ public class IndexForeign {
     private static int countNativePageTitleIsNull (Connect conn, LanguageType foreign_lang,
                                         boolean is_null)
     {
-        String table_name = "`index_" + foreign_lang.toTablePrefix() + "`";
+        String table_name = getTableName(conn, foreign_lang);
         StringBuilder str_sql = new StringBuilder();
-        str_sql.append("SELECT COUNT(*) AS size from ").append(table_name).append(" WHERE native_page_title is ");
-        if(is_null) {
+        str_sql.append("SELECT COUNT(*) AS size from ").append(table_name).append(" WHERE ");
+        str_sql.append(getLangCondition(conn, foreign_lang));
+        if(isConsolidated(conn)) {
+            // SELECT COUNT(*) FROM index_foreign WHERE lang_id=5 AND native_page_title="";
+            str_sql.append(is_null ? "native_page_title=\"\"" : "native_page_title<>\"\"");
+        } else if(is_null) {
+            str_sql.append("native_page_title is ");
             // SELECT COUNT(*) FROM index_en WHERE native_page_title is NULL;
             str_sql.append("NULL");
         } else {
             // SELECT COUNT(*) FROM index_en WHERE native_page_title is not NULL;
-            str_sql.append("not NULL");
+            str_sql.append("native_page_title is not NULL");
         }
 
         int size = 0;
@@ -310,6 +550,44 @@ public class IndexForeign {
         return size;
     }
 
+    /** Counts number of foreign parts of speech (POS) and translations for
+     * each language by one pass over the table 'index_foreign'.<br><br>
+     *
+     * SELECT lang_id,SUM(native_page_title="") AS n_pos,SUM(native_page_title<>"") AS n_translations FROM index_foreign GROUP BY lang_id;
+     *
+     * @return map from language to {number of POS, number of translations}
+     * (absent languages have no words), or null if the database has tables
+     * 'index_XX' (see countNumberOfForeignPOS() and countTranslations())
+     */
+    public static Map<LanguageType, int[]> countByLanguages (Connect conn) {
+        if(!isConsolidated(conn))
+            return null;
+
+        String str_sql = "SELECT lang_id,SUM(native_page_title=\"\") AS n_pos,SUM(native_page_title<>\"\") AS n_translations FROM `" +
+                         CONSOLIDATED_TABLE + "` GROUP BY lang_id";
+        Map<LanguageType, int[]> result = new HashMap<LanguageType, int[]>();
+        try {
+            Statement s = conn.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql);
+                try {
+                    while (rs.next ()) {
+                        TLang tlang = TLang.getTLangFast(rs.getInt("lang_id"));
+                        if(null != tlang)
+                            result.put(tlang.getLanguage(), new int[] {rs.getInt("n_pos"), rs.getInt("n_translations")});
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (IndexForeign.countByLanguages()):: sql='" + str_sql + "' " + ex.getMessage());
+        }
+        return result;
+    }
+
     /** Selects rows from the table 'index_foreign' by the prefix of foreign word.<br><br>
      *
      * SELECT foreign_word,native_page_title FROM index_en WHERE foreign_word LIKE 'water1%';
@@ -335,12 +613,12 @@ public class IndexForeign {
         if(foreign_lang == native_lang || 0==limit)
             return NULL_INDEXFOREIGN_ARRAY;
         
-        String table_name = "`index_" + foreign_lang.toTablePrefix() + "`";
+        String table_name = getTableName(connect, foreign_lang);
 
         StringBuilder str_sql = new StringBuilder();
         str_sql.append("SELECT foreign_word,foreign_has_definition,native_page_title FROM ");
         str_sql.append(table_name);
-        str_sql.append(" WHERE foreign_word LIKE \"");
+        str_sql.append(" WHERE ").append(getLangCondition(connect, foreign_lang)).append("foreign_word LIKE \"");
         String safe_prefix = PageTableBase.convertToSafeWithWildCard(connect,
                                                           prefix_foreign_word);
         str_sql.append(safe_prefix);
@@ -400,7 +678,7 @@ public class IndexForeign {
                                 }
 
                                 IndexForeign _if = new IndexForeign(
-                                        foreign_page, foreign_word, native_page);
+                                        foreign_page, foreign_word, native_page, foreign_lang);
 
                                 if(null == if_list)
                                     if_list = new ArrayList<IndexForeign>();
@@ -425,6 +703,186 @@ public class IndexForeign {
         return ((IndexForeign[])if_list.toArray(NULL_INDEXFOREIGN_ARRAY));
     }
 
+    /** Selects rows from the table 'index_XX' by the prefix of foreign word
+     * (or by the wildcard pattern) with the help of the title index, i.e.
+     * the search itself is performed without SQL. The result array contains 
+     * exactly 'limit' words (if there are enough such words).
+     *
+     * @param  foreign_index  index of the table 'index_XX' (TitleIndex.createForeign())
+     * @param  prefix_foreign_word the begining of the foreign words, or the 
+     *                  pattern with wildcards '*' and '?'
+     * @param  limit    constraint of the number of rows returned,
+     *                  if it's negative then a constraint is omitted
+     * @param b_meaning return articles with definitions (constraint)
+     * @param  b_sem_rel return articles with semantic relations
+     *
+     * @return array of words started from the prefix (empty array if they are absent)
+     */
+    public static IndexForeign[] getByPrefixForeign (
+                                        Connect connect, TitleIndex foreign_index,
+                                        String prefix_foreign_word, int limit,
+                                        LanguageType native_lang,
+                                        LanguageType foreign_lang,
+                                        boolean b_meaning,
+                                        boolean b_sem_rel
+                                        ) {
+        if(foreign_lang == native_lang || 0==limit)
+            return NULL_INDEXFOREIGN_ARRAY;
+
+        String table_name = getTableName(connect, foreign_lang);
+        List<IndexForeign> if_list = new ArrayList<IndexForeign>();
+
+        Iterator<TitleIndex.Entry> it = foreign_index.search(prefix_foreign_word);
+        while(it.hasNext() && (limit < 0 || if_list.size() < limit)) {
+            TitleIndex.Entry e = it.next();
+
+            boolean foreign_has_definition = e.hasDefinition();
+            if(b_meaning && !foreign_has_definition)   // filter: words only with definitions
+                continue;
+
+            String foreign_word = e.getTitle();
+            TPage foreign_page = null;
+            if(foreign_has_definition)
+                foreign_page = TPage.get(connect, foreign_word);
+
+            if(b_sem_rel) {
+                if(null == foreign_page)
+                    continue;
+                foreign_page.setLangPOS( TLangPOS.getRecursive(connect, foreign_page) );    // fills property: .foreign_page.hasSemanticRelation()
+                if(!foreign_page.hasSemanticRelation())
+                    continue;
+            }
+
+            TPage native_page = null;
+            String native_page_title = getNativePageTitleByID(connect, table_name, e.getID());
+            if(null != native_page_title && native_page_title.length() > 0)
+                native_page = TPage.get(connect, native_page_title);
+
+            if_list.add(new IndexForeign(foreign_page, foreign_word, native_page, foreign_lang));
+        }
+        return ((IndexForeign[])if_list.toArray(NULL_INDEXFOREIGN_ARRAY));
+    }
+
+    /** Selects rows of all foreign languages by the prefix of foreign word.
+     * It is one query for the table 'index_foreign', and one query for each
+     * table 'index_XX' (till the limit) in the old layout.<br><br>
+     *
+     * SELECT lang_id,foreign_word,foreign_has_definition,native_page_title FROM index_foreign WHERE foreign_word LIKE "water%" LIMIT 10;
+     *
+     * @param  prefix_foreign_word the begining of the foreign words (with SQL wildcards)
+     * @param  limit    constraint of the number of rows returned,
+     *                  if it's negative then a constraint is omitted
+     * @param native_lang       native language in the Wiktionary
+     *
+     * @return array of words started from the prefix, see getForeignLanguage()
+     */
+    public static IndexForeign[] getByPrefixForeignInAllLanguages (
+                                        Connect connect,
+                                        String prefix_foreign_word, int limit,
+                                        LanguageType native_lang)
+    {
+        List<IndexForeign> if_list = new ArrayList<IndexForeign>();
+        if(0 == limit)
+            return NULL_INDEXFOREIGN_ARRAY;
+
+        String safe_prefix = PageTableBase.convertToSafeWithWildCard(connect, prefix_foreign_word);
+        if(isConsolidated(connect)) {
+            selectByPrefix(connect, "SELECT lang_id,foreign_word,foreign_has_definition,native_page_title FROM `" +
+                        CONSOLIDATED_TABLE + "` WHERE foreign_word LIKE \"" + safe_prefix + "\"" +
+                        (limit > 0 ? " LIMIT " + limit : ""), null, if_list);
+        } else {
+            for(LanguageType foreign_lang : TLang.getAllLanguages().keySet()) {
+                if(foreign_lang == native_lang)
+                    continue;
+                if(limit > 0 && if_list.size() >= limit)
+                    break;
+                selectByPrefix(connect, "SELECT foreign_word,foreign_has_definition,native_page_title FROM " +
+                        getTableName(connect, foreign_lang) + " WHERE foreign_word LIKE \"" + safe_prefix + "\"" +
+                        (limit > 0 ? " LIMIT " + (limit - if_list.size()) : ""), foreign_lang, if_list);
+            }
+        }
+        return ((IndexForeign[])if_list.toArray(NULL_INDEXFOREIGN_ARRAY));
+    }
+
+    /** Adds words selected by getByPrefixForeignInAllLanguages() to the list.
+     *
+     * @param foreign_lang  language of the table 'index_XX', null - the column lang_id is selected
+     */
+    private static void selectByPrefix (Connect connect, String str_sql,
+                                LanguageType foreign_lang, List<IndexForeign> if_list)
+    {
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql);
+                try {
+                    while (rs.next ()) {
+                        LanguageType lang = foreign_lang;
+                        if(null == lang) {
+                            TLang tlang = TLang.getTLangFast(rs.getInt("lang_id"));
+                            if(null == tlang)
+                                continue;
+                            lang = tlang.getLanguage();
+                        }
+                        String foreign_word = Encodings.bytesToUTF8(rs.getBytes("foreign_word"));
+                        boolean foreign_has_definition = rs.getBoolean("foreign_has_definition");
+                        byte[] bt_native_page_title = rs.getBytes("native_page_title");
+
+                        TPage foreign_page = null;
+                        if(foreign_has_definition)
+                            foreign_page = TPage.get(connect, foreign_word);
+
+                        TPage native_page = null;
+                        if(null != bt_native_page_title) {
+                            String native_page_title = Encodings.bytesToUTF8(bt_native_page_title);
+                            if(native_page_title.length() > 0)
+                                native_page = TPage.get(connect, native_page_title);
+                        }
+                        if_list.add(new IndexForeign(foreign_page, foreign_word, native_page, lang));
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (IndexForeign.selectByPrefix()):: sql='" + str_sql + "' " + ex.getMessage());
+        }
+    }
+
+    /** Selects native_page_title from the table 'index_XX' by ID.<br><br>
+     * SELECT native_page_title FROM index_en WHERE id=13;
+     *
+     * @return null if the native page title is NULL or the record is absent
+     */
+    private static String getNativePageTitleByID (Connect connect, String table_name, int id) {
+
+        StringBuilder str_sql = new StringBuilder();
+        str_sql.append("SELECT native_page_title FROM ").append(table_name).append(" WHERE id=").append(id);
+        String native_page_title = null;
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql.toString());
+                try {
+                    if (rs.next ()) {
+                        byte[] bt_native_page_title = rs.getBytes("native_page_title");
+                        if(null != bt_native_page_title)
+                            native_page_title = Encodings.bytesToUTF8(bt_native_page_title);
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (IndexForeign.getNativePageTitleByID()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+        return native_page_title;
+    }
+
     /** Deletes a record from the table 'index_XX'.<br><br>
      * 
      * DELETE FROM index_en WHERE foreign_word="water12" AND native_page_title="ru_water12";
@@ -448,8 +906,9 @@ public class IndexForeign {
         boolean b_native_word = null != native_page_title && native_page_title.length() > 0;
 
         StringBuilder str_sql = new StringBuilder();
-        String table_name = "`index_" + foreign_lang.toTablePrefix() + "`";
-        str_sql.append("DELETE FROM ").append(table_name).append(" WHERE foreign_word=\"");
+        String table_name = getTableName(connect, foreign_lang);
+        str_sql.append("DELETE FROM ").append(table_name).append(" WHERE ");
+        str_sql.append(getLangCondition(connect, foreign_lang)).append("foreign_word=\"");
 
         String safe_title = PageTableBase.convertToSafeStringEncodeToDBWunderscore(
                                 connect, foreign_word);
@@ -461,7 +920,7 @@ public class IndexForeign {
                                 connect, native_page_title);
             str_sql.append("\"").append(safe_title).append("\"");
         } else
-            str_sql.append("NULL");
+            str_sql.append(isConsolidated(connect) ? "\"\"" : "NULL");
 
         try
         {
@@ -497,6 +956,11 @@ public class IndexForeign {
      */
     public static void generateTables (Connect connect, LanguageType native_lang)
     {
+        if(isConsolidated(connect)) {
+            generateConsolidatedTable(connect);
+            return;
+        }
+
         Statement   s = null;
         StringBuffer str_sql = new StringBuffer();
         
@@ -542,4 +1006,40 @@ public class IndexForeign {
         }
     }
 
+    /** Generates the table 'index_foreign' with words of all languages
+     * (instead of tables 'index_XX', which are not dropped).<br><br>
+     *
+     * The unique key includes native_page_title, so it is empty string
+     * (not NULL) for foreign words without translation.
+     */
+    public static void generateConsolidatedTable (Connect connect)
+    {
+        String[] sql = {
+            "DROP TABLE IF EXISTS `" + CONSOLIDATED_TABLE + "`",
+            "CREATE TABLE IF NOT EXISTS `" + CONSOLIDATED_TABLE + "` (" +
+                    "`id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT," +
+                    "`lang_id` SMALLINT NOT NULL," +
+                    "`foreign_word` VARCHAR(255) BINARY NOT NULL," +
+                    "`foreign_has_definition` TINYINT(1) NOT NULL," +
+                    "`native_page_title` VARCHAR(255) BINARY NOT NULL DEFAULT ''," +
+                    "PRIMARY KEY (`id`)," +
+                    "UNIQUE `lang_foreign_native` (`lang_id` ASC, `foreign_word` ASC, `native_page_title` ASC)," +
+                    "INDEX `foreign_word` (`foreign_word` (7) ASC)," +
+                    "INDEX `native_page_title` (`native_page_title` (7) ASC) )" +
+                    "ENGINE = InnoDB"};
+        String str_sql = "";
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                for(String q : sql) {
+                    str_sql = q;
+                    s.execute(str_sql);
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (IndexForeign.generateConsolidatedTable()): sql='" + str_sql + "' " + ex.getMessage());
+        }
+    }
 }
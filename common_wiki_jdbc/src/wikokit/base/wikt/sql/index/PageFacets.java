@@ -0,0 +1,476 @@
+/* PageFacets.java - precomputed sets of page IDs (bitmaps) for word list filtering:
+ *                   has definition, has semantic relation, source language,
+ *                   language of translation.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql.index;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.sql.TLang;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Facets of pages: for each filter of the word list (TPage.getByPrefix)
+ * there is a set of page IDs, which satisfy the filter. The facets are
+ * built after parsing in one pass over the tables lang_pos, meaning,
+ * relation, translation and translation_entry.
+ *
+ * Then the combination of filters is the intersection of sets
+ * (and the union of sets for several languages), so the word list is
+ * filtered without reading pages from the database.
+ */
+public class PageFacets {
+
+    private final static int MAGIC      = 0x57544643; // "WTFC"
+    private final static int VERSION    = 1;
+
+    /** Pages with at least one definition. */
+    private IdSet has_definition;
+
+    /** Pages with at least one semantic relation. */
+    private IdSet has_relation;
+
+    /** Pages with a word in the language: lang.id -> pages. */
+    private Map<Integer, IdSet> source_lang;
+
+    /** Pages with translations into the language: lang.id -> pages. */
+    private Map<Integer, IdSet> trans_lang;
+
+    private final static IdSet EMPTY_SET = new IdSet(new int[0]);
+
+    private PageFacets() {
+    }
+
+    /** Creates facets from lists of page IDs (lists could contain duplicates).
+     *
+     * @param lang2source_pages lang.id -> pages with words in this language
+     * @param lang2trans_pages  lang.id -> pages with translations into this language
+     */
+    PageFacets(IntList definition_pages, IntList relation_pages,
+               Map<Integer, IntList> lang2source_pages,
+               Map<Integer, IntList> lang2trans_pages)
+    {
+        has_definition  = new IdSet(definition_pages);
+        has_relation    = new IdSet(relation_pages);
+        source_lang     = toIdSets(lang2source_pages);
+        trans_lang      = toIdSets(lang2trans_pages);
+    }
+
+    private static Map<Integer, IdSet> toIdSets(Map<Integer, IntList> lang2list) {
+        Map<Integer, IdSet> result = new HashMap<Integer, IdSet>();
+        for(Map.Entry<Integer, IntList> e : lang2list.entrySet())
+            result.put(e.getKey(), new IdSet(e.getValue()));
+        return result;
+    }
+
+    /** Gets pages with definitions. */
+    public IdSet getHasDefinition() {
+        return has_definition;
+    }
+
+    /** Gets pages with semantic relations. */
+    public IdSet getHasRelation() {
+        return has_relation;
+    }
+
+    /** Gets pages with words in the language 'lang'. */
+    public IdSet getSourceLang(TLang lang) {
+        IdSet set = source_lang.get(lang.getID());
+        return null == set ? EMPTY_SET : set;
+    }
+
+    /** Gets pages with translations into the language 'lang'. */
+    public IdSet getTranslationLang(TLang lang) {
+        IdSet set = trans_lang.get(lang.getID());
+        return null == set ? EMPTY_SET : set;
+    }
+
+    /** Checks whether the page satisfies all filters, i.e. the same filters
+     * as in TPage.getByPrefix(): the page has definition (if b_meaning),
+     * semantic relations (if b_sem_rel), a word in one of 'source_lang'
+     * languages, and translation into one of 'trans_lang' languages
+     * (empty arrays mean that there is no language filter).
+     */
+    public boolean accept(int page_id, boolean b_meaning, boolean b_sem_rel,
+                          TLang source_lang[], TLang trans_lang[])
+    {
+        if(b_meaning && !has_definition.contains(page_id))
+            return false;
+
+        if(b_sem_rel && !has_relation.contains(page_id))
+            return false;
+
+        if(source_lang.length > 0 && !containsAny(this.source_lang, source_lang, page_id))
+            return false;
+
+        if(trans_lang.length > 0 && !containsAny(this.trans_lang, trans_lang, page_id))
+            return false;
+
+        return true;
+    }
+
+    private static boolean containsAny(Map<Integer, IdSet> lang2pages, TLang langs[], int page_id) {
+        for(TLang lang : langs) {
+            IdSet set = lang2pages.get(lang.getID());
+            if(null != set && set.contains(page_id))
+                return true;
+        }
+        return false;
+    }
+
+    /** Gets all pages which satisfy all filters (see accept()) as a bitmap,
+     * i.e. intersection of facets (and union of facets for several languages).
+     *
+     * @param max_page_id   maximum page ID (size of the bitmap)
+     */
+    public BitSet filter(int max_page_id, boolean b_meaning, boolean b_sem_rel,
+                         TLang source_lang[], TLang trans_lang[])
+    {
+        BitSet result = new BitSet(max_page_id + 1);
+        result.set(0, max_page_id + 1);
+
+        if(b_meaning)
+            result.and(has_definition.toBitSet());
+
+        if(b_sem_rel)
+            result.and(has_relation.toBitSet());
+
+        if(source_lang.length > 0)
+            result.and(union(this.source_lang, source_lang));
+
+        if(trans_lang.length > 0)
+            result.and(union(this.trans_lang, trans_lang));
+
+        return result;
+    }
+
+    private static BitSet union(Map<Integer, IdSet> lang2pages, TLang langs[]) {
+        BitSet result = new BitSet();
+        for(TLang lang : langs) {
+            IdSet set = lang2pages.get(lang.getID());
+            if(null != set)
+                result.or(set.toBitSet());
+        }
+        return result;
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Creation
+
+    /** Creates facets from the parsed database.<br><br>
+     *
+     * SELECT DISTINCT lang_pos.page_id,lang_pos.lang_id FROM lang_pos;<br>
+     * SELECT DISTINCT lang_pos.page_id FROM lang_pos,meaning WHERE meaning.lang_pos_id=lang_pos.id;<br>
+     * SELECT DISTINCT lang_pos.page_id FROM lang_pos,meaning,relation WHERE ...;<br>
+     * SELECT DISTINCT lang_pos.page_id,translation_entry.lang_id FROM lang_pos,meaning,translation,translation_entry WHERE ...;
+     *
+     * @return null in the case of SQL error
+     */
+    public static PageFacets create(Connect connect) {
+
+        try {
+            IntList definition_pages = selectPages(connect,
+                "SELECT DISTINCT lang_pos.page_id FROM lang_pos,meaning " +
+                "WHERE meaning.lang_pos_id=lang_pos.id");
+
+            IntList relation_pages = selectPages(connect,
+                "SELECT DISTINCT lang_pos.page_id FROM lang_pos,meaning,relation " +
+                "WHERE relation.meaning_id=meaning.id AND meaning.lang_pos_id=lang_pos.id");
+
+            Map<Integer, IntList> lang2source_pages = selectLangPages(connect,
+                "SELECT DISTINCT lang_pos.page_id,lang_pos.lang_id FROM lang_pos");
+
+            Map<Integer, IntList> lang2trans_pages = selectLangPages(connect,
+                "SELECT DISTINCT lang_pos.page_id,translation_entry.lang_id " +
+                "FROM lang_pos,meaning,translation,translation_entry " +
+                "WHERE translation_entry.translation_id=translation.id " +
+                "AND translation.meaning_id=meaning.id AND meaning.lang_pos_id=lang_pos.id");
+
+            return new PageFacets(definition_pages, relation_pages,
+                                  lang2source_pages, lang2trans_pages);
+
+        } catch(SQLException ex) {
+            System.out.println("SQLException (PageFacets.create()): " + ex.getMessage());
+        }
+        return null;
+    }
+
+    /** Selects page IDs (first column) by the SQL query. */
+    private static IntList selectPages(Connect connect, String str_sql) throws SQLException {
+
+        IntList pages = new IntList();
+        Statement s = connect.conn.createStatement ();
+        try {
+            ResultSet rs = s.executeQuery (str_sql);
+            try {
+                while (rs.next ())
+                    pages.add(rs.getInt(1));
+            } finally {
+                rs.close();
+            }
+        } finally {
+            s.close();
+        }
+        return pages;
+    }
+
+    /** Selects pairs (page ID, lang ID) and groups pages by languages. */
+    private static Map<Integer, IntList> selectLangPages(Connect connect, String str_sql) throws SQLException {
+
+        Map<Integer, IntList> lang2list = new HashMap<Integer, IntList>();
+        Statement s = connect.conn.createStatement ();
+        try {
+            ResultSet rs = s.executeQuery (str_sql);
+            try {
+                while (rs.next ()) {
+                    int page_id = rs.getInt(1);
+                    int lang_id = rs.getInt(2);
+
+                    IntList pages = lang2list.get(lang_id);
+                    if(null == pages) {
+                        pages = new IntList();
+                        lang2list.put(lang_id, pages);
+                    }
+                    pages.add(page_id);
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            s.close();
+        }
+        return lang2list;
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // File
+
+    /** Writes facets to the file. */
+    public void write(File file) throws IOException {
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            has_definition.write(out);
+            has_relation.write(out);
+            writeLangMap(out, source_lang);
+            writeLangMap(out, trans_lang);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void writeLangMap(DataOutputStream out, Map<Integer, IdSet> lang2pages) throws IOException {
+        out.writeInt(lang2pages.size());
+        for(Map.Entry<Integer, IdSet> e : lang2pages.entrySet()) {
+            out.writeInt(e.getKey());
+            e.getValue().write(out);
+        }
+    }
+
+    /** Reads facets from the file.
+     * @return null if the file is absent or it is not a facets file
+     */
+    public static PageFacets read(File file) {
+
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if(MAGIC != in.readInt() || VERSION != in.readInt()) {
+                    System.out.println("Error in PageFacets.read(): file '" + file + "' is not a page facets file.");
+                    return null;
+                }
+                PageFacets f = new PageFacets();
+                f.has_definition = IdSet.read(in);
+                f.has_relation   = IdSet.read(in);
+                f.source_lang    = readLangMap(in);
+                f.trans_lang     = readLangMap(in);
+                return f;
+            } finally {
+                in.close();
+            }
+        } catch(IOException ex) {
+            System.out.println("Error in PageFacets.read(): file='" + file + "' " + ex.getMessage());
+        }
+        return null;
+    }
+
+    private static Map<Integer, IdSet> readLangMap(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        Map<Integer, IdSet> result = new HashMap<Integer, IdSet>(2 * n);
+        for(int i=0; i<n; i++) {
+            int lang_id = in.readInt();
+            result.put(lang_id, IdSet.read(in));
+        }
+        return result;
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Set of IDs
+
+    /** Growing array of int. */
+    protected static class IntList {
+        int[] data = new int[16];
+        int size = 0;
+
+        public void add(int value) {
+            if(size == data.length)
+                data = Arrays.copyOf(data, 2 * size);
+            data[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    /** Compressed set of IDs: a bitmap for dense sets, a sorted array of IDs
+     * for sparse sets (e.g. pages of rare languages). */
+    public static class IdSet {
+
+        /** Bitmap (dense set) or null. */
+        private final BitSet bits;
+
+        /** Sorted IDs (sparse set) or null. */
+        private final int[] ids;
+
+        private final int cardinality;
+
+        private IdSet(BitSet _bits) {
+            bits = _bits;
+            ids  = null;
+            cardinality = bits.cardinality();
+        }
+
+        private IdSet(int[] sorted_unique_ids) {
+            bits = null;
+            ids  = sorted_unique_ids;
+            cardinality = ids.length;
+        }
+
+        /** Creates set from the unsorted list of IDs (with possible duplicates),
+         * selects the most compact representation. */
+        protected IdSet(IntList list) {
+            int[] a = list.toArray();
+            Arrays.sort(a);
+
+            int n = 0;
+            for(int i=0; i<a.length; i++) {
+                if(0 == n || a[n-1] != a[i])
+                    a[n++] = a[i];
+            }
+            int max = 0 == n ? 0 : a[n-1];
+
+            // bitmap: max/8 bytes, array: 4*n bytes
+            if(max / 8 < 4L * n) {
+                BitSet b = new BitSet(max + 1);
+                for(int i=0; i<n; i++)
+                    b.set(a[i]);
+                bits = b;
+                ids  = null;
+            } else {
+                bits = null;
+                ids  = Arrays.copyOf(a, n);
+            }
+            cardinality = n;
+        }
+
+        /** Returns true if the set contains the ID. */
+        public boolean contains(int id) {
+            if(null != bits)
+                return id >= 0 && bits.get(id);
+            return Arrays.binarySearch(ids, id) >= 0;
+        }
+
+        /** Counts number of IDs in the set. */
+        public int size() {
+            return cardinality;
+        }
+
+        /** Gets the set as bitmap (the bitmap should not be changed). */
+        public BitSet toBitSet() {
+            if(null != bits)
+                return bits;
+
+            BitSet b = new BitSet();
+            for(int id : ids)
+                b.set(id);
+            return b;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            if(null != bits) {
+                out.writeByte(1);
+                long[] words = bits.toLongArray();
+                out.writeInt(words.length);
+                for(long w : words)
+                    out.writeLong(w);
+            } else {
+                out.writeByte(0);
+                out.writeInt(ids.length);
+                int prev = 0;
+                for(int id : ids) {     // delta coding of sorted IDs
+                    writeVarInt(out, id - prev);
+                    prev = id;
+                }
+            }
+        }
+
+        static IdSet read(DataInputStream in) throws IOException {
+            byte kind = in.readByte();
+            int n = in.readInt();
+            if(1 == kind) {
+                long[] words = new long[n];
+                for(int i=0; i<n; i++)
+                    words[i] = in.readLong();
+                return new IdSet(BitSet.valueOf(words));
+            }
+            int[] a = new int[n];
+            int prev = 0;
+            for(int i=0; i<n; i++) {
+                prev += readVarInt(in);
+                a[i] = prev;
+            }
+            return new IdSet(a);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while(0 != (b & 0x80));
+        return value;
+    }
+}
@@ -0,0 +1,580 @@
+/* TitleIndex.java - memory-mapped sorted index of page titles (native words)
+ *                   and foreign words (tables 'index_XX').
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql.index;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikt.sql.TLang;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+/** Sorted array of titles stored in a file with front coding and read via
+ * memory mapping. It answers prefix and wildcard queries without SQL.
+ *
+ * The index is built after parsing: from the table 'page' (native words,
+ * id = page.id) or from the table 'index_XX' (foreign words, id = index_XX.id).
+ *
+ * <PRE>
+ * File format (big-endian):
+ * header:  magic, version, n_entries, block_size, n_blocks (int),
+ *          offset of block table, offset of ids, offset of flags (long)
+ * blocks:  first title of a block: varint length, UTF-8 bytes;
+ *          next titles: varint shared prefix length, varint suffix length, suffix bytes
+ * block table: long[n_blocks] - offsets of blocks
+ * ids:     int[n_entries]
+ * flags:   byte[n_entries]
+ * </PRE>
+ * Titles are sorted by UTF-8 bytes (i.e. by code points).
+ */
+public class TitleIndex {
+
+    private final static int MAGIC      = 0x57544958; // "WTIX"
+    private final static int VERSION    = 1;
+    private final static int HEADER_SIZE = 5*4 + 3*8;
+
+    /** Number of titles in one front coded block. */
+    private final static int BLOCK_SIZE = 16;
+
+    /** Flag: the page is #REDIRECT (native words). */
+    public final static byte FLAG_REDIRECT       = 1;
+
+    /** Flag: the foreign word has definition (index_XX.foreign_has_definition). */
+    public final static byte FLAG_HAS_DEFINITION = 2;
+
+    private final MappedByteBuffer buf;
+    private final int  n_entries;
+    private final int  block_size;
+    private final int  n_blocks;
+    private final long offset_blocks;
+    private final long offset_ids;
+    private final long offset_flags;
+
+    private TitleIndex(MappedByteBuffer _buf) {
+        buf             = _buf;
+        n_entries       = buf.getInt(8);
+        block_size      = buf.getInt(12);
+        n_blocks        = buf.getInt(16);
+        offset_blocks   = buf.getLong(20);
+        offset_ids      = buf.getLong(28);
+        offset_flags    = buf.getLong(36);
+    }
+
+    /** Title with its identifier and flags. */
+    public static class Entry {
+        private final String title;
+        private final int    id;
+        private final byte   flags;
+
+        public Entry(String _title, int _id, byte _flags) {
+            title   = _title;
+            id      = _id;
+            flags   = _flags;
+        }
+
+        /** Gets page title (or foreign word). */
+        public String getTitle() {
+            return title;
+        }
+
+        /** Gets page.id (or index_XX.id for foreign words). */
+        public int getID() {
+            return id;
+        }
+
+        /** Returns true if the page is #REDIRECT. */
+        public boolean isRedirect() {
+            return 0 != (flags & FLAG_REDIRECT);
+        }
+
+        /** Returns true if the foreign word has definition. */
+        public boolean hasDefinition() {
+            return 0 != (flags & FLAG_HAS_DEFINITION);
+        }
+
+        @Override
+        public String toString() {
+            return "id=" + id + "; title=" + title;
+        }
+    }
+
+    /** Counts number of titles in the index. */
+    public int size() {
+        return n_entries;
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Creation of index file
+
+    /** Writes entries to the index file (entries will be sorted). */
+    public static void write(File file, List<Entry> entries) throws IOException {
+
+        final List<byte[]> keys = new ArrayList<byte[]>(entries.size());
+        List<Integer> order = new ArrayList<Integer>(entries.size());
+        for(int i=0; i<entries.size(); i++) {
+            keys.add(entries.get(i).getTitle().getBytes(StandardCharsets.UTF_8));
+            order.add(i);
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return compareBytes(keys.get(a), keys.get(b));
+            }
+        });
+
+        int n = entries.size();
+        int n_blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long[] block_offsets = new long[n_blocks];
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        byte[] prev = null;
+        for(int i=0; i<n; i++) {
+            byte[] key = keys.get(order.get(i));
+            if(0 == i % BLOCK_SIZE) {
+                block_offsets[i / BLOCK_SIZE] = HEADER_SIZE + data.size();
+                writeVarInt(data, key.length);
+                data.write(key, 0, key.length);
+            } else {
+                int shared = 0;
+                int max = Math.min(prev.length, key.length);
+                while(shared < max && prev[shared] == key[shared])
+                    shared ++;
+                writeVarInt(data, shared);
+                writeVarInt(data, key.length - shared);
+                data.write(key, shared, key.length - shared);
+            }
+            prev = key;
+        }
+
+        long offset_blocks = HEADER_SIZE + data.size();
+        long offset_ids    = offset_blocks + 8L * n_blocks;
+        long offset_flags  = offset_ids    + 4L * n;
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(BLOCK_SIZE);
+            out.writeInt(n_blocks);
+            out.writeLong(offset_blocks);
+            out.writeLong(offset_ids);
+            out.writeLong(offset_flags);
+
+            data.writeTo(out);
+            for(long offset : block_offsets)
+                out.writeLong(offset);
+            for(int i=0; i<n; i++)
+                out.writeInt(entries.get(order.get(i)).getID());
+            for(int i=0; i<n; i++)
+                out.writeByte(entries.get(order.get(i)).flags);
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Creates the index of native words from the table 'page'.<br><br>
+     * SELECT id,page_title,is_redirect FROM page;
+     *
+     * @return true if the index file was written
+     */
+    public static boolean createNative(Connect connect, File file) {
+
+        String str_sql = "SELECT id,page_title,is_redirect FROM page";
+        List<Entry> entries = new ArrayList<Entry>();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql);
+                try {
+                    while (rs.next ()) {
+                        int    id          = rs.getInt("id");
+                        String page_title  = Encodings.bytesToUTF8(rs.getBytes("page_title"));
+                        boolean is_redirect = 0 != rs.getInt("is_redirect");
+
+                        entries.add(new Entry(page_title, id, is_redirect ? FLAG_REDIRECT : 0));
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+            write(file, entries);
+
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TitleIndex.createNative()):: sql='" + str_sql + "' " + ex.getMessage());
+            return false;
+        } catch(IOException ex) {
+            System.out.println("Error in TitleIndex.createNative(): file='" + file + "' " + ex.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /** Creates the index of foreign words from the table 'index_XX'.<br><br>
+     * SELECT id,foreign_word,foreign_has_definition FROM index_en;
+     * or
+     * SELECT id,foreign_word,foreign_has_definition FROM index_foreign WHERE lang_id=5;
+     *
+     * @param native_lang   native language in the Wiktionary
+     * @param foreign_lang  foreign language XX
+     * @return true if the index file was written
+     */
+    public static boolean createForeign(Connect connect, LanguageType native_lang,
+                                        LanguageType foreign_lang, File file) {
+        if(foreign_lang == native_lang)
+            return false;
+
+        String str_sql = "SELECT id,foreign_word,foreign_has_definition FROM " +
+                         IndexForeign.getTableName(connect, foreign_lang) +
+                         (IndexForeign.isConsolidated(connect) ? " WHERE lang_id=" + TLang.getIDFast(foreign_lang) : "");
+        List<Entry> entries = new ArrayList<Entry>();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql);
+                try {
+                    while (rs.next ()) {
+                        int    id           = rs.getInt("id");
+                        String foreign_word = Encodings.bytesToUTF8(rs.getBytes("foreign_word"));
+                        boolean foreign_has_definition = rs.getBoolean("foreign_has_definition");
+
+                        entries.add(new Entry(foreign_word, id, foreign_has_definition ? FLAG_HAS_DEFINITION : 0));
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+            write(file, entries);
+
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TitleIndex.createForeign()):: sql='" + str_sql + "' " + ex.getMessage());
+            return false;
+        } catch(IOException ex) {
+            System.out.println("Error in TitleIndex.createForeign(): file='" + file + "' " + ex.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /** Opens (maps into memory) the index file.
+     * @return null if the file is absent or it is not a title index
+     */
+    public static TitleIndex open(File file) {
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel ch = raf.getChannel();
+                if(ch.size() > Integer.MAX_VALUE) {
+                    System.out.println("Error in TitleIndex.open(): file '" + file + "' is too large (> 2 GB).");
+                    return null;
+                }
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                if(ch.size() < HEADER_SIZE || MAGIC != buf.getInt(0) || VERSION != buf.getInt(4)) {
+                    System.out.println("Error in TitleIndex.open(): file '" + file + "' is not a title index.");
+                    return null;
+                }
+                return new TitleIndex(buf);
+            } finally {
+                raf.close();    // the mapping remains valid after the channel is closed
+            }
+        } catch(IOException ex) {
+            System.out.println("Error in TitleIndex.open(): file='" + file + "' " + ex.getMessage());
+        }
+        return null;
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Search
+
+    /** Returns true if the symbol is a wildcard: '*' or '%' (any string),
+     * '?' or '_' (any symbol). */
+    private static boolean isWildcard(char c) {
+        return '*' == c || '%' == c || '?' == c || '_' == c;
+    }
+
+    /** Gets position of the first wildcard character in the pattern, -1 if absent. */
+    private static int getFirstWildcardPosition(String pattern) {
+        for(int i=0; i<pattern.length(); i++) {
+            if(isWildcard(pattern.charAt(i)))
+                return i;
+        }
+        return -1;
+    }
+
+    /** Converts the wildcard pattern to the regular expression. */
+    private static Pattern compileWildcard(String pattern) {
+        StringBuilder sb = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for(int i=0; i<pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if(!isWildcard(c)) {
+                literal.append(c);
+                continue;
+            }
+            if(literal.length() > 0) {
+                sb.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+            }
+            sb.append('*' == c || '%' == c ? ".*" : ".");
+        }
+        if(literal.length() > 0)
+            sb.append(Pattern.quote(literal.toString()));
+
+        return Pattern.compile(sb.toString(), Pattern.DOTALL);
+    }
+
+    /** Iterates over titles which match the pattern, in sorted order.
+     *
+     * The pattern without wildcards is a prefix (as in TPage.getByPrefix()),
+     * wildcards are '*' or '%' (any string) and '?' or '_' (any one symbol),
+     * e.g. "water", "wat?r*", "%ость".
+     */
+    public Iterator<Entry> search(String pattern) {
+        if(null == pattern)
+            pattern = "";
+
+        int pos_wildcard = getFirstWildcardPosition(pattern);
+        String prefix = -1 == pos_wildcard ? pattern : pattern.substring(0, pos_wildcard);
+        Pattern regexp = -1 == pos_wildcard ? null : compileWildcard(pattern);
+
+        return new SearchIterator(prefix.getBytes(StandardCharsets.UTF_8), regexp);
+    }
+
+    /** Gets titles which match the pattern, see search().
+     *
+     * @param limit constraint of the number of entries returned,
+     *              if it has a negative value then the constraint is omitted
+     * @return empty list if there are no such titles
+     */
+    public List<Entry> search(String pattern, int limit) {
+        List<Entry> result = new ArrayList<Entry>();
+        Iterator<Entry> it = search(pattern);
+        while(it.hasNext() && (limit < 0 || result.size() < limit))
+            result.add(it.next());
+        return result;
+    }
+
+    /** Sequential reader of front coded titles starting from some block. */
+    private class Cursor {
+        int    pos;         // number of the current entry
+        long   offset;      // offset of the next entry in the file
+        byte[] key = new byte[64];
+        int    key_len;
+
+        Cursor(int block) {
+            pos = block * block_size - 1;
+            offset = buf.getLong((int)(offset_blocks + 8L * block));
+        }
+
+        /** Reads next title into 'key'.
+         * @return false if there are no more titles */
+        boolean next() {
+            if(pos + 1 >= n_entries)
+                return false;
+            pos ++;
+
+            int shared = 0;
+            if(0 != pos % block_size)
+                shared = readVarInt();
+            int suffix = readVarInt();
+
+            if(shared + suffix > key.length) {
+                byte[] k = new byte[2 * (shared + suffix)];
+                System.arraycopy(key, 0, k, 0, shared);
+                key = k;
+            }
+            for(int i=0; i<suffix; i++)
+                key[shared + i] = buf.get((int)offset++);
+            key_len = shared + suffix;
+            return true;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buf.get((int)offset++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while(0 != (b & 0x80));
+            return value;
+        }
+
+        boolean startsWith(byte[] prefix) {
+            if(key_len < prefix.length)
+                return false;
+            for(int i=0; i<prefix.length; i++) {
+                if(key[i] != prefix[i])
+                    return false;
+            }
+            return true;
+        }
+
+        int compareTo(byte[] other) {
+            return compareBytes(key, key_len, other, other.length);
+        }
+
+        Entry toEntry() {
+            return new Entry(new String(key, 0, key_len, StandardCharsets.UTF_8),
+                             buf.getInt((int)(offset_ids + 4L * pos)),
+                             buf.get((int)(offset_flags + pos)));
+        }
+    }
+
+    /** Compares the first title of the block with the key. */
+    private int compareBlockHead(int block, byte[] key) {
+        int offset = (int)buf.getLong((int)(offset_blocks + 8L * block));
+
+        int len = 0, shift = 0;
+        byte b;
+        do {
+            b = buf.get(offset++);
+            len |= (b & 0x7F) << shift;
+            shift += 7;
+        } while(0 != (b & 0x80));
+
+        int n = Math.min(len, key.length);
+        for(int i=0; i<n; i++) {
+            int c = (buf.get(offset + i) & 0xFF) - (key[i] & 0xFF);
+            if(0 != c)
+                return c;
+        }
+        return len - key.length;
+    }
+
+    /** Iterator over titles started from the prefix and matched by the regular expression. */
+    private class SearchIterator implements Iterator<Entry> {
+        private final byte[]  prefix;
+        private final Pattern regexp;
+        private final Cursor  cursor;
+        private Entry   next_entry;
+        private boolean b_end;
+
+        SearchIterator(byte[] _prefix, Pattern _regexp) {
+            prefix = _prefix;
+            regexp = _regexp;
+
+            // binary search: the last block which first title is less than the prefix
+            int lo = 0, hi = n_blocks - 1, block = 0;
+            while(lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if(compareBlockHead(mid, prefix) < 0) {
+                    block = mid;
+                    lo = mid + 1;
+                } else
+                    hi = mid - 1;
+            }
+
+            b_end = 0 == n_blocks;
+            cursor = b_end ? null : new Cursor(block);
+
+            // skip titles less than the prefix
+            while(!b_end) {
+                if(!cursor.next()) {
+                    b_end = true;
+                } else if(cursor.compareTo(prefix) >= 0) {
+                    break;
+                }
+            }
+            if(!b_end)
+                advance(true);
+        }
+
+        /** Finds next matched title, the cursor stands on the first candidate if b_current. */
+        private void advance(boolean b_current) {
+            next_entry = null;
+            while(!b_end) {
+                if(!b_current && !cursor.next()) {
+                    b_end = true;
+                    return;
+                }
+                b_current = false;
+
+                if(!cursor.startsWith(prefix)) {
+                    b_end = true;       // sorted order: there are no more titles with this prefix
+                    return;
+                }
+                Entry e = cursor.toEntry();
+                if(null == regexp || regexp.matcher(e.getTitle()).matches()) {
+                    next_entry = e;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return null != next_entry;
+        }
+
+        @Override
+        public Entry next() {
+            if(null == next_entry)
+                throw new NoSuchElementException();
+            Entry e = next_entry;
+            advance(false);
+            return e;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Utilities
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        return compareBytes(a, a.length, b, b.length);
+    }
+
+    /** Compares byte arrays as unsigned bytes (UTF-8 order = code point order). */
+    private static int compareBytes(byte[] a, int a_len, byte[] b, int b_len) {
+        int n = Math.min(a_len, b_len);
+        for(int i=0; i<n; i++) {
+            int c = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if(0 != c)
+                return c;
+        }
+        return a_len - b_len;
+    }
+}
@@ -0,0 +1,513 @@
+/* TranslationIndex.java - compiled index of translations: page -> translated pages
+ *                         for each pair (source language, target language).
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql.index;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikipedia.util.StringUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Translation index: for each pair (language of entry, language of
+ * translation) there are two adjacency lists in CSR form (compressed sparse
+ * rows): page ID -> IDs of translations (direct translation) and
+ * translation page ID -> IDs of pages (backward translation).
+ *
+ * The translation edge is the same as in TTranslation.fromPageToTranslations():
+ * page -> lang_pos -> translation -> translation_entry -> wiki_text with
+ * only one wikified word -> page of translation.
+ *
+ * The index is created from the parsed database in one scan (create()),
+ * it is stored in a file and read via memory mapping (open()).
+ * The file contains also page titles: ID -> title and title -> ID.
+ */
+public class TranslationIndex {
+
+    private final static int MAGIC      = 0x57545452; // "WTTR"
+    private final static int VERSION    = 1;
+
+    private final static String[] NULL_STRING_ARRAY = new String[0];
+    private final static int[]    NULL_INT_ARRAY    = new int[0];
+
+    private final ByteBuffer buf;
+
+    /** Number of pages in the title dictionary. */
+    private final int n_pages;
+
+    /** Offsets of: sorted page IDs, offsets of titles, titles (UTF-8),
+     * permutation of pages sorted by titles. */
+    private final int offset_page_ids, offset_title_offsets, offset_titles, offset_by_title;
+
+    /** "source_code>target_code" -> forward and backward adjacency lists. */
+    private final Map<String, Pair> pairs;
+
+    private TranslationIndex(ByteBuffer _buf) {
+        buf = _buf;
+        int pos = 8;
+        n_pages = buf.getInt(pos);      pos += 4;
+        offset_page_ids       = pos;    pos += 4 * n_pages;
+        offset_title_offsets  = pos;    pos += 4 * (n_pages + 1);
+        offset_titles         = pos;    pos += buf.getInt(offset_title_offsets + 4 * n_pages);
+        offset_by_title       = pos;    pos += 4 * n_pages;
+
+        int n_pairs = buf.getInt(pos);  pos += 4;
+        pairs = new HashMap<String, Pair>(2 * n_pairs);
+        for(int i=0; i<n_pairs; i++) {
+            int len = buf.getInt(pos);  pos += 4;
+            byte[] key = new byte[len];
+            for(int j=0; j<len; j++)
+                key[j] = buf.get(pos + j);
+            pos += len;
+
+            Csr forward  = new Csr(pos);    pos = forward.end();
+            Csr backward = new Csr(pos);    pos = backward.end();
+            pairs.put(new String(key, StandardCharsets.UTF_8), new Pair(forward, backward));
+        }
+    }
+
+    private static String getPairKey(LanguageType source_lang, LanguageType target_lang) {
+        return source_lang.getCode() + ">" + target_lang.getCode();
+    }
+
+    /** Direct and backward adjacency lists for one pair of languages. */
+    private static class Pair {
+        final Csr forward, backward;
+        Pair(Csr _forward, Csr _backward) {
+            forward  = _forward;
+            backward = _backward;
+        }
+    }
+
+    /** Adjacency lists in the buffer: n_rows, row IDs (sorted),
+     * row offsets (n_rows + 1), columns (IDs of adjacent pages). */
+    private class Csr {
+        final int n_rows, offset_rows, offset_starts, offset_columns, n_columns;
+
+        Csr(int pos) {
+            n_rows          = buf.getInt(pos);
+            offset_rows     = pos + 4;
+            offset_starts   = offset_rows + 4 * n_rows;
+            offset_columns  = offset_starts + 4 * (n_rows + 1);
+            n_columns       = buf.getInt(offset_starts + 4 * n_rows);
+        }
+
+        int end() {
+            return offset_columns + 4 * n_columns;
+        }
+
+        /** Gets IDs of pages adjacent to the page 'id', empty array if absent. */
+        int[] get(int id) {
+            int lo = 0, hi = n_rows - 1;
+            while(lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int v = buf.getInt(offset_rows + 4 * mid);
+                if(v < id)
+                    lo = mid + 1;
+                else if(v > id)
+                    hi = mid - 1;
+                else {
+                    int from = buf.getInt(offset_starts + 4 * mid);
+                    int to   = buf.getInt(offset_starts + 4 * (mid + 1));
+                    int[] result = new int[to - from];
+                    for(int i=0; i<result.length; i++)
+                        result[i] = buf.getInt(offset_columns + 4 * (from + i));
+                    return result;
+                }
+            }
+            return NULL_INT_ARRAY;
+        }
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Titles
+
+    /** Gets ID of the page by the title, -1 if the page has no translations. */
+    public int getPageID(String page_title) {
+        byte[] key = page_title.getBytes(StandardCharsets.UTF_8);
+        int lo = 0, hi = n_pages - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int i = buf.getInt(offset_by_title + 4 * mid);
+            int c = compareTitle(i, key);
+            if(c < 0)
+                lo = mid + 1;
+            else if(c > 0)
+                hi = mid - 1;
+            else
+                return buf.getInt(offset_page_ids + 4 * i);
+        }
+        return -1;
+    }
+
+    /** Gets title of the page by the ID, null if the page has no translations. */
+    public String getPageTitle(int page_id) {
+        int lo = 0, hi = n_pages - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = buf.getInt(offset_page_ids + 4 * mid);
+            if(v < page_id)
+                lo = mid + 1;
+            else if(v > page_id)
+                hi = mid - 1;
+            else {
+                int from = buf.getInt(offset_title_offsets + 4 * mid);
+                int to   = buf.getInt(offset_title_offsets + 4 * (mid + 1));
+                byte[] b = new byte[to - from];
+                for(int j=0; j<b.length; j++)
+                    b[j] = buf.get(offset_titles + from + j);
+                return new String(b, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /** Compares title of the i-th page (in order of IDs) with the key. */
+    private int compareTitle(int i, byte[] key) {
+        int from = buf.getInt(offset_title_offsets + 4 * i);
+        int len  = buf.getInt(offset_title_offsets + 4 * (i + 1)) - from;
+        int n = Math.min(len, key.length);
+        for(int j=0; j<n; j++) {
+            int c = (buf.get(offset_titles + from + j) & 0xFF) - (key[j] & 0xFF);
+            if(0 != c)
+                return c;
+        }
+        return len - key.length;
+    }
+
+    private String[] toUniqueTitles(int[] page_ids) {
+        if(0 == page_ids.length)
+            return NULL_STRING_ARRAY;
+
+        List<String> titles = new ArrayList<String>(page_ids.length);
+        for(int id : page_ids) {
+            String t = getPageTitle(id);
+            if(null != t)
+                titles.add(t);
+        }
+        return StringUtil.getUnique(titles).toArray(NULL_STRING_ARRAY);
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Translation
+
+    /** Gets IDs of translations (into 'target_lang') of the page 'page_id'
+     * (entry in 'source_lang'), empty array if absent. */
+    public int[] getDirectTranslationIDs(LanguageType source_lang, LanguageType target_lang, int page_id) {
+        Pair p = pairs.get(getPairKey(source_lang, target_lang));
+        return null == p ? NULL_INT_ARRAY : p.forward.get(page_id);
+    }
+
+    /** Gets IDs of pages (entries in 'source_lang') which contain
+     * the translation 'translation_page_id' (in 'target_lang'). */
+    public int[] getBackwardTranslationIDs(LanguageType source_lang, LanguageType target_lang, int translation_page_id) {
+        Pair p = pairs.get(getPairKey(source_lang, target_lang));
+        return null == p ? NULL_INT_ARRAY : p.backward.get(translation_page_id);
+    }
+
+    /** Translates the word (entry in 'source_lang', e.g. native language)
+     * to the target language, see WTTranslation.getDirectTranslation().
+     * @return empty array if there are no translations
+     */
+    public String[] getDirectTranslation(LanguageType source_lang, LanguageType target_lang, String word) {
+        int id = getPageID(word);
+        if(-1 == id)
+            return NULL_STRING_ARRAY;
+        return toUniqueTitles(getDirectTranslationIDs(source_lang, target_lang, id));
+    }
+
+    /** Gets entries (in 'source_lang', e.g. native language) which have the
+     * translation 'word' (in 'target_lang'), see WTTranslation.getBackwardTranslation().
+     * @return empty array if there are no such entries
+     */
+    public String[] getBackwardTranslation(LanguageType source_lang, LanguageType target_lang, String word) {
+        int id = getPageID(word);
+        if(-1 == id)
+            return NULL_STRING_ARRAY;
+        return toUniqueTitles(getBackwardTranslationIDs(source_lang, target_lang, id));
+    }
+
+    /** Translates the word via the pivot language: from 'source_lang' (A)
+     * to 'pivot_lang' (B), then from B to 'target_lang' (C), as
+     * WTTranslation.translate(Connect, ...) translates from foreign into
+     * another foreign language via the native language (B).
+     *
+     * The word A is translated backward (entries in B which have the
+     * translation A), then these entries are translated directly into C.
+     * Translation boxes of entries in A and C are not used, since
+     * Wiktionary has translation boxes in entries of the native language.
+     */
+    public String[] translatePivot(LanguageType source_lang, LanguageType pivot_lang,
+                                   LanguageType target_lang, String word) {
+        int id = getPageID(word);
+        if(-1 == id)
+            return NULL_STRING_ARRAY;
+
+        Set<Integer> result = new LinkedHashSet<Integer>();
+        for(int p : getBackwardTranslationIDs(pivot_lang, source_lang, id)) {
+            for(int t : getDirectTranslationIDs(pivot_lang, target_lang, p))
+                result.add(t);
+        }
+
+        int[] ids = new int[result.size()];
+        int i = 0;
+        for(int t : result)
+            ids[i++] = t;
+        return toUniqueTitles(ids);
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Creation
+
+    /** Translation edge: entry page in source language -> translation page in target language. */
+    static class Edge {
+        final int from, to;
+        Edge(int _from, int _to) {
+            from = _from;
+            to   = _to;
+        }
+    }
+
+    /** Creates the translation index from the parsed database in one scan
+     * of translation entries and one scan of pages.
+     *
+     * @return true if the index file was written
+     */
+    public static boolean create(Connect connect, File file) {
+
+        // pair "source>target" -> edges in order of translation entries
+        Map<String, List<Edge>> pair2edges = new LinkedHashMap<String, List<Edge>>();
+        Map<Integer, String> id2title = new HashMap<Integer, String>();
+
+        String str_sql =
+            "SELECT lang_pos.page_id, ls.code, lt.code, wiki_text_words.page_id " +
+            "FROM lang_pos " +
+            "JOIN lang ls ON ls.id=lang_pos.lang_id " +
+            "JOIN translation ON translation.lang_pos_id=lang_pos.id " +
+            "JOIN translation_entry ON translation_entry.translation_id=translation.id " +
+            "JOIN lang lt ON lt.id=translation_entry.lang_id " +
+            "JOIN wiki_text_words ON wiki_text_words.wiki_text_id=translation_entry.wiki_text_id " +
+            "WHERE translation_entry.wiki_text_id IN " +
+            "(SELECT wiki_text_id FROM wiki_text_words GROUP BY wiki_text_id HAVING COUNT(*)=1) " +
+            "ORDER BY translation_entry.id";
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql);
+                try {
+                    while (rs.next ()) {
+                        int from = rs.getInt(1);
+                        String key = Encodings.bytesToUTF8(rs.getBytes(2)) + ">" +
+                                     Encodings.bytesToUTF8(rs.getBytes(3));
+                        int to = rs.getInt(4);
+
+                        addEdge(pair2edges, key, from, to);
+                        id2title.put(from, null);
+                        id2title.put(to, null);
+                    }
+                } finally {
+                    rs.close();
+                }
+
+                str_sql = "SELECT id,page_title FROM page";
+                rs = s.executeQuery (str_sql);
+                try {
+                    while (rs.next ()) {
+                        int id = rs.getInt(1);
+                        if(id2title.containsKey(id))
+                            id2title.put(id, Encodings.bytesToUTF8(rs.getBytes(2)));
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+            write(file, pair2edges, id2title);
+
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TranslationIndex.create()):: sql='" + str_sql + "' " + ex.getMessage());
+            return false;
+        } catch(IOException ex) {
+            System.out.println("Error in TranslationIndex.create(): file='" + file + "' " + ex.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /** Adds the translation edge to the index which is being built,
+     * see write(). */
+    static void addEdge(Map<String, List<Edge>> pair2edges,
+                        LanguageType source_lang, LanguageType target_lang, int from, int to) {
+        addEdge(pair2edges, getPairKey(source_lang, target_lang), from, to);
+    }
+
+    private static void addEdge(Map<String, List<Edge>> pair2edges, String key, int from, int to) {
+        List<Edge> edges = pair2edges.get(key);
+        if(null == edges) {
+            edges = new ArrayList<Edge>();
+            pair2edges.put(key, edges);
+        }
+        edges.add(new Edge(from, to));
+    }
+
+    /** Writes the index: titles and adjacency lists of all pairs of languages.
+     *
+     * @param pair2edges  "source_code>target_code" -> translation edges
+     * @param id2title    page ID -> page title
+     */
+    static void write(File file, Map<String, List<Edge>> pair2edges,
+                      Map<Integer, String> id2title) throws IOException {
+
+        // titles sorted by ID, and permutation sorted by title
+        final int[] ids = new int[id2title.size()];
+        int k = 0;
+        for(int id : id2title.keySet())
+            ids[k++] = id;
+        Arrays.sort(ids);
+
+        final byte[][] titles = new byte[ids.length][];
+        for(int i=0; i<ids.length; i++) {
+            String t = id2title.get(ids[i]);
+            titles[i] = (null == t ? "" : t).getBytes(StandardCharsets.UTF_8);
+        }
+        Integer[] by_title = new Integer[ids.length];
+        for(int i=0; i<ids.length; i++)
+            by_title[i] = i;
+        Arrays.sort(by_title, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                byte[] x = titles[a], y = titles[b];
+                int n = Math.min(x.length, y.length);
+                for(int j=0; j<n; j++) {
+                    int c = (x[j] & 0xFF) - (y[j] & 0xFF);
+                    if(0 != c)
+                        return c;
+                }
+                return x.length - y.length;
+            }
+        });
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(ids.length);
+            for(int id : ids)
+                out.writeInt(id);
+            int offset = 0;
+            for(byte[] t : titles) {
+                out.writeInt(offset);
+                offset += t.length;
+            }
+            out.writeInt(offset);
+            for(byte[] t : titles)
+                out.write(t);
+            for(Integer i : by_title)
+                out.writeInt(i);
+
+            out.writeInt(pair2edges.size());
+            for(Map.Entry<String, List<Edge>> e : pair2edges.entrySet()) {
+                byte[] key = e.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(key.length);
+                out.write(key);
+                writeCsr(out, e.getValue(), false);
+                writeCsr(out, e.getValue(), true);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Writes adjacency lists (without duplicates, in order of edges). */
+    private static void writeCsr(DataOutputStream out, List<Edge> edges, boolean b_backward) throws IOException {
+
+        Map<Integer, Set<Integer>> rows = new HashMap<Integer, Set<Integer>>();
+        for(Edge e : edges) {
+            int from = b_backward ? e.to   : e.from;
+            int to   = b_backward ? e.from : e.to;
+
+            Set<Integer> columns = rows.get(from);
+            if(null == columns) {
+                columns = new LinkedHashSet<Integer>();
+                rows.put(from, columns);
+            }
+            columns.add(to);
+        }
+
+        int[] row_ids = new int[rows.size()];
+        int k = 0;
+        for(int id : rows.keySet())
+            row_ids[k++] = id;
+        Arrays.sort(row_ids);
+
+        out.writeInt(row_ids.length);
+        for(int id : row_ids)
+            out.writeInt(id);
+        int start = 0;
+        for(int id : row_ids) {
+            out.writeInt(start);
+            start += rows.get(id).size();
+        }
+        out.writeInt(start);
+        for(int id : row_ids) {
+            for(int column : rows.get(id))
+                out.writeInt(column);
+        }
+    }
+
+    /** Opens (maps into memory) the index file.
+     * @return null if the file is absent or it is not a translation index
+     */
+    public static TranslationIndex open(File file) {
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel ch = raf.getChannel();
+                if(ch.size() > Integer.MAX_VALUE) {
+                    System.out.println("Error in TranslationIndex.open(): file '" + file + "' is too large (> 2 GB).");
+                    return null;
+                }
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                if(ch.size() < 12 || MAGIC != buf.getInt(0) || VERSION != buf.getInt(4)) {
+                    System.out.println("Error in TranslationIndex.open(): file '" + file + "' is not a translation index.");
+                    return null;
+                }
+                return new TranslationIndex(buf);
+            } finally {
+                raf.close();    // the mapping remains valid after the channel is closed
+            }
+        } catch(IOException ex) {
+            System.out.println("Error in TranslationIndex.open(): file='" + file + "' " + ex.getMessage());
+        }
+        return null;
+    }
+}
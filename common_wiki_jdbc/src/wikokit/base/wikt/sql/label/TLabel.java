@@ -12,9 +12,11 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.sql.Connect;
@@ -25,6 +27,7 @@ import wikokit.base.wikt.constant.Label;
 import wikokit.base.wikt.constant.LabelCategory;
 import wikokit.base.wikt.multi.en.name.LabelEn;
 import wikokit.base.wikt.multi.ru.name.LabelRu;
+import wikokit.base.wikt.sql.InternTable;
 import wikokit.base.wikt.sql.TLang;
 import wikokit.base.wikt.sql.TMeaning;
 
@@ -64,6 +67,9 @@ public class TLabel {
     /** Map from ID to label.*/
     private static Map<Integer, Label> id2label;
     
+    /** Map from short name to ID during the parsing, see openCache(). */
+    private static InternTable cache = null;
+    
     
     /** Gets the map from label to ID (ID in the table 'label').
      *
@@ -391,6 +397,11 @@ public class TLabel {
 
         if(null == short_name || short_name.length() == 0) return 0;
         
+        InternTable c = cache;
+        if(null != c)
+            return c.insert(connect, InternTable.key(short_name, 0),
+                            getSQLValues(connect, short_name, name) + "," + category_id);
+        
         int result_id = 0;
         StringBuilder str_sql = new StringBuilder();
         try
@@ -431,6 +442,11 @@ public class TLabel {
 
         if(null == short_name || short_name.length() == 0) return 0;
         
+        InternTable c = cache;
+        if(null != c)
+            return c.insert(connect, InternTable.key(short_name, 0),
+                            getSQLValues(connect, short_name, name) + ",NULL");
+        
         int result_id = 0;
         StringBuilder str_sql = new StringBuilder();
         try
@@ -458,6 +474,41 @@ public class TLabel {
         return result_id;
     }
     
+    /** Gets escaped values of the short name and name: "short name","name" */
+    private static String getSQLValues (Connect connect,String short_name, String name) {
+        return "\"" + PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, short_name) +
+               "\",\"" + PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, name) + "\"";
+    }
+    
+    /** Loads the table 'label' to the cache, so that getIDByShortName() and
+     * insert() work in memory till closeCache(). It is used during the parsing
+     * of the whole Wiktionary.
+     */
+    public static void openCache (Connect connect) {
+        InternTable c = new InternTable("label", "short_name,name,category_id");
+        c.load(connect, "SELECT id,short_name FROM label", new InternTable.KeyReader() {
+            public String read(ResultSet rs) throws SQLException {
+                return InternTable.key(Encodings.bytesToUTF8(rs.getBytes("short_name")), 0);
+            }
+        });
+        cache = c;
+    }
+    
+    /** Writes new labels of the cache to the table 'label', turns off the cache.
+     * @throws InternTable.InsertException if labels are not stored
+     */
+    public static void closeCache (Connect connect) {
+        InternTable c = cache;
+        cache = null;
+        if(null != c) {
+            try {
+                c.flush(connect);
+            } finally {
+                System.out.println("Cache of label: " + c.size() + " records, inserted: " + c.getInsertedCount());
+            }
+        }
+    }
+    
     /** Selects ID from the table 'label' by a label short name.<br><br>
      *  SELECT id FROM label WHERE short_name="context";
      * @param  short_name    name of label category
@@ -468,6 +519,10 @@ public class TLabel {
         if(null == short_name
                 || short_name.isEmpty()) return 0;
 
+        InternTable c = cache;
+        if(null != c)
+            return c.getID(InternTable.key(short_name, 0));
+
         int result_id = 0;
         StringBuilder str_sql = new StringBuilder();
         try {
@@ -519,6 +574,8 @@ public class TLabel {
     
     /** Stores context labels related to this meaning into table:
      * 'label_meaning'. New labels will be stored to the table 'label' automatically.
+     * Repeated labels are skipped here, so the unique key (label_id,meaning_id)
+     * is not needed during the bulk load (see BulkLoad).
      *
      * @param page_title    word described in this article
      * @param _meaning      corresponding record in table 'meaning' to this relation
@@ -531,6 +588,7 @@ public class TLabel {
     {
         if(null == _meaning || _labels.length == 0) return;
 
+        Set<Integer> stored_label_id = new HashSet<Integer>();
         for(Label la : _labels)
         {
             // 1. if 'la' is new label then add 'la' to the table 'label' (label.added_by_hand = false).
@@ -547,7 +605,8 @@ public class TLabel {
             }
             
             // 2. add to the table 'label_meaning' the record (la.label_id, _meaning.id)
-            TLabelMeaning.insert( connect, page_title, label_id, _meaning.getID());
+            if(stored_label_id.add(label_id))
+                TLabelMeaning.insert( connect, page_title, label_id, _meaning.getID());
         }
     }
 }
@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.List;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikt.sql.InternTable;
 
 /** Author of quotation and
  * operations with the table 'quot_author' in MySQL Wiktionary parsed database.
@@ -35,6 +36,9 @@ public class TQuotAuthor {
 
     private final static TQuotAuthor[] NULL_TQUOTAUTHOR_ARRAY = new TQuotAuthor[0];
 
+    /** Map from the author's name to ID during the parsing, see TQuotRef.openCaches(). */
+    private static InternTable cache = null;
+
     public TQuotAuthor(int _id,String _name,String _wikilink)
     {
         id          = _id;
@@ -274,12 +278,43 @@ public class TQuotAuthor {
         if(null == _author || 0 == _author.length())
             return null;
 
+        InternTable c = cache;
+        if(null != c) {     // the first author with this name, as getFirst()
+            String key = InternTable.key(_author, 0);
+            int id = c.getID(key);
+            if(0 == id)
+                id = c.insert(connect, key, "\"" +
+                        PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _author) + "\",\"" +
+                        PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect,
+                                null == _author_wikilink ? "" : _author_wikilink) + "\"");
+            return new TQuotAuthor(id, _author);
+        }
+
         TQuotAuthor a = TQuotAuthor.getFirst(connect, _author);
         if(null == a)
             a = TQuotAuthor.insertNameWikilink(connect, _author, _author_wikilink);
         return a;
     }
 
+    /** Loads the table 'quot_author' to the cache used by getOrInsert(). */
+    static void openCache(Connect connect) {
+        InternTable c = new InternTable("quot_author", "name,wikilink");
+        c.load(connect, "SELECT id,name FROM quot_author", new InternTable.KeyReader() {
+            public String read(ResultSet rs) throws SQLException {
+                return InternTable.key(Encodings.bytesToUTF8(rs.getBytes("name")), 0);
+            }
+        });
+        cache = c;
+    }
+
+    /** Turns off the cache, new rows are written by TQuotRef.closeCaches().
+     * @return the cache or null */
+    static InternTable closeCache() {
+        InternTable c = cache;
+        cache = null;
+        return c;
+    }
+
     /** Selects row from the table 'quot_author' by ID.<br><br>
      *
      * SELECT name,wikilink FROM quot_author WHERE id=1
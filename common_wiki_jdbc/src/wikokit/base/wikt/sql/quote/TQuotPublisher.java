@@ -11,6 +11,7 @@ import java.sql.*;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikt.sql.InternTable;
 
 /** Publisher of quotation and
  * operations with the table 'quot_publisher' in MySQL Wiktionary parsed database.
@@ -25,6 +26,12 @@ public class TQuotPublisher {
     /** Publisher's name of the quote. */
     private String text;
 
+    /** Map from the text to ID during the parsing, see TQuotRef.openCaches(). */
+    private static InternTable cache = null;
+
+    /** Key of the text in the cache, as the unique index text_UNIQUE (text(128)). */
+    private final static int KEY_PREFIX_LENGTH = 128;
+
     public TQuotPublisher(int _id,String _text)
     {
         id          = _id;
@@ -132,12 +139,41 @@ public class TQuotPublisher {
         if(null == _publisher || 0 == _publisher.length())
             return null;
 
+        InternTable c = cache;
+        if(null != c) {
+            String key = InternTable.key(_publisher, KEY_PREFIX_LENGTH);
+            int id = c.getID(key);
+            if(0 == id)
+                id = c.insert(connect, key, "\"" +
+                        PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _publisher) + "\"");
+            return new TQuotPublisher(id, _publisher);
+        }
+
         TQuotPublisher p = TQuotPublisher.get(connect, _publisher);
         if(null == p)
             p = TQuotPublisher.insert(connect, _publisher);
         return p;
     }
 
+    /** Loads the table 'quot_publisher' to the cache used by getOrInsert(). */
+    static void openCache(Connect connect) {
+        InternTable c = new InternTable("quot_publisher", "text");
+        c.load(connect, "SELECT id,text FROM quot_publisher", new InternTable.KeyReader() {
+            public String read(ResultSet rs) throws SQLException {
+                return InternTable.key(Encodings.bytesToUTF8(rs.getBytes("text")), KEY_PREFIX_LENGTH);
+            }
+        });
+        cache = c;
+    }
+
+    /** Turns off the cache, new rows are written by TQuotRef.closeCaches().
+     * @return the cache or null */
+    static InternTable closeCache() {
+        InternTable c = cache;
+        cache = null;
+        return c;
+    }
+
     /** Selects row from the table 'quot_publisher' by ID.<br><br>
      *
      * SELECT text FROM quot_publisher WHERE id=1
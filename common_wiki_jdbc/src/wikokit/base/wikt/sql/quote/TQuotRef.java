@@ -11,6 +11,7 @@ import java.sql.*;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikt.sql.InternTable;
 
 /** Quotation reference information (year, author, etc.) and
  * operations with the table 'quot_ref' in MySQL Wiktionary parsed database. */
@@ -38,6 +39,13 @@ public class TQuotRef {
     /** Quote source, field quot_ref.source_id in database. */
     private TQuotSource source;
 
+    /** Map from (year_id, author_id, title, publisher_id, source_id) to ID
+     * during the parsing, see openCaches(). */
+    private static InternTable cache = null;
+
+    /** Key of the title in the cache, as the unique index year_auth_tit_pub_s_UNIQUE (title(128)). */
+    private final static int TITLE_KEY_PREFIX_LENGTH = 128;
+
     public TQuotRef(int _id, String _title, String _wikilink,
             TQuotYear _year, TQuotAuthor _author,
             TQuotPublisher _publisher, TQuotSource _source)
@@ -202,6 +210,102 @@ public class TQuotRef {
         return result;
     }
 
+    /** Gets a record from the table quot_ref or inserts it (if it is absent).
+     * If the caches are opened, then the record is searched in memory.
+     */
+    private static TQuotRef getOrInsertByID (Connect connect,
+                                TQuotYear y, TQuotAuthor a,
+                                String _title, String _title_wikilink,
+                                TQuotPublisher p, TQuotSource src)
+    {
+        InternTable c = cache;
+        if(null != c) {
+            String year_id      = (null == y)   ? "NULL" : "" + y.getID();
+            String author_id    = (null == a)   ? "NULL" : "" + a.getID();
+            String publisher_id = (null == p)   ? "NULL" : "" + p.getID();
+            String source_id    = (null == src) ? "NULL" : "" + src.getID();
+
+            String key = getCacheKey(year_id, author_id, _title, publisher_id, source_id);
+            int id = c.getID(key);
+            if(0 == id)
+                id = c.insert(connect, key, year_id + "," + author_id + ",\"" +
+                        PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _title) + "\",\"" +
+                        PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _title_wikilink) + "\"," +
+                        publisher_id + "," + source_id);
+            return new TQuotRef(id, _title, _title_wikilink, y, a, p, src);
+        }
+
+        TQuotRef quot_ref = TQuotRef.get(connect, y, a,
+                                _title, _title_wikilink,
+                                p, src);
+        if(null == quot_ref)
+            quot_ref = insertByID (connect, y, a,
+                                _title, _title_wikilink,
+                                p, src);
+        return quot_ref;
+    }
+
+    private static String getCacheKey(String year_id, String author_id, String title,
+                                      String publisher_id, String source_id) {
+        return year_id + "\t" + author_id + "\t" + publisher_id + "\t" + source_id + "\t" +
+               InternTable.key(title, TITLE_KEY_PREFIX_LENGTH);
+    }
+
+    /** Loads the tables quot_ref, quot_year, quot_author, quot_publisher,
+     * and quot_source to the caches, so that getOrInsert() and
+     * getOrInsertWithYears() work in memory till closeCaches().
+     * It is used during the parsing of the whole Wiktionary.
+     */
+    public static void openCaches (Connect connect) {
+        TQuotYear.openCache(connect);
+        TQuotAuthor.openCache(connect);
+        TQuotPublisher.openCache(connect);
+        TQuotSource.openCache(connect);
+
+        InternTable c = new InternTable("quot_ref", "year_id,author_id,title,title_wikilink,publisher_id,source_id");
+        c.load(connect, "SELECT id,year_id,author_id,title,publisher_id,source_id FROM quot_ref", new InternTable.KeyReader() {
+            public String read(ResultSet rs) throws SQLException {
+                return getCacheKey(getIDOrNULL(rs, "year_id"), getIDOrNULL(rs, "author_id"),
+                                   Encodings.bytesToUTF8(rs.getBytes("title")),
+                                   getIDOrNULL(rs, "publisher_id"), getIDOrNULL(rs, "source_id"));
+            }
+        });
+        cache = c;
+    }
+
+    private static String getIDOrNULL(ResultSet rs, String column) throws SQLException {
+        int id = rs.getInt(column);
+        return rs.wasNull() ? "NULL" : "" + id;
+    }
+
+    /** Writes new records of the caches to the tables quot_ref, quot_year,
+     * quot_author, quot_publisher, and quot_source, turns off the caches.
+     *
+     * @throws InternTable.InsertException if rows of any table are not stored
+     * (other tables are written anyway)
+     */
+    public static void closeCaches (Connect connect) {
+        InternTable c = cache;
+        cache = null;
+        InternTable[] caches = { TQuotYear.closeCache(), TQuotAuthor.closeCache(),
+                                 TQuotPublisher.closeCache(), TQuotSource.closeCache(), c };
+        InternTable.InsertException failure = null;
+        for(InternTable t : caches) {
+            if(null != t) {
+                try {
+                    t.flush(connect);
+                } catch(InternTable.InsertException ex) {
+                    if(null == failure)
+                        failure = ex;
+                }
+                System.out.println("Cache of " + t.getTableName() + ": " + t.size() +
+                                   " records, inserted: " + t.getInsertedCount());
+            }
+        }
+        if(null != failure)
+            throw failure;
+    }
+
     /** Selects row from the table 'quot_ref' by ID.<br><br>
      * SELECT year_id,author_id,title,title_wikilink,publisher_id,source_id FROM quot_ref WHERE id=1;
      *
@@ -427,14 +531,7 @@ public class TQuotRef {
         TQuotSource src = TQuotSource.getOrInsert(connect, _source);
         TQuotYear y = null;
 
-        TQuotRef quot_ref = TQuotRef.get(connect, y, a,
-                                _title, _title_wikilink,
-                                p, src);
-        if(null == quot_ref)
-            quot_ref = insertByID (connect, y, a,
-                                _title, _title_wikilink,
-                                p, src);
-        return quot_ref;
+        return getOrInsertByID(connect, y, a, _title, _title_wikilink, p, src);
     }
 
     public static TQuotRef getOrInsertWithYears (Connect connect,String page_title,
@@ -453,14 +550,7 @@ public class TQuotRef {
         TQuotSource src = TQuotSource.getOrInsert(connect, _source);
         TQuotYear y = TQuotYear.getOrInsert(connect, _from, _to, page_title);
 
-        TQuotRef quot_ref = TQuotRef.get(connect, y, a,
-                                _title, _title_wikilink,
-                                p, src);
-        if(null == quot_ref)
-            quot_ref = insertByID (connect, y, a,
-                                _title, _title_wikilink,
-                                p, src);
-        return quot_ref;
+        return getOrInsertByID(connect, y, a, _title, _title_wikilink, p, src);
     }
 
     /** Deletes row from the table 'quot_ref' by a value of ID.<br><br>
@@ -11,6 +11,7 @@ import java.sql.*;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikt.sql.InternTable;
 
 /** Source of quotation and
  * operations with the table 'quot_source' in MySQL Wiktionary parsed database.
@@ -27,6 +28,12 @@ public class TQuotSource {
     /** Source of the quote. */
     private String text;
 
+    /** Map from the text to ID during the parsing, see TQuotRef.openCaches(). */
+    private static InternTable cache = null;
+
+    /** Key of the text in the cache, as the unique index text_UNIQUE (text(255)). */
+    private final static int KEY_PREFIX_LENGTH = 255;
+
     public TQuotSource(int _id,String _text)
     {
         id          = _id;
@@ -135,12 +142,41 @@ public class TQuotSource {
         if(null == _source || 0 == _source.length())
             return null;
 
+        InternTable c = cache;
+        if(null != c) {
+            String key = InternTable.key(_source, KEY_PREFIX_LENGTH);
+            int id = c.getID(key);
+            if(0 == id)
+                id = c.insert(connect, key, "\"" +
+                        PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _source) + "\"");
+            return new TQuotSource(id, _source);
+        }
+
         TQuotSource s = TQuotSource.get(connect, _source);
         if(null == s)
             s = TQuotSource.insert(connect, _source);
         return s;
     }
 
+    /** Loads the table 'quot_source' to the cache used by getOrInsert(). */
+    static void openCache(Connect connect) {
+        InternTable c = new InternTable("quot_source", "text");
+        c.load(connect, "SELECT id,text FROM quot_source", new InternTable.KeyReader() {
+            public String read(ResultSet rs) throws SQLException {
+                return InternTable.key(Encodings.bytesToUTF8(rs.getBytes("text")), KEY_PREFIX_LENGTH);
+            }
+        });
+        cache = c;
+    }
+
+    /** Turns off the cache, new rows are written by TQuotRef.closeCaches().
+     * @return the cache or null */
+    static InternTable closeCache() {
+        InternTable c = cache;
+        cache = null;
+        return c;
+    }
+
     /** Selects row from the table 'quot_source' by ID.<br><br>
      * SELECT text FROM quot_source WHERE id=1
      *
@@ -9,6 +9,7 @@ package wikokit.base.wikt.sql.quote;
 
 import java.sql.*;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.sql.InternTable;
 
 /** Year of quotation and
  * operations with the table 'quot_year' in MySQL Wiktionary parsed database. */
@@ -24,6 +25,9 @@ public class TQuotYear {
      * if quote contains only one date, then to = from. */
     private int to;
 
+    /** Map from "from,to" to ID during the parsing, see TQuotRef.openCaches(). */
+    private static InternTable cache = null;
+
     public TQuotYear(int _id,int _from,int _to)
     {
         id      = _id;
@@ -217,12 +221,40 @@ public class TQuotYear {
             return null;
         }
         
+        InternTable c = cache;
+        if(null != c) {
+            String key = _from + "," + _to;
+            int id = c.getID(key);
+            if(0 == id)
+                id = c.insert(connect, key, key);
+            return new TQuotYear(id, _from, _to);
+        }
+
         TQuotYear y = TQuotYear.get(connect, _from, _to, page_title);
         if(null == y)
             y = TQuotYear.insert(connect, _from, _to);
         return y;
     }
 
+    /** Loads the table 'quot_year' to the cache used by getOrInsert(). */
+    static void openCache(Connect connect) {
+        InternTable c = new InternTable("quot_year", "`from`,`to`");
+        c.load(connect, "SELECT id,`from`,`to` FROM quot_year", new InternTable.KeyReader() {
+            public String read(ResultSet rs) throws SQLException {
+                return rs.getInt("from") + "," + rs.getInt("to");
+            }
+        });
+        cache = c;
+    }
+
+    /** Turns off the cache, new rows are written by TQuotRef.closeCaches().
+     * @return the cache or null */
+    static InternTable closeCache() {
+        InternTable c = cache;
+        cache = null;
+        return c;
+    }
+
     /** Deletes row from the table 'quot_year' by a value of ID.<br><br>
      * DELETE FROM quot_year WHERE id=4;
      */
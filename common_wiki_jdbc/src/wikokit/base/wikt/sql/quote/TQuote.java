@@ -8,11 +8,14 @@ package wikokit.base.wikt.sql.quote;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import wikokit.base.wikipedia.language.Encodings;
 
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikipedia.util.TextHash;
 import wikokit.base.wikt.sql.TLang;
 import wikokit.base.wikt.sql.TMeaning;
 import wikokit.base.wikt.word.WQuote;
@@ -102,6 +105,8 @@ public class TQuote {
      * 'quote', 'quot_translation', 'quot_transcription' and 'quot_ref'.
      * The insertion into 'quot_ref' results in updating records in tables:
      * 'quot_year', 'quot_author', 'quot_publisher', and 'quot_source'.
+     * Repeated quotes (the same text, reference, translation and
+     * transcription) of the meaning are stored once.
      *
      * @param page_title word which are described in this article
      * @param tmeaning      corresponding record in table 'meaning' to this relation
@@ -114,6 +119,7 @@ public class TQuote {
     {
         if(null == _meaning || wquotes.length == 0) return;
 
+        Set<String> stored_quotes = new HashSet<String>();
         for(WQuote wq : wquotes)
         {
             TQuotRef quot_ref = TQuotRef.getOrInsertWithYears(connect, page_title,
@@ -122,6 +128,11 @@ public class TQuote {
                                         wq.getPublisher(), wq.getSource(),
                                         wq.getYearFrom(), wq.getYearTo());
 
+            String key = (null == quot_ref ? 0 : quot_ref.getID()) + "\t" + wq.getText() +
+                         "\t" + wq.getTranslation() + "\t" + wq.getTranscription();
+            if(!stored_quotes.add(key))
+                continue;
+
             TQuote q = TQuote.insert(connect, _meaning, _lang, wq.getText(), quot_ref);
             if(null != q)
             {
@@ -136,7 +147,7 @@ public class TQuote {
 
     /** Inserts record into the table quote.<br><br>
      *
-     * INSERT INTO quote (meaning_id,lang_id,text,ref_id) VALUES (1,286,"",NULL)
+     * INSERT INTO quote (meaning_id,lang_id,text,text_hash,ref_id) VALUES (1,286,"",-3750763034362895579,NULL)
      *
      * @param _meaning meaning of a word corresponding to the quote
      * @param _lang language of the quote
@@ -163,13 +174,15 @@ public class TQuote {
         
         StringBuilder str_sql = new StringBuilder();
         String safe_text = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _text);
-        str_sql.append("INSERT INTO quote (meaning_id,lang_id,text,ref_id) VALUES (");
+        str_sql.append("INSERT INTO quote (meaning_id,lang_id,text,text_hash,ref_id) VALUES (");
         str_sql.append(_meaning.getID());
         str_sql.append(",");
         str_sql.append(_lang.getID());
         str_sql.append(",\"");
         str_sql.append(safe_text);
         str_sql.append("\",");
+        str_sql.append(TextHash.hash64(_text));
+        str_sql.append(",");
         str_sql.append(quot_ref_id);
         str_sql.append(")");
         TQuote result = null;
@@ -409,6 +422,61 @@ public class TQuote {
         return (TQuote[])list_quote.toArray(NULL_TQUOTE_ARRAY);
     }
 
+    /** Selects rows from the table 'quote' by the text of quotation.
+     * Rows are found by the hash of the text (quote.text_hash), then
+     * the texts are compared, since different texts could have the same hash.<br><br>
+     *
+     * SELECT id,meaning_id,lang_id,text,ref_id FROM quote WHERE text_hash=-3750763034362895579
+     *
+     * @return empty array if data is absent
+     */
+    public static TQuote[] getByText (Connect connect,String text) {
+
+        if(null == text || 0 == text.length()) {
+            System.out.println("Error (wikt_parsed TQuote.getByText()):: empty argument: text.");
+            return NULL_TQUOTE_ARRAY;
+        }
+        StringBuilder str_sql = new StringBuilder();
+        str_sql.append("SELECT id,meaning_id,lang_id,text,ref_id FROM quote WHERE text_hash=");
+        str_sql.append(TextHash.hash64(text));
+        List<TQuote> list_quote = null;
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql.toString());
+                try {
+                    while (rs.next ())
+                    {
+                        String _text = Encodings.bytesToUTF8(rs.getBytes("text"));
+                        if(!text.equals(_text))
+                            continue;   // collision of hashes
+
+                        int    _id = rs.getInt("id");
+                        TMeaning _meaning = TMeaning.getByID(connect, rs.getInt("meaning_id"));
+                        TLang _lang = TLang.getTLangFast(rs.getInt("lang_id"));
+                        TQuotRef _quot_ref = TQuotRef.getByID(connect, rs.getInt("ref_id"));
+
+                        if(null != _meaning && null != _lang && null != _quot_ref) {
+                            if(null == list_quote)
+                                       list_quote = new ArrayList<TQuote>();
+
+                            list_quote.add(new TQuote(_id, _meaning, _lang, _text, _quot_ref));
+                        }
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TQuote.getByText()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+        if(null == list_quote)
+            return NULL_TQUOTE_ARRAY;
+        return (TQuote[])list_quote.toArray(NULL_TQUOTE_ARRAY);
+    }
+
     /** Deletes row from the table 'quote' by a value of ID.<br><br>
      * DELETE FROM quote WHERE id=4;
      */
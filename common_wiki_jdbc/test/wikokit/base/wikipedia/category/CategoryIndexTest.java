@@ -0,0 +1,107 @@
+/*
+ * CategoryIndexTest.java
+ * JUnit based test
+ */
+
+package wikokit.base.wikipedia.category;
+
+import junit.framework.*;
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class CategoryIndexTest extends TestCase {
+
+    CategoryIndex index;
+
+    public CategoryIndexTest(String testName) {
+        super(testName);
+    }
+
+    /** Category tree with the cycle Superstitions -> Luck -> Superstitions:
+     *
+     *  Folklore(1) -- Superstitions(2) -- Luck(3) -- Superstitions(2)
+     *      |                |                \
+     *  Ghost_light(10)  Thirteen(11)      Horseshoe(12), Thirteen(11)
+     *
+     *  Redirect(13) is a redirect in Folklore, Myths(4) is absent in 'page'.
+     */
+    protected void setUp() throws Exception {
+        String[] cat_title   = {"Superstitions", "Folklore", "Luck"};
+        int[]    cat_page_id = {2,               1,          3};
+
+        BitSet articles = new BitSet();
+        articles.set(10);
+        articles.set(11);
+        articles.set(12);
+
+        int[]    cl_from = {10,         2,          11,              3,               2,      12,     11,     13,         1};
+        String[] cl_to   = {"Folklore", "Folklore", "Superstitions", "Superstitions", "Luck", "Luck", "Luck", "Folklore", "Myths"};
+        index = CategoryIndex.create(cat_title, cat_page_id, articles, cl_from, cl_to);
+    }
+
+    protected void tearDown() throws Exception {
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(CategoryIndexTest.class);
+        return suite;
+    }
+
+    public void testGetCategory() {
+        System.out.println("getCategory");
+        assertEquals(3, index.countCategories());
+
+        int folklore = index.getCategory("Folklore");
+        assertEquals("Folklore", index.getTitle(folklore));
+        assertEquals(1, index.getPageID(folklore));
+        assertEquals(folklore, index.getCategoryByID(1));
+
+        assertEquals(-1, index.getCategory("Myths"));
+        assertEquals(-1, index.getCategoryByID(10));
+    }
+
+    public void testChildrenParentsMembers() {
+        System.out.println("getChildren");
+        int folklore = index.getCategory("Folklore");
+        int superst  = index.getCategory("Superstitions");
+        int luck     = index.getCategory("Luck");
+
+        assertTrue(Arrays.equals(new int[] {superst}, index.getChildren(folklore)));
+        assertTrue(Arrays.equals(new int[] {luck},    index.getChildren(superst)));
+        assertTrue(Arrays.equals(new int[] {superst}, index.getChildren(luck)));
+
+        int[] parents = index.getParents(superst);
+        Arrays.sort(parents);
+        int[] expected = {folklore, luck};
+        Arrays.sort(expected);
+        assertTrue(Arrays.equals(expected, parents));
+        assertEquals(0, index.getParents(folklore).length);
+
+        // the redirect is skipped
+        assertTrue(Arrays.equals(new int[] {10}, index.getMembers(folklore)));
+        assertTrue(Arrays.equals(new int[] {12, 11}, index.getMembers(luck)));
+    }
+
+    public void testGetSubCategories() {
+        System.out.println("getSubCategories");
+        int folklore = index.getCategory("Folklore");
+        int superst  = index.getCategory("Superstitions");
+        int luck     = index.getCategory("Luck");
+
+        assertTrue(Arrays.equals(new int[] {folklore},                index.getSubCategories(folklore, 0)));
+        assertTrue(Arrays.equals(new int[] {folklore, superst},       index.getSubCategories(folklore, 1)));
+        assertTrue(Arrays.equals(new int[] {folklore, superst, luck}, index.getSubCategories(folklore, -1)));
+
+        // the cycle
+        assertTrue(Arrays.equals(new int[] {luck, superst},           index.getSubCategories(luck, -1)));
+        assertEquals(0, index.getSubCategories(-1, -1).length);
+    }
+
+    public void testGetArticleIDs() {
+        System.out.println("getArticleIDs");
+        assertTrue(Arrays.equals(new int[] {10, 11, 12}, index.getArticleIDs("Folklore", -1)));
+        assertTrue(Arrays.equals(new int[] {10, 11},     index.getArticleIDs("Folklore", 1)));
+        assertTrue(Arrays.equals(new int[] {12, 11},     index.getArticleIDs("Luck", 0)));
+        assertEquals(0, index.getArticleIDs("absent category", -1).length);
+    }
+}
@@ -0,0 +1,159 @@
+
+package wikokit.base.wikt.sql;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.sql.index.IndexForeign;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BulkLoadTest {
+
+    Connect conn;
+    File dir, file;
+    boolean b_created_dir;
+
+    public BulkLoadTest() {
+    }
+
+    /** Creates the SQLite database with indexes of deferred tables
+     * (meaning, index_en) and of the table 'page'. */
+    @Before
+    public void setUp() throws Exception {
+        dir = new File("sqlite");           // see Connect.OpenSQLite()
+        b_created_dir = dir.mkdir();
+        file = File.createTempFile("bulk_load", ".sqlite", dir);
+
+        conn = new Connect();
+        conn.OpenSQLite(file.getName(), LanguageType.ru, false);
+
+        Statement s = conn.conn.createStatement ();
+        try {
+            s.execute("CREATE TABLE page (id INTEGER PRIMARY KEY, page_title TEXT NOT NULL)");
+            s.execute("CREATE INDEX idx_page_title ON page (page_title)");
+            s.execute("CREATE TABLE meaning (id INTEGER PRIMARY KEY, lang_pos_id INT NOT NULL, meaning_n INT NOT NULL)");
+            s.execute("CREATE INDEX idx_lang_pos_id ON meaning (lang_pos_id)");
+            s.execute("CREATE TABLE index_en (id INTEGER PRIMARY KEY, foreign_word TEXT NOT NULL, " +
+                      "foreign_has_definition INT NOT NULL, native_page_title TEXT)");
+            s.execute("CREATE UNIQUE INDEX idx_en_foreign_native ON index_en (foreign_word, native_page_title)");
+            s.execute("CREATE INDEX idx_en_native_page_title ON index_en (native_page_title)");
+        } finally {
+            s.close();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        conn.Close();
+        file.delete();
+        if(b_created_dir)
+            dir.delete();
+    }
+
+    /** Gets indexes from sqlite_master: "table name sql". */
+    Set<String> getIndexes() throws Exception {
+        Set<String> result = new TreeSet<String>();
+        Statement s = conn.conn.createStatement ();
+        try {
+            ResultSet rs = s.executeQuery ("SELECT tbl_name,name,sql FROM sqlite_master WHERE type='index'");
+            while (rs.next ())
+                result.add(rs.getString("tbl_name") + " " + rs.getString("name") + " " + rs.getString("sql"));
+            rs.close();
+        } finally {
+            s.close();
+        }
+        return result;
+    }
+
+    int countRows(String table) throws Exception {
+        Statement s = conn.conn.createStatement ();
+        try {
+            ResultSet rs = s.executeQuery ("SELECT COUNT(*) FROM " + table);
+            int n = rs.next() ? rs.getInt(1) : -1;
+            rs.close();
+            return n;
+        } finally {
+            s.close();
+        }
+    }
+
+    @Test
+    public void testIsDeferredTable() {
+        System.out.println("isDeferredTable");
+
+        // written only during parsing
+        assertTrue(BulkLoad.isDeferredTable("wiki_text_words"));
+        assertTrue(BulkLoad.isDeferredTable("label_meaning"));
+        assertTrue(BulkLoad.isDeferredTable("index_en"));
+        assertTrue(BulkLoad.isDeferredTable("index_native"));
+
+        // read by the parser (lookups by title and by text)
+        assertFalse(BulkLoad.isDeferredTable("page"));
+        assertFalse(BulkLoad.isDeferredTable("wiki_text"));
+        assertFalse(BulkLoad.isDeferredTable("lang_pos"));
+        assertFalse(BulkLoad.isDeferredTable("quot_author"));
+    }
+
+    @Test
+    public void testBeginEnd_SQLite() throws Exception {
+        System.out.println("beginEnd_SQLite");
+        Set<String> indexes = getIndexes();
+        assertEquals(4, indexes.size());
+
+        // only the index of the table 'page' (read by the parser) stays
+        BulkLoad bulk = BulkLoad.begin(conn);
+        Set<String> live = getIndexes();
+        assertEquals(1, live.size());
+        assertTrue(live.iterator().next().startsWith("page idx_page_title "));
+
+        // duplicate pair is skipped by the in-memory check instead of the unique index
+        IndexForeign.setConsolidated(conn, false);
+        IndexForeign.insertIfAbsent(conn, "water", true, "voda", LanguageType.ru, LanguageType.en);
+        IndexForeign.insertIfAbsent(conn, "water", true, "voda", LanguageType.ru, LanguageType.en);
+        IndexForeign.insertIfAbsent(conn, "water", true, "aqua", LanguageType.ru, LanguageType.en);
+
+        Statement s = conn.conn.createStatement ();
+        try {
+            for(int i=0; i<100; i++)
+                s.executeUpdate("INSERT INTO meaning (lang_pos_id,meaning_n) VALUES (" + i % 7 + "," + i + ")");
+        } finally {
+            s.close();
+        }
+
+        assertTrue(bulk.end());
+        assertEquals(indexes, getIndexes());
+        assertEquals(2, countRows("index_en"));
+        assertEquals(100, countRows("meaning"));
+    }
+
+    @Test
+    public void testEnd_SQLiteUniqueKeyViolated() throws Exception {
+        System.out.println("end_SQLiteUniqueKeyViolated");
+        Set<String> indexes = getIndexes();
+
+        BulkLoad bulk = BulkLoad.begin(conn);
+
+        // insert() doesn't check the pair, the unique index can't be rebuilt
+        IndexForeign.setConsolidated(conn, false);
+        IndexForeign.insert(conn, "water", true, "voda", LanguageType.ru, LanguageType.en);
+        IndexForeign.insert(conn, "water", true, "voda", LanguageType.ru, LanguageType.en);
+
+        assertFalse(bulk.end());
+
+        // the index is created as not unique, other indexes are rebuilt
+        Set<String> result = getIndexes();
+        assertEquals(indexes.size(), result.size());
+        assertTrue(result.contains("index_en idx_en_foreign_native CREATE INDEX idx_en_foreign_native ON index_en (foreign_word, native_page_title)"));
+        assertFalse(result.contains("index_en idx_en_foreign_native CREATE UNIQUE INDEX idx_en_foreign_native ON index_en (foreign_word, native_page_title)"));
+        assertTrue(result.contains("index_en idx_en_native_page_title CREATE INDEX idx_en_native_page_title ON index_en (native_page_title)"));
+        assertEquals(2, countRows("index_en"));
+    }
+}
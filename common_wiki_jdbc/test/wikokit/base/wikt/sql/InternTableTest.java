@@ -0,0 +1,86 @@
+package wikokit.base.wikt.sql;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.language.LanguageType;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class InternTableTest {
+
+    public InternTableTest() {
+    }
+
+    @Test
+    public void testKey() {
+        System.out.println("key");
+
+        assertEquals("", InternTable.key(null, 0));
+        assertEquals("", InternTable.key("   ", 0));
+        assertEquals("slang", InternTable.key("slang", 0));
+
+        // trailing spaces are ignored, as in comparison of VARCHAR in MySQL
+        assertEquals("slang", InternTable.key("slang  ", 0));
+        assertEquals(" slang", InternTable.key(" slang", 0));
+
+        // prefix of the unique index
+        assertEquals("abc", InternTable.key("abcdef", 3));
+        assertEquals("ab", InternTable.key("ab cd", 3));
+        assertEquals("ab", InternTable.key("ab", 3));
+    }
+
+    @Test
+    public void testFlush_failedRow() throws Exception {
+        System.out.println("flush_failedRow");
+
+        File dir = new File("sqlite");           // see Connect.OpenSQLite()
+        boolean b_created_dir = dir.mkdir();
+        File file = File.createTempFile("intern_table", ".sqlite", dir);
+        Connect conn = new Connect();
+        conn.OpenSQLite(file.getName(), LanguageType.ru, false);
+        try {
+            Statement s = conn.conn.createStatement ();
+            try {
+                s.execute("CREATE TABLE quot_source (id INTEGER PRIMARY KEY, text TEXT NOT NULL UNIQUE)");
+                s.execute("INSERT INTO quot_source (id,text) VALUES (1,\"Lib\")");
+            } finally {
+                s.close();
+            }
+
+            // the key "lib" differs from "Lib", but the unique index doesn't accept it
+            InternTable c = new InternTable("quot_source", "text");
+            c.load(conn, "SELECT id,text FROM quot_source", new InternTable.KeyReader() {
+                public String read(ResultSet rs) throws SQLException {
+                    return rs.getString("text");
+                }
+            });
+            assertEquals(1, c.getID("Lib"));
+            assertEquals(2, c.insert(conn, "Novel", "\"Novel\""));
+            assertEquals(3, c.insert(conn, "lib", "\"Lib\""));
+            assertEquals(2, c.insert(conn, "Novel", "\"Novel\""));
+            try {
+                c.flush(conn);
+                fail("InsertException expected");
+            } catch(InternTable.InsertException ex) {
+            }
+            assertEquals(1, c.getInsertedCount());
+
+            // new IDs are not given after the failure
+            assertEquals(2, c.insert(conn, "Novel", "\"Novel\""));
+            try {
+                c.insert(conn, "Poem", "\"Poem\"");
+                fail("InsertException expected");
+            } catch(InternTable.InsertException ex) {
+            }
+        } finally {
+            conn.Close();
+            file.delete();
+            if(b_created_dir)
+                dir.delete();
+        }
+    }
+}
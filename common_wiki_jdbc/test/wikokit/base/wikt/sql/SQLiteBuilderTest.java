@@ -0,0 +1,71 @@
+package wikokit.base.wikt.sql;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SQLiteBuilderTest {
+
+    public SQLiteBuilderTest() {
+    }
+
+    @Test
+    public void testGetPartFilename() {
+        System.out.println("getPartFilename");
+
+        // as kiwidict expects
+        assertEquals("enwikt20111008_part1_android.sqlite", SQLiteBuilder.getPartFilename("enwikt20111008_android.sqlite", 1));
+        assertEquals("ruwikt20110521_part2.sqlite", SQLiteBuilder.getPartFilename("ruwikt20110521.sqlite", 2));
+        assertEquals("wikt.db_part3", SQLiteBuilder.getPartFilename("wikt.db", 3));
+    }
+
+    @Test
+    public void testGetSQLiteType() {
+        System.out.println("getSQLiteType");
+
+        assertEquals("INTEGER", SQLiteBuilder.getSQLiteType(Types.TINYINT));
+        assertEquals("INTEGER", SQLiteBuilder.getSQLiteType(Types.BIGINT));
+        assertEquals("REAL",    SQLiteBuilder.getSQLiteType(Types.DOUBLE));
+        assertEquals("TEXT",    SQLiteBuilder.getSQLiteType(Types.VARBINARY)); // VARCHAR BINARY
+        assertEquals("TEXT",    SQLiteBuilder.getSQLiteType(Types.VARCHAR));
+        assertEquals("BLOB",    SQLiteBuilder.getSQLiteType(Types.BLOB));
+    }
+
+    @Test
+    public void testRemoveRedundant() {
+        System.out.println("removeRedundant");
+
+        List<SQLiteBuilder.IndexDef> indexes = new ArrayList<SQLiteBuilder.IndexDef>();
+        indexes.add(new SQLiteBuilder.IndexDef("meaning", "lang_pos_id", Arrays.asList("lang_pos_id")));
+        indexes.addAll(SQLiteBuilder.getAppIndexes("meaning",
+                Arrays.asList("id", "lang_pos_id", "meaning_n", "wiki_text_id")));
+        indexes.add(new SQLiteBuilder.IndexDef("page", "idx_page_title", Arrays.asList("page_title")));
+        indexes.addAll(SQLiteBuilder.getAppIndexes("page",
+                Arrays.asList("id", "page_title", "is_redirect")));
+        indexes.add(new SQLiteBuilder.IndexDef("page", "idx_page_title_copy", Arrays.asList("page_title")));
+
+        List<SQLiteBuilder.IndexDef> result = SQLiteBuilder.removeRedundant(indexes);
+        assertEquals(3, result.size());
+
+        // meaning (lang_pos_id) is the prefix of the covering index
+        assertEquals("app_lang_pos_id", result.get(0).name);
+
+        // NOCASE index doesn't replace the index for exact search
+        assertEquals("idx_page_title", result.get(1).name);
+        assertEquals("app_page_title_nocase", result.get(2).name);
+    }
+
+    @Test
+    public void testGetAppIndexes_absent_columns() {
+        System.out.println("getAppIndexes_absent_columns");
+
+        assertEquals(0, SQLiteBuilder.getAppIndexes("page", Arrays.asList("id", "page_title")).size());
+        assertEquals(1, SQLiteBuilder.getAppIndexes("index_en",
+                Arrays.asList("id", "foreign_word", "foreign_has_definition", "native_page_title")).size());
+        assertEquals(0, SQLiteBuilder.getAppIndexes("index_native",
+                Arrays.asList("page_id", "page_title", "has_relation")).size());
+    }
+}
@@ -180,4 +180,34 @@ public class TWikiTextTest {
         assertTrue(p2 == null);
     }
 
+    @Test
+    public void testInsert_long_texts_with_same_prefix() {
+        System.out.println("insert_long_texts_with_same_prefix");
+
+        StringBuilder sb = new StringBuilder("test_TWikiText_long_prefix ");
+        while(sb.length() < 300)
+            sb.append("очень длинный текст ");
+        String text1 = sb.toString() + "1";
+        String text2 = sb.toString() + "2";
+        Connect conn = ruwikt_parsed_conn;
+
+        TWikiText.delete(conn, text1);
+        TWikiText.delete(conn, text2);
+
+        TWikiText p1 = TWikiText.insert(conn, text1, null);
+        TWikiText p2 = TWikiText.insert(conn, text2, null);
+        assertNotNull(p1);
+        assertNotNull(p2);
+        assertTrue(p1.getID() != p2.getID());
+
+        assertEquals(p1.getID(), TWikiText.get(conn, text1).getID());
+        assertEquals(p2.getID(), TWikiText.get(conn, text2).getID());
+        assertNull(TWikiText.get(conn, sb.toString()));
+
+        TWikiText.delete(conn, text1);          // delete temporary DB records
+        TWikiText.delete(conn, text2);
+        assertNull(TWikiText.get(conn, text1));
+        assertNull(TWikiText.get(conn, text2));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+
+package wikokit.base.wikt.sql;
+
+import wikokit.base.wikt.util.WikiWord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.language.LanguageType;
+
+public class WikiTextWordsSpillTest {
+
+    public Connect   ruwikt_parsed_conn;
+
+    String str_wiki_text;
+    TWikiText wiki_text;
+
+    public WikiTextWordsSpillTest() {
+    }
+
+    @Before
+    public void setUp() {
+        ruwikt_parsed_conn = new Connect();
+        ruwikt_parsed_conn.Open(Connect.RUWIKT_HOST,Connect.RUWIKT_PARSED_DB,Connect.RUWIKT_USER,Connect.RUWIKT_PASS,LanguageType.ru);
+
+        Connect conn = ruwikt_parsed_conn;
+        str_wiki_text = "test_WikiTextWordsSpill_text";
+        wiki_text = TWikiText.get(conn, str_wiki_text);
+        if(null == wiki_text) {
+            wiki_text = TWikiText.insert(conn, str_wiki_text, "[[" + str_wiki_text + "]]");
+            assertTrue(null != wiki_text);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        TWikiText.deleteWithWords(ruwikt_parsed_conn, wiki_text);
+        ruwikt_parsed_conn.Close();
+    }
+
+    @Test
+    public void testResolve() throws java.io.IOException {
+        System.out.println("resolve_ru");
+        Connect conn = ruwikt_parsed_conn;
+        StringBuffer s_wiki_text = new StringBuffer("Having a [[pleasant_test]] [[taste_test|tasting_test]], ... one [[sugar_test]]s_test, [[pleasant_test]].");
+        WikiWord[] wiki_words = WikiWord.getWikiWords("test_WikiTextWordsSpill", s_wiki_text);
+
+        WikiTextWordsSpill spill = new WikiTextWordsSpill(null);
+        TWikiTextWords.setSpill(spill);
+        try {
+            for(WikiWord word : wiki_words)
+                TWikiTextWords.storeToDB (conn, wiki_text, word);
+        } finally {
+            TWikiTextWords.setSpill(null);
+        }
+        assertEquals(4, spill.size());
+        assertNull(TPage.get(conn, "pleasant_test"));  // nothing is stored till resolve()
+
+        spill.resolve(conn);
+
+        TWikiTextWords[] words = TWikiTextWords.getByWikiText(conn, wiki_text);
+        assertNotNull(words);
+        assertEquals(3, words.length);     // the duplicated [[pleasant_test]] is skipped
+
+        for(WikiWord word : wiki_words) {
+            String s_page       = word.getWordLink();
+            String s_inflection = word.getWordVisible();
+
+            TPage p = TPage.get(conn, s_page);
+            assertNotNull(p);
+            assertFalse(p.isInWiktionary());
+
+            TPageInflection p_infl = null;
+            if(0 != s_page.compareTo(s_inflection)) {
+                TInflection i = TInflection.get(conn, s_inflection);
+                assertNotNull(i);
+                p_infl = TPageInflection.get(conn, p, i);
+                assertNotNull(p_infl);
+            }
+            assertNotNull(TWikiTextWords.getByWikiTextAndPageAndInflection(conn, wiki_text, p, p_infl));
+        }
+
+        // delete temporary records (wiki_text with words is deleted in tearDown)
+        for(WikiWord word : wiki_words) {
+            String s_page       = word.getWordLink();
+            String s_inflection = word.getWordVisible();
+            if(0 != s_page.compareTo(s_inflection)) {
+                TPage p = TPage.get(conn, s_page);
+                TInflection i = TInflection.get(conn, s_inflection);
+                if(null != p && null != i)
+                    TPageInflection.delete(conn, TPageInflection.get(conn, p, i));
+                if(null != i)
+                    TInflection.delete(conn, i);
+            }
+        }
+        String[] pages_test = {"pleasant_test", "taste_test", "sugar_test"};
+        for(String p: pages_test)
+            TPage.delete(conn, p);
+    }
+}
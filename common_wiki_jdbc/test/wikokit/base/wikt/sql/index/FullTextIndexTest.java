@@ -0,0 +1,159 @@
+package wikokit.base.wikt.sql.index;
+
+import java.io.File;
+import java.util.List;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.constant.POS;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class FullTextIndexTest {
+
+    File file;
+    FullTextIndex index;
+
+    public FullTextIndexTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        FullTextIndex.Builder b = new FullTextIndex.Builder(LanguageType.en);
+
+        // meaning_id, page_id, entry language, POS, definition
+        b.addDefinition(10, 1, "en", "noun", "A small domesticated carnivorous mammal that purrs.");
+        b.addDefinition(11, 1, "en", "verb", "To vomit.");
+        b.addDefinition(20, 2, "en", "noun", "A domesticated mammal that barks, kept as a pet.");
+        b.addDefinition(30, 3, "de", "noun", "A cat (domesticated mammal).");
+        b.addDefinition(40, 4, "en", "noun", "Clear water for drinking.");
+        b.addDefinition(41, 4, "en", "noun", "Water, clear and drinkable, from a spring.");
+        assertFalse(b.addDefinition(50, 5, "en", "noun", " ... "));
+
+        // quote_id, meaning_id, page_id, ..., language of the quotation
+        b.addQuote(100, 10, 1, "en", "noun", "Two cats purr on the mat.", LanguageType.en);
+        b.addQuote(300, 30, 3, "de", "noun", "Die Katze schläft.", LanguageType.de);
+
+        b.addPage(1, "cat");
+        b.addPage(2, "dog");
+        b.addPage(3, "Katze");
+        b.addPage(4, "water");
+        b.addPage(99, "absent");
+
+        file = File.createTempFile("fulltext_index", ".bin");
+        b.write(file);
+        index = FullTextIndex.open(file);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testOpen() {
+        System.out.println("open");
+        assertNotNull(index);
+        assertEquals(8, index.countDocuments());
+        assertEquals(LanguageType.en, index.getNativeLanguage());
+    }
+
+    @Test
+    public void testSearch() {
+        System.out.println("search");
+
+        // "purrs" and "purr" have the same stem
+        List<FullTextIndex.Hit> hits = index.search("purrs", LanguageType.en, FullTextIndex.KIND_ALL, null, null, 10);
+        assertEquals(2, hits.size());
+        for(FullTextIndex.Hit h : hits) {
+            assertEquals("cat", h.getPageTitle());
+            assertEquals(1, h.getPageID());
+            assertEquals(10, h.getMeaningID());
+            assertEquals(LanguageType.en, h.getLanguage());
+            assertEquals(POS.noun, h.getPOS());
+        }
+
+        hits = index.search("purrs", LanguageType.en, FullTextIndex.KIND_QUOTE, null, null, 10);
+        assertEquals(1, hits.size());
+        assertTrue(hits.get(0).isQuote());
+        assertEquals(100, hits.get(0).getID());
+
+        // ranking: two words are better than one
+        hits = index.search("domesticated mammal barks", LanguageType.en, FullTextIndex.KIND_DEFINITION, null, null, 10);
+        assertEquals(3, hits.size());
+        assertEquals("dog", hits.get(0).getPageTitle());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+
+        hits = index.search("domesticated mammal barks", LanguageType.en, FullTextIndex.KIND_DEFINITION, null, null, 1);
+        assertEquals(1, hits.size());
+        assertEquals("dog", hits.get(0).getPageTitle());
+
+        assertTrue(index.search("unicorn", LanguageType.en, FullTextIndex.KIND_ALL, null, null, 10).isEmpty());
+        assertTrue(index.search("", LanguageType.en, FullTextIndex.KIND_ALL, null, null, 10).isEmpty());
+    }
+
+    @Test
+    public void testSearch_filters() {
+        System.out.println("search_filters");
+
+        List<FullTextIndex.Hit> hits = index.search("domesticated mammal", LanguageType.en,
+                                            FullTextIndex.KIND_DEFINITION, LanguageType.de, null, 10);
+        assertEquals(1, hits.size());
+        assertEquals("Katze", hits.get(0).getPageTitle());
+
+        hits = index.search("vomit cat", LanguageType.en, FullTextIndex.KIND_DEFINITION, LanguageType.en, POS.verb, 10);
+        assertEquals(1, hits.size());
+        assertEquals(11, hits.get(0).getMeaningID());
+
+        // absent language and POS
+        assertTrue(index.search("cat", LanguageType.en, FullTextIndex.KIND_ALL, LanguageType.fr, null, 10).isEmpty());
+        assertTrue(index.search("cat", LanguageType.en, FullTextIndex.KIND_ALL, null, POS.adverb, 10).isEmpty());
+
+        // quotations are stemmed by their language
+        hits = index.search("Katze", LanguageType.de, FullTextIndex.KIND_QUOTE, null, null, 10);
+        assertEquals(1, hits.size());
+        assertEquals(300, hits.get(0).getID());
+    }
+
+    @Test
+    public void testSearch_phrase() {
+        System.out.println("search_phrase");
+
+        List<FullTextIndex.Hit> hits = index.search("\"clear water\"", LanguageType.en,
+                                            FullTextIndex.KIND_ALL, null, null, 10);
+        assertEquals(1, hits.size());
+        assertEquals(40, hits.get(0).getID());
+
+        // words of the phrase in the other order
+        hits = index.search("\"water clear\"", LanguageType.en, FullTextIndex.KIND_ALL, null, null, 10);
+        assertEquals(1, hits.size());
+        assertEquals(41, hits.get(0).getID());
+
+        // the phrase and other words
+        hits = index.search("spring \"clear\"", LanguageType.en, FullTextIndex.KIND_ALL, null, null, 10);
+        assertEquals(2, hits.size());
+        assertEquals(41, hits.get(0).getID());
+
+        assertTrue(index.search("\"water spring\"", LanguageType.en, FullTextIndex.KIND_ALL, null, null, 10).isEmpty());
+        assertTrue(index.search("water \"unicorn\"", LanguageType.en, FullTextIndex.KIND_ALL, null, null, 10).isEmpty());
+    }
+
+    @Test
+    public void testSearchWordsByDescription() {
+        System.out.println("searchWordsByDescription");
+
+        // each word is given once
+        List<FullTextIndex.Hit> hits = index.searchWordsByDescription("clear drinkable water", null, null, 10);
+        assertEquals(1, hits.size());
+        assertEquals("water", hits.get(0).getPageTitle());
+        assertEquals(41, hits.get(0).getMeaningID());
+
+        hits = index.searchWordsByDescription("domesticated mammal which purrs", LanguageType.en, POS.noun, 10);
+        assertEquals(2, hits.size());
+        assertEquals("cat", hits.get(0).getPageTitle());
+        assertEquals("dog", hits.get(1).getPageTitle());
+
+        assertTrue(index.searchWordsByDescription("unicorn", null, null, 10).isEmpty());
+    }
+}
@@ -2,10 +2,17 @@
 package wikokit.base.wikt.sql.index;
 
 import wikokit.base.wikt.sql.index.IndexForeign;
+import wikokit.base.wikt.sql.TLang;
 import wikokit.base.wikt.sql.TPage;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.language.LanguageType;
 
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Map;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -18,6 +25,9 @@ public class IndexForeignTest {
     public Connect   ruwikt_parsed_conn;
     String native_page_title;
 
+    /** true if the table 'index_foreign' is created by the test */
+    boolean drop_consolidated;
+
     
     public IndexForeignTest() {
     }
@@ -36,6 +46,8 @@ public class IndexForeignTest {
         ruwikt_parsed_conn.Open(Connect.RUWIKT_HOST,Connect.RUWIKT_PARSED_DB,Connect.RUWIKT_USER,Connect.RUWIKT_PASS,LanguageType.ru);
 
         Connect conn = ruwikt_parsed_conn;
+        TLang.createFastMaps(conn);   // once upon a time: use Wiktionary parsed db
+        drop_consolidated = false;
 
         native_page_title = ruwikt_parsed_conn.enc.EncodeFromJava("ru_water12");
         int word_count = 7;
@@ -60,6 +72,33 @@ public class IndexForeignTest {
 
         // delete temporary DB record
         TPage.delete(conn, native_page_title);
+
+        if(drop_consolidated) {
+            try {
+                Statement s = conn.conn.createStatement ();
+                try {
+                    s.execute("DROP TABLE IF EXISTS `" + IndexForeign.CONSOLIDATED_TABLE + "`");
+                } finally {
+                    s.close();
+                }
+            } catch(Exception ex) {
+                System.out.println("Error (IndexForeignTest.tearDown()):: " + ex.getMessage());
+            }
+        }
+    }
+
+    /** Switches the connection to the table 'index_foreign', creates the
+     * table if it is absent (it will be dropped by tearDown). */
+    void setConsolidated(Connect conn) throws Exception {
+        ResultSet rs = conn.conn.getMetaData().getTables(conn.conn.getCatalog(), null, IndexForeign.CONSOLIDATED_TABLE, null);
+        try {
+            drop_consolidated = !rs.next();
+        } finally {
+            rs.close();
+        }
+        IndexForeign.setConsolidated(conn, true);
+        if(drop_consolidated)
+            IndexForeign.generateConsolidatedTable(conn);
     }
 
 
@@ -213,4 +252,229 @@ public class IndexForeignTest {
                              native_lang, foreign_lang);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testInsertIfAbsent_consolidated() throws Exception {
+        System.out.println("insertIfAbsent_consolidated");
+        Connect conn = ruwikt_parsed_conn;
+        setConsolidated(conn);
+        LanguageType native_lang = LanguageType.ru;
+        String foreign_word = "water12";
+
+        // rows are collected and written by endBatch(), duplicates are skipped by the unique key
+        IndexForeign.beginBatch();
+        IndexForeign.insertIfAbsent(conn, foreign_word, true, native_page_title, native_lang, LanguageType.en);
+        IndexForeign.insertIfAbsent(conn, foreign_word, true, native_page_title, native_lang, LanguageType.en);
+        IndexForeign.insertIfAbsent(conn, foreign_word, true, null, native_lang, LanguageType.en);
+        IndexForeign.insertIfAbsent(conn, foreign_word, false, null, native_lang, LanguageType.de);
+        assertEquals(0, IndexForeign.count(conn, foreign_word, native_page_title, LanguageType.en));
+        IndexForeign.endBatch(conn);
+
+        assertEquals(1, IndexForeign.count(conn, foreign_word, native_page_title, LanguageType.en));
+        assertEquals(1, IndexForeign.count(conn, foreign_word, null, LanguageType.en));
+        assertTrue (IndexForeign.has(conn, foreign_word, null, LanguageType.de));
+        assertFalse(IndexForeign.has(conn, foreign_word, native_page_title, LanguageType.de));
+
+        // without the batch, the row is inserted at once
+        IndexForeign.insertIfAbsent(conn, foreign_word, true, native_page_title, native_lang, LanguageType.en);
+        assertEquals(1, IndexForeign.count(conn, foreign_word, native_page_title, LanguageType.en));
+
+        IndexForeign[] index_foreign = IndexForeign.getByPrefixForeign(conn, foreign_word, -1,
+                                        native_lang, LanguageType.en, false, false);
+        assertEquals(2, index_foreign.length);
+
+        IndexForeign.delete(conn, foreign_word, native_page_title, native_lang, LanguageType.en);
+        IndexForeign.delete(conn, foreign_word, null, native_lang, LanguageType.en);
+        IndexForeign.delete(conn, foreign_word, null, native_lang, LanguageType.de);
+        assertEquals(0, IndexForeign.getByPrefixForeign(conn, foreign_word, -1,
+                                        native_lang, LanguageType.en, false, false).length);
+    }
+
+    @Test
+    public void testInsertIfAbsent_consolidatedManyRows() throws Exception {
+        System.out.println("insertIfAbsent_consolidatedManyRows");
+        Connect conn = ruwikt_parsed_conn;
+        setConsolidated(conn);
+        LanguageType native_lang = LanguageType.ru;
+        int n = 2500;               // more than one multi-row INSERT
+
+        IndexForeign.beginBatch();
+        for(int i=0; i<n; i++)
+            IndexForeign.insertIfAbsent(conn, "water12_" + i, false, null, native_lang, LanguageType.en);
+        IndexForeign.endBatch(conn);
+
+        assertEquals(n, IndexForeign.getByPrefixForeign(conn, "water12_", -1,
+                                        native_lang, LanguageType.en, false, false).length);
+        for(int i=0; i<n; i++)
+            IndexForeign.delete(conn, "water12_" + i, null, native_lang, LanguageType.en);
+        assertEquals(0, IndexForeign.getByPrefixForeign(conn, "water12_", -1,
+                                        native_lang, LanguageType.en, false, false).length);
+    }
+
+    @Test
+    public void testCount_consolidatedEmptyNativeTitle() throws Exception {
+        System.out.println("count_consolidatedEmptyNativeTitle");
+        Connect conn = ruwikt_parsed_conn;
+        setConsolidated(conn);
+        LanguageType native_lang = LanguageType.ru;
+        LanguageType foreign_lang = LanguageType.en;
+        String foreign_word = "water12";
+
+        int n_pos = IndexForeign.countNumberOfForeignPOS(conn, foreign_lang);
+        int n_translations = IndexForeign.countTranslations(conn, foreign_lang);
+
+        // the foreign word without translation is stored with native_page_title=""
+        IndexForeign.insert(conn, foreign_word, true, null, native_lang, foreign_lang);
+        assertEquals(1, IndexForeign.count(conn, foreign_word, null, foreign_lang));
+        assertEquals(0, IndexForeign.count(conn, foreign_word, native_page_title, foreign_lang));
+        assertEquals(n_pos + 1, IndexForeign.countNumberOfForeignPOS(conn, foreign_lang));
+        assertEquals(n_translations, IndexForeign.countTranslations(conn, foreign_lang));
+
+        IndexForeign.insert(conn, foreign_word, true, native_page_title, native_lang, foreign_lang);
+        assertEquals(n_pos + 1, IndexForeign.countNumberOfForeignPOS(conn, foreign_lang));
+        assertEquals(n_translations + 1, IndexForeign.countTranslations(conn, foreign_lang));
+
+        // deletes only the row without translation
+        IndexForeign.delete(conn, foreign_word, null, native_lang, foreign_lang);
+        assertEquals(0, IndexForeign.count(conn, foreign_word, null, foreign_lang));
+        assertEquals(1, IndexForeign.count(conn, foreign_word, native_page_title, foreign_lang));
+        assertEquals(n_pos, IndexForeign.countNumberOfForeignPOS(conn, foreign_lang));
+
+        IndexForeign.delete(conn, foreign_word, native_page_title, native_lang, foreign_lang);
+        assertEquals(0, IndexForeign.count(conn, foreign_word, native_page_title, foreign_lang));
+        assertEquals(n_translations, IndexForeign.countTranslations(conn, foreign_lang));
+    }
+
+    @Test
+    public void testCountByLanguages() throws Exception {
+        System.out.println("countByLanguages");
+        Connect conn = ruwikt_parsed_conn;
+        LanguageType native_lang = LanguageType.ru;
+        String foreign_word = "water12";
+
+        // tables 'index_XX': the number is counted for each language
+        IndexForeign.setConsolidated(conn, false);
+        assertNull(IndexForeign.countByLanguages(conn));
+
+        setConsolidated(conn);
+        Map<LanguageType, int[]> before = IndexForeign.countByLanguages(conn);
+        assertNotNull(before);
+        int[] en = before.containsKey(LanguageType.en) ? before.get(LanguageType.en) : new int[2];
+        int[] de = before.containsKey(LanguageType.de) ? before.get(LanguageType.de) : new int[2];
+
+        IndexForeign.insert(conn, foreign_word, true, null, native_lang, LanguageType.en);
+        IndexForeign.insert(conn, foreign_word, true, native_page_title, native_lang, LanguageType.en);
+        IndexForeign.insert(conn, foreign_word, false, native_page_title, native_lang, LanguageType.de);
+
+        Map<LanguageType, int[]> after = IndexForeign.countByLanguages(conn);
+        assertEquals(en[0] + 1, after.get(LanguageType.en)[0]);
+        assertEquals(en[1] + 1, after.get(LanguageType.en)[1]);
+        assertEquals(de[0],     after.get(LanguageType.de)[0]);
+        assertEquals(de[1] + 1, after.get(LanguageType.de)[1]);
+
+        // the same numbers as by the query for each language
+        assertEquals(after.get(LanguageType.en)[0], IndexForeign.countNumberOfForeignPOS(conn, LanguageType.en));
+        assertEquals(after.get(LanguageType.en)[1], IndexForeign.countTranslations(conn, LanguageType.en));
+
+        IndexForeign.delete(conn, foreign_word, null, native_lang, LanguageType.en);
+        IndexForeign.delete(conn, foreign_word, native_page_title, native_lang, LanguageType.en);
+        IndexForeign.delete(conn, foreign_word, native_page_title, native_lang, LanguageType.de);
+    }
+
+    @Test
+    public void testGetByPrefixForeignInAllLanguages() throws Exception {
+        System.out.println("getByPrefixForeignInAllLanguages");
+        Connect conn = ruwikt_parsed_conn;
+        LanguageType native_lang = LanguageType.ru;
+        String foreign_word = "water12";
+
+        // 1. tables 'index_XX'
+        IndexForeign.setConsolidated(conn, false);
+        IndexForeign.insert(conn, foreign_word, false, native_page_title, native_lang, LanguageType.en);
+        IndexForeign.insert(conn, foreign_word, false, native_page_title, native_lang, LanguageType.slovio_la);
+
+        IndexForeign[] index_foreign = IndexForeign.getByPrefixForeignInAllLanguages(conn, "water1%", -1, native_lang);
+        assertEquals(2, index_foreign.length);
+        for(IndexForeign f : index_foreign) {
+            assertEquals(foreign_word, f.getForeignWord());
+            assertEquals(native_page_title, f.getNativePage().getPageTitle());
+            assertTrue(LanguageType.en == f.getForeignLanguage() || LanguageType.slovio_la == f.getForeignLanguage());
+        }
+        assertEquals(1, IndexForeign.getByPrefixForeignInAllLanguages(conn, "water1%", 1, native_lang).length);
+        assertEquals(0, IndexForeign.getByPrefixForeignInAllLanguages(conn, "water1%", 0, native_lang).length);
+
+        IndexForeign.delete(conn, foreign_word, native_page_title, native_lang, LanguageType.en);
+        IndexForeign.delete(conn, foreign_word, native_page_title, native_lang, LanguageType.slovio_la);
+
+        // 2. table 'index_foreign': the language is taken from lang_id
+        setConsolidated(conn);
+        IndexForeign.insert(conn, foreign_word, false, native_page_title, native_lang, LanguageType.en);
+        IndexForeign.insert(conn, foreign_word, false, null, native_lang, LanguageType.de);
+
+        index_foreign = IndexForeign.getByPrefixForeignInAllLanguages(conn, "water1%", -1, native_lang);
+        assertEquals(2, index_foreign.length);
+        for(IndexForeign f : index_foreign) {
+            assertEquals(foreign_word, f.getForeignWord());
+            if(LanguageType.en == f.getForeignLanguage()) {
+                assertEquals(native_page_title, f.getNativePage().getPageTitle());
+            } else {
+                assertEquals(LanguageType.de, f.getForeignLanguage());
+                assertNull(f.getNativePage());
+            }
+        }
+        assertEquals(1, IndexForeign.getByPrefixForeignInAllLanguages(conn, "water1%", 1, native_lang).length);
+
+        IndexForeign.delete(conn, foreign_word, native_page_title, native_lang, LanguageType.en);
+        IndexForeign.delete(conn, foreign_word, null, native_lang, LanguageType.de);
+    }
+
+    @Test
+    public void testCreateTitleIndex_consolidated() throws Exception {
+        System.out.println("createTitleIndex_consolidated");
+        Connect conn = ruwikt_parsed_conn;
+        setConsolidated(conn);
+        LanguageType native_lang = LanguageType.ru;
+        String foreign_word = "water12";
+
+        IndexForeign.insert(conn, foreign_word, true,  native_page_title, native_lang, LanguageType.en);
+        IndexForeign.insert(conn, foreign_word, false, null, native_lang, LanguageType.de);
+
+        // only words of the language are taken from the table 'index_foreign'
+        File en_file = File.createTempFile("title_index_en", ".idx");
+        File de_file = File.createTempFile("title_index_de", ".idx");
+        File fr_file = File.createTempFile("title_index_fr", ".idx");
+        try {
+            assertTrue(TitleIndex.createForeign(conn, native_lang, LanguageType.en, en_file));
+            TitleIndex en_index = TitleIndex.open(en_file);
+            assertNotNull(en_index);
+
+            Iterator<TitleIndex.Entry> it = en_index.search(foreign_word);
+            assertTrue(it.hasNext());
+            TitleIndex.Entry e = it.next();
+            assertEquals(foreign_word, e.getTitle());
+            assertTrue(e.hasDefinition());
+            assertFalse(it.hasNext());
+
+            IndexForeign[] index_foreign = IndexForeign.getByPrefixForeign(conn, en_index,
+                                        foreign_word, -1, native_lang, LanguageType.en, false, false);
+            assertEquals(1, index_foreign.length);
+            assertEquals(native_page_title, index_foreign[0].getNativePage().getPageTitle());
+
+            assertTrue(TitleIndex.createForeign(conn, native_lang, LanguageType.de, de_file));
+            it = TitleIndex.open(de_file).search(foreign_word);
+            assertTrue(it.hasNext());
+            assertFalse(it.next().hasDefinition());
+            assertFalse(it.hasNext());
+
+            assertTrue(TitleIndex.createForeign(conn, native_lang, LanguageType.fr, fr_file));
+            assertFalse(TitleIndex.open(fr_file).search(foreign_word).hasNext());
+        } finally {
+            en_file.delete();
+            de_file.delete();
+            fr_file.delete();
+        }
+
+        IndexForeign.delete(conn, foreign_word, native_page_title, native_lang, LanguageType.en);
+        IndexForeign.delete(conn, foreign_word, null, native_lang, LanguageType.de);
+    }
+
+}
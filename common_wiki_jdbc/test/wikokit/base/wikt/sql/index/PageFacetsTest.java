@@ -0,0 +1,92 @@
+package wikokit.base.wikt.sql.index;
+
+import java.io.File;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.sql.TLang;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PageFacetsTest {
+
+    PageFacets facets;
+    TLang ru, en, de;
+    final static TLang[] NULL_TLANG_ARRAY = new TLang[0];
+
+    public PageFacetsTest() {
+    }
+
+    private static PageFacets.IntList list(int... ids) {
+        PageFacets.IntList l = new PageFacets.IntList();
+        for(int id : ids)
+            l.add(id);
+        return l;
+    }
+
+    @Before
+    public void setUp() {
+        ru = new TLang(1, LanguageType.ru, 0, 0);
+        en = new TLang(2, LanguageType.en, 0, 0);
+        de = new TLang(3, LanguageType.de, 0, 0);
+
+        Map<Integer, PageFacets.IntList> source = new HashMap<Integer, PageFacets.IntList>();
+        source.put(ru.getID(), list(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+        source.put(en.getID(), list(100000, 5));
+
+        Map<Integer, PageFacets.IntList> trans = new HashMap<Integer, PageFacets.IntList>();
+        trans.put(de.getID(), list(2, 4, 2, 100000));
+
+        facets = new PageFacets(list(1, 2, 3, 4, 5, 100000), list(3, 4, 5, 3), source, trans);
+    }
+
+    @Test
+    public void testAccept() {
+        System.out.println("accept");
+
+        assertTrue (facets.accept(7, false, false, NULL_TLANG_ARRAY, NULL_TLANG_ARRAY));
+        assertFalse(facets.accept(7, true,  false, NULL_TLANG_ARRAY, NULL_TLANG_ARRAY));
+        assertTrue (facets.accept(4, true,  true,  new TLang[] {ru}, new TLang[] {de}));
+        assertFalse(facets.accept(3, true,  true,  new TLang[] {ru}, new TLang[] {de}));
+        assertTrue (facets.accept(5, true,  true,  new TLang[] {de, en}, NULL_TLANG_ARRAY));
+        assertFalse(facets.accept(1, false, false, new TLang[] {de, en}, NULL_TLANG_ARRAY));
+    }
+
+    @Test
+    public void testFilter() {
+        System.out.println("filter");
+
+        BitSet result = facets.filter(100000, true, false, new TLang[] {en}, new TLang[] {de});
+        assertEquals(1, result.cardinality());
+        assertTrue(result.get(100000));
+
+        result = facets.filter(100000, true, true, NULL_TLANG_ARRAY, NULL_TLANG_ARRAY);
+        assertEquals(3, result.cardinality());
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        System.out.println("writeRead");
+
+        File file = File.createTempFile("page_facets", ".bin");
+        try {
+            facets.write(file);
+            PageFacets f = PageFacets.read(file);
+            assertNotNull(f);
+
+            assertEquals(6, f.getHasDefinition().size());
+            assertEquals(3, f.getHasRelation().size());
+            assertEquals(10, f.getSourceLang(ru).size());
+            assertEquals(3, f.getTranslationLang(de).size());
+            assertEquals(0, f.getTranslationLang(ru).size());
+            for(int id=0; id<=100001; id++)
+                assertEquals(facets.accept(id, true, false, new TLang[] {en, ru}, new TLang[] {de}),
+                                  f.accept(id, true, false, new TLang[] {en, ru}, new TLang[] {de}));
+        } finally {
+            file.delete();
+        }
+    }
+}
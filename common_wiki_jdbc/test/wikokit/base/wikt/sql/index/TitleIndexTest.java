@@ -0,0 +1,119 @@
+package wikokit.base.wikt.sql.index;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TitleIndexTest {
+
+    File file;
+    TitleIndex index;
+    List<String> titles;
+
+    public TitleIndexTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        titles = new ArrayList<String>();
+        titles.add("water");
+        titles.add("watery");
+        titles.add("waterfall");
+        titles.add("wait");
+        titles.add("вода");
+        titles.add("водный");
+        titles.add("водопад");
+        titles.add("вот");
+        titles.add("a");
+        titles.add("");
+
+        Random r = new Random(13);
+        String alphabet = "abcwxyzабвгд -";
+        for(int i=0; i<5000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = 1 + r.nextInt(12);
+            for(int j=0; j<len; j++)
+                sb.append(alphabet.charAt(r.nextInt(alphabet.length())));
+            titles.add(sb.toString());
+        }
+
+        List<TitleIndex.Entry> entries = new ArrayList<TitleIndex.Entry>();
+        for(int i=0; i<titles.size(); i++)
+            entries.add(new TitleIndex.Entry(titles.get(i), i, (byte)(i % 2 == 0 ? TitleIndex.FLAG_REDIRECT : 0)));
+
+        file = File.createTempFile("title_index", ".idx");
+        TitleIndex.write(file, entries);
+        index = TitleIndex.open(file);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /** Gets sorted titles (and ids) which start from the prefix, by brute force. */
+    private List<String> bruteForce(String prefix) {
+        List<String> result = new ArrayList<String>();
+        for(int i=0; i<titles.size(); i++) {
+            if(titles.get(i).startsWith(prefix))
+                result.add(titles.get(i) + "|" + i);
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private List<String> toStrings(List<TitleIndex.Entry> entries) {
+        List<String> result = new ArrayList<String>();
+        for(TitleIndex.Entry e : entries) {
+            result.add(e.getTitle() + "|" + e.getID());
+            assertEquals(e.getID() % 2 == 0, e.isRedirect());
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    @Test
+    public void testSearch_prefix() {
+        System.out.println("search_prefix");
+        assertNotNull(index);
+        assertEquals(titles.size(), index.size());
+
+        String[] prefixes = {"wat", "water", "вод", "в", "a", "ab", "zzzzzzz", "", "д -"};
+        for(String prefix : prefixes)
+            assertEquals(bruteForce(prefix), toStrings(index.search(prefix, -1)));
+    }
+
+    @Test
+    public void testSearch_limit() {
+        System.out.println("search_limit");
+
+        List<TitleIndex.Entry> result = index.search("water", 2);
+        assertEquals(2, result.size());
+        assertEquals("water", result.get(0).getTitle());
+        assertEquals("waterfall", result.get(1).getTitle());
+    }
+
+    @Test
+    public void testSearch_wildcards() {
+        System.out.println("search_wildcards");
+
+        List<TitleIndex.Entry> result = index.search("wat?r", -1);
+        assertEquals(1, result.size());
+        assertEquals("water", result.get(0).getTitle());
+
+        result = index.search("вод*й", -1);
+        assertEquals(1, result.size());
+        assertEquals("водный", result.get(0).getTitle());
+
+        result = index.search("wa%fall", -1);
+        assertEquals(1, result.size());
+        assertEquals("waterfall", result.get(0).getTitle());
+    }
+}
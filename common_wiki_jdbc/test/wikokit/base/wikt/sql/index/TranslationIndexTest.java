@@ -0,0 +1,109 @@
+package wikokit.base.wikt.sql.index;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import wikokit.base.wikipedia.language.LanguageType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TranslationIndexTest {
+
+    File file;
+    TranslationIndex index;
+
+    public TranslationIndexTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Map<Integer, String> id2title = new HashMap<Integer, String>();
+        id2title.put(1, "вода");
+        id2title.put(2, "water");
+        id2title.put(3, "Wasser");
+        id2title.put(4, "eau");
+        id2title.put(5, "водица");
+        id2title.put(6, "aqua");
+        id2title.put(7, "влага");
+        id2title.put(8, "moisture");
+
+        Map<String, List<TranslationIndex.Edge>> pair2edges = new LinkedHashMap<String, List<TranslationIndex.Edge>>();
+        LanguageType ru = LanguageType.ru, en = LanguageType.en,
+                     de = LanguageType.de, fr = LanguageType.fr;
+
+        TranslationIndex.addEdge(pair2edges, ru, en, 1, 2);   // вода -> water
+        TranslationIndex.addEdge(pair2edges, ru, en, 1, 6);   // вода -> aqua
+        TranslationIndex.addEdge(pair2edges, ru, en, 1, 2);   // duplicate
+        TranslationIndex.addEdge(pair2edges, ru, de, 1, 3);   // вода -> Wasser
+        TranslationIndex.addEdge(pair2edges, ru, fr, 1, 4);   // вода -> eau
+        TranslationIndex.addEdge(pair2edges, ru, en, 5, 2);   // водица -> water
+        TranslationIndex.addEdge(pair2edges, de, ru, 3, 7);   // Wasser -> влага (de entry)
+        TranslationIndex.addEdge(pair2edges, ru, en, 7, 8);   // влага -> moisture
+
+        file = File.createTempFile("translation_index", ".bin");
+        TranslationIndex.write(file, pair2edges, id2title);
+        index = TranslationIndex.open(file);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testGetDirectTranslation() {
+        System.out.println("getDirectTranslation");
+        assertNotNull(index);
+
+        String[] result = index.getDirectTranslation(LanguageType.ru, LanguageType.en, "вода");
+        assertEquals(Arrays.asList("water", "aqua"), Arrays.asList(result));
+
+        result = index.getDirectTranslation(LanguageType.ru, LanguageType.de, "вода");
+        assertEquals(Arrays.asList("Wasser"), Arrays.asList(result));
+
+        assertEquals(0, index.getDirectTranslation(LanguageType.ru, LanguageType.ja, "вода").length);
+        assertEquals(0, index.getDirectTranslation(LanguageType.ru, LanguageType.en, "absent word").length);
+    }
+
+    @Test
+    public void testGetBackwardTranslation() {
+        System.out.println("getBackwardTranslation");
+
+        String[] result = index.getBackwardTranslation(LanguageType.ru, LanguageType.en, "water");
+        assertEquals(Arrays.asList("вода", "водица"), Arrays.asList(result));
+    }
+
+    @Test
+    public void testTranslatePivot() {
+        System.out.println("translatePivot");
+
+        // en -> ru -> de: water -> вода, водица -> Wasser
+        String[] result = index.translatePivot(LanguageType.en, LanguageType.ru, LanguageType.de, "water");
+        assertEquals(Arrays.asList("Wasser"), Arrays.asList(result));
+
+        // de -> ru -> fr
+        result = index.translatePivot(LanguageType.de, LanguageType.ru, LanguageType.fr, "Wasser");
+        assertEquals(Arrays.asList("eau"), Arrays.asList(result));
+
+        // de -> ru -> en: only ru entries with the translation "Wasser" are used
+        // (not the translation box of the de entry), as in WTTranslation.translate()
+        result = index.translatePivot(LanguageType.de, LanguageType.ru, LanguageType.en, "Wasser");
+        assertEquals(Arrays.asList("water", "aqua"), Arrays.asList(result));
+    }
+
+    @Test
+    public void testGetPageID() {
+        System.out.println("getPageID");
+
+        assertEquals(3, index.getPageID("Wasser"));
+        assertEquals("водица", index.getPageTitle(5));
+        assertEquals(-1, index.getPageID("wasser"));
+        assertNull(index.getPageTitle(100));
+    }
+}
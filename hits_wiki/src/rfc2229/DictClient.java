@@ -12,10 +12,13 @@ package rfc2229;
 
 //import net.zuckerfrei.jcfd.Database;
 //import net.zuckerfrei.jcfd.DatabaseList;
+import net.zuckerfrei.jcfd.AsyncDict;
 import net.zuckerfrei.jcfd.Definition;
 import net.zuckerfrei.jcfd.DefinitionList;
 import net.zuckerfrei.jcfd.Dict;
+import net.zuckerfrei.jcfd.DictException;
 import net.zuckerfrei.jcfd.DictFactory;
+import net.zuckerfrei.jcfd.DictFuture;
 //import net.zuckerfrei.jcfd.Match;
 //import net.zuckerfrei.jcfd.MatchList;
 //import net.zuckerfrei.jcfd.Strategy;
@@ -39,12 +42,47 @@ public class DictClient {
      * @params word sought word
      */
     public static List<String> getLinkWords (String[] db_names, String word) throws Exception {
-        int     i;
-        List<String> result = new ArrayList<String>();
 
         DictFactory dictFactory = DictFactory.getInstance();
         Dict dict = dictFactory.getDictClient();
-        DefinitionList defList = dict.define(word);
+        try {
+            return parseLinkWords(db_names, dict.define(word));
+        } finally {
+            dict.close();
+        }
+    }
+    
+    /** Get lists of synonyms for many words, see getLinkWords(String[], String).
+     * DEFINE commands are pipelined on a pool of connections (AsyncDict),
+     * so the time depends on the bandwidth rather than on the number of
+     * round trips to the server.
+     *
+     * @params db_names search only in these databases, 
+     * @params words sought words
+     * @return map from the word to its synonyms, in the order of words
+     */
+    public static Map<String, List<String>> getLinkWords (String[] db_names, Collection<String> words) throws DictException {
+        
+        AsyncDict dict = new AsyncDict();
+        try {
+            Map<String, DictFuture<DefinitionList>> futures = new LinkedHashMap<String, DictFuture<DefinitionList>>();
+            for(String word : words) {
+                if(!futures.containsKey(word))
+                    futures.put(word, dict.define(word));
+            }
+            
+            Map<String, List<String>> result = new LinkedHashMap<String, List<String>>();
+            for(Map.Entry<String, DictFuture<DefinitionList>> e : futures.entrySet())
+                result.put(e.getKey(), parseLinkWords(db_names, e.getValue().join()));
+            return result;
+        } finally {
+            dict.close();
+        }
+    }
+    
+    /** Extracts synonyms from definitions of selected databases. */
+    private static List<String> parseLinkWords (String[] db_names, DefinitionList defList) {
+        List<String> result = new ArrayList<String>();
         
         while (defList.hasNext()) {
             Definition def = defList.next();
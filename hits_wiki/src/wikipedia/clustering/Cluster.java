@@ -7,9 +7,10 @@
  */
 
 package wikipedia.clustering;
-import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Class Description
@@ -17,9 +18,9 @@ import java.util.List;
  */
 abstract class Cluster {
             
-    /** Edges tied this cluster with others */
-    //protected ArrayList<Edge>   edges;
-    protected Edge[]            edges;
+    /** Edges tied this cluster with others: <adjacent cluster, edge to it>.
+     * The map grows in place, the order of insertion is kept for GraphViz dumps. */
+    protected Map<Cluster, Edge> edges = new LinkedHashMap<Cluster, Edge>();
     
     /** Number of merged edges by clusters, i.e. 
      * number of edges between vertices of the cluster. */
@@ -28,6 +29,10 @@ abstract class Cluster {
     /** The weight (size) of the cluster */
     protected int               weight; 
     
+    /** Position of the cluster in the list of initial clusters, 
+     * it is used by ClusterMerger (union-find). */
+    int                         index;
+    
     /** Creates a new instance of Cluster */
     public Cluster() {
     }
@@ -36,9 +41,7 @@ abstract class Cluster {
     
     public String toString() {
 	String s = getClass().getName();
-        if(null != edges) {
-            s += "; edges.len="+edges.length;
-        }
+        s += "; edges.len="+edges.size();
         s += "; edges_merged="+edges_merged;
         s += "; weight=" + weight;
         return s;
@@ -51,19 +54,11 @@ abstract class Cluster {
         return new String(":: clusters:" + clusters.size());
     }
         
+    /** Adds the edge e to adjacent edges, skips the edge to already adjacent cluster. */
     public void addEdge(Edge e) {
-        Edge[] n;
-        if(null == edges) {
-            n = new Edge[1];
-        } else {
-            if(Arrays.asList(edges).contains(e))
-                return;
-            n = new Edge[edges.length + 1];
-            for(int i=0; i<edges.length; i++)
-                n[i] = edges[i];
-        }
-        n[n.length-1] = e;
-        edges = n;
+        Cluster c = e.getOppositeVertex(this);
+        if(!edges.containsKey(c))
+            edges.put(c, e);
     }
     
     /** Add cluster c to this cluster. 
@@ -72,6 +67,7 @@ abstract class Cluster {
      * 3) Add all edges adjacent to c (with check: skip edge's repetition), update edges[].c1 and c2
      * 4) Remove edge (this, c)
      * 5) Update or remove edges of merged (deleted) cluster.
+     * The cost is O(number of edges adjacent to c).
      * @return list of removed edges (belong to the cluster c)
      */
     public List<Edge> addCluster(Cluster c) {
@@ -79,141 +75,59 @@ abstract class Cluster {
         
         List<Edge>      remove_edges        = new ArrayList<Edge>();
         
-        List<Cluster>   adjacent_clusters   = getAdjacentVertices();
-        assert(!adjacent_clusters.contains(this));
-        adjacent_clusters.remove(c);
-
-        // remove edge (this, c)
-        Edge edge_merged = getEdgeToCluster(c);
-        edges = Edge.RemoveEdge(edges, edge_merged);
+        // remove edge (this, c) and (c, this)
+        edges.remove(c);
+        c.edges.remove(this);
         
-        // remove edge (c, this)
-        assert(edge_merged == c.getEdgeToCluster(this));
-        c.edges = Edge.RemoveEdge(c.edges, edge_merged);
-        
-        // update this.edges taking edges from merged cluster c
-        {
-            Edge[] c_edges = c.getAdjacentEdges();
-            if(null != c_edges && 0 < c_edges.length) {
-                ArrayList<Edge> all = new ArrayList<Edge>();
-                if(null != edges)
-                    all.addAll(Arrays.asList(edges));
-                for(int i=0; i<c_edges.length; i++) {
-                    Edge e = c_edges[i];
-                    if (e!=edge_merged) {           // skip edge (c, this)
-                        if(!e.containsVertices(adjacent_clusters)) {
-                            all.add(e);
-                        } 
-                    }
-                }
-                edges = (Edge[])all.toArray(Edge.NULL_EDGE_ARRAY);
-            }
-        }
-        
-        // update edges.v1 and .v2 for clusters adjacent to c
-        List<Cluster>   c_clusters   = c.getAdjacentVertices();
-        if(null != c_clusters) {
-            for(int i=0; i<c_clusters.size(); i++) {
-                Edge r = c_clusters.get(i).updateEdgesOfMergedCluster(c, this);
-                if (null != r) {
-                    remove_edges.add(r);
-                }
+        // take edges from the merged cluster c:
+        // if there are two edges (x, c) and (x, this) then remove (x, c),
+        // else replace edge (x, c) by (x, this)
+        for(Map.Entry<Cluster, Edge> entry : c.edges.entrySet()) {
+            Cluster x = entry.getKey();
+            Edge    e = entry.getValue();
+            x.edges.remove(c);
+            if(edges.containsKey(x)) {
+                remove_edges.add(e);
+            } else {
+                e.replaceVertex(c, this);
+                edges.put(x, e);
+                x.edges.put(this, e);
             }
         }
+        c.edges.clear();
         
         edges_merged += remove_edges.size();
         return remove_edges;
     }
     
-    /** Update or remove edges of merged (deleted) cluster.
-     * Since adjacent cluster c_delete was added to cluster c (c_delete -> c),
-     * then 1) if there are two edges (this, c_delete) and (this, c) then remove (this, c_delete).
-     *      2) replace edges (this, c_delete) by (this, c);
-     * @return list of removed edges or null
-     */
-    public Edge updateEdgesOfMergedCluster(Cluster c_delete, Cluster c) {
-        if(null == edges)
-            return null;
-        assert (c_delete != c);
-        Edge this_to_c = null;
-        Edge this_to_c_delete = null;
-        
-        // search edge to c, and edge to c_delete
-        for(int i=0; i<edges.length; i++) {
-            Edge e = edges[i];
-            
-            if (e.containsVertex(c)) {
-                this_to_c = e;
-            }
-            if (e.containsVertex(c_delete)) {
-                this_to_c_delete = e;
-            }
-        }
-            
-        if (null != this_to_c && null != this_to_c_delete) {// 1) 
-            edges = Edge.RemoveEdge(edges, this_to_c_delete);
-            
-            return this_to_c_delete;
-        } else {
-            if (null != this_to_c_delete) {                 // 2) 
-                this_to_c_delete.replaceVertex(c_delete, c);
-            }
-        }
-        return null;
-    }
-    
     /** Check whether the edge contains the sought cluster */
     public boolean containsAdjacent(Cluster sought) {
         if (sought == this)
             return true;
-        for(int i=0; i<edges.length; i++) {
-            if(edges[i].containsVertex(sought))
-                return true;
-        }
-        return false;
+        return edges.containsKey(sought);
     }
     
     /** Get list of adjacent clusters */
     public List<Cluster> getAdjacentVertices() {
-        List<Cluster> result = new ArrayList<Cluster>();
-        if(null != edges && 0 < edges.length) {
-            for(int i=0; i<edges.length; i++) {
-                Cluster c1 = edges[i].getVertex1();
-                Cluster c2 = edges[i].getVertex2();
-                result.add( ((c1 == this) ? c2 : c1) ) ;
-            }
-        }
-        return result;
+        return new ArrayList<Cluster>(edges.keySet());
     }
 
-    /** Get edge from adjacent edges with vertices (this, c) */
+    /** Get edge from adjacent edges with vertices (this, c), 
+     * returns null if c is not adjacent. */
     public Edge getEdgeToCluster(Cluster c) {
-        if(null == edges)
-            return null;
-        for(int i=0; i<edges.length; i++) {
-            Edge e = edges[i];
-            Cluster c1 = e.getVertex1();
-            Cluster c2 = e.getVertex2();
-            if (c1 == c || c2 == c)
-                return e;
-        }
-        // unreachable code
-        assert("Error in Cluster.getEdgeToCluster(): the non-adjacent cluster requested as adjacent" == "");
-        return null;
+        return edges.get(c);
     }
     
     /** Update weight of all adjacent edges */
     public void updateEdgesWeight() {
-        if(null != edges) {
-            for(int i=0; i<edges.length; i++) {
-                edges[i].updateWeight();
-            }
+        for(Edge e : edges.values()) {
+            e.updateWeight();
         }
     }
 
     /** Get array of edges adjacent to the vertex (cluster) */
     public Edge[] getAdjacentEdges() {
-        return edges;
+        return (Edge[])edges.values().toArray(Edge.NULL_EDGE_ARRAY);
     }
     
     /** Get array of adjacent edges with the exception of the edge e */
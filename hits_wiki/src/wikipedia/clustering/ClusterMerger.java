@@ -0,0 +1,193 @@
+/*
+ * ClusterMerger.java - agglomerative clustering of categories.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU Public License.
+ */
+
+package wikipedia.clustering;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Merges clusters along the lightest edges while the weight of the edge
+ * is not more than the given maximum.
+ *
+ * Edges are kept in the binary heap which is indexed by Edge.heap_pos, so
+ * a removed edge or an edge with changed weight is found in O(1) and is
+ * moved in O(log E), the edges are not re-sorted after each merge.
+ * The merge of clusters c1 and c2 costs O((deg c1 + deg c2) log E).
+ * Cluster membership (category id -> current cluster) is kept by union-find.
+ *
+ * The merge order is: the lightest edge first, the earlier created edge
+ * (see Preprocessing.createEdgesBetweenClusters) in case of equal weights.
+ */
+public class ClusterMerger {
+
+    /** Initial clusters, cluster i has index i. */
+    private final List<ClusterCategory> clusters;
+
+    /** Union-find: parent of the cluster i, parent[i] == i for alive (not merged to others) clusters. */
+    private final int[] parent;
+
+    /** <category id, index of initial cluster> */
+    private final Map<Integer, Integer> category_id_to_index;
+
+    /** Min-heap of edges, Edge.lessThan() defines the order. */
+    private Edge[] heap;
+    private int    heap_size;
+
+    /** Number of done merges. */
+    private int    n_merges;
+
+    /** Creates the merger of initial clusters (one category per cluster)
+     * and edges between them.
+     * @see Preprocessing#createInitialClusters
+     * @see Preprocessing#createEdgesBetweenClusters
+     */
+    public ClusterMerger(List<ClusterCategory> clusters, List<Edge> edges) {
+        this.clusters = clusters;
+
+        int n = clusters.size();
+        parent = new int[n];
+        category_id_to_index = new HashMap<Integer, Integer>(n * 2);
+        for(int i=0; i<n; i++) {
+            ClusterCategory c = clusters.get(i);
+            c.index = i;
+            parent[i] = i;
+            for(int id : c.categories_id)
+                category_id_to_index.put(id, i);
+        }
+
+        heap = new Edge[Math.max(1, edges.size())];
+        heap_size = 0;
+        for(Edge e : edges) {
+            e.heap_pos = heap_size;
+            heap[heap_size ++] = e;
+        }
+        for(int i=heap_size/2 - 1; i>=0; i--)
+            siftDown(i);
+    }
+
+    /** Merges clusters while the lightest edge weight <= max_cluster_weight.
+     * @return number of merges
+     */
+    public int merge(int max_cluster_weight) {
+        int n = 0;
+        while(0 < heap_size && max_cluster_weight >= heap[0].getWeight()) {
+            Edge e = heap[0];
+            Cluster c1 = e.getVertex1();
+            Cluster c2 = e.getVertex2();
+
+            // edges of c1 and c2 are removed or change weight, so they are taken
+            // out of the heap and the edges of the merged cluster are put back
+            for(Edge a : c1.edges.values())
+                remove(a);
+            for(Edge a : c2.edges.values())
+                remove(a);
+
+            // merge e.c2 to e.c1, skip edges of c2 which are repeated by c1 edges
+            e.Merge();
+            parent[c2.index] = c1.index;
+
+            for(Edge a : c1.edges.values())
+                insert(a);
+            n ++;
+        }
+        n_merges += n;
+        return n;
+    }
+
+    /** Gets the cluster which contains the category, null if the category is absent. */
+    public ClusterCategory getCluster(int category_id) {
+        Integer i = category_id_to_index.get(category_id);
+        if(null == i)
+            return null;
+        return clusters.get(find(i));
+    }
+
+    /** Gets alive clusters (which are not merged to others) in the initial order. */
+    public List<ClusterCategory> getClusters() {
+        List<ClusterCategory> result = new ArrayList<ClusterCategory>(clusters.size() - n_merges);
+        for(int i=0; i<parent.length; i++) {
+            if(parent[i] == i)
+                result.add(clusters.get(i));
+        }
+        return result;
+    }
+
+    /** Gets number of edges which are not merged yet. */
+    public int countEdges() {
+        return heap_size;
+    }
+
+    /** Union-find: gets index of the alive cluster, compresses the path. */
+    private int find(int i) {
+        int root = i;
+        while(parent[root] != root)
+            root = parent[root];
+        while(parent[i] != root) {
+            int next = parent[i];
+            parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+
+    private void insert(Edge e) {
+        e.heap_pos = heap_size;
+        heap[heap_size ++] = e;
+        siftUp(e.heap_pos);
+    }
+
+    /** Removes the edge from the heap. */
+    private void remove(Edge e) {
+        int pos = e.heap_pos;
+        if(pos < 0)
+            return;
+        e.heap_pos = -1;
+
+        Edge last = heap[-- heap_size];
+        heap[heap_size] = null;
+        if(pos == heap_size)
+            return;
+        heap[pos] = last;
+        last.heap_pos = pos;
+        siftDown(pos);
+        siftUp(last.heap_pos);
+    }
+
+    private void siftUp(int pos) {
+        Edge e = heap[pos];
+        while(pos > 0) {
+            int p = (pos - 1) >>> 1;
+            if(!e.lessThan(heap[p]))
+                break;
+            heap[pos] = heap[p];
+            heap[pos].heap_pos = pos;
+            pos = p;
+        }
+        heap[pos] = e;
+        e.heap_pos = pos;
+    }
+
+    private void siftDown(int pos) {
+        Edge e = heap[pos];
+        int half = heap_size >>> 1;
+        while(pos < half) {
+            int child = 2*pos + 1;
+            int right = child + 1;
+            if(right < heap_size && heap[right].lessThan(heap[child]))
+                child = right;
+            if(!heap[child].lessThan(e))
+                break;
+            heap[pos] = heap[child];
+            heap[pos].heap_pos = pos;
+            pos = child;
+        }
+        heap[pos] = e;
+        e.heap_pos = pos;
+    }
+}
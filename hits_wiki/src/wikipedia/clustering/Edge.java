@@ -10,7 +10,6 @@ package wikipedia.clustering;
 import wikipedia.kleinberg.*;
 import java.util.Map;
 import java.util.List;
-import java.util.Comparator;
 import java.util.Arrays;
 import java.util.ArrayList;
 
@@ -31,6 +30,12 @@ public class Edge {
     /** The weight of the edge equals to the sum of clusters c1 and c2 */
     private int weight;
     
+    /** Order of creation, it breaks ties of weights in ClusterMerger */
+    int seq;
+    
+    /** Position in the heap of ClusterMerger, -1 if the edge is not in the heap */
+    int heap_pos = -1;
+    
     /** Creates a new instance of Edge */
     public Edge() {
     }
@@ -88,13 +93,11 @@ public class Edge {
         return false;
     }
     
-    public static final Comparator<Edge> WEIGHT_ORDER = new Comparator<Edge>() {
-        public int compare(Edge e1, Edge e2) {
-            if (e1.weight <= e2.weight)
-                return -1;
-            return 1;
-        }
-    };
+    /** Returns true if the edge should be merged before the edge e:
+     * the lighter edge first, the earlier created edge in case of equal weights. */
+    boolean lessThan(Edge e) {
+        return weight < e.weight || (weight == e.weight && seq < e.seq);
+    }
     
     public int getWeight() {
         return weight;
@@ -108,6 +111,11 @@ public class Edge {
         return c2;
     }
     
+    /** Returns the vertex of the edge which is opposite to the vertex c. */
+    public Cluster getOppositeVertex(Cluster c) {
+        return (c1 == c) ? c2 : c1;
+    }
+    
     /** Merge cluster c2 to cluster c1.
      * The following actions are performed<BR>
      * I) by cluster-vertex:
@@ -41,43 +41,34 @@ public class Preprocessing {
 
     /** Create initial edges. 
      * Create edge e between clusters c1 and c2 for each edge between categories. 
-     * Calculate weight for edge e: e.weight = c1.weight + c2.weight
+     * Calculate weight for edge e: e.weight = c1.weight + c2.weight.
+     * Repeated edges (id_from, id_to), (id_to, id_from) and loops (id, id) are skipped.
      */
     public static List<Edge> createEdgesBetweenClusters (List<ClusterCategory> clusters,
                                                          Map<Integer, Category> categories) {
         List<Edge> edges = new ArrayList<Edge>();
         
-        // this map helps to skip repeated (id_from, id_to) then edges will be unique
-        Map<Integer, Integer>         category_id_from_to = new HashMap<Integer, Integer>();
-        
         // speed-up search of clusters using this local map
         Map<Integer, ClusterCategory> category_id_to_cluster = ClusterCategory.mapCategoryIdToCluster(clusters);
         
         for(Category cat:categories.values()) {
             int id_from = cat.page_id;
+            ClusterCategory c_from = category_id_to_cluster.get(id_from);
             
-            assert(null != category_id_to_cluster.get(id_from));
-            if(null != cat.links_out && 
-               null != category_id_to_cluster.get(id_from))
+            assert(null != c_from);
+            if(null != cat.links_out && null != c_from)
             {
                 for(int id_to:cat.links_out) {         // links_out: id of categories which are referred by the category
-                    // add only unique edge (id_from, id_to)
-                    if ( (!category_id_from_to.containsKey(id_from) ||
-                          id_to != category_id_from_to.get(id_from)   )
-                                            &&
-                         (!category_id_from_to.containsKey  (id_to) ||
-                          id_from != category_id_from_to.get(id_to)   ) 
-                       ) {
-                  
-                        assert(null != category_id_to_cluster.get(id_to));
-                        // skip absent categories:
-                        if(null != category_id_to_cluster.get(id_to))
-                        {
-                            category_id_from_to.put(id_from, id_to);
-                            Edge e = new Edge();
-                            e.init(id_from, id_to, category_id_to_cluster);
-                            edges.add(e);
-                        }
+                    ClusterCategory c_to = category_id_to_cluster.get(id_to);
+                    
+                    assert(null != c_to);
+                    // skip absent categories, add only unique edge (id_from, id_to)
+                    if(null != c_to && c_from != c_to && null == c_from.getEdgeToCluster(c_to))
+                    {
+                        Edge e = new Edge();
+                        e.seq = edges.size();
+                        e.init(id_from, id_to, category_id_to_cluster);
+                        edges.add(e);
                     }
                 }
             }
@@ -85,4 +76,3 @@ public class Preprocessing {
         return edges;
     }
 }
-
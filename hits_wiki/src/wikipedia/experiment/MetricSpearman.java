@@ -12,6 +12,8 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Comparator;
 
 class WordPosition {
     /** Position of word in the first list */
@@ -202,6 +204,63 @@ public class MetricSpearman {
     }
     
     
+    /** Calculates Spearman's rank correlation coefficient rho between two
+     * samples, e.g. between human and computed similarity of word pairs.
+     * Tied values get the average of their ranks, and rho is the Pearson
+     * correlation of the ranks, so ties are treated correctly.
+     *
+     * @return rho in [-1, 1], or 0 if there are less than two values or
+     * all values of a sample are equal
+     */
+    public static double calcSpearmanRho(double[] a, double[] b) {
+        assert(a.length == b.length);
+        int n = a.length;
+        if(n < 2)
+            return 0;
+
+        double[] ra = rank(a);
+        double[] rb = rank(b);
+
+        double mean = (n + 1) / 2.0;   // mean of ranks 1..n, ties don't change it
+        double cov = 0, var_a = 0, var_b = 0;
+        for(int i=0; i<n; i++) {
+            double da = ra[i] - mean;
+            double db = rb[i] - mean;
+            cov   += da * db;
+            var_a += da * da;
+            var_b += db * db;
+        }
+        if(0 == var_a || 0 == var_b)
+            return 0;
+        return cov / Math.sqrt(var_a * var_b);
+    }
+
+    /** Returns ranks (1..n) of the values, tied values get the average rank. */
+    private static double[] rank(final double[] values) {
+        int n = values.length;
+        Integer[] order = new Integer[n];
+        for(int i=0; i<n; i++)
+            order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer i, Integer j) {
+                return Double.compare(values[i], values[j]);
+            }
+        });
+
+        double[] ranks = new double[n];
+        for(int i=0; i<n; ) {
+            int j = i;
+            while(j+1 < n && values[order[j+1]] == values[order[i]])
+                j++;
+            double r = (i + j) / 2.0 + 1;  // average rank of the tie
+            for(int k=i; k<=j; k++)
+                ranks[order[k]] = r;
+            i = j + 1;
+        }
+        return ranks;
+    }
+
+
     /** Finds elements of small array in big one. Concatenates these elements
      * in one string using 'token', add position of these elements in big array.
      */ 
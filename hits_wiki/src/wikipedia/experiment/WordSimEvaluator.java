@@ -0,0 +1,391 @@
+/*
+ * WordSimEvaluator.java - parallel evaluation of AHITS on WordSimilarity-353
+ * with cached base sets and synonyms.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU Public License.
+ */
+
+package wikipedia.experiment;
+
+import wikipedia.kleinberg.*;
+import wikipedia.util.StringUtil;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Evaluates AHITS relatedness on "The WordSimilarity-353 Test Collection"
+ * (see Valuer) for a grid of AHITS parameters at once.
+ *
+ * Valuer compares word pairs one by one and recreates the base set of
+ * each word for each pair. This evaluator:
+ * 1. caches the base set of the word (it depends on root_set_size,
+ *    increment and categories_max_steps only) and reruns AHITS on it
+ *    for other eps_error and n_synonyms;
+ * 2. caches synonyms of the word for each set of parameters, so the word
+ *    which is in many pairs is calculated once;
+ * 3. scores all pairs and all grid points in parallel, each thread has
+ *    its own SessionHolder (with own database connection);
+ * 4. calculates Spearman's rho between human and AHITS similarity
+ *    (MetricSpearman.calcSpearmanRho) and writes results to CSV files.
+ *
+ * Example:
+ * <pre>
+ * WordSimEvaluator e = new WordSimEvaluator(factory, 4);
+ * List&lt;WordSimEvaluator.Params&gt; grid = WordSimEvaluator.grid(
+ *          new int[] {3}, new int[] {1}, new int[] {10, 100},
+ *          new int[] {4, 8}, new float[] {0.01f, 0.001f});
+ * List&lt;WordSimEvaluator.Result&gt; results = e.evaluate(new WordSim353().data, grid);
+ * WordSimEvaluator.writeSummaryCSV(dir + "wordsim353_summary.csv", results);
+ * WordSimEvaluator.writePairsCSV  (dir + "wordsim353_pairs.csv",   results);
+ * e.shutdown();
+ * </pre>
+ */
+public class WordSimEvaluator {
+
+    /** Creates a session for a worker thread. The session should be
+     * initialized (SessionHolder.Init) by its own database connection,
+     * since sessions and connections are not thread-safe.
+     */
+    public interface SessionFactory {
+        public SessionHolder newSession();
+    }
+
+    /** One point of the grid of AHITS parameters. */
+    public static class Params {
+        public final int    root_set_size;
+        public final int    increment;
+        public final int    n_synonyms;
+        public final int    categories_max_steps;
+        public final float  eps_error;
+
+        public Params(int root_set_size, int increment, int n_synonyms,
+                      int categories_max_steps, float eps_error) {
+            this.root_set_size          = root_set_size;
+            this.increment              = increment;
+            this.n_synonyms             = n_synonyms;
+            this.categories_max_steps   = categories_max_steps;
+            this.eps_error              = eps_error;
+        }
+
+        /** Key of the base set, it doesn't depend on n_synonyms and eps_error. */
+        String getBaseSetKey() {
+            return root_set_size + "|" + increment + "|" + categories_max_steps;
+        }
+
+        String getKey() {
+            return getBaseSetKey() + "|" + n_synonyms + "|" + eps_error;
+        }
+
+        /** Fields of CSV line, see CSV_PARAMS_HEADER. */
+        String toCSV() {
+            return root_set_size + "," + increment + "," + n_synonyms + "," +
+                   categories_max_steps + "," + eps_error;
+        }
+
+        public String toString() {
+            return "root_set_size=" + root_set_size + " increment=" + increment +
+                   " n_synonyms=" + n_synonyms + " categories_max_steps=" +
+                   categories_max_steps + " eps_error=" + eps_error;
+        }
+    }
+
+    /** Result of evaluation of one grid point. */
+    public static class Result {
+        public final Params         params;
+        public final List<WordSim>  pairs;
+
+        /** Spearman footrule between synonyms of words of the pair,
+         * -1 if synonyms of one of the words are absent. */
+        public final double[]       similarity;
+
+        /** Spearman's rho between human similarity and AHITS similarity
+         * of the pairs which have synonyms. */
+        public final double         rho;
+
+        /** Number of pairs without synonyms (see Valuer.absent_counter). */
+        public final int            absent;
+
+        Result(Params params, List<WordSim> pairs, double[] similarity) {
+            this.params     = params;
+            this.pairs      = pairs;
+            this.similarity = similarity;
+
+            int n = 0;
+            for(double d : similarity) {
+                if(d >= 0)
+                    n++;
+            }
+            double[] human = new double[n];
+            double[] ahits = new double[n];
+            n = 0;
+            for(int i=0; i<similarity.length; i++) {
+                if(similarity[i] >= 0) {
+                    human[n] = pairs.get(i).sim;
+                    ahits[n] = similarity[i];
+                    n++;
+                }
+            }
+            this.absent = similarity.length - n;
+            this.rho    = MetricSpearman.calcSpearmanRho(human, ahits);
+        }
+    }
+
+    /** Base set of the word. AHITS changes weights and types of articles,
+     * so the base set is reset before the next calculation, and the
+     * calculations on the base set are synchronized on it. */
+    private static class BaseSet {
+        final Map<Integer, Article> nodes;
+        final int                   source_article_id;
+        final String                source_page_title;
+        final Map<Article, NodeType> types = new IdentityHashMap<Article, NodeType>();
+
+        BaseSet(Map<Integer, Article> nodes, int source_article_id, String source_page_title) {
+            this.nodes              = nodes;
+            this.source_article_id  = source_article_id;
+            this.source_page_title  = source_page_title;
+            for(Article a : nodes.values())
+                types.put(a, a.type);
+        }
+
+        void reset(SessionHolder session) {
+            for(Article a : nodes.values()) {
+                a.x = a.y = 1.f;
+                a.type = types.get(a);
+            }
+            session.source_article_id = source_article_id;
+            session.source_page_title = source_page_title;
+        }
+    }
+
+    private static final BaseSet NULL_BASE_SET = new BaseSet(new HashMap<Integer, Article>(), 0, null);
+
+    public static final String CSV_PARAMS_HEADER =
+            "root_set_size,increment,n_synonyms,categories_max_steps,eps_error";
+
+    private final ExecutorService   executor;
+    private final SessionFactory    session_factory;
+
+    /** Sessions created by session_factory, they are closed by shutdown(). */
+    private final List<SessionHolder> sessions =
+            Collections.synchronizedList(new ArrayList<SessionHolder>());
+
+    private final ThreadLocal<SessionHolder> session = new ThreadLocal<SessionHolder>() {
+        protected SessionHolder initialValue() {
+            SessionHolder s = session_factory.newSession();
+            sessions.add(s);
+            return s;
+        }
+    };
+
+    /** Cache: &lt;word|base set key, base set>. */
+    private final ConcurrentMap<String, Future<BaseSet>>  base_sets =
+            new ConcurrentHashMap<String, Future<BaseSet>>();
+
+    /** Cache: &lt;word|params key, synonyms (null if absent)>. */
+    private final ConcurrentMap<String, Future<String[]>> synonyms =
+            new ConcurrentHashMap<String, Future<String[]>>();
+
+    /** Creates the evaluator with n_threads worker threads. */
+    public WordSimEvaluator(SessionFactory session_factory, int n_threads) {
+        this.session_factory = session_factory;
+        executor = Executors.newFixedThreadPool(n_threads);
+    }
+
+    /** Creates all combinations of parameters. */
+    public static List<Params> grid(int[] root_set_size, int[] increment,
+                int[] n_synonyms, int[] categories_max_steps, float[] eps_error) {
+        List<Params> result = new ArrayList<Params>();
+        for(int r : root_set_size)
+            for(int i : increment)
+                for(int c : categories_max_steps)
+                    for(int n : n_synonyms)
+                        for(float e : eps_error)
+                            result.add(new Params(r, i, n, c, e));
+        return result;
+    }
+
+    /** Scores all pairs for all points of the grid. Tasks of all grid points
+     * are run concurrently, so words are calculated once for each base set.
+     *
+     * @return results in the order of grid
+     */
+    public List<Result> evaluate(List<WordSim> pairs, List<Params> grid)
+                                    throws InterruptedException, ExecutionException
+    {
+        List<List<Future<Double>>> tasks = new ArrayList<List<Future<Double>>>(grid.size());
+        for(final Params p : grid) {
+            List<Future<Double>> pair_tasks = new ArrayList<Future<Double>>(pairs.size());
+            for(final WordSim w : pairs) {
+                pair_tasks.add(executor.submit(new Callable<Double>() {
+                    public Double call() throws Exception {
+                        return compare(w.word1, w.word2, p);
+                    }
+                }));
+            }
+            tasks.add(pair_tasks);
+        }
+
+        List<Result> results = new ArrayList<Result>(grid.size());
+        for(int i=0; i<grid.size(); i++) {
+            List<Future<Double>> pair_tasks = tasks.get(i);
+            double[] similarity = new double[pair_tasks.size()];
+            for(int j=0; j<similarity.length; j++)
+                similarity[j] = pair_tasks.get(j).get();
+            results.add(new Result(grid.get(i), pairs, similarity));
+        }
+        return results;
+    }
+
+    /** Scores all pairs for one set of parameters. */
+    public Result evaluate(List<WordSim> pairs, Params p)
+                                    throws InterruptedException, ExecutionException
+    {
+        return evaluate(pairs, Collections.singletonList(p)).get(0);
+    }
+
+    /** Calculates Spearman footrule between synonyms of two words,
+     * see Valuer.compareSynonyms.
+     * @return -1 if synonyms of one of the words are absent
+     */
+    public double compare(String word1, String word2, Params p)
+                                    throws InterruptedException, ExecutionException
+    {
+        String[] s1 = getSynonyms(word1, p);
+        String[] s2 = getSynonyms(word2, p);
+        if(null == s1 || 0 == s1.length || null == s2 || 0 == s2.length)
+            return -1;
+        return MetricSpearman.calcSpearmanFootrule(s1, s2);
+    }
+
+    /** Gets synonyms of the word from the cache or calculates them.
+     * Concurrent requests of the same word wait for one calculation.
+     * @return null if the page is absent or AHITS found nothing
+     */
+    public String[] getSynonyms(String word, final Params p)
+                                    throws InterruptedException, ExecutionException
+    {
+        final String title = StringUtil.UpperFirstLetter(word);
+        return getCached(synonyms, title + "|" + p.getKey(), new Callable<String[]>() {
+            public String[] call() throws Exception {
+                return calcSynonyms(title, p);
+            }
+        });
+    }
+
+    /** Calculates synonyms of the word (title of the page) by AHITS,
+     * it is called once for the word and parameters. */
+    protected String[] calcSynonyms(String word, Params p)
+                                    throws InterruptedException, ExecutionException
+    {
+        BaseSet base = getBaseSet(word, p);
+        if(base == NULL_BASE_SET)
+            return null;
+
+        SessionHolder s = session.get();
+        List<Article> list;
+        synchronized(base) {
+            base.reset(s);
+            list = new Authorities().Calculate(base.nodes, p.eps_error, p.n_synonyms, s);
+        }
+        if(null == list || 0 == list.size())
+            return null;
+        return Article.getTitles(list.toArray(Article.NULL_ARTICLE_ARRAY));
+    }
+
+    private BaseSet getBaseSet(final String word, final Params p)
+                                    throws InterruptedException, ExecutionException
+    {
+        return getCached(base_sets, word + "|" + p.getBaseSetKey(), new Callable<BaseSet>() {
+            public BaseSet call() {
+                SessionHolder s = session.get();
+                s.Init(s.connect, s.category_black_list.getBlackList(), p.categories_max_steps);
+                Map<Integer, Article> nodes = LinksBaseSet.CreateBaseSet(word,
+                        new ArrayList<String>(), s, p.root_set_size, p.increment);
+                if(null == nodes || 0 == nodes.size())
+                    return NULL_BASE_SET;
+                return new BaseSet(nodes, s.source_article_id, s.source_page_title);
+            }
+        });
+    }
+
+    /** Returns the value from the cache, or calculates it by the current
+     * thread if nobody did it. */
+    private static <V> V getCached(ConcurrentMap<String, Future<V>> cache,
+                                   String key, Callable<V> calc)
+                                    throws InterruptedException, ExecutionException
+    {
+        Future<V> f = cache.get(key);
+        if(null == f) {
+            FutureTask<V> task = new FutureTask<V>(calc);
+            f = cache.putIfAbsent(key, task);
+            if(null == f) {
+                f = task;
+                task.run();
+            }
+        }
+        return f.get();
+    }
+
+    /** Number of words (for all parameters) in the synonyms cache. */
+    public int getCachedSynonymsCount() {
+        return synonyms.size();
+    }
+
+    /** Stops worker threads and closes connections of their sessions. */
+    public void shutdown() {
+        executor.shutdown();
+        synchronized(sessions) {
+            for(SessionHolder s : sessions) {
+                if(null != s && null != s.connect)
+                    s.connect.Close();
+            }
+            sessions.clear();
+        }
+    }
+
+    /** Writes rho for each point of the grid:
+     * root_set_size,increment,n_synonyms,categories_max_steps,eps_error,rho,pairs,absent
+     */
+    public static void writeSummaryCSV(String filename, List<Result> results) throws IOException {
+        PrintWriter w = new PrintWriter(new OutputStreamWriter(new FileOutputStream(filename), "UTF-8"));
+        try {
+            w.println(CSV_PARAMS_HEADER + ",rho,pairs,absent");
+            for(Result r : results)
+                w.println(r.params.toCSV() + "," + r.rho + "," + r.similarity.length + "," + r.absent);
+        } finally {
+            w.close();
+        }
+    }
+
+    /** Writes the similarity of each pair for each point of the grid:
+     * root_set_size,increment,n_synonyms,categories_max_steps,eps_error,word1,word2,human,ahits
+     * (ahits is -1 if synonyms are absent).
+     */
+    public static void writePairsCSV(String filename, List<Result> results) throws IOException {
+        PrintWriter w = new PrintWriter(new OutputStreamWriter(new FileOutputStream(filename), "UTF-8"));
+        try {
+            w.println(CSV_PARAMS_HEADER + ",word1,word2,human,ahits");
+            for(Result r : results) {
+                String params = r.params.toCSV();
+                for(int i=0; i<r.similarity.length; i++) {
+                    WordSim ws = r.pairs.get(i);
+                    w.println(params + "," + quoteCSV(ws.word1) + "," + quoteCSV(ws.word2) +
+                              "," + ws.sim + "," + r.similarity[i]);
+                }
+            }
+        } finally {
+            w.close();
+        }
+    }
+
+    /** Quotes the CSV field if it contains comma, quote or line break. */
+    static String quoteCSV(String s) {
+        if(s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0)
+            return s;
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * CategoryAncestorClosure.java - blacklisted ancestors of all categories.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU Public License.
+ */
+
+package wikipedia.kleinberg;
+
+import wikipedia.sql.Connect;
+import wikipedia.language.Encodings;
+
+import java.sql.*;
+import java.util.*;
+
+/** The category graph (category -> parent categories) and, for each category,
+ * the set of categories from the blacklist which are reachable upward within
+ * max_depth steps. The set is a bitmap: bit k is set if black_list[k] is
+ * an ancestor (or the category itself).
+ *
+ * It is built once for the blacklist and shared by searches, then the check
+ * of the article is one lookup per first-level category instead of
+ * SQL queries for each parent category, see CategoryBlackList.inBlackList().
+ */
+public class CategoryAncestorClosure {
+
+    /** Titles of categories (sorted) and their page_id. */
+    private final String[] title;
+    private final int[]    page_id;
+
+    /** Parent categories: parent[parent_start[c] .. parent_start[c+1]-1]. */
+    private int[] parent_start;
+    private int[] parent;
+
+    /** Blacklist and maximum number of steps from the category to the blacklisted one. */
+    private final List<String> black_list;
+    private final int          max_depth;
+
+    /** Number of longs in the bitmap of one category. */
+    private final int          words;
+
+    /** Bitmaps of blacklisted ancestors, category c owns black[c*words .. (c+1)*words-1]. */
+    private long[] black;
+
+    /** Creates the closure without links, categories are sorted by title. */
+    private CategoryAncestorClosure(String[] _title, int[] _page_id,
+                                    List<String> _black_list, int _max_depth) {
+        int n = _title.length;
+        Integer[] order = new Integer[n];
+        for(int i=0; i<n; i++)
+            order[i] = i;
+        final String[] t = _title;
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return t[a].compareTo(t[b]);
+            }
+        });
+        title   = new String[n];
+        page_id = new int[n];
+        for(int i=0; i<n; i++) {
+            title  [i] = _title  [order[i]];
+            page_id[i] = _page_id[order[i]];
+        }
+
+        black_list = new ArrayList<String>(_black_list);
+        max_depth  = _max_depth;
+        words      = Math.max(1, (black_list.size() + 63) / 64);
+    }
+
+    /** Builds parents of categories and bitmaps by links (child, parent),
+     * where child and parent are indices of categories. */
+    private void build(int[] link_child, int[] link_parent, int n_links) {
+        int n = title.length;
+
+        // CSR of parents and children
+        parent_start = new int[n + 1];
+        int[] child_start = new int[n + 1];
+        for(int i=0; i<n_links; i++) {
+            parent_start[link_child [i] + 1] ++;
+            child_start [link_parent[i] + 1] ++;
+        }
+        for(int i=0; i<n; i++) {
+            parent_start[i + 1] += parent_start[i];
+            child_start [i + 1] += child_start [i];
+        }
+        parent = new int[n_links];
+        int[] child = new int[n_links];
+        int[] parent_fill = Arrays.copyOf(parent_start, n);
+        int[] child_fill  = Arrays.copyOf(child_start,  n);
+        for(int i=0; i<n_links; i++) {
+            parent[parent_fill[link_child [i]] ++] = link_parent[i];
+            child [child_fill [link_parent[i]] ++] = link_child [i];
+        }
+
+        // breadth-first search down from each blacklisted category
+        black = new long[n * words];
+        BitSet visited = new BitSet(n);
+        int[]  queue   = new int[Math.max(1, n)];
+        for(int k=0; k<black_list.size(); k++) {
+            int b = getCategory(black_list.get(k));
+            if(-1 == b)
+                continue;
+
+            visited.clear();
+            int size = 0;
+            queue[size ++] = b;
+            visited.set(b);
+            int level_end = size, depth = 0;
+            for(int head=0; head<size; head++) {
+                if(head == level_end) {
+                    depth ++;
+                    level_end = size;
+                }
+                int c = queue[head];
+                black[c*words + (k >>> 6)] |= 1L << (k & 63);
+                if(depth >= max_depth)
+                    continue;
+
+                for(int i=child_start[c]; i<child_start[c + 1]; i++) {
+                    int sub = child[i];
+                    if(!visited.get(sub)) {
+                        visited.set(sub);
+                        queue[size ++] = sub;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Creates the closure from arrays (it is used in tests).
+     *
+     * @param cat_title   titles of categories
+     * @param cat_page_id page_id of categories
+     * @param cl_from     page_id of subcategories (categorylinks.cl_from),
+     *                    page_id of articles are skipped
+     * @param cl_to       titles of parent categories (categorylinks.cl_to)
+     */
+    static CategoryAncestorClosure create(String[] cat_title, int[] cat_page_id,
+                                          int[] cl_from, String[] cl_to,
+                                          List<String> black_list, int max_depth) {
+        CategoryAncestorClosure closure = new CategoryAncestorClosure(
+                                    cat_title, cat_page_id, black_list, max_depth);
+        Map<Integer, Integer> id_to_category = closure.mapIDToCategory();
+
+        int[] link_child  = new int[cl_from.length];
+        int[] link_parent = new int[cl_from.length];
+        int n_links = 0;
+        for(int i=0; i<cl_from.length; i++) {
+            Integer c = id_to_category.get(cl_from[i]);
+            int     p = closure.getCategory(cl_to[i]);
+            if(null != c && -1 != p) {
+                link_child [n_links] = c;
+                link_parent[n_links] = p;
+                n_links ++;
+            }
+        }
+        closure.build(link_child, link_parent, n_links);
+        return closure;
+    }
+
+    /** Loads the category graph from the tables 'page' and 'categorylinks',
+     * calculates blacklisted ancestors of categories.
+     * SQL:
+     *  SELECT page_id,page_title FROM page WHERE page_namespace=14;
+     *  SELECT cl_from,cl_to FROM categorylinks,page WHERE cl_from=page_id AND page_namespace=14;
+     *
+     * @param black_list titles of blacklisted categories
+     * @param max_depth  maximum number of steps up from the category
+     * @return null if there were errors
+     */
+    public static CategoryAncestorClosure load(Connect connect,
+                                               List<String> black_list, int max_depth) {
+        if(null==connect || null==connect.conn || null==black_list)
+            return null;
+
+        Statement   s = null;
+        ResultSet   rs= null;
+        String      str_sql = "";
+        Encodings   e = connect.enc;
+        try {
+            s = connect.conn.createStatement ();
+
+            // 1. categories
+            List<String>  titles = new ArrayList<String>();
+            List<Integer> ids    = new ArrayList<Integer>();
+            str_sql = "SELECT page_id,page_title FROM page WHERE page_namespace=14";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ()) {
+                String db_str = Encodings.bytesTo(rs.getBytes("page_title"), e.GetDBEnc());
+                titles.add(e.EncodeFromDB(db_str));
+                ids.add(rs.getInt("page_id"));
+            }
+            rs.close();
+
+            int n = titles.size();
+            int[] cat_page_id = new int[n];
+            for(int i=0; i<n; i++)
+                cat_page_id[i] = ids.get(i);
+            CategoryAncestorClosure closure = new CategoryAncestorClosure(
+                    titles.toArray(new String[n]), cat_page_id, black_list, max_depth);
+            titles = null;
+            ids    = null;
+            Map<Integer, Integer> id_to_category = closure.mapIDToCategory();
+
+            // 2. links between categories
+            int[] link_child  = new int[1024];
+            int[] link_parent = new int[1024];
+            int n_links = 0;
+            str_sql = "SELECT cl_from,cl_to FROM categorylinks,page WHERE cl_from=page_id AND page_namespace=14";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ()) {
+                Integer c = id_to_category.get(rs.getInt("cl_from"));
+                String db_str = Encodings.bytesTo(rs.getBytes("cl_to"), e.GetDBEnc());
+                int     p = closure.getCategory(e.EncodeFromDB(db_str));
+                if(null == c || -1 == p)
+                    continue;
+                if(n_links == link_child.length) {
+                    link_child  = Arrays.copyOf(link_child,  n_links * 2);
+                    link_parent = Arrays.copyOf(link_parent, n_links * 2);
+                }
+                link_child [n_links] = c;
+                link_parent[n_links] = p;
+                n_links ++;
+            }
+            closure.build(link_child, link_parent, n_links);
+            return closure;
+
+        } catch(SQLException ex) {
+            System.err.println("SQLException (CategoryAncestorClosure.java load()):: sql='" + str_sql + "' " + ex.getMessage());
+        } finally {
+            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
+            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+        }
+        return null;
+    }
+
+    /** Creates map <page_id, index of category>. */
+    private Map<Integer, Integer> mapIDToCategory() {
+        Map<Integer, Integer> m = new HashMap<Integer, Integer>(page_id.length * 2);
+        for(int i=0; i<page_id.length; i++)
+            m.put(page_id[i], i);
+        return m;
+    }
+
+    /** Returns true if the closure was built for this blacklist and depth. */
+    public boolean isBuiltFor(List<String> _black_list, int _max_depth) {
+        return max_depth == _max_depth && black_list.equals(_black_list);
+    }
+
+    /** Gets index of the category by title.
+     * @return -1 if the category is absent */
+    public int getCategory(String category_title) {
+        if(null == category_title)
+            return -1;
+        int c = Arrays.binarySearch(title, category_title);
+        return c < 0 ? -1 : c;
+    }
+
+    public String getTitle(int category) {
+        return title[category];
+    }
+
+    public int getPageID(int category) {
+        return page_id[category];
+    }
+
+    /** Gets indices of parent categories of the first level. */
+    public int[] getParents(int category) {
+        return Arrays.copyOfRange(parent, parent_start[category], parent_start[category + 1]);
+    }
+
+    /** Gets the blacklisted category which is the category itself or its
+     * ancestor within max_depth steps (the first one in the blacklist
+     * if there are several).
+     * @return null if there is no such category or the category is absent
+     */
+    public String getBlackAncestor(String category_title) {
+        int c = getCategory(category_title);
+        if(-1 == c)
+            return null;
+        for(int w=0; w<words; w++) {
+            long bits = black[c*words + w];
+            if(0 != bits)
+                return black_list.get(w*64 + Long.numberOfTrailingZeros(bits));
+        }
+        return null;
+    }
+}
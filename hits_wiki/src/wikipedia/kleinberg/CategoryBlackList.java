@@ -69,6 +69,10 @@ public class CategoryBlackList {
     /* current set of white list of categories, it depends on black_list and CategoryBlackList.max_steps */
     private Set<String>          category_titles_white_list;
     
+    /** Blacklisted ancestors of categories, it is built for the current 
+     * black_list, if it is null then categories are checked by SQL queries. */
+    private CategoryAncestorClosure closure;
+    
     
     /** Creates a new instance of CategoryBlackList */
     public CategoryBlackList(SessionHolder session) {
@@ -108,6 +112,16 @@ public class CategoryBlackList {
         category_titles_white_list.clear();
     }
     
+    /** Sets the precomputed blacklisted ancestors of categories, 
+     * null - to check parent categories by SQL queries.
+     */
+    public void setAncestorClosure(CategoryAncestorClosure closure) {
+        this.closure = closure;
+    }
+    public CategoryAncestorClosure getAncestorClosure() {
+        return closure;
+    }
+    
     public void setBlackList(List<String> black_list) {
         this.black_list = black_list;
     }
@@ -212,6 +226,9 @@ public class CategoryBlackList {
      * @param source_article_id id of source article, return null 
      *                      if id of source page == id of from page
      *
+     * If the closure (see setAncestorClosure()) is set then parents are
+     * not selected from the database, the closure depth is used instead of max_steps.
+     *
      * !Side effects:
      *      This function sets value for the variable "passed_steps" (number of passed categories).
      */
@@ -246,6 +263,11 @@ public class CategoryBlackList {
         }
 
         // test complex: check categories recursively in black list
+        if(null != closure) {
+            String black = inBlackListByClosure(add);
+            session.skipTitlesWithSpaces(save_skipTitlesWithSpaces);
+            return black;
+        }
         for(String a : add) {
             if (category_titles_white_list.contains(a))
                 continue;
@@ -274,6 +296,87 @@ public class CategoryBlackList {
     }
     
     
+    /** Checks first level categories by the precomputed blacklisted ancestors.
+     * Parents of categories (not in blacklist) are added to 
+     * session.category_nodes as getCategoryUpIteratively() does, 
+     * but from the closure without SQL queries.
+     *
+     * @param add titles of first level categories of the article
+     * @return the blacklisted category or null
+     */
+    private String inBlackListByClosure(String[] add) {
+        passed_steps = 0;
+        for(String a : add) {
+            String black = closure.getBlackAncestor(a);
+            if (null != black) {
+                category_titles_black_list.add( a );
+                return black;
+            }
+        }
+        
+        for(String a : add) {
+            if (category_titles_white_list.contains(a))
+                continue;
+            int c = closure.getCategory(a);
+            if (-1 == c)
+                continue;
+            addCategoryNodesUp(c);
+            category_titles_white_list.add(a);
+        }
+        return null;
+    }
+    
+    /** Adds parents of the category (parents of parents, etc.) to 
+     * session.category_nodes and links from parents to children,
+     * the number of passed categories is limited by max_steps.
+     *
+     * @param category index of the category in the closure
+     */
+    private void addCategoryNodesUp(int category) {
+        int steps = 0;
+        LinkedList<Integer> queue = new LinkedList<Integer>();
+        queue.add(category);
+        
+        CATEGORIES_CYCLE:
+        while (!queue.isEmpty()) {
+            int c = queue.removeFirst();
+            int c_id = closure.getPageID(c);
+            for(int p : closure.getParents(c)) {
+                if (steps ++ >= max_steps)
+                    break CATEGORIES_CYCLE;
+                queue.add(p);
+                
+                int id = closure.getPageID(p);
+                Category node = session.category_nodes.get(id);
+                if (null == node) {
+                    node = new Category();
+                    node.page_id    = id;
+                    node.page_title = closure.getTitle(p);
+                    session.category_nodes.put(id, node);
+                }
+                
+                // node.links_in[] = unique_value( node.links_in[] + c_id )
+                if (null == node.links_in) {
+                    node.links_in = new int[] {c_id};
+                } else {
+                    boolean b_found = false;
+                    for(int i : node.links_in) {
+                        if (i == c_id) {
+                            b_found = true;
+                            break;
+                        }
+                    }
+                    if (!b_found) {
+                        node.links_in = Arrays.copyOf(node.links_in, node.links_in.length + 1);
+                        node.links_in[node.links_in.length - 1] = c_id;
+                    }
+                }
+            }
+        }
+        passed_steps += steps;
+        total_categories_passed += steps;
+    }
+    
     /** 
      * Get list of categories: categories, parents of categories, etc.
      * List is limited by max_steps.
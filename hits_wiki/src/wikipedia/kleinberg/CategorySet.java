@@ -123,25 +123,11 @@ public class CategorySet {
         List<ClusterCategory> clusters  = Preprocessing.createInitialClusters      (articles, categories);
         List<Edge>            edges     = Preprocessing.createEdgesBetweenClusters (clusters, categories);
 
-        // Clustering algorithm
-        Collections.sort(edges, Edge.WEIGHT_ORDER);
-        int i=0;
-        while(0<edges.size() && max_cluster_weight >= edges.get(0).getWeight()) {
-            Edge e = edges.get(0);
-            /*if(i++ == 113) {
-                int z = 1;
-            }*/
-//System.out.println ("i="+i);
-            // merge e.c2 to e.c1
-            List<Edge> remove_edges = e.Merge();
-            
-            // remove edges and remove cluster c2
-            clusters.remove( e.getVertex2() );
-            edges.removeAll( remove_edges );
-            
-            // re-sort edges: 
-            Collections.sort(edges, Edge.WEIGHT_ORDER);
-        }
+        // Clustering algorithm: merge e.c2 to e.c1 along the lightest edge e
+        ClusterMerger merger = new ClusterMerger(clusters, edges);
+        merger.merge(max_cluster_weight);
+        clusters = merger.getClusters();
+        
         return clusters;
     }
     
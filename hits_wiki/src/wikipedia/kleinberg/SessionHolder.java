@@ -35,6 +35,17 @@ public class SessionHolder {
     /** initial set of categories in black list */
     public CategoryBlackList    category_black_list;
     
+    /** Blacklisted ancestors of categories, it is loaded once and shared 
+     * by searches with the same black list, null if it is not used */
+    public CategoryAncestorClosure category_closure;
+    
+    /** Maximum number of steps up from categories in category_closure,
+     * 0 - the closure is not used, categories are checked by SQL queries */
+    private int                 closure_max_depth;
+    
+    /** Database of category_closure */
+    private Connect             closure_connect;
+    
     /** ID and titles of removed articles */
     public RemovedArticles      removed_articles;
     
@@ -73,9 +84,31 @@ public class SessionHolder {
     public void Init(Connect new_connect, List<String> black_list, int categories_max_steps) {
         connect = new_connect;
         category_black_list.init(black_list, categories_max_steps);
+        
+        if(0 < closure_max_depth && null != black_list) {
+            if(null == category_closure || connect != closure_connect ||
+               !category_closure.isBuiltFor(black_list, closure_max_depth)) {
+                category_closure = CategoryAncestorClosure.load(connect, black_list, closure_max_depth);
+                closure_connect  = connect;
+            }
+            category_black_list.setAncestorClosure(category_closure);
+        } else {
+            category_black_list.setAncestorClosure(null);
+        }
         clear();
     }
     
+    /** Sets maximum number of steps up from categories to blacklisted
+     * categories, the closure of categories is loaded by next Init() call.
+     * @param max_depth 0 - check categories by SQL queries without closure
+     */
+    public void setCategoryClosureDepth(int max_depth) {
+        closure_max_depth = max_depth;
+    }
+    public int getCategoryClosureDepth() {
+        return closure_max_depth;
+    }
+    
     public void clear() {
         removed_articles.clear();
         category_nodes.clear();
@@ -0,0 +1,769 @@
+/* IDFIndex.java - compressed memory-mapped inverted index of the wiki idf database.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU Public License.
+ */
+
+package wikipedia.sql_idf;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+
+/** The tables term, page and term_page of the idf database written to one file:
+ * term dictionary, compressed inverted index (term -> pages) and
+ * forward index (page -> terms). The file is read via memory mapping,
+ * so queries (WikIDFAPI.getTerms, getPages, top-k pages by TF-IDF)
+ * are answered without SQL.<br><br>
+ *
+ * Postings of a term are ordered by term frequency (descending) and
+ * grouped by term frequency: varint tf, varint number of pages,
+ * delta-coded (varint) ordinals of pages in ascending order.
+ * It allows to get top-k pages for several lemmas with early termination
+ * (threshold algorithm): postings are read in the order of decreasing TF,
+ * the score of a new page is calculated exactly by the forward index,
+ * reading stops when the k-th score is greater than the upper bound
+ * of unread pages.<br><br>
+ *
+ * TF-IDF is calculated as in TermPage.calcTF_IDF():
+ * tf * log(n_total_pages / doc_freq), where doc_freq is term.doc_freq
+ * (it can be greater than doc_freq_max, i.e. the length of postings).
+ *
+ * <PRE>
+ * File format (big-endian):
+ * header:  magic, version, n_terms, n_pages (int), offsets (long) of:
+ *          term table, lemmas, postings, page table, forward index, titles, title order
+ * term table (sorted by lemma):
+ *          term_id, doc_freq, n_postings, max_tf (int), lemma offset, postings offset (long)
+ * lemmas:  varint length, UTF-8 bytes
+ * postings: groups (varint tf, varint n, n delta varint page ordinals)
+ * page table (sorted by page_id):
+ *          page_id, word_count, n_terms (int), forward offset, title offset (long)
+ * forward index: n_terms pairs (delta varint term ordinal, varint tf)
+ * titles:  varint length, UTF-8 bytes
+ * title order: int[n_pages] page ordinals sorted by title
+ * </PRE>
+ * Ordinal is the position in the term table or in the page table.
+ */
+public class IDFIndex {
+
+    private final static int MAGIC      = 0x57494446; // "WIDF"
+    private final static int VERSION    = 1;
+    private final static int HEADER_SIZE = 4*4 + 7*8;
+
+    private final static int TERM_RECORD_SIZE = 4*4 + 2*8;
+    private final static int PAGE_RECORD_SIZE = 3*4 + 2*8;
+
+    private final static List<TermPage> NULL_TERMPAGE_LIST = new ArrayList<TermPage>(0);
+
+    private final MappedByteBuffer buf;
+    private final int  n_terms;
+    private final int  n_pages;
+    private final long offset_terms;
+    private final long offset_pages;
+    private final long offset_title_order;
+
+    private IDFIndex(MappedByteBuffer _buf) {
+        buf                 = _buf;
+        n_terms             = buf.getInt(8);
+        n_pages             = buf.getInt(12);
+        offset_terms        = buf.getLong(16);
+        offset_pages        = buf.getLong(40);
+        offset_title_order  = buf.getLong(64);
+    }
+
+    /** Counts number of terms in the index. */
+    public int countTerms() {
+        return n_terms;
+    }
+
+    /** Counts number of pages in the index (n_total_pages for IDF). */
+    public int countPages() {
+        return n_pages;
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Creation of index file
+
+    /** Collects terms, pages and term_page rows in memory, then writes the index file. */
+    public static class Builder {
+
+        private final List<String> lemmas   = new ArrayList<String>();
+        private final IntList term_id       = new IntList();
+        private final IntList doc_freq      = new IntList();
+
+        private final List<String> titles   = new ArrayList<String>();
+        private final IntList page_id       = new IntList();
+        private final IntList word_count    = new IntList();
+
+        private final IntList tp_term_id    = new IntList();
+        private final IntList tp_page_id    = new IntList();
+        private final IntList tp_term_freq  = new IntList();
+
+        /** Adds the row of the table term. */
+        public void addTerm(int _term_id, String lemma, int _doc_freq) {
+            term_id. add(_term_id);
+            lemmas.  add(lemma);
+            doc_freq.add(_doc_freq);
+        }
+
+        /** Adds the row of the table page. */
+        public void addPage(int _page_id, String page_title, int _word_count) {
+            page_id.   add(_page_id);
+            titles.    add(page_title);
+            word_count.add(_word_count);
+        }
+
+        /** Adds the row of the table term_page. */
+        public void addTermPage(int _term_id, int _page_id, int term_freq) {
+            tp_term_id.  add(_term_id);
+            tp_page_id.  add(_page_id);
+            tp_term_freq.add(term_freq);
+        }
+
+        /** Writes the index file. Rows of term_page with unknown term or page are skipped. */
+        public void write(File file) throws IOException {
+
+            // 1. ordinals: terms sorted by lemma, pages sorted by page_id
+            final int nt = lemmas.size();
+            final int np = titles.size();
+            Integer[] term_order = new Integer[nt];
+            for(int i=0; i<nt; i++)
+                term_order[i] = i;
+            Arrays.sort(term_order, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return lemmas.get(a).compareTo(lemmas.get(b));
+                }});
+
+            Integer[] page_order = new Integer[np];
+            for(int i=0; i<np; i++)
+                page_order[i] = i;
+            Arrays.sort(page_order, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return Integer.compare(page_id.data[a], page_id.data[b]);
+                }});
+
+            Map<Integer, Integer> term_id_to_ord = new HashMap<Integer, Integer>(nt * 2);
+            for(int ord=0; ord<nt; ord++)
+                term_id_to_ord.put(term_id.data[term_order[ord]], ord);
+            Map<Integer, Integer> page_id_to_ord = new HashMap<Integer, Integer>(np * 2);
+            for(int ord=0; ord<np; ord++)
+                page_id_to_ord.put(page_id.data[page_order[ord]], ord);
+
+            // 2. term_page rows grouped by term (CSR), then by page
+            int n_rows = tp_term_id.size;
+            int[] row_term = new int[n_rows];
+            int[] row_page = new int[n_rows];
+            int[] term_start = new int[nt + 1];
+            int[] page_start = new int[np + 1];
+            for(int i=0; i<n_rows; i++) {
+                Integer t = term_id_to_ord.get(tp_term_id.data[i]);
+                Integer p = page_id_to_ord.get(tp_page_id.data[i]);
+                row_term[i] = null == t ? -1 : t;
+                row_page[i] = null == p ? -1 : p;
+                if(null != t && null != p) {
+                    term_start[t + 1] ++;
+                    page_start[p + 1] ++;
+                }
+            }
+            for(int i=0; i<nt; i++)
+                term_start[i + 1] += term_start[i];
+            for(int i=0; i<np; i++)
+                page_start[i + 1] += page_start[i];
+
+            // posting key: tf descending, page ordinal ascending
+            long[] postings = new long[term_start[nt]];
+            int[]  fill = Arrays.copyOf(term_start, nt);
+            for(int i=0; i<n_rows; i++) {
+                if(row_term[i] < 0 || row_page[i] < 0)
+                    continue;
+                int tf = tp_term_freq.data[i];
+                postings[fill[row_term[i]] ++] = ((long)(Integer.MAX_VALUE - tf) << 32) | row_page[i];
+            }
+
+            // forward lists are filled by terms in ascending order
+            int[] fwd_term = new int[page_start[np]];
+            int[] fwd_tf   = new int[page_start[np]];
+            fill = Arrays.copyOf(page_start, np);
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            long pos = 0;
+            try {
+                out.write(new byte[HEADER_SIZE]);   // header is written at the end
+                pos += HEADER_SIZE;
+
+                // lemmas
+                long offset_lemmas = pos;
+                long[] lemma_offset = new long[nt];
+                for(int ord=0; ord<nt; ord++) {
+                    lemma_offset[ord] = pos - offset_lemmas;
+                    pos += writeString(out, lemmas.get(term_order[ord]));
+                }
+
+                // postings
+                long offset_postings = pos;
+                long[] postings_offset = new long[nt];
+                int[]  max_tf          = new int[nt];
+                for(int ord=0; ord<nt; ord++) {
+                    postings_offset[ord] = pos - offset_postings;
+                    int from = term_start[ord], to = term_start[ord + 1];
+                    Arrays.sort(postings, from, to);
+
+                    int i = from;
+                    while(i < to) {
+                        int tf = Integer.MAX_VALUE - (int)(postings[i] >>> 32);
+                        int j = i;
+                        while(j < to && (postings[j] >>> 32) == (postings[i] >>> 32))
+                            j ++;
+                        if(i == from)
+                            max_tf[ord] = tf;
+
+                        pos += writeVarInt(out, tf);
+                        pos += writeVarInt(out, j - i);
+                        int prev = 0;
+                        for(int k=i; k<j; k++) {
+                            int p = (int)postings[k];
+                            pos += writeVarInt(out, p - prev);
+                            prev = p;
+
+                            fwd_term[fill[p]] = ord;
+                            fwd_tf  [fill[p]] = tf;
+                            fill[p] ++;
+                        }
+                        i = j;
+                    }
+                }
+
+                // forward index
+                long offset_forward = pos;
+                long[] forward_offset = new long[np];
+                for(int p=0; p<np; p++) {
+                    forward_offset[p] = pos - offset_forward;
+                    int prev = 0;
+                    for(int k=page_start[p]; k<page_start[p + 1]; k++) {
+                        pos += writeVarInt(out, fwd_term[k] - prev);
+                        pos += writeVarInt(out, fwd_tf[k]);
+                        prev = fwd_term[k];
+                    }
+                }
+
+                // titles
+                long offset_titles = pos;
+                long[] title_offset = new long[np];
+                for(int p=0; p<np; p++) {
+                    title_offset[p] = pos - offset_titles;
+                    pos += writeString(out, titles.get(page_order[p]));
+                }
+
+                // term table
+                long offset_terms = pos;
+                for(int ord=0; ord<nt; ord++) {
+                    int t = term_order[ord];
+                    out.writeInt(term_id.data[t]);
+                    out.writeInt(doc_freq.data[t]);
+                    out.writeInt(term_start[ord + 1] - term_start[ord]);
+                    out.writeInt(max_tf[ord]);
+                    out.writeLong(lemma_offset[ord]);
+                    out.writeLong(postings_offset[ord]);
+                }
+                pos += (long)nt * TERM_RECORD_SIZE;
+
+                // page table
+                long offset_pages = pos;
+                for(int p=0; p<np; p++) {
+                    int i = page_order[p];
+                    out.writeInt(page_id.data[i]);
+                    out.writeInt(word_count.data[i]);
+                    out.writeInt(page_start[p + 1] - page_start[p]);
+                    out.writeLong(forward_offset[p]);
+                    out.writeLong(title_offset[p]);
+                }
+                pos += (long)np * PAGE_RECORD_SIZE;
+
+                // title order
+                long offset_title_order = pos;
+                final String[] sorted_titles = new String[np];
+                Integer[] title_order = new Integer[np];
+                for(int p=0; p<np; p++) {
+                    sorted_titles[p] = titles.get(page_order[p]);
+                    title_order[p] = p;
+                }
+                Arrays.sort(title_order, new Comparator<Integer>() {
+                    public int compare(Integer a, Integer b) {
+                        return sorted_titles[a].compareTo(sorted_titles[b]);
+                    }});
+                for(int p=0; p<np; p++)
+                    out.writeInt(title_order[p]);
+                out.close();
+                out = null;
+
+                RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                try {
+                    raf.writeInt(MAGIC);
+                    raf.writeInt(VERSION);
+                    raf.writeInt(nt);
+                    raf.writeInt(np);
+                    raf.writeLong(offset_terms);
+                    raf.writeLong(offset_lemmas);
+                    raf.writeLong(offset_postings);
+                    raf.writeLong(offset_pages);
+                    raf.writeLong(offset_forward);
+                    raf.writeLong(offset_titles);
+                    raf.writeLong(offset_title_order);
+                } finally {
+                    raf.close();
+                }
+            } finally {
+                if(null != out)
+                    out.close();
+            }
+        }
+    }
+
+    /** Creates the index file from the tables term, page and term_page.
+     *
+     *  SQL:
+     *  SELECT term_id,lemma,doc_freq FROM term;
+     *  SELECT page_id,page_title,word_count FROM page;
+     *  SELECT term_id,page_id,term_freq FROM term_page;
+     *
+     * @return false if there were errors
+     */
+    public static boolean create(java.sql.Connection conn, File file) {
+        Builder b = new Builder();
+        Statement   s = null;
+        ResultSet   rs= null;
+        String      str_sql = "";
+        try {
+            // rows are streamed, term_page doesn't fit into memory
+            s = RelatedPageBatch.createStreamingStatement(conn);
+
+            str_sql = "SELECT term_id,lemma,doc_freq FROM term";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ())
+                b.addTerm(rs.getInt("term_id"), rs.getString("lemma"), rs.getInt("doc_freq"));
+            rs.close();
+
+            str_sql = "SELECT page_id,page_title,word_count FROM page";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ())
+                b.addPage(rs.getInt("page_id"), rs.getString("page_title"), rs.getInt("word_count"));
+            rs.close();
+
+            str_sql = "SELECT term_id,page_id,term_freq FROM term_page";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ())
+                b.addTermPage(rs.getInt("term_id"), rs.getInt("page_id"), rs.getInt("term_freq"));
+
+            b.write(file);
+            return true;
+        } catch(SQLException ex) {
+            System.err.println("SQLException (wikidf IDFIndex.java create()):: sql='" + str_sql + "' " + ex.getMessage());
+        } catch(IOException ex) {
+            System.err.println("IOException (wikidf IDFIndex.java create()):: file='" + file + "' " + ex.getMessage());
+        } finally {
+            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
+            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+        }
+        return false;
+    }
+
+    /** Builds the index file of the idf database.
+     * Run: java wikipedia.sql_idf.IDFIndex idfsimplewiki.idx
+     */
+    public static void main(String[] args) {
+        File file = new File(args.length > 0 ? args[0] : "idfsimplewiki.idx");
+
+        wikipedia.sql.Connect idf_conn = new wikipedia.sql.Connect();
+        idf_conn.Open(wikipedia.sql.Connect.IDF_SIMPLE_HOST, wikipedia.sql.Connect.IDF_SIMPLE_DB,
+                      wikipedia.sql.Connect.IDF_SIMPLE_USER, wikipedia.sql.Connect.IDF_SIMPLE_PASS);
+
+        long t_start = System.currentTimeMillis();
+        if(create(idf_conn.conn, file)) {
+            IDFIndex index = open(file);
+            System.out.println("IDF index '" + file + "': terms=" + index.countTerms() +
+                    ", pages=" + index.countPages() +
+                    ", time sec:" + (System.currentTimeMillis() - t_start)/1000f);
+        }
+        idf_conn.Close();
+    }
+
+    /** Opens (maps into memory) the index file.
+     * @return null if the file is absent or it is not an idf index
+     */
+    public static IDFIndex open(File file) {
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel ch = raf.getChannel();
+                if(ch.size() > Integer.MAX_VALUE) {
+                    System.err.println("Error in IDFIndex.open(): file '" + file + "' is too large (> 2 GB).");
+                    return null;
+                }
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                if(ch.size() < HEADER_SIZE || MAGIC != buf.getInt(0) || VERSION != buf.getInt(4)) {
+                    System.err.println("Error in IDFIndex.open(): file '" + file + "' is not an idf index.");
+                    return null;
+                }
+                return new IDFIndex(buf);
+            } finally {
+                raf.close();    // the mapping remains valid after the channel is closed
+            }
+        } catch(IOException ex) {
+            System.err.println("Error in IDFIndex.open(): file='" + file + "' " + ex.getMessage());
+        }
+        return null;
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Term and page records
+
+    private long termRecord(int ord) {
+        return offset_terms + (long)ord * TERM_RECORD_SIZE;
+    }
+
+    private long pageRecord(int ord) {
+        return offset_pages + (long)ord * PAGE_RECORD_SIZE;
+    }
+
+    private String getLemma(int ord) {
+        return readString(buf.getLong(24) + buf.getLong((int)termRecord(ord) + 16));
+    }
+
+    private String getTitle(int page_ord) {
+        return readString(buf.getLong(56) + buf.getLong((int)pageRecord(page_ord) + 20));
+    }
+
+    /** Gets ordinal of the term by binary search, -1 if it is absent. */
+    private int findTerm(String lemma) {
+        int lo = 0, hi = n_terms - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = getLemma(mid).compareTo(lemma);
+            if(c < 0)
+                lo = mid + 1;
+            else if(c > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    /** Gets ordinal of the page by binary search in title order, -1 if it is absent. */
+    private int findPage(String page_title) {
+        int lo = 0, hi = n_pages - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int page_ord = buf.getInt((int)(offset_title_order + 4L * mid));
+            int c = getTitle(page_ord).compareTo(page_title);
+            if(c < 0)
+                lo = mid + 1;
+            else if(c > 0)
+                hi = mid - 1;
+            else
+                return page_ord;
+        }
+        return -1;
+    }
+
+    /** Creates the term object by ordinal (term_id, lemma, doc_freq). */
+    private Term createTerm(int ord) {
+        int r = (int)termRecord(ord);
+        Term t = new Term();
+        t.setTermID (buf.getInt(r));
+        t.setDocFreq(buf.getInt(r + 4));
+        t.setLemma  (getLemma(ord));
+        return t;
+    }
+
+    /** Creates the page object by ordinal (page_id, title, word_count). */
+    private Page createPage(int page_ord) {
+        int r = (int)pageRecord(page_ord);
+        Page p = new Page();
+        p.setPageID   (buf.getInt(r));
+        p.setWordCount(buf.getInt(r + 4));
+        p.setPageTitle(getTitle(page_ord));
+        return p;
+    }
+
+    /** Gets the term by lemma, null if it is absent. */
+    public Term getTerm(String lemma) {
+        int ord = findTerm(lemma);
+        return ord < 0 ? null : createTerm(ord);
+    }
+
+    /** Gets inverse document frequency of the term: log(n_total_pages / doc_freq). */
+    private double getIDF(int ord) {
+        int doc_freq = buf.getInt((int)termRecord(ord) + 4);
+        return doc_freq <= 0 ? 0 : Math.log((double)n_pages / doc_freq);
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Queries
+
+    /** Gets all terms (with lemma and doc_freq) for the page titled page_title,
+     * as WikIDFAPI.getTerms().
+     */
+    public List<TermPage> getTerms(String page_title) {
+        int page_ord = findPage(page_title);
+        if(page_ord < 0)
+            return NULL_TERMPAGE_LIST;
+
+        int r = (int)pageRecord(page_ord);
+        int n = buf.getInt(r + 8);
+        Page p = createPage(page_ord);
+
+        List<TermPage> result = new ArrayList<TermPage>(n);
+        int[] pos = { (int)(buf.getLong(48) + buf.getLong(r + 12)) };
+        int ord = 0;
+        for(int i=0; i<n; i++) {
+            ord += readVarInt(pos);
+            TermPage tp = new TermPage(p);
+            tp.setTerm(createTerm(ord));
+            tp.setTermFreq(readVarInt(pos));
+            result.add(tp);
+        }
+        return result;
+    }
+
+    /** Gets all pages (with title and word_count) which contain the term (lemma),
+     * pages are sorted by TF (term frequency), as WikIDFAPI.getPages().
+     */
+    public List<TermPage> getPages(String lemma) {
+        int ord = findTerm(lemma);
+        if(ord < 0)
+            return NULL_TERMPAGE_LIST;
+
+        int r = (int)termRecord(ord);
+        int n = buf.getInt(r + 8);
+        Term t = createTerm(ord);
+
+        List<TermPage> result = new ArrayList<TermPage>(n);
+        PostingCursor c = new PostingCursor(ord);
+        while(c.next()) {
+            TermPage tp = new TermPage(createPage(c.page_ord));
+            tp.setTerm(t);
+            tp.setTermFreq(c.tf);
+            result.add(tp);
+        }
+        return result;
+    }
+
+    /** Gets k pages with the highest sum of TF-IDF of the lemmas.
+     * The result is sorted by TF-IDF (descending), TermPage.getTermFreq()
+     * is the sum of frequencies of the lemmas on the page.
+     *
+     * Postings are read in the order of decreasing TF, reading stops
+     * when the k-th score is greater than the score which an unread page could have.
+     */
+    public List<TermPage> getTopPages(String[] lemmas, int k) {
+        if(k <= 0 || null == lemmas)
+            return NULL_TERMPAGE_LIST;
+
+        // query terms: ordinals (sorted) and IDF
+        SortedMap<Integer, Double> m_ord_idf = new TreeMap<Integer, Double>();
+        for(String lemma : lemmas) {
+            int ord = findTerm(lemma);
+            if(ord >= 0)
+                m_ord_idf.put(ord, getIDF(ord));
+        }
+        if(m_ord_idf.isEmpty())
+            return NULL_TERMPAGE_LIST;
+
+        int nq = m_ord_idf.size();
+        int[]    q_ord = new int[nq];
+        double[] q_idf = new double[nq];
+        PostingCursor[] cursors = new PostingCursor[nq];
+        int i = 0;
+        for(Map.Entry<Integer, Double> e : m_ord_idf.entrySet()) {
+            q_ord[i] = e.getKey();
+            q_idf[i] = e.getValue();
+            cursors[i] = new PostingCursor(q_ord[i]);
+            i ++;
+        }
+
+        // min-heap of the best k pages: score, then page ordinal
+        PriorityQueue<ScoredPage> heap = new PriorityQueue<ScoredPage>(k + 1, ScoredPage.WORST_FIRST);
+        BitSet seen = new BitSet(n_pages);
+
+        boolean b_active = true;
+        while(b_active) {
+            b_active = false;
+            double threshold = 0;
+            for(int j=0; j<nq; j++) {
+                PostingCursor c = cursors[j];
+                if(!c.next())
+                    continue;
+                b_active = true;
+                threshold += q_idf[j] * c.tf;
+
+                if(seen.get(c.page_ord))
+                    continue;
+                seen.set(c.page_ord);
+
+                ScoredPage sp = scorePage(c.page_ord, q_ord, q_idf);
+                if(heap.size() < k) {
+                    heap.add(sp);
+                } else if(ScoredPage.WORST_FIRST.compare(sp, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(sp);
+                }
+            }
+            // an unread page has score <= sum of idf * (current tf) of the lists
+            if(heap.size() == k && heap.peek().score > threshold)
+                break;
+        }
+
+        List<ScoredPage> top = new ArrayList<ScoredPage>(heap);
+        Collections.sort(top, Collections.reverseOrder(ScoredPage.WORST_FIRST));
+
+        List<TermPage> result = new ArrayList<TermPage>(top.size());
+        for(ScoredPage sp : top) {
+            TermPage tp = new TermPage(createPage(sp.page_ord));
+            tp.setTermFreq(sp.term_freq);
+            tp.setTF_IDF(sp.score);
+            result.add(tp);
+        }
+        return result;
+    }
+
+    /** Calculates TF-IDF of the query terms for the page by the forward index. */
+    private ScoredPage scorePage(int page_ord, int[] q_ord, double[] q_idf) {
+        int r = (int)pageRecord(page_ord);
+        int n = buf.getInt(r + 8);
+        int[] pos = { (int)(buf.getLong(48) + buf.getLong(r + 12)) };
+
+        double score = 0;
+        int term_freq = 0;
+        int ord = 0, q = 0;
+        for(int i=0; i<n && q < q_ord.length; i++) {
+            ord += readVarInt(pos);
+            int tf = readVarInt(pos);
+            while(q < q_ord.length && q_ord[q] < ord)
+                q ++;
+            if(q < q_ord.length && q_ord[q] == ord) {
+                score     += q_idf[q] * tf;
+                term_freq += tf;
+            }
+        }
+        return new ScoredPage(page_ord, score, term_freq);
+    }
+
+    /** Page with the score of query. */
+    private static class ScoredPage {
+        final int    page_ord;
+        final double score;
+        final int    term_freq;
+
+        ScoredPage(int _page_ord, double _score, int _term_freq) {
+            page_ord  = _page_ord;
+            score     = _score;
+            term_freq = _term_freq;
+        }
+
+        /** Ordering: lower score first, for equal scores the higher ordinal (page_id) first. */
+        static final Comparator<ScoredPage> WORST_FIRST = new Comparator<ScoredPage>() {
+            public int compare(ScoredPage a, ScoredPage b) {
+                if(a.score != b.score)
+                    return a.score < b.score ? -1 : 1;
+                return Integer.compare(b.page_ord, a.page_ord);
+            }
+        };
+    }
+
+    /** Sequential reader of postings of one term (in the order of decreasing TF). */
+    private class PostingCursor {
+        private final int[] pos = new int[1];
+        private int left_in_term;
+        private int left_in_group = 0;
+
+        int tf;
+        int page_ord;
+
+        PostingCursor(int term_ord) {
+            int r = (int)termRecord(term_ord);
+            left_in_term = buf.getInt(r + 8);
+            pos[0] = (int)(buf.getLong(32) + buf.getLong(r + 24));
+        }
+
+        /** Moves to the next posting, returns false at the end. */
+        boolean next() {
+            if(0 == left_in_term)
+                return false;
+            if(0 == left_in_group) {
+                tf = readVarInt(pos);
+                left_in_group = readVarInt(pos);
+                page_ord = 0;
+            }
+            page_ord += readVarInt(pos);
+            left_in_group --;
+            left_in_term --;
+            return true;
+        }
+    }
+
+
+    // ///////////////////////////////////////////////////////////////
+    // Utilities
+
+    /** Writes varint, returns number of written bytes. */
+    private static int writeVarInt(DataOutputStream out, int value) throws IOException {
+        int n = 1;
+        while((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+            n ++;
+        }
+        out.write(value);
+        return n;
+    }
+
+    /** Writes varint length and UTF-8 bytes, returns number of written bytes. */
+    private static int writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        int n = writeVarInt(out, b.length);
+        out.write(b);
+        return n + b.length;
+    }
+
+    /** Reads varint at pos[0], moves pos[0]. */
+    private int readVarInt(int[] pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.get(pos[0] ++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+        return value;
+    }
+
+    private String readString(long offset) {
+        int[] pos = { (int)offset };
+        int len = readVarInt(pos);
+        byte[] b = new byte[len];
+        for(int i=0; i<len; i++)
+            b[i] = buf.get(pos[0] + i);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** Growable array of int. */
+    private static class IntList {
+        int[] data = new int[16];
+        int   size = 0;
+
+        void add(int value) {
+            if(size == data.length)
+                data = Arrays.copyOf(data, size * 2);
+            data[size ++] = value;
+        }
+    }
+}
@@ -34,7 +34,7 @@ public class Page {
     /** Gets the title of the page */
     public String getPageTitle(){ return page_title;    }
     /** Sets the title of the page  */
-    private void  setPageTitle( String  _page_title)
+    protected void setPageTitle( String  _page_title)
                             { page_title = _page_title; }
     
     /** Gets a number of words in the article */
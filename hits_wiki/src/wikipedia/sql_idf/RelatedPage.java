@@ -250,6 +250,60 @@ public class RelatedPage {
             if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
         }
     }
-
     
+    
+    /** Collects lists of related pages and writes them to the table 
+     * related_page by multi-row statements (it can be used from several threads).
+     * 
+     * SQL example:
+     * INSERT INTO related_page (page_id,related_titles) VALUES (1,"pear|plum"),(2,"apple")
+     *      ON DUPLICATE KEY UPDATE related_titles=VALUES(related_titles);
+     */
+    public static class BatchWriter {
+        
+        /** Number of rows in one INSERT statement. */
+        private final static int ROWS_PER_INSERT = 1000;
+        
+        private final java.sql.Connection conn;
+        private final StringBuffer str_sql = new StringBuffer();
+        private int n_rows = 0;
+        
+        public BatchWriter(java.sql.Connection _conn) {
+            conn = _conn;
+        }
+        
+        /** Adds list of related pages of the page, writes the rows if there are many of them. */
+        public synchronized void add(int page_id, String[] related_list) {
+            str_sql.append(0 == n_rows ? "INSERT INTO related_page (page_id,related_titles) VALUES (" : ",(");
+            str_sql.append(page_id);
+            str_sql.append(",\"");
+            String safe_title = StringUtil.spaceToUnderscore(
+                                StringUtil.escapeChars(StringUtil.join(delimiter, related_list)));
+            str_sql.append(safe_title);
+            str_sql.append("\")");
+            
+            if(++ n_rows == ROWS_PER_INSERT)
+                flush();
+        }
+        
+        /** Writes collected rows to the table related_page. */
+        public synchronized void flush() {
+            if(0 == n_rows)
+                return;
+            
+            Statement   s = null;
+            str_sql.append(" ON DUPLICATE KEY UPDATE related_titles=VALUES(related_titles)");
+            try {
+                s = conn.createStatement ();
+                s.executeUpdate (str_sql.toString());
+            }catch(SQLException ex) {
+                String sql = str_sql.length() > 200 ? str_sql.substring(0, 200) + "..." : str_sql.toString();
+                System.err.println("SQLException (sql_idf RelatedPage.java BatchWriter.flush()):: sql='" + sql + "' " + ex.getMessage());
+            } finally {
+                if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+            }
+            str_sql.setLength(0);
+            n_rows = 0;
+        }
+    }
 }
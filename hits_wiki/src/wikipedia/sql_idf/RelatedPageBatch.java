@@ -0,0 +1,415 @@
+/*
+ * RelatedPageBatch.java - batch calculation of related pages for all pages
+ * of the wiki idf database by cosine similarity of TF-IDF vectors.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU Public License.
+ */
+
+package wikipedia.sql_idf;
+
+import java.sql.Statement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Finds top-N related pages for every page of the idf database and
+ * writes them to the table related_page (see RelatedPage).<br><br>
+ *
+ * TF-IDF vectors of all pages are loaded from term_page into primitive
+ * arrays (term_id, float weight; 8 bytes per row of term_page), weight is
+ * tf * log(n_total_pages / doc_freq) as in TermPage.calcTF_IDF(),
+ * vectors are L2-normalized. Candidates of a page are the pages which
+ * share one of its top terms (inverted lists are built only over
+ * n_top_terms terms of each page, lists of too frequent terms are skipped).
+ * The candidates with the highest partial similarity are scored by exact
+ * cosine similarity. Pages are processed in several threads,
+ * results are written by multi-row INSERT statements.
+ *
+ * Usage: load(), then run().
+ */
+public class RelatedPageBatch {
+    private static final boolean DEBUG = true;
+
+    /** Number of pages processed by one task. */
+    private final static int CHUNK_SIZE = 512;
+
+    /** Number of candidates (per related page) scored by exact cosine. */
+    private final static int CANDIDATES_PER_RESULT = 10;
+
+    /** Inverted lists longer than this are skipped (too common terms). */
+    private final static int MAX_LIST_LENGTH = 10000;
+
+    /** Number of related pages to be stored for each page. */
+    private final int n_related;
+
+    /** Number of the most weighted terms of the page used to search candidates. */
+    private final int n_top_terms;
+
+    /** Pages sorted by page_id, index is page ordinal. */
+    private int[]    page_id;
+    private String[] page_title;
+
+    /** Vectors of pages (CSR): terms of the page p are in [vec_start[p], vec_start[p+1]),
+     * sorted by term_id. */
+    private int[]    vec_start;
+    private int[]    vec_term;
+    private float[]  vec_weight;
+
+    /** Positions (in vec_term) of top terms of each page. */
+    private int[][]  top_terms;
+
+    /** Inverted lists over top terms of pages (CSR by term_id). */
+    private int[]    inv_start;
+    private int[]    inv_page;
+    private float[]  inv_weight;
+
+    private final static String[] NULL_STRING_ARRAY = new String[0];
+
+    /**
+     * @param _n_related    number of related pages to be found for each page
+     * @param _n_top_terms  number of top terms of the page used to search candidates
+     */
+    public RelatedPageBatch(int _n_related, int _n_top_terms) {
+        n_related   = _n_related;
+        n_top_terms = _n_top_terms;
+    }
+
+    /** Counts number of pages. */
+    public int countPages() {
+        return null == page_id ? 0 : page_id.length;
+    }
+
+
+    /** Creates the statement which streams rows of the result set one by one
+     * (MySQL Connector/J), instead of reading the whole result into memory,
+     * since term_page has hundreds of millions of rows. Only one streamed
+     * result set can be open in the connection at a time.
+     */
+    static Statement createStreamingStatement(java.sql.Connection conn) throws SQLException {
+        Statement s = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        s.setFetchSize(Integer.MIN_VALUE);
+        return s;
+    }
+
+    /** Loads TF-IDF vectors of all pages from the tables term, page and term_page.
+     * Rows of term and term_page are streamed, so only the arrays of vectors
+     * are kept in memory.
+     *
+     *  SQL:
+     *  SELECT MAX(term_id) AS max_id FROM term;
+     *  SELECT term_id,doc_freq FROM term;
+     *  SELECT page_id,page_title FROM page ORDER BY page_id;
+     *  SELECT page_id,COUNT(*) AS n FROM term_page GROUP BY page_id;
+     *  SELECT page_id,term_id,term_freq FROM term_page;
+     *
+     * @return false if there were errors
+     */
+    public boolean load(java.sql.Connection conn) {
+        Statement   s = null;
+        ResultSet   rs= null;
+        String      str_sql = "";
+        try {
+            s = createStreamingStatement(conn);
+
+            // 1. terms: doc_freq
+            str_sql = "SELECT MAX(term_id) AS max_id FROM term";
+            rs = s.executeQuery (str_sql);
+            int max_term_id = rs.next() ? rs.getInt("max_id") : 0;
+            rs.close();
+
+            int[] doc_freq = new int[max_term_id + 1];
+            str_sql = "SELECT term_id,doc_freq FROM term";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ())
+                doc_freq[rs.getInt("term_id")] = rs.getInt("doc_freq");
+            rs.close();
+
+            // 2. pages
+            List<Integer> ids    = new ArrayList<Integer>();
+            List<String>  titles = new ArrayList<String>();
+            str_sql = "SELECT page_id,page_title FROM page ORDER BY page_id";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ()) {
+                ids.   add(rs.getInt("page_id"));
+                titles.add(rs.getString("page_title"));
+            }
+            rs.close();
+
+            int np = ids.size();
+            int[] _page_id = new int[np];
+            for(int i=0; i<np; i++)
+                _page_id[i] = ids.get(i);
+
+            // 3. sizes of vectors
+            int[] start = new int[np + 1];
+            str_sql = "SELECT page_id,COUNT(*) AS n FROM term_page GROUP BY page_id";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ()) {
+                int p = Arrays.binarySearch(_page_id, rs.getInt("page_id"));
+                if(p >= 0)
+                    start[p + 1] = rs.getInt("n");
+            }
+            rs.close();
+            for(int i=0; i<np; i++)
+                start[i + 1] += start[i];
+
+            // 4. vectors: term_id and tf
+            int[]   term = new int  [start[np]];
+            float[] tf   = new float[start[np]];
+            int[]   fill = Arrays.copyOf(start, np);
+            str_sql = "SELECT page_id,term_id,term_freq FROM term_page";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ()) {
+                int p = Arrays.binarySearch(_page_id, rs.getInt("page_id"));
+                int t = rs.getInt("term_id");
+                if(p < 0 || t > max_term_id || fill[p] == start[p + 1])
+                    continue;
+                term[fill[p]] = t;
+                tf  [fill[p]] = rs.getInt("term_freq");
+                fill[p] ++;
+            }
+            rs.close();
+
+            float[] idf = new float[max_term_id + 1];
+            for(int t=0; t<=max_term_id; t++)
+                idf[t] = doc_freq[t] <= 0 ? 0 : (float)Math.log((double)np / doc_freq[t]);
+
+            init(_page_id, titles.toArray(NULL_STRING_ARRAY), idf, start, term, tf);
+            return true;
+        } catch(SQLException ex) {
+            System.err.println("SQLException (sql_idf RelatedPageBatch.java load()):: sql='" + str_sql + "' " + ex.getMessage());
+        } finally {
+            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
+            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+        }
+        return false;
+    }
+
+    /** Sets vectors of pages: calculates TF-IDF weights (in place of tf),
+     * normalizes vectors, builds inverted lists over top terms.
+     *
+     * @param _page_id  page identifiers (sorted)
+     * @param idf       inverse document frequency by term_id
+     * @param start     terms of the page p are in [start[p], start[p+1])
+     * @param term      term_id
+     * @param tf        term frequency in the page (it is replaced by weight)
+     */
+    void init(int[] _page_id, String[] _page_title, float[] idf,
+              int[] start, int[] term, float[] tf)
+    {
+        page_id     = _page_id;
+        page_title  = _page_title;
+        vec_start   = start;
+        vec_term    = term;
+        vec_weight  = tf;
+
+        int np = page_id.length;
+        int max_term_id = idf.length - 1;
+
+        // weights, sorting by term_id, normalization
+        for(int p=0; p<np; p++) {
+            int from = start[p], to = start[p + 1];
+            long[] pairs = new long[to - from];
+            double norm = 0;
+            for(int k=from; k<to; k++) {
+                float w = vec_weight[k] * idf[term[k]];
+                norm += (double)w * w;
+                pairs[k - from] = ((long)term[k] << 32) | (Float.floatToIntBits(w) & 0xFFFFFFFFL);
+            }
+            Arrays.sort(pairs);
+            norm = norm > 0 ? Math.sqrt(norm) : 1;
+            for(int k=from; k<to; k++) {
+                long pair = pairs[k - from];
+                vec_term  [k] = (int)(pair >>> 32);
+                vec_weight[k] = (float)(Float.intBitsToFloat((int)pair) / norm);
+            }
+        }
+
+        // inverted lists over top terms of each page
+        inv_start = new int[max_term_id + 2];
+        top_terms = new int[np][];
+        for(int p=0; p<np; p++) {
+            top_terms[p] = getTopTerms(p);
+            for(int k : top_terms[p])
+                inv_start[vec_term[k] + 1] ++;
+        }
+        for(int t=0; t<=max_term_id; t++)
+            inv_start[t + 1] += inv_start[t];
+
+        inv_page   = new int  [inv_start[max_term_id + 1]];
+        inv_weight = new float[inv_start[max_term_id + 1]];
+        int[] fill = Arrays.copyOf(inv_start, max_term_id + 1);
+        for(int p=0; p<np; p++) {
+            for(int k : top_terms[p]) {
+                int t = vec_term[k];
+                inv_page  [fill[t]] = p;
+                inv_weight[fill[t]] = vec_weight[k];
+                fill[t] ++;
+            }
+        }
+    }
+
+    /** Gets positions (in vec_term) of n_top_terms terms of the page with the highest weight. */
+    private int[] getTopTerms(int p) {
+        int from = vec_start[p], to = vec_start[p + 1];
+        if(to - from <= n_top_terms) {
+            int[] result = new int[to - from];
+            for(int k=from; k<to; k++)
+                result[k - from] = k;
+            return result;
+        }
+        Integer[] order = new Integer[to - from];
+        for(int k=from; k<to; k++)
+            order[k - from] = k;
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Float.compare(vec_weight[b], vec_weight[a]);
+            }});
+        int[] result = new int[n_top_terms];
+        for(int i=0; i<n_top_terms; i++)
+            result[i] = order[i];
+        return result;
+    }
+
+    /** Calculates cosine similarity of normalized vectors of pages a and b. */
+    private float cosine(int a, int b) {
+        int i = vec_start[a], i_end = vec_start[a + 1];
+        int j = vec_start[b], j_end = vec_start[b + 1];
+        float sum = 0;
+        while(i < i_end && j < j_end) {
+            int ta = vec_term[i], tb = vec_term[j];
+            if(ta == tb) {
+                sum += vec_weight[i ++] * vec_weight[j ++];
+            } else if(ta < tb) {
+                i ++;
+            } else {
+                j ++;
+            }
+        }
+        return sum;
+    }
+
+    /** Finds related pages of the page p.
+     *
+     * @param acc       buffer of partial similarities (size = number of pages, zeros)
+     * @param touched   buffer of candidates (size = number of pages)
+     * @return ordinals of related pages sorted by similarity (descending)
+     */
+    private int[] findRelated(int p, float[] acc, int[] touched) {
+
+        // 1. candidates via inverted lists of top terms: partial dot product
+        int n_touched = 0;
+        for(int k : top_terms[p]) {
+            int t = vec_term[k];
+            int from = inv_start[t], to = inv_start[t + 1];
+            if(to - from > MAX_LIST_LENGTH)
+                continue;
+            float w = vec_weight[k];
+            for(int i=from; i<to; i++) {
+                int q = inv_page[i];
+                float x = w * inv_weight[i];
+                if(q == p || x <= 0)
+                    continue;
+                if(0 == acc[q])
+                    touched[n_touched ++] = q;
+                acc[q] += x;
+            }
+        }
+
+        // 2. the best candidates by partial similarity
+        int n_candidates = Math.min(n_touched, n_related * CANDIDATES_PER_RESULT);
+        long[] keys = new long[n_touched];
+        for(int i=0; i<n_touched; i++) {
+            int q = touched[i];
+            keys[i] = ((long)Float.floatToIntBits(acc[q]) << 32) | q; // positive floats: bits order = value order
+            acc[q] = 0;
+        }
+        Arrays.sort(keys);
+
+        // 3. exact cosine
+        long[] scored = new long[n_candidates];
+        for(int i=0; i<n_candidates; i++) {
+            int q = (int)keys[n_touched - 1 - i];
+            scored[i] = ((long)Float.floatToIntBits(cosine(p, q)) << 32) | q;
+        }
+        Arrays.sort(scored);
+
+        int n = Math.min(n_related, n_candidates);
+        int[] result = new int[n];
+        for(int i=0; i<n; i++)
+            result[i] = (int)scored[n_candidates - 1 - i];
+        return result;
+    }
+
+    /** Gets titles of related pages of the page (ordinal) p. */
+    String[] getRelatedTitles(int p) {
+        int np = page_id.length;
+        int[] related = findRelated(p, new float[np], new int[np]);
+        String[] result = new String[related.length];
+        for(int i=0; i<related.length; i++)
+            result[i] = page_title[related[i]];
+        return result;
+    }
+
+    /** Finds related pages for all pages in n_threads threads,
+     * writes them to the table related_page.
+     */
+    public void run(final java.sql.Connection conn, int n_threads) {
+        final int np = page_id.length;
+        final RelatedPage.BatchWriter writer = new RelatedPage.BatchWriter(conn);
+        long t_start = System.currentTimeMillis();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, n_threads));
+        try {
+            List<Future<?>> tasks = new ArrayList<Future<?>>();
+            for(int from=0; from<np; from += CHUNK_SIZE) {
+                final int _from = from;
+                final int _to   = Math.min(np, from + CHUNK_SIZE);
+                tasks.add(executor.submit(new Runnable() {
+                    public void run() {
+                        float[] acc = new float[np];
+                        int[] touched = new int[np];
+                        for(int p=_from; p<_to; p++) {
+                            int[] related = findRelated(p, acc, touched);
+                            String[] titles = new String[related.length];
+                            for(int i=0; i<related.length; i++)
+                                titles[i] = page_title[related[i]];
+                            writer.add(page_id[p], titles);
+                        }
+                    }
+                }));
+            }
+            for(int i=0; i<tasks.size(); i++) {
+                tasks.get(i).get();
+                if(DEBUG && 0 == (i + 1) % 100)
+                    System.out.println("RelatedPageBatch.run(): " + Math.min((i + 1) * CHUNK_SIZE, np) + " of " + np +
+                            " pages, time sec:" + (System.currentTimeMillis() - t_start)/1000f);
+            }
+        } catch(Exception ex) {
+            System.err.println("Error in RelatedPageBatch.run(): " + ex.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+        writer.flush();
+    }
+
+    /** Finds related pages for all pages of the idf database.
+     * Run: java wikipedia.sql_idf.RelatedPageBatch [n_related]
+     */
+    public static void main(String[] args) {
+        int n_related = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+        wikipedia.sql.Connect idf_conn = new wikipedia.sql.Connect();
+        idf_conn.Open(wikipedia.sql.Connect.IDF_SIMPLE_HOST, wikipedia.sql.Connect.IDF_SIMPLE_DB,
+                      wikipedia.sql.Connect.IDF_SIMPLE_USER, wikipedia.sql.Connect.IDF_SIMPLE_PASS);
+
+        RelatedPageBatch batch = new RelatedPageBatch(n_related, 20);
+        if(batch.load(idf_conn.conn))
+            batch.run(idf_conn.conn, Runtime.getRuntime().availableProcessors());
+        idf_conn.Close();
+    }
+}
@@ -29,8 +29,8 @@ public class Term {
     /** corpus frequency - the frequency of the term in the corpus */
     private int     corpus_freq;
     
-    private final static int LEMMA_LEN_MAX = 253;
-    private final static int LEMMA_LEN_WARNING = 100;
+    final static int LEMMA_LEN_MAX = 253;
+    final static int LEMMA_LEN_WARNING = 100;
     
     
     /** Gets term identifier */
@@ -0,0 +1,556 @@
+/*
+ * TermAccumulator.java - in-memory accumulator of terms, pages and
+ * term frequencies with bulk flush to the wiki idf database.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU Public License.
+ */
+
+package wikipedia.sql_idf;
+
+import wikipedia.util.StringUtil;
+
+import java.util.*;
+import java.sql.*;
+
+/** Accumulates terms (lemma, doc_freq, corpus_freq), pages and
+ * term frequencies in documents in memory, then writes them to the tables
+ * term, page and term_page by multi-row INSERT statements.<br><br>
+ *
+ * It replaces the SQL round trips of Term.incLemmataDocFreq()
+ * (Term.get, Term.incDocFreq, TermPage.updateTermFreq for each lemma
+ * of each page). Several documents can be added in parallel:
+ * terms are split into shards by the hash of lemma, each shard is
+ * an open addressing map (lemma -> slot) with int arrays of term_id,
+ * doc_freq and corpus_freq, and it is locked separately.<br><br>
+ *
+ * The columns term.lemma and page.page_title are UNIQUE with case-insensitive
+ * utf8 collation, so lemmas and titles are compared by getKey()
+ * (case is ignored). The database has the last word: term and page rows
+ * are inserted with ON DUPLICATE KEY UPDATE, frequencies are added to the
+ * stored ones, and term_id, page_id are selected from the database after
+ * the insertion, so term_page refers only to existing rows.<br><br>
+ *
+ * The limit doc_freq_max has the same meaning as in Term.incLemmaDocFreq():
+ * term_page contains only the first doc_freq_max documents of the term,
+ * but term.doc_freq counts all documents.<br><br>
+ *
+ * Usage: load() existing terms and pages, addPage() for each document
+ * (in any thread), flushIfFull() from time to time, flush() at the end.
+ */
+public class TermAccumulator {
+
+    /** Number of shards of the term dictionary (power of two). */
+    private final static int N_SHARDS = 64;
+
+    /** Number of rows in one INSERT statement and values in one SELECT ... IN (). */
+    private final static int ROWS_PER_INSERT = 1000;
+
+    /** flushIfFull() writes data if there are more term_page rows in memory. */
+    private final static int FLUSH_POSTINGS = 500000;
+
+    private final int doc_freq_max;
+
+    private final Shard[] shards;
+
+    /** Keys of titles of pages which are stored already (in the database or in memory). */
+    private final Set<String> page_keys = Collections.synchronizedSet(new HashSet<String>());
+
+    /** Pages which are not flushed yet: title, word_count. */
+    private List<String>  new_page_title  = new ArrayList<String>();
+    private IntList       new_page_words  = new IntList();
+
+    /** Rows of term_page which are not flushed yet: key of lemma,
+     * index of the page in new_page_title, term frequency. */
+    private List<String>  tp_lemma_key    = new ArrayList<String>();
+    private IntList       tp_page_index   = new IntList();
+    private IntList       tp_term_freq    = new IntList();
+
+    /** Lock of the lists of new pages and term_page rows. */
+    private final Object buffer_lock = new Object();
+
+    /** Only one flush at a time. */
+    private final Object flush_lock = new Object();
+
+    /** @param _doc_freq_max  the limit for the table term_page, see Term.incLemmaDocFreq() */
+    public TermAccumulator(int _doc_freq_max) {
+        doc_freq_max = _doc_freq_max;
+        shards = new Shard[N_SHARDS];
+        for(int i=0; i<N_SHARDS; i++)
+            shards[i] = new Shard();
+    }
+
+    /** Gets the key of the lemma or the page title: strings which are equal
+     * in the case-insensitive collation of the UNIQUE columns term.lemma and
+     * page.page_title have the same key (case and trailing spaces are ignored).
+     */
+    static String getKey(String s) {
+        int len = s.length();
+        while(len > 0 && ' ' == s.charAt(len - 1))
+            len --;
+
+        StringBuilder sb = new StringBuilder(len);
+        for(int i=0; i<len; i++)
+            sb.append(Character.toLowerCase(Character.toUpperCase(s.charAt(i))));
+        return sb.toString();
+    }
+
+    /** Gets shard by the high bits of the mixed hash,
+     * the low bits of hash are used inside the shard. */
+    private Shard getShard(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return shards[h >>> (32 - 6)];     // N_SHARDS = 2^6
+    }
+
+
+    /** Loads existing terms (with frequencies) and titles of pages
+     * from the idf database, so the new data continue the tables.
+     * Pages which are stored already will be skipped by addPage().
+     *
+     *  SQL:
+     *  SELECT term_id,lemma,doc_freq,corpus_freq FROM term;
+     *  SELECT page_title FROM page;
+     */
+    public void load(java.sql.Connection conn) {
+        Statement   s = null;
+        ResultSet   rs= null;
+        String      str_sql = "";
+        try {
+            s = conn.createStatement ();
+
+            str_sql = "SELECT term_id,lemma,doc_freq,corpus_freq FROM term";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ()) {
+                String lemma = rs.getString("lemma");
+                String key = getKey(lemma);
+                Shard sh = getShard(key);
+                synchronized(sh) {
+                    int slot = sh.getOrAdd(key, lemma);
+                    sh.term_id    [slot] = rs.getInt("term_id");
+                    sh.doc_freq   [slot] = rs.getInt("doc_freq");
+                    sh.corpus_freq[slot] = rs.getInt("corpus_freq");
+                }
+            }
+            rs.close();
+
+            str_sql = "SELECT page_title FROM page";
+            rs = s.executeQuery (str_sql);
+            while (rs.next ()) {
+                page_keys.add(getKey(rs.getString("page_title")));
+            }
+        } catch(SQLException ex) {
+            System.err.println("SQLException (wikidf TermAccumulator.java load()):: sql='" + str_sql + "' " + ex.getMessage());
+        } finally {
+            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
+            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+        }
+    }
+
+
+    /** Adds lemmas of the wiki-document titled page_title:
+     * increments doc_freq (+1) and corpus_freq (+term frequency) of each lemma,
+     * remembers term frequency in the document if doc_freq &lt;= doc_freq_max.
+     * Lemmas with the same key (e.g. "Shoe" and "SHOE") are counted as one term.
+     * It can be called from several threads.
+     *
+     *  @param lemma_tf     map from lemma to term frequency (in document)
+     *  @return false if the page is stored already or lemma_tf is empty
+     */
+    public boolean addPage(String page_title, Map<String, Integer> lemma_tf) {
+
+        if(null == lemma_tf || 0 == lemma_tf.size())
+            return false;
+
+        String safe_title = StringUtil.spaceToUnderscore(page_title);
+        if(!page_keys.add(getKey(safe_title)))
+            return false;
+
+        // count number of words in the article, join lemmas with the same key
+        int word_count = 0;
+        Map<String, String>  key_lemma = new HashMap<String, String>();
+        Map<String, Integer> key_tf    = new HashMap<String, Integer>();
+        for(String lemma:lemma_tf.keySet()) {
+            int tf = lemma_tf.get(lemma);
+            word_count += tf;
+
+            if (lemma.length() > Term.LEMMA_LEN_WARNING) {
+                System.out.println("Warning: wikidf.TermAccumulator.addPage() page_title="+
+                        page_title + " has very long ("+lemma.length()+" characters) lemma="+lemma);
+                if (lemma.length() > Term.LEMMA_LEN_MAX) {
+                    continue;
+                }
+            }
+            String key = getKey(lemma);
+            Integer prev_tf = key_tf.get(key);
+            if(null == prev_tf) {
+                key_lemma.put(key, lemma);
+                key_tf.put(key, tf);
+            } else {
+                key_tf.put(key, prev_tf + tf);
+            }
+        }
+
+        List<String> keys  = new ArrayList<String>();
+        IntList term_freqs = new IntList();
+        for(String key:key_tf.keySet()) {
+            int tf = key_tf.get(key);
+            int doc_freq;
+
+            Shard sh = getShard(key);
+            synchronized(sh) {
+                int slot = sh.getOrAdd(key, key_lemma.get(key));
+                doc_freq = ++ sh.doc_freq[slot];
+                sh.corpus_freq   [slot] += tf;
+                sh.new_doc_freq   [slot] ++;
+                sh.new_corpus_freq[slot] += tf;
+            }
+            if(doc_freq <= doc_freq_max) {
+                keys.add(key);
+                term_freqs.add(tf);
+            }
+        }
+
+        synchronized(buffer_lock) {
+            int page_index = new_page_title.size();
+            new_page_title.add(safe_title);
+            new_page_words.add(word_count);
+            for(int i=0; i<keys.size(); i++) {
+                tp_lemma_key. add(keys.get(i));
+                tp_page_index.add(page_index);
+                tp_term_freq. add(term_freqs.data[i]);
+            }
+        }
+        return true;
+    }
+
+
+    /** Counts rows of term_page which are not written to the database. */
+    public int countUnflushedTermPages() {
+        synchronized(buffer_lock) {
+            return tp_term_freq.size;
+        }
+    }
+
+    /** Gets term identifier in the table term, 0 if the term is absent
+     * or it is not flushed yet. */
+    public int getTermID(String lemma) {
+        String key = getKey(lemma);
+        Shard sh = getShard(key);
+        synchronized(sh) {
+            int slot = sh.find(key);
+            return slot < 0 ? 0 : sh.term_id[slot];
+        }
+    }
+
+    /** Gets number of documents which contain the term, 0 if it is absent. */
+    public int getDocFreq(String lemma) {
+        String key = getKey(lemma);
+        Shard sh = getShard(key);
+        synchronized(sh) {
+            int slot = sh.find(key);
+            return slot < 0 ? 0 : sh.doc_freq[slot];
+        }
+    }
+
+    /** Gets the frequency of the term in the corpus, 0 if it is absent. */
+    public int getCorpusFreq(String lemma) {
+        String key = getKey(lemma);
+        Shard sh = getShard(key);
+        synchronized(sh) {
+            int slot = sh.find(key);
+            return slot < 0 ? 0 : sh.corpus_freq[slot];
+        }
+    }
+
+
+    /** Writes data to the database if there are a lot of data in memory. */
+    public void flushIfFull(java.sql.Connection conn) {
+        if(countUnflushedTermPages() >= FLUSH_POSTINGS)
+            flush(conn);
+    }
+
+    /** Writes new pages, changed terms and new term_page rows to the database.
+     * Frequencies of terms counted since the last flush are added to the
+     * stored values, identifiers of new pages and terms are selected
+     * from the database, term_page rows which refer to pages or terms
+     * failed to be inserted are skipped.<br><br>
+     *
+     * SQL example:
+     * INSERT INTO page (page_title,word_count) VALUES ("apple",222),("pear",10)
+     *      ON DUPLICATE KEY UPDATE page_id=page_id;
+     * SELECT page_id,page_title FROM page WHERE page_title IN ("apple","pear");
+     * INSERT INTO term (lemma,doc_freq,corpus_freq) VALUES ("apple",5,23),...
+     *      ON DUPLICATE KEY UPDATE doc_freq=doc_freq+VALUES(doc_freq),corpus_freq=corpus_freq+VALUES(corpus_freq);
+     * SELECT term_id,lemma FROM term WHERE lemma IN ("apple",...);
+     * INSERT INTO term_page (term_id,page_id,term_freq) VALUES (1,1,7),...
+     *      ON DUPLICATE KEY UPDATE term_freq=term_freq+VALUES(term_freq);
+     */
+    public void flush(java.sql.Connection conn) {
+        synchronized(flush_lock) {
+            IntList      page_words, page_index, term_freq;
+            List<String> page_title, lemma_key;
+            synchronized(buffer_lock) {
+                page_title = new_page_title;   new_page_title = new ArrayList<String>();
+                page_words = new_page_words;   new_page_words = new IntList();
+                lemma_key  = tp_lemma_key;     tp_lemma_key   = new ArrayList<String>();
+                page_index = tp_page_index;    tp_page_index  = new IntList();
+                term_freq  = tp_term_freq;     tp_term_freq   = new IntList();
+            }
+
+            // 1. pages, then their identifiers
+            List<String> rows = new ArrayList<String>(page_title.size());
+            for(int i=0; i<page_title.size(); i++)
+                rows.add("(\"" + StringUtil.escapeChars(page_title.get(i)) + "\"," + page_words.data[i] + ")");
+            insertRows(conn, "INSERT INTO page (page_title,word_count) VALUES ", rows,
+                       " ON DUPLICATE KEY UPDATE page_id=page_id");
+
+            Map<String, Integer> page_key_to_id = selectIDs(conn, "page", "page_id", "page_title", page_title);
+            int[] page_id = new int[page_title.size()];
+            for(int i=0; i<page_title.size(); i++) {
+                Integer id = page_key_to_id.get(getKey(page_title.get(i)));
+                if(null == id)
+                    System.err.println("Error in wikidf TermAccumulator.flush(): the page is not stored, page_title=" + page_title.get(i));
+                page_id[i] = null == id ? 0 : id;
+            }
+
+            // 2. terms changed since the last flush: add new frequencies
+            rows.clear();
+            List<String> new_lemmas = new ArrayList<String>();
+            for(Shard sh : shards) {
+                synchronized(sh) {
+                    for(int slot=0; slot<sh.keys.length; slot++) {
+                        if(null == sh.keys[slot] || 0 == sh.new_doc_freq[slot])
+                            continue;
+
+                        rows.add("(\"" + StringUtil.escapeChars(sh.lemmas[slot]) + "\"," +
+                                 sh.new_doc_freq[slot] + "," + sh.new_corpus_freq[slot] + ")");
+                        sh.new_doc_freq   [slot] = 0;
+                        sh.new_corpus_freq[slot] = 0;
+                        if(0 == sh.term_id[slot])
+                            new_lemmas.add(sh.lemmas[slot]);
+                    }
+                }
+            }
+            insertRows(conn, "INSERT INTO term (lemma,doc_freq,corpus_freq) VALUES ", rows,
+                       " ON DUPLICATE KEY UPDATE doc_freq=doc_freq+VALUES(doc_freq),corpus_freq=corpus_freq+VALUES(corpus_freq)");
+
+            Map<String, Integer> term_key_to_id = selectIDs(conn, "term", "term_id", "lemma", new_lemmas);
+            for(String key : term_key_to_id.keySet()) {
+                Shard sh = getShard(key);
+                synchronized(sh) {
+                    int slot = sh.find(key);
+                    if(slot >= 0)
+                        sh.term_id[slot] = term_key_to_id.get(key);
+                }
+            }
+
+            // 3. term_page, only rows with stored term and page
+            rows.clear();
+            int n_skipped = 0;
+            for(int i=0; i<term_freq.size; i++) {
+                int t_id = getTermIDByKey(lemma_key.get(i));
+                int p_id = page_id[page_index.data[i]];
+                if(0 == t_id || 0 == p_id) {
+                    n_skipped ++;
+                    continue;
+                }
+                rows.add("(" + t_id + "," + p_id + "," + term_freq.data[i] + ")");
+            }
+            if(n_skipped > 0)
+                System.err.println("Error in wikidf TermAccumulator.flush(): " + n_skipped +
+                        " term_page rows are skipped, since terms or pages are not stored.");
+            insertRows(conn, "INSERT INTO term_page (term_id,page_id,term_freq) VALUES ", rows,
+                       " ON DUPLICATE KEY UPDATE term_freq=term_freq+VALUES(term_freq)");
+        }
+    }
+
+    /** Gets term identifier by the key of lemma, 0 if it is absent. */
+    private int getTermIDByKey(String key) {
+        Shard sh = getShard(key);
+        synchronized(sh) {
+            int slot = sh.find(key);
+            return slot < 0 ? 0 : sh.term_id[slot];
+        }
+    }
+
+    /** Inserts rows by multi-row statements (ROWS_PER_INSERT rows in one):
+     * prefix + "(row 1),(row 2),..." + suffix. If the multi-row statement fails,
+     * then its rows are inserted one by one, so only bad rows are lost.
+     */
+    private static void insertRows(java.sql.Connection conn, String prefix,
+                                   List<String> rows, String suffix) {
+        StringBuilder sb = new StringBuilder();
+        for(int from=0; from<rows.size(); from += ROWS_PER_INSERT) {
+            int to = Math.min(rows.size(), from + ROWS_PER_INSERT);
+
+            sb.setLength(0);
+            sb.append(prefix);
+            for(int i=from; i<to; i++) {
+                if(i > from)
+                    sb.append(",");
+                sb.append(rows.get(i));
+            }
+            sb.append(suffix);
+            if(executeUpdate(conn, sb.toString()) || 1 == to - from)
+                continue;
+
+            System.err.println("Warning in wikidf TermAccumulator.flush(): multi-row insert failed, rows are inserted one by one.");
+            for(int i=from; i<to; i++)
+                executeUpdate(conn, prefix + rows.get(i) + suffix);
+        }
+    }
+
+    /** Executes the statement.
+     * @return false if SQLException was thrown */
+    private static boolean executeUpdate(java.sql.Connection conn, String str_sql) {
+        Statement   s = null;
+        try {
+            s = conn.createStatement ();
+            s.executeUpdate (str_sql);
+            return true;
+        } catch(SQLException ex) {
+            String sql = str_sql.length() > 200 ? str_sql.substring(0, 200) + "..." : str_sql;
+            System.err.println("SQLException (wikidf TermAccumulator.java flush()):: sql='" + sql + "' " + ex.getMessage());
+            return false;
+        } finally {
+            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+        }
+    }
+
+    /** Selects identifiers of the rows by the values of the UNIQUE column.<br><br>
+     *
+     * SQL example:
+     * SELECT page_id,page_title FROM page WHERE page_title IN ("apple","pear");
+     *
+     * @return map from the key (see getKey()) of the value to the identifier
+     */
+    private static Map<String, Integer> selectIDs(java.sql.Connection conn,
+                            String table, String id_column, String column,
+                            List<String> values) {
+        Map<String, Integer> result = new HashMap<String, Integer>(values.size() * 2);
+        Statement   s = null;
+        ResultSet   rs= null;
+        StringBuilder sb = new StringBuilder();
+        try {
+            s = conn.createStatement ();
+            for(int from=0; from<values.size(); from += ROWS_PER_INSERT) {
+                int to = Math.min(values.size(), from + ROWS_PER_INSERT);
+
+                sb.setLength(0);
+                sb.append("SELECT ").append(id_column).append(",").append(column);
+                sb.append(" FROM ").append(table).append(" WHERE ").append(column).append(" IN (");
+                for(int i=from; i<to; i++) {
+                    sb.append(i > from ? ",\"" : "\"");
+                    sb.append(StringUtil.escapeChars(values.get(i))).append("\"");
+                }
+                sb.append(")");
+
+                rs = s.executeQuery (sb.toString());
+                while (rs.next ())
+                    result.put(getKey(rs.getString(column)), rs.getInt(id_column));
+                rs.close();
+                rs = null;
+            }
+        } catch(SQLException ex) {
+            String sql = sb.length() > 200 ? sb.substring(0, 200) + "..." : sb.toString();
+            System.err.println("SQLException (wikidf TermAccumulator.java selectIDs()):: sql='" + sql + "' " + ex.getMessage());
+        } finally {
+            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
+            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+        }
+        return result;
+    }
+
+
+    /** Part of the term dictionary: open addressing map from the key of lemma
+     * to slot, the values are stored in arrays by slot.
+     * new_doc_freq and new_corpus_freq are not flushed parts of
+     * doc_freq and corpus_freq, term_id is 0 until it is selected from the database.
+     */
+    private static class Shard {
+        String[]  keys            = new String[64];
+        String[]  lemmas          = new String[64];
+        int[]     term_id         = new int[64];
+        int[]     doc_freq        = new int[64];
+        int[]     corpus_freq     = new int[64];
+        int[]     new_doc_freq    = new int[64];
+        int[]     new_corpus_freq = new int[64];
+        int       size            = 0;
+
+        /** Gets slot of the key, -1 if it is absent. */
+        int find(String key) {
+            int mask = keys.length - 1;
+            for(int slot = key.hashCode() & mask; ; slot = (slot + 1) & mask) {
+                if(null == keys[slot])
+                    return -1;
+                if(keys[slot].equals(key))
+                    return slot;
+            }
+        }
+
+        /** Gets slot of the key, adds the key with the lemma
+         * (and zero frequencies) if it is absent. */
+        int getOrAdd(String key, String lemma) {
+            if(2 * (size + 1) > keys.length)
+                rehash(keys.length * 2);
+
+            int mask = keys.length - 1;
+            int slot = key.hashCode() & mask;
+            while(null != keys[slot]) {
+                if(keys[slot].equals(key))
+                    return slot;
+                slot = (slot + 1) & mask;
+            }
+            keys  [slot] = key;
+            lemmas[slot] = lemma;
+            size ++;
+            return slot;
+        }
+
+        private void rehash(int capacity) {
+            String[]  old_keys   = keys;
+            String[]  old_lemmas = lemmas;
+            int[]     old_id     = term_id;
+            int[]     old_df     = doc_freq;
+            int[]     old_cf     = corpus_freq;
+            int[]     old_new_df = new_doc_freq;
+            int[]     old_new_cf = new_corpus_freq;
+
+            keys            = new String[capacity];
+            lemmas          = new String[capacity];
+            term_id         = new int   [capacity];
+            doc_freq        = new int   [capacity];
+            corpus_freq     = new int   [capacity];
+            new_doc_freq    = new int   [capacity];
+            new_corpus_freq = new int   [capacity];
+
+            int mask = capacity - 1;
+            for(int i=0; i<old_keys.length; i++) {
+                if(null == old_keys[i])
+                    continue;
+                int slot = old_keys[i].hashCode() & mask;
+                while(null != keys[slot])
+                    slot = (slot + 1) & mask;
+                keys           [slot] = old_keys  [i];
+                lemmas         [slot] = old_lemmas[i];
+                term_id        [slot] = old_id    [i];
+                doc_freq       [slot] = old_df    [i];
+                corpus_freq    [slot] = old_cf    [i];
+                new_doc_freq   [slot] = old_new_df[i];
+                new_corpus_freq[slot] = old_new_cf[i];
+            }
+        }
+    }
+
+    /** Growable array of int. */
+    private static class IntList {
+        int[] data = new int[16];
+        int   size = 0;
+
+        void add(int value) {
+            if(size == data.length)
+                data = Arrays.copyOf(data, size * 2);
+            data[size ++] = value;
+        }
+    }
+}
@@ -76,4 +76,39 @@ public class WikIDFAPI {
         
         return tp_list;
     }
+    
+    /** Gets all terms for the page titled page_title from the index file 
+     * (without SQL), see IDFIndex.
+     */
+    public static List<TermPage> getTerms (IDFIndex index, String page_title) {
+        return index.getTerms(page_title);
+    }
+    
+    /** Gets all terms for the page titled page_title from the index file, 
+     * terms are sorted by IDF: first are the most rare (in corpus) words.
+     */
+    public static List<TermPage> getTermsSortedByTF_IDF (IDFIndex index, String page_title) {
+        
+        List<TermPage> tp_list = index.getTerms(page_title);
+        if(tp_list.size() > 1) {
+            
+            TermPage.calcTF_IDF(tp_list, index.countPages());
+            Collections.sort(tp_list, TermPage.TF_IDF_ORDER);
+        }
+        
+        return tp_list;
+    }
+    
+    /** Gets all pages which contain the term (lemma) from the index file, 
+     * pages are sorted by TF (term frequency).
+     */
+    public static List<TermPage> getPages (IDFIndex index, String lemma) {
+        return index.getPages(lemma);
+    }
+    
+    /** Gets k pages with the highest TF-IDF for the lemmas from the index file.
+     */
+    public static List<TermPage> getTopPages (IDFIndex index, String[] lemmas, int k) {
+        return index.getTopPages(lemmas, k);
+    }
 }
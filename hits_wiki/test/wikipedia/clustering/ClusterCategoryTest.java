@@ -131,7 +131,7 @@ public class ClusterCategoryTest extends TestCase {
 
     public void testGetEdgeToCluster() {
         System.out.println("testGetEdgeToCluster");
-        Edge e_art_all = c_art.edges[0];
+        Edge e_art_all = c_art.getAdjacentEdges()[0];
         assertEquals(e_art_all, c_all.getEdgeToCluster(c_art));
     }
     
@@ -166,26 +166,22 @@ public class ClusterCategoryTest extends TestCase {
     public void testAddEdge() {
         System.out.println("testAddEdge");
 
+        // edges from c_art to others, c_art has the edge to c_all already
         Edge s0 = new Edge();
         Edge s1 = new Edge();
-        Edge s2 = new Edge();
-        Edge s_absent = new Edge();
-        
-        Edge[] source_edges = new Edge[3];
-        source_edges [0] = s0;
-        source_edges [1] = s1;
-        source_edges [2] = s2;
-        
-        ClusterCategory cc = new ClusterCategory();
-        
-        cc.addEdge(s0);
-        assertEquals(1, cc.edges.length);
-        
-        cc.addEdge(s1);
-        assertEquals(2, cc.edges.length);
-        
-        cc.addEdge(s2);
-        assertEquals(3, cc.edges.length);
+        Edge s_repeated = new Edge();
+        s0.init(4, 2, category_id_to_cluster);
+        s1.init(4, 3, category_id_to_cluster);
+        s_repeated.init(3, 4, category_id_to_cluster);
+        
+        assertEquals(3, c_art.getAdjacentEdges().length);
+        assertEquals(s0, c_art.getEdgeToCluster(c_religious));
+        assertEquals(s1, c_art.getEdgeToCluster(c_science));
+        
+        // the edge to already adjacent cluster is skipped
+        c_art.addEdge(s_repeated);
+        assertEquals(3, c_art.getAdjacentEdges().length);
+        assertEquals(s1, c_science.getEdgeToCluster(c_art));
     }
 }
 
@@ -0,0 +1,139 @@
+/*
+ * ClusterMergerTest.java
+ * JUnit based test
+ */
+
+package wikipedia.clustering;
+
+import junit.framework.*;
+import wikipedia.kleinberg.*;
+import java.util.*;
+
+public class ClusterMergerTest extends TestCase {
+
+    Map<Integer, Article>   articles;
+    Map<Integer, Category>  categories;
+
+    public ClusterMergerTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+        CreateCategoryArticleGraph c = new CreateCategoryArticleGraph ();
+        articles    = c.articles;
+        categories  = c.categories;
+        CategorySet.fillLinksFromCategoryToArticles(articles, categories);
+    }
+
+    protected void tearDown() throws Exception {
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(ClusterMergerTest.class);
+        return suite;
+    }
+
+    private ClusterMerger createMerger(Map<Integer, Category> categories) {
+        List<ClusterCategory> clusters = Preprocessing.createInitialClusters (articles, categories);
+        List<Edge>            edges    = Preprocessing.createEdgesBetweenClusters (clusters, categories);
+        return new ClusterMerger(clusters, edges);
+    }
+
+    /** Creates random graph of categories, category i refers to n_articles[i] articles. */
+    private static Map<Integer, Category> createRandomCategories(Random r, int n, int n_links) {
+        Map<Integer, Category> m = new HashMap<Integer, Category>();
+        for(int i=0; i<n; i++) {
+            Category c = new Category();
+            c.page_id    = i;
+            c.page_title = "C" + i;
+            c.id_articles = new int[r.nextInt(4)];
+            c.links_out = new int[r.nextInt(n_links)];
+            for(int j=0; j<c.links_out.length; j++)
+                c.links_out[j] = r.nextInt(n);
+            m.put(i, c);
+        }
+        return m;
+    }
+
+    /** The merging by the linear search of the lightest edge. */
+    private static List<ClusterCategory> mergeSlow(List<ClusterCategory> clusters,
+                                                   List<Edge> edges, int max_cluster_weight) {
+        clusters = new ArrayList<ClusterCategory>(clusters);
+        edges    = new ArrayList<Edge>(edges);
+        while(0 < edges.size()) {
+            Edge e = edges.get(0);
+            for(Edge a : edges)
+                if(a.lessThan(e))
+                    e = a;
+            if(max_cluster_weight < e.getWeight())
+                break;
+            Cluster c2 = e.getVertex2();
+            edges.removeAll(e.Merge());
+            clusters.remove(c2);
+        }
+        return clusters;
+    }
+
+    public void testMerge() {
+        System.out.println("testMerge");
+        ClusterMerger m = createMerger(categories);
+        assertEquals(3, m.countEdges());
+
+        // weights: All=2, Religious=3, Science=4, Art=3, see CreateCategoryArticleGraph
+        assertEquals(1, m.merge(5));            // All + Religious (or Art)
+        assertEquals(3, m.getClusters().size());
+        assertEquals(2, m.countEdges());
+
+        assertEquals(0, m.merge(7));            // 5 + 3 = 8, 5 + 4 = 9
+        assertEquals(2, m.merge(12));
+        assertEquals(1, m.getClusters().size());
+        assertEquals(0, m.countEdges());
+        assertEquals(12, m.getClusters().get(0).weight);
+    }
+
+    public void testGetCluster() {
+        System.out.println("testGetCluster");
+        ClusterMerger m = createMerger(categories);
+        ClusterCategory c_all = m.getCluster(1);
+        ClusterCategory c_art = m.getCluster(4);
+        assertNotSame(c_all, c_art);
+        assertNull(m.getCluster(777));
+
+        m.merge(8);
+        assertEquals(2, m.getClusters().size());
+        assertSame(c_all, m.getCluster(1));
+        assertSame(c_all, m.getCluster(2));
+        assertSame(c_all, m.getCluster(4));
+        assertNotSame(c_all, m.getCluster(3));
+        assertEquals(1, c_all.getClusterNumber());
+    }
+
+    /** Compares clusters with the clusters by the linear search of the lightest edge. */
+    public void testMerge_random() {
+        System.out.println("testMerge_random");
+        Random r = new Random(11);
+        for(int test=0; test<20; test++) {
+            int n = 50 + r.nextInt(300);
+            Map<Integer, Category> random_categories = createRandomCategories(r, n, 5);
+            int max_cluster_weight = 5 + r.nextInt(40);
+
+            List<ClusterCategory> clusters = Preprocessing.createInitialClusters (articles, random_categories);
+            List<Edge>            edges    = Preprocessing.createEdgesBetweenClusters (clusters, random_categories);
+            List<ClusterCategory> slow     = mergeSlow(clusters, edges, max_cluster_weight);
+
+            clusters = Preprocessing.createInitialClusters (articles, random_categories);
+            edges    = Preprocessing.createEdgesBetweenClusters (clusters, random_categories);
+            ClusterMerger m = new ClusterMerger(clusters, edges);
+            m.merge(max_cluster_weight);
+            List<ClusterCategory> fast = m.getClusters();
+
+            assertEquals(slow.size(), fast.size());
+            for(int i=0; i<slow.size(); i++) {
+                assertTrue(Arrays.equals(slow.get(i).categories_id, fast.get(i).categories_id));
+                assertEquals(slow.get(i).weight, fast.get(i).weight);
+                for(int id : fast.get(i).categories_id)
+                    assertSame(fast.get(i), m.getCluster(id));
+            }
+        }
+    }
+}
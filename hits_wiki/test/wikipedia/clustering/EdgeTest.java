@@ -58,13 +58,13 @@ public class EdgeTest extends TestCase {
         System.out.println("testInit");
         
         // init() done in this.setUp() in function Preprocessing.createEdgesBetweenClusters()
-        assertTrue(1 == c_art.edges.length);
-        Edge e_art_all = c_art.edges[0];
+        assertTrue(1 == c_art.getAdjacentEdges().length);
+        Edge e_art_all = c_art.getAdjacentEdges()[0];
         assertTrue(e_art_all.containsVertex(c_art));
         assertTrue(e_art_all.containsVertex(c_all));
         assertTrue(5 == e_art_all.getWeight());
-        assertTrue(Arrays.asList(c_art.edges).contains(e_art_all));
-        assertTrue(Arrays.asList(c_all.edges).contains(e_art_all));
+        assertTrue(Arrays.asList(c_art.getAdjacentEdges()).contains(e_art_all));
+        assertTrue(Arrays.asList(c_all.getAdjacentEdges()).contains(e_art_all));
     }
 
     /**
@@ -74,7 +74,7 @@ public class EdgeTest extends TestCase {
         System.out.println("testUpdateWeight");
         c_all.weight = 5;
         c_art.weight = 7;
-        Edge e_art_all = c_art.edges[0];
+        Edge e_art_all = c_art.getAdjacentEdges()[0];
         e_art_all.updateWeight();
         assertEquals(12, e_art_all.getWeight());
     }
@@ -84,7 +84,7 @@ public class EdgeTest extends TestCase {
      */
     public void testContainsVertices() {
         System.out.println("testContainsVertices");
-        Edge e_art_all = c_art.edges[0];
+        Edge e_art_all = c_art.getAdjacentEdges()[0];
         
         List<Cluster> clusters_art_all = new ArrayList<Cluster>();
         clusters_art_all.add(c_all);
@@ -98,34 +98,34 @@ public class EdgeTest extends TestCase {
     public void testMerge() {
         System.out.println("testMerge");
         
-        Edge e_science_all  = c_science.edges[0];
-        Edge e_art_all      = c_art.edges[0];
+        Edge e_science_all  = c_science.getAdjacentEdges()[0];
+        Edge e_art_all      = c_art.getAdjacentEdges()[0];
         
         Cluster science_all = e_science_all.getVertex1();
         
         // preconditions
-        assertEquals(3, science_all.edges.length);
+        assertEquals(3, science_all.getAdjacentEdges().length);
         
         e_science_all.Merge();
         // check
         // *) Add all edges adjacent to c (with check: skip edge's repetition), update edges[].c1 and c2
-        assertEquals(2, science_all.edges.length);
+        assertEquals(2, science_all.getAdjacentEdges().length);
         
         // *) Update weight of all edges adjacent to c1
         assertEquals(6, science_all.weight);
-        assertEquals(9, c_religious.edges[0].getWeight());
-        assertEquals(9, c_art.edges[0].getWeight());
+        assertEquals(9, c_religious.getAdjacentEdges()[0].getWeight());
+        assertEquals(9, c_art.getAdjacentEdges()[0].getWeight());
         
         Cluster science_all_art = e_art_all.getVertex1();
         e_art_all.Merge();
         // *) Add all edges adjacent to c (with check: skip edge's repetition), update edges[].c1 and c2
-        assertEquals(1, science_all_art.edges.length);
+        assertEquals(1, science_all_art.getAdjacentEdges().length);
         
         // *) Update weight of all edges adjacent to c1
         assertEquals(9, science_all_art.weight);
-        assertEquals(12, c_religious.edges[0].getWeight());
+        assertEquals(12, c_religious.getAdjacentEdges()[0].getWeight());
         
-        assertTrue(c_religious.edges[0].containsVertex(science_all_art));
+        assertTrue(c_religious.getAdjacentEdges()[0].containsVertex(science_all_art));
     }
 
     /**
@@ -134,7 +134,7 @@ public class EdgeTest extends TestCase {
     public void testReplaceVertex() {
         System.out.println("testReplaceVertex");
         
-        Edge e_art_all = c_art.edges[0];
+        Edge e_art_all = c_art.getAdjacentEdges()[0];
         List<Cluster> clusters_art_all = new ArrayList<Cluster>();
         clusters_art_all.add(c_all);
         clusters_art_all.add(c_art);
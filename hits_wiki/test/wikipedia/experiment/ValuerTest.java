@@ -15,7 +15,7 @@ import wikipedia.util.StringUtil;
 import java.text.DateFormat;
 import java.util.Locale;
 import java.util.Date;
-//import java.util.List;
+import java.util.List;
 //import java.util.ArrayList;
 //import java.util.Map;
 //import java.util.HashMap;
@@ -217,4 +217,44 @@ public class ValuerTest extends TestCase {
         dump.file.Flush();  
     }
     
+    
+    /**
+     * Evaluates the grid of AHITS parameters on WordSim353 in parallel,
+     * see WordSimEvaluator. Results are written to 
+     * ~/.synarcher/test_kleinberg/en/wordsim353_*.csv
+     */
+    public void testEvaluateGrid() throws Exception {
+        System.out.println("evaluateGrid");
+        
+        WordSimEvaluator evaluator = new WordSimEvaluator(new WordSimEvaluator.SessionFactory() {
+            public SessionHolder newSession() {
+                Connect c = new Connect();
+                c.Open(Connect.WP_HOST, Connect.WP_DB, Connect.WP_USER, Connect.WP_PASS);
+                SessionHolder s = new SessionHolder();
+                s.initObjects();
+                s.Init(c, s.category_black_list.en, 4);
+                s.skipTitlesWithSpaces(false);
+                s.dump = null;
+                return s;
+            }
+        }, 4);
+        
+        // easy test, see testCompareSynonyms()
+        List<WordSimEvaluator.Params> grid = WordSimEvaluator.grid(
+                new int[] {3}, new int[] {1}, new int[] {10}, 
+                new int[] {4}, new float[] {0.01f, 0.001f});
+        
+        WordSim353 wordsim353 = new WordSim353();
+        List<WordSim> pairs = wordsim353.data.subList(0, 8);
+        try {
+            List<WordSimEvaluator.Result> results = evaluator.evaluate(pairs, grid);
+            assertEquals(grid.size(), results.size());
+            
+            String directory = System.getProperty("user.home") + "/.synarcher/test_kleinberg/en/";
+            WordSimEvaluator.writeSummaryCSV(directory + "wordsim353_summary.csv", results);
+            WordSimEvaluator.writePairsCSV  (directory + "wordsim353_pairs.csv",   results);
+        } finally {
+            evaluator.shutdown();
+        }
+    }
 }
@@ -0,0 +1,154 @@
+package wikipedia.experiment;
+
+import wikipedia.kleinberg.SessionHolder;
+
+import junit.framework.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class WordSimEvaluatorTest extends TestCase {
+    
+    /** Synonyms are taken from the map instead of AHITS calculation. */
+    static class FakeEvaluator extends WordSimEvaluator {
+        Map<String, String[]>   dict = new HashMap<String, String[]>();
+        AtomicInteger           calls = new AtomicInteger();
+        
+        FakeEvaluator() {
+            super(new SessionFactory() {
+                public SessionHolder newSession() {
+                    return null;
+                }
+            }, 4);
+        }
+        
+        protected String[] calcSynonyms(String word, Params p) {
+            calls.incrementAndGet();
+            String[] s = dict.get(word);
+            if(null == s || p.n_synonyms >= s.length)
+                return s;
+            return Arrays.copyOf(s, p.n_synonyms);
+        }
+    }
+    
+    FakeEvaluator evaluator;
+    List<WordSim> pairs;
+    
+    public WordSimEvaluatorTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+        evaluator = new FakeEvaluator();
+        evaluator.dict.put("Tiger", new String[] {"Cat", "Lion", "Jaguar", "Zoo"});
+        evaluator.dict.put("Cat",   new String[] {"Cat", "Lion", "Jaguar", "Dog"});
+        evaluator.dict.put("Car",   new String[] {"Jaguar", "Wheel", "Road", "Lion"});
+        evaluator.dict.put("Stock", new String[] {"Market", "Share", "Bond", "Fund"});
+        
+        pairs = new ArrayList<WordSim>();
+        pairs.add(new WordSim("tiger", "cat",   7.35f));
+        pairs.add(new WordSim("tiger", "car",   2.00f));
+        pairs.add(new WordSim("tiger", "stock", 0.50f));
+        pairs.add(new WordSim("cat",   "car",   1.00f));
+        pairs.add(new WordSim("tiger", "absent",5.00f));
+    }
+
+    protected void tearDown() throws Exception {
+        evaluator.shutdown();
+    }
+    
+    public void testCalcSpearmanRho() {
+        System.out.println("calcSpearmanRho");
+        double[] a = {1, 2, 3, 4, 5};
+        
+        assertEquals( 1.0, MetricSpearman.calcSpearmanRho(a, new double[] {10, 20, 30, 40, 50}), 1e-9);
+        assertEquals(-1.0, MetricSpearman.calcSpearmanRho(a, new double[] {5, 4, 3, 2, 1}), 1e-9);
+        
+        // monotonic but not linear
+        assertEquals( 1.0, MetricSpearman.calcSpearmanRho(a, new double[] {1, 8, 27, 64, 125}), 1e-9);
+        
+        // ties get average ranks: ranks of b are 1, 2.5, 2.5, 4, 5
+        double rho = MetricSpearman.calcSpearmanRho(a, new double[] {1, 2, 2, 3, 4});
+        assertEquals(9.5 / Math.sqrt(10 * 9.5), rho, 1e-9);
+        
+        assertEquals(0.0, MetricSpearman.calcSpearmanRho(a, new double[] {3, 3, 3, 3, 3}), 1e-9);
+    }
+    
+    public void testEvaluate_grid() throws InterruptedException, ExecutionException {
+        System.out.println("evaluate_grid");
+        List<WordSimEvaluator.Params> grid = WordSimEvaluator.grid(
+                new int[] {3}, new int[] {1}, new int[] {2, 4}, new int[] {4}, new float[] {0.01f, 0.001f});
+        assertEquals(4, grid.size());
+        
+        List<WordSimEvaluator.Result> results = evaluator.evaluate(pairs, grid);
+        assertEquals(4, results.size());
+        
+        // 5 different words for 4 sets of parameters are calculated once
+        assertEquals(20, evaluator.calls.get());
+        assertEquals(20, evaluator.getCachedSynonymsCount());
+        
+        WordSimEvaluator.Result r = results.get(2);   // n_synonyms=4, eps=0.01
+        assertEquals(4, r.params.n_synonyms);
+        assertEquals(1, r.absent);
+        assertEquals(-1.0, r.similarity[4]);
+        assertEquals(1.0,  r.similarity[0], 1e-9);   // the same order of common words
+        assertEquals(0.0,  r.similarity[2], 1e-9);   // no common words
+        assertEquals(MetricSpearman.calcSpearmanFootrule(
+                evaluator.getSynonyms("tiger", r.params),
+                evaluator.getSynonyms("car",   r.params)), r.similarity[1], 1e-9);
+        
+        double[] human = {7.35, 2.00, 0.50, 1.00};
+        double[] ahits = {r.similarity[0], r.similarity[1], r.similarity[2], r.similarity[3]};
+        assertEquals(MetricSpearman.calcSpearmanRho(human, ahits), r.rho, 1e-9);
+        
+        // the cache answers the second evaluation
+        evaluator.evaluate(pairs, grid.get(0));
+        assertEquals(20, evaluator.calls.get());
+    }
+    
+    public void testWriteCSV() throws Exception {
+        System.out.println("writeCSV");
+        List<WordSimEvaluator.Result> results = evaluator.evaluate(pairs,
+                WordSimEvaluator.grid(new int[] {3}, new int[] {1}, new int[] {4}, new int[] {4}, new float[] {0.01f}));
+        
+        File summary = File.createTempFile("wordsim_summary", ".csv");
+        File all     = File.createTempFile("wordsim_pairs", ".csv");
+        try {
+            WordSimEvaluator.writeSummaryCSV(summary.getPath(), results);
+            WordSimEvaluator.writePairsCSV  (all.getPath(),     results);
+            
+            List<String> lines = readLines(summary);
+            assertEquals(2, lines.size());
+            assertEquals(WordSimEvaluator.CSV_PARAMS_HEADER + ",rho,pairs,absent", lines.get(0));
+            assertTrue(lines.get(1).startsWith("3,1,4,4,0.01,"));
+            assertTrue(lines.get(1).endsWith(",5,1"));
+            
+            lines = readLines(all);
+            assertEquals(1 + pairs.size(), lines.size());
+            assertEquals("3,1,4,4,0.01,tiger,cat,7.35,1.0", lines.get(1));
+            assertEquals("3,1,4,4,0.01,tiger,absent,5.0,-1.0", lines.get(5));
+        } finally {
+            summary.delete();
+            all.delete();
+        }
+        
+        assertEquals("a b",         WordSimEvaluator.quoteCSV("a b"));
+        assertEquals("\"a,\"\"b\"\"\"", WordSimEvaluator.quoteCSV("a,\"b\""));
+    }
+    
+    private static List<String> readLines(File f) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader r = new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8"));
+        try {
+            String line;
+            while(null != (line = r.readLine()))
+                lines.add(line);
+        } finally {
+            r.close();
+        }
+        return lines;
+    }
+}
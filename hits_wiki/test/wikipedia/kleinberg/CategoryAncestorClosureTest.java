@@ -0,0 +1,106 @@
+/*
+ * CategoryAncestorClosureTest.java
+ * JUnit based test
+ */
+
+package wikipedia.kleinberg;
+
+import junit.framework.*;
+import java.util.*;
+
+public class CategoryAncestorClosureTest extends TestCase {
+
+    String[] cat_title   = {"Years", "1917", "Geography", "Rivers", "Volga", "Music", "Loop"};
+    int[]    cat_page_id = {1,       2,      3,           4,        5,       6,       7};
+
+    /** Links (child -> parent):
+     *  1917 -> Years;  Volga -> Rivers -> Geography;  Volga -> Music;
+     *  Loop -> Music -> Loop (cycle); article 100 -> Years is skipped.
+     */
+    int[]    cl_from = {2,       5,        4,           5,       7,       6,      100};
+    String[] cl_to   = {"Years", "Rivers", "Geography", "Music", "Music", "Loop", "Years"};
+
+    List<String> black_list = Arrays.asList(new String[] {"Years", "Geography"});
+
+    public CategoryAncestorClosureTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+    }
+
+    protected void tearDown() throws Exception {
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(CategoryAncestorClosureTest.class);
+        return suite;
+    }
+
+    public void testGetBlackAncestor() {
+        System.out.println("getBlackAncestor");
+        CategoryAncestorClosure c = CategoryAncestorClosure.create(
+                cat_title, cat_page_id, cl_from, cl_to, black_list, 5);
+
+        assertEquals("Years",     c.getBlackAncestor("Years"));
+        assertEquals("Years",     c.getBlackAncestor("1917"));
+        assertEquals("Geography", c.getBlackAncestor("Rivers"));
+        assertEquals("Geography", c.getBlackAncestor("Volga"));
+        assertNull(c.getBlackAncestor("Music"));
+        assertNull(c.getBlackAncestor("Loop"));
+        assertNull(c.getBlackAncestor("Absent"));
+    }
+
+    public void testGetBlackAncestor_depth() {
+        System.out.println("getBlackAncestor_depth");
+        CategoryAncestorClosure c = CategoryAncestorClosure.create(
+                cat_title, cat_page_id, cl_from, cl_to, black_list, 1);
+
+        assertEquals("Geography", c.getBlackAncestor("Rivers"));
+        assertNull(c.getBlackAncestor("Volga"));                // 2 steps
+
+        assertTrue (c.isBuiltFor(black_list, 1));
+        assertFalse(c.isBuiltFor(black_list, 2));
+    }
+
+    public void testGetParents() {
+        System.out.println("getParents");
+        CategoryAncestorClosure c = CategoryAncestorClosure.create(
+                cat_title, cat_page_id, cl_from, cl_to, black_list, 5);
+
+        int volga = c.getCategory("Volga");
+        assertEquals(5, c.getPageID(volga));
+        Set<String> parents = new HashSet<String>();
+        for(int p : c.getParents(volga))
+            parents.add(c.getTitle(p));
+        assertEquals(new HashSet<String>(Arrays.asList(new String[] {"Rivers", "Music"})), parents);
+        assertEquals(0, c.getParents(c.getCategory("Years")).length);
+    }
+
+    /** Bitmap of more than 64 blacklisted categories. */
+    public void testGetBlackAncestor_long_list() {
+        System.out.println("getBlackAncestor_long_list");
+        int n = 100;
+        String[] titles = new String[n];
+        int[]    ids    = new int[n];
+        int[]    from   = new int[n - 1];
+        String[] to     = new String[n - 1];
+        for(int i=0; i<n; i++) {
+            titles[i] = "C" + i;
+            ids[i]    = i + 1;
+        }
+        for(int i=0; i<n-1; i++) {          // C(i) -> C(i+1)
+            from[i] = i + 1;
+            to  [i] = "C" + (i + 1);
+        }
+        List<String> black = new ArrayList<String>();
+        for(int i=0; i<80; i++)
+            black.add("X" + i);
+        black.add("C99");
+
+        CategoryAncestorClosure c = CategoryAncestorClosure.create(titles, ids, from, to, black, 10);
+        assertEquals("C99", c.getBlackAncestor("C90"));
+        assertEquals("C99", c.getBlackAncestor("C89"));
+        assertNull(c.getBlackAncestor("C88"));
+    }
+}
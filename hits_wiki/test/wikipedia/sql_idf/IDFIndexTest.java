@@ -0,0 +1,135 @@
+
+package wikipedia.sql_idf;
+
+import junit.framework.*;
+import java.io.File;
+import java.util.*;
+
+public class IDFIndexTest extends TestCase {
+
+    File file;
+    IDFIndex index;
+
+    final int n_terms = 50;
+    final int n_pages = 200;
+
+    /** term_freq[term][page], 0 if there is no such row in term_page. */
+    int[][] term_freq;
+
+    public IDFIndexTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+        Random r = new Random(7);
+        term_freq = new int[n_terms][n_pages];
+
+        IDFIndex.Builder b = new IDFIndex.Builder();
+        for(int t=0; t<n_terms; t++) {
+            int doc_freq = 0;
+            for(int p=0; p<n_pages; p++) {
+                if(r.nextInt(n_terms) <= t) {           // the last terms are frequent
+                    term_freq[t][p] = 1 + r.nextInt(5);
+                    doc_freq ++;
+                }
+            }
+            b.addTerm(1000 + t, "LEMMA" + t, doc_freq);
+        }
+        for(int p=n_pages-1; p>=0; p--)
+            b.addPage(10 + p, "Page_" + p, 100 + p);
+        for(int t=0; t<n_terms; t++)
+            for(int p=0; p<n_pages; p++)
+                if(term_freq[t][p] > 0)
+                    b.addTermPage(1000 + t, 10 + p, term_freq[t][p]);
+
+        file = File.createTempFile("idf", ".idx");
+        b.write(file);
+        index = IDFIndex.open(file);
+    }
+
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(IDFIndexTest.class);
+        return suite;
+    }
+
+    public void testOpen() {
+        System.out.println("open");
+        assertNotNull(index);
+        assertEquals(n_terms, index.countTerms());
+        assertEquals(n_pages, index.countPages());
+        assertNull(index.getTerm("ABSENT"));
+        assertEquals(1007, index.getTerm("LEMMA7").getTermID());
+    }
+
+    public void testGetPages() {
+        System.out.println("getPages");
+        for(int t=0; t<n_terms; t++) {
+            List<TermPage> tp_list = index.getPages("LEMMA" + t);
+            int n = 0;
+            for(int p=0; p<n_pages; p++)
+                if(term_freq[t][p] > 0)
+                    n ++;
+            assertEquals(n, tp_list.size());
+
+            int prev_tf = Integer.MAX_VALUE;
+            for(TermPage tp : tp_list) {
+                int p = tp.getPageID() - 10;
+                assertEquals(term_freq[t][p], tp.getTermFreq());
+                assertEquals("Page_" + p, tp.getPageTitle());
+                assertEquals(100 + p, tp.getPageWordCount());
+                assertTrue(tp.getTermFreq() <= prev_tf);     // sorted by TF
+                prev_tf = tp.getTermFreq();
+            }
+        }
+        assertEquals(0, index.getPages("ABSENT").size());
+    }
+
+    public void testGetTerms() {
+        System.out.println("getTerms");
+        List<TermPage> tp_list = index.getTerms("Page_17");
+        int n = 0;
+        for(int t=0; t<n_terms; t++)
+            if(term_freq[t][17] > 0)
+                n ++;
+        assertEquals(n, tp_list.size());
+        for(TermPage tp : tp_list) {
+            int t = tp.getTermID() - 1000;
+            assertEquals("LEMMA" + t, tp.getTerm().getLemma());
+            assertEquals(term_freq[t][17], tp.getTermFreq());
+        }
+        assertEquals(0, index.getTerms("Absent_page").size());
+    }
+
+    /** Compares top-k pages with the scores calculated for all pages. */
+    public void testGetTopPages() {
+        System.out.println("getTopPages");
+        String[][] queries = {{"LEMMA3"}, {"LEMMA10", "LEMMA40"}, {"LEMMA1", "LEMMA25", "LEMMA49", "ABSENT"}};
+        int k = 5;
+        for(String[] q : queries) {
+            double[] score = new double[n_pages];
+            for(String lemma : q) {
+                Term term = index.getTerm(lemma);
+                if(null == term)
+                    continue;
+                int t = term.getTermID() - 1000;
+                double idf = Math.log((double)n_pages / term.getDocFreq());
+                for(int p=0; p<n_pages; p++)
+                    score[p] += term_freq[t][p] * idf;
+            }
+            double[] sorted = score.clone();
+            Arrays.sort(sorted);
+
+            List<TermPage> top = index.getTopPages(q, k);
+            assertEquals(k, top.size());
+            for(int i=0; i<k; i++) {
+                assertEquals(sorted[n_pages - 1 - i], top.get(i).getTF_IDF(), 1e-9);
+                assertEquals(score[top.get(i).getPageID() - 10], top.get(i).getTF_IDF(), 1e-9);
+            }
+        }
+        assertEquals(0, index.getTopPages(new String[] {"ABSENT"}, k).size());
+    }
+}
@@ -0,0 +1,74 @@
+
+package wikipedia.sql_idf;
+
+import junit.framework.*;
+import java.util.*;
+
+public class RelatedPageBatchTest extends TestCase {
+
+    public RelatedPageBatchTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+    }
+
+    protected void tearDown() throws Exception {
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(RelatedPageBatchTest.class);
+        return suite;
+    }
+
+    /** Pages with the same set of topic terms should be related. */
+    public void testGetRelatedTitles() {
+        System.out.println("getRelatedTitles");
+
+        // terms 1..3 - topic "cats", 4..6 - topic "cars", 7 - common term
+        int[][] page_terms = {
+            {1, 2, 3, 7},   // cats
+            {4, 5, 6, 7},   // cars
+            {1, 2, 7},      // cats
+            {4, 6, 7},      // cars
+            {2, 3},         // cats
+            {5, 6},         // cars
+        };
+        int np = page_terms.length;
+        int[] page_id = new int[np];
+        String[] titles = new String[np];
+        int[] start = new int[np + 1];
+        for(int p=0; p<np; p++) {
+            page_id[p] = 100 + p;
+            titles[p] = "Page_" + p;
+            start[p + 1] = start[p] + page_terms[p].length;
+        }
+        int[]   term = new int  [start[np]];
+        float[] tf   = new float[start[np]];
+        int[] doc_freq = new int[8];
+        for(int p=0; p<np; p++) {
+            for(int k=0; k<page_terms[p].length; k++) {
+                term[start[p] + k] = page_terms[p][k];
+                tf  [start[p] + k] = 1;
+                doc_freq[page_terms[p][k]] ++;
+            }
+        }
+        float[] idf = new float[8];
+        for(int t=1; t<8; t++)
+            idf[t] = (float)Math.log((double)(np + 1) / doc_freq[t]);
+
+        RelatedPageBatch batch = new RelatedPageBatch(2, 3);
+        batch.init(page_id, titles, idf, start, term, tf);
+        assertEquals(np, batch.countPages());
+
+        for(int p=0; p<np; p++) {
+            String[] related = batch.getRelatedTitles(p);
+            assertEquals(2, related.length);
+            for(String r : related) {
+                int q = Integer.parseInt(r.substring("Page_".length()));
+                assertTrue(q != p);
+                assertEquals(p % 2, q % 2);     // the same topic
+            }
+        }
+    }
+}
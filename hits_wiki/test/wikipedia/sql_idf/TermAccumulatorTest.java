@@ -0,0 +1,116 @@
+
+package wikipedia.sql_idf;
+
+import junit.framework.*;
+import java.util.*;
+
+public class TermAccumulatorTest extends TestCase {
+
+    public TermAccumulatorTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+    }
+
+    protected void tearDown() throws Exception {
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(TermAccumulatorTest.class);
+        return suite;
+    }
+
+    private static Map<String, Integer> createLemmaFreq(String[] lemmas, int[] freqs) {
+        Map<String, Integer> m = new HashMap<String, Integer>();
+        for(int i=0; i<lemmas.length; i++)
+            m.put(lemmas[i], freqs[i]);
+        return m;
+    }
+
+    /** Test of addPage, frequencies of terms. */
+    public void testAddPage_freq() {
+        System.out.println("addPage_freq");
+        TermAccumulator acc = new TermAccumulator(1000);
+
+        assertTrue(acc.addPage("page one", createLemmaFreq(
+                new String[] {"SHOE", "BRUSH"}, new int[] {3, 1})));
+        assertTrue(acc.addPage("page two", createLemmaFreq(
+                new String[] {"SHOE"}, new int[] {2})));
+
+        assertEquals(2, acc.getDocFreq   ("SHOE"));
+        assertEquals(5, acc.getCorpusFreq("SHOE"));
+        assertEquals(1, acc.getDocFreq   ("BRUSH"));
+        assertEquals(0, acc.getDocFreq   ("ABSENT"));
+
+        assertEquals(0, acc.getTermID("SHOE"));    // it is not flushed yet
+        assertEquals(3, acc.countUnflushedTermPages());
+
+        // the same page is skipped
+        assertFalse(acc.addPage("page_one", createLemmaFreq(
+                new String[] {"SHOE"}, new int[] {1})));
+        assertEquals(2, acc.getDocFreq("SHOE"));
+    }
+
+    /** Test of addPage, lemmas and titles are compared as in the
+     * case-insensitive UNIQUE columns term.lemma and page.page_title. */
+    public void testAddPage_case_insensitive() {
+        System.out.println("addPage_case_insensitive");
+        TermAccumulator acc = new TermAccumulator(1000);
+
+        assertTrue(acc.addPage("Page one", createLemmaFreq(
+                new String[] {"SHOE", "Shoe", "shoe "}, new int[] {3, 1, 1})));
+        assertEquals(1, acc.getDocFreq   ("shoe"));
+        assertEquals(5, acc.getCorpusFreq("Shoe"));
+        assertEquals(1, acc.countUnflushedTermPages());
+
+        assertFalse(acc.addPage("PAGE ONE", createLemmaFreq(
+                new String[] {"SHOE"}, new int[] {1})));
+        assertEquals(1, acc.getDocFreq("SHOE"));
+    }
+
+    public void testGetKey() {
+        System.out.println("getKey");
+        assertEquals(TermAccumulator.getKey("Яблоко"), TermAccumulator.getKey("ЯБЛОКО  "));
+        assertFalse(TermAccumulator.getKey("apple").equals(TermAccumulator.getKey("apples")));
+    }
+
+    /** Test of addPage, term_page contains only doc_freq_max pages of the term. */
+    public void testAddPage_doc_freq_max() {
+        System.out.println("addPage_doc_freq_max");
+        TermAccumulator acc = new TermAccumulator(2);
+
+        for(int i=0; i<5; i++)
+            acc.addPage("page " + i, createLemmaFreq(new String[] {"WEBSITE"}, new int[] {1}));
+
+        assertEquals(5, acc.getDocFreq("WEBSITE"));
+        assertEquals(2, acc.countUnflushedTermPages());
+    }
+
+    /** Test of addPage from several threads. */
+    public void testAddPage_threads() throws InterruptedException {
+        System.out.println("addPage_threads");
+        final TermAccumulator acc = new TermAccumulator(1000000);
+        final int n_pages = 2000;
+
+        Thread[] threads = new Thread[4];
+        for(int t=0; t<threads.length; t++) {
+            final int _t = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    for(int i=0; i<n_pages; i++)
+                        acc.addPage("page " + _t + "_" + i, createLemmaFreq(
+                                new String[] {"COMMON", "LEMMA" + i}, new int[] {1, 2}));
+                }
+            };
+            threads[t].start();
+        }
+        for(Thread t : threads)
+            t.join();
+
+        assertEquals(threads.length * n_pages, acc.getDocFreq("COMMON"));
+        assertEquals(threads.length,           acc.getDocFreq("LEMMA7"));
+        assertEquals(threads.length * 2,       acc.getCorpusFreq("LEMMA7"));
+        assertEquals(threads.length * n_pages * 2, acc.countUnflushedTermPages());
+    }
+}
@@ -0,0 +1,244 @@
+package net.zuckerfrei.jcfd;
+
+import java.io.IOException;
+
+
+/**
+ * Asynchronous DICT client: commands return {@link DictFuture} at once,
+ * many DEFINE and MATCH commands are pipelined on each connection of a
+ * small pool, so bulk lookups of thousands of words wait for the network
+ * bandwidth rather than for the round trip of each word.
+ * <pre>
+ * AsyncDict dict = new AsyncDict("localhost", 2628, 2);
+ * List&lt;DictFuture&lt;DefinitionList&gt;&gt; futures = ...;
+ * for (String word : words) {
+ *     futures.add(dict.define(word));
+ * }
+ * for (DictFuture&lt;DefinitionList&gt; f : futures) {
+ *     DefinitionList list = f.join();
+ * }
+ * dict.close();
+ * </pre>
+ *
+ * Databases and strategies (SHOW DB, SHOW STRAT) are asked once for the
+ * server and shared with {@link DictImpl}.
+ *
+ * @see DictImpl
+ */
+public class AsyncDict {
+
+    //~ Static variables/initializers =========================================
+
+    /** Number of connections used by default. */
+    public static final int DEFAULT_POOL_SIZE = 2;
+
+    //~ Instance variables ====================================================
+
+    private final String host;
+
+    private final int port;
+
+    /** Connections, closed ones are reopened on demand; guarded by this. */
+    private final PipelinedConnection[] pool;
+
+    private boolean closed = false;
+
+    //~ Constructors ==========================================================
+
+    /**
+     * Opens connections to the server.
+     *
+     * @param host DICT server host.
+     * @param port DICT server port.
+     * @param poolSize number of connections.
+     *
+     * @throws DictException if the server is unavailable.
+     */
+    public AsyncDict(String host, int port, int poolSize)
+              throws DictException
+    {
+        this.host = host;
+        this.port = port;
+        pool = new PipelinedConnection[Math.max(1, poolSize)];
+        try {
+            for (int i = 0; i < pool.length; i++) {
+                pool[i] = new PipelinedConnection(host, port);
+            }
+        }
+        catch (DictException e) {
+            close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Opens {@link #DEFAULT_POOL_SIZE} connections to the server defined by
+     * {@link Configuration}.
+     *
+     * @throws DictException if the server is unavailable.
+     */
+    public AsyncDict()
+              throws DictException
+    {
+        this(Configuration.getInstance().getHost(),
+             Configuration.getInstance().getPort(),
+             DEFAULT_POOL_SIZE);
+    }
+
+    //~ Methods ===============================================================
+
+    /**
+     * Looks up the word in all databases.
+     *
+     * @param word to be defined.
+     *
+     * @return future of definitions, the list is empty if there is no match.
+     */
+    public DictFuture<DefinitionList> define(String word) {
+        return define(word, Database.ANY);
+    }
+
+
+    /**
+     * Looks up the word in the database.
+     *
+     * @param word to be defined.
+     * @param database database, {@link Database#ANY} or {@link Database#FIRST}.
+     *
+     * @return future of definitions, the list is empty if there is no match;
+     * it fails with {@link InvalidDatabaseException} if the database is unknown.
+     */
+    public DictFuture<DefinitionList> define(String word, Database database) {
+        return submit(new PipelinedConnection.Request<DefinitionList>(Command.define(word, database.getCode())) {
+                DefinitionList read(PipelinedConnection c, String status)
+                             throws IOException,
+                                    DictException
+                {
+                    return c.readDefinitions(status);
+                }
+            });
+    }
+
+
+    /**
+     * Matches the word in all databases by the default strategy of the server.
+     *
+     * @param word to be matched.
+     *
+     * @return future of matches, the list is empty if there is no match.
+     */
+    public DictFuture<MatchList> match(String word) {
+        return match(word, Strategy.DEFAULT, Database.ANY);
+    }
+
+
+    /**
+     * Matches the word in the database by the strategy.
+     *
+     * @param word to be matched.
+     * @param strategy e.g. prefix.
+     * @param database database, {@link Database#ANY} or {@link Database#FIRST}.
+     *
+     * @return future of matches, the list is empty if there is no match;
+     * it fails with {@link InvalidDatabaseException} or
+     * {@link InvalidStrategyException}.
+     */
+    public DictFuture<MatchList> match(String word, Strategy strategy, Database database) {
+        return submit(new PipelinedConnection.Request<MatchList>(Command.match(word, strategy.getCode(), database.getCode())) {
+                MatchList read(PipelinedConnection c, String status)
+                        throws IOException,
+                               DictException
+                {
+                    return c.readMatches(status);
+                }
+            });
+    }
+
+
+    /**
+     * Returns databases of the server, they are asked once.
+     *
+     * @return list of databases.
+     */
+    public DatabaseList listDatabases() {
+        return DictImpl.dbList;
+    }
+
+
+    /**
+     * Returns strategies of the server, they are asked once.
+     *
+     * @return list of strategies.
+     */
+    public StrategyList listStrategies() {
+        return DictImpl.strList;
+    }
+
+
+    /**
+     * Sends QUIT to all connections. Responses to commands sent before
+     * are still read, so their futures are completed.
+     */
+    public synchronized void close() {
+        closed = true;
+        for (int i = 0; i < pool.length; i++) {
+            if (pool[i] != null) {
+                pool[i].close();
+            }
+        }
+    }
+
+
+    /**
+     * Sends the command by the least loaded connection.
+     */
+    private <V> DictFuture<V> submit(PipelinedConnection.Request<V> request) {
+        PipelinedConnection c;
+        try {
+            c = getConnection();
+        }
+        catch (DictException e) {
+            request.future.fail(e);
+            return request.future;
+        }
+        c.send(request);
+        return request.future;
+    }
+
+
+    /**
+     * Finds the connection with the least number of commands in flight,
+     * the failed connection is replaced by the new one. If it can't be
+     * reopened, then other connections are used.
+     *
+     * @throws DictException if there are no open connections.
+     */
+    private synchronized PipelinedConnection getConnection()
+                                                    throws DictException
+    {
+        if (closed) {
+            throw new DictException("Client is closed");
+        }
+        PipelinedConnection best = null;
+        DictException failure = null;
+        for (int i = 0; i < pool.length; i++) {
+            if (pool[i].isClosed()) {
+                try {
+                    pool[i] = new PipelinedConnection(host, port);
+                }
+                catch (DictException e) {
+                    failure = e;
+                    continue;
+                }
+            }
+            if ((best == null) || (pool[i].countInFlight() < best.countInFlight())) {
+                best = pool[i];
+            }
+        }
+        if (best == null) {
+            throw failure;
+        }
+        return best;
+    }
+}
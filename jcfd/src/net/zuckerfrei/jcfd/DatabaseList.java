@@ -49,6 +49,15 @@ public class DatabaseList {
     }
 
 
+    /**
+     * Removes all databases, the list is filled again for another server.
+     */
+    static void clear() {
+        list.clear();
+        dbMap.clear();
+    }
+
+
     /**
      * Number of the databases available.
      *
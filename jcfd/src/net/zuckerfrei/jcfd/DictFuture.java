@@ -0,0 +1,233 @@
+package net.zuckerfrei.jcfd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Result of a command sent by {@link AsyncDict}. The command is already
+ * written to the server (or waits in the queue of the connection) when
+ * the future is returned; the future is completed by the thread which
+ * reads responses of the connection.
+ * <pre>
+ * DictFuture&lt;DefinitionList&gt; f = asyncDict.define("apple");
+ * // send more commands...
+ * DefinitionList list = f.join();
+ * </pre>
+ *
+ * Sent commands can't be withdrawn, so {@link #cancel(boolean)} does nothing.
+ *
+ * @see AsyncDict
+ */
+public class DictFuture<V>
+    implements Future<V>
+{
+
+    //~ Inner Interfaces ======================================================
+
+    /**
+     * Callback of the completed command. It is called by the thread
+     * which reads responses, so it should not block.
+     */
+    public interface Listener<V> {
+
+        /**
+         * Called when the response is read.
+         *
+         * @param result definitions or matches.
+         */
+        void completed(V result);
+
+        /**
+         * Called when the server answered by the error or the connection failed.
+         *
+         * @param e the reason.
+         */
+        void failed(DictException e);
+    }
+
+    /**
+     * ExecutionException with the DictException as the cause
+     * (constructors of ExecutionException are protected in Java 5).
+     */
+    private static class CommandException
+        extends ExecutionException
+    {
+        CommandException(DictException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    //~ Instance variables ====================================================
+
+    /** Released when the result or the exception is set. */
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /** The result, it is set once. */
+    private V result;
+
+    /** The failure, it is set once. */
+    private DictException exception;
+
+    /** Listeners waiting for the result, null when the future is done. */
+    private List<Listener<V>> listeners = new ArrayList<Listener<V>>();
+
+    //~ Methods ===============================================================
+
+    /**
+     * Sets the result, wakes up waiting threads and calls listeners.
+     *
+     * @param value the result.
+     */
+    void complete(V value) {
+        List<Listener<V>> l;
+        synchronized (this) {
+            if (listeners == null) {
+                return;
+            }
+            result = value;
+            l = listeners;
+            listeners = null;
+        }
+        done.countDown();
+        for (int i = 0; i < l.size(); i++) {
+            l.get(i).completed(value);
+        }
+    }
+
+
+    /**
+     * Sets the failure, wakes up waiting threads and calls listeners.
+     *
+     * @param e the reason.
+     */
+    void fail(DictException e) {
+        List<Listener<V>> l;
+        synchronized (this) {
+            if (listeners == null) {
+                return;
+            }
+            exception = e;
+            l = listeners;
+            listeners = null;
+        }
+        done.countDown();
+        for (int i = 0; i < l.size(); i++) {
+            l.get(i).failed(e);
+        }
+    }
+
+
+    /**
+     * Adds the callback. If the future is done, the callback is called
+     * immediately by the current thread.
+     *
+     * @param listener the callback.
+     */
+    public void addListener(Listener<V> listener) {
+        synchronized (this) {
+            if (listeners != null) {
+                listeners.add(listener);
+                return;
+            }
+        }
+        if (exception != null) {
+            listener.failed(exception);
+        }
+        else {
+            listener.completed(result);
+        }
+    }
+
+
+    /**
+     * Commands can't be cancelled.
+     *
+     * @return false.
+     */
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+
+    /**
+     * @return false.
+     */
+    public boolean isCancelled() {
+        return false;
+    }
+
+
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+
+    /**
+     * Waits for the response.
+     *
+     * @return definitions or matches.
+     *
+     * @throws ExecutionException with the cause DictException if the
+     * command failed.
+     */
+    public V get()
+          throws InterruptedException,
+                 ExecutionException
+    {
+        done.await();
+        return getResult();
+    }
+
+
+    public V get(long timeout, TimeUnit unit)
+          throws InterruptedException,
+                 ExecutionException,
+                 TimeoutException
+    {
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException("No response from DICT server");
+        }
+        return getResult();
+    }
+
+
+    /**
+     * Waits for the response, it is {@link #get()} with the exception
+     * of the command.
+     *
+     * @return definitions or matches.
+     *
+     * @throws DictException if the command failed or the thread was interrupted.
+     */
+    public V join()
+           throws DictException
+    {
+        try {
+            done.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DictException("Interrupted while waiting for DICT server", e);
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        return result;
+    }
+
+
+    private V getResult()
+                 throws ExecutionException
+    {
+        if (exception != null) {
+            throw new CommandException(exception);
+        }
+        return result;
+    }
+}
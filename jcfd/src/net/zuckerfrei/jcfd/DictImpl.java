@@ -34,6 +34,12 @@ public abstract class DictImpl
     static DatabaseList dbList = new DatabaseList();
     static StrategyList strList = new StrategyList();
 
+    /**
+     * Server (host:port) which answered SHOW DB and SHOW STRAT stored in
+     * dbList and strList, null if the lists are empty.
+     */
+    private static String listsServer = null;
+
     //~ Instance variables ====================================================
 
     /** DOCUMENT ME! */
@@ -170,7 +176,7 @@ public abstract class DictImpl
                         result = readResponse();
 
 
-                        String[] split = Response.splitQuotedString(result, '"');
+                        String[] split = Response.splitParams(result);
 
                         Definition definition = DefinitionFactory.getInstance()
                                                                  .createDefinition(split[1],
@@ -585,6 +591,40 @@ public abstract class DictImpl
     }
 
 
+    /**
+     * Checks whether the lists of databases and strategies are filled
+     * by the server. The caller should hold the lock of DictImpl.class.
+     *
+     * @param host server host.
+     * @param port server port.
+     *
+     * @return true if SHOW DB and SHOW STRAT were already answered by the server.
+     */
+    static boolean isListsFilledBy(String host, int port) {
+        return (host + ":" + port).equals(listsServer);
+    }
+
+
+    /**
+     * Remembers that the lists are filled by the server.
+     * The caller should hold the lock of DictImpl.class.
+     */
+    static void setListsFilledBy(String host, int port) {
+        listsServer = host + ":" + port;
+    }
+
+
+    /**
+     * Removes databases and strategies of the previous server.
+     * The caller should hold the lock of DictImpl.class.
+     */
+    static void clearLists() {
+        DatabaseList.clear();
+        StrategyList.clear();
+        listsServer = null;
+    }
+
+
     /**
      * Connects to DICT server. Uses host and port defined in the constructor.
      *
@@ -604,8 +644,17 @@ public abstract class DictImpl
 
             connected = true;
 
-            fillDatabaseList();
-            fillStrategyList();
+            // SHOW DB and SHOW STRAT are sent only to the first connection
+            // to the server. The answer to CLIENT stays in the stream
+            // instead of the answer to SHOW STRAT.
+            synchronized (DictImpl.class) {
+                if (!isListsFilledBy(host, port)) {
+                    clearLists();
+                    fillDatabaseList();
+                    fillStrategyList();
+                    setListsFilledBy(host, port);
+                }
+            }
 
         }
         catch (UnknownHostException e) {
@@ -0,0 +1,513 @@
+package net.zuckerfrei.jcfd;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.util.LinkedList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+
+/**
+ * One connection of {@link AsyncDict}. Commands are written by the writer
+ * thread without waiting for responses (pipelining, RFC 2229, 2.2), the
+ * output is flushed when there are no more queued commands. Responses
+ * come in the order of commands, the reader thread parses them and
+ * completes futures of the commands.
+ */
+class PipelinedConnection {
+
+    //~ Static variables/initializers =========================================
+
+    static Log log = LogFactory.getLog(PipelinedConnection.class);
+
+    /** Marker of the end of commands, QUIT is sent. */
+    private static final Request<Object> QUIT = new Request<Object>(Command.QUIT) {
+        Object read(PipelinedConnection c, String status) {
+            return null;
+        }
+    };
+
+    //~ Instance variables ====================================================
+
+    private final Socket socket;
+
+    private final BufferedReader br;
+
+    private final Writer writer;
+
+    /** Commands waiting for the writer thread. */
+    private final BlockingQueue<Request<?>> outgoing = new LinkedBlockingQueue<Request<?>>();
+
+    /** Written commands waiting for responses, guarded by itself. */
+    private final LinkedList<Request<?>> sent = new LinkedList<Request<?>>();
+
+    /** Number of commands without responses. */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /** True after close() or a failure, guarded by this. */
+    private boolean closed = false;
+
+    /** True when the socket is closed, commands are failed. */
+    private volatile boolean aborted = false;
+
+    //~ Constructors ==========================================================
+
+    /**
+     * Connects to the server, reads the banner, sends CLIENT. Databases and
+     * strategies are asked only if they are not known for this server.
+     *
+     * @throws DictException if the server is unavailable or answers unexpectedly.
+     */
+    PipelinedConnection(String host, int port)
+                 throws DictException
+    {
+        try {
+            socket = new Socket(host, port);
+        }
+        catch (IOException e) {
+            throw new DictException(e.getMessage(), e);
+        }
+        try {
+            socket.setTcpNoDelay(true);
+            br = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+            writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"));
+
+            if (!Response.isConnected(readLine())) {
+                throw new InvalidResponseException("Invalid server response");
+            }
+            writeLine(Command.CLIENT);
+            writer.flush();
+            expectOk(readLine());
+
+            synchronized (DictImpl.class) {
+                if (!DictImpl.isListsFilledBy(host, port)) {
+                    DictImpl.clearLists();
+                    fillLists();
+                    DictImpl.setListsFilledBy(host, port);
+                }
+            }
+        }
+        catch (IOException e) {
+            closeSocket();
+            throw new DictException(e.getMessage(), e);
+        }
+        catch (DictException e) {
+            closeSocket();
+            throw e;
+        }
+
+        Thread reader = new Thread(new Runnable() {
+                public void run() {
+                    readResponses();
+                }
+            }, "jcfd reader " + host + ":" + port);
+        Thread writerThread = new Thread(new Runnable() {
+                public void run() {
+                    writeCommands();
+                }
+            }, "jcfd writer " + host + ":" + port);
+        reader.setDaemon(true);
+        writerThread.setDaemon(true);
+        reader.start();
+        writerThread.start();
+    }
+
+    //~ Methods ===============================================================
+
+    /**
+     * Queues the command, the future of the request is completed
+     * by the reader thread.
+     *
+     * @param request the command.
+     */
+    void send(Request<?> request) {
+        synchronized (this) {
+            if (!closed) {
+                inFlight.incrementAndGet();
+                outgoing.add(request);
+                return;
+            }
+        }
+        request.future.fail(new DictException("Connection is closed"));
+    }
+
+
+    /**
+     * Counts commands without responses, it is the load of the connection.
+     *
+     * @return number of commands.
+     */
+    int countInFlight() {
+        return inFlight.get();
+    }
+
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+
+    /**
+     * Sends QUIT after the queued commands; their responses are still read.
+     */
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            outgoing.add(QUIT);
+        }
+    }
+
+
+    /**
+     * The writer thread: writes commands, flushes when the queue is empty.
+     */
+    private void writeCommands() {
+        try {
+            while (true) {
+                Request<?> r = outgoing.take();
+                if (r == QUIT) {
+                    if (!aborted) {
+                        writeLine(Command.QUIT);
+                        writer.flush();
+                    }
+                    return;
+                }
+                synchronized (sent) {
+                    if (aborted) {
+                        r.future.fail(new DictException("Connection is closed"));
+                        inFlight.decrementAndGet();
+                        continue;
+                    }
+                    sent.addLast(r);
+                }
+                writeLine(r.command);
+                if (outgoing.isEmpty()) {
+                    writer.flush();
+                }
+            }
+        }
+        catch (IOException e) {
+            abort(e);
+        }
+        catch (InterruptedException e) {
+            abort(e);
+        }
+    }
+
+
+    /**
+     * The reader thread: reads the response of the first sent command,
+     * until QUIT is answered or the connection fails.
+     */
+    private void readResponses() {
+        try {
+            String status;
+            while ((status = br.readLine()) != null) {
+                Request<?> r;
+                synchronized (sent) {
+                    r = sent.isEmpty() ? null : sent.removeFirst();
+                }
+                if (r == null) {
+                    if (status.startsWith("221")) {    // bye
+                        break;
+                    }
+                    throw new InvalidResponseException("Response without command: " + status);
+                }
+                r.complete(this, status);
+                inFlight.decrementAndGet();
+            }
+            abort(null);
+        }
+        catch (IOException e) {
+            abort(e);
+        }
+        catch (InvalidResponseException e) {
+            abort(e);
+        }
+    }
+
+
+    /**
+     * Closes the socket, fails commands without responses.
+     *
+     * @param cause the reason or null if the connection was closed by QUIT.
+     */
+    private void abort(Exception cause) {
+        synchronized (this) {
+            if (aborted) {
+                return;
+            }
+            aborted = true;
+            closed = true;
+        }
+        if (cause != null) {
+            log.warn("DICT connection failed: " + cause.getMessage());
+        }
+        closeSocket();
+
+        DictException e = new DictException("Connection is closed", cause);
+        while (true) {
+            Request<?> r;
+            synchronized (sent) {
+                r = sent.isEmpty() ? null : sent.removeFirst();
+            }
+            if (r == null) {
+                r = outgoing.poll();
+            }
+            if (r == null) {
+                break;
+            }
+            if (r != QUIT) {
+                r.future.fail(e);
+                inFlight.decrementAndGet();
+            }
+        }
+        outgoing.add(QUIT);     // stops the writer thread
+    }
+
+
+    private void closeSocket() {
+        try {
+            socket.close();
+        }
+        catch (IOException e) {
+            ;
+        }
+    }
+
+
+    private void writeLine(String line)
+                    throws IOException
+    {
+        writer.write(line);
+        writer.write(Dict.COMMAND_LINE_END);
+    }
+
+
+    private String readLine()
+                     throws IOException
+    {
+        String line = br.readLine();
+        if (line == null) {
+            throw new IOException("Connection closed by DICT server");
+        }
+        return line;
+    }
+
+
+    /**
+     * Reads the status line 250 which ends the response.
+     */
+    private void expectOk(String status)
+                   throws InvalidResponseException
+    {
+        if (!Response.isOk(status)) {
+            throw new InvalidResponseException("Unexpected response, expecting 250 ok, got " + status);
+        }
+    }
+
+
+    /**
+     * Reads the text until the line with one period, doubled leading
+     * periods are restored.
+     */
+    private String readText()
+                     throws IOException
+    {
+        StringBuffer buff = new StringBuffer();
+        String line;
+        while (!(line = readLine()).equals(Dict.DEFINITION_END)) {
+            if (line.startsWith("..")) {
+                line = line.substring(1);
+            }
+            buff.append(line)
+                .append(Dict.DEFINITION_LINE_SEPARATOR);
+        }
+        return buff.toString();
+    }
+
+
+    /**
+     * Sends SHOW DB and SHOW STRAT, fills lists of DictImpl.
+     */
+    private void fillLists()
+                    throws IOException,
+                           DictException
+    {
+        writeLine(Command.SHOW_DB);
+        writeLine(Command.SHOW_STRAT);
+        writer.flush();
+
+        String status = readLine();
+        if (Response.noDatabases(status)) {
+            throw new NoDatabasesException("No databases found. Check your server configuration! Server response: " + status);
+        }
+        String line;
+        while (!(line = readLine()).equals(Dict.DEFINITION_END)) {
+            String[] split = Response.splitParams(line);
+            DictImpl.dbList.addDatabase(new Database(split[0], split.length > 1 ? split[1] : split[0]));
+        }
+        expectOk(readLine());
+
+        status = readLine();
+        if (Response.noStrategies(status)) {
+            throw new NoStrategiesException("No strategies found. Check your server configuration! Server response: " + status);
+        }
+        while (!(line = readLine()).equals(Dict.DEFINITION_END)) {
+            String[] split = Response.splitParams(line);
+            DictImpl.strList.addStrategy(new Strategy(split[0], split.length > 1 ? split[1] : split[0]));
+        }
+        expectOk(readLine());
+    }
+
+
+    /**
+     * Finds the database by the code, unknown databases are created.
+     */
+    private static Database findDatabase(String code, String name) {
+        try {
+            return DatabaseList.findDatabase(code);
+        }
+        catch (IllegalArgumentException e) {
+            return new Database(code, name);
+        }
+    }
+
+
+    /**
+     * Reads the response to DEFINE.
+     *
+     * @return empty list if there is no match.
+     */
+    DefinitionList readDefinitions(String status)
+                            throws IOException,
+                                   DictException
+    {
+        DefinitionList list = new DefinitionList();
+        if (Response.noMatch(status)) {
+            return list;
+        }
+        if (Response.invalidDatabase(status)) {
+            throw new InvalidDatabaseException("Invalid database: " + status);
+        }
+        if (!Response.definitionsCountFollows(status)) {
+            throw new DictException("Unexpected code: " + status);
+        }
+
+        int count = Response.findCount(status);
+        for (int i = 0; i < count; i++) {
+            String line = readLine();
+            String[] split = Response.splitParams(line);    // 151 "word" db "name"
+            if (!Response.definitionFollows(line) || (split.length < 3)) {
+                throw new InvalidResponseException("Unexpected response, expecting 151, got " + line);
+            }
+            Database db = findDatabase(split[2], split.length > 3 ? split[3] : split[2]);
+            list.addDefinition(DefinitionFactory.getInstance().createDefinition(split[1], db, readText()));
+        }
+        expectOk(readLine());
+        return list;
+    }
+
+
+    /**
+     * Reads the response to MATCH.
+     *
+     * @return empty list if there is no match.
+     */
+    MatchList readMatches(String status)
+                   throws IOException,
+                          DictException
+    {
+        MatchList list = new MatchList();
+        if (Response.noMatch(status)) {
+            return list;
+        }
+        if (Response.invalidDatabase(status)) {
+            throw new InvalidDatabaseException("Invalid database: " + status);
+        }
+        if (Response.invalidStrategy(status)) {
+            throw new InvalidStrategyException("Invalid strategy: " + status);
+        }
+        if (!status.startsWith(Response.MATCHES_COUNT_FOLLOWS)) {
+            throw new DictException("Unexpected code: " + status);
+        }
+
+        String line;
+        while (!(line = readLine()).equals(Dict.DEFINITION_END)) {
+            String[] split = Response.splitParams(line);    // db "word"
+            if (split.length < 2) {
+                throw new InvalidResponseException("Unexpected match: " + line);
+            }
+            list.addMatch(new Match(findDatabase(split[0], split[0]), split[1]));
+        }
+        expectOk(readLine());
+        return list;
+    }
+
+    //~ Inner Classes =========================================================
+
+    /**
+     * Command and its future.
+     */
+    abstract static class Request<V> {
+
+        /** The command line without CRLF. */
+        final String command;
+
+        final DictFuture<V> future = new DictFuture<V>();
+
+        Request(String command) {
+            this.command = command;
+        }
+
+        /**
+         * Reads the rest of the response after the status line.
+         *
+         * @throws DictException if the server answered by the error,
+         * the stream stays synchronized.
+         * @throws IOException if the connection failed or the response
+         * can't be parsed.
+         */
+        abstract V read(PipelinedConnection c, String status)
+                 throws IOException,
+                        DictException;
+
+        /**
+         * Reads the response, completes the future. Errors of the stream
+         * are thrown further, they close the connection.
+         */
+        void complete(PipelinedConnection c, String status)
+               throws IOException
+        {
+            V result;
+            try {
+                result = read(c, status);
+            }
+            catch (InvalidResponseException e) {
+                future.fail(e);
+                throw new IOException(e.getMessage());
+            }
+            catch (DictException e) {
+                future.fail(e);
+                return;
+            }
+            catch (RuntimeException e) {    // e.g. wrong number in the status line
+                future.fail(new InvalidResponseException(e.getMessage(), e));
+                throw new IOException(e.getMessage());
+            }
+            future.complete(result);
+        }
+    }
+}
@@ -29,6 +29,9 @@ public class Response {
     /** DOCUMENT ME! */
     public static final String DEFINITION_FOLLOWS = "151";
 
+    /** Number of matches and the list of matches follow. */
+    public static final String MATCHES_COUNT_FOLLOWS = "152";
+
     /** DOCUMENT ME! */
     public static final String CONNECTED = "220";
 
@@ -205,4 +208,65 @@ public class Response {
             throw new RuntimeException(ioe.getMessage());
         }
     }
+
+
+    /**
+     * Splits the status line into parameters as defined by RFC 2229, 2.2:
+     * words separated by spaces, strings in double or single quotes,
+     * the backslash escapes the next character. Unlike {@link
+     * #splitQuotedString(String, char)} it keeps database codes like
+     * <code>zh-min-nan</code> in one piece.
+     *
+     * @param line e.g. <code>151 "apple" en "English"</code>
+     *
+     * @return parameters, e.g. <code>151</code>, <code>apple</code>,
+     * <code>en</code>, <code>English</code>
+     */
+    static String[] splitParams(String line) {
+        List<String> list = new ArrayList<String>();
+        StringBuffer word = null;
+        char quote = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if ((c == '\\') && ((i + 1) < line.length())) {
+                if (word == null) {
+                    word = new StringBuffer();
+                }
+                word.append(line.charAt(++i));
+            }
+            else if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                else {
+                    word.append(c);
+                }
+            }
+            else if ((c == '"') || (c == '\'')) {
+                quote = c;
+                if (word == null) {
+                    word = new StringBuffer();
+                }
+            }
+            else if ((c == ' ') || (c == '\t')) {
+                if (word != null) {
+                    list.add(word.toString());
+                    word = null;
+                }
+            }
+            else {
+                if (word == null) {
+                    word = new StringBuffer();
+                }
+                word.append(c);
+            }
+        }
+        if (word != null) {
+            list.add(word.toString());
+        }
+
+        return list.toArray(new String[list.size()]);
+    }
 }
@@ -47,6 +47,15 @@ public class StrategyList {
     }
 
 
+    /**
+     * Removes all strategies, the list is filled again for another server.
+     */
+    static void clear() {
+        list.clear();
+        strMap.clear();
+    }
+
+
     /**
      * DOCUMENT ME!
      *
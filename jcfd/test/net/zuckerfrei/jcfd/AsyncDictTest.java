@@ -0,0 +1,350 @@
+package net.zuckerfrei.jcfd;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+
+/**
+ * Tests of {@link AsyncDict} with the fake DICT server.
+ */
+public class AsyncDictTest
+    extends TestCase
+{
+
+    //~ Instance variables ====================================================
+
+    FakeServer server;
+
+    //~ Constructors ==========================================================
+
+    public AsyncDictTest(String arg0) {
+        super(arg0);
+    }
+
+    //~ Methods ===============================================================
+
+    protected void setUp()
+                  throws Exception
+    {
+        super.setUp();
+        server = new FakeServer();
+    }
+
+
+    protected void tearDown()
+                     throws Exception
+    {
+        server.close();
+        super.tearDown();
+    }
+
+
+    public void testDefine_pipelined()
+                              throws Exception
+    {
+        AsyncDict dict = new AsyncDict("localhost", server.port, 3);
+
+        List<DictFuture<DefinitionList>> futures = new ArrayList<DictFuture<DefinitionList>>();
+        for (int i = 0; i < 2000; i++) {
+            futures.add(dict.define((i % 10 == 0 ? "none" : "word") + i));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            DefinitionList list = futures.get(i).get(10, TimeUnit.SECONDS);
+            if (i % 10 == 0) {
+                assertEquals(0, list.count());
+            }
+            else {
+                assertEquals(1, list.count());
+                Definition d = list.next();
+                assertEquals("word" + i, d.getWord());
+                assertEquals("moby-thes", d.getDatabase().getCode());
+                assertEquals("word" + i + "\r\n.dotted\r\n", d.getContent());
+            }
+        }
+        dict.close();
+
+        assertEquals(1, server.countCommands("SHOW DB"));
+        assertEquals(1, server.countCommands("SHOW STRAT"));
+        assertEquals(3, server.countCommands("CLIENT"));
+        assertEquals(2, dict.listDatabases().count());
+        assertEquals("Moby Thesaurus", DatabaseList.findDatabase("moby-thes").getName());
+    }
+
+
+    public void testMatch_listener()
+                            throws Exception
+    {
+        AsyncDict dict = new AsyncDict("localhost", server.port, 1);
+        final List<String> words = new ArrayList<String>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        dict.match("wor", new Strategy("prefix", "Prefix"), Database.ANY).addListener(
+            new DictFuture.Listener<MatchList>() {
+                public void completed(MatchList result) {
+                    while (result.hasNext()) {
+                        Match m = result.next();
+                        words.add(m.getDatabase().getCode() + ":" + m.getWord());
+                    }
+                    done.countDown();
+                }
+
+                public void failed(DictException e) {
+                    done.countDown();
+                }
+            });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(2, words.size());
+        assertEquals("wn:wor1", words.get(0));
+        assertEquals("moby-thes:wor \"2\"", words.get(1));
+        dict.close();
+    }
+
+
+    /**
+     * The error of one command doesn't break the following commands.
+     */
+    public void testDefine_invalidDatabase()
+                                    throws Exception
+    {
+        AsyncDict dict = new AsyncDict("localhost", server.port, 1);
+        DictFuture<DefinitionList> bad = dict.define("word", new Database("bad", "Bad"));
+        DictFuture<DefinitionList> good = dict.define("word");
+
+        try {
+            bad.join();
+            fail("InvalidDatabaseException expected");
+        }
+        catch (InvalidDatabaseException e) {
+            ;
+        }
+        try {
+            bad.get();
+            fail("ExecutionException expected");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof InvalidDatabaseException);
+        }
+        assertEquals(1, good.join().count());
+        dict.close();
+    }
+
+
+    /**
+     * Commands of the broken connection fail, the next command reconnects.
+     */
+    public void testConnectionFailure()
+                               throws Exception
+    {
+        AsyncDict dict = new AsyncDict("localhost", server.port, 1);
+        DictFuture<DefinitionList> crash = dict.define("crash");
+        DictFuture<DefinitionList> lost = dict.define("word");
+        try {
+            crash.join();
+            fail("DictException expected");
+        }
+        catch (DictException e) {
+            ;
+        }
+        try {
+            lost.join();
+            fail("DictException expected");
+        }
+        catch (DictException e) {
+            ;
+        }
+        assertEquals(1, dict.define("word").join().count());
+        assertEquals(2, server.countCommands("CLIENT"));
+        dict.close();
+    }
+
+
+    /**
+     * If the broken connection can't be reopened, then the other connection
+     * of the pool is used.
+     */
+    public void testConnectionFailure_otherConnection()
+                                             throws Exception
+    {
+        AsyncDict dict = new AsyncDict("localhost", server.port, 2);
+        server.refuse = true;
+        try {
+            dict.define("crash").join();
+            fail("DictException expected");
+        }
+        catch (DictException e) {
+            ;
+        }
+        assertEquals(1, dict.define("word").join().count());
+
+        // the last connection is broken too
+        try {
+            dict.define("crash").join();
+            fail("DictException expected");
+        }
+        catch (DictException e) {
+            ;
+        }
+        try {
+            dict.define("word").join();
+            fail("DictException expected");
+        }
+        catch (DictException e) {
+            ;
+        }
+        assertEquals(2, server.countCommands("CLIENT"));
+        dict.close();
+    }
+
+
+    /**
+     * DictImpl doesn't ask SHOW DB again for the same server.
+     */
+    public void testDictImpl_cachedLists()
+                                   throws Exception
+    {
+        AsyncDict async = new AsyncDict("localhost", server.port, 1);
+        async.close();
+
+        Dict dict = new DictImpl("localhost", server.port) {};
+        DefinitionList list = dict.define("word");
+        assertEquals(1, list.count());
+        assertEquals(2, dict.match("wor", new Strategy("prefix", "Prefix")).count());
+        dict.close();
+
+        assertEquals(1, server.countCommands("SHOW DB"));
+    }
+
+    //~ Inner Classes =========================================================
+
+    /**
+     * DICT server with two databases: "wn" and "moby-thes". Words starting
+     * with "none" are not found, "crash" closes the connection.
+     * New connections are closed at once if refuse is set.
+     */
+    static class FakeServer
+        implements Runnable
+    {
+        final ServerSocket serverSocket;
+
+        final int port;
+
+        final List<String> commands = new ArrayList<String>();
+
+        volatile boolean refuse = false;
+
+        FakeServer()
+            throws IOException
+        {
+            serverSocket = new ServerSocket(0);
+            port = serverSocket.getLocalPort();
+            Thread t = new Thread(this);
+            t.setDaemon(true);
+            t.start();
+        }
+
+        public void run() {
+            try {
+                while (true) {
+                    final Socket s = serverSocket.accept();
+                    if (refuse) {
+                        s.close();
+                        continue;
+                    }
+                    Thread t = new Thread(new Runnable() {
+                            public void run() {
+                                serve(s);
+                            }
+                        });
+                    t.setDaemon(true);
+                    t.start();
+                }
+            }
+            catch (IOException e) {
+                ;
+            }
+        }
+
+        synchronized int countCommands(String command) {
+            int n = 0;
+            for (int i = 0; i < commands.size(); i++) {
+                if (commands.get(i).startsWith(command)) {
+                    n++;
+                }
+            }
+            return n;
+        }
+
+        void close()
+            throws IOException
+        {
+            serverSocket.close();
+        }
+
+        private void serve(Socket s) {
+            try {
+                BufferedReader br = new BufferedReader(new InputStreamReader(s.getInputStream(), "UTF-8"));
+                OutputStream os = s.getOutputStream();
+                os.write("220 fake <mime> <1@fake>\r\n".getBytes("UTF-8"));
+                String line;
+                while ((line = br.readLine()) != null) {
+                    synchronized (this) {
+                        commands.add(line);
+                    }
+                    String[] p = Response.splitParams(line);
+                    String cmd = p[0] + (p[0].equals("SHOW") ? " " + p[1] : "");
+                    StringBuffer r = new StringBuffer();
+                    if (cmd.equals("CLIENT")) {
+                        r.append("250 ok\r\n");
+                    }
+                    else if (cmd.equals("SHOW DB")) {
+                        r.append("110 2 databases present\r\nwn \"WordNet\"\r\nmoby-thes \"Moby Thesaurus\"\r\n.\r\n250 ok\r\n");
+                    }
+                    else if (cmd.equals("SHOW STRAT")) {
+                        r.append("111 2 strategies present\r\nexact \"Exact\"\r\nprefix \"Prefix\"\r\n.\r\n250 ok\r\n");
+                    }
+                    else if (cmd.equals("DEFINE") && p[2].equals("crash")) {
+                        s.close();
+                        return;
+                    }
+                    else if (cmd.equals("DEFINE") && p[1].equals("bad")) {
+                        r.append("550 invalid database\r\n");
+                    }
+                    else if (cmd.equals("DEFINE") && p[2].startsWith("none")) {
+                        r.append("552 no match\r\n");
+                    }
+                    else if (cmd.equals("DEFINE")) {
+                        r.append("150 1 definitions retrieved\r\n151 \"" + p[2] + "\" moby-thes \"Moby Thesaurus\"\r\n")
+                         .append(p[2] + "\r\n..dotted\r\n.\r\n250 ok\r\n");
+                    }
+                    else if (cmd.equals("MATCH")) {
+                        r.append("152 2 matches found\r\nwn \"" + p[3] + "1\"\r\nmoby-thes \"" + p[3] + " \\\"2\\\"\"\r\n.\r\n250 ok\r\n");
+                    }
+                    else if (cmd.equals("QUIT")) {
+                        os.write("221 bye\r\n".getBytes("UTF-8"));
+                        s.close();
+                        return;
+                    }
+                    else {
+                        r.append("500 unknown command\r\n");
+                    }
+                    os.write(r.toString().getBytes("UTF-8"));
+                }
+                s.close();
+            }
+            catch (IOException e) {
+                ;
+            }
+        }
+    }
+}
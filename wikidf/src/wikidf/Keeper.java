@@ -61,10 +61,6 @@ public class Keeper {
     
     
     
-    //private static List<String> lemma = new ArrayList<String>();
-    /** map from term to term frequency in the document */
-    private static Map<String, Integer> m_lemma_tf = new HashMap<String, Integer>();
-    
     /** Stores lemmas, page_title to the database 'idf_conn'.
      *
      *  @param idf_conn     connection to idf database
@@ -72,10 +68,26 @@ public class Keeper {
      */
     public static void storeIDFToDB(Corpus corpus,String page_title,Connect idf_conn,int doc_freq_max)
     {
-        m_lemma_tf.clear();
+        Map<String, Integer> m_lemma_tf = getLemmaFreq(corpus);
+        if(null != m_lemma_tf) {
+            Term.incLemmataDocFreq(idf_conn.conn, m_lemma_tf, 
+                                page_title, doc_freq_max);
+        }
+    }
+    
+    /** Gets lemmas and its frequencies from the first document of the corpus
+     * (annotated by the pipeline).
+     *
+     *  @return map from term to term frequency in the document, 
+     *          null if the corpus is empty
+     */
+    public static Map<String, Integer> getLemmaFreq(Corpus corpus)
+    {
+        Map<String, Integer> m_lemma_tf = null;
         Iterator iter = corpus.iterator();
 
         if(iter.hasNext()) { // 1 document
+            m_lemma_tf = new HashMap<String, Integer>();
             Document doc = (Document) iter.next();
             AnnotationSet defaultAnnotSet = doc.getAnnotations();
             Set annotTypesRequired = new HashSet();
@@ -176,10 +188,8 @@ public class Keeper {
                 for(String s:m_lemma_tf.keySet()) {
                     Out.prln(s + "; " + m_lemma_tf.get(s));
             }   }
-            
-            Term.incLemmataDocFreq(idf_conn.conn, m_lemma_tf, 
-                                page_title, doc_freq_max);
         }
+        return m_lemma_tf;
     }
     
 
@@ -214,6 +224,32 @@ public class Keeper {
             Connect idf_conn,Corpus corpus,StandAloneRussianPOSTagger prs,
             int doc_freq_max)
     throws GateException
+    {
+            Map<String, Integer> m_lemma_tf = parseLemmas(
+                    wp_conn, page_title, wiki_lang, b_remove_not_expand_iwiki,
+                    corpus, prs);
+            
+            // store results to tables: term, page, term_page 
+            if(null != m_lemma_tf) {
+                Term.incLemmataDocFreq(idf_conn.conn, m_lemma_tf, 
+                                    page_title, doc_freq_max);
+            }
+    }
+    
+    
+    /** Takes text (by page_title) from Wikipedia, parses it, gets lemmas 
+     * with term frequencies. The corpus and the pipeline prs belong to 
+     * the caller's thread, i.e. each thread should have its own instances.
+     *
+     *  @see #parseFromWP parameters
+     *  @return map from lemma to term frequency in the document, 
+     *          null if the article has no text
+     */
+    public static Map<String, Integer> parseLemmas (
+            Connect wp_conn, String page_title, 
+            LanguageType wiki_lang, boolean b_remove_not_expand_iwiki,
+            Corpus corpus,StandAloneRussianPOSTagger prs)
+    throws GateException
     {
             //StringBuffer str = new StringBuffer();
             //StringBuffer str = new StringBuffer("sss test");
@@ -225,7 +261,7 @@ public class Keeper {
             if(0 == str.length()) {
                 Out.prln("Error in Keeper.parseFromWP(): The article with the title '"+
                         page_title + "' has no text in Wikipedia.");
-                return;
+                return null;
             }
             str = wikipedia.text.WikiParser.convertWikiToText(str, wiki_lang, b_remove_not_expand_iwiki);
             assert(null != str && 0 < str.length());
@@ -233,7 +269,7 @@ public class Keeper {
             if(0 == str.length()) {
                 Out.prln("Warning in Keeper.parseFromWP(): The article with the title '"+
                         page_title + "' after convert wiki to text: has no text.");
-                return;
+                return null;
             }
             
             //for(int i = 0; i < args.length; i++) {
@@ -253,11 +289,11 @@ public class Keeper {
             prs.setCorpus(corpus);
             prs.execute();
 
-            // store results to tables: term, page, term_page 
-            Keeper.storeIDFToDB(corpus, page_title, idf_conn, doc_freq_max);
+            Map<String, Integer> m_lemma_tf = Keeper.getLemmaFreq(corpus);
             
             corpus.remove(doc);
             Factory.deleteResource(doc);
+            return m_lemma_tf;
     }
     
     
@@ -0,0 +1,245 @@
+/*
+ * PageTableParallel.java - parallel parsing of all pages in the WP table 'page'.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU General Public License.
+ */
+
+package wikidf;
+
+import wikipedia.language.LanguageType;
+import wikipedia.language.Encodings;
+import wikipedia.sql.*;
+import wikipedia.sql_idf.TermAccumulator;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import gate.*;
+import gate.util.*;
+
+/** Parses all pages in the WP table 'page' by several threads,
+ * each thread has its own GATE pipeline, corpus and database connections.
+ * Lemmas are accumulated in memory by TermAccumulator and are flushed
+ * to the IDF db in large batches.
+ *
+ * @see PageTableAll one-thread version which stores each page
+ * to the IDF db immediately
+ */
+public class PageTableParallel {
+    private static final boolean DEBUG = true;
+
+    /** The end of queue of page titles. */
+    private static final String END_OF_PAGES = new String("");
+
+    /** Size of the queue between the reader of titles and the workers. */
+    private static final int QUEUE_SIZE = 1000;
+
+    /** Opens new connections to the Wikipedia and IDF databases.
+     * Each worker has its own connections, since statements of one
+     * connection are executed one after another.
+     */
+    public interface Connector {
+
+        /** Opens new connection to the Wikipedia database. */
+        Connect openWP();
+
+        /** Opens new connection to the wiki IDF database. */
+        Connect openIDF();
+    }
+
+    /** Worker thread: parses pages from the queue with its own pipeline. */
+    private static class Worker extends Thread {
+
+        private final BlockingQueue<String> titles;
+        private final TermAccumulator acc;
+        private final StandAloneRussianPOSTagger prs;
+        private final Corpus corpus;
+
+        private final Connect wp_conn;
+        private final Connect idf_conn;
+        private final LanguageType wiki_lang;
+        private final boolean b_remove_not_expand_iwiki;
+
+        Worker(BlockingQueue<String> _titles, TermAccumulator _acc,
+               DictLanguage dict_lang, Connector connector,
+               LanguageType _wiki_lang, boolean _b_remove_not_expand_iwiki)
+        throws GateException
+        {
+            titles      = _titles;
+            acc         = _acc;
+            wp_conn     = connector.openWP();
+            idf_conn    = connector.openIDF();
+            wiki_lang   = _wiki_lang;
+            b_remove_not_expand_iwiki = _b_remove_not_expand_iwiki;
+
+            prs = new StandAloneRussianPOSTagger();
+            prs.initPRs(dict_lang);
+            corpus = (Corpus) Factory.createResource("gate.corpora.CorpusImpl");
+        }
+
+        public void run() {
+            try {
+                String page_title;
+                while(END_OF_PAGES != (page_title = titles.take())) {
+                    try {
+                        Map<String, Integer> lemma_tf = Keeper.parseLemmas(
+                                wp_conn, page_title,
+                                wiki_lang, b_remove_not_expand_iwiki,
+                                corpus, prs);
+                        acc.addPage(page_title, lemma_tf);
+                        acc.flushIfFull(idf_conn.conn);
+                    } catch(GateException ex) {
+                        System.err.println("GateException (PageTableParallel.Worker.run()): page_title=" +
+                                page_title + " " + ex.getMessage());
+                    } catch(RuntimeException ex) {
+                        System.err.println("Error in PageTableParallel.Worker.run(): page_title=" +
+                                page_title + " " + ex.toString());
+                    }
+                }
+            } catch(InterruptedException ex) {
+                System.err.println("InterruptedException (PageTableParallel.Worker.run()): " + ex.getMessage());
+            } finally {
+                idf_conn.Close();
+                wp_conn.Close();
+            }
+        }
+
+        void deletePRs() throws GateException {
+            prs.deletePRs();
+            Factory.deleteResource(corpus);
+        }
+    }
+
+    /** Returns true if at least one worker is running. */
+    private static boolean isAnyAlive(Worker[] workers) {
+        for(Worker w : workers) {
+            if(w.isAlive())
+                return true;
+        }
+        return false;
+    }
+
+    /** Puts the title to the queue, waits while the queue is full
+     * and at least one worker is running.
+     *
+     * @return false if all workers are stopped (e.g. by an Error),
+     *         then nobody takes titles from the queue
+     */
+    private static boolean putTitle(BlockingQueue<String> titles, String page_title,
+                                    Worker[] workers)
+    throws InterruptedException
+    {
+        while(!titles.offer(page_title, 1, TimeUnit.SECONDS)) {
+            if(!isAnyAlive(workers))
+                return false;
+        }
+        return true;
+    }
+
+    /** Selects all pages (not categories, not redirects), parses them
+     * in n_threads threads, stores to the IDF db.
+     * SQL:
+     * SELECT page_title FROM page WHERE page_namespace=0 AND page_is_redirect=0;
+     *
+     * @param wp_conn    connection which reads titles of pages
+     * @param idf_conn   connection which loads and stores the rest of terms
+     * @param connector  opens connections of each thread
+     * @param dict_lang  language of the dictionary, each thread creates
+     *                   its own pipeline with this dictionary
+     * @param n_threads  number of threads (GATE pipelines)
+     * @see Keeper#parseFromWP parameters
+     */
+    public static void parseAllPages(Connect wp_conn,
+            LanguageType wiki_lang, boolean b_remove_not_expand_iwiki,
+            Connect idf_conn, Connector connector,
+            DictLanguage dict_lang, int n_threads,
+            int doc_freq_max)
+    throws GateException
+    {
+        Statement   s = null;
+        ResultSet   rs= null;
+        long    t_start;
+        float   t_work;
+
+        TermAccumulator acc = new TermAccumulator(doc_freq_max);
+        acc.load(idf_conn.conn);
+
+        BlockingQueue<String> titles = new ArrayBlockingQueue<String>(QUEUE_SIZE);
+        Worker[] workers = new Worker[n_threads];
+        for(int i=0; i<n_threads; i++) {
+            workers[i] = new Worker(titles, acc, dict_lang, connector,
+                                    wiki_lang, b_remove_not_expand_iwiki);
+            workers[i].start();
+        }
+
+        int n_total = Statistics.CountArticlesNonRedirects(wp_conn);
+        System.out.println("Total pages: " + n_total + ", threads: " + n_threads);
+        t_start = System.currentTimeMillis();
+
+        try {
+            s = wp_conn.conn.createStatement ();
+            StringBuffer sb = new StringBuffer();
+            sb.append("SELECT page_title FROM page WHERE page_namespace=0 AND page_is_redirect=0");
+            s.executeQuery(sb.toString());
+            rs = s.getResultSet ();
+
+            int n_cur = 0;
+            while (rs.next ())
+            {
+                Encodings e = wp_conn.enc;
+                String db_str = Encodings.bytesTo(rs.getBytes("page_title"), e.GetDBEnc());
+                String page_title = e.EncodeFromDB(db_str);
+
+                if(DEBUG && 0 == ++n_cur % 1000) {
+                    long    t_cur, t_remain;
+
+                    t_cur  = System.currentTimeMillis() - t_start;
+                    t_remain = (long)((n_total - n_cur) * t_cur/(60f*1000f*(float)(n_cur)));
+                    t_cur = (long)(t_cur/(60f*1000f));
+
+                    System.out.println(n_cur + ": " + page_title +
+                            ", duration: "  + t_cur +
+                            " min, remain: " + t_remain +
+                            " min");
+                }
+                if(!putTitle(titles, page_title, workers)) {
+                    System.err.println("Error in PageTableParallel.parseAllPages(): all threads are stopped, the rest of pages is skipped, page_title=" + page_title);
+                    break;
+                }
+            }
+        } catch(SQLException ex) {
+            System.err.println("SQLException (PageTableParallel.parseAllPages()): " + ex.getMessage());
+        } catch(InterruptedException ex) {
+            System.err.println("InterruptedException (PageTableParallel.parseAllPages()): " + ex.getMessage());
+        } finally {
+            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
+            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+        }
+
+        // stop workers, write the rest of data
+        try {
+            for(int i=0; i<n_threads; i++) {
+                if(!putTitle(titles, END_OF_PAGES, workers))
+                    break;
+            }
+            for(Worker w : workers)
+                w.join();
+        } catch(InterruptedException ex) {
+            System.err.println("InterruptedException (PageTableParallel.parseAllPages()): " + ex.getMessage());
+        }
+        acc.flush(idf_conn.conn);
+
+        for(Worker w : workers)
+            w.deletePRs();
+
+        long  t_end;
+        t_end  = System.currentTimeMillis();
+        t_work = (t_end - t_start)/1000f; // in sec
+        System.out.println("\n\nTime sec:" + t_work +
+                "\nTotal pages: " + n_total);
+    }
+}
@@ -216,11 +216,48 @@ public class WikIDF  {
     }
     
     
+    /** Parses all pages in Wikipedia by n_threads threads (GATE pipelines),
+     * the results are accumulated in memory and stored in large batches.
+     *
+     * @param connector opens database connections of each thread
+     */
+    public void runAllParallel(DictLanguage dict_lang,
+                    LanguageType wiki_lang,
+                    boolean b_remove_not_expand_iwiki,
+                    int doc_freq_max, int n_threads,
+                    Connect connect_wp, Connect idf_conn,
+                    PageTableParallel.Connector connector)
+    throws GateException, IOException 
+    {   
+        // initialise the GATE library
+        Out.prln("Initialising GATE...");
+        Gate.init();
+  
+        // Load ANNIE plugin
+        File gateHome = Gate.getGateHome();
+        File pluginsHome = new File(gateHome, "plugins");
+        Gate.getCreoleRegister().registerDirectories(new File(pluginsHome, "ANNIE").toURI().toURL());
+        Gate.getCreoleRegister().registerDirectories(new File(pluginsHome, "RussianPOSTagger").toURI().toURL());
+        Out.prln("...GATE initialised");  
+        
+        Out.prln("Parsing of documents:");
+        PageTableParallel.parseAllPages(
+                connect_wp, 
+                wiki_lang, b_remove_not_expand_iwiki,
+                idf_conn, connector, dict_lang, n_threads,
+                doc_freq_max);
+    }
+    
+    
     /**
      * Run from the command-line, with a list of arguments:
      * <P><B>
      * java -Dgate.home=/opt/GATE-4.0 -Dgate.plugins.home=/opt/GATE-4.0/plugin -jar "/mnt/win_e/projects/java/aot/rupostagger/wikidf/dist/wikidf.jar"
      * </B><BR>
+     * or with the number of threads (GATE pipelines) as the argument:
+     * <P><B>
+     * java -Dgate.home=/opt/GATE-4.0 -Dgate.plugins.home=/opt/GATE-4.0/plugin -jar "/mnt/win_e/projects/java/aot/rupostagger/wikidf/dist/wikidf.jar" 4
+     * </B><BR>
      * 
      */
     public static void main(String args[])
@@ -251,8 +288,26 @@ public class WikIDF  {
         
         WikIDF w = new WikIDF();
         //w.runSubCategories(dict_lang, wiki_lang, b_remove_not_expand_iwiki, doc_freq_max);
-        w.runAll(dict_lang, wiki_lang, b_remove_not_expand_iwiki, doc_freq_max, 
-                connect_wp, idf_conn);
+        int n_threads = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        if(n_threads <= 1) {
+            w.runAll(dict_lang, wiki_lang, b_remove_not_expand_iwiki, doc_freq_max, 
+                    connect_wp, idf_conn);
+        } else {
+            PageTableParallel.Connector connector = new PageTableParallel.Connector() {
+                public Connect openWP() {
+                    Connect c = new Connect();
+                    c.Open(Connect.WP_RU_HOST,Connect.WP_RU_DB,   Connect.WP_USER,    Connect.WP_PASS);
+                    return c;
+                }
+                public Connect openIDF() {
+                    Connect c = new Connect();
+                    c.Open(Connect.IDF_RU_HOST, Connect.IDF_RU_DB, Connect.IDF_RU_USER, Connect.IDF_RU_PASS);
+                    return c;
+                }
+            };
+            w.runAllParallel(dict_lang, wiki_lang, b_remove_not_expand_iwiki, doc_freq_max, 
+                    n_threads, connect_wp, idf_conn, connector);
+        }
         
         idf_conn.Close();
         connect_wp.Close();
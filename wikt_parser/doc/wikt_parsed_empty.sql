@@ -209,9 +209,10 @@ DROP TABLE IF EXISTS `wiki_text` ;
 CREATE TABLE IF NOT EXISTS `wiki_text` (
   `id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT,
   `text` VARCHAR(4095) BINARY NOT NULL,
+  `text_hash` BIGINT NOT NULL DEFAULT 0 COMMENT '64-bit hash of text, see TextHash',
   `wikified_text` VARCHAR(4095) BINARY NULL DEFAULT NULL,
   PRIMARY KEY (`id`),
-  INDEX `idx_text` (`text`(12) ASC))
+  INDEX `idx_text_hash` (`text_hash` ASC))
 ENGINE = InnoDB;
 
 
@@ -320,9 +321,11 @@ CREATE TABLE IF NOT EXISTS `quote` (
   `meaning_id` INT(10) UNSIGNED NOT NULL COMMENT '==meaning.id',
   `lang_id` SMALLINT UNSIGNED NOT NULL COMMENT '== lang_pos.lang_id (duplication), language of the quote text',
   `text` VARCHAR(4095) BINARY NOT NULL COMMENT 'quotation sentence text (not UNIQUE!)',
+  `text_hash` BIGINT NOT NULL DEFAULT 0 COMMENT '64-bit hash of text, see TextHash',
   `ref_id` INT(9) UNSIGNED NULL,
   PRIMARY KEY (`id`),
-  INDEX `meaning_id_INDEX` (`meaning_id` ASC))
+  INDEX `meaning_id_INDEX` (`meaning_id` ASC),
+  INDEX `idx_text_hash` (`text_hash` ASC))
 ENGINE = InnoDB
 COMMENT = 'Stores quotations and examples.';
 
@@ -516,6 +519,24 @@ ENGINE = InnoDB
 COMMENT = 'Binds images and numbered meaning.';
 
 
+-- -----------------------------------------------------
+-- Table `parse_quarantine`
+-- -----------------------------------------------------
+DROP TABLE IF EXISTS `parse_quarantine` ;
+
+CREATE TABLE IF NOT EXISTS `parse_quarantine` (
+  `id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `page_title` VARCHAR(255) BINARY NOT NULL COMMENT 'Entry which was not parsed.',
+  `reason` VARCHAR(15) NOT NULL COMMENT 'TIME, MEMORY, CANCELLED or ERROR.',
+  `elapsed_ms` INT(10) UNSIGNED NOT NULL COMMENT 'Time spent by the parser, milliseconds.',
+  `allocated_bytes` BIGINT UNSIGNED NOT NULL COMMENT 'Memory allocated by the parser, 0 if unknown.',
+  `message` VARCHAR(1023) NULL,
+  PRIMARY KEY (`id`),
+  INDEX `page_title` (`page_title`(7) ASC))
+ENGINE = InnoDB
+COMMENT = 'Entries skipped since the parser exceeded time or memory limit.';
+
+
 SET SQL_MODE=@OLD_SQL_MODE;
 SET FOREIGN_KEY_CHECKS=@OLD_FOREIGN_KEY_CHECKS;
 SET UNIQUE_CHECKS=@OLD_UNIQUE_CHECKS;
@@ -0,0 +1,78 @@
+/* CachedEntryLoader.java - LRU cache of entries for the DICT server.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.dict;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Keeps the last used entries of the wrapped loader in memory,
+ * absent entries are cached too. The least recently used entry is
+ * removed when the cache is full.
+ */
+public class CachedEntryLoader implements EntryLoader {
+
+    /** The marker of the absent entry in the cache. */
+    private final static String ABSENT = new String("");
+
+    private final EntryLoader loader;
+
+    private final Map<String, String> cache;
+
+    private int n_hits, n_misses;
+
+    /** @param capacity maximum number of cached entries */
+    public CachedEntryLoader(EntryLoader _loader, final int capacity) {
+        loader = _loader;
+        cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public String getDefinition(DictDatabase db, String word) {
+        String key = db.getName() + '\t' + word;
+        synchronized(cache) {
+            String text = cache.get(key);
+            if(null != text) {
+                n_hits ++;
+                return ABSENT == text ? null : text;
+            }
+            n_misses ++;
+        }
+
+        // the loader is called without the lock, so that hits are not blocked
+        String text = loader.getDefinition(db, word);
+        synchronized(cache) {
+            cache.put(key, null == text ? ABSENT : text);
+        }
+        return text;
+    }
+
+    /** Counts entries in the cache. */
+    public int size() {
+        synchronized(cache) {
+            return cache.size();
+        }
+    }
+
+    /** Gets number of requests answered from the cache. */
+    public int getHits() {
+        synchronized(cache) {
+            return n_hits;
+        }
+    }
+
+    /** Gets number of requests passed to the loader. */
+    public int getMisses() {
+        synchronized(cache) {
+            return n_misses;
+        }
+    }
+}
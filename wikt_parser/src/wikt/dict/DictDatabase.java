@@ -0,0 +1,159 @@
+/* DictDatabase.java - headwords of one language for the DICT server.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.dict;
+
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.sql.TLang;
+
+import java.sql.*;
+import java.util.*;
+
+/** One DICT database (RFC 2229) is one language of the parsed Wiktionary:
+ * the sorted array of headwords (titles of pages) which have
+ * an entry (lang_pos) in this language.
+ *
+ * Headwords are kept in memory, so MATCH doesn't query the parsed database,
+ * and only DEFINE loads entries, see EntryLoader.
+ */
+public class DictDatabase {
+
+    /** Name of the database (language code), e.g. "en". */
+    private final String name;
+
+    /** Description shown by SHOW DB, e.g. "English". */
+    private final String description;
+
+    /** Sorted headwords without duplicates. */
+    private final String[] words;
+
+    private final static String[] NULL_STRING_ARRAY = new String[0];
+
+    private DictDatabase(String _name, String _description, String[] _words) {
+        name        = _name;
+        description = _description;
+        words       = _words;
+    }
+
+    /** Creates the database from the list of headwords (in any order,
+     * duplicates are skipped). */
+    public static DictDatabase create(String name, String description, Collection<String> headwords) {
+        String[] w = headwords.toArray(NULL_STRING_ARRAY);
+        Arrays.sort(w);
+        int n = 0;
+        for(int i=0; i<w.length; i++) {
+            if(0 == n || !w[i].equals(w[n - 1]))
+                w[n ++] = w[i];
+        }
+        return new DictDatabase(name, description, Arrays.copyOf(w, n));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /** Counts headwords. */
+    public int size() {
+        return words.length;
+    }
+
+    /** Returns true if the word is a headword of this database. */
+    public boolean contains(String word) {
+        return Arrays.binarySearch(words, word) >= 0;
+    }
+
+    /** Finds headwords by the strategy, headwords are returned in the sorted order.
+     *
+     * @param max_matches maximum number of found headwords
+     */
+    public List<String> match(DictStrategy strategy, String query, int max_matches) {
+        List<String> result = new ArrayList<String>();
+        if(DictStrategy.exact == strategy) {
+            if(contains(query))
+                result.add(query);
+            return result;
+        }
+
+        if(DictStrategy.prefix == strategy) {
+            int i = Arrays.binarySearch(words, query);
+            if(i < 0)
+                i = -i - 1;
+            for(; i<words.length && result.size() < max_matches && words[i].startsWith(query); i++)
+                result.add(words[i]);
+            return result;
+        }
+
+        for(int i=0; i<words.length && result.size() < max_matches; i++) {
+            if(strategy.matches(words[i], query))
+                result.add(words[i]);
+        }
+        return result;
+    }
+
+    /** Loads headwords of all languages from the parsed Wiktionary database.
+     * Databases are sorted by the number of headwords, the largest first,
+     * so the search "!" (first database with matches) starts from
+     * the main language of the Wiktionary.
+     *
+     * SELECT lang_id,page_title FROM lang_pos,page WHERE lang_pos.page_id=page.id;
+     *
+     * REM: TLang.createFastMaps() should be called before.
+     *
+     * @return null if there were errors
+     */
+    public static List<DictDatabase> load(Connect connect) {
+
+        Map<Integer, List<String>> lang_words = new HashMap<Integer, List<String>>();
+        String str_sql = "SELECT lang_id,page_title FROM lang_pos,page WHERE lang_pos.page_id=page.id";
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql);
+                try {
+                    while (rs.next ()) {
+                        int lang_id = rs.getInt("lang_id");
+                        List<String> words = lang_words.get(lang_id);
+                        if(null == words) {
+                            words = new ArrayList<String>();
+                            lang_words.put(lang_id, words);
+                        }
+                        words.add(Encodings.bytesToUTF8(rs.getBytes("page_title")));
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (DictDatabase.load()):: sql='" + str_sql + "' " + ex.getMessage());
+            return null;
+        }
+
+        List<DictDatabase> result = new ArrayList<DictDatabase>(lang_words.size());
+        for(Map.Entry<Integer, List<String>> e : lang_words.entrySet()) {
+            TLang tlang = TLang.getTLangFast(e.getKey());
+            if(null == tlang)
+                continue;
+            LanguageType lang = tlang.getLanguage();
+            result.add(create(lang.getCode(), lang.getName(), e.getValue()));
+        }
+        Collections.sort(result, new Comparator<DictDatabase>() {
+            public int compare(DictDatabase a, DictDatabase b) {
+                if(a.size() != b.size())
+                    return a.size() > b.size() ? -1 : 1;
+                return a.name.compareTo(b.name);
+            }
+        });
+        return result;
+    }
+}
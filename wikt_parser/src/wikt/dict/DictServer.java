@@ -0,0 +1,485 @@
+/* DictServer.java - DICT server (RFC 2229) of the parsed Wiktionary database.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.dict;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikt.sql.TPOS;
+import wikokit.base.wikt.sql.TRelationType;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** DICT server: answers DEFINE, MATCH, SHOW DB, SHOW STRAT etc.
+ * by the parsed Wiktionary, one DICT database per language.
+ *
+ * One selector thread accepts connections, reads command lines and writes
+ * responses without blocking, so thousands of idle connections cost
+ * only their buffers. Commands are executed by the pool of worker threads
+ * (they can wait for the database). Commands of one connection are
+ * executed one after another in the order of arrival, so pipelined
+ * commands get responses in the same order.
+ *
+ * Run from the command line:
+ * <PRE>
+ * java -cp ... wikt.dict.DictServer ru ruwikt20110521.sqlite 2628
+ * </PRE>
+ *
+ * @see http://tools.ietf.org/html/rfc2229
+ */
+public class DictServer {
+
+    /** Port of DICT, RFC 2229. */
+    public final static int DEFAULT_PORT = 2628;
+
+    /** Maximum length of the command line (bytes) including CRLF, RFC 2229, 2.2. */
+    final static int MAX_LINE = 1024;
+
+    /** The connection stops reading when it has so many commands waiting
+     * for execution (the client sends commands but doesn't read responses). */
+    final static int MAX_PENDING_COMMANDS = 256;
+
+    /** The connection stops reading and executing commands when it has so
+     * many bytes of responses which are not sent yet. */
+    final static int MAX_PENDING_OUTPUT = 1 << 20;
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    /** The marker of the command line which is longer than MAX_LINE. */
+    private final static String LINE_TOO_LONG = new String("");
+
+    private final List<DictDatabase> databases;
+    private final Map<String, DictDatabase> name2database;
+    private final EntryLoader loader;
+    private final String host_name;
+
+    private final ExecutorService workers;
+    private Selector selector;
+    private ServerSocketChannel server_channel;
+    private Thread selector_thread;
+    private volatile boolean running = false;
+
+    /** Connections which have new responses or finished commands,
+     * the selector thread updates their interest operations. */
+    private final Queue<Connection> updates = new ConcurrentLinkedQueue<Connection>();
+
+    private final AtomicInteger n_connections = new AtomicInteger();
+    private final AtomicInteger n_accepted    = new AtomicInteger();
+    private final AtomicInteger n_commands    = new AtomicInteger();
+
+    /** @param _databases DICT databases in the order of SHOW DB
+     * @param n_threads number of threads which execute commands
+     */
+    public DictServer(List<DictDatabase> _databases, EntryLoader _loader, int n_threads) {
+        databases = Collections.unmodifiableList(new ArrayList<DictDatabase>(_databases));
+        name2database = new HashMap<String, DictDatabase>();
+        for(DictDatabase db : databases)
+            name2database.put(db.getName(), db);
+        loader = _loader;
+        workers = Executors.newFixedThreadPool(n_threads);
+
+        String name;
+        try {
+            name = InetAddress.getLocalHost().getHostName();
+        } catch(IOException ex) {
+            name = "localhost";
+        }
+        host_name = name;
+    }
+
+    List<DictDatabase> getDatabases() {
+        return databases;
+    }
+
+    /** @return null if the database is absent */
+    DictDatabase getDatabase(String name) {
+        return name2database.get(name);
+    }
+
+    EntryLoader getEntryLoader() {
+        return loader;
+    }
+
+    String getHostName() {
+        return host_name;
+    }
+
+    /** Gets the line of STATUS. */
+    String getStatus() {
+        return "[connections " + n_connections.get() + ", accepted " + n_accepted.get() +
+               ", commands " + n_commands.get() + "]";
+    }
+
+    /** Binds the port and starts the selector thread.
+     *
+     * @param port port number, 0 means any free port
+     * @return the bound port
+     */
+    public int start(int port) throws IOException {
+        selector = Selector.open();
+        server_channel = ServerSocketChannel.open();
+        server_channel.configureBlocking(false);
+        server_channel.socket().setReuseAddress(true);
+        server_channel.socket().bind(new InetSocketAddress(port), 1024);
+        server_channel.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        selector_thread = new Thread(new Runnable() {
+            public void run() {
+                loop();
+            }
+        }, "DictServer selector");
+        selector_thread.start();
+        return server_channel.socket().getLocalPort();
+    }
+
+    /** Closes all connections and stops threads. */
+    public void stop() {
+        running = false;
+        if(null != selector)
+            selector.wakeup();
+        try {
+            if(null != selector_thread)
+                selector_thread.join();
+        } catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** The selector thread: accepts, reads and writes. */
+    private void loop() {
+        ByteBuffer read_buffer = ByteBuffer.allocate(8192);
+        try {
+            while(running) {
+                selector.select();
+
+                Connection c;
+                while(null != (c = updates.poll()))
+                    c.updateInterest();
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while(it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if(!key.isValid())
+                        continue;
+
+                    if(key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    c = (Connection)key.attachment();
+                    try {
+                        if(key.isReadable())
+                            c.read(read_buffer);
+                        if(key.isValid() && key.isWritable())
+                            c.write();
+                    } catch(IOException ex) {
+                        c.close();
+                    }
+                }
+            }
+        } catch(IOException ex) {
+            System.err.println("IOException (DictServer.java loop()):: " + ex.getMessage());
+        } finally {
+            for(SelectionKey key : selector.keys()) {
+                if(key.attachment() instanceof Connection)
+                    ((Connection)key.attachment()).close();
+            }
+            try { server_channel.close(); } catch(IOException ex) { }
+            try { selector.close();       } catch(IOException ex) { }
+        }
+    }
+
+    /** Accepts all waiting connections and sends the banner. The failure
+     * of one connection (e.g. too many open files) doesn't stop the server. */
+    private void accept() {
+        while(true) {
+            SocketChannel channel;
+            try {
+                channel = server_channel.accept();
+            } catch(IOException ex) {
+                System.err.println("IOException (DictServer.java accept()):: " + ex.getMessage());
+                return;
+            }
+            if(null == channel)
+                return;
+
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+
+                Connection c = new Connection(channel, n_accepted.incrementAndGet());
+                c.key = channel.register(selector, SelectionKey.OP_READ, c);
+                n_connections.incrementAndGet();
+                c.addOutput(c.session.getBanner());
+                c.updateInterest();
+            } catch(IOException ex) {
+                System.err.println("IOException (DictServer.java accept()):: " + ex.getMessage());
+                try { channel.close(); } catch(IOException ex2) { }
+            }
+        }
+    }
+
+    /** Asks the selector thread to update interest operations of the connection. */
+    private void requestUpdate(Connection c) {
+        updates.add(c);
+        selector.wakeup();
+    }
+
+    /** One client. The fields line and line_length are used only
+     * by the selector thread, commands and busy are guarded by 'this'. */
+    private class Connection implements Runnable {
+
+        final SocketChannel channel;
+        SelectionKey key;
+        final DictSession session;
+
+        /** Bytes of the current command line. */
+        private final byte[] line = new byte[MAX_LINE];
+        private int line_length = 0;
+        private boolean line_too_long = false;
+
+        /** Commands waiting for execution. */
+        private final Deque<String> commands = new ArrayDeque<String>();
+
+        /** True if a worker thread executes commands of this connection. */
+        private boolean busy = false;
+
+        /** Responses which are not sent yet. */
+        private final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<ByteBuffer>();
+
+        /** Number of bytes in output. */
+        private final AtomicLong output_bytes = new AtomicLong();
+
+        /** QUIT was received or the connection is closed. */
+        private volatile boolean closing = false;
+        private boolean closed = false;
+
+        Connection(SocketChannel _channel, int id) {
+            channel = _channel;
+            session = new DictSession(DictServer.this, id);
+        }
+
+        /** Reads available bytes, splits them into command lines. */
+        void read(ByteBuffer buf) throws IOException {
+            buf.clear();
+            int n = channel.read(buf);
+            if(-1 == n) {
+                close();
+                return;
+            }
+            buf.flip();
+            while(buf.hasRemaining()) {
+                byte b = buf.get();
+                if('\n' == b) {
+                    int len = line_length;
+                    if(len > 0 && '\r' == line[len - 1])
+                        len --;
+                    addCommand(line_too_long ? LINE_TOO_LONG : new String(line, 0, len, UTF8));
+                    line_length = 0;
+                    line_too_long = false;
+                } else if(line_length < MAX_LINE) {
+                    line[line_length ++] = b;
+                } else {
+                    line_too_long = true;
+                }
+            }
+            updateInterest();
+        }
+
+        /** Queues the command, starts the worker if it is idle. */
+        private void addCommand(String command) {
+            synchronized(this) {
+                if(closing)
+                    return;
+                commands.add(command);
+                startWorker();
+            }
+        }
+
+        /** Starts the worker if it is idle, there are commands and
+         * the responses are not piled up. */
+        private synchronized void startWorker() {
+            if(!busy && !closing && !commands.isEmpty() && !isOutputFull()) {
+                busy = true;
+                workers.execute(this);
+            }
+        }
+
+        private boolean isOutputFull() {
+            return output_bytes.get() >= MAX_PENDING_OUTPUT;
+        }
+
+        void addOutput(String response) {
+            ByteBuffer buf = ByteBuffer.wrap(response.getBytes(UTF8));
+            output_bytes.addAndGet(buf.remaining());
+            output.add(buf);
+        }
+
+        /** The worker thread: executes commands until the queue is empty
+         * or too many responses are not sent, then write() restarts it. */
+        @Override
+        public void run() {
+            while(true) {
+                String command;
+                synchronized(this) {
+                    command = isOutputFull() ? null : commands.poll();
+                    if(null == command || closing) {
+                        busy = false;
+                        return;
+                    }
+                }
+                n_commands.incrementAndGet();
+
+                StringBuilder sb = new StringBuilder();
+                boolean keep_open = true;
+                if(LINE_TOO_LONG == command) {
+                    sb.append("500 line too long\r\n");
+                } else {
+                    try {
+                        keep_open = session.execute(command, sb);
+                    } catch(RuntimeException ex) {
+                        System.err.println("Error (DictServer.java run()):: command='" + command + "' " + ex);
+                        sb.setLength(0);
+                        sb.append("420 server temporarily unavailable\r\n");
+                    }
+                }
+                if(sb.length() > 0)
+                    addOutput(sb.toString());
+
+                if(!keep_open) {
+                    synchronized(this) {
+                        closing = true;
+                        commands.clear();
+                        busy = false;
+                    }
+                    requestUpdate(this);
+                    return;
+                }
+                requestUpdate(this);
+            }
+        }
+
+        /** Writes as much of the responses as the socket accepts. */
+        void write() throws IOException {
+            ByteBuffer buf;
+            while(null != (buf = output.peek())) {
+                output_bytes.addAndGet(-channel.write(buf));
+                if(buf.hasRemaining())
+                    break;
+                output.poll();
+            }
+            startWorker();
+            updateInterest();
+        }
+
+        /** Selects reading (if there are not too many waiting commands and
+         * unsent responses) and writing (if there are responses), closes
+         * the connection after QUIT when all responses are sent.
+         * It is called by the selector thread. */
+        void updateInterest() {
+            if(closed || !key.isValid())
+                return;
+            if(closing && output.isEmpty()) {
+                close();
+                return;
+            }
+            int ops = 0;
+            if(!output.isEmpty())
+                ops |= SelectionKey.OP_WRITE;
+            synchronized(this) {
+                if(!closing && commands.size() < MAX_PENDING_COMMANDS && !isOutputFull())
+                    ops |= SelectionKey.OP_READ;
+            }
+            key.interestOps(ops);
+        }
+
+        void close() {
+            if(closed)
+                return;
+            closed = true;
+            synchronized(this) {
+                closing = true;
+                commands.clear();
+            }
+            key.cancel();
+            try { channel.close(); } catch(IOException ex) { }
+            n_connections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Run from the command line:
+     * <PRE>
+     * java -cp ... wikt.dict.DictServer language_code sqlite_file|mysql [port]
+     * </PRE>
+     */
+    public static void main(String[] args) throws IOException {
+
+        if(args.length < 2) {
+            System.out.println("DICT server of the parsed Wiktionary.\n" +
+                "Usage:\n  DictServer language_code sqlite_file|mysql [port]\n" +
+                "Arguments:\n" +
+                "  language_code - language code of the Wiktionary, e.g. en or ru\n" +
+                "  sqlite_file - the parsed Wiktionary SQLite database, or 'mysql'\n" +
+                "  port - port number, default " + DEFAULT_PORT + "\n" +
+                "Examples: DictServer ru ruwikt20110521.sqlite\n");
+            return;
+        }
+        if(!LanguageType.has(args[0])) {
+            System.out.println("Error. Unknown language code '" + args[0] + "'. Stop.");
+            return;
+        }
+        LanguageType wikt_lang = LanguageType.get(args[0]);
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PORT;
+
+        Connect wikt_parsed_conn = new Connect();
+        if(args[1].equals("mysql")) {
+            if(LanguageType.ru == wikt_lang)
+                wikt_parsed_conn.Open(Connect.RUWIKT_HOST, Connect.RUWIKT_PARSED_DB, Connect.RUWIKT_USER, Connect.RUWIKT_PASS, wikt_lang);
+            else
+                wikt_parsed_conn.Open(Connect.ENWIKT_HOST, Connect.ENWIKT_PARSED_DB, Connect.ENWIKT_USER, Connect.ENWIKT_PASS, wikt_lang);
+        } else {
+            wikt_parsed_conn.OpenSQLite(args[1], wikt_lang, false);
+        }
+
+        TLang.createFastMaps(wikt_parsed_conn);
+        TPOS.createFastMaps(wikt_parsed_conn);
+        TRelationType.createFastMaps(wikt_parsed_conn);
+
+        List<DictDatabase> dbs = DictDatabase.load(wikt_parsed_conn);
+        if(null == dbs) {
+            System.out.println("Error. Headwords are not loaded. Stop.");
+            return;
+        }
+        EntryLoader loader = new CachedEntryLoader(new WiktEntryLoader(wikt_parsed_conn), 10000);
+
+        DictServer server = new DictServer(dbs, loader,
+                                           2 * Runtime.getRuntime().availableProcessors());
+        port = server.start(port);
+        System.out.println("DICT server: " + dbs.size() + " databases, port " + port + ".");
+    }
+}
@@ -0,0 +1,334 @@
+/* DictSession.java - commands of one client of the DICT server.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.dict;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Executes commands of the DICT protocol (RFC 2229) for one connection,
+ * the session doesn't know about sockets: it gets the command line and
+ * returns the text of the response.
+ *
+ * @see http://tools.ietf.org/html/rfc2229
+ */
+class DictSession {
+
+    /** Maximum number of headwords returned by one MATCH. */
+    final static int MAX_MATCHES = 1000;
+
+    private final static String CRLF = "\r\n";
+
+    private final DictServer server;
+
+    /** Message identifier of the banner, e.g. "<17.1715@localhost>". */
+    private final String msg_id;
+
+    /** OPTION MIME: texts are preceded by MIME headers. */
+    private boolean mime = false;
+
+    DictSession(DictServer _server, int connection_id) {
+        server = _server;
+        msg_id = "<" + connection_id + "." + System.nanoTime() % 100000 + "@" + server.getHostName() + ">";
+    }
+
+    /** Gets the greeting which is sent after the connection is accepted. */
+    String getBanner() {
+        return "220 " + server.getHostName() + " wikokit DICT server <mime> " + msg_id + CRLF;
+    }
+
+    /** Executes one command line, appends the response to sb.
+     *
+     * @return false if the connection should be closed (QUIT)
+     */
+    boolean execute(String line, StringBuilder sb) {
+        List<String> params = tokenize(line);
+        if(null == params) {
+            status(sb, "501 syntax error, illegal parameters");
+            return true;
+        }
+        if(params.isEmpty())
+            return true;
+
+        String cmd = params.get(0).toUpperCase();
+        int n = params.size();
+        if(cmd.equals("DEFINE")) {
+            if(3 != n)
+                status(sb, "501 syntax error, illegal parameters");
+            else
+                define(params.get(1), params.get(2), sb);
+
+        } else if(cmd.equals("MATCH")) {
+            if(4 != n)
+                status(sb, "501 syntax error, illegal parameters");
+            else
+                match(params.get(1), params.get(2), params.get(3), sb);
+
+        } else if(cmd.equals("SHOW")) {
+            String what = n > 1 ? params.get(1).toUpperCase() : "";
+            if(2 == n && (what.equals("DB") || what.equals("DATABASES")))
+                showDatabases(sb);
+            else if(2 == n && (what.equals("STRAT") || what.equals("STRATEGIES")))
+                showStrategies(sb);
+            else if(3 == n && what.equals("INFO"))
+                showInfo(params.get(2), sb);
+            else if(2 == n && what.equals("SERVER"))
+                showServer(sb);
+            else
+                status(sb, "501 syntax error, illegal parameters");
+
+        } else if(cmd.equals("CLIENT")) {
+            status(sb, "250 ok");
+
+        } else if(cmd.equals("OPTION")) {
+            if(2 == n && params.get(1).equalsIgnoreCase("MIME")) {
+                mime = true;
+                status(sb, "250 ok - using MIME headers");
+            } else
+                status(sb, "501 syntax error, illegal parameters");
+
+        } else if(cmd.equals("STATUS")) {
+            status(sb, "210 status " + server.getStatus());
+
+        } else if(cmd.equals("HELP")) {
+            sb.append("113 help text follows").append(CRLF);
+            text(sb, "DEFINE database word         -- look up word in database\n" +
+                     "MATCH database strategy word -- match word in database using strategy\n" +
+                     "SHOW DB                      -- list all accessible databases\n" +
+                     "SHOW STRAT                   -- list available matching strategies\n" +
+                     "SHOW INFO database           -- provide information about the database\n" +
+                     "SHOW SERVER                  -- provide site-specific information\n" +
+                     "CLIENT info                  -- identify client to server\n" +
+                     "OPTION MIME                  -- use MIME headers\n" +
+                     "STATUS                       -- display timing information\n" +
+                     "HELP                         -- display this help information\n" +
+                     "QUIT                         -- terminate connection\n");
+            status(sb, "250 ok");
+
+        } else if(cmd.equals("QUIT")) {
+            status(sb, "221 bye");
+            return false;
+
+        } else if(cmd.equals("AUTH") || cmd.equals("SASLAUTH") || cmd.equals("SASLRESP")) {
+            status(sb, "502 command not implemented");
+
+        } else {
+            status(sb, "500 unknown command");
+        }
+        return true;
+    }
+
+    /** Gets databases selected by the name, "*" and "!" select all databases.
+     * @return null if the database is unknown */
+    private List<DictDatabase> selectDatabases(String name) {
+        List<DictDatabase> all = server.getDatabases();
+        if(name.equals("*") || name.equals("!"))
+            return all;
+
+        DictDatabase db = server.getDatabase(name);
+        if(null == db)
+            return null;
+        List<DictDatabase> result = new ArrayList<DictDatabase>(1);
+        result.add(db);
+        return result;
+    }
+
+    /** DEFINE database word */
+    private void define(String db_name, String word, StringBuilder sb) {
+        List<DictDatabase> dbs = selectDatabases(db_name);
+        if(null == dbs) {
+            status(sb, "550 invalid database, use \"SHOW DB\" for list of databases");
+            return;
+        }
+
+        List<DictDatabase> found = new ArrayList<DictDatabase>();
+        List<String>       texts = new ArrayList<String>();
+        for(DictDatabase db : dbs) {
+            if(!db.contains(word))
+                continue;
+            String text = server.getEntryLoader().getDefinition(db, word);
+            if(null == text)
+                continue;
+            found.add(db);
+            texts.add(text);
+            if(db_name.equals("!"))
+                break;
+        }
+        if(found.isEmpty()) {
+            status(sb, "552 no match");
+            return;
+        }
+
+        sb.append("150 ").append(found.size()).append(" definitions retrieved").append(CRLF);
+        for(int i=0; i<found.size(); i++) {
+            DictDatabase db = found.get(i);
+            sb.append("151 ").append(quote(word)).append(' ').append(db.getName())
+              .append(' ').append(quote(db.getDescription())).append(CRLF);
+            text(sb, texts.get(i));
+        }
+        status(sb, "250 ok");
+    }
+
+    /** MATCH database strategy word */
+    private void match(String db_name, String strategy_name, String word, StringBuilder sb) {
+        List<DictDatabase> dbs = selectDatabases(db_name);
+        if(null == dbs) {
+            status(sb, "550 invalid database, use \"SHOW DB\" for list of databases");
+            return;
+        }
+        DictStrategy strategy = DictStrategy.get(strategy_name);
+        if(null == strategy) {
+            status(sb, "551 invalid strategy, use \"SHOW STRAT\" for a list of strategies");
+            return;
+        }
+
+        StringBuilder lines = new StringBuilder();
+        int n_matches = 0;
+        for(DictDatabase db : dbs) {
+            List<String> words = db.match(strategy, word, MAX_MATCHES - n_matches);
+            for(String w : words)
+                lines.append(db.getName()).append(' ').append(quote(w)).append(CRLF);
+            n_matches += words.size();
+            if(MAX_MATCHES == n_matches || (n_matches > 0 && db_name.equals("!")))
+                break;
+        }
+        if(0 == n_matches) {
+            status(sb, "552 no match");
+            return;
+        }
+        sb.append("152 ").append(n_matches).append(" matches found").append(CRLF);
+        sb.append(lines).append(".").append(CRLF);
+        status(sb, "250 ok");
+    }
+
+    private void showDatabases(StringBuilder sb) {
+        List<DictDatabase> dbs = server.getDatabases();
+        if(dbs.isEmpty()) {
+            status(sb, "554 no databases present");
+            return;
+        }
+        sb.append("110 ").append(dbs.size()).append(" databases present").append(CRLF);
+        for(DictDatabase db : dbs)
+            sb.append(db.getName()).append(' ').append(quote(db.getDescription())).append(CRLF);
+        sb.append(".").append(CRLF);
+        status(sb, "250 ok");
+    }
+
+    private void showStrategies(StringBuilder sb) {
+        sb.append("111 ").append(DictStrategy.getAllStrategies().size())
+          .append(" strategies available").append(CRLF);
+        for(DictStrategy s : DictStrategy.getAllStrategies())
+            sb.append(s.toString()).append(' ').append(quote(s.getDescription())).append(CRLF);
+        sb.append(".").append(CRLF);
+        status(sb, "250 ok");
+    }
+
+    private void showInfo(String db_name, StringBuilder sb) {
+        DictDatabase db = server.getDatabase(db_name);
+        if(null == db) {
+            status(sb, "550 invalid database, use \"SHOW DB\" for list of databases");
+            return;
+        }
+        sb.append("112 database information follows").append(CRLF);
+        text(sb, db.getDescription() + " entries of the parsed Wiktionary.\n" +
+                 db.size() + " headwords.\n");
+        status(sb, "250 ok");
+    }
+
+    private void showServer(StringBuilder sb) {
+        sb.append("114 server information follows").append(CRLF);
+        text(sb, "wikokit DICT server of the parsed Wiktionary database.\n" +
+                 server.getDatabases().size() + " databases, " + server.getStatus() + "\n");
+        status(sb, "250 ok");
+    }
+
+    /** Appends the status line. */
+    private static void status(StringBuilder sb, String line) {
+        sb.append(line).append(CRLF);
+    }
+
+    /** Appends the text: lines are terminated by CRLF, the leading period
+     * is doubled, the text is ended by the line with one period. */
+    private void text(StringBuilder sb, String text) {
+        if(mime)
+            sb.append("Content-type: text/plain; charset=utf-8").append(CRLF)
+              .append("Content-transfer-encoding: 8bit").append(CRLF).append(CRLF);
+
+        int start = 0;
+        while(start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if(-1 == end)
+                end = text.length();
+            String line = text.substring(start, end);
+            if(line.endsWith("\r"))
+                line = line.substring(0, line.length() - 1);
+            if(line.startsWith("."))
+                sb.append('.');
+            sb.append(line).append(CRLF);
+            start = end + 1;
+        }
+        sb.append(".").append(CRLF);
+    }
+
+    /** Quotes the string, quotes and backslashes are escaped. */
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for(int i=0; i<s.length(); i++) {
+            char c = s.charAt(i);
+            if('"' == c || '\\' == c)
+                sb.append('\\');
+            sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+
+    /** Splits the command line into parameters: words separated by spaces
+     * or strings in double or single quotes, the backslash escapes
+     * the next character (RFC 2229, 2.2).
+     *
+     * @return null if the quote is not closed
+     */
+    static List<String> tokenize(String line) {
+        List<String> result = new ArrayList<String>();
+        StringBuilder word = null;
+        char quote = 0;
+        for(int i=0; i<line.length(); i++) {
+            char c = line.charAt(i);
+            if('\\' == c && i + 1 < line.length()) {
+                if(null == word)
+                    word = new StringBuilder();
+                word.append(line.charAt(++ i));
+
+            } else if(0 != quote) {
+                if(quote == c)
+                    quote = 0;
+                else
+                    word.append(c);
+
+            } else if('"' == c || '\'' == c) {
+                quote = c;
+                if(null == word)
+                    word = new StringBuilder();
+
+            } else if(' ' == c || '\t' == c) {
+                if(null != word) {
+                    result.add(word.toString());
+                    word = null;
+                }
+            } else {
+                if(null == word)
+                    word = new StringBuilder();
+                word.append(c);
+            }
+        }
+        if(0 != quote)
+            return null;
+        if(null != word)
+            result.add(word.toString());
+        return result;
+    }
+}
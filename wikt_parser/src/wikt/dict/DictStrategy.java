@@ -0,0 +1,96 @@
+/* DictStrategy.java - matching strategies of the DICT server.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.dict;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Strategies of the command MATCH (RFC 2229), they are used to find
+ * headwords in DictDatabase.
+ *
+ * @see http://tools.ietf.org/html/rfc2229#section-3.3
+ */
+public class DictStrategy {
+
+    /** Strategy name, e.g. "prefix". */
+    private final String name;
+
+    /** Short description, it is shown by SHOW STRAT. */
+    private final String description;
+
+    private static Map<String, DictStrategy> name2strategy = new LinkedHashMap<String, DictStrategy>();
+
+    private DictStrategy(String _name, String _description) {
+        name = _name;
+        description = _description;
+        name2strategy.put(_name, this);
+    }
+
+    @Override
+    public String toString() { return name; }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /** Gets strategy by its name, the name "." is the default strategy.
+     * @return null if there is no such strategy */
+    public static DictStrategy get(String name) {
+        if(".".equals(name))
+            return DEFAULT;
+        return name2strategy.get(name);
+    }
+
+    /** Gets all strategies in the order of SHOW STRAT. */
+    public static Collection<DictStrategy> getAllStrategies() {
+        return name2strategy.values();
+    }
+
+    /** Checks whether the headword matches the query by this strategy.
+     * Levenshtein strategy accepts words at the distance 1
+     * (one letter is inserted, deleted or replaced). */
+    public boolean matches(String headword, String query) {
+        if(this == exact)
+            return headword.equals(query);
+        if(this == prefix)
+            return headword.startsWith(query);
+        if(this == substring)
+            return headword.contains(query);
+        if(this == lev)
+            return isLevenshteinOne(headword, query);
+        return false;
+    }
+
+    /** Returns true if the distance between the words is 0 or 1. */
+    static boolean isLevenshteinOne(String a, String b) {
+        int la = a.length(), lb = b.length();
+        if(Math.abs(la - lb) > 1)
+            return false;
+        if(la < lb) {
+            String t = a; a = b; b = t;
+            int l = la; la = lb; lb = l;
+        }
+        int i = 0;                  // common prefix
+        while(i < lb && a.charAt(i) == b.charAt(i))
+            i ++;
+        if(i == lb)
+            return true;            // equal or one letter is appended
+
+        if(la == lb)                // replacement
+            return a.regionMatches(i + 1, b, i + 1, la - i - 1);
+        return a.regionMatches(i + 1, b, i, lb - i);    // deletion
+    }
+
+    public static final DictStrategy exact     = new DictStrategy("exact",     "Match headwords exactly");
+    public static final DictStrategy prefix    = new DictStrategy("prefix",    "Match prefixes");
+    public static final DictStrategy substring = new DictStrategy("substring", "Match substring occurring anywhere in a headword");
+    public static final DictStrategy lev       = new DictStrategy("lev",       "Match headwords within Levenshtein distance one");
+
+    /** Strategy of the client request "MATCH db . word". */
+    public static final DictStrategy DEFAULT = lev;
+}
@@ -0,0 +1,20 @@
+/* EntryLoader.java - source of definitions for the DICT server.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.dict;
+
+/** Loads the text of the entry (definitions and semantic relations)
+ * of the headword in the database, the text is sent by DEFINE.
+ *
+ * Implementations are called from several threads of the DictServer.
+ */
+public interface EntryLoader {
+
+    /** Gets the text of the entry, lines are separated by "\n".
+     * @return null if the headword has no entry in this database
+     */
+    String getDefinition(DictDatabase db, String word);
+}
@@ -0,0 +1,95 @@
+/* WiktEntryLoader.java - entries of the parsed Wiktionary for the DICT server.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.dict;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.constant.Relation;
+import wikokit.base.wikt.sql.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Builds the text of the entry from the parsed Wiktionary database
+ * (tables page, lang_pos, meaning, relation, wiki_text), e.g.:
+ * <pre>
+ * bank
+ *   noun
+ *     1. An institution where one can place and borrow money.
+ *        synonymy: savings bank
+ *     2. The edge of a river.
+ * </pre>
+ *
+ * The database connection is shared by threads of the server, so queries
+ * are serialized; wrap the loader into CachedEntryLoader.
+ */
+public class WiktEntryLoader implements EntryLoader {
+
+    private final Connect connect;
+
+    /** REM: TLang, TPOS and TRelationType fast maps should be created before. */
+    public WiktEntryLoader(Connect _connect) {
+        connect = _connect;
+    }
+
+    @Override
+    public String getDefinition(DictDatabase db, String word) {
+        synchronized(connect) {
+            TPage page = TPage.get(connect, word);
+            if(null == page)
+                return null;
+
+            StringBuilder sb = new StringBuilder();
+            TLangPOS[] lang_pos_array = TLangPOS.get(connect, page);
+            for(TLangPOS lang_pos : lang_pos_array) {
+                if(!lang_pos.getLang().getLanguage().getCode().equals(db.getName()))
+                    continue;
+
+                if(0 == sb.length())
+                    sb.append(word).append("\n");
+                sb.append("  ").append(lang_pos.getPOS().getPOS().toString()).append("\n");
+
+                TMeaning[] meanings = TMeaning.get(connect, lang_pos);
+                for(TMeaning m : meanings) {
+                    sb.append("    ").append(m.getMeaningNumber()).append(". ")
+                      .append(m.getWikiTextString()).append("\n");
+                    appendRelations(sb, TRelation.get(connect, m));
+                }
+            }
+            return 0 == sb.length() ? null : sb.toString();
+        }
+    }
+
+    /** Appends lines "relation: word1, word2" in the order of the first occurrence. */
+    private static void appendRelations(StringBuilder sb, TRelation[] relations) {
+        if(null == relations || 0 == relations.length)
+            return;
+
+        Map<Relation, List<String>> m = new LinkedHashMap<Relation, List<String>>();
+        for(TRelation r : relations) {
+            if(null == r.getRelationType() || null == r.getWikiText())
+                continue;
+            List<String> words = m.get(r.getRelationType());
+            if(null == words) {
+                words = new ArrayList<String>();
+                m.put(r.getRelationType(), words);
+            }
+            words.add(r.getWikiText().getText());
+        }
+        for(Map.Entry<Relation, List<String>> e : m.entrySet()) {
+            sb.append("       ").append(e.getKey().toString()).append(": ");
+            List<String> words = e.getValue();
+            for(int i=0; i<words.size(); i++) {
+                if(i > 0)
+                    sb.append(", ");
+                sb.append(words.get(i));
+            }
+            sb.append("\n");
+        }
+    }
+}
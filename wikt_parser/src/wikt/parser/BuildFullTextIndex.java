@@ -0,0 +1,92 @@
+/* BuildFullTextIndex.java - creates the full-text index of definitions and
+ * quotations from wikt_parsed database.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.parser;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.sql.index.FullTextIndex;
+
+import java.io.File;
+import java.util.List;
+
+/** Builds the full-text index after parsing and searches in it,
+ * see FullTextIndex.
+ */
+public class BuildFullTextIndex {
+
+    /**
+     * Run from the command-line:
+     * <P><B>
+     * java -cp "./wikt_parser/dist/wikt_parser.jar" wikt.parser.BuildFullTextIndex ru ruwikt20110521_fulltext.idx
+     * </B>
+     * <P><B>
+     * java -cp "./wikt_parser/dist/wikt_parser.jar" wikt.parser.BuildFullTextIndex reverse ruwikt20110521_fulltext.idx "домашнее животное"
+     * </B>
+     */
+    public static void main(String[] args) {
+
+        if(3 == args.length && (args[0].equals("search") || args[0].equals("reverse"))) {
+            FullTextIndex index = FullTextIndex.open(new File(args[1]));
+            if(null == index)
+                return;
+
+            long t_start = System.nanoTime();
+            List<FullTextIndex.Hit> hits = args[0].equals("search") ?
+                    index.search(args[2], index.getNativeLanguage(), FullTextIndex.KIND_ALL, null, null, 20) :
+                    index.searchWordsByDescription(args[2], null, null, 20);
+            float t_work = (System.nanoTime() - t_start)/1000000f;
+
+            for(FullTextIndex.Hit h : hits)
+                System.out.println(h.getPageTitle() + "\t" + (h.isQuote() ? "quote " : "meaning ") + h.getID() +
+                                   "\t" + (null == h.getLanguage() ? "" : h.getLanguage().getCode()) +
+                                   "\t" + (null == h.getPOS() ? "" : h.getPOS().toString()) + "\t" + h.getScore());
+            System.out.println("Found: " + hits.size() + ", time ms:" + t_work);
+            return;
+        }
+
+        if(args.length != 2) {
+            System.out.println("Creates the full-text index of definitions and quotations from wikt_parsed database.\n" +
+            "Usage:\n  BuildFullTextIndex language_code index_file\n" +
+                    "  BuildFullTextIndex search index_file query\n" +
+                    "  BuildFullTextIndex reverse index_file description\n" +
+                    "Arguments:\n" +
+                    "  language_code - language code of wikt_parsed MySQL database (ru, en)\n" +
+                    "  index_file - result file, e.g. ruwikt20110521_fulltext.idx\n" +
+                    "  search - finds definitions and quotations by words and \"phrases\" (BM25 ranking)\n" +
+                    "  reverse - finds words whose definitions match the description\n"
+                    );
+            return;
+        }
+
+        String s = args[0];
+        if(!LanguageType.has(s)) {
+            System.out.println("Error. Unknown language code '" + s + "'. Stop.");
+            return;
+        }
+        LanguageType wikt_lang = LanguageType.get(s);
+
+        Connect wikt_parsed_conn = new Connect();
+        if(LanguageType.ru == wikt_lang) {
+            wikt_parsed_conn.Open(Connect.RUWIKT_HOST, Connect.RUWIKT_PARSED_DB, Connect.RUWIKT_USER, Connect.RUWIKT_PASS, wikt_lang);
+        } else {
+            if(LanguageType.en == wikt_lang) {
+                wikt_parsed_conn.Open(Connect.ENWIKT_HOST, Connect.ENWIKT_PARSED_DB, Connect.ENWIKT_USER, Connect.ENWIKT_PASS, wikt_lang);
+            } else {
+                System.out.println("This language code ('" + s + "') is not supported yet. Stop.");
+                return;
+            }
+        }
+
+        long t_start = System.currentTimeMillis();
+        if(FullTextIndex.create(wikt_parsed_conn, new File(args[1]))) {
+            float t_work = (System.currentTimeMillis() - t_start)/1000f;
+            System.out.println("Full-text index '" + args[1] + "' is created, time sec:" + t_work);
+        }
+        wikt_parsed_conn.Close();
+    }
+}
@@ -0,0 +1,96 @@
+/* BuildSQLite.java - creates SQLite database for wiwordik and kiwidict
+ * from wikt_parsed database (MySQL).
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.parser;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.sql.SQLiteBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/** Builds the read-only SQLite database and measures the time of queries
+ * of the dictionary applications, see SQLiteBuilder.
+ */
+public class BuildSQLite {
+
+    /**
+     * Run from the command-line:
+     * <P><B>
+     * java -cp "./wikt_parser/dist/wikt_parser.jar" wikt.parser.BuildSQLite ru ruwikt20110521_android.sqlite 200
+     * </B>
+     * <P><B>
+     * java -cp "./wikt_parser/dist/wikt_parser.jar" wikt.parser.BuildSQLite bench water,house ruwikt20110521.sqlite ruwikt20110521_android.sqlite
+     * </B>
+     */
+    public static void main(String[] args) {
+
+        if(args.length >= 3 && args[0].equals("bench")) {
+            String[] words = args[1].split(",");
+            for(int i=2; i<args.length; i++)
+                SQLiteBuilder.benchmark(args[i], words, 10);
+            return;
+        }
+
+        if(args.length < 2 || args.length > 3) {
+            System.out.println("Creates SQLite database from wikt_parsed database.\n" +
+            "Usage:\n  BuildSQLite language_code sqlite_file [part_size_MB]\n" +
+                    "  BuildSQLite bench word1,word2 sqlite_file1 [sqlite_file2 ...]\n" +
+                    "Arguments:\n" +
+                    "  language_code - language code of wikt_parsed MySQL database (ru, en)\n" +
+                    "  sqlite_file - result file, e.g. ruwikt20110521_android.sqlite\n" +
+                    "  part_size_MB - optional, the file is split into parts of this size for download\n" +
+                    "  bench - measures the time of queries of dictionary applications in SQLite files\n"
+                    );
+            return;
+        }
+
+        String s = args[0];
+        if(!LanguageType.has(s)) {
+            System.out.println("Error. Unknown language code '" + s + "'. Stop.");
+            return;
+        }
+        LanguageType wikt_lang = LanguageType.get(s);
+
+        int part_size_mb = 0;
+        if(3 == args.length) {
+            try {
+                part_size_mb = Integer.parseInt(args[2]);
+            } catch(NumberFormatException ex) {
+                System.out.println("Error. The part size should be a number of MB, not '" + args[2] + "'. Stop.");
+                return;
+            }
+        }
+
+        Connect wikt_parsed_conn = new Connect();
+        if(LanguageType.ru == wikt_lang) {
+            wikt_parsed_conn.Open(Connect.RUWIKT_HOST, Connect.RUWIKT_PARSED_DB, Connect.RUWIKT_USER, Connect.RUWIKT_PASS, wikt_lang);
+        } else {
+            if(LanguageType.en == wikt_lang) {
+                wikt_parsed_conn.Open(Connect.ENWIKT_HOST, Connect.ENWIKT_PARSED_DB, Connect.ENWIKT_USER, Connect.ENWIKT_PASS, wikt_lang);
+            } else {
+                System.out.println("This language code ('" + s + "') is not supported yet. Stop.");
+                return;
+            }
+        }
+
+        boolean b_built = SQLiteBuilder.build(wikt_parsed_conn, args[1]);
+        wikt_parsed_conn.Close();
+
+        if(b_built && part_size_mb > 0) {
+            try {
+                List<File> parts = SQLiteBuilder.split(new File(args[1]), part_size_mb * 1024L * 1024L);
+                for(File part : parts)
+                    System.out.println("Part: " + part.getPath() + ", size MB: " + part.length()/(1024*1024));
+            } catch(IOException ex) {
+                System.out.println("Error (BuildSQLite.main()): the file is not split. " + ex.getMessage());
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ package wikt.parser;
 
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.sql.index.IndexForeign;
 
 
 /** Wiktionary parser creates MySQL database (like WordNet) 
@@ -27,6 +28,12 @@ public class Main {
      * <P><B>
      * java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0
      * </B><BR>
+     * or with deferred storing of wiki words (see WikiTextWordsSpill):
+     * <B>java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0 defer_wiki_words</B><BR>
+     * or with indexes built after parsing (see BulkLoad):
+     * <B>java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0 bulk_load</B><BR>
+     * or with one table 'index_foreign' instead of tables 'index_XX' (see IndexForeign):
+     * <B>java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0 bulk_load index_foreign</B>
      */
     public static void main(String[] args) {
                 
@@ -36,17 +43,36 @@ public class Main {
         // Connect to wikt_parsed database
         Connect wikt_parsed_conn = new Connect();
 
-        if(args.length != 2) {
+        boolean defer_wiki_words = false;
+        boolean bulk_load = false;
+        boolean index_foreign = false;
+        boolean b_args = args.length >= 2;
+        for(int i=2; i<args.length; i++) {
+            if(args[i].equals("defer_wiki_words"))
+                defer_wiki_words = true;
+            else if(args[i].equals("bulk_load"))
+                defer_wiki_words = bulk_load = true;
+            else if(args[i].equals("index_foreign"))
+                index_foreign = true;
+            else
+                b_args = false;
+        }
+
+        if(!b_args) {
             System.out.println("Wiktionary parser.\n" +
-            "Usage:\n  run_wikt_parser.bat language_code n_start_from\n" +
+            "Usage:\n  run_wikt_parser.bat language_code n_start_from [defer_wiki_words | bulk_load] [index_foreign]\n" +
                     "Arguments:\n" +
                     "  language_code - language code of MySQL Wiktionary database to be parsed\n" +
                     "  n_start_from - number of records in database to start from\n" +
+                    "  defer_wiki_words - store wiki words (table wiki_text_words) after parsing\n" +
+                    "  bulk_load - drop indexes before parsing and rebuild them after it (n_start_from=0),\n" +
+                    "              wiki words are deferred too\n" +
+                    "  index_foreign - store foreign words of all languages to one table index_foreign\n" +
+                    "              instead of tables index_XX (n_start_from=0)\n" +
                     "Examples: run_wikt_parser.bat en 0\n"
                     );
             return;
         }
-
         String s = args[0];
         if(!LanguageType.has(s)) {
             System.out.println("Error. Unknown language code '" + s + "'. Stop.");
@@ -94,11 +120,18 @@ public class Main {
             // "Кандидаты в избранные статьи", "Статьи со ссылками на Википедию"
             // "Статьи с звучащими примерами произношения", "Статьи с иллюстрациями", 
         
+        // the new database gets the layout given by the option (tables index_XX by default),
+        // the parsing which is continued keeps the layout of the database
+        if(0 == n_start_from)
+            IndexForeign.setConsolidated(wikt_parsed_conn, index_foreign);
+        else if(index_foreign)
+            System.out.println("Warning: the layout of foreign words is taken from the database (n_start_from > 0), index_foreign is ignored.");
+
         WiktParser w = new WiktParser();
 //        w.runSubCategories(wiki_lang, wikt_conn, wikt_parsed_conn, category_name);
         
 
-        PageTableAll.parseAllPages(wikt_lang, wikt_conn, wikt_parsed_conn, n_start_from);
+        PageTableAll.parseAllPages(wikt_lang, wikt_conn, wikt_parsed_conn, n_start_from, defer_wiki_words, bulk_load);
         
         wikt_conn.Close();
         wikt_parsed_conn.Close();
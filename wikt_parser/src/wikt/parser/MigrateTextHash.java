@@ -0,0 +1,59 @@
+/* MigrateTextHash.java - adds the column 'text_hash' to wikt_parsed database
+ * created before the search of texts by hash.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.parser;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.sql.TextHashMigration;
+
+/** Migrates the existing wikt_parsed database (MySQL) to the search of
+ * texts by hash, see TextHashMigration.
+ */
+public class MigrateTextHash {
+
+    /**
+     * Run from the command-line:
+     * <P><B>
+     * java -cp "./wikt_parser/dist/wikt_parser.jar" wikt.parser.MigrateTextHash ru
+     * </B>
+     */
+    public static void main(String[] args) {
+
+        if(args.length != 1) {
+            System.out.println("Migration of wikt_parsed database: adds column text_hash to tables wiki_text and quote.\n" +
+            "Usage:\n  MigrateTextHash language_code\n" +
+                    "Arguments:\n" +
+                    "  language_code - language code of wikt_parsed MySQL database (ru, en)\n"
+                    );
+            return;
+        }
+
+        String s = args[0];
+        if(!LanguageType.has(s)) {
+            System.out.println("Error. Unknown language code '" + s + "'. Stop.");
+            return;
+        }
+        LanguageType wikt_lang = LanguageType.get(s);
+
+        Connect wikt_parsed_conn = new Connect();
+        if(LanguageType.ru == wikt_lang) {
+            wikt_parsed_conn.Open(Connect.RUWIKT_HOST, Connect.RUWIKT_PARSED_DB, Connect.RUWIKT_USER, Connect.RUWIKT_PASS, wikt_lang);
+        } else {
+            if(LanguageType.en == wikt_lang) {
+                wikt_parsed_conn.Open(Connect.ENWIKT_HOST, Connect.ENWIKT_PARSED_DB, Connect.ENWIKT_USER, Connect.ENWIKT_PASS, wikt_lang);
+            } else {
+                System.out.println("This language code ('" + s + "') is not supported yet. Stop.");
+                return;
+            }
+        }
+
+        TextHashMigration.migrateAll(wikt_parsed_conn);
+
+        wikt_parsed_conn.Close();
+    }
+}
@@ -10,10 +10,17 @@ import wikokit.base.wikipedia.sql.Statistics;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikt.sql.BulkLoad;
+import wikokit.base.wikt.sql.InternTable;
 import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikt.sql.TWikiTextWords;
+import wikokit.base.wikt.sql.WikiTextWordsSpill;
+import wikokit.base.wikt.sql.index.IndexForeign;
 
 import java.sql.*;
+import java.io.IOException;
 import wikokit.base.wikt.sql.label.TLabel;
+import wikokit.base.wikt.sql.quote.TQuotRef;
 
 /** Worker with all pages in the WP table 'page'.
  */
@@ -22,7 +29,9 @@ public class PageTableAll {
     
     //private static final boolean PRINT_PROGRESS = true;
     
-    /** pages which caused crash of program (Wikipedia or Wiktionary) - for fast debug */
+    /** pages which caused crash of program (Wikipedia or Wiktionary) - for fast debug.
+     * Now the pages which exceed the time or memory limit are stored to the
+     * table 'parse_quarantine' automatically, see ParseWatchdog. */
     //private static final String[] debug_pages = {"-ейш-", "-лык", "-io-"};  //
     private static final String[] debug_pages = {
         "щегол", "щёголь", "пояс", "идти", "выстрел", "труба", "номер", "вилка", "ловить", "модель", // images in ruwikt: илл
@@ -136,6 +145,45 @@ public class PageTableAll {
             Connect wikt_conn,
             Connect wikt_parsed_conn,
             int n_start_from)
+    {
+        parseAllPages(native_lang, wikt_conn, wikt_parsed_conn, n_start_from, false, false);
+    }
+
+    /** Selects all pages (not categories, not redirects),
+     * stores to the Wiktionary parsed DB.
+     *
+     * @param defer_wiki_words  see parseAllPages(..., defer_wiki_words, bulk_load)
+     */
+    public static void parseAllPages(
+            LanguageType native_lang,
+            Connect wikt_conn,
+            Connect wikt_parsed_conn,
+            int n_start_from,
+            boolean defer_wiki_words)
+    {
+        parseAllPages(native_lang, wikt_conn, wikt_parsed_conn, n_start_from, defer_wiki_words, false);
+    }
+
+    /** Selects all pages (not categories, not redirects),
+     * stores to the Wiktionary parsed DB.
+     *
+     * @param defer_wiki_words  if true, then wiki words of definitions,
+     *      relations and translations are written to the spill file during
+     *      parsing, and they are stored to the table 'wiki_text_words'
+     *      (and 'page', 'inflection', 'page_inflection') after parsing
+     *      by sequential merge, see WikiTextWordsSpill
+     * @param bulk_load  if true and the database is parsed from the start
+     *      (n_start_from == 0), then secondary indexes of written tables are
+     *      dropped during parsing and rebuilt after it, see BulkLoad;
+     *      it implies defer_wiki_words
+     */
+    public static void parseAllPages(
+            LanguageType native_lang,
+            Connect wikt_conn,
+            Connect wikt_parsed_conn,
+            int n_start_from,
+            boolean defer_wiki_words,
+            boolean bulk_load)
     {
         Statement   s = null;
         ResultSet   rs= null;
@@ -146,11 +194,35 @@ public class PageTableAll {
         System.out.println("Total pages: " + n_total);
         t_start = System.currentTimeMillis();
 
-        if(0 == n_start_from)
+        BulkLoad bulk = null;
+        if(0 == n_start_from) {
             WiktParser.clearDatabase(wikt_parsed_conn, native_lang);
-        else
+            if(bulk_load)
+                bulk = BulkLoad.begin(wikt_parsed_conn);
+        } else {
             WiktParser.initWithoutClearDatabase(wikt_parsed_conn, native_lang);
+            if(bulk_load)
+                System.out.println("Warning (PageTableAll.parseAllPages()): bulk load is possible only from the start (n_start_from=0), indexes are kept.");
+        }
         
+        WikiTextWordsSpill spill = null;
+        if(defer_wiki_words || null != bulk) {
+            try {
+                spill = new WikiTextWordsSpill(null);
+            } catch(IOException ex) {
+                System.out.println("Error (PageTableAll.parseAllPages()): the spill file is not created, " +
+                        "wiki words will be stored at once. " + ex.getMessage());
+            }
+        }
+        TWikiTextWords.setSpill(spill);
+
+        // labels and quotation references are interned in memory, see InternTable
+        TLabel.openCache(wikt_parsed_conn);
+        TQuotRef.openCaches(wikt_parsed_conn);
+        IndexForeign.beginBatch();      // used only by the table 'index_foreign'
+
+        ParseWatchdog watchdog = new ParseWatchdog(wikt_parsed_conn);
+        boolean b_stopped = false;
         try {
             s = wikt_conn.conn.createStatement ();
             StringBuilder sb = new StringBuilder();
@@ -201,13 +273,41 @@ public class PageTableAll {
                             " min");
                 }
 
-                WiktParser.parseWiktionaryEntry(native_lang, wikt_conn, wikt_parsed_conn, page_title);
+                WiktParser.parseWiktionaryEntry(native_lang, wikt_conn, wikt_parsed_conn, page_title, watchdog);
             }
         } catch(SQLException ex) {
             System.out.println("SQLException (parseAllPages.PageTableAll()): " + ex.getMessage());
+        } catch(InternTable.InsertException ex) {
+            System.out.println("Error (PageTableAll.parseAllPages()): parsing is stopped. " + ex.getMessage());
+            b_stopped = true;
+        } catch(ParseWatchdog.AbandonedException ex) {
+            System.out.println("Error (PageTableAll.parseAllPages()): parsing is stopped. " + ex.getMessage());
+            b_stopped = true;
         } finally {
             if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
             if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+            watchdog.shutdown();
+            TWikiTextWords.setSpill(null);
+            if(!closeCaches(wikt_parsed_conn))
+                b_stopped = true;
+            IndexForeign.endBatch(wikt_parsed_conn);
+        }
+
+        if(null != spill) {
+            try {
+                spill.resolve(wikt_parsed_conn);
+            } catch(IOException ex) {
+                System.out.println("Error (PageTableAll.parseAllPages()): wiki words are not stored. " + ex.getMessage());
+            }
+        }
+
+        if(null != bulk)
+            bulk.end();
+
+        if(b_stopped) {
+            System.out.println("Error (PageTableAll.parseAllPages()): the parsed database is incomplete " +
+                    "(see the errors above), the database should be parsed again.");
+            return;
         }
 
         // post-processing
@@ -220,6 +320,27 @@ public class PageTableAll {
         t_end  = System.currentTimeMillis();
         t_work = (t_end - t_start)/1000f; // in sec
         System.out.println("\n\nTime sec:" + t_work + 
-                "\nTotal pages: " + n_total);
+                "\nTotal pages: " + n_total +
+                "\nQuarantined pages: " + watchdog.getQuarantinedCount());
+    }
+
+    /** Writes new rows of the caches of labels and quotation references.
+     * @return false if some rows are not stored, see InternTable
+     */
+    private static boolean closeCaches(Connect wikt_parsed_conn) {
+        boolean b_stored = true;
+        try {
+            TLabel.closeCache(wikt_parsed_conn);
+        } catch(InternTable.InsertException ex) {
+            System.out.println("Error (PageTableAll.closeCaches()): " + ex.getMessage());
+            b_stored = false;
+        }
+        try {
+            TQuotRef.closeCaches(wikt_parsed_conn);
+        } catch(InternTable.InsertException ex) {
+            System.out.println("Error (PageTableAll.closeCaches()): " + ex.getMessage());
+            b_stored = false;
+        }
+        return b_stored;
     }
 }
@@ -0,0 +1,217 @@
+/* ParseWatchdog.java - parses Wiktionary entries with the time and memory limits.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.parser;
+
+import wikokit.base.wikt.word.WordBase;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.text.ParseBudget;
+import wikokit.base.wikt.sql.TParseQuarantine;
+
+import java.util.concurrent.*;
+
+/** Parses each entry (creates WordBase) in the worker thread under
+ * the time and memory budget (see ParseBudget). The entry which exceeds
+ * the budget or fails is skipped and stored to the table 'parse_quarantine'
+ * with timings, and parsing of other entries goes on.<br><br>
+ *
+ * The regular expressions of the wiki parser check the budget by themselves
+ * and abort by ParseBudget.ExceededException. If the worker thread is stuck
+ * somewhere else, then the watchdog waits max_millis + GRACE_MILLIS,
+ * cancels the budget, interrupts the thread and, if it is still running,
+ * abandons it (the thread is a daemon) and starts a new worker.<br><br>
+ *
+ * The abandoned thread can't change the results of parsing: the entry is
+ * stored by the caller (see WiktParser.parseWiktionaryEntry()) only if
+ * parse() returns it, and the parser checks the cancelled budget before
+ * it adds new context labels to the static maps (LabelRu, LabelEn).
+ * Abandoned threads still take CPU and memory, so after MAX_ABANDONED of
+ * them parse() throws AbandonedException and the parsing should be stopped.
+ */
+public class ParseWatchdog {
+
+    /** Default limit of parsing time of one entry, milliseconds. */
+    public static final long DEFAULT_MAX_MILLIS = 30000;
+
+    /** Default limit of memory allocated while parsing one entry (512 MB). */
+    public static final long DEFAULT_MAX_BYTES = 512L << 20;
+
+    /** Additional waiting of the worker thread after the budget time. */
+    private static final long GRACE_MILLIS = 2000;
+
+    /** Number of abandoned worker threads, after which the parsing is stopped. */
+    public static final int MAX_ABANDONED = 3;
+
+    /** Reason of the quarantine when the parser throws an exception. */
+    public static final String REASON_ERROR = "ERROR";
+
+    private final Connect wikt_parsed_conn;
+    private final long max_millis;
+    private final long max_bytes;
+
+    /** Counter of memory allocated by the worker thread, null if the JVM doesn't count it. */
+    private static final ParseBudget.AllocationCounter allocation_counter = ThreadAllocationCounter.get();
+
+    private ExecutorService worker;
+
+    /** Too many worker threads are stuck, the parsing should be stopped. */
+    public static class AbandonedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public AbandonedException(String message) {
+            super(message);
+        }
+    }
+
+    /** Number of quarantined entries. */
+    private int n_quarantined;
+
+    /** Number of abandoned (stuck) worker threads. */
+    private int n_abandoned;
+
+    /** @param wikt_parsed_conn connection to the parsed database where
+     *                          quarantined entries are stored, null - only
+     *                          print them
+     *  @param max_millis       time limit of one entry, 0 - unlimited
+     *  @param max_bytes        limit of memory allocated while parsing of one
+     *                          entry, 0 - unlimited
+     */
+    public ParseWatchdog(Connect wikt_parsed_conn, long max_millis, long max_bytes) {
+        this.wikt_parsed_conn = wikt_parsed_conn;
+        this.max_millis = max_millis;
+        this.max_bytes  = max_bytes;
+        worker = newWorker();
+
+        if(null != wikt_parsed_conn)
+            TParseQuarantine.createTable(wikt_parsed_conn);
+    }
+
+    public ParseWatchdog(Connect wikt_parsed_conn) {
+        this(wikt_parsed_conn, DEFAULT_MAX_MILLIS, DEFAULT_MAX_BYTES);
+    }
+
+    private static ExecutorService newWorker() {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "wikt-parse-worker");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /** Parses the text of the entry.
+     *
+     * @return parsed entry, or null if the entry was quarantined
+     * @throws AbandonedException if MAX_ABANDONED worker threads are abandoned
+     */
+    public WordBase parse(final String page_title,
+                          final LanguageType native_lang,
+                          final CharSequence text)
+    {
+        if(n_abandoned >= MAX_ABANDONED)
+            throw newAbandonedException();
+
+        final ParseBudget budget = new ParseBudget(max_millis, max_bytes, allocation_counter);
+        Future<WordBase> f = worker.submit(new Callable<WordBase>() {
+            public WordBase call() {
+                budget.enter();
+                try {
+                    return new WordBase(page_title, native_lang, text);
+                } finally {
+                    budget.exit();
+                }
+            }
+        });
+
+        try {
+            if(0 == max_millis)
+                return f.get();
+            return f.get(max_millis + GRACE_MILLIS, TimeUnit.MILLISECONDS);
+
+        } catch(ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof ParseBudget.ExceededException) {
+                ParseBudget.ExceededException ex = (ParseBudget.ExceededException)cause;
+                quarantine(page_title, ex.getReason().toString(),
+                           ex.getElapsedMillis(), ex.getAllocatedBytes(), ex.getMessage());
+            } else if(cause instanceof OutOfMemoryError) {
+                quarantine(page_title, ParseBudget.Reason.MEMORY.toString(),
+                           budget.getElapsedMillis(), budget.getAllocatedBytes(), cause.toString());
+            } else {
+                quarantine(page_title, REASON_ERROR,
+                           budget.getElapsedMillis(), budget.getAllocatedBytes(), cause.toString());
+            }
+        } catch(TimeoutException e) {
+            // the thread is stuck outside of the guarded regular expressions
+            budget.cancel();
+            f.cancel(true);
+            quarantine(page_title, ParseBudget.Reason.TIME.toString(),
+                       budget.getElapsedMillis(), budget.getAllocatedBytes(),
+                       "The parser doesn't respond.");
+            abandonWorkerIfStuck();
+
+        } catch(InterruptedException e) {
+            budget.cancel();
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /** Starts new worker thread if the current one doesn't finish the
+     * cancelled task in GRACE_MILLIS.
+     * @throws AbandonedException if MAX_ABANDONED worker threads are abandoned
+     */
+    private void abandonWorkerIfStuck() {
+        Future<?> probe = worker.submit(new Runnable() { public void run() {} });
+        try {
+            probe.get(GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        } catch(TimeoutException e) {
+            worker.shutdownNow();
+            worker = newWorker();
+            n_abandoned ++;
+            System.out.println("Warning in ParseWatchdog.abandonWorkerIfStuck(): the parser thread is abandoned.");
+            if(n_abandoned >= MAX_ABANDONED)
+                throw newAbandonedException();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e) {
+        }
+    }
+
+    private AbandonedException newAbandonedException() {
+        return new AbandonedException(n_abandoned + " parser threads are stuck and abandoned.");
+    }
+
+    private void quarantine(String page_title, String reason,
+                            long elapsed_ms, long allocated_bytes, String message) {
+        n_quarantined ++;
+        System.out.println("Warning in ParseWatchdog.parse(): the entry '" + page_title +
+                "' is quarantined (" + reason + ", " + elapsed_ms + " ms, " +
+                allocated_bytes + " bytes): " + message);
+
+        if(null != wikt_parsed_conn)
+            TParseQuarantine.insert(wikt_parsed_conn, page_title, reason,
+                                    elapsed_ms, allocated_bytes, message);
+    }
+
+    /** Gets number of quarantined entries. */
+    public int getQuarantinedCount() {
+        return n_quarantined;
+    }
+
+    /** Gets number of worker threads which were stuck and abandoned. */
+    public int getAbandonedCount() {
+        return n_abandoned;
+    }
+
+    /** Stops the worker thread. */
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
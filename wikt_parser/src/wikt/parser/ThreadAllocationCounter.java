@@ -0,0 +1,42 @@
+/* ThreadAllocationCounter.java - memory allocated by a thread (HotSpot JVM).
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.parser;
+
+import wikokit.base.wikipedia.text.ParseBudget;
+
+import java.lang.management.ManagementFactory;
+
+/** Counts memory allocated by a thread with com.sun.management.ThreadMXBean,
+ * it is used by ParseWatchdog for the memory limit of ParseBudget.
+ */
+public class ThreadAllocationCounter implements ParseBudget.AllocationCounter {
+
+    private final com.sun.management.ThreadMXBean thread_bean;
+
+    private ThreadAllocationCounter(com.sun.management.ThreadMXBean thread_bean) {
+        this.thread_bean = thread_bean;
+    }
+
+    /** Gets the counter, or null if the JVM doesn't count memory allocated
+     * by threads. */
+    public static ThreadAllocationCounter get() {
+        try {
+            java.lang.management.ThreadMXBean b = ManagementFactory.getThreadMXBean();
+            if(b instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sb = (com.sun.management.ThreadMXBean)b;
+                if(sb.isThreadAllocatedMemorySupported() && sb.isThreadAllocatedMemoryEnabled())
+                    return new ThreadAllocationCounter(sb);
+            }
+        } catch(Throwable e) {  // other JVM
+        }
+        return null;
+    }
+
+    public long getAllocatedBytes(Thread t) {
+        return Math.max(0, thread_bean.getThreadAllocatedBytes(t.getId()));
+    }
+}
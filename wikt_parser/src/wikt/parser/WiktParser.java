@@ -10,7 +10,7 @@ import java.util.*;
 
 import wikokit.base.wikt.word.WordBase;
 import wikokit.base.wikipedia.language.LanguageType;
-import wikokit.base.wikipedia.category.CategoryHyponyms;
+import wikokit.base.wikipedia.category.CategoryIndex;
 import wikokit.base.wikt.mrd.Keeper;
 import wikokit.base.wikt.sql.index.IndexForeign;
 
@@ -25,6 +25,7 @@ import wikokit.base.wikt.constant.LabelCategoryLocal;
 import wikokit.base.wikt.multi.ru.name.LabelCategoryRu;
 
 import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikt.sql.TParseQuarantine;
 import wikokit.base.wikt.sql.TPOS;
 import wikokit.base.wikt.sql.TRelationType;
 import wikokit.base.wikt.sql.label.TLabel;
@@ -93,6 +94,9 @@ source ./wikt_parser/doc/wikt_parsed_empty.sql
 
         UtilSQL.deleteAllRecordsResetAutoIncrement(wikt_parsed_conn, "index_native");
 
+        TParseQuarantine.createTable(wikt_parsed_conn);
+        UtilSQL.deleteAllRecordsResetAutoIncrement(wikt_parsed_conn, "parse_quarantine");
+
         IndexForeign.generateTables(wikt_parsed_conn, native_lang);
     }
 
@@ -173,28 +177,44 @@ source ./wikt_parser/doc/wikt_parsed_empty.sql
                                             // "Literature"     812 docs - OK
                                             // "Folklore"       29 docs
                                             // "American_poets" 9 docs  - OK
-        List<String> pt = CategoryHyponyms.getArticlesOfSubCategories(wikt_conn, category_name); //"Яблоки"
-        System.out.println("Total documents: " + pt.size());
-        for(String page_title:pt) {
-            cur_doc ++;
-            //page_title = "ангел";                   // ангел  самолёт коса яблоко
-            //page_title = "апподжиатура";          // Bolesław_Prus car
-            //if(++ cur_doc > max_docs) {
-            //if(++ cur_doc > 100)
-              //  break;
+        // the category tree is loaded once, titles of articles are selected by batches
+        CategoryIndex category_index = CategoryIndex.load(wikt_conn);
+        if(null == category_index) {
+            System.out.println("Error (WiktParser.runSubCategories()): the category tree is not loaded.");
+            return;
+        }
+        int[] page_ids = category_index.getArticleIDs(category_name, -1); //"Яблоки"
+        System.out.println("Total documents: " + page_ids.length);
+        Iterator<String> it = CategoryIndex.iterateTitles(wikt_conn, page_ids);
+        ParseWatchdog watchdog = new ParseWatchdog(wikt_parsed_conn);
+        try {
+            while(it.hasNext()) {
+                String page_title = it.next();
+                cur_doc ++;
+                //page_title = "ангел";                   // ангел  самолёт коса яблоко
+                //page_title = "апподжиатура";          // Bolesław_Prus car
+                //if(++ cur_doc > max_docs) {
+                //if(++ cur_doc > 100)
+                  //  break;
             
-            //page_title = pt3[cur_doc]; // "Will_o'_the_wisp"; // "Momotarō";    // id=68417
-            if(DEBUG) {
-                System.out.println(" "+cur_doc+": "+page_title + " ");
-            }
+                //page_title = pt3[cur_doc]; // "Will_o'_the_wisp"; // "Momotarō";    // id=68417
+                if(DEBUG) {
+                    System.out.println(" "+cur_doc+": "+page_title + " ");
+                }
             
-            parseWiktionaryEntry(native_lang, wikt_conn, wikt_parsed_conn, page_title);
+                parseWiktionaryEntry(native_lang, wikt_conn, wikt_parsed_conn, page_title, watchdog);
+            }
+        } catch(ParseWatchdog.AbandonedException ex) {
+            System.out.println("Error (WiktParser.runSubCategories()): parsing is stopped. " + ex.getMessage());
+        } finally {
+            watchdog.shutdown();
         }
                 
         t_end  = System.currentTimeMillis();
         t_work = (t_end - t_start)/1000f; // in sec
         System.out.println("\n\nTime sec:" + t_work + 
-                "\ndocuments: " + pt.size());
+                "\ndocuments: " + page_ids.length +
+                "\nquarantined: " + watchdog.getQuarantinedCount());
     }
 
     /** Parses one article.
@@ -211,10 +231,28 @@ source ./wikt_parser/doc/wikt_parsed_empty.sql
                     Connect wikt_parsed_conn,
                     String page_title
                     )
+    {
+        parseWiktionaryEntry(native_lang, wikt_conn, wikt_parsed_conn, page_title, null);
+    }
+
+    /** Parses one article under the time and memory budget of the watchdog.
+     * The article which exceeds the budget is not stored, it is added to
+     * the table 'parse_quarantine'.
+     *
+     * @param watchdog  runs the parser with the budget, if null then the
+     *                  article is parsed in the current thread without limits
+     */
+    public static void parseWiktionaryEntry(
+                    LanguageType native_lang,
+                    Connect wikt_conn,
+                    Connect wikt_parsed_conn,
+                    String page_title,
+                    ParseWatchdog watchdog
+                    )
     {
         // gets Wiktionary article text
-        StringBuffer str = new StringBuffer( //StringUtil.escapeCharDollar(
-                PageTableBase.getArticleText(wikt_conn, page_title));
+        String str = //StringUtil.escapeCharDollar(
+                PageTableBase.getArticleText(wikt_conn, page_title);
 
         if(0 == str.length()) {
             //System.out.println("Error in WiktParser.parseWiktionaryEntry(): The article with the title '"+
@@ -226,7 +264,14 @@ source ./wikt_parser/doc/wikt_parsed_empty.sql
         page_title = page_title.replace("_", " ");
 
         // parses wiki text 'str', stores to the object 'word'
-        WordBase word = new WordBase(page_title, native_lang, str);
+        WordBase word;
+        if(null == watchdog) {
+            word = new WordBase(page_title, native_lang, str);
+        } else {
+            word = watchdog.parse(page_title, native_lang, str);
+            if(null == word)
+                return;     // quarantined
+        }
 
         if(word.hasOnlyTemplatesWithoutDefinitions())
             return;
@@ -239,8 +284,5 @@ source ./wikt_parser/doc/wikt_parsed_empty.sql
 
         // store results to tables: pos_term, meaning, synonyms...
         Keeper.storeToDB(wikt_parsed_conn, word, native_lang);
-        
-        str.setLength(0);
-        str = null;
     }
 }
@@ -0,0 +1,284 @@
+/* NameClusterer.java - clustering of similar names (authors, sources)
+ * with candidate blocking by character bigrams.
+ *
+ * Copyright (c) 2026 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.stat;
+
+import uk.ac.shef.wit.simmetrics.similaritymetrics.AbstractStringMetric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Finds for each name the most similar name among the names added before it,
+ * and joins the names with similarity > threshold into clusters.
+ *
+ * Names are not compared all against all: an inverted index
+ * (bigram -> ids of names) selects candidates which share
+ * at least a third (MIN_SHARED_FRACTION) of bigrams of the shorter name,
+ * then only candidates are scored by the metric (in several threads).
+ * Short names (< 2 bigrams) are compared with all previous names.
+ *
+ * Blocking is approximate: a pair of names with similarity > threshold
+ * but almost without common bigrams (e.g. all letters transposed) is missed.
+ * Pairs with very different lengths are skipped also, if an upper bound
+ * of Jaro-Winkler similarity (see isLengthCompatible()) does not exceed
+ * the threshold; this bound assumes the metric is JaroWinkler of simmetrics.
+ *
+ * Usage: add() names in the order of appearance, then cluster(),
+ * then getNearest(), getSimilarity(), getNameToCluster().
+ */
+public class NameClusterer {
+    private static final boolean DEBUG = false;
+
+    /** Part of bigrams of the shorter name, which should be in the candidate. */
+    private final static float MIN_SHARED_FRACTION = 0.34f;
+
+    /** Number of names scored by one task. */
+    private final static int CHUNK_SIZE = 256;
+
+    private final AbstractStringMetric metric;
+    private final float threshold;
+
+    /** Names in the order of addition, index = name id. */
+    private final List<String> names = new ArrayList<String>();
+
+    /** Bigram -> ascending ids of names containing the bigram. */
+    private final Map<String, IntList> bigram_to_ids = new HashMap<String, IntList>();
+
+    /** Number of distinct bigrams in each name. */
+    private final IntList n_bigrams = new IntList();
+
+    /** Nearest previous name id (-1 if there are no candidates) and similarity to it. */
+    private int[]   nearest;
+    private float[] similarity;
+
+    private final static String[] NULL_STRING_ARRAY = new String[0];
+
+    /** @param _metric      similarity metric, getSimilarity() should be thread-safe
+     *  @param _threshold   names with similarity > threshold are joined into one cluster
+     */
+    public NameClusterer(AbstractStringMetric _metric, float _threshold) {
+        metric = _metric;
+        threshold = _threshold;
+    }
+
+    /** Adds the name, returns id of the name. */
+    public int add(String name) {
+        int id = names.size();
+        names.add(name);
+
+        String[] grams = getBigrams(name);
+        n_bigrams.add(grams.length);
+        for(String g : grams) {
+            IntList ids = bigram_to_ids.get(g);
+            if(null == ids) {
+                ids = new IntList();
+                bigram_to_ids.put(g, ids);
+            }
+            ids.add(id);
+        }
+        nearest = null; // not clustered
+        return id;
+    }
+
+    /** Counts number of names. */
+    public int size() {
+        return names.size();
+    }
+
+    /** Gets distinct lower-case bigrams of the name. */
+    private static String[] getBigrams(String name) {
+        String s = name.toLowerCase();
+        if(s.length() < 2)
+            return NULL_STRING_ARRAY;
+
+        List<String> result = new ArrayList<String>(s.length() - 1);
+        for(int i=0; i<s.length() - 1; i++) {
+            String g = s.substring(i, i + 2);
+            if(!result.contains(g))
+                result.add(g);
+        }
+        return result.toArray(NULL_STRING_ARRAY);
+    }
+
+    /** Returns false if Jaro-Winkler similarity of strings with these lengths
+     * can not exceed the threshold: the number of common characters is not greater
+     * than the shorter length, the prefix bonus is not greater than 0.6*(1-jaro),
+     * since simmetrics JaroWinkler takes into account the common prefix
+     * up to 6 characters with the scale 0.1.
+     */
+    private boolean isLengthCompatible(int len_a, int len_b) {
+        int min = Math.min(len_a, len_b);
+        int max = Math.max(len_a, len_b);
+        if(0 == min)
+            return false;
+        float jaro = (1.0f + (float)min / max + 1.0f) / 3.0f;
+        return jaro + 0.6f * (1.0f - jaro) > threshold;
+    }
+
+    /** Finds the nearest previous name for the names [from, to). */
+    private void scoreRange(int from, int to) {
+        int[] shared  = new int[names.size()];
+        int[] touched = new int[names.size()];
+
+        for(int i=from; i<to; i++) {
+            String name = names.get(i);
+            int   best = -1;
+            float best_sim = 0;
+
+            if(0 == i) {
+                nearest[i] = -1;
+                similarity[i] = 0;
+                continue;
+            }
+
+            String[] grams = getBigrams(name);
+            if(grams.length < 2) {
+                // short name: no reliable bigrams, compare with all previous names
+                for(int j=0; j<i; j++) {
+                    float sim = metric.getSimilarity(name, names.get(j));
+                    if(-1 == best || sim > best_sim) {
+                        best = j;
+                        best_sim = sim;
+                    }
+                }
+            } else {
+                int n_touched = 0;
+                for(String g : grams) {
+                    IntList ids = bigram_to_ids.get(g);
+                    for(int k=0; k<ids.size; k++) {
+                        int j = ids.data[k];
+                        if(j >= i)
+                            break;  // ascending ids, only previous names
+                        if(0 == shared[j])
+                            touched[n_touched ++] = j;
+                        shared[j] ++;
+                    }
+                }
+
+                // ascending ids: the first of equal maximums is taken, as in the full scan
+                Arrays.sort(touched, 0, n_touched);
+                for(int k=0; k<n_touched; k++) {
+                    int j = touched[k];
+                    int min_bigrams = Math.min(grams.length, n_bigrams.data[j]);
+                    if(shared[j] >= Math.max(1, (int)Math.ceil(MIN_SHARED_FRACTION * min_bigrams))
+                       && isLengthCompatible(name.length(), names.get(j).length())) {
+                        float sim = metric.getSimilarity(name, names.get(j));
+                        if(-1 == best || sim > best_sim) {
+                            best = j;
+                            best_sim = sim;
+                        }
+                    }
+                    shared[j] = 0;
+                }
+            }
+            nearest[i] = best;
+            similarity[i] = best_sim;
+
+            if(DEBUG && best_sim > threshold)
+                System.out.println("(NameClusterer.scoreRange()): max dist(" + name + ", " + names.get(best) + ")= " + best_sim);
+        }
+    }
+
+    /** Scores candidates in n_threads threads and joins similar names into clusters.
+     *
+     * @param n_threads number of threads, 1 - score in the current thread
+     */
+    public void cluster(int n_threads) {
+        int n = names.size();
+        nearest    = new int  [n];
+        similarity = new float[n];
+
+        if(n_threads <= 1 || n <= CHUNK_SIZE) {
+            scoreRange(0, n);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(n_threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<Future<?>>();
+            for(int from=0; from<n; from += CHUNK_SIZE) {
+                final int _from = from;
+                final int _to   = Math.min(n, from + CHUNK_SIZE);
+                tasks.add(executor.submit(new Runnable() {
+                    public void run() {
+                        scoreRange(_from, _to);
+                    }
+                }));
+            }
+            for(Future<?> f : tasks)
+                f.get();
+        } catch(Exception ex) {
+            System.out.println("Error in NameClusterer.cluster(): " + ex.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /** Gets the name with the given id. */
+    public String getName(int id) {
+        return names.get(id);
+    }
+
+    /** Gets id of the most similar name added before this one,
+     * -1 for the first name or if there are no candidates. cluster() should be called before.
+     */
+    public int getNearest(int id) {
+        return nearest[id];
+    }
+
+    /** Gets similarity to the nearest name (0 if there is no nearest name). */
+    public float getSimilarity(int id) {
+        return similarity[id];
+    }
+
+    /** Joins names (in the order of addition) with the nearest previous names,
+     * if similarity > threshold. The name of the cluster is the name of the first pair
+     * or the cluster already assigned to one of the pair.
+     *
+     * @return map from the name to the cluster name, names without pair are absent
+     */
+    public Map<String, String> getNameToCluster() {
+        Map<String, String> word_to_cluster = new HashMap<String, String>();
+
+        for(int i=0; i<names.size(); i++) {
+            if(-1 == nearest[i] || similarity[i] <= threshold)
+                continue;
+
+            String a = names.get(i);
+            String b = names.get(nearest[i]);
+            String cluster_name = "";
+            if(!word_to_cluster.containsKey(a) && !word_to_cluster.containsKey(b)) {
+                cluster_name = a;
+            } else if(word_to_cluster.containsKey(a)) {
+                cluster_name = word_to_cluster.get(a);
+            } else if(word_to_cluster.containsKey(b)) {
+                cluster_name = word_to_cluster.get(b);
+            }
+            word_to_cluster.put(a, cluster_name);
+            word_to_cluster.put(b, cluster_name);
+        }
+        return word_to_cluster;
+    }
+
+    /** Growable array of int. */
+    private static class IntList {
+        int[] data = new int[4];
+        int   size = 0;
+
+        void add(int value) {
+            if(size == data.length)
+                data = Arrays.copyOf(data, size * 2);
+            data[size ++] = value;
+        }
+    }
+}
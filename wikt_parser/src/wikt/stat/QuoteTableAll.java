@@ -29,7 +29,6 @@ import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
 
 
 /** Quotes' statistics in the database of the parsed Wiktionary.
@@ -57,6 +56,9 @@ public class QuoteTableAll {
     private static AbstractStringMetric metric = new JaroWinkler();
     private static float CLUSTER_THRESHOLD = 0.87F;
 
+    /** Authors in the order of adding, it calculates the nearest author names. */
+    private static NameClusterer author_clusterer = new NameClusterer(metric, CLUSTER_THRESHOLD);
+
 
     /** Inner class which contains the string which is nearest to some word,
      * the distance is stored in 'dist'.
@@ -106,51 +108,14 @@ public class QuoteTableAll {
         NearestWord nearest_word;
 
         
-        /** Calculates shortest distance between source word and the set of words 'words'.
-         * Returns object NearestWord with shortest distance and the nearest word.
-         *
-         * Remark: nearest word has maximum distance.
-         */
-        private static NearestWord calcDistance(String source_word, Set<String> words)
-        {
-
-            float max_dist = 0;
-            String nearest_word = "";
-            boolean b_first = true;
-
-            if(0 == source_word.length() || 0 == words.size()) {
-                System.out.println("Warning (QuoteTableAll.ObjectWithWords.calcDistance()): source_word or words are empty!");
-                return new NearestWord (max_dist, nearest_word);
-            }
-
-            for(String w : words) {
-                float dist = metric.getSimilarity(source_word, w);
-                
-                if( b_first ) {
-                    b_first = false;
-                    max_dist = dist;
-                    nearest_word = w;
-                } else {
-                    if(dist > max_dist) {
-                        max_dist = dist;
-                        nearest_word = w;
-                        if(DEBUG && max_dist > CLUSTER_THRESHOLD)
-                            System.out.println("(QuoteTableAll.ObjectWithWords.calcDistance()): max dist("+source_word+
-                                            ", "+ w +")= "+max_dist);
-                    }
-                }
-            }
-            return new NearestWord (max_dist, nearest_word);
-        }
-
-
         /** Adds new quote object (source, or author...) to the map m;
          * if there is space (< MAX_EXAMPLE_WORDS), then add example word for this object.
+         * New objects are added to the clusterer (if it is not null).
          */
         private static void add(String page_title, 
                                 String _object_name, String _object_wikilink, // TQuotSource tsource, // String _source,
                                 Map<String, ObjectWithWords> m,
-                                Map<String, String> word_to_cluster)
+                                NameClusterer clusterer)
                                 //List<String> ordered_list)
         {
             if(0 == _object_name.length()) {
@@ -172,27 +137,8 @@ public class QuoteTableAll {
                     ordered_list.add(_object_name);
                     s_w.nearest_word = calcDistance( _object_name, m.keySet());
                 }*/
-                if(null != word_to_cluster) {
-                    NearestWord nw = calcDistance( _object_name, m.keySet());
-                    s_w.nearest_word = nw;
-                    if(nw.dist > CLUSTER_THRESHOLD) {
-
-                        String cluster_name = "";
-                        String a = _object_name;
-                        String b = nw.nearest_name;
-                        if(!word_to_cluster.containsKey(a) && !word_to_cluster.containsKey(b)) {
-                            cluster_name = _object_name;
-                        } else if(word_to_cluster.containsKey(a)) {
-                            cluster_name = word_to_cluster.get(a);
-                        } else if(word_to_cluster.containsKey(b)) {
-                            cluster_name = word_to_cluster.get(b);
-                        }
-                        word_to_cluster.put(a, cluster_name);
-                        word_to_cluster.put(b, cluster_name);
-                        //System.out.println("(QuoteTableAll.ObjectWithWords.add()): page=" +page_title+ " cluster:"+cluster_name+
-                        //        " + two words: '"+a+"' (len="+a.length()+") and '"+b+"' (len="+b.length()+"); equals="+a.equalsIgnoreCase(b));
-                    }
-                }
+                if(null != clusterer)   // the nearest word is calculated later, see clusterNames()
+                    clusterer.add(_object_name);
                 m.put(_object_name, s_w);
 
             } else {
@@ -208,6 +154,25 @@ public class QuoteTableAll {
     } // eo class ObjectWithWords
     
 
+    /** Finds the nearest word for each object added to the clusterer
+     * (in several threads), joins similar objects into clusters.
+     *
+     * @return map from the object name to the cluster name
+     */
+    private static Map<String, String> clusterNames(NameClusterer clusterer,
+                                                    Map<String, ObjectWithWords> m)
+    {
+        clusterer.cluster(Runtime.getRuntime().availableProcessors());
+
+        for(int i=0; i<clusterer.size(); i++) {
+            ObjectWithWords s_w = m.get(clusterer.getName(i));
+            int j = clusterer.getNearest(i);
+            s_w.nearest_word = new NearestWord(clusterer.getSimilarity(i),
+                                               -1 == j ? "" : clusterer.getName(j));
+        }
+        return clusterer.getNameToCluster();
+    }
+
     /** Collects words from one cluster to one list.
      */
     private static Map<String, List<String>> collectWordsToCluster(Map<String, String> word_to_cluster)
@@ -302,7 +267,7 @@ public class QuoteTableAll {
                         if(null != tquot_author) {
                             n_total_with_authors ++;
                             ObjectWithWords.add(page_title, tquot_author.getName(), tquot_author.getWikilink(), 
-                                                m_author_n, author_to_cluster); // l_author_n);
+                                                m_author_n, author_clusterer);
                         }
                     }
                     
@@ -497,6 +462,7 @@ public class QuoteTableAll {
         Map<LanguageType, Integer> m = QuoteTableAll.countQuotes(wikt_parsed_conn);
         wikt_parsed_conn.Close();
 
+        author_to_cluster = clusterNames(author_clusterer, m_author_n);
         Map<String, List<String>> cluster_to_authors = collectWordsToCluster(author_to_cluster); // author_to_cluster
         //private static Map<String, String> author_to_cluster = new HashMap<String, String>();
 
@@ -0,0 +1,73 @@
+package wikt.dict;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DictDatabaseTest {
+
+    DictDatabase db;
+
+    public DictDatabaseTest() {
+    }
+
+    @Before
+    public void setUp() {
+        db = DictDatabase.create("en", "English", Arrays.asList(
+                "apply", "apple", "banana", "apple", "pineapple", "ape", "apples", "maple"));
+    }
+
+    @Test
+    public void testCreate() {
+        System.out.println("create");
+        assertEquals(7, db.size());         // "apple" twice
+        assertTrue (db.contains("apple"));
+        assertFalse(db.contains("appl"));
+    }
+
+    @Test
+    public void testMatch_exact_prefix() {
+        System.out.println("match_exact_prefix");
+        assertEquals(Arrays.asList("apple"), db.match(DictStrategy.exact, "apple", 100));
+        assertTrue(db.match(DictStrategy.exact, "Apple", 100).isEmpty());
+
+        assertEquals(Arrays.asList("apple", "apples", "apply"), db.match(DictStrategy.prefix, "appl", 100));
+        assertEquals(Arrays.asList("apple", "apples"),          db.match(DictStrategy.prefix, "appl", 2));
+        assertTrue(db.match(DictStrategy.prefix, "zz", 100).isEmpty());
+    }
+
+    @Test
+    public void testMatch_substring_lev() {
+        System.out.println("match_substring_lev");
+        assertEquals(Arrays.asList("apple", "apples", "maple", "pineapple"),
+                     db.match(DictStrategy.substring, "ple", 100));
+
+        List<String> lev = db.match(DictStrategy.lev, "aple", 100);
+        assertEquals(Arrays.asList("ape", "apple", "maple"), lev);
+        assertEquals(Arrays.asList("apple", "apples", "apply"), db.match(DictStrategy.lev, "apple", 100));
+    }
+
+    @Test
+    public void testIsLevenshteinOne() {
+        System.out.println("isLevenshteinOne");
+        assertTrue (DictStrategy.isLevenshteinOne("word",  "word"));
+        assertTrue (DictStrategy.isLevenshteinOne("word",  "ward"));
+        assertTrue (DictStrategy.isLevenshteinOne("word",  "wrd"));
+        assertTrue (DictStrategy.isLevenshteinOne("wrd",   "word"));
+        assertTrue (DictStrategy.isLevenshteinOne("words", "word"));
+        assertTrue (DictStrategy.isLevenshteinOne("",      "a"));
+        assertFalse(DictStrategy.isLevenshteinOne("word",  "wrod"));
+        assertFalse(DictStrategy.isLevenshteinOne("word",  "wo"));
+        assertFalse(DictStrategy.isLevenshteinOne("word",  "wart"));
+    }
+
+    @Test
+    public void testGetStrategy() {
+        System.out.println("getStrategy");
+        assertSame(DictStrategy.prefix, DictStrategy.get("prefix"));
+        assertSame(DictStrategy.DEFAULT, DictStrategy.get("."));
+        assertNull(DictStrategy.get("soundex"));
+    }
+}
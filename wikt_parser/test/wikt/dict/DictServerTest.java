@@ -0,0 +1,194 @@
+package wikt.dict;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.zuckerfrei.jcfd.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** The server with databases in memory, it is queried by the jcfd client
+ * and by the raw socket. */
+public class DictServerTest {
+
+    DictServer server;
+    int port;
+
+    /** Counts calls of the loader behind the cache. */
+    AtomicInteger n_loads = new AtomicInteger();
+
+    CachedEntryLoader cache;
+
+    public DictServerTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        List<DictDatabase> dbs = new ArrayList<DictDatabase>();
+        dbs.add(DictDatabase.create("en", "English", Arrays.asList("apple", "apply", "bank", "dot", "maple")));
+        dbs.add(DictDatabase.create("de", "German",  Arrays.asList("apple", "Bank")));
+
+        EntryLoader loader = new EntryLoader() {
+            public String getDefinition(DictDatabase db, String word) {
+                n_loads.incrementAndGet();
+                if(word.equals("dot"))
+                    return "dot\n.hidden line\n";
+                if(word.equals("Bank") && db.getName().equals("de"))
+                    return "Bank\n" + new String(new char[100000]).replace('\0', 'x') + "\n";
+                return word + "\n  noun\n    1. " + word + " in " + db.getDescription() + "\n";
+            }
+        };
+        cache = new CachedEntryLoader(loader, 100);
+        server = new DictServer(dbs, cache, 4);
+        port = server.start(0);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testJcfdClient() throws DictException {
+        System.out.println("jcfdClient");
+        Dict dict = new DictImpl("localhost", port) {};
+
+        assertNotNull(DatabaseList.findDatabase("en"));
+        assertNotNull(DatabaseList.findDatabase("de"));
+        assertNotNull(StrategyList.findStrategy("lev"));
+
+        DefinitionList defs = dict.define("apple");
+        assertEquals(2, defs.count());
+        Definition d = defs.next();
+        assertEquals("apple", d.getWord());
+        assertEquals("en", d.getDatabase().getCode());
+        assertTrue(d.getContent().toString().contains("apple in English"));
+        assertEquals("de", defs.next().getDatabase().getCode());
+
+        defs = dict.define("apple", true);
+        assertEquals(1, defs.count());
+        assertEquals("en", defs.next().getDatabase().getCode());
+
+        defs = dict.define("Bank", DatabaseList.findDatabase("de"));
+        assertEquals(1, defs.count());
+
+        MatchList matches = dict.match("app", StrategyList.findStrategy("prefix"));
+        assertEquals(3, matches.count());
+        List<String> words = new ArrayList<String>();
+        while(matches.hasNext()) {
+            Match m = matches.next();
+            words.add(m.getDatabase().getCode() + ":" + m.getWord());
+        }
+        assertEquals(Arrays.asList("en:apple", "en:apply", "de:apple"), words);
+
+        assertEquals(3, dict.match("aple").count());        // default is lev: apple, maple, de:apple
+        assertEquals(2, dict.match("ple", StrategyList.findStrategy("substring"),
+                                   DatabaseList.findDatabase("en")).count());
+
+        assertEquals(0, dict.define("absent").count());
+        dict.close();
+    }
+
+    /** Reads the response until the status line 2xx-5xx. */
+    private static List<String> readResponse(BufferedReader br) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        String line;
+        while(null != (line = br.readLine())) {
+            lines.add(line);
+            if(line.matches("[2-5]\\d\\d .*"))
+                break;
+        }
+        return lines;
+    }
+
+    @Test
+    public void testPipelining() throws IOException {
+        System.out.println("pipelining");
+        Socket s = new Socket("localhost", port);
+        BufferedReader br = new BufferedReader(new InputStreamReader(s.getInputStream(), "UTF-8"));
+        Writer w = new OutputStreamWriter(s.getOutputStream(), "UTF-8");
+        w.write("DEFINE en dot\r\nMATCH en exact \"absent word\"\r\nMATCH xx exact a\r\n" +
+                "MATCH en soundex a\r\nDEFINE en\r\nSHOW DB\r\nfoo\r\nQUIT\r\n");
+        w.flush();
+
+        assertTrue(br.readLine().startsWith("220 "));
+        assertEquals(Arrays.asList("150 1 definitions retrieved",
+                                   "151 \"dot\" en \"English\"", "dot", "..hidden line", ".", "250 ok"),
+                     readResponse(br));
+        assertTrue(readResponse(br).get(0).startsWith("552"));
+        assertTrue(readResponse(br).get(0).startsWith("550"));
+        assertTrue(readResponse(br).get(0).startsWith("551"));
+        assertTrue(readResponse(br).get(0).startsWith("501"));
+        assertEquals(Arrays.asList("110 2 databases present", "en \"English\"", "de \"German\"", ".", "250 ok"),
+                     readResponse(br));
+        assertTrue(readResponse(br).get(0).startsWith("500"));
+        assertEquals("221 bye", br.readLine());
+        assertNull(br.readLine());
+        s.close();
+    }
+
+    @Test
+    public void testManyConnections() throws Exception {
+        System.out.println("manyConnections");
+        int n = 500;
+        Socket[]         sockets = new Socket[n];
+        BufferedReader[] readers = new BufferedReader[n];
+        for(int i=0; i<n; i++) {
+            sockets[i] = new Socket("localhost", port);
+            readers[i] = new BufferedReader(new InputStreamReader(sockets[i].getInputStream(), "UTF-8"));
+        }
+        for(int i=0; i<n; i++) {
+            String word = 0 == i % 2 ? "bank" : "maple";
+            sockets[i].getOutputStream().write(("DEFINE en " + word + "\r\nSTATUS\r\n").getBytes("UTF-8"));
+        }
+        for(int i=0; i<n; i++) {
+            String word = 0 == i % 2 ? "bank" : "maple";
+            assertTrue(readers[i].readLine().startsWith("220 "));
+            List<String> r = readResponse(readers[i]);
+            assertEquals("151 \"" + word + "\" en \"English\"", r.get(1));
+            assertTrue(readResponse(readers[i]).get(0).startsWith("210 "));
+        }
+        for(Socket s : sockets)
+            s.close();
+
+        // two words, others are taken from the cache
+        // (concurrent workers may load the same word before it is cached)
+        assertEquals(n, cache.getHits() + cache.getMisses());
+        assertEquals(n_loads.get(), cache.getMisses());
+        assertTrue(n_loads.get() <= 2 * 4);
+        assertEquals(2, cache.size());
+    }
+
+    /** The client sends commands but doesn't read the responses: the server
+     * stops executing them when the responses pile up, and continues when
+     * the client reads. */
+    @Test
+    public void testSlowReader() throws Exception {
+        System.out.println("slowReader");
+        int n = 200;
+        Socket s = new Socket();
+        s.setReceiveBufferSize(8192);
+        s.connect(new java.net.InetSocketAddress("localhost", port));
+        StringBuilder sb = new StringBuilder();
+        for(int i=0; i<n; i++)
+            sb.append("DEFINE de Bank\r\n");
+        s.getOutputStream().write(sb.toString().getBytes("UTF-8"));
+        Thread.sleep(500);
+
+        // each response is 100 KB, the socket buffers and MAX_PENDING_OUTPUT hold a few of them
+        String status = server.getStatus();
+        int n_executed = Integer.parseInt(status.replaceAll(".*commands (\\d+).*", "$1"));
+        assertTrue(status, n_executed < n);
+
+        BufferedReader br = new BufferedReader(new InputStreamReader(s.getInputStream(), "UTF-8"));
+        assertTrue(br.readLine().startsWith("220 "));
+        for(int i=0; i<n; i++) {
+            List<String> r = readResponse(br);
+            assertEquals("151 \"Bank\" de \"German\"", r.get(1));
+        }
+        s.close();
+    }
+}
@@ -0,0 +1,79 @@
+package wikt.parser;
+
+import wikokit.base.wikt.word.WordBase;
+import wikokit.base.wikipedia.language.LanguageType;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ParseWatchdogTest {
+
+    ParseWatchdog watchdog;
+
+    static final String good_text = "= {{-ru-}} =\n=== Значение ===\n# [[фрукт]] яблони\n";
+
+    public ParseWatchdogTest() {
+    }
+
+    @Before
+    public void setUp() {
+        watchdog = new ParseWatchdog(null, 300, 0);     // without database
+    }
+
+    @After
+    public void tearDown() {
+        watchdog.shutdown();
+    }
+
+    private static StringBuffer repeat(String s, int len) {
+        StringBuffer sb = new StringBuffer(len + s.length());
+        while(sb.length() < len)
+            sb.append(s);
+        return sb;
+    }
+
+    @Test
+    public void testParse_good() {
+        System.out.println("parse_good");
+        WordBase word = watchdog.parse("яблоко", LanguageType.ru, new StringBuffer(good_text));
+        assertNotNull(word);
+        assertEquals("яблоко", word.getPageTitle());
+        assertEquals(0, watchdog.getQuarantinedCount());
+    }
+
+    /** Unclosed references make the regular expression quadratic,
+     * the entry is quarantined and the next one is parsed. */
+    @Test
+    public void testParse_adversarial() {
+        System.out.println("parse_adversarial");
+        StringBuffer text = new StringBuffer(good_text).append(repeat("<ref>", 200000));
+
+        long t_start = System.currentTimeMillis();
+        assertNull(watchdog.parse("bad", LanguageType.ru, text));
+        long t = System.currentTimeMillis() - t_start;
+        assertTrue("took " + t + " ms", t < 2000);
+        assertEquals(1, watchdog.getQuarantinedCount());
+        assertEquals(0, watchdog.getAbandonedCount());
+
+        assertNotNull(watchdog.parse("яблоко", LanguageType.ru, new StringBuffer(good_text)));
+        assertEquals(1, watchdog.getQuarantinedCount());
+    }
+
+    /** The memory limit works if the JVM counts memory allocated by threads. */
+    @Test
+    public void testParse_memory() {
+        System.out.println("parse_memory");
+        Assume.assumeNotNull(ThreadAllocationCounter.get());
+
+        ParseWatchdog w = new ParseWatchdog(null, 0, 1024);
+        try {
+            StringBuffer text = new StringBuffer(good_text).append(repeat("# [[слово]] ''текст''\n", 100000));
+            assertNull(w.parse("big", LanguageType.ru, text));
+            assertEquals(1, w.getQuarantinedCount());
+        } finally {
+            w.shutdown();
+        }
+    }
+}
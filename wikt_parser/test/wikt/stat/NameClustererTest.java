@@ -0,0 +1,101 @@
+package wikt.stat;
+
+import uk.ac.shef.wit.simmetrics.similaritymetrics.AbstractStringMetric;
+import uk.ac.shef.wit.simmetrics.similaritymetrics.JaroWinkler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class NameClustererTest {
+
+    static final float THRESHOLD = 0.87f;
+    static final AbstractStringMetric metric = new JaroWinkler();
+
+    static final String[] authors = {
+        "Толстой", "Пушкин", "Толстой Лев Николаевич", "А. С. Пушкин", "Пушкин А. С.",
+        "Чехов", "А. П. Чехов", "Антон Чехов", "Л. Н. Толстой", "Лев Толстой",
+        "Достоевский", "Ф. М. Достоевский", "Гоголь", "Н. В. Гоголь", "Тургенев",
+        "И. С. Тургенев", "Лермонтов", "М. Ю. Лермонтов", "Толстой А. Н.", "Бунин",
+        "И. А. Бунин", "Горький", "М. Горький", "Максим Горький", "Куприн", "А. И. Куприн",
+        "Салтыков-Щедрин", "М. Е. Салтыков-Щедрин", "Мамин-Сибиряк", "Д. Н. Мамин-Сибиряк",
+        "Ильф и Петров", "И. Ильф, Е. Петров", "Паустовский", "К. Паустовский", "Шолохов",
+        "М. Шолохов", "Пастернак", "Б. Пастернак", "Набоков", "В. Набоков"
+    };
+
+    /** Gets names: authors and authors with initials, e.g. "Л. Толстой" and "Толстой Л." */
+    static List<String> getNames(int n_initials) {
+        List<String> names = new ArrayList<String>();
+        String letters = "АБВГДЕЖЗИКЛМНОПРСТ";
+        for(String a : authors)
+            names.add(a);
+        for(int i=0; i<n_initials; i++) {
+            String a = authors[i % authors.length];
+            char c = letters.charAt(i % letters.length());
+            names.add(0 == i % 2 ? c + ". " + a : a + " " + c + ".");
+        }
+        return names;
+    }
+
+    /** Compares the nearest names with the full scan (all against all previous names). */
+    static void assertSameAsBruteForce(List<String> names, int n_threads) {
+        NameClusterer clusterer = new NameClusterer(metric, THRESHOLD);
+        for(String name : names)
+            clusterer.add(name);
+        clusterer.cluster(n_threads);
+
+        for(int i=1; i<names.size(); i++) {
+            int   best = -1;
+            float best_sim = 0;
+            for(int j=0; j<i; j++) {
+                float sim = metric.getSimilarity(names.get(i), names.get(j));
+                if(-1 == best || sim > best_sim) {
+                    best = j;
+                    best_sim = sim;
+                }
+            }
+            if(best_sim > THRESHOLD) {
+                String pair = names.get(i) + " ~ " + names.get(best);
+                assertEquals(pair, best, clusterer.getNearest(i));
+                assertEquals(pair, best_sim, clusterer.getSimilarity(i), 0.0001f);
+            } else {
+                assertTrue(names.get(i), clusterer.getSimilarity(i) <= THRESHOLD);
+            }
+        }
+    }
+
+    @Test
+    public void testCluster_sameAsBruteForce() {
+        System.out.println("cluster_sameAsBruteForce");
+        assertSameAsBruteForce(getNames(0), 1);
+    }
+
+    @Test
+    public void testCluster_sameAsBruteForce_threads() {
+        System.out.println("cluster_sameAsBruteForce_threads");
+        List<String> names = getNames(600);
+        assertTrue(names.size() > 2 * 256);
+        assertSameAsBruteForce(names, 4);
+    }
+
+    @Test
+    public void testGetNameToCluster_differentLengths() {
+        System.out.println("getNameToCluster_differentLengths");
+
+        // the prefix bonus is large, though lengths are different
+        assertTrue(metric.getSimilarity("Толстой Лев Николаевич", "Толстой") > THRESHOLD);
+
+        NameClusterer clusterer = new NameClusterer(metric, THRESHOLD);
+        clusterer.add("Толстой");
+        clusterer.add("Пушкин");
+        clusterer.add("Толстой Лев Николаевич");
+        clusterer.cluster(1);
+
+        assertEquals(0, clusterer.getNearest(2));
+        Map<String, String> name_to_cluster = clusterer.getNameToCluster();
+        assertEquals(name_to_cluster.get("Толстой"), name_to_cluster.get("Толстой Лев Николаевич"));
+        assertNull(name_to_cluster.get("Пушкин"));
+    }
+}